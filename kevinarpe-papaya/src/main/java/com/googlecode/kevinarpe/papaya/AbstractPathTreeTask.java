@@ -0,0 +1,176 @@
+package com.googlecode.kevinarpe.papaya;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Base class for fork/join tasks over a directory tree used by
+ * {@link PathUtils#removeDirectoryTree(File)} and
+ * {@link PathUtils#copyDirectoryTree(File, File)}.
+ * <p>
+ * Each directory is one task.  Children of a directory are processed in parallel: each
+ * sub-directory is a new task, and files are processed in batches.  Failures are collected in a
+ * shared queue, so one failure does not stop work on other paths.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+abstract class AbstractPathTreeTask
+extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Maximum number of files processed sequentially by one task.  Larger directories are split
+     * into batches, so a single directory with millions of files is also processed in parallel.
+     */
+    static final int FILE_BATCH_SIZE = 256;
+
+    protected final Queue<PathException> failureQueue;
+    private boolean _isFailed;
+
+    protected AbstractPathTreeTask(Queue<PathException> failureQueue) {
+        this.failureQueue = failureQueue;
+    }
+
+    protected final void fail(PathException e) {
+        failureQueue.add(e);
+        _isFailed = true;
+    }
+
+    /**
+     * Only valid after this task completes.
+     *
+     * @return {@code true} if this task, or any task it invoked, failed
+     */
+    protected final boolean isFailed() {
+        return _isFailed;
+    }
+
+    /**
+     * Runs tasks in parallel and waits for all to complete.  If any task fails, this task also
+     * fails, but no new exception is collected.
+     */
+    protected final void invokeAllAndCheck(List<AbstractPathTreeTask> taskList) {
+        invokeAll(taskList);
+        for (AbstractPathTreeTask task : taskList) {
+            if (task.isFailed()) {
+                _isFailed = true;
+            }
+        }
+    }
+
+    /**
+     * Splits children of a directory: sub-directories and everything else.  Symbolic links are
+     * never followed, so a link to a directory is not a directory.
+     *
+     * @param childPathArr
+     *        children of a directory
+     * @param dirPathList
+     *        output list of sub-directories
+     * @param filePathList
+     *        output list of all other paths
+     */
+    static void splitChildPaths(
+            File[] childPathArr, List<File> dirPathList, List<File> filePathList) {
+        for (File childPath : childPathArr) {
+            if (Files.isDirectory(childPath.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+                dirPathList.add(childPath);
+            }
+            else {
+                filePathList.add(childPath);
+            }
+        }
+    }
+
+    /**
+     * Adds tasks for files in batches of {@link #FILE_BATCH_SIZE}.  If all files fit in one
+     * batch, they are processed immediately by the current thread.
+     */
+    protected final void processFiles(
+            List<File> filePathList, List<AbstractPathTreeTask> taskList) {
+        final int size = filePathList.size();
+        if (size <= FILE_BATCH_SIZE) {
+            processFilesNow(filePathList);
+            return;
+        }
+        for (int fromIndex = 0; fromIndex < size; fromIndex += FILE_BATCH_SIZE) {
+            final int toIndex = Math.min(size, fromIndex + FILE_BATCH_SIZE);
+            final List<File> batchList =
+                new ArrayList<File>(filePathList.subList(fromIndex, toIndex));
+            taskList.add(new _FileBatchTask(this, batchList));
+        }
+    }
+
+    final void processFilesNow(List<File> filePathList) {
+        for (File filePath : filePathList) {
+            PathException optException = processFile(filePath);
+            if (null != optException) {
+                fail(optException);
+            }
+        }
+    }
+
+    private static final class _FileBatchTask
+    extends AbstractPathTreeTask {
+
+        private static final long serialVersionUID = 1L;
+
+        private final AbstractPathTreeTask _owner;
+        private final List<File> _filePathList;
+
+        private _FileBatchTask(AbstractPathTreeTask owner, List<File> filePathList) {
+            super(owner.failureQueue);
+            _owner = owner;
+            _filePathList = filePathList;
+        }
+
+        @Override
+        protected void compute() {
+            processFilesNow(_filePathList);
+        }
+
+        @Override
+        protected PathException processFile(File filePath) {
+            return _owner.processFile(filePath);
+        }
+    }
+
+    /**
+     * Processes one non-directory path.  May be called concurrently by batch tasks, so
+     * implementations must not modify this task.
+     *
+     * @return exception on failure, else {@code null}
+     */
+    protected abstract PathException processFile(File filePath);
+}
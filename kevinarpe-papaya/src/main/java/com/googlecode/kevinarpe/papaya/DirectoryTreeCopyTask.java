@@ -0,0 +1,185 @@
+package com.googlecode.kevinarpe.papaya;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Copies a directory and all descendants.  Used by
+ * {@link PathUtils#copyDirectoryTree(File, File, java.util.concurrent.ForkJoinPool)}.
+ * <p>
+ * Each destination directory is created before its children are copied.  If this fails, the
+ * subtree is skipped.  After all children are copied, the last modified time of the destination
+ * directory is set to match the source directory.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+final class DirectoryTreeCopyTask
+extends AbstractPathTreeTask {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File _srcDirPath;
+    private final File _destDirPath;
+
+    DirectoryTreeCopyTask(File srcDirPath, File destDirPath, Queue<PathException> failureQueue) {
+        super(failureQueue);
+        _srcDirPath = srcDirPath;
+        _destDirPath = destDirPath;
+    }
+
+    @Override
+    protected void compute() {
+        try {
+            PathUtils.makeDirectory(_destDirPath);
+        }
+        catch (PathException e) {
+            fail(e);
+            return;
+        }
+        File[] optChildPathArr = _srcDirPath.listFiles();
+        if (null == optChildPathArr) {
+            final PathExceptionReason reason;
+            final String desc;
+            if (Files.exists(_srcDirPath.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+                reason = PathExceptionReason.UNKNOWN;
+                desc = "Failed to list directory";
+            }
+            else {
+                reason = PathExceptionReason.PATH_DOES_NOT_EXIST;
+                desc = "Directory does not exist";
+            }
+            String msg = String.format(
+                "Failed to copy directory tree: %s: '%s'", desc, _srcDirPath.getAbsolutePath());
+            fail(new PathException(reason, _srcDirPath, null, msg));
+            return;
+        }
+        List<File> dirPathList = new ArrayList<File>();
+        List<File> filePathList = new ArrayList<File>();
+        splitChildPaths(optChildPathArr, dirPathList, filePathList);
+
+        List<AbstractPathTreeTask> taskList = new ArrayList<AbstractPathTreeTask>();
+        for (File dirPath : dirPathList) {
+            File destDirPath = new File(_destDirPath, dirPath.getName());
+            taskList.add(new DirectoryTreeCopyTask(dirPath, destDirPath, failureQueue));
+        }
+        processFiles(filePathList, taskList);
+        invokeAllAndCheck(taskList);
+        // Best effort: Copying children changed the last modified time.
+        _destDirPath.setLastModified(_srcDirPath.lastModified());
+    }
+
+    /**
+     * Copies a file with attributes.  Symbolic links are copied as links.  Existing destination
+     * files are never replaced.
+     */
+    @Override
+    protected PathException processFile(File srcFilePath) {
+        File destFilePath = new File(_destDirPath, srcFilePath.getName());
+        try {
+            Files.copy(
+                srcFilePath.toPath(),
+                destFilePath.toPath(),
+                StandardCopyOption.COPY_ATTRIBUTES,
+                LinkOption.NOFOLLOW_LINKS);
+            return null;
+        }
+        catch (IOException e) {
+            PathException x = newCopyFileException(srcFilePath, destFilePath, e);
+            return x;
+        }
+    }
+
+    static PathException newCopyFileException(
+            File srcFilePath, File destFilePath, IOException cause) {
+        if (cause instanceof NoSuchFileException
+                && !Files.exists(srcFilePath.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+            String msg = String.format(
+                "Failed to copy file: Source path does not exist: '%s'",
+                srcFilePath.getAbsolutePath());
+            return new PathException(
+                PathExceptionReason.PATH_DOES_NOT_EXIST, srcFilePath, null, msg, cause);
+        }
+        if (cause instanceof FileAlreadyExistsException) {
+            final boolean isDir = destFilePath.isDirectory();
+            String msg = String.format(
+                "Failed to copy file: '%s'%n\tDestination path exists as a %s: '%s'",
+                srcFilePath.getAbsolutePath(),
+                (isDir ? "directory" : "file"),
+                destFilePath.getAbsolutePath());
+            return new PathException(
+                (isDir ? PathExceptionReason.PATH_IS_DIRECTORY
+                    : PathExceptionReason.PATH_IS_NORMAL_FILE),
+                destFilePath,
+                null,
+                msg,
+                cause);
+        }
+        File parentPath = destFilePath.getAbsoluteFile().getParentFile();
+        if (parentPath.isDirectory() && !parentPath.canWrite()) {
+            String msg = String.format(
+                "Failed to copy file: '%s'"
+                + "%n\tParent path exists as a directory, but is not writable: '%s'",
+                destFilePath.getAbsolutePath(),
+                parentPath.getAbsolutePath());
+            return new PathException(
+                PathExceptionReason.PARENT_PATH_IS_NON_WRITABLE_DIRECTORY,
+                destFilePath,
+                parentPath,
+                msg,
+                cause);
+        }
+        if (parentPath.getTotalSpace() > 0 && 0 == parentPath.getFreeSpace()) {
+            String msg = String.format(
+                "Failed to copy file: '%s'%n\tDisk partition for parent path is full: '%s'",
+                destFilePath.getAbsolutePath(),
+                parentPath.getAbsolutePath());
+            return new PathException(
+                PathExceptionReason.PARENT_PATH_DISK_PARTITION_IS_FULL,
+                destFilePath,
+                parentPath,
+                msg,
+                cause);
+        }
+        String msg = String.format(
+            "Failed to copy file: '%s' -> '%s'"
+            + "%n\tUnknown reason",
+            srcFilePath.getAbsolutePath(),
+            destFilePath.getAbsolutePath());
+        return new PathException(PathExceptionReason.UNKNOWN, destFilePath, null, msg, cause);
+    }
+}
@@ -0,0 +1,129 @@
+package com.googlecode.kevinarpe.papaya;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Removes a directory and all descendants.  Used by
+ * {@link PathUtils#removeDirectoryTree(File, java.util.concurrent.ForkJoinPool)}.
+ * <p>
+ * After all children are processed, the directory itself is removed, unless a child failed.
+ * Thus, each failure is reported once, not again for every ancestor directory.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+final class DirectoryTreeRemoveTask
+extends AbstractPathTreeTask {
+
+    private static final long serialVersionUID = 1L;
+
+    private final File _dirPath;
+
+    DirectoryTreeRemoveTask(File dirPath, Queue<PathException> failureQueue) {
+        super(failureQueue);
+        _dirPath = dirPath;
+    }
+
+    @Override
+    protected void compute() {
+        File[] optChildPathArr = _dirPath.listFiles();
+        if (null == optChildPathArr) {
+            if (Files.exists(_dirPath.toPath(), LinkOption.NOFOLLOW_LINKS)) {
+                String msg = String.format(
+                    "Failed to remove directory tree: Failed to list directory: '%s'",
+                    _dirPath.getAbsolutePath());
+                fail(new PathException(PathExceptionReason.UNKNOWN, _dirPath, null, msg));
+            }
+            // Else: Directory was removed concurrently.
+            return;
+        }
+        List<File> dirPathList = new ArrayList<File>();
+        List<File> filePathList = new ArrayList<File>();
+        splitChildPaths(optChildPathArr, dirPathList, filePathList);
+
+        List<AbstractPathTreeTask> taskList = new ArrayList<AbstractPathTreeTask>();
+        for (File dirPath : dirPathList) {
+            taskList.add(new DirectoryTreeRemoveTask(dirPath, failureQueue));
+        }
+        processFiles(filePathList, taskList);
+        invokeAllAndCheck(taskList);
+        if (!isFailed()) {
+            try {
+                PathUtils.removeDirectory(_dirPath);
+            }
+            catch (PathException e) {
+                fail(e);
+            }
+        }
+    }
+
+    /**
+     * Removes a file or symbolic link.  Unlike {@link PathUtils#removeFile(File)}, symbolic links
+     * to directories and broken symbolic links are removed.
+     */
+    @Override
+    protected PathException processFile(File filePath) {
+        try {
+            Files.deleteIfExists(filePath.toPath());
+            return null;
+        }
+        catch (IOException e) {
+            PathException x = newRemoveFileException(filePath, e);
+            return x;
+        }
+    }
+
+    static PathException newRemoveFileException(File filePath, IOException cause) {
+        File parentPath = filePath.getAbsoluteFile().getParentFile();
+        if (null != parentPath && parentPath.isDirectory() && !parentPath.canWrite()) {
+            String msg = String.format(
+                "Failed to remove file: '%s'"
+                + "%n\tParent path exists as a directory, but is not writable: '%s'",
+                filePath.getAbsolutePath(),
+                parentPath.getAbsolutePath());
+            return new PathException(
+                PathExceptionReason.PARENT_PATH_IS_NON_WRITABLE_DIRECTORY,
+                filePath,
+                parentPath,
+                msg,
+                cause);
+        }
+        String msg = String.format(
+            "Failed to remove file: '%s'"
+            + "%n\tUnknown reason",
+            filePath.getAbsolutePath());
+        return new PathException(PathExceptionReason.UNKNOWN, filePath, null, msg, cause);
+    }
+}
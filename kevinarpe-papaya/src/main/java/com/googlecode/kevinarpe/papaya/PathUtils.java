@@ -32,6 +32,18 @@ import com.googlecode.kevinarpe.papaya.exception.PathException;
 import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -472,6 +484,236 @@ public final class PathUtils {
         throw new PathException(PathExceptionReason.UNKNOWN, path, null, msg);
     }
 
+    /**
+     * This is a convenience method for {@link #removeDirectoryTree(File)}.
+     * 
+     * @throws NullPointerException
+     *         if {@code pathname} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code pathname} is empty
+     */
+    @FullyTested
+    public static void removeDirectoryTree(String pathname)
+    throws PathException {
+        StringArgs.checkNotEmpty(pathname, "pathname");
+        
+        File path = new File(pathname);
+        removeDirectoryTree(path);
+    }
+    
+    /**
+     * This is a convenience method for {@link #removeDirectoryTree(File, ForkJoinPool)} using
+     * {@link ForkJoinPool#commonPool()}.
+     */
+    @FullyTested
+    public static void removeDirectoryTree(File path)
+    throws PathException {
+        removeDirectoryTree(path, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Removes a directory and all descendants, like {@code rm -r}.  Sub-directories are removed
+     * in parallel on a fork/join pool.  Large directories are also split into batches of files.
+     * <p>
+     * This method does not throw an exception if directory does not exist.
+     * <p>
+     * Symbolic links are removed, but never followed.  If {@code path} is a symbolic link, only
+     * the link is removed.
+     * <p>
+     * A failure does not stop removal of other paths.  All failures are collected, then the
+     * first (sorted by path) is thrown.  Further failures are attached as suppressed exceptions:
+     * {@link Throwable#getSuppressed()}.  A directory is not removed if any descendant failed, and
+     * this is not reported again.
+     * 
+     * @param path
+     *        path to directory to remove
+     * @param forkJoinPool
+     *        runs removal tasks.  For slow network file systems, a pool with more threads than
+     *        processors may be faster.
+     *
+     * @throws NullPointerException
+     *         if {@code path} or {@code forkJoinPool} is {@code null}
+     * @throws PathException
+     * <ul>
+     *   <li>with reason {@link PathExceptionReason#PATH_IS_NORMAL_FILE}
+     *   if {@code path} exists as a file</li>
+     *   <li>with reason {@link PathExceptionReason#PATH_IS_ROOT_DIRECTORY}
+     *   if {@code path} exists as a root directory</li>
+     *   <li>for any path in the tree: see {@link #removeDirectory(File)} and
+     *   {@link #removeFile(File)}</li>
+     * </ul>
+     *
+     * @see #removeDirectoryTree(String)
+     * @see #removeDirectoryTree(File)
+     */
+    @FullyTested
+    public static void removeDirectoryTree(File path, ForkJoinPool forkJoinPool)
+    throws PathException {
+        ObjectArgs.checkNotNull(path, "path");
+        ObjectArgs.checkNotNull(forkJoinPool, "forkJoinPool");
+        
+        Path nioPath = path.toPath();
+        if (!Files.exists(nioPath, LinkOption.NOFOLLOW_LINKS)) {
+            return;
+        }
+        if (Files.isSymbolicLink(nioPath)) {
+            try {
+                Files.deleteIfExists(nioPath);
+                return;
+            }
+            catch (IOException e) {
+                throw DirectoryTreeRemoveTask.newRemoveFileException(path, e);
+            }
+        }
+        if (!Files.isDirectory(nioPath, LinkOption.NOFOLLOW_LINKS)) {
+            String msg = String.format(
+                "Failed to remove directory tree: Path exists as a file: '%s'",
+                path.getAbsolutePath());
+            throw new PathException(
+                PathExceptionReason.PATH_IS_NORMAL_FILE, path, null, msg);
+        }
+        if (isRootDirectory(path)) {
+            String msg = String.format(
+                "Failed to remove directory tree: Path exists as a root directory: '%s'",
+                path.getAbsolutePath());
+            throw new PathException(
+                PathExceptionReason.PATH_IS_ROOT_DIRECTORY, path, null, msg);
+        }
+        Queue<PathException> failureQueue = new ConcurrentLinkedQueue<PathException>();
+        forkJoinPool.invoke(new DirectoryTreeRemoveTask(path, failureQueue));
+        _throwIfFailed(failureQueue);
+    }
+    
+    /**
+     * This is a convenience method for {@link #copyDirectoryTree(File, File)}.
+     * 
+     * @throws NullPointerException
+     *         if {@code srcPathname} or {@code destPathname} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code srcPathname} or {@code destPathname} is empty
+     */
+    @FullyTested
+    public static void copyDirectoryTree(String srcPathname, String destPathname)
+    throws PathException {
+        StringArgs.checkNotEmpty(srcPathname, "srcPathname");
+        StringArgs.checkNotEmpty(destPathname, "destPathname");
+        
+        copyDirectoryTree(new File(srcPathname), new File(destPathname));
+    }
+    
+    /**
+     * This is a convenience method for {@link #copyDirectoryTree(File, File, ForkJoinPool)} using
+     * {@link ForkJoinPool#commonPool()}.
+     */
+    @FullyTested
+    public static void copyDirectoryTree(File srcPath, File destPath)
+    throws PathException {
+        copyDirectoryTree(srcPath, destPath, ForkJoinPool.commonPool());
+    }
+    
+    /**
+     * Copies a directory and all descendants, like {@code cp -rp}.  Sub-directories are copied in
+     * parallel on a fork/join pool.  Large directories are also split into batches of files.
+     * <p>
+     * The destination directory is created if it does not exist, but its parent must exist.  If
+     * the destination directory exists, the trees are merged, but existing files are never
+     * replaced: each is reported as a failure.
+     * <p>
+     * File attributes, such as last modified time, are copied.  Symbolic links are copied as
+     * links, but never followed.
+     * <p>
+     * A failure does not stop copying of other paths.  All failures are collected, then the
+     * first (sorted by path) is thrown.  Further failures are attached as suppressed exceptions:
+     * {@link Throwable#getSuppressed()}.
+     * 
+     * @param srcPath
+     *        path to directory to copy
+     * @param destPath
+     *        path to destination directory
+     * @param forkJoinPool
+     *        runs copy tasks
+     *
+     * @throws NullPointerException
+     *         if {@code srcPath}, {@code destPath}, or {@code forkJoinPool} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code destPath} is the same as, or inside, {@code srcPath}
+     * @throws PathException
+     * <ul>
+     *   <li>with reason {@link PathExceptionReason#PATH_DOES_NOT_EXIST}
+     *   if {@code srcPath} does not exist</li>
+     *   <li>with reason {@link PathExceptionReason#PATH_IS_NORMAL_FILE}
+     *   if {@code srcPath} exists as a file</li>
+     *   <li>for {@code destPath} or any destination directory in the tree:
+     *   see {@link #makeDirectory(File)}</li>
+     *   <li>with reason {@link PathExceptionReason#PATH_IS_NORMAL_FILE} or
+     *   {@link PathExceptionReason#PATH_IS_DIRECTORY}
+     *   if a destination file already exists</li>
+     *   <li>with reason {@link PathExceptionReason#PARENT_PATH_IS_NON_WRITABLE_DIRECTORY}
+     *   if a destination directory exists, but is not writable</li>
+     *   <li>with reason {@link PathExceptionReason#PARENT_PATH_DISK_PARTITION_IS_FULL}
+     *   if disk partition for a destination directory is full</li>
+     *   <li>with reason {@link PathExceptionReason#UNKNOWN}
+     *   if reason for error is unknown</li>
+     * </ul>
+     *
+     * @see #copyDirectoryTree(String, String)
+     * @see #copyDirectoryTree(File, File)
+     */
+    @FullyTested
+    public static void copyDirectoryTree(File srcPath, File destPath, ForkJoinPool forkJoinPool)
+    throws PathException {
+        ObjectArgs.checkNotNull(srcPath, "srcPath");
+        ObjectArgs.checkNotNull(destPath, "destPath");
+        ObjectArgs.checkNotNull(forkJoinPool, "forkJoinPool");
+        
+        Path srcNioPath = srcPath.toPath();
+        if (!Files.exists(srcNioPath)) {
+            String msg = String.format(
+                "Failed to copy directory tree: Path does not exist: '%s'",
+                srcPath.getAbsolutePath());
+            throw new PathException(
+                PathExceptionReason.PATH_DOES_NOT_EXIST, srcPath, null, msg);
+        }
+        if (!Files.isDirectory(srcNioPath)) {
+            String msg = String.format(
+                "Failed to copy directory tree: Path exists as a file: '%s'",
+                srcPath.getAbsolutePath());
+            throw new PathException(
+                PathExceptionReason.PATH_IS_NORMAL_FILE, srcPath, null, msg);
+        }
+        Path absSrcNioPath = srcNioPath.toAbsolutePath().normalize();
+        Path absDestNioPath = destPath.toPath().toAbsolutePath().normalize();
+        if (absDestNioPath.startsWith(absSrcNioPath)) {
+            throw new IllegalArgumentException(String.format(
+                "Destination directory is the same as, or inside, source directory: '%s' -> '%s'",
+                absSrcNioPath, absDestNioPath));
+        }
+        Queue<PathException> failureQueue = new ConcurrentLinkedQueue<PathException>();
+        forkJoinPool.invoke(new DirectoryTreeCopyTask(srcPath, destPath, failureQueue));
+        _throwIfFailed(failureQueue);
+    }
+    
+    private static void _throwIfFailed(Collection<PathException> failureCollection)
+    throws PathException {
+        if (failureCollection.isEmpty()) {
+            return;
+        }
+        List<PathException> failureList = new ArrayList<PathException>(failureCollection);
+        // Tasks finish in any order: Sort for predictable results.
+        Collections.sort(failureList, new Comparator<PathException>() {
+            @Override
+            public int compare(PathException o1, PathException o2) {
+                int x = o1.getAbsPath().compareTo(o2.getAbsPath());
+                return x;
+            }
+        });
+        PathException first = failureList.get(0);
+        for (int i = 1; i < failureList.size(); ++i) {
+            first.addSuppressed(failureList.get(i));
+        }
+        throw first;
+    }
+
     // TODO: Reserve for next release
 
     // Ideas: list, remove, other random actions... like chmod, touch, etc.
@@ -25,12 +25,18 @@ package com.googlecode.kevinarpe.papaya.compare;
  * #L%
  */
 
+import com.google.common.primitives.Longs;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.CollectionArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 import com.googlecode.kevinarpe.papaya.filesystem.DirectoryListing;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
 
 /**
  * Utilities for interface {@link Comparator}.
@@ -106,4 +112,152 @@ public class ComparatorUtils {
             }
         };
     }
+
+    /**
+     * Sorts a list in-place, computing each sort key at most once when possible
+     * (decorate-sort-undecorate).  The sort is stable: values with equal sort keys retain their
+     * relative order.
+     * <ul>
+     *     <li>If {@code comparator} is a {@link LongKeyComparator}, one {@code long} key per value
+     *     is stored in a primitive array, then the values are reordered by a merge sort of the
+     *     keys.</li>
+     *     <li>If {@code comparator} is a {@link KeyComparator}, one key per value is computed,
+     *     then the values are reordered by a sort of the keys.</li>
+     *     <li>A {@link ReverseComparator} that wraps either of the above is also supported.</li>
+     *     <li>Else, this method is identical to {@link Collections#sort(List, Comparator)}.</li>
+     * </ul>
+     *
+     * @param list
+     *        list to sort.  Must not be {@code null}, and must support
+     *        {@link ListIterator#set(Object)}.
+     * @param comparator
+     *        how to sort values.  Must not be {@code null}.
+     * @param <TValue>
+     *        type of object to be sorted
+     *
+     * @throws NullPointerException
+     *         if {@code list} or {@code comparator} is {@code null}
+     *
+     * @see LongKeyComparator
+     * @see KeyComparator
+     * @see DirectoryListing#sort(Comparator)
+     */
+    public static <TValue> void sortWithPrecomputedKeys(
+            List<TValue> list, Comparator<? super TValue> comparator) {
+        ObjectArgs.checkNotNull(list, "list");
+        ObjectArgs.checkNotNull(comparator, "comparator");
+
+        Comparator<?> innerComparator = comparator;
+        boolean isReversed = false;
+        if (comparator instanceof ReverseComparator) {
+            innerComparator = ((ReverseComparator<?>) comparator).getComparator();
+            isReversed = true;
+        }
+        if (list.size() < 2) {
+            return;
+        }
+        if (innerComparator instanceof LongKeyComparator) {
+            @SuppressWarnings("unchecked")
+            LongKeyComparator<? super TValue> longKeyComparator =
+                (LongKeyComparator<? super TValue>) innerComparator;
+            _sortByLongKey(list, longKeyComparator, isReversed);
+        }
+        else if (innerComparator instanceof KeyComparator) {
+            @SuppressWarnings("unchecked")
+            KeyComparator<? super TValue, Object> keyComparator =
+                (KeyComparator<? super TValue, Object>) innerComparator;
+            _sortByKey(list, keyComparator, isReversed);
+        }
+        else {
+            Collections.sort(list, comparator);
+        }
+    }
+
+    private static <TValue> void _sortByLongKey(
+            List<TValue> list, LongKeyComparator<? super TValue> comparator, boolean isReversed) {
+        // Copy to ArrayList for random access, e.g., if list is a LinkedList.
+        final List<TValue> valueList = new ArrayList<TValue>(list);
+        final int size = valueList.size();
+        final long[] keyArr = new long[size];
+        final int[] indexArr = new int[size];
+        for (int i = 0; i < size; ++i) {
+            keyArr[i] = comparator.getLongSortKey(valueList.get(i));
+            indexArr[i] = i;
+        }
+        _mergeSortIndexArr(indexArr, keyArr, isReversed);
+
+        ListIterator<TValue> iter = list.listIterator();
+        for (int i = 0; i < size; ++i) {
+            iter.next();
+            iter.set(valueList.get(indexArr[i]));
+        }
+    }
+
+    // Bottom-up merge sort of indices by key.  Ties keep ascending index order, thus stable.
+    private static void _mergeSortIndexArr(int[] indexArr, long[] keyArr, boolean isReversed) {
+        final int size = indexArr.length;
+        int[] srcArr = indexArr;
+        int[] dstArr = new int[size];
+        for (long width = 1; width < size; width *= 2) {
+            for (long lo = 0; lo < size; lo += 2 * width) {
+                final int mid = (int) Math.min(lo + width, size);
+                final int hi = (int) Math.min(lo + 2 * width, size);
+                int left = (int) lo;
+                int right = mid;
+                int dst = (int) lo;
+                while (left < mid && right < hi) {
+                    int result = Longs.compare(keyArr[srcArr[right]], keyArr[srcArr[left]]);
+                    if (isReversed) {
+                        result = -result;
+                    }
+                    dstArr[dst++] = (result < 0) ? srcArr[right++] : srcArr[left++];
+                }
+                System.arraycopy(srcArr, left, dstArr, dst, mid - left);
+                dst += mid - left;
+                System.arraycopy(srcArr, right, dstArr, dst, hi - right);
+            }
+            final int[] tmpArr = srcArr;
+            srcArr = dstArr;
+            dstArr = tmpArr;
+        }
+        if (srcArr != indexArr) {
+            System.arraycopy(srcArr, 0, indexArr, 0, size);
+        }
+    }
+
+    private static final class _KeyedValue<TValue> {
+
+        private final Object _key;
+        private final TValue _value;
+
+        private _KeyedValue(Object key, TValue value) {
+            _key = key;
+            _value = value;
+        }
+    }
+
+    private static <TValue> void _sortByKey(
+            List<TValue> list,
+            final KeyComparator<? super TValue, Object> comparator,
+            final boolean isReversed) {
+        final List<_KeyedValue<TValue>> keyedValueList =
+            new ArrayList<_KeyedValue<TValue>>(list.size());
+        for (TValue value : list) {
+            keyedValueList.add(new _KeyedValue<TValue>(comparator.getSortKey(value), value));
+        }
+        // Collections.sort(List, Comparator) is a stable merge sort.
+        Collections.sort(keyedValueList, new Comparator<_KeyedValue<TValue>>() {
+            @Override
+            public int compare(_KeyedValue<TValue> left, _KeyedValue<TValue> right) {
+                final int result = comparator.compareSortKeys(left._key, right._key);
+                return isReversed ? -result : result;
+            }
+        });
+
+        ListIterator<TValue> iter = list.listIterator();
+        for (_KeyedValue<TValue> keyedValue : keyedValueList) {
+            iter.next();
+            iter.set(keyedValue._value);
+        }
+    }
 }
@@ -0,0 +1,84 @@
+package com.googlecode.kevinarpe.papaya.compare;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.filesystem.DirectoryListing;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link Comparator} that orders values by a sort key which may be computed once per value.
+ * Sorting a large list with an ordinary comparator computes the inputs to the comparison twice
+ * per comparison; when these inputs are expensive, e.g., a regular expression match or a system
+ * call, use {@link ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)} to compute each
+ * sort key exactly once, sort the keys, then reorder the values.
+ * <p>
+ * Implementations must guarantee:
+ * <pre>{@code
+ * compare(x, y) == compareSortKeys(getSortKey(x), getSortKey(y))
+ * }</pre>
+ * If sort keys are {@code long} values, prefer {@link LongKeyComparator}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @param <TValue>
+ *        type of object to be compared
+ * @param <TKey>
+ *        type of sort key computed from each value
+ *
+ * @see LongKeyComparator
+ * @see ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)
+ * @see DirectoryListing#sort(Comparator)
+ */
+public interface KeyComparator<TValue, TKey>
+extends Comparator<TValue> {
+
+    /**
+     * Computes a sort key for a single value.
+     *
+     * @param value
+     *        must not be {@code null}
+     *
+     * @return sort key
+     *
+     * @throws NullPointerException
+     *         if {@code value} is {@code null}
+     */
+    TKey getSortKey(TValue value);
+
+    /**
+     * Compares two sort keys previously returned by {@link #getSortKey(Object)}.
+     *
+     * @param key1
+     *        first sort key
+     * @param key2
+     *        second sort key
+     *
+     * @return negative, zero, or positive, as per {@link Comparator#compare(Object, Object)}
+     */
+    int compareSortKeys(TKey key1, TKey key2);
+}
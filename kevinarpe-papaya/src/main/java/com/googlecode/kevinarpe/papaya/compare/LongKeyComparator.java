@@ -0,0 +1,70 @@
+package com.googlecode.kevinarpe.papaya.compare;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.primitives.Longs;
+import com.googlecode.kevinarpe.papaya.filesystem.DirectoryListing;
+
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A {@link Comparator} that orders values by a primitive {@code long} sort key, e.g.,
+ * {@link java.io.File#lastModified()} or {@link java.io.File#length()}.  Sort keys are stored in
+ * a {@code long[]} by {@link ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)}, so no
+ * boxing is required.
+ * <p>
+ * Implementations must guarantee:
+ * <pre>{@code
+ * compare(x, y) == Longs.compare(getLongSortKey(x), getLongSortKey(y))
+ * }</pre>
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @param <TValue>
+ *        type of object to be compared
+ *
+ * @see KeyComparator
+ * @see Longs#compare(long, long)
+ * @see ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)
+ * @see DirectoryListing#sort(Comparator)
+ */
+public interface LongKeyComparator<TValue>
+extends Comparator<TValue> {
+
+    /**
+     * Computes a sort key for a single value.
+     *
+     * @param value
+     *        must not be {@code null}
+     *
+     * @return sort key
+     *
+     * @throws NullPointerException
+     *         if {@code value} is {@code null}
+     */
+    long getLongSortKey(TValue value);
+}
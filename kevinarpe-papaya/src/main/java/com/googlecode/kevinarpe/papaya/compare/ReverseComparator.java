@@ -31,6 +31,7 @@ import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Most comparators are written to order items as least-to-greatest, e.g., smallest to largest
@@ -80,6 +81,15 @@ implements Comparator<TValue> {
         this.comparator = comparator;
     }
 
+    /**
+     * @return inner {@link Comparator} whose result is inverted
+     *
+     * @see ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)
+     */
+    Comparator<TValue> getComparator() {
+        return comparator;
+    }
+
     /**
      * Inverts the result from the inner {@link Comparator} by multiplying by {@code -1}.
      * <hr>
@@ -0,0 +1,471 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ArrayArgs;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * Builds a sequence of bytes as a list of segments: {@code byte[][]}.  Use this class instead of
+ * {@link ByteArraySimpleBuilder} when reading a large (or unknown) number of bytes from an
+ * {@link InputStream}.
+ * <p>
+ * When {@link ByteArraySimpleBuilder} grows, its internal array is doubled and the old data is
+ * copied.  Then, {@link ByteArraySimpleBuilder#toArray()} copies once more.  To accumulate one
+ * gigabyte, about three gigabytes of heap are briefly required.  This class never copies old
+ * data: When the last segment is full, a new segment is added.  Segment sizes start at
+ * {@code initialSegmentByteCount} and double up to {@code maxSegmentByteCount}.
+ * <p>
+ * The accumulated bytes may be read without creating a single large array:
+ * <ul>
+ *   <li>{@link #newInputStream()}: stream over all bytes</li>
+ *   <li>{@link #toByteBufferArr()}: gather view over all segments</li>
+ *   <li>{@link #writeTo(WritableByteChannel)}: transfer all bytes to a channel</li>
+ * </ul>
+ * As segments are never modified after bytes are appended, these views are snapshots.  Bytes
+ * appended afterwards are not visible.
+ * <p>
+ * This class is not thread-safe.  If bytes are appended by one thread and read by another, all
+ * calls must be synchronized by the caller.  Snapshot views may be read without synchronization.
+ * <p>
+ * As of now, methods {@link Object#equals(Object)} and {@link Object#hashCode()} are not
+ * implemented in this class.  These methods use the default implementation from {@link Object}.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ByteArraySimpleBuilder
+ */
+@FullyTested
+public class ByteArraySegmentedBuilder {
+    
+    /**
+     * Default value for {@code maxSegmentByteCount}: one megabyte (2^20)
+     * 
+     * @see #ByteArraySegmentedBuilder(int)
+     */
+    public static final int DEFAULT_MAX_SEGMENT_BYTE_COUNT = 1024 * 1024;
+    
+    private static final int INITIAL_SEGMENT_ARR_LENGTH = 8;
+    
+    private final int _initialSegmentByteCount;
+    private final int _maxSegmentByteCount;
+    private byte[][] _segmentArr;
+    private int _segmentCount;
+    // Number of bytes used in the last segment
+    private int _lastSegmentLength;
+    private long _length;
+    
+    /**
+     * This is a convenience constructor to call {@link #ByteArraySegmentedBuilder(int, int)}
+     * where {@code maxSegmentByteCount} is the larger of
+     * {@link #DEFAULT_MAX_SEGMENT_BYTE_COUNT} and {@code initialSegmentByteCount}.
+     */
+    public ByteArraySegmentedBuilder(int initialSegmentByteCount) {
+        this(initialSegmentByteCount,
+            Math.max(DEFAULT_MAX_SEGMENT_BYTE_COUNT, initialSegmentByteCount));
+    }
+    
+    /**
+     * Constructs a new builder.  Segments will be automatically added later as necessary.
+     * 
+     * @param initialSegmentByteCount
+     * <ul>
+     *   <li>number of bytes in the first segment, e.g., 8192 (2^13)</li>
+     *   <li>must be positive (smallest allowed is one)</li>
+     * </ul>
+     * @param maxSegmentByteCount
+     * <ul>
+     *   <li>maximum number of bytes in each segment, e.g., 1048576 (2^20)</li>
+     *   <li>must be greater than or equal to {@code initialSegmentByteCount}</li>
+     * </ul>
+     * 
+     * @throws IllegalArgumentException
+     * <ul>
+     *   <li>if {@code initialSegmentByteCount} is not positive</li>
+     *   <li>if {@code maxSegmentByteCount < initialSegmentByteCount}</li>
+     * </ul>
+     * 
+     * @see #length()
+     * @see #append(byte[], int, int)
+     * @see #newInputStream()
+     */
+    public ByteArraySegmentedBuilder(int initialSegmentByteCount, int maxSegmentByteCount) {
+        IntArgs.checkPositive(initialSegmentByteCount, "initialSegmentByteCount");
+        IntArgs.checkMinValue(maxSegmentByteCount, initialSegmentByteCount, "maxSegmentByteCount");
+        
+        _initialSegmentByteCount = initialSegmentByteCount;
+        _maxSegmentByteCount = maxSegmentByteCount;
+        _reset();
+    }
+    
+    /**
+     * Unlike {@link ByteArraySimpleBuilder#length()}, the result may exceed
+     * {@link Integer#MAX_VALUE}.
+     * 
+     * @return number of bytes appended to this builder
+     */
+    public long length() {
+        return _length;
+    }
+    
+    /**
+     * @return number of segments used by this builder.  Always positive.
+     */
+    public int segmentCount() {
+        return _segmentCount;
+    }
+    
+    /**
+     * Appends a single byte to this builder.
+     * 
+     * @param oneByte
+     *        data to append
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #append(byte[])
+     * @see #append(byte[], int, int)
+     */
+    public ByteArraySegmentedBuilder append(byte oneByte) {
+        byte[] segment = _segmentArr[_segmentCount - 1];
+        if (segment.length == _lastSegmentLength) {
+            segment = _addSegment();
+        }
+        segment[_lastSegmentLength] = oneByte;
+        ++_lastSegmentLength;
+        ++_length;
+        return this;
+    }
+    
+    /**
+     * This is a convenience method to call {@link #append(byte[], int, int)} where params
+     * {@code offset} is zero and {@code length} is {@code byteArr.length}.
+     * <p>
+     * This method allows parameter {@code byteArr} to be empty.
+     */
+    public ByteArraySegmentedBuilder append(byte[] byteArr) {
+        int len = (null == byteArr ? -1 : byteArr.length);
+        if (0 != len) {
+            append(byteArr, 0, len);
+        }
+        return this;
+    }
+    
+    /**
+     * Appends a segment of an array of bytes to this builder.  Bytes already appended are never
+     * copied.
+     * 
+     * @param byteArr
+     *        data to append.  Must <b>not</b> be empty, e.g., {@code new byte[0]}
+     * @param offset
+     * <ul>
+     *   <li>Index offset to append bytes from parameter {@code byteArr}</li>
+     *   <li>Valid range: Zero to {@code byteArr.length - 1}</li>
+     * </ul>
+     * @param length
+     * <ul>
+     *   <li>Number of bytes to append from parameter {@code byteArr}</li>
+     *   <li>Valid range: Zero to {@code byteArr.length - offset}</li>
+     * </ul>
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #append(byte)
+     * @see #append(byte[])
+     * 
+     * @throws NullPointerException
+     *         if {@code byteArr} is {@code null}
+     * @throws IllegalArgumentException
+     * <ul>
+     *   <li>if {@code byteArr} is empty</li>
+     *   <li>if {@code offset < 0}</li>
+     *   <li>if {@code length < 0}</li>
+     * </ul>
+     * @throws IndexOutOfBoundsException
+     * <ul>
+     *   <li>if {@code offset >= byteArr.length}</li>
+     *   <li>if {@code offset + length > byteArr.length}</li>
+     * </ul>
+     */
+    public ByteArraySegmentedBuilder append(byte[] byteArr, int offset, int length) {
+        ArrayArgs.checkIndexAndCount(byteArr, offset, length, "byteArr", "offset", "length");
+        
+        byte[] segment = _segmentArr[_segmentCount - 1];
+        while (length > 0) {
+            int freeCount = segment.length - _lastSegmentLength;
+            if (0 == freeCount) {
+                segment = _addSegment();
+                freeCount = segment.length;
+            }
+            int count = Math.min(freeCount, length);
+            System.arraycopy(byteArr, offset, segment, _lastSegmentLength, count);
+            _lastSegmentLength += count;
+            _length += count;
+            offset += count;
+            length -= count;
+        }
+        return this;
+    }
+    
+    /**
+     * Removes all bytes from this builder.  Afterwards, only a single new segment of
+     * {@code initialSegmentByteCount} bytes is used.  Old segments are never modified, so snapshot
+     * views created before are not affected.
+     * 
+     * @see #ByteArraySegmentedBuilder(int, int)
+     */
+    public void clear() {
+        _reset();
+    }
+    
+    // Never call an overridable method from a constructor.
+    private void _reset() {
+        _segmentArr = new byte[INITIAL_SEGMENT_ARR_LENGTH][];
+        _segmentArr[0] = new byte[_initialSegmentByteCount];
+        _segmentCount = 1;
+        _lastSegmentLength = 0;
+        _length = 0;
+    }
+    
+    private byte[] _addSegment() {
+        byte[] lastSegment = _segmentArr[_segmentCount - 1];
+        int segmentByteCount = (int) Math.min(2L * lastSegment.length, _maxSegmentByteCount);
+        if (_segmentArr.length == _segmentCount) {
+            // Only the array of references is copied, never the segments.
+            _segmentArr = Arrays.copyOf(_segmentArr, 2 * _segmentArr.length);
+        }
+        byte[] segment = new byte[segmentByteCount];
+        _segmentArr[_segmentCount] = segment;
+        ++_segmentCount;
+        _lastSegmentLength = 0;
+        return segment;
+    }
+    
+    /**
+     * Copies all segments to a new array of data.  Prefer {@link #newInputStream()},
+     * {@link #toByteBufferArr()}, or {@link #writeTo(WritableByteChannel)} for large builders.
+     * 
+     * @return array of appended data
+     * 
+     * @throws IllegalStateException
+     *         if {@link #length()} is too large for a single array
+     */
+    public byte[] toArray() {
+        if (_length > MAX_ARRAY_LENGTH) {
+            throw new IllegalStateException(String.format(
+                "Too many bytes for a single array: %d > %d", _length, MAX_ARRAY_LENGTH));
+        }
+        byte[] x = new byte[(int) _length];
+        int offset = 0;
+        for (int i = 0; i < _segmentCount; ++i) {
+            int count = _segmentLength(i);
+            System.arraycopy(_segmentArr[i], 0, x, offset, count);
+            offset += count;
+        }
+        return x;
+    }
+    
+    // Some JVMs reserve header words in an array.
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+    
+    private int _segmentLength(int index) {
+        int x = (_segmentCount - 1 == index ? _lastSegmentLength : _segmentArr[index].length);
+        return x;
+    }
+    
+    /**
+     * Creates a gather view over all segments.  No bytes are copied.  Each buffer is read-only,
+     * and its position is zero.  Bytes appended afterwards are not visible.
+     * 
+     * @return array of buffers in order.  Empty buffers are excluded, so the result may be an
+     *         empty array.
+     * 
+     * @see GatheringByteChannel#write(ByteBuffer[])
+     */
+    public ByteBuffer[] toByteBufferArr() {
+        int count = (0 == _lastSegmentLength ? _segmentCount - 1 : _segmentCount);
+        ByteBuffer[] x = new ByteBuffer[count];
+        for (int i = 0; i < count; ++i) {
+            x[i] = ByteBuffer.wrap(_segmentArr[i], 0, _segmentLength(i)).asReadOnlyBuffer();
+        }
+        return x;
+    }
+    
+    /**
+     * Writes all bytes to a channel.  If {@code channel} is a {@link GatheringByteChannel}, such
+     * as {@link java.nio.channels.FileChannel}, all segments are written with a single gathering
+     * write, where possible.  No bytes are copied by this method.
+     * <p>
+     * This method is intended for blocking channels.
+     * 
+     * @param channel
+     *        destination for bytes
+     * 
+     * @return number of bytes written, which is always {@link #length()}
+     * 
+     * @throws NullPointerException
+     *         if {@code channel} is {@code null}
+     * @throws IOException
+     *         if {@code channel} throws
+     */
+    public long writeTo(WritableByteChannel channel)
+    throws IOException {
+        ObjectArgs.checkNotNull(channel, "channel");
+        
+        // Call methods, instead of reading fields, so subclasses may store bytes elsewhere.
+        ByteBuffer[] bufferArr = toByteBufferArr();
+        long length = length();
+        long total = 0;
+        if (channel instanceof GatheringByteChannel) {
+            GatheringByteChannel gatheringChannel = (GatheringByteChannel) channel;
+            while (total < length) {
+                total += gatheringChannel.write(bufferArr);
+            }
+        }
+        else {
+            for (ByteBuffer buffer : bufferArr) {
+                while (buffer.hasRemaining()) {
+                    total += channel.write(buffer);
+                }
+            }
+        }
+        return total;
+    }
+    
+    /**
+     * Creates a new stream to read all bytes appended to this builder.  No bytes are copied.
+     * Bytes appended afterwards are not visible.
+     * 
+     * @return new stream.  Calling {@link InputStream#close()} has no effect.
+     */
+    public InputStream newInputStream() {
+        byte[][] segmentArr = Arrays.copyOf(_segmentArr, _segmentCount);
+        InputStream x = new _InputStream(segmentArr, _lastSegmentLength, _length);
+        return x;
+    }
+    
+    private static final class _InputStream
+    extends InputStream {
+        
+        private final byte[][] _segmentArr;
+        private final int _lastSegmentLength;
+        private long _remaining;
+        private int _segmentIndex;
+        private int _segmentOffset;
+        
+        private _InputStream(byte[][] segmentArr, int lastSegmentLength, long length) {
+            _segmentArr = segmentArr;
+            _lastSegmentLength = lastSegmentLength;
+            _remaining = length;
+            _segmentIndex = 0;
+            _segmentOffset = 0;
+        }
+        
+        // Moves to the next segment if the current segment is exhausted.
+        private byte[] _segment() {
+            int length = (_segmentArr.length - 1 == _segmentIndex
+                ? _lastSegmentLength : _segmentArr[_segmentIndex].length);
+            if (_segmentOffset == length) {
+                ++_segmentIndex;
+                _segmentOffset = 0;
+            }
+            byte[] x = _segmentArr[_segmentIndex];
+            return x;
+        }
+        
+        private int _segmentRemaining() {
+            int length = (_segmentArr.length - 1 == _segmentIndex
+                ? _lastSegmentLength : _segmentArr[_segmentIndex].length);
+            int x = length - _segmentOffset;
+            return x;
+        }
+        
+        @Override
+        public int read() {
+            if (0 == _remaining) {
+                return -1;
+            }
+            byte[] segment = _segment();
+            int x = segment[_segmentOffset] & 0xFF;
+            ++_segmentOffset;
+            --_remaining;
+            return x;
+        }
+        
+        @Override
+        public int read(byte[] byteArr, int offset, int length) {
+            ObjectArgs.checkNotNull(byteArr, "byteArr");
+            if (offset < 0 || length < 0 || length > byteArr.length - offset) {
+                throw new IndexOutOfBoundsException(String.format(
+                    "offset=%d, length=%d, byteArr.length=%d", offset, length, byteArr.length));
+            }
+            if (0 == length) {
+                return 0;
+            }
+            if (0 == _remaining) {
+                return -1;
+            }
+            int total = 0;
+            while (total < length && _remaining > 0) {
+                byte[] segment = _segment();
+                int count = Math.min(length - total, _segmentRemaining());
+                System.arraycopy(segment, _segmentOffset, byteArr, offset + total, count);
+                _segmentOffset += count;
+                _remaining -= count;
+                total += count;
+            }
+            return total;
+        }
+        
+        @Override
+        public long skip(long n) {
+            long total = 0;
+            while (total < n && _remaining > 0) {
+                _segment();
+                int count = (int) Math.min(n - total, _segmentRemaining());
+                _segmentOffset += count;
+                _remaining -= count;
+                total += count;
+            }
+            return total;
+        }
+        
+        @Override
+        public int available() {
+            int x = (int) Math.min(_remaining, Integer.MAX_VALUE);
+            return x;
+        }
+    }
+}
@@ -0,0 +1,486 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ArrayArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Builds a sequence of bytes in memory until {@link #spill(File)} is called.  Afterwards, all bytes
+ * are stored in a temporary file, and the heap used by this builder is constant.  Use this class
+ * to capture a very large (or unbounded) number of bytes, such as output from a child process,
+ * when all bytes must be kept.
+ * <p>
+ * Before spilling, bytes are stored in segments, exactly like the superclass.  After spilling,
+ * segments are released, bytes are appended directly to the temporary file, and
+ * {@link #newInputStream()}, {@link #toByteBufferArr()}, and {@link #toArray()} read from
+ * read-only memory-mapped views of the file.  Thus, reads are served from the operating system
+ * page cache, instead of the Java heap.  As superclass methods do not declare
+ * {@link IOException}, file errors after spilling are thrown as {@link UncheckedIOException}.
+ * <p>
+ * The temporary file is closed and deleted by {@link #clear()} or {@link #close()}.  If neither is
+ * called, the file is closed and deleted after this builder is garbage collected: Each call to
+ * {@link #spill(File)} first cleans up files from unreachable builders.  Memory-mapped views
+ * remain valid until they are garbage collected.
+ * <p>
+ * This class is not thread-safe.  If bytes are appended by one thread and read by another, all
+ * calls must be synchronized by the caller.  Streams from {@link #newInputStream()} may be read
+ * without synchronization.
+ * <p>
+ * As of now, methods {@link Object#equals(Object)} and {@link Object#hashCode()} are not
+ * implemented in this class.  These methods use the default implementation from {@link Object}.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ByteArraySegmentedBuilder
+ */
+@FullyTested
+public class ByteArraySpillableBuilder
+extends ByteArraySegmentedBuilder
+implements Closeable {
+    
+    static final String SPILL_FILE_PREFIX = "papaya-spill-";
+    static final String SPILL_FILE_SUFFIX = ".bin";
+    
+    // Each memory-mapped view is limited to Integer.MAX_VALUE bytes.
+    static final int MAX_MAPPED_BYTE_COUNT = 1 << 30;
+    
+    // Spill files of builders that are garbage collected before close() are enqueued here.
+    private static final ReferenceQueue<ByteArraySpillableBuilder> _unreachableQueue =
+        new ReferenceQueue<ByteArraySpillableBuilder>();
+    // Phantom references are only enqueued if they remain reachable.
+    private static final Set<_SpillFile> _openSpillFileSet = ConcurrentHashMap.newKeySet();
+    
+    private _SpillFile _optSpillFile;
+    private long _spillLength;
+    
+    /**
+     * Constructs a new builder that stores bytes in memory.
+     * 
+     * @param initialSegmentByteCount
+     *        see {@link ByteArraySegmentedBuilder#ByteArraySegmentedBuilder(int)}
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code initialSegmentByteCount} is not positive
+     */
+    public ByteArraySpillableBuilder(int initialSegmentByteCount) {
+        super(initialSegmentByteCount);
+        _optSpillFile = null;
+        _spillLength = 0;
+    }
+    
+    /**
+     * @return number of bytes appended to this builder, including bytes spilled to disk
+     */
+    @Override
+    public long length() {
+        long x = (null != _optSpillFile ? _spillLength : super.length());
+        return x;
+    }
+    
+    /**
+     * @return {@code true} if {@link #spill(File)} was called (and {@link #clear()} was not called
+     *         afterwards)
+     */
+    public boolean isSpilled() {
+        return (null != _optSpillFile);
+    }
+    
+    /**
+     * @return (optional) path to the temporary file used to store bytes after {@link #spill(File)}.
+     *         May be {@code null}.
+     */
+    public File spillFile() {
+        File x = (null != _optSpillFile ? _optSpillFile._file : null);
+        return x;
+    }
+    
+    /**
+     * Moves all bytes from memory to a new temporary file.  Afterwards, all bytes appended are
+     * written directly to the file.
+     * 
+     * @param optDirectory
+     *        (optional) directory for the temporary file.  If {@code null}, the default temporary
+     *        directory is used.  See {@link File#createTempFile(String, String, File)}.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @throws IllegalStateException
+     *         if {@link #isSpilled()}
+     * @throws IOException
+     *         if the temporary file cannot be created or written
+     */
+    public ByteArraySpillableBuilder spill(File optDirectory)
+    throws IOException {
+        if (isSpilled()) {
+            throw new IllegalStateException("Already spilled to file: " + _optSpillFile._file);
+        }
+        _closeUnreachableSpillFiles();
+        File file = File.createTempFile(SPILL_FILE_PREFIX, SPILL_FILE_SUFFIX, optDirectory);
+        RandomAccessFile raf = null;
+        long spillLength;
+        try {
+            raf = new RandomAccessFile(file, "rw");
+            spillLength = super.writeTo(raf.getChannel());
+        }
+        catch (IOException e) {
+            if (null != raf) {
+                raf.close();
+            }
+            file.delete();
+            throw e;
+        }
+        _optSpillFile = new _SpillFile(this, file, raf);
+        _spillLength = spillLength;
+        super.clear();
+        return this;
+    }
+    
+    private static void _closeUnreachableSpillFiles() {
+        _SpillFile spillFile;
+        while (null != (spillFile = (_SpillFile) _unreachableQueue.poll())) {
+            try {
+                spillFile.close();
+            }
+            catch (IOException e) {
+                // Intentionally ignore exception.  Nobody is left to receive it.
+                @SuppressWarnings("unused")
+                int dummy = 1;  // debug breakpoint
+            }
+        }
+    }
+    
+    /**
+     * Appends a single byte to this builder.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @throws UncheckedIOException
+     *         if {@link #isSpilled()} and the temporary file cannot be written
+     */
+    @Override
+    public ByteArraySpillableBuilder append(byte oneByte) {
+        if (null == _optSpillFile) {
+            super.append(oneByte);
+        }
+        else {
+            append(new byte[] { oneByte }, 0, 1);
+        }
+        return this;
+    }
+    
+    /**
+     * This is a convenience method to call {@link #append(byte[], int, int)} where params
+     * {@code offset} is zero and {@code length} is {@code byteArr.length}.
+     * 
+     * @return reference to {@code this}
+     */
+    @Override
+    public ByteArraySpillableBuilder append(byte[] byteArr) {
+        super.append(byteArr);
+        return this;
+    }
+    
+    /**
+     * Appends a segment of an array of bytes to this builder.
+     * <p>
+     * Parameters and unchecked exceptions are the same as
+     * {@link ByteArraySegmentedBuilder#append(byte[], int, int)}.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @throws UncheckedIOException
+     *         if {@link #isSpilled()} and the temporary file cannot be written
+     */
+    @Override
+    public ByteArraySpillableBuilder append(byte[] byteArr, int offset, int length) {
+        if (null == _optSpillFile) {
+            super.append(byteArr, offset, length);
+        }
+        else {
+            ArrayArgs.checkIndexAndCount(byteArr, offset, length, "byteArr", "offset", "length");
+            ByteBuffer buffer = ByteBuffer.wrap(byteArr, offset, length);
+            try {
+                while (buffer.hasRemaining()) {
+                    _spillLength += _optSpillFile._channel.write(buffer);
+                }
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(
+                    "Failed to write to spill file: " + _optSpillFile._file, e);
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Copies all bytes to a new array of data.  If {@link #isSpilled()}, bytes are copied from a
+     * memory-mapped view of the temporary file.
+     * 
+     * @return array of appended data
+     * 
+     * @throws IllegalStateException
+     *         if {@link #length()} is too large for a single array
+     * @throws UncheckedIOException
+     *         if the temporary file cannot be mapped
+     * 
+     * @see ByteArraySegmentedBuilder#toArray()
+     */
+    @Override
+    public byte[] toArray() {
+        if (null == _optSpillFile) {
+            byte[] x = super.toArray();
+            return x;
+        }
+        if (_spillLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException(String.format(
+                "Too many bytes for a single array: %d > %d",
+                _spillLength, Integer.MAX_VALUE - 8));
+        }
+        byte[] x = new byte[(int) _spillLength];
+        int offset = 0;
+        for (ByteBuffer buffer : _mapSpillFile()) {
+            int count = buffer.remaining();
+            buffer.get(x, offset, count);
+            offset += count;
+        }
+        return x;
+    }
+    
+    /**
+     * Creates a gather view over all bytes.  If {@link #isSpilled()}, each buffer is a read-only
+     * memory-mapped view of the temporary file, with up to {@link #MAX_MAPPED_BYTE_COUNT} bytes.
+     * 
+     * @throws UncheckedIOException
+     *         if the temporary file cannot be mapped
+     * 
+     * @see ByteArraySegmentedBuilder#toByteBufferArr()
+     */
+    @Override
+    public ByteBuffer[] toByteBufferArr() {
+        ByteBuffer[] x = (null == _optSpillFile ? super.toByteBufferArr() : _mapSpillFile());
+        return x;
+    }
+    
+    /**
+     * Creates a new stream to read all bytes appended to this builder.  If {@link #isSpilled()},
+     * the stream reads from a read-only memory-mapped view of the temporary file.  Bytes appended
+     * afterwards are not visible.
+     * 
+     * @return new stream.  Calling {@link InputStream#close()} has no effect.
+     * 
+     * @throws UncheckedIOException
+     *         if the temporary file cannot be mapped
+     * 
+     * @see ByteArraySegmentedBuilder#newInputStream()
+     */
+    @Override
+    public InputStream newInputStream() {
+        if (null == _optSpillFile) {
+            InputStream x = super.newInputStream();
+            return x;
+        }
+        InputStream x = new _ByteBufferArrInputStream(_mapSpillFile());
+        return x;
+    }
+    
+    private ByteBuffer[] _mapSpillFile() {
+        int count = (int) ((_spillLength + MAX_MAPPED_BYTE_COUNT - 1) / MAX_MAPPED_BYTE_COUNT);
+        ByteBuffer[] x = new ByteBuffer[count];
+        try {
+            for (int i = 0; i < count; ++i) {
+                long position = (long) i * MAX_MAPPED_BYTE_COUNT;
+                long size = Math.min(MAX_MAPPED_BYTE_COUNT, _spillLength - position);
+                x[i] = _optSpillFile._channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            }
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException("Failed to map spill file: " + _optSpillFile._file, e);
+        }
+        return x;
+    }
+    
+    /**
+     * Removes all bytes from this builder.  If {@link #isSpilled()}, the temporary file is closed
+     * and deleted.  Afterwards, bytes are again stored in memory.
+     * 
+     * @throws UncheckedIOException
+     *         if the temporary file cannot be closed
+     * 
+     * @see #close()
+     */
+    @Override
+    public void clear() {
+        try {
+            close();
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * Same as {@link #clear()}, but throws {@link IOException}.  This builder may be used again
+     * afterwards.
+     * 
+     * @throws IOException
+     *         if the temporary file cannot be closed
+     */
+    @Override
+    public void close()
+    throws IOException {
+        super.clear();
+        if (null != _optSpillFile) {
+            _SpillFile spillFile = _optSpillFile;
+            _optSpillFile = null;
+            _spillLength = 0;
+            spillFile.close();
+        }
+    }
+    
+    /**
+     * Owns the temporary file for a single call to {@link #spill(File)}.  This class must never
+     * refer to its builder, else the builder is never unreachable.
+     */
+    private static final class _SpillFile
+    extends PhantomReference<ByteArraySpillableBuilder> {
+        
+        private final File _file;
+        private final RandomAccessFile _randomAccessFile;
+        private final FileChannel _channel;
+        
+        private _SpillFile(ByteArraySpillableBuilder builder, File file, RandomAccessFile raf) {
+            super(builder, _unreachableQueue);
+            _file = file;
+            _randomAccessFile = raf;
+            _channel = raf.getChannel();
+            _openSpillFileSet.add(this);
+        }
+        
+        // May be called more than once.
+        private void close()
+        throws IOException {
+            if (!_openSpillFileSet.remove(this)) {
+                return;
+            }
+            clear();
+            try {
+                _randomAccessFile.close();
+            }
+            finally {
+                // On some platforms, a file cannot be deleted while memory-mapped.
+                _file.delete();
+            }
+        }
+    }
+    
+    private static final class _ByteBufferArrInputStream
+    extends InputStream {
+        
+        private final ByteBuffer[] _bufferArr;
+        private int _bufferIndex;
+        
+        private _ByteBufferArrInputStream(ByteBuffer[] bufferArr) {
+            _bufferArr = bufferArr;
+            _bufferIndex = 0;
+        }
+        
+        // Returns null at end of stream.
+        private ByteBuffer _buffer() {
+            while (_bufferIndex < _bufferArr.length) {
+                ByteBuffer buffer = _bufferArr[_bufferIndex];
+                if (buffer.hasRemaining()) {
+                    return buffer;
+                }
+                ++_bufferIndex;
+            }
+            return null;
+        }
+        
+        @Override
+        public int read() {
+            ByteBuffer buffer = _buffer();
+            int x = (null == buffer ? -1 : buffer.get() & 0xFF);
+            return x;
+        }
+        
+        @Override
+        public int read(byte[] byteArr, int offset, int length) {
+            ObjectArgs.checkNotNull(byteArr, "byteArr");
+            if (offset < 0 || length < 0 || length > byteArr.length - offset) {
+                throw new IndexOutOfBoundsException(String.format(
+                    "offset=%d, length=%d, byteArr.length=%d", offset, length, byteArr.length));
+            }
+            if (0 == length) {
+                return 0;
+            }
+            int total = 0;
+            ByteBuffer buffer;
+            while (total < length && null != (buffer = _buffer())) {
+                int count = Math.min(length - total, buffer.remaining());
+                buffer.get(byteArr, offset + total, count);
+                total += count;
+            }
+            int x = (0 == total ? -1 : total);
+            return x;
+        }
+        
+        @Override
+        public long skip(long n) {
+            long total = 0;
+            ByteBuffer buffer;
+            while (total < n && null != (buffer = _buffer())) {
+                int count = (int) Math.min(n - total, buffer.remaining());
+                buffer.position(buffer.position() + count);
+                total += count;
+            }
+            return total;
+        }
+        
+        @Override
+        public int available() {
+            long x = 0;
+            for (int i = _bufferIndex; i < _bufferArr.length; ++i) {
+                x += _bufferArr[i].remaining();
+            }
+            return (int) Math.min(x, Integer.MAX_VALUE);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Aggregate function for {@link ColumnTableQuery}.  Except {@link #COUNT}, each requires a source column of type
+ * {@link ImmutableColumnType#INT}, {@link ImmutableColumnType#LONG}, or {@link ImmutableColumnType#DOUBLE}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see ColumnAggregation
+ */
+public enum ColumnAggregateFunction {
+
+    /**
+     * Number of rows.  Output column type is {@link ImmutableColumnType#LONG}.  Source column is not required.
+     */
+    COUNT,
+
+    /**
+     * Sum of values.  Output column type is {@link ImmutableColumnType#LONG} for integral source columns, and may
+     * overflow; otherwise, {@link ImmutableColumnType#DOUBLE}.  When run in parallel, {@code double} sums are added in
+     * a different order, so results may differ slightly in the last bits.
+     */
+    SUM,
+
+    /**
+     * Minimum value.  Output column type matches source column type.  For {@code double}, {@code NaN} is ignored
+     * unless all values are {@code NaN}.
+     */
+    MIN,
+
+    /**
+     * Maximum value.  Output column type matches source column type.  For {@code double}, {@code NaN} is ignored
+     * unless all values are {@code NaN}.
+     */
+    MAX,
+
+    /**
+     * Arithmetic mean (sum divided by count).  Output column type is {@link ImmutableColumnType#DOUBLE}.
+     */
+    MEAN,
+    ;
+}
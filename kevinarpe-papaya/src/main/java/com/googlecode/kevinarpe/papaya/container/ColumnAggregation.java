@@ -0,0 +1,140 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import javax.annotation.Nullable;
+import java.util.Objects;
+
+/**
+ * Describes one output column of {@link ColumnTableQuery#groupBy(RowSelection, java.util.List, java.util.List)}: an
+ * aggregate function applied to a source column.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+public final class ColumnAggregation<TKey> {
+
+    /**
+     * @param outputKey
+     *        key of output column
+     *
+     * @throws NullPointerException
+     *         if {@code outputKey} is {@code null}
+     *
+     * @see ColumnAggregateFunction#COUNT
+     */
+    public static <TKey2>
+    ColumnAggregation<TKey2>
+    count(TKey2 outputKey) {
+
+        final ColumnAggregation<TKey2> x = new ColumnAggregation<>(outputKey, ColumnAggregateFunction.COUNT, null);
+        return x;
+    }
+
+    /**
+     * @param outputKey
+     *        key of output column
+     * @param function
+     *        aggregate function; if {@link ColumnAggregateFunction#COUNT}, {@code sourceKey} is ignored
+     * @param sourceKey
+     *        key of source column
+     *
+     * @throws NullPointerException
+     *         if any arg is {@code null}
+     */
+    public static <TKey2>
+    ColumnAggregation<TKey2>
+    of(TKey2 outputKey,
+       ColumnAggregateFunction function,
+       TKey2 sourceKey) {
+
+        ObjectArgs.checkNotNull(function, "function");
+        ObjectArgs.checkNotNull(sourceKey, "sourceKey");
+        final TKey2 nullableSourceKey = (ColumnAggregateFunction.COUNT == function) ? null : sourceKey;
+        final ColumnAggregation<TKey2> x = new ColumnAggregation<>(outputKey, function, nullableSourceKey);
+        return x;
+    }
+
+    /** Key of output column */
+    public final TKey outputKey;
+
+    /** Aggregate function */
+    public final ColumnAggregateFunction function;
+
+    /** Key of source column; {@code null} if {@link #function} is {@link ColumnAggregateFunction#COUNT} */
+    @Nullable
+    public final TKey nullableSourceKey;
+
+    private ColumnAggregation(TKey outputKey,
+                              ColumnAggregateFunction function,
+                              @Nullable TKey nullableSourceKey) {
+
+        this.outputKey = ObjectArgs.checkNotNull(outputKey, "outputKey");
+        this.function = function;
+        this.nullableSourceKey = nullableSourceKey;
+    }
+
+    @Override
+    public int
+    hashCode() {
+
+        final int x = Objects.hash(outputKey, function, nullableSourceKey);
+        return x;
+    }
+
+    @Override
+    public boolean
+    equals(Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (false == (obj instanceof ColumnAggregation)) {
+            return false;
+        }
+        final ColumnAggregation<?> other = (ColumnAggregation<?>) obj;
+        final boolean x =
+            outputKey.equals(other.outputKey)
+                && function == other.function
+                && Objects.equals(nullableSourceKey, other.nullableSourceKey);
+        return x;
+    }
+
+    /**
+     * @return example: {@code "total=SUM(price)"}
+     */
+    @Override
+    public String
+    toString() {
+
+        final String x =
+            outputKey + "=" + function + "(" + (null == nullableSourceKey ? "" : nullableSourceKey) + ")";
+        return x;
+    }
+}
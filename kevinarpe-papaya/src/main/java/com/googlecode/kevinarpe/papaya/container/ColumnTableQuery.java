@@ -0,0 +1,961 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.DoublePredicate;
+import java.util.function.IntPredicate;
+import java.util.function.LongPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Small columnar query engine for {@link ImmutableColumnTable}: filter rows into a {@link RowSelection}, then group
+ * by zero or more key columns and aggregate with {@link ColumnAggregateFunction}.  Output is a new
+ * {@link ImmutableColumnTable}, so queries may be chained.
+ * <p>
+ * Each operation is a tight loop over one column at a time.  Primitive columns are read without boxing, and rows are
+ * selected 64 at a time into a bitmap.  When a table has at least {@link #parallelThreshold} rows, filters and
+ * aggregates are split into row ranges and run in parallel on a {@link ForkJoinPool}.  Assigning rows to groups is
+ * always sequential.  Each parallel aggregate task needs its own per-group sum, min, and max, so aggregates are only
+ * run in parallel when there are few groups compared to {@link #parallelThreshold}.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(table);
+ * final RowSelection selection =
+ *     query.filterDouble("price", x -> x > 10.0).and(query.filterString("ccy", "USD"::equals));
+ * final ImmutableColumnTable<String, Object> report =
+ *     query.groupBy(selection, ImmutableList.of("country"),
+ *         ImmutableList.of(
+ *             ColumnAggregation.count("count"),
+ *             ColumnAggregation.of("total", ColumnAggregateFunction.SUM, "price")));
+ * }</pre>
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+public final class ColumnTableQuery<TKey, TValue> {
+
+    /** Default minimum number of rows to run in parallel; also the number of rows per parallel task. */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1 << 16;
+
+    // Aggregates run in parallel only if each task has at least this many rows per group.  Else, allocating and
+    // merging per-group arrays in each task costs about as much as the task itself.
+    static final int MIN_PARALLEL_ROW_COUNT_PER_GROUP = 4;
+
+    /**
+     * Convenience method to call {@link #of(ImmutableColumnTable, ForkJoinPool, int)} with
+     * {@link ForkJoinPool#commonPool()} and {@link #DEFAULT_PARALLEL_THRESHOLD}.
+     */
+    public static <TKey2, TValue2>
+    ColumnTableQuery<TKey2, TValue2>
+    of(ImmutableColumnTable<TKey2, TValue2> table) {
+
+        final ColumnTableQuery<TKey2, TValue2> x = of(table, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+        return x;
+    }
+
+    /**
+     * @param table
+     *        table to query
+     * @param pool
+     *        runs parallel tasks
+     * @param parallelThreshold
+     *        minimum number of rows to run in parallel; also the number of rows per parallel task.  Must be positive.
+     *
+     * @throws NullPointerException
+     *         if {@code table} or {@code pool} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code parallelThreshold} is not positive
+     */
+    public static <TKey2, TValue2>
+    ColumnTableQuery<TKey2, TValue2>
+    of(ImmutableColumnTable<TKey2, TValue2> table,
+       ForkJoinPool pool,
+       int parallelThreshold) {
+
+        final ColumnTableQuery<TKey2, TValue2> x = new ColumnTableQuery<>(table, pool, parallelThreshold);
+        return x;
+    }
+
+    /**
+     * Convenience method to call {@link #of(ImmutableFullEnumColumnTable, ForkJoinPool, int)} with
+     * {@link ForkJoinPool#commonPool()} and {@link #DEFAULT_PARALLEL_THRESHOLD}.
+     */
+    public static <TEnumKey extends Enum<TEnumKey>, TValue2>
+    ColumnTableQuery<TEnumKey, TValue2>
+    of(ImmutableFullEnumColumnTable<TEnumKey, TValue2> table) {
+
+        final ColumnTableQuery<TEnumKey, TValue2> x = of(table, ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+        return x;
+    }
+
+    /**
+     * Wraps each sub-list as an {@link ImmutableObjectColumn} without copies, then calls
+     * {@link #of(ImmutableColumnTable, ForkJoinPool, int)}.
+     */
+    public static <TEnumKey extends Enum<TEnumKey>, TValue2>
+    ColumnTableQuery<TEnumKey, TValue2>
+    of(ImmutableFullEnumColumnTable<TEnumKey, TValue2> table,
+       ForkJoinPool pool,
+       int parallelThreshold) {
+
+        ObjectArgs.checkNotNull(table, "table");
+        final ImmutableColumnTable<TEnumKey, TValue2> table2 =
+            ImmutableColumnTable.of(ImmutableMap.copyOf(table.listMap));
+        final ColumnTableQuery<TEnumKey, TValue2> x = new ColumnTableQuery<>(table2, pool, parallelThreshold);
+        return x;
+    }
+
+    /** Table to query */
+    public final ImmutableColumnTable<TKey, TValue> table;
+
+    /** Runs parallel tasks */
+    public final ForkJoinPool pool;
+
+    /** Minimum number of rows to run in parallel; also the number of rows per parallel task */
+    public final int parallelThreshold;
+
+    private ColumnTableQuery(ImmutableColumnTable<TKey, TValue> table,
+                             ForkJoinPool pool,
+                             int parallelThreshold) {
+
+        this.table = ObjectArgs.checkNotNull(table, "table");
+        this.pool = ObjectArgs.checkNotNull(pool, "pool");
+        this.parallelThreshold = IntArgs.checkPositive(parallelThreshold, "parallelThreshold");
+    }
+
+    /**
+     * @return new selection where every row is selected
+     */
+    public RowSelection
+    all() {
+
+        final RowSelection x = RowSelection.all(table.rowCount);
+        return x;
+    }
+
+    /**
+     * @return new selection of rows where {@code predicate} is {@code true}
+     *
+     * @throws NullPointerException
+     *         if {@code key} or {@code predicate} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#INT}
+     */
+    public RowSelection
+    filterInt(TKey key,
+              IntPredicate predicate) {
+
+        ObjectArgs.checkNotNull(predicate, "predicate");
+        final ImmutableIntColumn column = table.getIntColumn(key);
+        final RowSelection x = _filter((fromRow, toRow) -> {
+
+            long word = 0;
+            for (int row = fromRow; row < toRow; ++row) {
+
+                // Intentional: Shift distance is masked to six bits, i.e., row % 64.
+                word |= (predicate.test(column.getInt(row)) ? 1L : 0L) << row;
+            }
+            return word;
+        });
+        return x;
+    }
+
+    /**
+     * @return new selection of rows where {@code predicate} is {@code true}
+     *
+     * @throws NullPointerException
+     *         if {@code key} or {@code predicate} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#LONG}
+     */
+    public RowSelection
+    filterLong(TKey key,
+               LongPredicate predicate) {
+
+        ObjectArgs.checkNotNull(predicate, "predicate");
+        final ImmutableLongColumn column = table.getLongColumn(key);
+        final RowSelection x = _filter((fromRow, toRow) -> {
+
+            long word = 0;
+            for (int row = fromRow; row < toRow; ++row) {
+
+                word |= (predicate.test(column.getLong(row)) ? 1L : 0L) << row;
+            }
+            return word;
+        });
+        return x;
+    }
+
+    /**
+     * @return new selection of rows where {@code predicate} is {@code true}
+     *
+     * @throws NullPointerException
+     *         if {@code key} or {@code predicate} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#DOUBLE}
+     */
+    public RowSelection
+    filterDouble(TKey key,
+                 DoublePredicate predicate) {
+
+        ObjectArgs.checkNotNull(predicate, "predicate");
+        final ImmutableDoubleColumn column = table.getDoubleColumn(key);
+        final RowSelection x = _filter((fromRow, toRow) -> {
+
+            long word = 0;
+            for (int row = fromRow; row < toRow; ++row) {
+
+                word |= (predicate.test(column.getDouble(row)) ? 1L : 0L) << row;
+            }
+            return word;
+        });
+        return x;
+    }
+
+    /**
+     * This method copies the bitset of the column, so it never calls a predicate.
+     *
+     * @return new selection of rows where column value is {@code value}
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#BOOLEAN}
+     */
+    public RowSelection
+    filterBoolean(TKey key,
+                  boolean value) {
+
+        final ImmutableBooleanColumn column = table.getBooleanColumn(key);
+        final RowSelection x = new RowSelection(column.toWordArray(), table.rowCount);
+        final RowSelection y = value ? x : x.not();
+        return y;
+    }
+
+    /**
+     * The predicate is tested once per distinct value from {@link ImmutableStringDictionaryColumn#getDictionary()},
+     * then each row only compares an {@code int} code.
+     *
+     * @return new selection of rows where {@code predicate} is {@code true}
+     *
+     * @throws NullPointerException
+     *         if {@code key} or {@code predicate} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#STRING_DICTIONARY}
+     */
+    public RowSelection
+    filterString(TKey key,
+                 Predicate<? super String> predicate) {
+
+        ObjectArgs.checkNotNull(predicate, "predicate");
+        final ImmutableStringDictionaryColumn column = table.getStringDictionaryColumn(key);
+        final ImmutableList<String> dictionary = column.getDictionary();
+        final boolean[] isMatchByCodeArr = new boolean[dictionary.size()];
+        for (int code = 0; code < isMatchByCodeArr.length; ++code) {
+
+            isMatchByCodeArr[code] = predicate.test(dictionary.get(code));
+        }
+        final RowSelection x = _filter((fromRow, toRow) -> {
+
+            long word = 0;
+            for (int row = fromRow; row < toRow; ++row) {
+
+                word |= (isMatchByCodeArr[column.getCode(row)] ? 1L : 0L) << row;
+            }
+            return word;
+        });
+        return x;
+    }
+
+    /**
+     * Boxed filter for any column type.  Prefer a primitive filter, e.g., {@link #filterInt(Object, IntPredicate)}.
+     *
+     * @return new selection of rows where {@code predicate} is {@code true}
+     *
+     * @throws NullPointerException
+     *         if {@code key} or {@code predicate} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown
+     */
+    public RowSelection
+    filter(TKey key,
+           Predicate<? super TValue> predicate) {
+
+        ObjectArgs.checkNotNull(predicate, "predicate");
+        final ImmutableColumn<? extends TValue> column = table.getColumn(key);
+        final RowSelection x = _filter((fromRow, toRow) -> {
+
+            long word = 0;
+            for (int row = fromRow; row < toRow; ++row) {
+
+                word |= (predicate.test(column.get(row)) ? 1L : 0L) << row;
+            }
+            return word;
+        });
+        return x;
+    }
+
+    /**
+     * Computes one word (64 rows) of a selection.
+     */
+    private interface _WordFunction {
+
+        /**
+         * @param fromRow
+         *        first row (inclusive); always a multiple of 64
+         * @param toRow
+         *        last row (exclusive); at most {@code fromRow + 64}
+         */
+        long
+        apply(int fromRow,
+              int toRow);
+    }
+
+    private RowSelection
+    _filter(_WordFunction wordFunc) {
+
+        final int rowCount = table.rowCount;
+        final long[] wordArr = new long[RowSelection._wordCount(rowCount)];
+        if (rowCount < parallelThreshold) {
+            _FilterTask._computeWords(wordFunc, wordArr, rowCount, 0, wordArr.length);
+        }
+        else {
+            final int leafWordCount = RowSelection._wordCount(parallelThreshold);
+            pool.invoke(new _FilterTask(wordFunc, wordArr, rowCount, 0, wordArr.length, leafWordCount));
+        }
+        final RowSelection x = new RowSelection(wordArr, rowCount);
+        return x;
+    }
+
+    private static final class _FilterTask
+    extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final _WordFunction _wordFunc;
+        private final long[] _wordArr;
+        private final int _rowCount;
+        private final int _fromWord;
+        private final int _toWord;
+        private final int _leafWordCount;
+
+        private _FilterTask(_WordFunction wordFunc,
+                            long[] wordArr,
+                            int rowCount,
+                            int fromWord,
+                            int toWord,
+                            int leafWordCount) {
+            _wordFunc = wordFunc;
+            _wordArr = wordArr;
+            _rowCount = rowCount;
+            _fromWord = fromWord;
+            _toWord = toWord;
+            _leafWordCount = leafWordCount;
+        }
+
+        @Override
+        protected void
+        compute() {
+
+            if (_toWord - _fromWord <= _leafWordCount) {
+                _computeWords(_wordFunc, _wordArr, _rowCount, _fromWord, _toWord);
+            }
+            else {
+                final int midWord = (_fromWord + _toWord) >>> 1;
+                // Each task writes a disjoint range of words, so no merge is required.
+                invokeAll(new _FilterTask(_wordFunc, _wordArr, _rowCount, _fromWord, midWord, _leafWordCount),
+                    new _FilterTask(_wordFunc, _wordArr, _rowCount, midWord, _toWord, _leafWordCount));
+            }
+        }
+
+        private static void
+        _computeWords(_WordFunction wordFunc,
+                      long[] wordArr,
+                      int rowCount,
+                      int fromWord,
+                      int toWord) {
+
+            for (int i = fromWord; i < toWord; ++i) {
+
+                final int fromRow = i << 6;
+                final int toRow = (int) Math.min(rowCount, fromRow + 64L);
+                wordArr[i] = wordFunc.apply(fromRow, toRow);
+            }
+        }
+    }
+
+    /**
+     * Convenience method to call {@link #groupBy(RowSelection, List, List)} without group keys.  The output table
+     * has one row, or zero rows if {@code selection} is empty.
+     */
+    public ImmutableColumnTable<TKey, Object>
+    aggregate(RowSelection selection,
+              List<ColumnAggregation<TKey>> aggregationList) {
+
+        final ImmutableColumnTable<TKey, Object> x = groupBy(selection, ImmutableList.of(), aggregationList);
+        return x;
+    }
+
+    /**
+     * Groups selected rows by distinct values of key columns, then aggregates each group.
+     * <p>
+     * The output table has one row per group, in order of first appearance.  First, one column per group key with
+     * the same column type as the source, then one column per aggregation: see {@link ColumnAggregateFunction} for
+     * output column types.
+     * <p>
+     * Values of {@link ImmutableColumnType#DOUBLE} group keys are compared like {@link Double#equals(Object)}.
+     *
+     * @param selection
+     *        rows to include; row count must match {@link #table}
+     * @param groupKeyList
+     *        key columns to group by; may be empty to aggregate all selected rows as one group
+     * @param aggregationList
+     *        may be empty to only find distinct values of group keys
+     *
+     * @throws NullPointerException
+     *         if any arg or element is {@code null}
+     * @throws IllegalArgumentException
+     *         <ul>
+     *             <li>if {@code selection} row count does not match</li>
+     *             <li>if {@code groupKeyList} and {@code aggregationList} are both empty</li>
+     *             <li>if any key is unknown, or any output key is not unique</li>
+     *             <li>if any aggregation source column is not {@code int}, {@code long}, or {@code double}</li>
+     *         </ul>
+     */
+    public ImmutableColumnTable<TKey, Object>
+    groupBy(RowSelection selection,
+            List<? extends TKey> groupKeyList,
+            List<ColumnAggregation<TKey>> aggregationList) {
+
+        ObjectArgs.checkNotNull(selection, "selection");
+        ObjectArgs.checkNotNull(groupKeyList, "groupKeyList");
+        ObjectArgs.checkNotNull(aggregationList, "aggregationList");
+        if (selection.getRowCount() != table.rowCount) {
+            throw new IllegalArgumentException(String.format(
+                "Selection row count %d does not match table row count %d", selection.getRowCount(), table.rowCount));
+        }
+        final LinkedHashMap<TKey, ImmutableColumnType> outputColumnTypeMap =
+            _newOutputColumnTypeMap(groupKeyList, aggregationList);
+
+        final int[] rowIndexArr = selection.toRowIndexArray();
+        final int[] groupIdArr = new int[rowIndexArr.length];
+        int groupCount = (0 == rowIndexArr.length) ? 0 : 1;
+        for (final TKey groupKey : groupKeyList) {
+
+            final int[] columnIdArr = _newColumnIdArr(table.getColumn(groupKey), rowIndexArr);
+            final _LongToDenseIdMap map = new _LongToDenseIdMap(16);
+            for (int i = 0; i < groupIdArr.length; ++i) {
+
+                groupIdArr[i] = map.getOrAssignId(((long) groupIdArr[i] << 32) | (columnIdArr[i] & 0xFFFFFFFFL));
+            }
+            groupCount = map.size();
+        }
+        final int[] firstRowIndexArr = new int[groupCount];
+        Arrays.fill(firstRowIndexArr, -1);
+        final long[] countArr = new long[groupCount];
+        for (int i = 0; i < groupIdArr.length; ++i) {
+
+            final int groupId = groupIdArr[i];
+            if (-1 == firstRowIndexArr[groupId]) {
+                firstRowIndexArr[groupId] = rowIndexArr[i];
+            }
+            ++countArr[groupId];
+        }
+        final HashMap<TKey, _Stats> sourceKeyToStatsMap = new HashMap<>();
+        for (final ColumnAggregation<TKey> aggregation : aggregationList) {
+
+            final TKey sourceKey = aggregation.nullableSourceKey;
+            if (null != sourceKey && false == sourceKeyToStatsMap.containsKey(sourceKey)) {
+
+                final _Stats stats = _newStats(table.getColumn(sourceKey), rowIndexArr, groupIdArr, groupCount);
+                sourceKeyToStatsMap.put(sourceKey, stats);
+            }
+        }
+        final ImmutableColumnTableBuilder<TKey, Object> b =
+            ImmutableColumnTableBuilder.withColumnTypes(outputColumnTypeMap);
+
+        for (final TKey groupKey : groupKeyList) {
+
+            final ImmutableColumn<? extends TValue> column = table.getColumn(groupKey);
+            for (int groupId = 0; groupId < groupCount; ++groupId) {
+
+                b.add(groupKey, column.get(firstRowIndexArr[groupId]));
+            }
+        }
+        for (final ColumnAggregation<TKey> aggregation : aggregationList) {
+
+            final _Stats nullableStats = sourceKeyToStatsMap.get(aggregation.nullableSourceKey);
+            for (int groupId = 0; groupId < groupCount; ++groupId) {
+
+                _addAggregate(b, aggregation, nullableStats, countArr, groupId);
+            }
+        }
+        final ImmutableColumnTable<TKey, Object> x = b.build();
+        return x;
+    }
+
+    private LinkedHashMap<TKey, ImmutableColumnType>
+    _newOutputColumnTypeMap(List<? extends TKey> groupKeyList,
+                            List<ColumnAggregation<TKey>> aggregationList) {
+
+        if (groupKeyList.isEmpty() && aggregationList.isEmpty()) {
+            throw new IllegalArgumentException("Both lists are empty: groupKeyList and aggregationList");
+        }
+        final LinkedHashMap<TKey, ImmutableColumnType> x = new LinkedHashMap<>();
+        for (final TKey groupKey : groupKeyList) {
+
+            final ImmutableColumnType columnType = table.getColumn(groupKey).getColumnType();
+            _putUnique(x, groupKey, columnType);
+        }
+        for (final ColumnAggregation<TKey> aggregation : aggregationList) {
+
+            ObjectArgs.checkNotNull(aggregation, "aggregation");
+            final ImmutableColumnType columnType = _getOutputColumnType(aggregation);
+            _putUnique(x, aggregation.outputKey, columnType);
+        }
+        return x;
+    }
+
+    private static <TKey2>
+    void _putUnique(LinkedHashMap<TKey2, ImmutableColumnType> map,
+                    TKey2 key,
+                    ImmutableColumnType columnType) {
+
+        if (null != map.put(key, columnType)) {
+            throw new IllegalArgumentException(String.format("Output key [%s] is not unique", key));
+        }
+    }
+
+    private ImmutableColumnType
+    _getOutputColumnType(ColumnAggregation<TKey> aggregation) {
+
+        if (ColumnAggregateFunction.COUNT == aggregation.function) {
+            return ImmutableColumnType.LONG;
+        }
+        final ImmutableColumnType sourceColumnType = table.getColumn(aggregation.nullableSourceKey).getColumnType();
+        switch (sourceColumnType) {
+            case INT:
+            case LONG:
+            case DOUBLE: {
+                break;
+            }
+            default: {
+                throw new IllegalArgumentException(String.format(
+                    "Aggregation [%s]: Expected source column type INT, LONG, or DOUBLE, but found %s",
+                    aggregation, sourceColumnType));
+            }
+        }
+        switch (aggregation.function) {
+            case SUM: {
+                return (ImmutableColumnType.DOUBLE == sourceColumnType)
+                    ? ImmutableColumnType.DOUBLE : ImmutableColumnType.LONG;
+            }
+            case MIN:
+            case MAX: {
+                return sourceColumnType;
+            }
+            case MEAN: {
+                return ImmutableColumnType.DOUBLE;
+            }
+            default: {
+                throw new IllegalStateException("Unknown function: " + aggregation.function);
+            }
+        }
+    }
+
+    /**
+     * Maps each selected row to an {@code int} id, where equal values have equal ids.
+     */
+    private static int[]
+    _newColumnIdArr(ImmutableColumn<?> column,
+                    int[] rowIndexArr) {
+
+        final int[] x = new int[rowIndexArr.length];
+        switch (column.getColumnType()) {
+            case INT: {
+                // Ints are already unique ids.
+                final ImmutableIntColumn column2 = (ImmutableIntColumn) column;
+                for (int i = 0; i < x.length; ++i) {
+
+                    x[i] = column2.getInt(rowIndexArr[i]);
+                }
+                break;
+            }
+            case LONG: {
+                final ImmutableLongColumn column2 = (ImmutableLongColumn) column;
+                final _LongToDenseIdMap map = new _LongToDenseIdMap(16);
+                for (int i = 0; i < x.length; ++i) {
+
+                    x[i] = map.getOrAssignId(column2.getLong(rowIndexArr[i]));
+                }
+                break;
+            }
+            case DOUBLE: {
+                final ImmutableDoubleColumn column2 = (ImmutableDoubleColumn) column;
+                final _LongToDenseIdMap map = new _LongToDenseIdMap(16);
+                for (int i = 0; i < x.length; ++i) {
+
+                    // Same as Double.equals(Object)
+                    x[i] = map.getOrAssignId(Double.doubleToLongBits(column2.getDouble(rowIndexArr[i])));
+                }
+                break;
+            }
+            case BOOLEAN: {
+                final ImmutableBooleanColumn column2 = (ImmutableBooleanColumn) column;
+                for (int i = 0; i < x.length; ++i) {
+
+                    x[i] = column2.getBoolean(rowIndexArr[i]) ? 1 : 0;
+                }
+                break;
+            }
+            case STRING_DICTIONARY: {
+                final ImmutableStringDictionaryColumn column2 = (ImmutableStringDictionaryColumn) column;
+                for (int i = 0; i < x.length; ++i) {
+
+                    x[i] = column2.getCode(rowIndexArr[i]);
+                }
+                break;
+            }
+            case OBJECT: {
+                final HashMap<Object, Integer> map = new HashMap<>();
+                for (int i = 0; i < x.length; ++i) {
+
+                    final Object value = column.get(rowIndexArr[i]);
+                    final Integer nullableId = map.get(value);
+                    if (null == nullableId) {
+                        x[i] = map.size();
+                        map.put(value, x[i]);
+                    }
+                    else {
+                        x[i] = nullableId;
+                    }
+                }
+                break;
+            }
+            default: {
+                throw new IllegalStateException("Unknown column type: " + column.getColumnType());
+            }
+        }
+        return x;
+    }
+
+    private static void
+    _addAggregate(ImmutableColumnTableBuilder<?, Object> b,
+                  ColumnAggregation<?> aggregation,
+                  _Stats nullableStats,
+                  long[] countArr,
+                  int groupId) {
+
+        @SuppressWarnings("unchecked")
+        final ImmutableColumnTableBuilder<Object, Object> b2 = (ImmutableColumnTableBuilder<Object, Object>) b;
+        final Object outputKey = aggregation.outputKey;
+        switch (aggregation.function) {
+            case COUNT: {
+                b2.addLong(outputKey, countArr[groupId]);
+                break;
+            }
+            case SUM: {
+                if (nullableStats instanceof _LongStats) {
+                    b2.addLong(outputKey, ((_LongStats) nullableStats).sumArr[groupId]);
+                }
+                else {
+                    b2.addDouble(outputKey, ((_DoubleStats) nullableStats).sumArr[groupId]);
+                }
+                break;
+            }
+            case MIN:
+            case MAX: {
+                final boolean isMin = (ColumnAggregateFunction.MIN == aggregation.function);
+                if (nullableStats instanceof _LongStats) {
+                    final _LongStats stats = (_LongStats) nullableStats;
+                    final long value = isMin ? stats.minArr[groupId] : stats.maxArr[groupId];
+                    if (stats.isInt) {
+                        b2.addInt(outputKey, (int) value);
+                    }
+                    else {
+                        b2.addLong(outputKey, value);
+                    }
+                }
+                else {
+                    final _DoubleStats stats = (_DoubleStats) nullableStats;
+                    b2.addDouble(outputKey, isMin ? stats.minArr[groupId] : stats.maxArr[groupId]);
+                }
+                break;
+            }
+            case MEAN: {
+                final double sum =
+                    (nullableStats instanceof _LongStats)
+                        ? (double) ((_LongStats) nullableStats).sumArr[groupId]
+                        : ((_DoubleStats) nullableStats).sumArr[groupId];
+                b2.addDouble(outputKey, sum / countArr[groupId]);
+                break;
+            }
+            default: {
+                throw new IllegalStateException("Unknown function: " + aggregation.function);
+            }
+        }
+    }
+
+    private _Stats
+    _newStats(ImmutableColumn<?> column,
+              int[] rowIndexArr,
+              int[] groupIdArr,
+              int groupCount) {
+
+        final _StatsTask task = new _StatsTask(column, rowIndexArr, groupIdArr, groupCount, 0, rowIndexArr.length);
+        if (rowIndexArr.length < parallelThreshold
+            || (long) groupCount * MIN_PARALLEL_ROW_COUNT_PER_GROUP > parallelThreshold) {
+            final _Stats x = task.compute();
+            return x;
+        }
+        else {
+            final _Stats x = pool.invoke(task);
+            return x;
+        }
+    }
+
+    private final class _StatsTask
+    extends RecursiveTask<_Stats> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final ImmutableColumn<?> _column;
+        private final int[] _rowIndexArr;
+        private final int[] _groupIdArr;
+        private final int _groupCount;
+        private final int _fromIndex;
+        private final int _toIndex;
+
+        private _StatsTask(ImmutableColumn<?> column,
+                           int[] rowIndexArr,
+                           int[] groupIdArr,
+                           int groupCount,
+                           int fromIndex,
+                           int toIndex) {
+            _column = column;
+            _rowIndexArr = rowIndexArr;
+            _groupIdArr = groupIdArr;
+            _groupCount = groupCount;
+            _fromIndex = fromIndex;
+            _toIndex = toIndex;
+        }
+
+        @Override
+        protected _Stats
+        compute() {
+
+            if (_toIndex - _fromIndex <= parallelThreshold) {
+                final _Stats x = _Stats.newInstance(_column, _groupCount);
+                x.accumulate(_column, _rowIndexArr, _groupIdArr, _fromIndex, _toIndex);
+                return x;
+            }
+            final int midIndex = (_fromIndex + _toIndex) >>> 1;
+            final _StatsTask left =
+                new _StatsTask(_column, _rowIndexArr, _groupIdArr, _groupCount, _fromIndex, midIndex);
+            final _StatsTask right =
+                new _StatsTask(_column, _rowIndexArr, _groupIdArr, _groupCount, midIndex, _toIndex);
+            left.fork();
+            final _Stats x = right.compute();
+            x.merge(left.join());
+            return x;
+        }
+    }
+
+    /**
+     * Per-group sum, min, and max of one numeric column.
+     */
+    private static abstract class _Stats {
+
+        static _Stats
+        newInstance(ImmutableColumn<?> column,
+                    int groupCount) {
+
+            final ImmutableColumnType columnType = column.getColumnType();
+            final _Stats x =
+                (ImmutableColumnType.DOUBLE == columnType)
+                    ? new _DoubleStats(groupCount)
+                    : new _LongStats(groupCount, ImmutableColumnType.INT == columnType);
+            return x;
+        }
+
+        abstract void
+        accumulate(ImmutableColumn<?> column,
+                   int[] rowIndexArr,
+                   int[] groupIdArr,
+                   int fromIndex,
+                   int toIndex);
+
+        abstract void
+        merge(_Stats other);
+    }
+
+    private static final class _LongStats
+    extends _Stats {
+
+        private final boolean isInt;
+        private final long[] sumArr;
+        private final long[] minArr;
+        private final long[] maxArr;
+
+        private _LongStats(int groupCount,
+                           boolean isInt) {
+            this.isInt = isInt;
+            this.sumArr = new long[groupCount];
+            this.minArr = new long[groupCount];
+            this.maxArr = new long[groupCount];
+            Arrays.fill(minArr, Long.MAX_VALUE);
+            Arrays.fill(maxArr, Long.MIN_VALUE);
+        }
+
+        @Override
+        void
+        accumulate(ImmutableColumn<?> column,
+                   int[] rowIndexArr,
+                   int[] groupIdArr,
+                   int fromIndex,
+                   int toIndex) {
+
+            // Intentional: Two loops avoid a type check per row.
+            if (isInt) {
+                final ImmutableIntColumn column2 = (ImmutableIntColumn) column;
+                for (int i = fromIndex; i < toIndex; ++i) {
+
+                    _add(groupIdArr[i], column2.getInt(rowIndexArr[i]));
+                }
+            }
+            else {
+                final ImmutableLongColumn column2 = (ImmutableLongColumn) column;
+                for (int i = fromIndex; i < toIndex; ++i) {
+
+                    _add(groupIdArr[i], column2.getLong(rowIndexArr[i]));
+                }
+            }
+        }
+
+        private void
+        _add(int groupId,
+             long value) {
+
+            sumArr[groupId] += value;
+            minArr[groupId] = Math.min(minArr[groupId], value);
+            maxArr[groupId] = Math.max(maxArr[groupId], value);
+        }
+
+        @Override
+        void
+        merge(_Stats other) {
+
+            final _LongStats other2 = (_LongStats) other;
+            for (int groupId = 0; groupId < sumArr.length; ++groupId) {
+
+                sumArr[groupId] += other2.sumArr[groupId];
+                minArr[groupId] = Math.min(minArr[groupId], other2.minArr[groupId]);
+                maxArr[groupId] = Math.max(maxArr[groupId], other2.maxArr[groupId]);
+            }
+        }
+    }
+
+    private static final class _DoubleStats
+    extends _Stats {
+
+        private final double[] sumArr;
+        private final double[] minArr;
+        private final double[] maxArr;
+
+        private _DoubleStats(int groupCount) {
+            this.sumArr = new double[groupCount];
+            // NaN means no value yet.  See: _min() and _max().
+            this.minArr = new double[groupCount];
+            this.maxArr = new double[groupCount];
+            Arrays.fill(minArr, Double.NaN);
+            Arrays.fill(maxArr, Double.NaN);
+        }
+
+        @Override
+        void
+        accumulate(ImmutableColumn<?> column,
+                   int[] rowIndexArr,
+                   int[] groupIdArr,
+                   int fromIndex,
+                   int toIndex) {
+
+            final ImmutableDoubleColumn column2 = (ImmutableDoubleColumn) column;
+            for (int i = fromIndex; i < toIndex; ++i) {
+
+                final int groupId = groupIdArr[i];
+                final double value = column2.getDouble(rowIndexArr[i]);
+                sumArr[groupId] += value;
+                minArr[groupId] = _min(minArr[groupId], value);
+                maxArr[groupId] = _max(maxArr[groupId], value);
+            }
+        }
+
+        // Unlike Math.min(), NaN is ignored unless both are NaN.
+        private static double
+        _min(double a,
+             double b) {
+
+            final double x = (Double.isNaN(a) || b < a) ? b : a;
+            return x;
+        }
+
+        // Unlike Math.max(), NaN is ignored unless both are NaN.
+        private static double
+        _max(double a,
+             double b) {
+
+            final double x = (Double.isNaN(a) || b > a) ? b : a;
+            return x;
+        }
+
+        @Override
+        void
+        merge(_Stats other) {
+
+            final _DoubleStats other2 = (_DoubleStats) other;
+            for (int groupId = 0; groupId < sumArr.length; ++groupId) {
+
+                sumArr[groupId] += other2.sumArr[groupId];
+                minArr[groupId] = _min(minArr[groupId], other2.minArr[groupId]);
+                maxArr[groupId] = _max(maxArr[groupId], other2.maxArr[groupId]);
+            }
+        }
+    }
+}
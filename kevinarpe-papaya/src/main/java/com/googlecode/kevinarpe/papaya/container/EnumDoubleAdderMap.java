@@ -0,0 +1,206 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.function.ObjDoubleConsumer;
+
+/**
+ * Mutable, thread-safe map of enum keys to {@code double} sums, where every enum key is always present.  Each key has
+ * its own {@link DoubleAdder}, so many threads may update the same key with little contention.  Reads are slower than
+ * {@link EnumDoubleMap}, because each read must sum all stripes for a key.
+ * <p>
+ * Like {@link DoubleAdder}, this class does not override {@link #equals(Object)} and {@link #hashCode()}.  To compare
+ * values, use {@link #toImmutable()}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see EnumDoubleMap
+ * @see ImmutableEnumDoubleMap
+ */
+@FullyTested
+public final class EnumDoubleAdderMap<TEnumKey extends Enum<TEnumKey>>
+extends _AbstractEnumPrimitiveMap<TEnumKey> {
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     *
+     * @return new map where all sums are zero
+     *
+     * @throws NullPointerException
+     *         if {@code enumClass} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    EnumDoubleAdderMap<TEnumKey2>
+    create(Class<TEnumKey2> enumClass) {
+
+        final EnumDoubleAdderMap<TEnumKey2> x = new EnumDoubleAdderMap<>(enumClass);
+        return x;
+    }
+
+    private final DoubleAdder[] adderArr;
+
+    private EnumDoubleAdderMap(Class<TEnumKey> enumClass) {
+        super(enumClass);
+        this.adderArr = new DoubleAdder[keyArr.length];
+        for (int i = 0; i < adderArr.length; ++i) {
+
+            adderArr[i] = new DoubleAdder();
+        }
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see DoubleAdder#add(double)
+     */
+    public void
+    add(TEnumKey key,
+        double delta) {
+
+        adderArr[ordinal(key)].add(delta);
+    }
+
+    /**
+     * @return current sum for {@code key}.  Concurrent updates may or may not be included.
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see DoubleAdder#sum()
+     */
+    public double
+    sum(TEnumKey key) {
+
+        final double x = adderArr[ordinal(key)].sum();
+        return x;
+    }
+
+    /**
+     * @return current sum for {@code key} before reset to zero
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see DoubleAdder#sumThenReset()
+     */
+    public double
+    sumThenReset(TEnumKey key) {
+
+        final double x = adderArr[ordinal(key)].sumThenReset();
+        return x;
+    }
+
+    /**
+     * @return sum of all keys.  This is not an atomic snapshot across keys.
+     */
+    public double
+    sum() {
+
+        double x = 0;
+        for (final DoubleAdder adder : adderArr) {
+
+            x += adder.sum();
+        }
+        return x;
+    }
+
+    /**
+     * Resets all sums to zero.  This is not atomic across keys.
+     *
+     * @see DoubleAdder#reset()
+     */
+    public void
+    reset() {
+
+        for (final DoubleAdder adder : adderArr) {
+
+            adder.reset();
+        }
+    }
+
+    /**
+     * Iterates all pairs in {@link Enum#ordinal()} order without boxing.  This is not an atomic snapshot across keys.
+     *
+     * @throws NullPointerException
+     *         if {@code action} is {@code null}
+     */
+    public void
+    forEach(ObjDoubleConsumer<? super TEnumKey> action) {
+
+        ObjectArgs.checkNotNull(action, "action");
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            action.accept(keyArr[i], adderArr[i].sum());
+        }
+    }
+
+    /**
+     * Copies all sums.  This is not an atomic snapshot across keys.
+     */
+    public ImmutableEnumDoubleMap<TEnumKey>
+    toImmutable() {
+
+        final double[] arr = new double[keyArr.length];
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            arr[i] = adderArr[i].sum();
+        }
+        final ImmutableEnumDoubleMap<TEnumKey> x = new ImmutableEnumDoubleMap<>(enumClass, arr);
+        return x;
+    }
+
+    /**
+     * Copies all sums, then resets each to zero.  Like {@link DoubleAdder#sumThenReset()}, this is intended for
+     * quiescent points between updates, e.g., periodic metrics reporting.  It is not an atomic snapshot across keys.
+     */
+    public ImmutableEnumDoubleMap<TEnumKey>
+    toImmutableThenReset() {
+
+        final double[] arr = new double[keyArr.length];
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            arr[i] = adderArr[i].sumThenReset();
+        }
+        final ImmutableEnumDoubleMap<TEnumKey> x = new ImmutableEnumDoubleMap<>(enumClass, arr);
+        return x;
+    }
+
+    @Override
+    protected void
+    appendValue(StringBuilder sb,
+                int ordinal) {
+
+        sb.append(adderArr[ordinal].sum());
+    }
+}
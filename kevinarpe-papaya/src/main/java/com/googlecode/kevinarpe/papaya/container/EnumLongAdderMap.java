@@ -0,0 +1,230 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Mutable, thread-safe map of enum keys to {@code long} sums, where every enum key is always present.  Each key has
+ * its own {@link LongAdder}, so many threads may update the same key with little contention.  Reads are slower than
+ * {@link EnumLongMap}, because each read must sum all stripes for a key.
+ * <p>
+ * Like {@link LongAdder}, this class does not override {@link #equals(Object)} and {@link #hashCode()}.  To compare
+ * values, use {@link #toImmutable()}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see EnumLongMap
+ * @see ImmutableEnumLongMap
+ */
+@FullyTested
+public final class EnumLongAdderMap<TEnumKey extends Enum<TEnumKey>>
+extends _AbstractEnumPrimitiveMap<TEnumKey> {
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     *
+     * @return new map where all sums are zero
+     *
+     * @throws NullPointerException
+     *         if {@code enumClass} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    EnumLongAdderMap<TEnumKey2>
+    create(Class<TEnumKey2> enumClass) {
+
+        final EnumLongAdderMap<TEnumKey2> x = new EnumLongAdderMap<>(enumClass);
+        return x;
+    }
+
+    private final LongAdder[] adderArr;
+
+    private EnumLongAdderMap(Class<TEnumKey> enumClass) {
+        super(enumClass);
+        this.adderArr = new LongAdder[keyArr.length];
+        for (int i = 0; i < adderArr.length; ++i) {
+
+            adderArr[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see LongAdder#add(long)
+     */
+    public void
+    add(TEnumKey key,
+        long delta) {
+
+        adderArr[ordinal(key)].add(delta);
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see LongAdder#increment()
+     */
+    public void
+    increment(TEnumKey key) {
+
+        adderArr[ordinal(key)].increment();
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see LongAdder#decrement()
+     */
+    public void
+    decrement(TEnumKey key) {
+
+        adderArr[ordinal(key)].decrement();
+    }
+
+    /**
+     * @return current sum for {@code key}.  Concurrent updates may or may not be included.
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see LongAdder#sum()
+     */
+    public long
+    sum(TEnumKey key) {
+
+        final long x = adderArr[ordinal(key)].sum();
+        return x;
+    }
+
+    /**
+     * @return current sum for {@code key} before reset to zero
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see LongAdder#sumThenReset()
+     */
+    public long
+    sumThenReset(TEnumKey key) {
+
+        final long x = adderArr[ordinal(key)].sumThenReset();
+        return x;
+    }
+
+    /**
+     * @return sum of all keys; may overflow.  This is not an atomic snapshot across keys.
+     */
+    public long
+    sum() {
+
+        long x = 0;
+        for (final LongAdder adder : adderArr) {
+
+            x += adder.sum();
+        }
+        return x;
+    }
+
+    /**
+     * Resets all sums to zero.  This is not atomic across keys.
+     *
+     * @see LongAdder#reset()
+     */
+    public void
+    reset() {
+
+        for (final LongAdder adder : adderArr) {
+
+            adder.reset();
+        }
+    }
+
+    /**
+     * Iterates all pairs in {@link Enum#ordinal()} order without boxing.  This is not an atomic snapshot across keys.
+     *
+     * @throws NullPointerException
+     *         if {@code action} is {@code null}
+     */
+    public void
+    forEach(ObjLongConsumer<? super TEnumKey> action) {
+
+        ObjectArgs.checkNotNull(action, "action");
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            action.accept(keyArr[i], adderArr[i].sum());
+        }
+    }
+
+    /**
+     * Copies all sums.  This is not an atomic snapshot across keys.
+     */
+    public ImmutableEnumLongMap<TEnumKey>
+    toImmutable() {
+
+        final long[] arr = new long[keyArr.length];
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            arr[i] = adderArr[i].sum();
+        }
+        final ImmutableEnumLongMap<TEnumKey> x = new ImmutableEnumLongMap<>(enumClass, arr);
+        return x;
+    }
+
+    /**
+     * Copies all sums, then resets each to zero.  Like {@link LongAdder#sumThenReset()}, this is intended for quiescent
+     * points between updates, e.g., periodic metrics reporting.  It is not an atomic snapshot across keys.
+     */
+    public ImmutableEnumLongMap<TEnumKey>
+    toImmutableThenReset() {
+
+        final long[] arr = new long[keyArr.length];
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            arr[i] = adderArr[i].sumThenReset();
+        }
+        final ImmutableEnumLongMap<TEnumKey> x = new ImmutableEnumLongMap<>(enumClass, arr);
+        return x;
+    }
+
+    @Override
+    protected void
+    appendValue(StringBuilder sb,
+                int ordinal) {
+
+        sb.append(adderArr[ordinal].sum());
+    }
+}
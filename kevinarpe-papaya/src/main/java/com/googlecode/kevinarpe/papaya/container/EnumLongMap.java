@@ -0,0 +1,315 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Mutable, thread-safe map of enum keys to primitive {@code long} values, where every enum key is always present.
+ * Values are stored in an {@link AtomicLongArray} indexed by {@link Enum#ordinal()}, so updates never box or unbox,
+ * and each key supports atomic add and compare-and-set.
+ * <p>
+ * This class is a good fit for per-enum counters that are updated by a few threads.  If many threads update the
+ * same key at the same time, prefer {@link EnumLongAdderMap}, which trades slower reads for less contention.
+ * <p>
+ * Like {@link java.util.concurrent.atomic.AtomicLong}, this class does not override {@link #equals(Object)} and
+ * {@link #hashCode()}.  To compare values, use {@link #toImmutable()}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see ImmutableEnumLongMap
+ * @see EnumLongAdderMap
+ */
+@FullyTested
+public final class EnumLongMap<TEnumKey extends Enum<TEnumKey>>
+extends _AbstractEnumPrimitiveMap<TEnumKey> {
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     *
+     * @return new map where all values are zero
+     *
+     * @throws NullPointerException
+     *         if {@code enumClass} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    EnumLongMap<TEnumKey2>
+    create(Class<TEnumKey2> enumClass) {
+
+        final EnumLongMap<TEnumKey2> x = new EnumLongMap<>(enumClass);
+        return x;
+    }
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     * @param keyToValueFunc
+     *        maps key to initial value
+     *
+     * @throws NullPointerException
+     *         if any args is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    EnumLongMap<TEnumKey2>
+    ofKeys(Class<TEnumKey2> enumClass,
+           ToLongFunction<? super TEnumKey2> keyToValueFunc) {
+
+        ObjectArgs.checkNotNull(keyToValueFunc, "keyToValueFunc");
+
+        final EnumLongMap<TEnumKey2> x = new EnumLongMap<>(enumClass);
+        for (int i = 0; i < x.keyArr.length; ++i) {
+
+            x.valueArr.set(i, keyToValueFunc.applyAsLong(x.keyArr[i]));
+        }
+        return x;
+    }
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     * @param map
+     *        must contain every enum constant from {@code enumClass} as a key
+     *
+     * @throws NullPointerException
+     *         if any args, key, or value is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants, or any key is missing from {@code map}
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    EnumLongMap<TEnumKey2>
+    copyOf(Class<TEnumKey2> enumClass,
+           Map<TEnumKey2, ? extends Long> map) {
+
+        assertAllKeysFound(enumClass, map);
+        final EnumLongMap<TEnumKey2> x = ofKeys(enumClass, map::get);
+        return x;
+    }
+
+    private final AtomicLongArray valueArr;
+
+    private EnumLongMap(Class<TEnumKey> enumClass) {
+        super(enumClass);
+        this.valueArr = new AtomicLongArray(keyArr.length);
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#get(int)
+     */
+    public long
+    get(TEnumKey key) {
+
+        final long x = valueArr.get(ordinal(key));
+        return x;
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#set(int, long)
+     */
+    public void
+    set(TEnumKey key,
+        long value) {
+
+        valueArr.set(ordinal(key), value);
+    }
+
+    /**
+     * @return previous value
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#getAndSet(int, long)
+     */
+    public long
+    getAndSet(TEnumKey key,
+              long value) {
+
+        final long x = valueArr.getAndSet(ordinal(key), value);
+        return x;
+    }
+
+    /**
+     * @return {@code true} if current value was {@code expect} and is now {@code update}
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#compareAndSet(int, long, long)
+     */
+    public boolean
+    compareAndSet(TEnumKey key,
+                  long expect,
+                  long update) {
+
+        final boolean x = valueArr.compareAndSet(ordinal(key), expect, update);
+        return x;
+    }
+
+    /**
+     * @return previous value
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#getAndAdd(int, long)
+     */
+    public long
+    getAndAdd(TEnumKey key,
+              long delta) {
+
+        final long x = valueArr.getAndAdd(ordinal(key), delta);
+        return x;
+    }
+
+    /**
+     * @return updated value
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#addAndGet(int, long)
+     */
+    public long
+    addAndGet(TEnumKey key,
+              long delta) {
+
+        final long x = valueArr.addAndGet(ordinal(key), delta);
+        return x;
+    }
+
+    /**
+     * @return updated value
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#incrementAndGet(int)
+     */
+    public long
+    incrementAndGet(TEnumKey key) {
+
+        final long x = valueArr.incrementAndGet(ordinal(key));
+        return x;
+    }
+
+    /**
+     * @return updated value
+     *
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     *
+     * @see AtomicLongArray#decrementAndGet(int)
+     */
+    public long
+    decrementAndGet(TEnumKey key) {
+
+        final long x = valueArr.decrementAndGet(ordinal(key));
+        return x;
+    }
+
+    /**
+     * Sets all values.  This is not atomic across keys.
+     */
+    public void
+    setAll(long value) {
+
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            valueArr.set(i, value);
+        }
+    }
+
+    /**
+     * Iterates all pairs in {@link Enum#ordinal()} order without boxing.  Each value is read once, but the pairs
+     * are not an atomic snapshot across keys.
+     *
+     * @throws NullPointerException
+     *         if {@code action} is {@code null}
+     */
+    public void
+    forEach(ObjLongConsumer<? super TEnumKey> action) {
+
+        ObjectArgs.checkNotNull(action, "action");
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            action.accept(keyArr[i], valueArr.get(i));
+        }
+    }
+
+    /**
+     * @return sum of all values; may overflow.  This is not an atomic snapshot across keys.
+     */
+    public long
+    sum() {
+
+        long x = 0;
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            x += valueArr.get(i);
+        }
+        return x;
+    }
+
+    /**
+     * Copies all values.  This is not an atomic snapshot across keys.
+     */
+    public ImmutableEnumLongMap<TEnumKey>
+    toImmutable() {
+
+        final long[] arr = new long[keyArr.length];
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            arr[i] = valueArr.get(i);
+        }
+        final ImmutableEnumLongMap<TEnumKey> x = new ImmutableEnumLongMap<>(enumClass, arr);
+        return x;
+    }
+
+    @Override
+    protected void
+    appendValue(StringBuilder sb,
+                int ordinal) {
+
+        sb.append(valueArr.get(ordinal));
+    }
+}
@@ -0,0 +1,328 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Column of primitive {@code boolean} values backed by a bitset: one bit per row, packed into 64-bit words.  Columns
+ * from {@link #copyOf(boolean...)} and {@link Builder} store words in a {@code long[]}.  Columns from
+ * {@link ImmutableColumnTableFileFormat#map(File)} store words in a {@link LongBuffer} over a read-only region of a
+ * memory-mapped file.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+public abstract class ImmutableBooleanColumn
+extends ImmutableColumn<Boolean> {
+
+    private static final int LOG2_BITS_PER_WORD = 6;
+
+    /**
+     * Copies {@code values} to create new column.
+     *
+     * @throws NullPointerException
+     *         if {@code values} is {@code null}
+     */
+    public static ImmutableBooleanColumn
+    copyOf(boolean... values) {
+
+        ObjectArgs.checkNotNull(values, "values");
+        final Builder b = new Builder();
+        for (final boolean value : values) {
+
+            b.add(value);
+        }
+        final ImmutableBooleanColumn x = b.build();
+        return x;
+    }
+
+    /**
+     * @return new builder with zero rows
+     */
+    public static Builder
+    builder() {
+
+        final Builder x = new Builder();
+        return x;
+    }
+
+    // package-private
+    static int
+    _wordCount(int size) {
+
+        final int x = (size + 63) >>> LOG2_BITS_PER_WORD;
+        return x;
+    }
+
+    /**
+     * Creates a new column backed by {@code wordBuffer} without any copies.  Caller must never modify
+     * {@code wordBuffer}.  Only used for memory-mapped files; heap columns are backed by arrays.
+     *
+     * @param wordBuffer
+     *        all words from index zero to {@link LongBuffer#limit()}, which must equal {@code _wordCount(size)}.
+     *        Unused bits in the last word must be zero.
+     */
+    // package-private
+    static ImmutableBooleanColumn
+    _wrap(LongBuffer wordBuffer,
+          int size) {
+
+        final ImmutableBooleanColumn x = new _BufferColumn(wordBuffer, size);
+        return x;
+    }
+
+    private final int size;
+
+    // Only nested subclasses are allowed.
+    private ImmutableBooleanColumn(int size) {
+        this.size = size;
+    }
+
+    /** @return {@link ImmutableColumnType#BOOLEAN} */
+    @Override
+    public ImmutableColumnType
+    getColumnType() {
+        return ImmutableColumnType.BOOLEAN;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int
+    size() {
+        return size;
+    }
+
+    /**
+     * @param rowIndex
+     *        from zero to {@code size() - 1}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code rowIndex} is invalid
+     */
+    public boolean
+    getBoolean(int rowIndex) {
+
+        if (rowIndex < 0 || rowIndex >= size) {
+            throw new IndexOutOfBoundsException("Index: " + rowIndex + ", Size: " + size);
+        }
+        final boolean x = 0 != (_getWord(rowIndex >>> LOG2_BITS_PER_WORD) & (1L << rowIndex));
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Boolean
+    get(int rowIndex) {
+
+        final Boolean x = getBoolean(rowIndex);
+        return x;
+    }
+
+    /**
+     * @return number of {@code true} values
+     */
+    public abstract int
+    countTrue();
+
+    /**
+     * @return new array of all values
+     */
+    public boolean[]
+    toArray() {
+
+        final boolean[] x = new boolean[size];
+        for (int i = 0; i < size; ++i) {
+
+            x[i] = getBoolean(i);
+        }
+        return x;
+    }
+
+    /**
+     * @return new array of bits where bit {@code i % 64} of word {@code i / 64} is row {@code i}.  Unused bits in
+     *         the last word are always zero.
+     */
+    public abstract long[]
+    toWordArray();
+
+    /**
+     * @param wordIndex
+     *        from zero to {@code _wordCount(size()) - 1}
+     */
+    // package-private
+    abstract long
+    _getWord(int wordIndex);
+
+    private static final class _ArrayColumn
+    extends ImmutableBooleanColumn {
+
+        private final long[] wordArr;
+
+        private _ArrayColumn(long[] wordArr,
+                             int size) {
+            super(size);
+            this.wordArr = wordArr;
+        }
+
+        @Override
+        public int
+        countTrue() {
+
+            int x = 0;
+            for (final long word : wordArr) {
+
+                x += Long.bitCount(word);
+            }
+            return x;
+        }
+
+        @Override
+        public long[]
+        toWordArray() {
+
+            final long[] x = wordArr.clone();
+            return x;
+        }
+
+        @Override
+        long
+        _getWord(int wordIndex) {
+            return wordArr[wordIndex];
+        }
+    }
+
+    private static final class _BufferColumn
+    extends ImmutableBooleanColumn {
+
+        private final LongBuffer wordBuffer;
+
+        private _BufferColumn(LongBuffer wordBuffer,
+                              int size) {
+            super(size);
+            this.wordBuffer = ObjectArgs.checkNotNull(wordBuffer, "wordBuffer");
+        }
+
+        @Override
+        public int
+        countTrue() {
+
+            final int wordCount = wordBuffer.limit();
+            int x = 0;
+            for (int i = 0; i < wordCount; ++i) {
+
+                x += Long.bitCount(wordBuffer.get(i));
+            }
+            return x;
+        }
+
+        @Override
+        public long[]
+        toWordArray() {
+
+            final long[] x = new long[wordBuffer.limit()];
+            // Absolute bulk get is not available in Java 8, so read from a duplicate to leave this buffer unchanged.
+            wordBuffer.duplicate().get(x);
+            return x;
+        }
+
+        @Override
+        long
+        _getWord(int wordIndex) {
+            return wordBuffer.get(wordIndex);
+        }
+    }
+
+    /**
+     * Appends primitive values without boxing to build an {@link ImmutableBooleanColumn}.
+     */
+    public static final class Builder
+    implements _Builder<Boolean> {
+
+        private long[] wordArr;
+        private int size;
+
+        private Builder() {
+            this.wordArr = new long[1];
+            this.size = 0;
+        }
+
+        /**
+         * @return number of values appended
+         */
+        @Override
+        public int
+        size() {
+            return size;
+        }
+
+        /**
+         * @return {@code this} for method chaining (builder pattern)
+         */
+        public Builder
+        add(boolean value) {
+
+            final int wordIndex = size >>> LOG2_BITS_PER_WORD;
+            if (wordIndex == wordArr.length) {
+                wordArr = Arrays.copyOf(wordArr, _ImmutableColumns._newCapacity(wordIndex + 1));
+            }
+            if (value) {
+                wordArr[wordIndex] |= (1L << size);
+            }
+            ++size;
+            return this;
+        }
+
+        /**
+         * Same as {@link #add(boolean)}, but unboxes first.
+         *
+         * @throws NullPointerException
+         *         if {@code value} is {@code null}
+         */
+        @Override
+        public void
+        addBoxed(Boolean value) {
+
+            add(ObjectArgs.checkNotNull(value, "value"));
+        }
+
+        /**
+         * @return new column; this builder may be reused to build a larger column
+         */
+        @Override
+        public ImmutableBooleanColumn
+        build() {
+
+            final ImmutableBooleanColumn x = new _ArrayColumn(Arrays.copyOf(wordArr, _wordCount(size)), size);
+            return x;
+        }
+    }
+}
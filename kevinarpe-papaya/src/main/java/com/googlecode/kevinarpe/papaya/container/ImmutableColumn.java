@@ -0,0 +1,148 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Base class for one column of an {@link ImmutableColumnTable}.  Subclasses store values in primitive arrays, e.g.,
+ * {@link ImmutableDoubleColumn} stores a {@code double[]}, so a cell costs eight bytes, instead of a reference to a
+ * boxed {@link Double}.  Columns from {@link ImmutableColumnTableFileFormat#map(java.io.File)} read the same layout
+ * from a memory-mapped file instead.  Each primitive subclass has primitive getters, e.g.,
+ * {@link ImmutableDoubleColumn#getDouble(int)}, and a builder to append primitives without boxing.
+ * <p>
+ * Boxed access is always available via {@link #get(int)} and {@link #asList()}.
+ * <p>
+ * As of now, methods {@link Object#equals(Object)} and {@link Object#hashCode()} are not implemented in this class.
+ * To compare values, use {@link #asList()}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see ImmutableColumnTable#columnMap
+ */
+@FullyTested
+public abstract class ImmutableColumn<TValue> {
+
+    /**
+     * Package-private interface to append boxed values to any column builder.
+     *
+     * @see ImmutableColumnTableBuilder
+     */
+    // package-private
+    interface _Builder<TValue2> {
+
+        int
+        size();
+
+        void
+        addBoxed(TValue2 value);
+
+        ImmutableColumn<TValue2>
+        build();
+    }
+
+    private final List<TValue> list;
+
+    // package-private: Only subclasses from this package are allowed.
+    ImmutableColumn() {
+        this.list = new _ListView<>(this);
+    }
+
+    /**
+     * @return storage type of this column
+     */
+    public abstract ImmutableColumnType
+    getColumnType();
+
+    /**
+     * @return number of rows; may be zero
+     */
+    public abstract int
+    size();
+
+    /**
+     * Boxed access to one value.  Primitive subclasses have faster getters that do not box.
+     *
+     * @param rowIndex
+     *        from zero to {@code size() - 1}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code rowIndex} is invalid
+     */
+    public abstract TValue
+    get(int rowIndex);
+
+    /**
+     * @return read-only view of this column, where each call to {@link List#get(int)} calls {@link #get(int)}.
+     *         Primitive columns box on each access.
+     */
+    public List<TValue>
+    asList() {
+        return list;
+    }
+
+    /**
+     * @return same format as {@link java.util.AbstractCollection#toString()}, e.g., {@code "[1, 2, 3]"}
+     */
+    @Override
+    public final String
+    toString() {
+
+        final String x = asList().toString();
+        return x;
+    }
+
+    private static final class _ListView<TValue>
+    extends AbstractList<TValue>
+    implements RandomAccess {
+
+        private final ImmutableColumn<TValue> column;
+
+        private _ListView(ImmutableColumn<TValue> column) {
+            this.column = column;
+        }
+
+        @Override
+        public TValue
+        get(int index) {
+
+            final TValue x = column.get(index);
+            return x;
+        }
+
+        @Override
+        public int
+        size() {
+
+            final int x = column.size();
+            return x;
+        }
+    }
+}
@@ -29,13 +29,19 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.MapArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.ToIntFunction;
 
 /**
- * A simple wrapper around {@link ImmutableMap} and {@link ImmutableList} where each sub-list represents a column of
- * data.  This data structure guarantees each sub-list will have equal size.
+ * A simple wrapper around {@link ImmutableMap} and {@link ImmutableColumn} where each column is a sub-list of data.
+ * This data structure guarantees each column will have equal size.
+ * <p>
+ * Columns may use primitive storage, e.g., {@link ImmutableDoubleColumn}, to avoid one boxed object per cell.  Use
+ * {@link #getDoubleColumn(Object)} (and friends) for primitive access.  Boxed access to every column is always
+ * available from {@link #listMap}.
  *
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  *
@@ -46,7 +52,7 @@ import java.util.Map;
 public final class ImmutableColumnTable<TKey, TValue> {
 
     /**
-     * Creates a new instance without any copies.
+     * Creates a new instance without any copies.  Each sub-list is stored as an {@link ImmutableObjectColumn}.
      *
      * @param listMap
      *        <ul>
@@ -59,12 +65,20 @@ public final class ImmutableColumnTable<TKey, TValue> {
      *         if any two sub-lists have different size
      *
      * @see #copyOf(Map)
+     * @see #ofColumns(ImmutableMap)
      */
     public static <TKey, TValue>
     ImmutableColumnTable<TKey, TValue>
     of(ImmutableMap<TKey, ImmutableList<TValue>> listMap) {
 
-        final ImmutableColumnTable<TKey, TValue> x = new ImmutableColumnTable<>(listMap);
+        MapArgs.checkNotEmpty(listMap, "listMap");
+        final ImmutableMap.Builder<TKey, ImmutableColumn<? extends TValue>> b = ImmutableMap.builder();
+        for (final Map.Entry<TKey, ImmutableList<TValue>> entry : listMap.entrySet()) {
+
+            b.put(entry.getKey(), ImmutableObjectColumn.of(entry.getValue()));
+        }
+        final ImmutableMap<TKey, ImmutableColumn<? extends TValue>> columnMap = b.build();
+        final ImmutableColumnTable<TKey, TValue> x = new ImmutableColumnTable<>(columnMap);
         return x;
     }
 
@@ -96,38 +110,183 @@ public final class ImmutableColumnTable<TKey, TValue> {
             b.put(key, ImmutableList.copyOf(list));
         }
         final ImmutableMap<TKey, ImmutableList<TValue>> listMap2 = b.build();
-        final ImmutableColumnTable<TKey, TValue> x = new ImmutableColumnTable<>(listMap2);
+        final ImmutableColumnTable<TKey, TValue> x = of(listMap2);
         return x;
     }
 
-    /** Be careful: This can be zero if each sub-list of {@link #listMap} is empty. */
+    /**
+     * Creates a new instance without any copies.  Columns may use any storage type, e.g.,
+     * {@link ImmutableIntColumn} or {@link ImmutableStringDictionaryColumn}.
+     *
+     * @param columnMap
+     *        <ul>
+     *            <li>must not be empty -- a table must have at least one column</li>
+     *            <li>each column must have equal size</li>
+     *            <li>all empty columns is considered an empty table and will have {@link #rowCount} equal zero</li>
+     *        </ul>
+     *
+     * @throws IllegalArgumentException
+     *         if any two columns have different size
+     *
+     * @see #of(ImmutableMap)
+     */
+    public static <TKey, TValue>
+    ImmutableColumnTable<TKey, TValue>
+    ofColumns(ImmutableMap<TKey, ? extends ImmutableColumn<? extends TValue>> columnMap) {
+
+        @SuppressWarnings("unchecked")
+        final ImmutableMap<TKey, ImmutableColumn<? extends TValue>> columnMap2 =
+            (ImmutableMap<TKey, ImmutableColumn<? extends TValue>>) columnMap;
+        final ImmutableColumnTable<TKey, TValue> x = new ImmutableColumnTable<>(columnMap2);
+        return x;
+    }
+
+    /** Be careful: This can be zero if each column of {@link #columnMap} is empty. */
     public final int rowCount;
 
-    /** Each sub-list is guaranteed to have size equal to {@link #rowCount}. */
-    public final ImmutableMap<TKey, ImmutableList<TValue>> listMap;
+    /** Each column is guaranteed to have size equal to {@link #rowCount}. */
+    public final ImmutableMap<TKey, ImmutableColumn<? extends TValue>> columnMap;
 
-    private ImmutableColumnTable(ImmutableMap<TKey, ImmutableList<TValue>> listMap) {
+    /**
+     * Boxed, read-only view of each column from {@link #columnMap}: see {@link ImmutableColumn#asList()}.  Each
+     * sub-list is guaranteed to have size equal to {@link #rowCount}.
+     */
+    public final ImmutableMap<TKey, List<TValue>> listMap;
 
-        this.listMap = MapArgs.checkNotEmpty(listMap, "listMap");
-        this.rowCount = _getRowCount(listMap);
+    private ImmutableColumnTable(ImmutableMap<TKey, ImmutableColumn<? extends TValue>> columnMap) {
+
+        this.columnMap = MapArgs.checkNotEmpty(columnMap, "columnMap");
+        this.rowCount = _getRowCount(columnMap, ImmutableColumn::size);
+        this.listMap = _newListMap(columnMap);
+    }
+
+    private static <TKey, TValue>
+    ImmutableMap<TKey, List<TValue>>
+    _newListMap(ImmutableMap<TKey, ImmutableColumn<? extends TValue>> columnMap) {
+
+        final ImmutableMap.Builder<TKey, List<TValue>> b = ImmutableMap.builder();
+        for (final Map.Entry<TKey, ImmutableColumn<? extends TValue>> entry : columnMap.entrySet()) {
+
+            // Safe: Each list is read-only.
+            @SuppressWarnings("unchecked")
+            final List<TValue> list = (List<TValue>) entry.getValue().asList();
+            b.put(entry.getKey(), list);
+        }
+        final ImmutableMap<TKey, List<TValue>> x = b.build();
+        return x;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code key} is not a column of this table
+     */
+    public ImmutableColumn<? extends TValue>
+    getColumn(TKey key) {
+
+        ObjectArgs.checkNotNull(key, "key");
+        final ImmutableColumn<? extends TValue> x = columnMap.get(key);
+        if (null == x) {
+            throw new IllegalArgumentException(String.format("Unknown key [%s]: %s", key, columnMap.keySet()));
+        }
+        return x;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code key} is not a column of this table, or if column type is not {@link ImmutableColumnType#INT}
+     */
+    public ImmutableIntColumn
+    getIntColumn(TKey key) {
+
+        final ImmutableIntColumn x = (ImmutableIntColumn) _getColumn(key, ImmutableColumnType.INT);
+        return x;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code key} is not a column of this table, or if column type is not {@link ImmutableColumnType#LONG}
+     */
+    public ImmutableLongColumn
+    getLongColumn(TKey key) {
+
+        final ImmutableLongColumn x = (ImmutableLongColumn) _getColumn(key, ImmutableColumnType.LONG);
+        return x;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code key} is not a column of this table, or if column type is not
+     *         {@link ImmutableColumnType#DOUBLE}
+     */
+    public ImmutableDoubleColumn
+    getDoubleColumn(TKey key) {
+
+        final ImmutableDoubleColumn x = (ImmutableDoubleColumn) _getColumn(key, ImmutableColumnType.DOUBLE);
+        return x;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code key} is not a column of this table, or if column type is not
+     *         {@link ImmutableColumnType#BOOLEAN}
+     */
+    public ImmutableBooleanColumn
+    getBooleanColumn(TKey key) {
+
+        final ImmutableBooleanColumn x = (ImmutableBooleanColumn) _getColumn(key, ImmutableColumnType.BOOLEAN);
+        return x;
+    }
+
+    /**
+     * @throws IllegalArgumentException
+     *         if {@code key} is not a column of this table, or if column type is not
+     *         {@link ImmutableColumnType#STRING_DICTIONARY}
+     */
+    public ImmutableStringDictionaryColumn
+    getStringDictionaryColumn(TKey key) {
+
+        final ImmutableStringDictionaryColumn x =
+            (ImmutableStringDictionaryColumn) _getColumn(key, ImmutableColumnType.STRING_DICTIONARY);
+        return x;
+    }
+
+    private ImmutableColumn<? extends TValue>
+    _getColumn(TKey key,
+               ImmutableColumnType expectedColumnType) {
+
+        final ImmutableColumn<? extends TValue> x = getColumn(key);
+        final ImmutableColumnType columnType = x.getColumnType();
+        if (expectedColumnType != columnType) {
+            throw new IllegalArgumentException(String.format(
+                "Key [%s]: Expected column type %s, but found %s", key, expectedColumnType, columnType));
+        }
+        return x;
     }
 
     // Intentional: Package-private to be called from ImmutableFullEnumColumnTable.
     static <TKey, TValue>
     int _getRowCount(Map<TKey, ? extends List<? extends TValue>> listMap) {
 
+        final int x = _getRowCount(listMap, List::size);
+        return x;
+    }
+
+    private static <TKey, TColumn>
+    int _getRowCount(Map<TKey, ? extends TColumn> columnMap,
+                     ToIntFunction<? super TColumn> sizeFunc) {
+
         TKey key0 = null;
         int size0 = -1;
-        for (final Map.Entry<TKey, ? extends List<? extends TValue>> entry : listMap.entrySet()) {
+        for (final Map.Entry<TKey, ? extends TColumn> entry : columnMap.entrySet()) {
 
             final TKey key = entry.getKey();
-            final List<? extends TValue> list = entry.getValue();
+            final TColumn column = entry.getValue();
             if (null == key0) {
                 key0 = key;
-                size0 = list.size();
+                size0 = sizeFunc.applyAsInt(column);
             }
             else {
-                final int size = list.size();
+                final int size = sizeFunc.applyAsInt(column);
                 if (size != size0) {
                     throw new IllegalArgumentException(String.format(
                         "Key [%s] has sub-list size %d, but key [%s] has sub-list size %d",
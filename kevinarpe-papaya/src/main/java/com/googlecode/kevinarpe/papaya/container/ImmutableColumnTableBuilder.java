@@ -25,13 +25,14 @@ package com.googlecode.kevinarpe.papaya.container;
  * #L%
  */
 
-import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.CollectionArgs;
+import com.googlecode.kevinarpe.papaya.argument.MapArgs;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -42,6 +43,9 @@ import java.util.Map;
 import java.util.Set;
 
 /**
+ * By default, each column is stored as {@link ImmutableObjectColumn}.  To store primitive columns, see:
+ * {@link #withColumnTypes(Map)}, then append values with {@link #addInt(Object, int)} (and friends) to avoid boxing.
+ *
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  *
  * @see ImmutableColumnTable
@@ -66,6 +70,35 @@ public final class ImmutableColumnTableBuilder<TKey, TValue> {
         return x;
     }
 
+    /**
+     * Creates a new builder with zero rows, where each column has a storage type, e.g.,
+     * {@link ImmutableColumnType#DOUBLE}.
+     * <p>
+     * To be clear, it is valid to build an empty table with zero rows.
+     *
+     * @param columnTypeMap
+     *        <ul>
+     *            <li>must not be empty</li>
+     *            <li>order of columns will match iteration order</li>
+     *            <li>hint: if order is important, use {@link ImmutableMap}</li>
+     *            <li>primitive column types must match {@code TValue2}, e.g., {@link ImmutableColumnType#INT}
+     *            requires {@code TValue2} to be {@link Integer} or {@link Object}</li>
+     *        </ul>
+     *
+     * @throws NullPointerException
+     *         if {@code columnTypeMap} or any key or value is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code columnTypeMap} is empty
+     */
+    public static <TKey2, TValue2>
+    ImmutableColumnTableBuilder<TKey2, TValue2>
+    withColumnTypes(Map<? extends TKey2, ImmutableColumnType> columnTypeMap) {
+
+        final ImmutableMap<TKey2, ImmutableColumnType> columnTypeMap2 = ImmutableMap.copyOf(columnTypeMap);
+        final ImmutableColumnTableBuilder<TKey2, TValue2> x = new ImmutableColumnTableBuilder<>(columnTypeMap2);
+        return x;
+    }
+
     /**
      * Remember: {@link ImmutableSet} is special: Insert and iteration order are guaranteed to match.
      * <p>
@@ -73,7 +106,10 @@ public final class ImmutableColumnTableBuilder<TKey, TValue> {
      */
     public final ImmutableSet<TKey> keySet;
 
-    private final LinkedHashMap<TKey, ImmutableList.Builder<TValue>> listMap;
+    /** Storage type of each column.  Iteration order matches {@link #keySet}. */
+    public final ImmutableMap<TKey, ImmutableColumnType> columnTypeMap;
+
+    private final LinkedHashMap<TKey, ImmutableColumn._Builder<?>> columnBuilderMap;
 
     /**
      * Creates a new builder with zero rows.
@@ -96,11 +132,55 @@ public final class ImmutableColumnTableBuilder<TKey, TValue> {
 
         // Zero rows makes sense (empty table), but zero keys is insane.
         // Can you imagine an Excel worksheet with zero columns?
-        CollectionArgs.checkNotEmpty(keySet, "keySet");
-        this.keySet = ImmutableSet.copyOf(keySet);
-        this.listMap = new LinkedHashMap<>();
-        for (final TKey key : this.keySet) {
-            this.listMap.put(key, ImmutableList.builder());
+        this(_newObjectColumnTypeMap(CollectionArgs.checkNotEmpty(keySet, "keySet")));
+    }
+
+    private static <TKey>
+    ImmutableMap<TKey, ImmutableColumnType>
+    _newObjectColumnTypeMap(Set<? extends TKey> keySet) {
+
+        final ImmutableMap<TKey, ImmutableColumnType> x =
+            Maps.toMap(ImmutableSet.<TKey>copyOf(keySet), k -> ImmutableColumnType.OBJECT);
+        return x;
+    }
+
+    private ImmutableColumnTableBuilder(ImmutableMap<TKey, ImmutableColumnType> columnTypeMap) {
+
+        MapArgs.checkNotEmpty(columnTypeMap, "columnTypeMap");
+        this.keySet = columnTypeMap.keySet();
+        this.columnTypeMap = columnTypeMap;
+        this.columnBuilderMap = new LinkedHashMap<>();
+        for (final Map.Entry<TKey, ImmutableColumnType> entry : columnTypeMap.entrySet()) {
+
+            this.columnBuilderMap.put(entry.getKey(), _newColumnBuilder(entry.getValue()));
+        }
+    }
+
+    private static ImmutableColumn._Builder<?>
+    _newColumnBuilder(ImmutableColumnType columnType) {
+
+        switch (columnType) {
+            case OBJECT: {
+                return ImmutableObjectColumn.builder();
+            }
+            case INT: {
+                return ImmutableIntColumn.builder();
+            }
+            case LONG: {
+                return ImmutableLongColumn.builder();
+            }
+            case DOUBLE: {
+                return ImmutableDoubleColumn.builder();
+            }
+            case BOOLEAN: {
+                return ImmutableBooleanColumn.builder();
+            }
+            case STRING_DICTIONARY: {
+                return ImmutableStringDictionaryColumn.builder();
+            }
+            default: {
+                throw new IllegalStateException("Unknown column type: " + columnType);
+            }
         }
     }
 
@@ -149,6 +229,11 @@ public final class ImmutableColumnTableBuilder<TKey, TValue> {
      *
      * @throws IllegalArgumentException
      *         if keys of {@code map} do not match {@link #keySet}
+     * @throws NullPointerException
+     *         if any value is {@code null}
+     * @throws ClassCastException
+     *         if any value does not match its primitive column type, e.g., {@link Long} for
+     *         {@link ImmutableColumnType#INT}
      */
     public ImmutableColumnTableBuilder<TKey, TValue>
     put(Map<? extends TKey, ? extends TValue> map) {
@@ -156,11 +241,147 @@ public final class ImmutableColumnTableBuilder<TKey, TValue> {
         _checkKeys(map.keySet());
         for (final Map.Entry<? extends TKey, ? extends TValue> entry : map.entrySet()) {
 
-            listMap.get(entry.getKey()).add(entry.getValue());
+            _getColumnBuilder(entry.getKey()).addBoxed(entry.getValue());
+        }
+        return this;
+    }
+
+    // Safe: Column types must match TValue.  See: withColumnTypes().
+    @SuppressWarnings("unchecked")
+    private ImmutableColumn._Builder<TValue>
+    _getColumnBuilder(TKey key) {
+
+        final ImmutableColumn._Builder<TValue> x = (ImmutableColumn._Builder<TValue>) columnBuilderMap.get(key);
+        return x;
+    }
+
+    /**
+     * Appends one value to a single column of any type.  Primitive columns unbox {@code value}.  Before
+     * {@link #build()}, all columns must have equal size.
+     *
+     * @return {@code this} for method chaining (builder pattern)
+     *
+     * @throws NullPointerException
+     *         if {@code value} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown
+     * @throws ClassCastException
+     *         if {@code value} does not match its primitive column type, e.g., {@link Long} for
+     *         {@link ImmutableColumnType#INT}
+     *
+     * @see #addInt(Object, int)
+     */
+    public ImmutableColumnTableBuilder<TKey, TValue>
+    add(TKey key,
+        TValue value) {
+
+        if (false == columnTypeMap.containsKey(key)) {
+            throw new IllegalArgumentException(String.format("Unknown key [%s]: %s", key, keySet));
         }
+        _getColumnBuilder(key).addBoxed(value);
+        return this;
+    }
+
+    /**
+     * Appends one value to a single column without boxing.  Before {@link #build()}, all columns must have equal
+     * size.
+     *
+     * @return {@code this} for method chaining (builder pattern)
+     *
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#INT}
+     */
+    public ImmutableColumnTableBuilder<TKey, TValue>
+    addInt(TKey key,
+           int value) {
+
+        ((ImmutableIntColumn.Builder) _getColumnBuilder(key, ImmutableColumnType.INT)).add(value);
+        return this;
+    }
+
+    /**
+     * Appends one value to a single column without boxing.  Before {@link #build()}, all columns must have equal
+     * size.
+     *
+     * @return {@code this} for method chaining (builder pattern)
+     *
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#LONG}
+     */
+    public ImmutableColumnTableBuilder<TKey, TValue>
+    addLong(TKey key,
+            long value) {
+
+        ((ImmutableLongColumn.Builder) _getColumnBuilder(key, ImmutableColumnType.LONG)).add(value);
+        return this;
+    }
+
+    /**
+     * Appends one value to a single column without boxing.  Before {@link #build()}, all columns must have equal
+     * size.
+     *
+     * @return {@code this} for method chaining (builder pattern)
+     *
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#DOUBLE}
+     */
+    public ImmutableColumnTableBuilder<TKey, TValue>
+    addDouble(TKey key,
+              double value) {
+
+        ((ImmutableDoubleColumn.Builder) _getColumnBuilder(key, ImmutableColumnType.DOUBLE)).add(value);
+        return this;
+    }
+
+    /**
+     * Appends one value to a single column without boxing.  Before {@link #build()}, all columns must have equal
+     * size.
+     *
+     * @return {@code this} for method chaining (builder pattern)
+     *
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#BOOLEAN}
+     */
+    public ImmutableColumnTableBuilder<TKey, TValue>
+    addBoolean(TKey key,
+               boolean value) {
+
+        ((ImmutableBooleanColumn.Builder) _getColumnBuilder(key, ImmutableColumnType.BOOLEAN)).add(value);
+        return this;
+    }
+
+    /**
+     * Appends one value to a single column.  Before {@link #build()}, all columns must have equal size.
+     *
+     * @return {@code this} for method chaining (builder pattern)
+     *
+     * @throws NullPointerException
+     *         if {@code value} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is unknown or column type is not {@link ImmutableColumnType#STRING_DICTIONARY}
+     */
+    public ImmutableColumnTableBuilder<TKey, TValue>
+    addString(TKey key,
+              String value) {
+
+        ((ImmutableStringDictionaryColumn.Builder) _getColumnBuilder(key, ImmutableColumnType.STRING_DICTIONARY))
+            .add(value);
         return this;
     }
 
+    private ImmutableColumn._Builder<?>
+    _getColumnBuilder(TKey key,
+                      ImmutableColumnType expectedColumnType) {
+
+        final ImmutableColumnType columnType = columnTypeMap.get(key);
+        if (expectedColumnType != columnType) {
+            throw new IllegalArgumentException(String.format(
+                "Key [%s]: Expected column type %s, but found %s", key, expectedColumnType, columnType));
+        }
+        final ImmutableColumn._Builder<?> x = columnBuilderMap.get(key);
+        return x;
+    }
+
     private void
     _checkKeys(Set<? extends TKey> keySet2) {
 
@@ -193,7 +414,11 @@ public final class ImmutableColumnTableBuilder<TKey, TValue> {
 
             final TKey key = entry.getKey();
             final Collection<? extends TValue> c = entry.getValue();
-            listMap.get(key).addAll(c);
+            final ImmutableColumn._Builder<TValue> columnBuilder = _getColumnBuilder(key);
+            for (final TValue value : c) {
+
+                columnBuilder.addBoxed(value);
+            }
         }
         return this;
     }
@@ -223,17 +448,21 @@ public final class ImmutableColumnTableBuilder<TKey, TValue> {
 
     /**
      * Builds a new instance of {@link ImmutableColumnTable}.
+     *
+     * @throws IllegalArgumentException
+     *         if any two columns have different size.  This is only possible after calls to
+     *         {@link #addInt(Object, int)} (and friends).
      */
     public ImmutableColumnTable<TKey, TValue>
     build() {
 
-        final ImmutableMap.Builder<TKey, ImmutableList<TValue>> b = ImmutableMap.builder();
-        for (final Map.Entry<TKey, ImmutableList.Builder<TValue>> entry : listMap.entrySet()) {
+        final ImmutableMap.Builder<TKey, ImmutableColumn<? extends TValue>> b = ImmutableMap.builder();
+        for (final TKey key : keySet) {
 
-            b.put(entry.getKey(), entry.getValue().build());
+            b.put(key, _getColumnBuilder(key).build());
         }
-        final ImmutableMap<TKey, ImmutableList<TValue>> listMap = b.build();
-        final ImmutableColumnTable<TKey, TValue> x = ImmutableColumnTable.of(listMap);
+        final ImmutableMap<TKey, ImmutableColumn<? extends TValue>> columnMap = b.build();
+        final ImmutableColumnTable<TKey, TValue> x = ImmutableColumnTable.ofColumns(columnMap);
         return x;
     }
 }
@@ -0,0 +1,729 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Binary columnar file format for {@link ImmutableColumnTable}.  Use {@link #write(ImmutableColumnTable, File)} once,
+ * then {@link #map(File)} to open the table in (nearly) constant time: each column is a read-only memory-mapped
+ * region of the file, so values are never copied onto the heap.  Mapped pages are loaded lazily by the operating
+ * system and shared via the page cache by all processes, including other JVMs, that map the same file.
+ * <p>
+ * All numbers are little-endian, so mapped buffers use native byte order on common hardware.
+ * <p>
+ * Layout:
+ * <ul>
+ *   <li>Header: magic (4 bytes), version (4 bytes), row count (4 bytes), column count (4 bytes),
+ *   header byte count (4 bytes)</li>
+ *   <li>Schema: one record per column: key byte count (4 bytes), key (UTF-8), type code (4 bytes), dictionary
+ *   offset (8 bytes), dictionary byte count (8 bytes), data offset (8 bytes), and data byte count (8 bytes).
+ *   Offsets are from the start of the file.</li>
+ *   <li>Blocks: one data block per column, preceded by a dictionary block for
+ *   {@link ImmutableColumnType#STRING_DICTIONARY} columns.  Each block starts on an eight byte boundary.
+ *   <ul>
+ *     <li>{@link ImmutableColumnType#INT}: four bytes per row</li>
+ *     <li>{@link ImmutableColumnType#LONG}, {@link ImmutableColumnType#DOUBLE}: eight bytes per row</li>
+ *     <li>{@link ImmutableColumnType#BOOLEAN}: one bit per row, packed into eight byte words, like
+ *     {@link ImmutableBooleanColumn#toWordArray()}</li>
+ *     <li>{@link ImmutableColumnType#STRING_DICTIONARY}: four byte code per row.  The dictionary block is value
+ *     count (4 bytes), then per value: byte count (4 bytes) and value (UTF-8).</li>
+ *   </ul>
+ *   </li>
+ * </ul>
+ * <p>
+ * Only dictionaries are copied onto the heap during {@link #map(File)}.  Dictionary codes are not checked, so a
+ * corrupt file may throw {@link IndexOutOfBoundsException} during {@link ImmutableStringDictionaryColumn#get(int)}.
+ * <p>
+ * {@link ImmutableColumnType#OBJECT} columns cannot be written, as values may have any type.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see ImmutableColumnTableBuilder#withColumnTypes(Map)
+ */
+@FullyTested
+public final class ImmutableColumnTableFileFormat {
+
+    // "PCTB": Papaya column table binary
+    static final int MAGIC = 0x50435442;
+    static final int VERSION = 1;
+    static final int HEADER_BYTE_COUNT = 4 + 4 + 4 + 4 + 4;
+
+    private static final int COLUMN_RECORD_BYTE_COUNT = 4 + 4 + 8 + 8 + 8 + 8;
+    private static final int BLOCK_ALIGNMENT = 8;
+    private static final int WRITE_BUFFER_BYTE_COUNT = 64 * 1024;
+
+    // Codes are stored in files, so never change an existing code.
+    private static final ImmutableBiMap<ImmutableColumnType, Integer> COLUMN_TYPE_TO_CODE_MAP =
+        ImmutableBiMap.of(
+            ImmutableColumnType.INT, 1,
+            ImmutableColumnType.LONG, 2,
+            ImmutableColumnType.DOUBLE, 3,
+            ImmutableColumnType.BOOLEAN, 4,
+            ImmutableColumnType.STRING_DICTIONARY, 5);
+
+    private ImmutableColumnTableFileFormat() {
+        // Empty
+    }
+
+    /**
+     * Writes a table to a new file.  First, data is written to a temporary file in the same directory, then the
+     * temporary file is moved (atomically, if possible) to {@code filePath}, so readers never see a partial file.
+     *
+     * @param table
+     *        all columns must have type other than {@link ImmutableColumnType#OBJECT}
+     *
+     * @param filePath
+     *        path of file to create or replace
+     *
+     * @throws NullPointerException
+     *         if {@code table} or {@code filePath} is {@code null}
+     * @throws IllegalArgumentException
+     *         <ul>
+     *             <li>if any column has type {@link ImmutableColumnType#OBJECT}</li>
+     *             <li>if any column is too large to map: more than {@link Integer#MAX_VALUE} bytes</li>
+     *         </ul>
+     * @throws IOException
+     *         if the file cannot be written
+     *
+     * @see #map(File)
+     */
+    public static void
+    write(ImmutableColumnTable<String, ?> table, File filePath)
+    throws IOException {
+
+        ObjectArgs.checkNotNull(table, "table");
+        ObjectArgs.checkNotNull(filePath, "filePath");
+
+        final List<_ColumnRecord> recordList = _newColumnRecordList(table);
+        final File absFilePath = filePath.getAbsoluteFile();
+        final File tmpFilePath = File.createTempFile(absFilePath.getName() + ".", ".tmp", absFilePath.getParentFile());
+        try {
+            try (FileChannel channel = FileChannel.open(tmpFilePath.toPath(), StandardOpenOption.WRITE)) {
+
+                final _BlockWriter w = new _BlockWriter(channel);
+                w.putInt(MAGIC);
+                w.putInt(VERSION);
+                w.putInt(table.rowCount);
+                w.putInt(recordList.size());
+                w.putInt(_getHeaderByteCount(recordList));
+                for (final _ColumnRecord record : recordList) {
+
+                    w.putInt(record.keyByteArr.length);
+                    w.putBytes(record.keyByteArr);
+                    w.putInt(COLUMN_TYPE_TO_CODE_MAP.get(record.column.getColumnType()));
+                    w.putLong(record.dictionaryOffset);
+                    w.putLong(record.dictionaryByteCount);
+                    w.putLong(record.dataOffset);
+                    w.putLong(record.dataByteCount);
+                }
+                for (final _ColumnRecord record : recordList) {
+
+                    _writeBlocks(w, record, table.rowCount);
+                }
+                w.flush();
+            }
+            _move(tmpFilePath, absFilePath);
+        }
+        finally {
+            // No-op after successful move.
+            Files.deleteIfExists(tmpFilePath.toPath());
+        }
+    }
+
+    private static List<_ColumnRecord>
+    _newColumnRecordList(ImmutableColumnTable<String, ?> table) {
+
+        final List<_ColumnRecord> x = new ArrayList<>(table.columnMap.size());
+        long headerByteCount = HEADER_BYTE_COUNT;
+        for (final Map.Entry<String, ? extends ImmutableColumn<?>> entry : table.columnMap.entrySet()) {
+
+            final String key = entry.getKey();
+            final ImmutableColumn<?> column = entry.getValue();
+            if (false == COLUMN_TYPE_TO_CODE_MAP.containsKey(column.getColumnType())) {
+                throw new IllegalArgumentException(
+                    "Column [" + key + "]: Type " + column.getColumnType() + " cannot be written");
+            }
+            final long dataByteCount = _getDataByteCount(column.getColumnType(), table.rowCount);
+            if (dataByteCount > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException(String.format(
+                    "Column [%s]: Too large to map: %d bytes > %d", key, dataByteCount, Integer.MAX_VALUE));
+            }
+            final _ColumnRecord record = new _ColumnRecord(key, column, dataByteCount);
+            headerByteCount += COLUMN_RECORD_BYTE_COUNT + record.keyByteArr.length;
+            x.add(record);
+        }
+        if (headerByteCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column keys are too large: " + headerByteCount + " bytes");
+        }
+        long offset = _align(headerByteCount);
+        for (final _ColumnRecord record : x) {
+
+            if (null != record.nullableDictionaryByteArrList) {
+                record.dictionaryOffset = offset;
+                offset = _align(offset + record.dictionaryByteCount);
+            }
+            record.dataOffset = offset;
+            offset = _align(offset + record.dataByteCount);
+        }
+        return x;
+    }
+
+    private static int
+    _getHeaderByteCount(List<_ColumnRecord> recordList) {
+
+        int x = HEADER_BYTE_COUNT;
+        for (final _ColumnRecord record : recordList) {
+
+            x += COLUMN_RECORD_BYTE_COUNT + record.keyByteArr.length;
+        }
+        return x;
+    }
+
+    private static long
+    _getDataByteCount(ImmutableColumnType columnType, int rowCount) {
+
+        switch (columnType) {
+            case INT:
+            case STRING_DICTIONARY: {
+                final long x = 4L * rowCount;
+                return x;
+            }
+            case LONG:
+            case DOUBLE: {
+                final long x = 8L * rowCount;
+                return x;
+            }
+            case BOOLEAN: {
+                final long x = 8L * ImmutableBooleanColumn._wordCount(rowCount);
+                return x;
+            }
+            default: {
+                throw new IllegalStateException("Unreachable code: " + columnType);
+            }
+        }
+    }
+
+    private static long
+    _align(long offset) {
+
+        final long x = (offset + BLOCK_ALIGNMENT - 1) & -BLOCK_ALIGNMENT;
+        return x;
+    }
+
+    private static void
+    _writeBlocks(_BlockWriter w, _ColumnRecord record, int rowCount)
+    throws IOException {
+
+        if (null != record.nullableDictionaryByteArrList) {
+            w.padTo(record.dictionaryOffset);
+            w.putInt(record.nullableDictionaryByteArrList.size());
+            for (final byte[] valueByteArr : record.nullableDictionaryByteArrList) {
+
+                w.putInt(valueByteArr.length);
+                w.putBytes(valueByteArr);
+            }
+        }
+        w.padTo(record.dataOffset);
+        switch (record.column.getColumnType()) {
+            case INT: {
+                final ImmutableIntColumn column = (ImmutableIntColumn) record.column;
+                for (int i = 0; i < rowCount; ++i) {
+
+                    w.putInt(column.getInt(i));
+                }
+                break;
+            }
+            case LONG: {
+                final ImmutableLongColumn column = (ImmutableLongColumn) record.column;
+                for (int i = 0; i < rowCount; ++i) {
+
+                    w.putLong(column.getLong(i));
+                }
+                break;
+            }
+            case DOUBLE: {
+                final ImmutableDoubleColumn column = (ImmutableDoubleColumn) record.column;
+                for (int i = 0; i < rowCount; ++i) {
+
+                    w.putDouble(column.getDouble(i));
+                }
+                break;
+            }
+            case BOOLEAN: {
+                final ImmutableBooleanColumn column = (ImmutableBooleanColumn) record.column;
+                for (final long word : column.toWordArray()) {
+
+                    w.putLong(word);
+                }
+                break;
+            }
+            case STRING_DICTIONARY: {
+                final ImmutableStringDictionaryColumn column = (ImmutableStringDictionaryColumn) record.column;
+                for (int i = 0; i < rowCount; ++i) {
+
+                    w.putInt(column.getCode(i));
+                }
+                break;
+            }
+            default: {
+                throw new IllegalStateException("Unreachable code: " + record.column.getColumnType());
+            }
+        }
+    }
+
+    private static void
+    _move(File srcFilePath, File destFilePath)
+    throws IOException {
+
+        try {
+            Files.move(srcFilePath.toPath(), destFilePath.toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(srcFilePath.toPath(), destFilePath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Opens a table written by {@link #write(ImmutableColumnTable, File)}.  Only the header and dictionaries are
+     * read; each column is a read-only memory-mapped region of the file.  The file is closed before this method
+     * returns, but mappings remain valid until the table is garbage collected.
+     * <p>
+     * Do not modify or truncate {@code filePath} while the table is in use.  Replace it instead, e.g., by calling
+     * {@link #write(ImmutableColumnTable, File)} again.
+     *
+     * @param filePath
+     *        path of existing file
+     *
+     * @return new table with same keys, column order, and column types as the table written
+     *
+     * @throws NullPointerException
+     *         if {@code filePath} is {@code null}
+     * @throws IOException
+     *         if the file cannot be read, or is not a valid file
+     *
+     * @see #write(ImmutableColumnTable, File)
+     */
+    public static ImmutableColumnTable<String, Object>
+    map(File filePath)
+    throws IOException {
+
+        ObjectArgs.checkNotNull(filePath, "filePath");
+
+        try (FileChannel channel = FileChannel.open(filePath.toPath(), StandardOpenOption.READ)) {
+
+            final ImmutableColumnTable<String, Object> x = _map(filePath, channel);
+            return x;
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException(
+                String.format("Invalid column table file: '%s': Unexpected end of schema or dictionary", filePath), e);
+        }
+    }
+
+    private static ImmutableColumnTable<String, Object>
+    _map(File filePath, FileChannel channel)
+    throws IOException {
+
+        final long fileByteCount = channel.size();
+        if (fileByteCount < HEADER_BYTE_COUNT) {
+            throw new IOException(String.format(
+                "Invalid column table file: '%s': Expected at least %d bytes, but found %d bytes",
+                filePath, HEADER_BYTE_COUNT, fileByteCount));
+        }
+        final ByteBuffer headerBuffer = _read(filePath, channel, 0, HEADER_BYTE_COUNT);
+        final int magic = headerBuffer.getInt();
+        if (MAGIC != magic) {
+            throw new IOException(String.format(
+                "Invalid column table file: '%s': Expected magic 0x%08X, but found 0x%08X", filePath, MAGIC, magic));
+        }
+        final int version = headerBuffer.getInt();
+        if (VERSION != version) {
+            throw new IOException(
+                String.format("Invalid column table file: '%s': Unsupported version %d", filePath, version));
+        }
+        final int rowCount = headerBuffer.getInt();
+        final int columnCount = headerBuffer.getInt();
+        final int headerByteCount = headerBuffer.getInt();
+        if (rowCount < 0 || columnCount < 1 || headerByteCount < HEADER_BYTE_COUNT || headerByteCount > fileByteCount) {
+            throw new IOException(String.format(
+                "Invalid column table file: '%s': Invalid header: row count %d, column count %d, header byte count %d",
+                filePath, rowCount, columnCount, headerByteCount));
+        }
+        final ByteBuffer schemaBuffer =
+            _read(filePath, channel, HEADER_BYTE_COUNT, headerByteCount - HEADER_BYTE_COUNT);
+        final HashSet<String> keySet = new HashSet<>(2 * columnCount);
+        final ImmutableMap.Builder<String, ImmutableColumn<?>> columnMapBuilder = ImmutableMap.builder();
+        for (int i = 0; i < columnCount; ++i) {
+
+            final int keyByteCount = schemaBuffer.getInt();
+            if (keyByteCount < 0 || keyByteCount > schemaBuffer.remaining()) {
+                throw new IOException(String.format(
+                    "Invalid column table file: '%s': Column #%d: Invalid key byte count %d",
+                    filePath, i, keyByteCount));
+            }
+            final String key = _getString(schemaBuffer, keyByteCount);
+            if (false == keySet.add(key)) {
+                throw new IOException(String.format(
+                    "Invalid column table file: '%s': Column [%s] is not unique", filePath, key));
+            }
+            final int typeCode = schemaBuffer.getInt();
+            final ImmutableColumnType columnType = COLUMN_TYPE_TO_CODE_MAP.inverse().get(typeCode);
+            if (null == columnType) {
+                throw new IOException(String.format(
+                    "Invalid column table file: '%s': Column [%s]: Unknown type code %d", filePath, key, typeCode));
+            }
+            final long dictionaryOffset = schemaBuffer.getLong();
+            final long dictionaryByteCount = schemaBuffer.getLong();
+            final long dataOffset = schemaBuffer.getLong();
+            final long dataByteCount = schemaBuffer.getLong();
+            final long expectedDataByteCount = _getDataByteCount(columnType, rowCount);
+            if (expectedDataByteCount != dataByteCount) {
+                throw new IOException(String.format(
+                    "Invalid column table file: '%s': Column [%s]: Expected %d data bytes, but found %d bytes",
+                    filePath, key, expectedDataByteCount, dataByteCount));
+            }
+            _checkBlock(filePath, key, "data", dataOffset, dataByteCount, fileByteCount);
+
+            final ImmutableColumn<?> column;
+            if (ImmutableColumnType.STRING_DICTIONARY == columnType) {
+                _checkBlock(filePath, key, "dictionary", dictionaryOffset, dictionaryByteCount, fileByteCount);
+                final ImmutableList<String> dictionary =
+                    _readDictionary(filePath, channel, key, dictionaryOffset, (int) dictionaryByteCount);
+                column = _mapStringDictionaryColumn(filePath, channel, key, dictionary, dataOffset, dataByteCount);
+            }
+            else {
+                column = _mapColumn(filePath, channel, key, columnType, rowCount, dataOffset, dataByteCount);
+            }
+            columnMapBuilder.put(key, column);
+        }
+        if (schemaBuffer.hasRemaining()) {
+            throw new IOException(String.format(
+                "Invalid column table file: '%s': Found %d unexpected bytes after schema",
+                filePath, schemaBuffer.remaining()));
+        }
+        final ImmutableColumnTable<String, Object> x = ImmutableColumnTable.ofColumns(columnMapBuilder.build());
+        return x;
+    }
+
+    private static void
+    _checkBlock(File filePath,
+                String key,
+                String blockName,
+                long offset,
+                long byteCount,
+                long fileByteCount)
+    throws IOException {
+
+        if (offset < 0 || byteCount < 0 || byteCount > Integer.MAX_VALUE || offset > fileByteCount - byteCount) {
+            throw new IOException(String.format(
+                "Invalid column table file: '%s': Column [%s]: Invalid %s block: offset %d, byte count %d",
+                filePath, key, blockName, offset, byteCount));
+        }
+    }
+
+    private static ImmutableList<String>
+    _readDictionary(File filePath,
+                    FileChannel channel,
+                    String key,
+                    long offset,
+                    int byteCount)
+    throws IOException {
+
+        final ByteBuffer buffer = _read(filePath, channel, offset, byteCount);
+        final int size = buffer.getInt();
+        // Each value requires at least four bytes.
+        if (size < 0 || size > buffer.remaining() / 4) {
+            throw new IOException(String.format(
+                "Invalid column table file: '%s': Column [%s]: Invalid dictionary size %d", filePath, key, size));
+        }
+        final ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (int i = 0; i < size; ++i) {
+
+            final int valueByteCount = buffer.getInt();
+            if (valueByteCount < 0 || valueByteCount > buffer.remaining()) {
+                throw new IOException(String.format(
+                    "Invalid column table file: '%s': Column [%s]: Dictionary value #%d: Invalid byte count %d",
+                    filePath, key, i, valueByteCount));
+            }
+            builder.add(_getString(buffer, valueByteCount));
+        }
+        final ImmutableList<String> x = builder.build();
+        return x;
+    }
+
+    private static ImmutableStringDictionaryColumn
+    _mapStringDictionaryColumn(File filePath,
+                               FileChannel channel,
+                               String key,
+                               ImmutableList<String> dictionary,
+                               long dataOffset,
+                               long dataByteCount)
+    throws IOException {
+
+        final ByteBuffer dataBuffer = _mapBlock(channel, dataOffset, dataByteCount);
+        try {
+            final ImmutableStringDictionaryColumn x =
+                ImmutableStringDictionaryColumn._wrap(dictionary, dataBuffer.asIntBuffer());
+            return x;
+        }
+        catch (IllegalArgumentException e) {
+            throw new IOException(
+                String.format("Invalid column table file: '%s': Column [%s]: %s", filePath, key, e.getMessage()), e);
+        }
+    }
+
+    private static ImmutableColumn<?>
+    _mapColumn(File filePath,
+               FileChannel channel,
+               String key,
+               ImmutableColumnType columnType,
+               int rowCount,
+               long dataOffset,
+               long dataByteCount)
+    throws IOException {
+
+        final ByteBuffer dataBuffer = _mapBlock(channel, dataOffset, dataByteCount);
+        switch (columnType) {
+            case INT: {
+                final ImmutableIntColumn x = ImmutableIntColumn._wrap(dataBuffer.asIntBuffer());
+                return x;
+            }
+            case LONG: {
+                final ImmutableLongColumn x = ImmutableLongColumn._wrap(dataBuffer.asLongBuffer());
+                return x;
+            }
+            case DOUBLE: {
+                final ImmutableDoubleColumn x = ImmutableDoubleColumn._wrap(dataBuffer.asDoubleBuffer());
+                return x;
+            }
+            case BOOLEAN: {
+                final LongBuffer wordBuffer = dataBuffer.asLongBuffer();
+                final int unusedBitCount = (Long.SIZE - (rowCount % Long.SIZE)) % Long.SIZE;
+                if (0 != unusedBitCount
+                        && 0 != (wordBuffer.get(wordBuffer.limit() - 1) >>> (Long.SIZE - unusedBitCount))) {
+                    throw new IOException(String.format(
+                        "Invalid column table file: '%s': Column [%s]: Unused bits in last word are not zero",
+                        filePath, key));
+                }
+                final ImmutableBooleanColumn x = ImmutableBooleanColumn._wrap(wordBuffer, rowCount);
+                return x;
+            }
+            default: {
+                throw new IllegalStateException("Unreachable code: " + columnType);
+            }
+        }
+    }
+
+    private static ByteBuffer
+    _mapBlock(FileChannel channel, long offset, long byteCount)
+    throws IOException {
+
+        final MappedByteBuffer x = channel.map(FileChannel.MapMode.READ_ONLY, offset, byteCount);
+        x.order(ByteOrder.LITTLE_ENDIAN);
+        return x;
+    }
+
+    private static ByteBuffer
+    _read(File filePath, FileChannel channel, long offset, int byteCount)
+    throws IOException {
+
+        final ByteBuffer x = ByteBuffer.allocate(byteCount).order(ByteOrder.LITTLE_ENDIAN);
+        while (x.hasRemaining()) {
+
+            if (channel.read(x, offset + x.position()) < 0) {
+                throw new IOException(
+                    String.format("Invalid column table file: '%s': Unexpected end of file", filePath));
+            }
+        }
+        x.flip();
+        return x;
+    }
+
+    private static String
+    _getString(ByteBuffer buffer, int byteCount) {
+
+        final byte[] byteArr = new byte[byteCount];
+        buffer.get(byteArr);
+        final String x = new String(byteArr, StandardCharsets.UTF_8);
+        return x;
+    }
+
+    private static final class _ColumnRecord {
+
+        private final byte[] keyByteArr;
+        private final ImmutableColumn<?> column;
+        private final long dataByteCount;
+        private final List<byte[]> nullableDictionaryByteArrList;
+        private final long dictionaryByteCount;
+        private long dictionaryOffset;
+        private long dataOffset;
+
+        private _ColumnRecord(String key,
+                              ImmutableColumn<?> column,
+                              long dataByteCount) {
+            this.keyByteArr = key.getBytes(StandardCharsets.UTF_8);
+            this.column = column;
+            this.dataByteCount = dataByteCount;
+            if (ImmutableColumnType.STRING_DICTIONARY == column.getColumnType()) {
+                final ImmutableList<String> dictionary = ((ImmutableStringDictionaryColumn) column).getDictionary();
+                this.nullableDictionaryByteArrList = new ArrayList<>(dictionary.size());
+                long byteCount = 4;
+                for (final String value : dictionary) {
+
+                    final byte[] valueByteArr = value.getBytes(StandardCharsets.UTF_8);
+                    nullableDictionaryByteArrList.add(valueByteArr);
+                    byteCount += 4 + valueByteArr.length;
+                }
+                if (byteCount > Integer.MAX_VALUE) {
+                    throw new IllegalArgumentException(String.format(
+                        "Column [%s]: Dictionary is too large: %d bytes > %d", key, byteCount, Integer.MAX_VALUE));
+                }
+                this.dictionaryByteCount = byteCount;
+            }
+            else {
+                this.nullableDictionaryByteArrList = null;
+                this.dictionaryByteCount = 0;
+            }
+            this.dictionaryOffset = 0;
+            this.dataOffset = 0;
+        }
+    }
+
+    /**
+     * Buffers little-endian writes to a {@link FileChannel}.
+     */
+    private static final class _BlockWriter {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+        private long position;
+
+        private _BlockWriter(FileChannel channel) {
+            this.channel = channel;
+            this.buffer = ByteBuffer.allocate(WRITE_BUFFER_BYTE_COUNT).order(ByteOrder.LITTLE_ENDIAN);
+            this.position = 0;
+        }
+
+        private void
+        putInt(int value)
+        throws IOException {
+
+            _ensureRemaining(4);
+            buffer.putInt(value);
+            position += 4;
+        }
+
+        private void
+        putLong(long value)
+        throws IOException {
+
+            _ensureRemaining(8);
+            buffer.putLong(value);
+            position += 8;
+        }
+
+        private void
+        putDouble(double value)
+        throws IOException {
+
+            _ensureRemaining(8);
+            buffer.putDouble(value);
+            position += 8;
+        }
+
+        private void
+        putBytes(byte[] byteArr)
+        throws IOException {
+
+            int offset = 0;
+            while (offset < byteArr.length) {
+
+                _ensureRemaining(1);
+                final int count = Math.min(buffer.remaining(), byteArr.length - offset);
+                buffer.put(byteArr, offset, count);
+                offset += count;
+                position += count;
+            }
+        }
+
+        private void
+        padTo(long offset)
+        throws IOException {
+
+            while (position < offset) {
+
+                _ensureRemaining(1);
+                buffer.put((byte) 0);
+                ++position;
+            }
+        }
+
+        private void
+        _ensureRemaining(int byteCount)
+        throws IOException {
+
+            if (buffer.remaining() < byteCount) {
+                flush();
+            }
+        }
+
+        private void
+        flush()
+        throws IOException {
+
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
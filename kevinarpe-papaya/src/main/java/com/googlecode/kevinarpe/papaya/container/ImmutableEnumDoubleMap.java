@@ -0,0 +1,200 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Immutable map of enum keys to primitive {@code double} values, where every enum key is always present.  This is the
+ * primitive-valued twin of {@link ImmutableFullEnumMap}, but values are stored in a {@code double[]} indexed by
+ * {@link Enum#ordinal()}, so lookups never box or unbox.
+ * <p>
+ * For a mutable, thread-safe version, see {@link EnumDoubleMap}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see EnumDoubleMap#toImmutable()
+ * @see EnumDoubleAdderMap#toImmutable()
+ */
+@FullyTested
+public final class ImmutableEnumDoubleMap<TEnumKey extends Enum<TEnumKey>>
+extends _AbstractEnumPrimitiveMap<TEnumKey> {
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     * @param keyToValueFunc
+     *        maps key to value
+     *
+     * @throws NullPointerException
+     *         if any args is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    ImmutableEnumDoubleMap<TEnumKey2>
+    ofKeys(Class<TEnumKey2> enumClass,
+           ToDoubleFunction<? super TEnumKey2> keyToValueFunc) {
+
+        ObjectArgs.checkNotNull(keyToValueFunc, "keyToValueFunc");
+
+        final ImmutableEnumDoubleMap<TEnumKey2> x = new ImmutableEnumDoubleMap<>(enumClass);
+        for (int i = 0; i < x.keyArr.length; ++i) {
+
+            x.valueArr[i] = keyToValueFunc.applyAsDouble(x.keyArr[i]);
+        }
+        return x;
+    }
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     * @param map
+     *        must contain every enum constant from {@code enumClass} as a key
+     *
+     * @throws NullPointerException
+     *         if any args, key, or value is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants, or any key is missing from {@code map}
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    ImmutableEnumDoubleMap<TEnumKey2>
+    copyOf(Class<TEnumKey2> enumClass,
+           Map<TEnumKey2, ? extends Double> map) {
+
+        assertAllKeysFound(enumClass, map);
+        final ImmutableEnumDoubleMap<TEnumKey2> x = ofKeys(enumClass, map::get);
+        return x;
+    }
+
+    private final double[] valueArr;
+
+    private ImmutableEnumDoubleMap(Class<TEnumKey> enumClass) {
+        super(enumClass);
+        this.valueArr = new double[keyArr.length];
+    }
+
+    // package-private
+    ImmutableEnumDoubleMap(Class<TEnumKey> enumClass,
+                         double[] valueArr) {
+        super(enumClass);
+        // Intentional: Do not copy.  Callers always pass a new array.
+        this.valueArr = valueArr;
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     */
+    public double
+    get(TEnumKey key) {
+
+        final int ordinal = ordinal(key);
+        final double x = valueArr[ordinal];
+        return x;
+    }
+
+    /**
+     * Iterates all pairs in {@link Enum#ordinal()} order without boxing.
+     *
+     * @throws NullPointerException
+     *         if {@code action} is {@code null}
+     */
+    public void
+    forEach(ObjDoubleConsumer<? super TEnumKey> action) {
+
+        ObjectArgs.checkNotNull(action, "action");
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            action.accept(keyArr[i], valueArr[i]);
+        }
+    }
+
+    /**
+     * @return sum of all values
+     */
+    public double
+    sum() {
+
+        double x = 0;
+        for (final double value : valueArr) {
+
+            x += value;
+        }
+        return x;
+    }
+
+    /**
+     * @return new array of values indexed by {@link Enum#ordinal()}
+     */
+    public double[]
+    toArray() {
+
+        final double[] x = valueArr.clone();
+        return x;
+    }
+
+    @Override
+    protected void
+    appendValue(StringBuilder sb,
+                int ordinal) {
+
+        sb.append(valueArr[ordinal]);
+    }
+
+    @Override
+    public int
+    hashCode() {
+
+        final int x = Arrays.hashCode(valueArr);
+        return x;
+    }
+
+    /**
+     * Values are compared like {@link Double#equals(Object)}, so {@code NaN} equals {@code NaN}, and {@code -0.0}
+     * does not equal {@code 0.0}.
+     */
+    @Override
+    public boolean
+    equals(Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (false == (obj instanceof ImmutableEnumDoubleMap)) {
+            return false;
+        }
+        final ImmutableEnumDoubleMap<?> other = (ImmutableEnumDoubleMap<?>) obj;
+        final boolean x = enumClass.equals(other.enumClass) && Arrays.equals(valueArr, other.valueArr);
+        return x;
+    }
+}
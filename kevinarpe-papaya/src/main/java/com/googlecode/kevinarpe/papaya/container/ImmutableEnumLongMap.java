@@ -0,0 +1,196 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable map of enum keys to primitive {@code long} values, where every enum key is always present.  This is the
+ * primitive-valued twin of {@link ImmutableFullEnumMap}, but values are stored in a {@code long[]} indexed by
+ * {@link Enum#ordinal()}, so lookups never box or unbox.
+ * <p>
+ * For a mutable, thread-safe version, see {@link EnumLongMap}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see EnumLongMap#toImmutable()
+ * @see EnumLongAdderMap#toImmutable()
+ */
+@FullyTested
+public final class ImmutableEnumLongMap<TEnumKey extends Enum<TEnumKey>>
+extends _AbstractEnumPrimitiveMap<TEnumKey> {
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     * @param keyToValueFunc
+     *        maps key to value
+     *
+     * @throws NullPointerException
+     *         if any args is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    ImmutableEnumLongMap<TEnumKey2>
+    ofKeys(Class<TEnumKey2> enumClass,
+           ToLongFunction<? super TEnumKey2> keyToValueFunc) {
+
+        ObjectArgs.checkNotNull(keyToValueFunc, "keyToValueFunc");
+
+        final ImmutableEnumLongMap<TEnumKey2> x = new ImmutableEnumLongMap<>(enumClass);
+        for (int i = 0; i < x.keyArr.length; ++i) {
+
+            x.valueArr[i] = keyToValueFunc.applyAsLong(x.keyArr[i]);
+        }
+        return x;
+    }
+
+    /**
+     * @param enumClass
+     *        must contain one or more enum constants
+     * @param map
+     *        must contain every enum constant from {@code enumClass} as a key
+     *
+     * @throws NullPointerException
+     *         if any args, key, or value is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code enumClass} has zero enum constants, or any key is missing from {@code map}
+     */
+    public static <TEnumKey2 extends Enum<TEnumKey2>>
+    ImmutableEnumLongMap<TEnumKey2>
+    copyOf(Class<TEnumKey2> enumClass,
+           Map<TEnumKey2, ? extends Long> map) {
+
+        assertAllKeysFound(enumClass, map);
+        final ImmutableEnumLongMap<TEnumKey2> x = ofKeys(enumClass, map::get);
+        return x;
+    }
+
+    private final long[] valueArr;
+
+    private ImmutableEnumLongMap(Class<TEnumKey> enumClass) {
+        super(enumClass);
+        this.valueArr = new long[keyArr.length];
+    }
+
+    // package-private
+    ImmutableEnumLongMap(Class<TEnumKey> enumClass,
+                         long[] valueArr) {
+        super(enumClass);
+        // Intentional: Do not copy.  Callers always pass a new array.
+        this.valueArr = valueArr;
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     */
+    public long
+    get(TEnumKey key) {
+
+        final int ordinal = ordinal(key);
+        final long x = valueArr[ordinal];
+        return x;
+    }
+
+    /**
+     * Iterates all pairs in {@link Enum#ordinal()} order without boxing.
+     *
+     * @throws NullPointerException
+     *         if {@code action} is {@code null}
+     */
+    public void
+    forEach(ObjLongConsumer<? super TEnumKey> action) {
+
+        ObjectArgs.checkNotNull(action, "action");
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            action.accept(keyArr[i], valueArr[i]);
+        }
+    }
+
+    /**
+     * @return sum of all values; may overflow
+     */
+    public long
+    sum() {
+
+        long x = 0;
+        for (final long value : valueArr) {
+
+            x += value;
+        }
+        return x;
+    }
+
+    /**
+     * @return new array of values indexed by {@link Enum#ordinal()}
+     */
+    public long[]
+    toArray() {
+
+        final long[] x = valueArr.clone();
+        return x;
+    }
+
+    @Override
+    protected void
+    appendValue(StringBuilder sb,
+                int ordinal) {
+
+        sb.append(valueArr[ordinal]);
+    }
+
+    @Override
+    public int
+    hashCode() {
+
+        final int x = Arrays.hashCode(valueArr);
+        return x;
+    }
+
+    @Override
+    public boolean
+    equals(Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (false == (obj instanceof ImmutableEnumLongMap)) {
+            return false;
+        }
+        final ImmutableEnumLongMap<?> other = (ImmutableEnumLongMap<?>) obj;
+        final boolean x = enumClass.equals(other.enumClass) && Arrays.equals(valueArr, other.valueArr);
+        return x;
+    }
+}
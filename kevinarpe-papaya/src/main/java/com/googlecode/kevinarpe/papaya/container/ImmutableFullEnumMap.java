@@ -25,9 +25,8 @@ package com.googlecode.kevinarpe.papaya.container;
  * #L%
  */
 
-import com.google.common.collect.ForwardingMap;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Maps;
+import com.google.common.collect.ImmutableSet;
 import com.googlecode.kevinarpe.papaya.annotation.EmptyContainerAllowed;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.CollectionArgs;
@@ -36,22 +35,35 @@ import com.googlecode.kevinarpe.papaya.function.ThrowingFunction;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
+import java.util.AbstractList;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 
 /**
  * This class a blend of {@link ImmutableMap} and {@link java.util.EnumMap}, but requires all enum keys to be present.
  * <p>
- * These maps are CPU and memory intensive to construct, but very fast to access data after construction.
+ * Values are stored in an array indexed by {@link Enum#ordinal()}, so there is no hash table.  Each lookup is an
+ * array access, and each map only holds its value array.  Key arrays and {@link #keySet()} are shared by all maps
+ * with the same enum class.
+ * <p>
+ * Views {@link #keySet()}, {@link #values()}, and {@link #entrySet()} do not copy.  Only {@link #entrySet()} creates
+ * an object per element during iteration.  To iterate without any allocation, use {@link #forEach(BiConsumer)}.
  *
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  */
 @FullyTested
 public final class ImmutableFullEnumMap<TEnumKey extends Enum<TEnumKey>, TValue>
-extends ForwardingMap<TEnumKey, TValue>
 implements EnumMap2<TEnumKey, TValue> {
 
     public interface Builder<TEnumKey2 extends Enum<TEnumKey2>, TValue2> {
@@ -148,16 +160,15 @@ implements EnumMap2<TEnumKey, TValue> {
         ObjectArgs.checkNotNull(enumClass, "enumClass");
         ObjectArgs.checkNotNull(keyToValueFunc, "keyToValueFunc");
 
-        final ImmutableMap.Builder<TEnumKey2, TValue2> b = ImmutableMap.builder();
-        final TEnumKey2[] keyArr = enumClass.getEnumConstants();
+        // Intentional: Never allow empty enums for this static factory method.
+        final TEnumKey2[] keyArr = _FullEnumMaps._getEnumArrOrThrow(enumClass, IsEmptyEnumAllowed.NO);
+        final Object[] valueArr = new Object[keyArr.length];
         for (final TEnumKey2 key : keyArr) {
 
             final TValue2 value = keyToValueFunc.apply(key);
-            b.put(key, value);
+            valueArr[key.ordinal()] = ObjectArgs.checkNotNull(value, "value");
         }
-        final ImmutableMap<TEnumKey2, TValue2> z = b.build();
-        final ImmutableFullEnumMap<TEnumKey2, TValue2> x =
-            new ImmutableFullEnumMap<>(enumClass, z, IsEmptyEnumAllowed.NO);
+        final ImmutableFullEnumMap<TEnumKey2, TValue2> x = new ImmutableFullEnumMap<>(enumClass, keyArr, valueArr);
         return x;
     }
 
@@ -185,16 +196,15 @@ implements EnumMap2<TEnumKey, TValue> {
         ObjectArgs.checkNotNull(enumClass, "enumClass");
         ObjectArgs.checkNotNull(keyToValueFunc, "keyToValueFunc");
 
-        final ImmutableMap.Builder<TEnumKey2, TValue2> b = ImmutableMap.builder();
-        final TEnumKey2[] keyArr = enumClass.getEnumConstants();
+        // Intentional: Never allow empty enums for this static factory method.
+        final TEnumKey2[] keyArr = _FullEnumMaps._getEnumArrOrThrow(enumClass, IsEmptyEnumAllowed.NO);
+        final Object[] valueArr = new Object[keyArr.length];
         for (final TEnumKey2 key : keyArr) {
 
             final TValue2 value = keyToValueFunc.apply(key);
-            b.put(key, value);
+            valueArr[key.ordinal()] = ObjectArgs.checkNotNull(value, "value");
         }
-        final ImmutableMap<TEnumKey2, TValue2> z = b.build();
-        final ImmutableFullEnumMap<TEnumKey2, TValue2> x =
-            new ImmutableFullEnumMap<>(enumClass, z, IsEmptyEnumAllowed.NO);
+        final ImmutableFullEnumMap<TEnumKey2, TValue2> x = new ImmutableFullEnumMap<>(enumClass, keyArr, valueArr);
         return x;
     }
 
@@ -229,15 +239,16 @@ implements EnumMap2<TEnumKey, TValue> {
         CollectionArgs.checkNotEmptyAndElementsNotNull(c, "c");
         ObjectArgs.checkNotNull(valueToKeyFunc, "valueToKeyFunc");
 
-        final ImmutableMap.Builder<TEnumKey2, TValue2> b = ImmutableMap.builder();
+        // Intentional: Never allow empty enums for this static factory method.
+        final TEnumKey2[] keyArr = _FullEnumMaps._getEnumArrOrThrow(enumClass, IsEmptyEnumAllowed.NO);
+        final Object[] valueArr = new Object[keyArr.length];
         for (final TValue2 value : c) {
 
             final TEnumKey2 key = valueToKeyFunc.apply(value);
-            b.put(key, value);
+            _putNew(keyArr, valueArr, key, value);
         }
-        final ImmutableMap<TEnumKey2, TValue2> z = b.build();
-        final ImmutableFullEnumMap<TEnumKey2, TValue2> x =
-            new ImmutableFullEnumMap<>(enumClass, z, IsEmptyEnumAllowed.NO);
+        _FullEnumMaps._assertAllValuesFound(enumClass, keyArr, valueArr);
+        final ImmutableFullEnumMap<TEnumKey2, TValue2> x = new ImmutableFullEnumMap<>(enumClass, keyArr, valueArr);
         return x;
     }
 
@@ -273,15 +284,16 @@ implements EnumMap2<TEnumKey, TValue> {
         CollectionArgs.checkNotEmptyAndElementsNotNull(c, "c");
         ObjectArgs.checkNotNull(valueToKeyFunc, "valueToKeyFunc");
 
-        final ImmutableMap.Builder<TEnumKey2, TValue2> b = ImmutableMap.builder();
+        // Intentional: Never allow empty enums for this static factory method.
+        final TEnumKey2[] keyArr = _FullEnumMaps._getEnumArrOrThrow(enumClass, IsEmptyEnumAllowed.NO);
+        final Object[] valueArr = new Object[keyArr.length];
         for (final TValue2 value : c) {
 
             final TEnumKey2 key = valueToKeyFunc.apply(value);
-            b.put(key, value);
+            _putNew(keyArr, valueArr, key, value);
         }
-        final ImmutableMap<TEnumKey2, TValue2> z = b.build();
-        final ImmutableFullEnumMap<TEnumKey2, TValue2> x =
-            new ImmutableFullEnumMap<>(enumClass, z, IsEmptyEnumAllowed.NO);
+        _FullEnumMaps._assertAllValuesFound(enumClass, keyArr, valueArr);
+        final ImmutableFullEnumMap<TEnumKey2, TValue2> x = new ImmutableFullEnumMap<>(enumClass, keyArr, valueArr);
         return x;
     }
 
@@ -312,8 +324,49 @@ implements EnumMap2<TEnumKey, TValue> {
         return x;
     }
 
+    private static <TEnumKey2 extends Enum<TEnumKey2>>
+    void _putNew(TEnumKey2[] keyArr,
+                 Object[] valueArr,
+                 TEnumKey2 key,
+                 Object value) {
+
+        ObjectArgs.checkNotNull(key, "key");
+        ObjectArgs.checkNotNull(value, "value");
+
+        final int ordinal = _getOrdinal(keyArr, key);
+        if (-1 == ordinal) {
+            throw new IllegalArgumentException("Key [" + key + "] is not a value from enum class "
+                + keyArr.getClass().getComponentType().getSimpleName());
+        }
+        if (null != valueArr[ordinal]) {
+            throw new IllegalArgumentException(
+                "Multiple values map to the same key [" + key + "]: [" + valueArr[ordinal] + "] and [" + value + "]");
+        }
+        valueArr[ordinal] = value;
+    }
+
+    /**
+     * @return ordinal of {@code key} if it is a value from the enum class of {@code keyArr}, else {@code -1}
+     */
+    private static int
+    _getOrdinal(Object[] keyArr,
+                @Nullable Object key) {
+
+        // Faster than checking Enum.getDeclaringClass(): Identity check with the shared array of enum values.
+        if (key instanceof Enum) {
+            final int ordinal = ((Enum<?>) key).ordinal();
+            if (ordinal < keyArr.length && keyArr[ordinal] == key) {
+                return ordinal;
+            }
+        }
+        return -1;
+    }
+
     private final Class<TEnumKey> enumClass;
-    private final ImmutableMap<TEnumKey, TValue> map;
+    // Shared by all instances with the same enum class.  Never modify!
+    private final TEnumKey[] keyArr;
+    // Index is Enum.ordinal().  Values are never null.
+    private final Object[] valueArr;
 
     /**
      * Iteration order follows enum iterator order like {@link java.util.EnumMap}.
@@ -331,7 +384,6 @@ implements EnumMap2<TEnumKey, TValue> {
      *         and enum ({@code TEnumKey2}) has zero values
      *
      * @see #copyOf(Class, Map)
-     * @see Maps#immutableEnumMap(Map)
      */
     public ImmutableFullEnumMap(Class<TEnumKey> enumClass,
                                 @EmptyContainerAllowed Map<TEnumKey, ? extends TValue> map,
@@ -341,13 +393,21 @@ implements EnumMap2<TEnumKey, TValue> {
         ObjectArgs.checkNotNull(map, "map");
         ObjectArgs.checkNotNull(isEmptyEnumAllowed, "isEmptyEnumAllowed");
         _FullEnumMaps._assertAllKeysFound(enumClass, map, isEmptyEnumAllowed);
-        this.map = Maps.immutableEnumMap(map);
+        this.keyArr = _FullEnumMaps._getEnumArrOrThrow(enumClass, isEmptyEnumAllowed);
+        this.valueArr = new Object[keyArr.length];
+        for (final Map.Entry<TEnumKey, ? extends TValue> entry : map.entrySet()) {
+
+            _putNew(keyArr, valueArr, entry.getKey(), entry.getValue());
+        }
     }
 
-    @Override
-    protected Map<TEnumKey, TValue>
-    delegate() {
-        return map;
+    private ImmutableFullEnumMap(Class<TEnumKey> enumClass,
+                                 TEnumKey[] keyArr,
+                                 Object[] valueArr) {
+
+        this.enumClass = enumClass;
+        this.keyArr = keyArr;
+        this.valueArr = valueArr;
     }
 
     @Override
@@ -356,6 +416,79 @@ implements EnumMap2<TEnumKey, TValue> {
         return enumClass;
     }
 
+    @Override
+    public int
+    size() {
+        return valueArr.length;
+    }
+
+    @Override
+    public boolean
+    isEmpty() {
+        return 0 == valueArr.length;
+    }
+
+    @Override
+    public boolean
+    containsKey(@Nullable Object key) {
+
+        final boolean x = (-1 != _getOrdinal(keyArr, key));
+        return x;
+    }
+
+    @Override
+    public boolean
+    containsValue(@Nullable Object value) {
+
+        if (null == value) {
+            return false;
+        }
+        for (final Object value2 : valueArr) {
+
+            if (value.equals(value2)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <hr>
+     * Override notes: If possible, prefer {@link #getByEnum(Enum)} or {@link #getOrThrow(Object)}.
+     */
+    @Nullable
+    @Override
+    public TValue
+    get(@Nullable Object key) {
+
+        final int ordinal = _getOrdinal(keyArr, key);
+        if (-1 == ordinal) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        final TValue x = (TValue) valueArr[ordinal];
+        return x;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <hr>
+     * Override notes: If possible, prefer {@link #getByEnumOrDefault(Enum, Object)}.
+     */
+    @Nullable
+    @Override
+    public TValue
+    getOrDefault(@Nullable Object key,
+                 @Nullable TValue defaultValue) {
+
+        // Values are never null, so null means key is missing.
+        @Nullable
+        final TValue value = get(key);
+        final TValue x = (null != value) ? value : defaultValue;
+        return x;
+    }
+
     /**
      * {@inheritDoc}
      * <hr>
@@ -368,19 +501,11 @@ implements EnumMap2<TEnumKey, TValue> {
 
         ObjectArgs.checkNotNull(key, "key");
 
-        // Is null possible here?  Not sure, but be very careful.
         @Nullable
         final TValue value = get(key);
         if (null == value) {
-
-            if (containsKey(key)) {
-
-                throw new NullPointerException(
-                    "Internal error: Key [" + key + "] is mapped to a null value: How is this possible?");
-            }
-            else {
-                throw new NullPointerException("Failed to find mapping for key: [" + key + "]");
-            }
+            // Only possible with unchecked casts: key is from a different enum class.
+            throw new NullPointerException("Failed to find mapping for key: [" + key + "]");
         }
         return value;
     }
@@ -399,16 +524,222 @@ implements EnumMap2<TEnumKey, TValue> {
 
         @Nullable
         final TValue value = get(key);
-        // This is impossible, but check to be very careful.
         if (null == value) {
-            if (containsKey(key)) {
-                throw new IllegalArgumentException("Key [" + key + "] is mapped to null");
+            throw new IllegalArgumentException("Failed to find mapping for key: [" + key + "]");
+        }
+        return value;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <hr>
+     * Override notes: Result is shared by all maps with the same enum class.
+     */
+    @Override
+    public ImmutableSet<TEnumKey>
+    keySet() {
+
+        final ImmutableSet<TEnumKey> x = _FullEnumMaps._getSharedEnumSet(enumClass);
+        return x;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <hr>
+     * Override notes: Result is a read-only, random access list view of values in enum order.
+     */
+    @Override
+    public Collection<TValue>
+    values() {
+
+        final _ValueList x = new _ValueList();
+        return x;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <hr>
+     * Override notes: Result is a read-only view.  Iteration creates a new entry for each element.  To iterate
+     * without any allocation, see: {@link #forEach(BiConsumer)}.
+     */
+    @Override
+    public Set<Map.Entry<TEnumKey, TValue>>
+    entrySet() {
+
+        final _EntrySet x = new _EntrySet();
+        return x;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <hr>
+     * Override notes: Iterates in enum order without any allocation.
+     */
+    @Override
+    public void
+    forEach(BiConsumer<? super TEnumKey, ? super TValue> action) {
+
+        ObjectArgs.checkNotNull(action, "action");
+
+        for (int i = 0; i < valueArr.length; ++i) {
+
+            @SuppressWarnings("unchecked")
+            final TValue value = (TValue) valueArr[i];
+            action.accept(keyArr[i], value);
+        }
+    }
+
+    @Override
+    public int
+    hashCode() {
+
+        // Same as Map.hashCode() contract
+        int x = 0;
+        for (int i = 0; i < valueArr.length; ++i) {
+
+            x += keyArr[i].hashCode() ^ valueArr[i].hashCode();
+        }
+        return x;
+    }
+
+    @Override
+    public boolean
+    equals(@Nullable Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (obj instanceof ImmutableFullEnumMap) {
+
+            final ImmutableFullEnumMap<?, ?> other = (ImmutableFullEnumMap<?, ?>) obj;
+            if (enumClass.equals(other.enumClass)) {
+
+                final boolean x = Arrays.equals(valueArr, other.valueArr);
+                return x;
             }
-            else {
-                throw new IllegalArgumentException("Failed to find mapping for key: [" + key + "]");
+        }
+        if (false == (obj instanceof Map)) {
+            return false;
+        }
+        final Map<?, ?> other = (Map<?, ?>) obj;
+        if (valueArr.length != other.size()) {
+            return false;
+        }
+        try {
+            for (int i = 0; i < valueArr.length; ++i) {
+
+                if (false == valueArr[i].equals(other.get(keyArr[i]))) {
+                    return false;
+                }
             }
         }
-        return value;
+        // Same as AbstractMap.equals(): Some maps throw for unsupported keys.
+        catch (ClassCastException | NullPointerException ignore) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return same format as {@link AbstractMap#toString()}, e.g., {@code "{A=abc, B=def}"}
+     */
+    @Override
+    public String
+    toString() {
+
+        final StringBuilder sb = new StringBuilder().append('{');
+        for (int i = 0; i < valueArr.length; ++i) {
+
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(keyArr[i]).append('=').append(valueArr[i]);
+        }
+        final String x = sb.append('}').toString();
+        return x;
+    }
+
+    private final class _ValueList
+    extends AbstractList<TValue>
+    implements RandomAccess {
+
+        @Override
+        public TValue
+        get(int index) {
+
+            @SuppressWarnings("unchecked")
+            final TValue x = (TValue) valueArr[index];
+            return x;
+        }
+
+        @Override
+        public int
+        size() {
+            return valueArr.length;
+        }
+
+        @Override
+        public boolean
+        contains(@Nullable Object value) {
+            return containsValue(value);
+        }
+    }
+
+    private final class _EntrySet
+    extends AbstractSet<Map.Entry<TEnumKey, TValue>> {
+
+        @Override
+        public int
+        size() {
+            return valueArr.length;
+        }
+
+        @Override
+        public boolean
+        contains(@Nullable Object obj) {
+
+            if (false == (obj instanceof Map.Entry)) {
+                return false;
+            }
+            final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) obj;
+            final int ordinal = _getOrdinal(keyArr, entry.getKey());
+            final boolean x = (-1 != ordinal) && valueArr[ordinal].equals(entry.getValue());
+            return x;
+        }
+
+        @Override
+        public Iterator<Map.Entry<TEnumKey, TValue>>
+        iterator() {
+
+            final _EntryIterator x = new _EntryIterator();
+            return x;
+        }
+    }
+
+    private final class _EntryIterator
+    implements Iterator<Map.Entry<TEnumKey, TValue>> {
+
+        private int index = 0;
+
+        @Override
+        public boolean
+        hasNext() {
+            return index < valueArr.length;
+        }
+
+        @Override
+        public Map.Entry<TEnumKey, TValue>
+        next() {
+
+            if (index >= valueArr.length) {
+                throw new NoSuchElementException();
+            }
+            @SuppressWarnings("unchecked")
+            final TValue value = (TValue) valueArr[index];
+            final Map.Entry<TEnumKey, TValue> x = new AbstractMap.SimpleImmutableEntry<>(keyArr[index], value);
+            ++index;
+            return x;
+        }
     }
 
     /**
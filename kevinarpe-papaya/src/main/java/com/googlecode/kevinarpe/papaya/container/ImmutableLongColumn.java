@@ -0,0 +1,266 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/**
+ * Column of primitive {@code long} values.  Columns from {@link #copyOf(long...)} and {@link Builder} are backed by
+ * a {@code long[]}.  Columns from {@link ImmutableColumnTableFileFormat#map(File)} are backed by a {@link LongBuffer}
+ * over a read-only region of a memory-mapped file.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+public abstract class ImmutableLongColumn
+extends ImmutableColumn<Long> {
+
+    /**
+     * Copies {@code values} to create new column.
+     *
+     * @throws NullPointerException
+     *         if {@code values} is {@code null}
+     */
+    public static ImmutableLongColumn
+    copyOf(long... values) {
+
+        ObjectArgs.checkNotNull(values, "values");
+        final ImmutableLongColumn x = new _ArrayColumn(values.clone());
+        return x;
+    }
+
+    /**
+     * @return new builder with zero rows
+     */
+    public static Builder
+    builder() {
+
+        final Builder x = new Builder();
+        return x;
+    }
+
+    /**
+     * Creates a new column backed by {@code valueBuffer} without any copies.  Caller must never modify
+     * {@code valueBuffer}.  Only used for memory-mapped files; heap columns are backed by arrays.
+     *
+     * @param valueBuffer
+     *        all values from index zero to {@link LongBuffer#limit()}
+     */
+    // package-private
+    static ImmutableLongColumn
+    _wrap(LongBuffer valueBuffer) {
+
+        final ImmutableLongColumn x = new _BufferColumn(valueBuffer);
+        return x;
+    }
+
+    // Only nested subclasses are allowed.
+    private ImmutableLongColumn() {
+        // Empty
+    }
+
+    /** @return {@link ImmutableColumnType#LONG} */
+    @Override
+    public ImmutableColumnType
+    getColumnType() {
+        return ImmutableColumnType.LONG;
+    }
+
+    /**
+     * @param rowIndex
+     *        from zero to {@code size() - 1}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code rowIndex} is invalid
+     */
+    public abstract long
+    getLong(int rowIndex);
+
+    /** {@inheritDoc} */
+    @Override
+    public Long
+    get(int rowIndex) {
+
+        final Long x = getLong(rowIndex);
+        return x;
+    }
+
+    /**
+     * @return new array of all values
+     */
+    public abstract long[]
+    toArray();
+
+    private static final class _ArrayColumn
+    extends ImmutableLongColumn {
+
+        private final long[] valueArr;
+
+        private _ArrayColumn(long[] valueArr) {
+            this.valueArr = valueArr;
+        }
+
+        @Override
+        public int
+        size() {
+            return valueArr.length;
+        }
+
+        @Override
+        public long
+        getLong(int rowIndex) {
+            return valueArr[rowIndex];
+        }
+
+        @Override
+        public long[]
+        toArray() {
+
+            final long[] x = valueArr.clone();
+            return x;
+        }
+    }
+
+    private static final class _BufferColumn
+    extends ImmutableLongColumn {
+
+        private final LongBuffer valueBuffer;
+
+        private _BufferColumn(LongBuffer valueBuffer) {
+            this.valueBuffer = ObjectArgs.checkNotNull(valueBuffer, "valueBuffer");
+        }
+
+        @Override
+        public int
+        size() {
+            return valueBuffer.limit();
+        }
+
+        @Override
+        public long
+        getLong(int rowIndex) {
+            return valueBuffer.get(rowIndex);
+        }
+
+        @Override
+        public long[]
+        toArray() {
+
+            final long[] x = new long[valueBuffer.limit()];
+            // Absolute bulk get is not available in Java 8, so read from a duplicate to leave this buffer unchanged.
+            valueBuffer.duplicate().get(x);
+            return x;
+        }
+    }
+
+    /**
+     * Appends primitive values without boxing to build an {@link ImmutableLongColumn}.
+     */
+    public static final class Builder
+    implements _Builder<Long> {
+
+        private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+        private long[] valueArr;
+        private int size;
+
+        private Builder() {
+            this.valueArr = new long[DEFAULT_INITIAL_CAPACITY];
+            this.size = 0;
+        }
+
+        /**
+         * @return number of values appended
+         */
+        @Override
+        public int
+        size() {
+            return size;
+        }
+
+        /**
+         * @return {@code this} for method chaining (builder pattern)
+         */
+        public Builder
+        add(long value) {
+
+            if (size == valueArr.length) {
+                valueArr = Arrays.copyOf(valueArr, _ImmutableColumns._newCapacity(size + 1));
+            }
+            valueArr[size] = value;
+            ++size;
+            return this;
+        }
+
+        /**
+         * @return {@code this} for method chaining (builder pattern)
+         *
+         * @throws NullPointerException
+         *         if {@code values} is {@code null}
+         */
+        public Builder
+        addAll(long... values) {
+
+            ObjectArgs.checkNotNull(values, "values");
+            final int newSize = size + values.length;
+            if (newSize > valueArr.length) {
+                valueArr = Arrays.copyOf(valueArr, _ImmutableColumns._newCapacity(newSize));
+            }
+            System.arraycopy(values, 0, valueArr, size, values.length);
+            size = newSize;
+            return this;
+        }
+
+        /**
+         * Same as {@link #add(long)}, but unboxes first.
+         *
+         * @throws NullPointerException
+         *         if {@code value} is {@code null}
+         */
+        @Override
+        public void
+        addBoxed(Long value) {
+
+            add(ObjectArgs.checkNotNull(value, "value"));
+        }
+
+        /**
+         * @return new column; this builder may be reused to build a larger column
+         */
+        @Override
+        public ImmutableLongColumn
+        build() {
+
+            final ImmutableLongColumn x = new _ArrayColumn(Arrays.copyOf(valueArr, size));
+            return x;
+        }
+    }
+}
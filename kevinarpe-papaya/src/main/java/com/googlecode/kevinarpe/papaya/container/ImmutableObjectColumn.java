@@ -0,0 +1,182 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Collection;
+
+/**
+ * Column of object references backed by an {@link ImmutableList}.  Like {@link ImmutableList}, {@code null} values
+ * are not allowed.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+public final class ImmutableObjectColumn<TValue>
+extends ImmutableColumn<TValue> {
+
+    /**
+     * Creates a new column without any copies.
+     *
+     * @throws NullPointerException
+     *         if {@code list} is {@code null}
+     */
+    public static <TValue2>
+    ImmutableObjectColumn<TValue2>
+    of(ImmutableList<TValue2> list) {
+
+        final ImmutableObjectColumn<TValue2> x = new ImmutableObjectColumn<>(list);
+        return x;
+    }
+
+    /**
+     * Copies {@code values} to create new column.
+     *
+     * @throws NullPointerException
+     *         if {@code values} or any value is {@code null}
+     */
+    public static <TValue2>
+    ImmutableObjectColumn<TValue2>
+    copyOf(Collection<? extends TValue2> values) {
+
+        final ImmutableList<TValue2> list = ImmutableList.copyOf(values);
+        final ImmutableObjectColumn<TValue2> x = new ImmutableObjectColumn<>(list);
+        return x;
+    }
+
+    /**
+     * @return new builder with zero rows
+     */
+    public static <TValue2>
+    Builder<TValue2>
+    builder() {
+
+        final Builder<TValue2> x = new Builder<>();
+        return x;
+    }
+
+    private final ImmutableList<TValue> list;
+
+    private ImmutableObjectColumn(ImmutableList<TValue> list) {
+        this.list = ObjectArgs.checkNotNull(list, "list");
+    }
+
+    /** @return {@link ImmutableColumnType#OBJECT} */
+    @Override
+    public ImmutableColumnType
+    getColumnType() {
+        return ImmutableColumnType.OBJECT;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int
+    size() {
+
+        final int x = list.size();
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TValue
+    get(int rowIndex) {
+
+        final TValue x = list.get(rowIndex);
+        return x;
+    }
+
+    /**
+     * @return underlying list (not a view)
+     */
+    @Override
+    public ImmutableList<TValue>
+    asList() {
+        return list;
+    }
+
+    /**
+     * Appends values to build an {@link ImmutableObjectColumn}.
+     */
+    public static final class Builder<TValue2>
+    implements _Builder<TValue2> {
+
+        private final ImmutableList.Builder<TValue2> listBuilder;
+        private int size;
+
+        private Builder() {
+            this.listBuilder = ImmutableList.builder();
+            this.size = 0;
+        }
+
+        /**
+         * @return number of values appended
+         */
+        @Override
+        public int
+        size() {
+            return size;
+        }
+
+        /**
+         * @return {@code this} for method chaining (builder pattern)
+         *
+         * @throws NullPointerException
+         *         if {@code value} is {@code null}
+         */
+        public Builder<TValue2>
+        add(TValue2 value) {
+
+            listBuilder.add(value);
+            ++size;
+            return this;
+        }
+
+        /**
+         * Same as {@link #add(Object)}.
+         */
+        @Override
+        public void
+        addBoxed(TValue2 value) {
+
+            add(value);
+        }
+
+        /**
+         * @return new column; this builder may be reused to build a larger column
+         */
+        @Override
+        public ImmutableObjectColumn<TValue2>
+        build() {
+
+            final ImmutableObjectColumn<TValue2> x = new ImmutableObjectColumn<>(listBuilder.build());
+            return x;
+        }
+    }
+}
@@ -0,0 +1,335 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * Column of {@link String} values that are dictionary-encoded: each distinct string is stored once in
+ * {@link #getDictionary()}, and each row stores an {@code int} code that is an index into the dictionary.  This is
+ * ideal for low-cardinality columns, e.g., country codes or currency codes.  Rows may also be compared by code,
+ * which is much faster than {@link String#equals(Object)}.
+ * <p>
+ * Columns from {@link #copyOf(Collection)} and {@link Builder} store codes in an {@code int[]}.  Columns from
+ * {@link ImmutableColumnTableFileFormat#map(File)} store codes in an {@link IntBuffer} over a read-only region of a
+ * memory-mapped file.  The dictionary is always on the heap.
+ * <p>
+ * Like {@link ImmutableList}, {@code null} values are not allowed.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+public abstract class ImmutableStringDictionaryColumn
+extends ImmutableColumn<String> {
+
+    /**
+     * Copies {@code values} to create new column.
+     *
+     * @throws NullPointerException
+     *         if {@code values} or any value is {@code null}
+     */
+    public static ImmutableStringDictionaryColumn
+    copyOf(Collection<String> values) {
+
+        ObjectArgs.checkNotNull(values, "values");
+        final Builder b = new Builder();
+        for (final String value : values) {
+
+            b.add(value);
+        }
+        final ImmutableStringDictionaryColumn x = b.build();
+        return x;
+    }
+
+    /**
+     * @return new builder with zero rows
+     */
+    public static Builder
+    builder() {
+
+        final Builder x = new Builder();
+        return x;
+    }
+
+    /**
+     * Creates a new column backed by {@code codeBuffer} without any copies.  Caller must never modify
+     * {@code codeBuffer}.  Only used for memory-mapped files; heap columns are backed by arrays.
+     *
+     * @param dictionary
+     *        distinct values
+     *
+     * @param codeBuffer
+     *        all codes from index zero to {@link IntBuffer#limit()}
+     *
+     * @throws IllegalArgumentException
+     *         if {@code dictionary} has duplicate values
+     */
+    // package-private
+    static ImmutableStringDictionaryColumn
+    _wrap(ImmutableList<String> dictionary,
+          IntBuffer codeBuffer) {
+
+        final int dictionarySize = dictionary.size();
+        final HashMap<String, Integer> dictionaryCodeMap = new HashMap<>(2 * dictionarySize);
+        for (int code = 0; code < dictionarySize; ++code) {
+
+            final String value = dictionary.get(code);
+            if (null != dictionaryCodeMap.put(value, code)) {
+                throw new IllegalArgumentException("Dictionary value is not unique: [" + value + "]");
+            }
+        }
+        final ImmutableStringDictionaryColumn x = new _BufferColumn(dictionary, dictionaryCodeMap, codeBuffer);
+        return x;
+    }
+
+    private final ImmutableList<String> dictionary;
+    private final HashMap<String, Integer> dictionaryCodeMap;
+
+    // Only nested subclasses are allowed.
+    private ImmutableStringDictionaryColumn(ImmutableList<String> dictionary,
+                                            HashMap<String, Integer> dictionaryCodeMap) {
+        this.dictionary = dictionary;
+        this.dictionaryCodeMap = dictionaryCodeMap;
+    }
+
+    /** @return {@link ImmutableColumnType#STRING_DICTIONARY} */
+    @Override
+    public ImmutableColumnType
+    getColumnType() {
+        return ImmutableColumnType.STRING_DICTIONARY;
+    }
+
+    /**
+     * @return distinct values in order of first appearance; each index is a code
+     */
+    public ImmutableList<String>
+    getDictionary() {
+        return dictionary;
+    }
+
+    /**
+     * @return code for {@code value}, or {@code -1} if {@code value} is not in {@link #getDictionary()}
+     *
+     * @throws NullPointerException
+     *         if {@code value} is {@code null}
+     */
+    public int
+    getCodeOf(String value) {
+
+        ObjectArgs.checkNotNull(value, "value");
+        final Integer nullableCode = dictionaryCodeMap.get(value);
+        final int x = (null == nullableCode) ? -1 : nullableCode;
+        return x;
+    }
+
+    /**
+     * @param rowIndex
+     *        from zero to {@code size() - 1}
+     *
+     * @return index into {@link #getDictionary()}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code rowIndex} is invalid
+     */
+    public abstract int
+    getCode(int rowIndex);
+
+    /**
+     * Same as {@link #get(int)}.
+     */
+    public String
+    getString(int rowIndex) {
+
+        final String x = dictionary.get(getCode(rowIndex));
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String
+    get(int rowIndex) {
+
+        final String x = getString(rowIndex);
+        return x;
+    }
+
+    /**
+     * @return new array of all codes
+     */
+    public abstract int[]
+    toCodeArray();
+
+    private static final class _ArrayColumn
+    extends ImmutableStringDictionaryColumn {
+
+        private final int[] codeArr;
+
+        private _ArrayColumn(ImmutableList<String> dictionary,
+                             HashMap<String, Integer> dictionaryCodeMap,
+                             int[] codeArr) {
+            super(dictionary, dictionaryCodeMap);
+            this.codeArr = codeArr;
+        }
+
+        @Override
+        public int
+        size() {
+            return codeArr.length;
+        }
+
+        @Override
+        public int
+        getCode(int rowIndex) {
+            return codeArr[rowIndex];
+        }
+
+        @Override
+        public int[]
+        toCodeArray() {
+
+            final int[] x = codeArr.clone();
+            return x;
+        }
+    }
+
+    private static final class _BufferColumn
+    extends ImmutableStringDictionaryColumn {
+
+        private final IntBuffer codeBuffer;
+
+        private _BufferColumn(ImmutableList<String> dictionary,
+                              HashMap<String, Integer> dictionaryCodeMap,
+                              IntBuffer codeBuffer) {
+            super(dictionary, dictionaryCodeMap);
+            this.codeBuffer = ObjectArgs.checkNotNull(codeBuffer, "codeBuffer");
+        }
+
+        @Override
+        public int
+        size() {
+            return codeBuffer.limit();
+        }
+
+        @Override
+        public int
+        getCode(int rowIndex) {
+            return codeBuffer.get(rowIndex);
+        }
+
+        @Override
+        public int[]
+        toCodeArray() {
+
+            final int[] x = new int[codeBuffer.limit()];
+            // Absolute bulk get is not available in Java 8, so read from a duplicate to leave this buffer unchanged.
+            codeBuffer.duplicate().get(x);
+            return x;
+        }
+    }
+
+    /**
+     * Appends values to build an {@link ImmutableStringDictionaryColumn}.
+     */
+    public static final class Builder
+    implements _Builder<String> {
+
+        private final ImmutableList.Builder<String> dictionaryBuilder;
+        private final HashMap<String, Integer> dictionaryCodeMap;
+        private int[] codeArr;
+        private int size;
+
+        private Builder() {
+            this.dictionaryBuilder = ImmutableList.builder();
+            this.dictionaryCodeMap = new HashMap<>();
+            this.codeArr = new int[16];
+            this.size = 0;
+        }
+
+        /**
+         * @return number of values appended
+         */
+        @Override
+        public int
+        size() {
+            return size;
+        }
+
+        /**
+         * @return {@code this} for method chaining (builder pattern)
+         *
+         * @throws NullPointerException
+         *         if {@code value} is {@code null}
+         */
+        public Builder
+        add(String value) {
+
+            ObjectArgs.checkNotNull(value, "value");
+            Integer code = dictionaryCodeMap.get(value);
+            if (null == code) {
+                code = dictionaryCodeMap.size();
+                dictionaryCodeMap.put(value, code);
+                dictionaryBuilder.add(value);
+            }
+            if (size == codeArr.length) {
+                codeArr = Arrays.copyOf(codeArr, _ImmutableColumns._newCapacity(size + 1));
+            }
+            codeArr[size] = code;
+            ++size;
+            return this;
+        }
+
+        /**
+         * Same as {@link #add(String)}.
+         */
+        @Override
+        public void
+        addBoxed(String value) {
+
+            add(value);
+        }
+
+        /**
+         * @return new column; this builder may be reused to build a larger column
+         */
+        @Override
+        public ImmutableStringDictionaryColumn
+        build() {
+
+            final ImmutableStringDictionaryColumn x =
+                new _ArrayColumn(
+                    dictionaryBuilder.build(), new HashMap<>(dictionaryCodeMap), Arrays.copyOf(codeArr, size));
+            return x;
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Immutable bitmap of selected rows from a table, e.g., {@link ImmutableColumnTable}.  One bit per row is packed into
+ * a {@code long[]}, so combining selections with {@link #and(RowSelection)} or {@link #or(RowSelection)} processes
+ * 64 rows per operation.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see ColumnTableQuery
+ */
+@FullyTested
+public final class RowSelection {
+
+    private static final int LOG2_BITS_PER_WORD = 6;
+
+    /**
+     * @param rowCount
+     *        number of rows in table; may be zero
+     *
+     * @return new selection where every row is selected
+     *
+     * @throws IllegalArgumentException
+     *         if {@code rowCount} is negative
+     */
+    public static RowSelection
+    all(int rowCount) {
+
+        final RowSelection x = none(rowCount).not();
+        return x;
+    }
+
+    /**
+     * @param rowCount
+     *        number of rows in table; may be zero
+     *
+     * @return new selection where no row is selected
+     *
+     * @throws IllegalArgumentException
+     *         if {@code rowCount} is negative
+     */
+    public static RowSelection
+    none(int rowCount) {
+
+        IntArgs.checkNotNegative(rowCount, "rowCount");
+        final RowSelection x = new RowSelection(new long[_wordCount(rowCount)], rowCount);
+        return x;
+    }
+
+    // package-private
+    static int
+    _wordCount(int rowCount) {
+
+        final int x = ImmutableBooleanColumn._wordCount(rowCount);
+        return x;
+    }
+
+    private final long[] wordArr;
+    private final int rowCount;
+
+    // package-private
+    RowSelection(long[] wordArr,
+                 int rowCount) {
+        this.wordArr = wordArr;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * @return number of rows in table, including rows that are not selected
+     */
+    public int
+    getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return number of selected rows
+     */
+    public int
+    count() {
+
+        int x = 0;
+        for (final long word : wordArr) {
+
+            x += Long.bitCount(word);
+        }
+        return x;
+    }
+
+    /**
+     * @param rowIndex
+     *        from zero to {@code getRowCount() - 1}
+     *
+     * @throws IndexOutOfBoundsException
+     *         if {@code rowIndex} is invalid
+     */
+    public boolean
+    isSelected(int rowIndex) {
+
+        if (rowIndex < 0 || rowIndex >= rowCount) {
+            throw new IndexOutOfBoundsException("Index: " + rowIndex + ", Size: " + rowCount);
+        }
+        final boolean x = 0 != (wordArr[rowIndex >>> LOG2_BITS_PER_WORD] & (1L << rowIndex));
+        return x;
+    }
+
+    /**
+     * @return new selection of rows selected by both {@code this} and {@code other}
+     *
+     * @throws NullPointerException
+     *         if {@code other} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@link #getRowCount()} does not match
+     */
+    public RowSelection
+    and(RowSelection other) {
+
+        _checkRowCount(other);
+        final long[] arr = new long[wordArr.length];
+        for (int i = 0; i < arr.length; ++i) {
+
+            arr[i] = wordArr[i] & other.wordArr[i];
+        }
+        final RowSelection x = new RowSelection(arr, rowCount);
+        return x;
+    }
+
+    /**
+     * @return new selection of rows selected by {@code this} or {@code other}
+     *
+     * @throws NullPointerException
+     *         if {@code other} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@link #getRowCount()} does not match
+     */
+    public RowSelection
+    or(RowSelection other) {
+
+        _checkRowCount(other);
+        final long[] arr = new long[wordArr.length];
+        for (int i = 0; i < arr.length; ++i) {
+
+            arr[i] = wordArr[i] | other.wordArr[i];
+        }
+        final RowSelection x = new RowSelection(arr, rowCount);
+        return x;
+    }
+
+    /**
+     * @return new selection of rows selected by {@code this}, but not by {@code other}
+     *
+     * @throws NullPointerException
+     *         if {@code other} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@link #getRowCount()} does not match
+     */
+    public RowSelection
+    andNot(RowSelection other) {
+
+        _checkRowCount(other);
+        final long[] arr = new long[wordArr.length];
+        for (int i = 0; i < arr.length; ++i) {
+
+            arr[i] = wordArr[i] & ~other.wordArr[i];
+        }
+        final RowSelection x = new RowSelection(arr, rowCount);
+        return x;
+    }
+
+    /**
+     * @return new selection of rows not selected by {@code this}
+     */
+    public RowSelection
+    not() {
+
+        final long[] arr = new long[wordArr.length];
+        for (int i = 0; i < arr.length; ++i) {
+
+            arr[i] = ~wordArr[i];
+        }
+        _clearUnusedBits(arr, rowCount);
+        final RowSelection x = new RowSelection(arr, rowCount);
+        return x;
+    }
+
+    // package-private
+    static void
+    _clearUnusedBits(long[] wordArr,
+                     int rowCount) {
+
+        final int usedBitCount = rowCount & 63;
+        if (0 != usedBitCount) {
+            wordArr[wordArr.length - 1] &= (1L << usedBitCount) - 1;
+        }
+    }
+
+    private void
+    _checkRowCount(RowSelection other) {
+
+        ObjectArgs.checkNotNull(other, "other");
+        if (rowCount != other.rowCount) {
+            throw new IllegalArgumentException(String.format(
+                "Row count mismatch: %d != %d", rowCount, other.rowCount));
+        }
+    }
+
+    /**
+     * Iterates selected rows in ascending order.
+     *
+     * @throws NullPointerException
+     *         if {@code action} is {@code null}
+     */
+    public void
+    forEachSelected(IntConsumer action) {
+
+        ObjectArgs.checkNotNull(action, "action");
+        for (int i = 0; i < wordArr.length; ++i) {
+
+            long word = wordArr[i];
+            while (0 != word) {
+
+                final int rowIndex = (i << LOG2_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                action.accept(rowIndex);
+                // Clear lowest set bit.
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * @return new array of selected row indices in ascending order
+     */
+    public int[]
+    toRowIndexArray() {
+
+        final int[] x = new int[count()];
+        int n = 0;
+        for (int i = 0; i < wordArr.length; ++i) {
+
+            long word = wordArr[i];
+            while (0 != word) {
+
+                x[n] = (i << LOG2_BITS_PER_WORD) + Long.numberOfTrailingZeros(word);
+                ++n;
+                word &= word - 1;
+            }
+        }
+        return x;
+    }
+
+    @Override
+    public int
+    hashCode() {
+
+        final int x = 31 * rowCount + Arrays.hashCode(wordArr);
+        return x;
+    }
+
+    @Override
+    public boolean
+    equals(Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (false == (obj instanceof RowSelection)) {
+            return false;
+        }
+        final RowSelection other = (RowSelection) obj;
+        final boolean x = (rowCount == other.rowCount) && Arrays.equals(wordArr, other.wordArr);
+        return x;
+    }
+
+    /**
+     * @return example: {@code "RowSelection{count=3, rowCount=10}"}
+     */
+    @Override
+    public String
+    toString() {
+
+        final String x = "RowSelection{count=" + count() + ", rowCount=" + rowCount + "}";
+        return x;
+    }
+}
@@ -0,0 +1,149 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableSet;
+import com.googlecode.kevinarpe.papaya.annotation.ReadOnlyContainer;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Map;
+
+/**
+ * Base class for maps of enum keys to primitive values, e.g., {@link EnumLongMap}.  Like {@link FullEnumMap}, every
+ * enum key is always present.  Values are stored in arrays indexed by {@link Enum#ordinal()}, so there is no hash
+ * table and no boxing.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+// package-private
+abstract class _AbstractEnumPrimitiveMap<TEnumKey extends Enum<TEnumKey>> {
+
+    protected final Class<TEnumKey> enumClass;
+    // Shared by all instances with the same enum class.  Never modify!
+    @ReadOnlyContainer
+    protected final TEnumKey[] keyArr;
+
+    /**
+     * @throws NullPointerException
+     *         if {@code enumClass} is {@code null}
+     * @throws IllegalArgumentException
+     *         if enum ({@code TEnumKey}) has zero values
+     */
+    protected _AbstractEnumPrimitiveMap(Class<TEnumKey> enumClass) {
+
+        this.enumClass = ObjectArgs.checkNotNull(enumClass, "enumClass");
+        // Intentional: Never allow empty enums.
+        this.keyArr = _FullEnumMaps._getEnumArrOrThrow(enumClass, IsEmptyEnumAllowed.NO);
+    }
+
+    /**
+     * @return enum class associated with this map
+     */
+    public final Class<TEnumKey>
+    getEnumClass() {
+        return enumClass;
+    }
+
+    /**
+     * @return number of enum values, which is always positive
+     */
+    public final int
+    size() {
+        return keyArr.length;
+    }
+
+    /**
+     * @return read-only set of all enum values in {@link Enum#ordinal()} order
+     */
+    public final ImmutableSet<TEnumKey>
+    keySet() {
+
+        final ImmutableSet<TEnumKey> x = _FullEnumMaps._getSharedEnumSet(enumClass);
+        return x;
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code key} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code key} is not a value from {@link #getEnumClass()}.  This is only possible with unchecked casts.
+     */
+    protected final int
+    ordinal(TEnumKey key) {
+
+        final int ordinal = ObjectArgs.checkNotNull(key, "key").ordinal();
+        // Identity check with the shared array of enum values is faster than Enum.getDeclaringClass().
+        if (ordinal >= keyArr.length || keyArr[ordinal] != key) {
+            throw new IllegalArgumentException(
+                "Key [" + key + "] is not a value from enum class " + enumClass.getSimpleName());
+        }
+        return ordinal;
+    }
+
+    /**
+     * @throws NullPointerException
+     *         if {@code map} or any key or value is {@code null}
+     * @throws IllegalArgumentException
+     *         if any enum value is missing from {@code map}
+     */
+    protected static <TEnumKey2 extends Enum<TEnumKey2>>
+    void assertAllKeysFound(Class<TEnumKey2> enumClass,
+                            Map<TEnumKey2, ?> map) {
+
+        ObjectArgs.checkNotNull(enumClass, "enumClass");
+        ObjectArgs.checkNotNull(map, "map");
+        for (final Map.Entry<TEnumKey2, ?> entry : map.entrySet()) {
+
+            ObjectArgs.checkNotNull(entry.getKey(), "key");
+            ObjectArgs.checkNotNull(entry.getValue(), "value");
+        }
+        _FullEnumMaps._assertAllKeysFound(enumClass, map, IsEmptyEnumAllowed.NO);
+    }
+
+    /**
+     * @return same format as {@link java.util.AbstractMap#toString()}, e.g., {@code "{A=1, B=2}"}
+     */
+    @Override
+    public final String
+    toString() {
+
+        final StringBuilder sb = new StringBuilder().append('{');
+        for (int i = 0; i < keyArr.length; ++i) {
+
+            if (i > 0) {
+                sb.append(", ");
+            }
+            sb.append(keyArr[i]).append('=');
+            appendValue(sb, i);
+        }
+        final String x = sb.append('}').toString();
+        return x;
+    }
+
+    protected abstract void
+    appendValue(StringBuilder sb,
+                int ordinal);
+}
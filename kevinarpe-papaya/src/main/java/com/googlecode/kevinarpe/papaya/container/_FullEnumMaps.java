@@ -25,10 +25,13 @@ package com.googlecode.kevinarpe.papaya.container;
  * #L%
  */
 
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
 import com.googlecode.kevinarpe.papaya.annotation.EmptyContainerAllowed;
 import com.googlecode.kevinarpe.papaya.annotation.ReadOnlyContainer;
 
 import javax.annotation.Nullable;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -37,10 +40,70 @@ import java.util.Map;
 // package-private
 final class _FullEnumMaps {
 
+    /**
+     * {@link Class#getEnumConstants()} returns a new array for each call.  Instead, share one array and one key set per
+     * enum class.
+     */
+    private static final ClassValue<_SharedEnumValues<?>> SHARED_ENUM_VALUES =
+        new ClassValue<_SharedEnumValues<?>>() {
+            @Override
+            protected _SharedEnumValues<?>
+            computeValue(Class<?> type) {
+                return _newSharedEnumValues(type.asSubclass(Enum.class));
+            }
+        };
+
+    private static final class _SharedEnumValues<TEnumKey2 extends Enum<TEnumKey2>> {
+
+        @ReadOnlyContainer
+        private final TEnumKey2[] enumValueArr;
+        private final ImmutableSet<TEnumKey2> enumValueSet;
+
+        private _SharedEnumValues(TEnumKey2[] enumValueArr) {
+
+            this.enumValueArr = enumValueArr;
+            this.enumValueSet = Sets.immutableEnumSet(Arrays.asList(enumValueArr));
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static _SharedEnumValues<?>
+    _newSharedEnumValues(Class<? extends Enum> enumClass) {
+
+        @Nullable
+        final Enum[] enumValueArr = enumClass.getEnumConstants();
+        if (null == enumValueArr) {
+            throw new IllegalStateException("Unreachable code");
+        }
+        final _SharedEnumValues<?> x = new _SharedEnumValues(enumValueArr);
+        return x;
+    }
+
     private _FullEnumMaps() {
         // Empty
     }
 
+    @SuppressWarnings("unchecked")
+    private static <TEnumKey2 extends Enum<TEnumKey2>>
+    _SharedEnumValues<TEnumKey2>
+    _getSharedEnumValues(Class<TEnumKey2> enumClass) {
+
+        final _SharedEnumValues<TEnumKey2> x = (_SharedEnumValues<TEnumKey2>) SHARED_ENUM_VALUES.get(enumClass);
+        return x;
+    }
+
+    /**
+     * @return read-only set of all enum values, shared by all callers
+     */
+    // package-private
+    static <TEnumKey2 extends Enum<TEnumKey2>>
+    ImmutableSet<TEnumKey2>
+    _getSharedEnumSet(Class<TEnumKey2> enumClass) {
+
+        final ImmutableSet<TEnumKey2> x = _getSharedEnumValues(enumClass).enumValueSet;
+        return x;
+    }
+
     // package-private
     static <TEnumKey2 extends Enum<TEnumKey2>, TValue2>
     void _assertAllKeysFound(Class<TEnumKey2> enumClass,
@@ -66,15 +129,42 @@ final class _FullEnumMaps {
         throw new IllegalArgumentException(sbs);
     }
 
-    private static <TEnumKey2 extends Enum<TEnumKey2>>
+    /**
+     * Same as {@link #_assertAllKeysFound(Class, Map, IsEmptyEnumAllowed)}, but for an array of values indexed by
+     * {@link Enum#ordinal()}, where {@code null} is missing.
+     */
+    // package-private
+    static <TEnumKey2 extends Enum<TEnumKey2>>
+    void _assertAllValuesFound(Class<TEnumKey2> enumClass,
+                               @ReadOnlyContainer TEnumKey2[] enumValueArr,
+                               Object[] valueArr) {
+        final StringBuilder sb =
+            new StringBuilder("Missing values from enum class ").append(enumClass.getSimpleName()).append(": ");
+
+        String delim = "";
+        for (int i = 0; i < valueArr.length; ++i) {
+
+            if (null == valueArr[i]) {
+                sb.append(delim).append(enumValueArr[i].name());
+                delim = ", ";
+            }
+        }
+        if (delim.isEmpty()) {
+            return;
+        }
+        final String sbs = sb.toString();
+        throw new IllegalArgumentException(sbs);
+    }
+
+    /**
+     * @return read-only array of all enum values, shared by all callers.  Never modify!
+     */
+    // package-private
+    static <TEnumKey2 extends Enum<TEnumKey2>>
     TEnumKey2[]
     _getEnumArrOrThrow(Class<TEnumKey2> enumClass,
                        IsEmptyEnumAllowed isEmptyEnumAllowed) {
-        @Nullable
-        @ReadOnlyContainer final TEnumKey2[] enumValueArr = enumClass.getEnumConstants();
-        if (null == enumValueArr) {
-            throw new IllegalStateException("Unreachable code");
-        }
+        @ReadOnlyContainer final TEnumKey2[] enumValueArr = _getSharedEnumValues(enumClass).enumValueArr;
         if (IsEmptyEnumAllowed.NO.equals(isEmptyEnumAllowed) && 0 == enumValueArr.length) {
 
             final String msg = "Enum class " + enumClass.getSimpleName() + " has zero values";
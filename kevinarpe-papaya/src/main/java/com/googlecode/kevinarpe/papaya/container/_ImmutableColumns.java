@@ -0,0 +1,64 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Static helpers for {@link ImmutableColumn} builders.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+// package-private
+final class _ImmutableColumns {
+
+    // Same limit as java.util.ArrayList.
+    private static final int MAX_ARRAY_LENGTH = Integer.MAX_VALUE - 8;
+
+    private _ImmutableColumns() {
+        // Empty
+    }
+
+    /**
+     * Grows capacity by 50%, like {@link java.util.ArrayList}.
+     *
+     * @param minCapacity
+     *        required capacity; negative when {@code int} overflows
+     *
+     * @throws OutOfMemoryError
+     *         if {@code minCapacity} is negative or too large for an array
+     */
+    // package-private
+    static int
+    _newCapacity(int minCapacity) {
+
+        if (minCapacity < 0 || minCapacity > MAX_ARRAY_LENGTH) {
+            throw new OutOfMemoryError("Required array length too large: " + (minCapacity & 0xFFFFFFFFL));
+        }
+        final int minCapacity2 = Math.max(minCapacity, 16);
+        final long newCapacity = minCapacity2 + (minCapacity2 >> 1);
+        final int x = (int) Math.min(newCapacity, MAX_ARRAY_LENGTH);
+        return x;
+    }
+}
@@ -0,0 +1,125 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.Arrays;
+
+/**
+ * Minimal open-addressing hash map from {@code long} keys to dense {@code int} ids.  Ids are assigned in order of
+ * first appearance: zero, one, two, etc.  This avoids one boxed key per row when grouping rows.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see ColumnTableQuery
+ */
+// package-private
+final class _LongToDenseIdMap {
+
+    private static final int EMPTY_ID = -1;
+    // Golden ratio: spreads sequential keys, e.g., row counts or dictionary codes.
+    private static final long MIX = 0x9E3779B97F4A7C15L;
+
+    private long[] keyArr;
+    private int[] idArr;
+    private int shift;
+    private int size;
+
+    _LongToDenseIdMap(int expectedSize) {
+
+        // Load factor is at most 0.5.
+        final int capacity = Math.max(16, Integer.highestOneBit(Math.min(expectedSize, 1 << 28)) << 2);
+        _init(capacity);
+        this.size = 0;
+    }
+
+    private void
+    _init(int capacity) {
+
+        this.keyArr = new long[capacity];
+        this.idArr = new int[capacity];
+        Arrays.fill(idArr, EMPTY_ID);
+        this.shift = Long.numberOfLeadingZeros(capacity - 1);
+    }
+
+    /**
+     * @return number of distinct keys, which is also the next id
+     */
+    int
+    size() {
+        return size;
+    }
+
+    /**
+     * @return existing id for {@code key}, or a new id equal to {@link #size()} (before call)
+     */
+    int
+    getOrAssignId(long key) {
+
+        int index = (int) ((key * MIX) >>> shift);
+        final int mask = keyArr.length - 1;
+        while (true) {
+
+            final int id = idArr[index];
+            if (EMPTY_ID == id) {
+                break;
+            }
+            if (keyArr[index] == key) {
+                return id;
+            }
+            index = (index + 1) & mask;
+        }
+        final int newId = size;
+        keyArr[index] = key;
+        idArr[index] = newId;
+        ++size;
+        if (2 * size > keyArr.length) {
+            _resize();
+        }
+        return newId;
+    }
+
+    private void
+    _resize() {
+
+        final long[] oldKeyArr = keyArr;
+        final int[] oldIdArr = idArr;
+        _init(2 * oldKeyArr.length);
+        final int mask = keyArr.length - 1;
+        for (int i = 0; i < oldKeyArr.length; ++i) {
+
+            final int id = oldIdArr[i];
+            if (EMPTY_ID != id) {
+                int index = (int) ((oldKeyArr[i] * MIX) >>> shift);
+                while (EMPTY_ID != idArr[index]) {
+
+                    index = (index + 1) & mask;
+                }
+                keyArr[index] = oldKeyArr[i];
+                idArr[index] = id;
+            }
+        }
+    }
+}
@@ -25,15 +25,17 @@ package com.googlecode.kevinarpe.papaya.filesystem;
  * #L%
  */
 
-import com.google.common.collect.Lists;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 import com.googlecode.kevinarpe.papaya.exception.PathException;
 import com.googlecode.kevinarpe.papaya.exception.PathRuntimeException;
 
 import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.LinkedList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 
 /**
@@ -99,7 +101,8 @@ implements TraversePathIterator {
     }
 
     private final Factory _factory;
-    private final LinkedList<TraversePathLevel> _levelList;
+    private final ArrayDeque<TraversePathLevel> _levelList;
+    private final DirectoryListingPrefetcher _optPrefetcher;
 
     AbstractTraversePathIteratorImpl(
         File dirPath,
@@ -113,6 +116,10 @@ implements TraversePathIterator {
             dirPath,
             depthPolicy,
             exceptionPolicy,
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
             optDescendDirPathFilter,
             optDescendDirPathComparator,
             optIteratePathFilter,
@@ -124,6 +131,61 @@ implements TraversePathIterator {
         File dirPath,
         TraversePathDepthPolicy depthPolicy,
         TraversePathExceptionPolicy exceptionPolicy,
+        DirectoryListingPolicy directoryListingPolicy,
+        int breadthFirstFrontierCapacity,
+        int directoryListingPrefetchCount,
+        int directoryListingPrefetchMaxPathCount,
+        PathFilter optDescendDirPathFilter,
+        Comparator<File> optDescendDirPathComparator,
+        PathFilter optIteratePathFilter,
+        Comparator<File> optIteratePathComparator) {
+        this(
+            dirPath,
+            depthPolicy,
+            exceptionPolicy,
+            directoryListingPolicy,
+            breadthFirstFrontierCapacity,
+            directoryListingPrefetchCount,
+            directoryListingPrefetchMaxPathCount,
+            optDescendDirPathFilter,
+            optDescendDirPathComparator,
+            optIteratePathFilter,
+            optIteratePathComparator,
+            FactoryImpl.INSTANCE);
+    }
+
+    AbstractTraversePathIteratorImpl(
+        File dirPath,
+        TraversePathDepthPolicy depthPolicy,
+        TraversePathExceptionPolicy exceptionPolicy,
+        PathFilter optDescendDirPathFilter,
+        Comparator<File> optDescendDirPathComparator,
+        PathFilter optIteratePathFilter,
+        Comparator<File> optIteratePathComparator,
+        Factory factory) {
+        this(
+            dirPath,
+            depthPolicy,
+            exceptionPolicy,
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
+            optDescendDirPathFilter,
+            optDescendDirPathComparator,
+            optIteratePathFilter,
+            optIteratePathComparator,
+            factory);
+    }
+
+    AbstractTraversePathIteratorImpl(
+        File dirPath,
+        TraversePathDepthPolicy depthPolicy,
+        TraversePathExceptionPolicy exceptionPolicy,
+        DirectoryListingPolicy directoryListingPolicy,
+        int breadthFirstFrontierCapacity,
+        int directoryListingPrefetchCount,
+        int directoryListingPrefetchMaxPathCount,
         PathFilter optDescendDirPathFilter,
         Comparator<File> optDescendDirPathComparator,
         PathFilter optIteratePathFilter,
@@ -133,12 +195,23 @@ implements TraversePathIterator {
             dirPath,
             depthPolicy,
             exceptionPolicy,
+            directoryListingPolicy,
+            breadthFirstFrontierCapacity,
+            directoryListingPrefetchCount,
+            directoryListingPrefetchMaxPathCount,
             optDescendDirPathFilter,
             optDescendDirPathComparator,
             optIteratePathFilter,
             optIteratePathComparator);
         _factory = ObjectArgs.checkNotNull(factory, "factory");
-        _levelList = Lists.newLinkedList();
+        _levelList = new ArrayDeque<TraversePathLevel>();
+        _optPrefetcher =
+            (0 == directoryListingPrefetchCount)
+                ? null
+                : new DirectoryListingPrefetcher(
+                    directoryListingPrefetchCount,
+                    directoryListingPrefetchMaxPathCount,
+                    directoryListingPolicy);
     }
 
     protected final TraversePathLevel tryDescendDirPath() {
@@ -180,6 +253,34 @@ implements TraversePathIterator {
     protected final TraversePathLevel tryAddLevel(File dirPath)
     throws PathRuntimeException {
         final int depth = 1 + _levelList.size();
+        TraversePathLevel level = tryNewLevel(dirPath, depth);
+        if (null != level) {
+            _levelList.add(level);
+            prefetchUpcomingDirPaths();
+            return level;
+        }
+        return null;
+    }
+
+    /**
+     * Creates a directory listing, but does not change the depth.
+     *
+     * @param dirPath
+     *        directory path to list
+     * @param depth
+     *        depth of child paths in this directory listing.  Minimum value is one.
+     *
+     * @return new level or {@code null} if directory listing throws exception and exception
+     *         policy dictates to ignore it
+     *
+     * @throws PathRuntimeException
+     *         if directory listing throws exception and exception policy dictates to
+     *         rethrow as a runtime (unchecked) exception
+     *
+     * @see #tryAddLevel(File)
+     */
+    protected final TraversePathLevel tryNewLevel(File dirPath, int depth)
+    throws PathRuntimeException {
         TraversePathLevel level = null;
         try {
             level =  _factory.newInstance(this, dirPath, depth);
@@ -189,11 +290,67 @@ implements TraversePathIterator {
                 throw new PathRuntimeException(e);
             }
         }
-        if (null != level) {
-            _levelList.add(level);
-            return level;
+        return level;
+    }
+
+    /**
+     * Retrieves a directory listing from the background prefetcher, if enabled.
+     *
+     * @param dirPath
+     *        directory path to list
+     *
+     * @return prefetched directory listing or {@code null} if the directory must be listed now
+     *
+     * @throws PathException
+     *         if the background directory listing failed
+     *
+     * @see #prefetchUpcomingDirPaths()
+     */
+    final DirectoryListing tryTakePrefetchedDirectoryListing(File dirPath)
+    throws PathException {
+        if (null == _optPrefetcher) {
+            return null;
+        }
+        DirectoryListing x = _optPrefetcher.tryTake(dirPath);
+        return x;
+    }
+
+    /**
+     * If directory listing prefetch is enabled, starts background directory listings for the next
+     * upcoming directories.  Subclasses must call this method after creating a new level.
+     *
+     * @see #addUpcomingDirPaths(List, int)
+     * @see #withDirectoryListingPrefetchCount()
+     */
+    protected final void prefetchUpcomingDirPaths() {
+        if (null != _optPrefetcher) {
+            final int prefetchCount = withDirectoryListingPrefetchCount();
+            List<File> dirPathList = new ArrayList<File>(prefetchCount);
+            addUpcomingDirPaths(dirPathList, prefetchCount);
+            _optPrefetcher.prefetch(dirPathList);
         }
-        return null;
+    }
+
+    /**
+     * Appends directories in the order they will be listed.  By default, pending descend
+     * directories from the deepest level are first, then the next deepest level, etc.
+     *
+     * @param dirPathList
+     *        output list of upcoming directories
+     * @param maxCount
+     *        stop when {@code dirPathList} has this many elements
+     */
+    protected void addUpcomingDirPaths(List<File> dirPathList, int maxCount) {
+        Iterator<TraversePathLevel> levelIter = _levelList.descendingIterator();
+        while (dirPathList.size() < maxCount && levelIter.hasNext()) {
+            TraversePathLevel level = levelIter.next();
+            level.addUpcomingDescendDirPaths(dirPathList, maxCount);
+        }
+    }
+
+    // package-private for testing
+    DirectoryListingPrefetcher getOptionalPrefetcher() {
+        return _optPrefetcher;
     }
 
     /**
@@ -263,10 +420,22 @@ implements TraversePathIterator {
      * @return number of levels below {@link #withRootDirPath()}.  Minimum value is zero.
      */
     @Override
-    public final int getDepth() {
+    public int getDepth() {
         return _levelList.size();
     }
 
+    /**
+     * Releases background threads used by directory listing prefetch, if any.
+     * <hr>
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (null != _optPrefetcher) {
+            _optPrefetcher.close();
+        }
+    }
+
     protected final void assertHasNext() {
         if (!hasNext()) {
             throw new NoSuchElementException(
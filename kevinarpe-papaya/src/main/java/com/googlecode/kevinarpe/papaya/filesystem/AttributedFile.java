@@ -0,0 +1,273 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Path with cached file attributes read once during a directory listing.  Instances are created
+ * by {@link DirectoryListingPolicy#DIRECTORY_STREAM_WITH_ATTRIBUTES}.
+ * <p>
+ * Methods {@link #cachedExists()}, {@link #cachedIsDirectory()}, {@link #cachedIsFile()},
+ * {@link #cachedLength()}, and {@link #cachedLastModified()} are answered from the cached
+ * attributes without another call to the file system.  Static methods, e.g.,
+ * {@link #cachedLength(File)}, accept any {@link File}, so {@link PathFilter}s and
+ * {@link java.util.Comparator}s may use them for all paths.  To access all cached attributes, use
+ * {@link #readAttributes(File)}.
+ * <p>
+ * Methods inherited from {@link File}, e.g., {@link #length()}, are not overridden: they always
+ * query the file system.
+ * <p>
+ * Cached attributes are a snapshot from the time of the directory listing.  If the file system
+ * changes after the listing, these values may be stale.  If attributes could not be read during
+ * the listing, e.g., a broken symbolic link, all cached methods fall back to the superclass.
+ * <p>
+ * Cached attributes are transient: after deserialization, all cached methods fall back to the
+ * superclass.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see DirectoryListingPolicy#DIRECTORY_STREAM_WITH_ATTRIBUTES
+ * @see #readAttributes(File)
+ */
+@FullyTested
+public final class AttributedFile
+extends File {
+
+    private static final long serialVersionUID = 1L;
+
+    private final transient BasicFileAttributes _optAttributes;
+
+    /**
+     * Same as {@link File#File(File, String)}, plus cached file attributes.
+     *
+     * @param parentDirPath
+     *        parent directory
+     * @param childPathName
+     *        name of child path
+     * @param optAttributes
+     *        cached file attributes.  May be {@code null} if attributes could not be read.
+     *
+     * @throws NullPointerException
+     *         if {@code childPathName} is {@code null}
+     */
+    public AttributedFile(
+            File parentDirPath, String childPathName, BasicFileAttributes optAttributes) {
+        super(parentDirPath, ObjectArgs.checkNotNull(childPathName, "childPathName"));
+        _optAttributes = optAttributes;
+    }
+
+    /**
+     * @return cached file attributes.  May be {@code null} if attributes could not be read during
+     *         the directory listing, or after deserialization.
+     */
+    public BasicFileAttributes getOptionalAttributes() {
+        return _optAttributes;
+    }
+
+    /**
+     * Retrieves the basic file attributes for a path.  If {@code path} is an instance of
+     * {@link AttributedFile} with cached attributes, these are returned immediately.  Else, the
+     * attributes are read from the file system (following symbolic links).
+     *
+     * @param path
+     *        path to query.  Must not be {@code null}.
+     *
+     * @return file attributes.  Never {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     * @throws IOException
+     *         if attributes are not cached and reading attributes fails
+     */
+    public static BasicFileAttributes readAttributes(File path)
+    throws IOException {
+        ObjectArgs.checkNotNull(path, "path");
+
+        if (path instanceof AttributedFile) {
+            BasicFileAttributes optAttributes = ((AttributedFile) path)._optAttributes;
+            if (null != optAttributes) {
+                return optAttributes;
+            }
+        }
+        BasicFileAttributes x = Files.readAttributes(path.toPath(), BasicFileAttributes.class);
+        return x;
+    }
+
+    /**
+     * Tests if a path exists.  If {@code path} is an instance of {@link AttributedFile}, this is
+     * {@link #cachedExists()}.  Else, this is {@link File#exists()}.
+     *
+     * @param path
+     *        path to query.  Must not be {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     */
+    public static boolean cachedExists(File path) {
+        ObjectArgs.checkNotNull(path, "path");
+
+        if (path instanceof AttributedFile) {
+            return ((AttributedFile) path).cachedExists();
+        }
+        return path.exists();
+    }
+
+    /**
+     * Tests if a path is a directory.  If {@code path} is an instance of {@link AttributedFile},
+     * this is {@link #cachedIsDirectory()}.  Else, this is {@link File#isDirectory()}.
+     *
+     * @param path
+     *        path to query.  Must not be {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     */
+    public static boolean cachedIsDirectory(File path) {
+        ObjectArgs.checkNotNull(path, "path");
+
+        if (path instanceof AttributedFile) {
+            return ((AttributedFile) path).cachedIsDirectory();
+        }
+        return path.isDirectory();
+    }
+
+    /**
+     * Tests if a path is a normal file.  If {@code path} is an instance of {@link AttributedFile},
+     * this is {@link #cachedIsFile()}.  Else, this is {@link File#isFile()}.
+     *
+     * @param path
+     *        path to query.  Must not be {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     */
+    public static boolean cachedIsFile(File path) {
+        ObjectArgs.checkNotNull(path, "path");
+
+        if (path instanceof AttributedFile) {
+            return ((AttributedFile) path).cachedIsFile();
+        }
+        return path.isFile();
+    }
+
+    /**
+     * Retrieves the length of a path.  If {@code path} is an instance of {@link AttributedFile},
+     * this is {@link #cachedLength()}.  Else, this is {@link File#length()}.
+     *
+     * @param path
+     *        path to query.  Must not be {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     */
+    public static long cachedLength(File path) {
+        ObjectArgs.checkNotNull(path, "path");
+
+        if (path instanceof AttributedFile) {
+            return ((AttributedFile) path).cachedLength();
+        }
+        return path.length();
+    }
+
+    /**
+     * Retrieves the last modified time of a path.  If {@code path} is an instance of
+     * {@link AttributedFile}, this is {@link #cachedLastModified()}.  Else, this is
+     * {@link File#lastModified()}.
+     *
+     * @param path
+     *        path to query.  Must not be {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     */
+    public static long cachedLastModified(File path) {
+        ObjectArgs.checkNotNull(path, "path");
+
+        if (path instanceof AttributedFile) {
+            return ((AttributedFile) path).cachedLastModified();
+        }
+        return path.lastModified();
+    }
+
+    /**
+     * Same as {@link #exists()}, but answered from cached attributes, if available.
+     *
+     * @return {@code true} if attributes are cached
+     */
+    public boolean cachedExists() {
+        if (null != _optAttributes) {
+            return true;
+        }
+        return exists();
+    }
+
+    /**
+     * Same as {@link #isDirectory()}, but answered from cached attributes, if available.
+     */
+    public boolean cachedIsDirectory() {
+        if (null != _optAttributes) {
+            return _optAttributes.isDirectory();
+        }
+        return isDirectory();
+    }
+
+    /**
+     * Same as {@link #isFile()}, but answered from cached attributes, if available.
+     */
+    public boolean cachedIsFile() {
+        if (null != _optAttributes) {
+            return _optAttributes.isRegularFile();
+        }
+        return isFile();
+    }
+
+    /**
+     * Same as {@link #length()}, but answered from cached attributes, if available.
+     */
+    public long cachedLength() {
+        if (null != _optAttributes) {
+            return _optAttributes.size();
+        }
+        return length();
+    }
+
+    /**
+     * Same as {@link #lastModified()}, but answered from cached attributes, if available.
+     */
+    public long cachedLastModified() {
+        if (null != _optAttributes) {
+            return _optAttributes.lastModifiedTime().toMillis();
+        }
+        return lastModified();
+    }
+}
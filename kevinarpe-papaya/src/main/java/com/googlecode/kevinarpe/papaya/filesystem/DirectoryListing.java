@@ -30,6 +30,8 @@ import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 import com.googlecode.kevinarpe.papaya.argument.PathArgs;
 import com.googlecode.kevinarpe.papaya.compare.ComparatorUtils;
+import com.googlecode.kevinarpe.papaya.compare.KeyComparator;
+import com.googlecode.kevinarpe.papaya.compare.LongKeyComparator;
 import com.googlecode.kevinarpe.papaya.container.ContainerFactory;
 import com.googlecode.kevinarpe.papaya.container.ContainerFactoryImpl;
 import com.googlecode.kevinarpe.papaya.exception.PathException;
@@ -44,9 +46,7 @@ import com.googlecode.kevinarpe.papaya.filesystem.compare.FileTypeComparator;
 import java.io.File;
 import java.io.FileFilter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
@@ -66,6 +66,9 @@ import java.util.RandomAccess;
  *     <li>{@link FileSizeSmallestToLargestComparator}</li>
  *     <li>{@link FileTypeComparator}</li>
  * </ul>
+ * <p>
+ * To read file attributes only once per child path, see
+ * {@link DirectoryListingPolicy#DIRECTORY_STREAM_WITH_ATTRIBUTES}.
  *
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  */
@@ -83,6 +86,15 @@ public final class DirectoryListing {
     @SuppressWarnings("rawtypes")
 	public static final Class<? extends List> DEFAULT_LIST_CLASS = ArrayList.class;
 
+    /**
+     * Default {@link DirectoryListingPolicy} for constructor
+     * {@link #DirectoryListing(File, Class)}: {@link DirectoryListingPolicy#LIST_FILES}.
+     *
+     * @see #DirectoryListing(File, Class, DirectoryListingPolicy)
+     */
+    public static final DirectoryListingPolicy DEFAULT_DIRECTORY_LISTING_POLICY =
+        DirectoryListingPolicy.LIST_FILES;
+
     private final File _dirPath;
     private List<File> _childPathList;
 
@@ -122,50 +134,92 @@ public final class DirectoryListing {
      *         if calling method {@link Class#newInstance()} fails for {@code listClass}
      *
      * @see #DirectoryListing(File)
+     * @see #DirectoryListing(File, Class, DirectoryListingPolicy)
      * @see #DEFAULT_LIST_CLASS
      * @see #getDirPath()
      * @see #getChildPathList()
      */
     public DirectoryListing(File dirPath, Class<? extends List> listClass)
+    throws PathException {
+        this(dirPath, listClass, DEFAULT_DIRECTORY_LISTING_POLICY);
+    }
+
+    /**
+     * Builds a list of child paths for a directory.  Access the list of child paths via
+     * {@link #getChildPathList()}.
+     *
+     * @param dirPath
+     *        path to directory used to obtain a listing of child paths
+     * @param listClass
+     *        controls the {@link List} class used internally.  If filtering a large list of paths,
+     *        it will be more efficient to use {@code LinkedList.class}.
+     * @param directoryListingPolicy
+     *        controls how child paths are read.  To cache file attributes for each child path, use
+     *        {@link DirectoryListingPolicy#DIRECTORY_STREAM_WITH_ATTRIBUTES}.
+     *
+     * @throws NullPointerException
+     *         if {@code path}, {@code listClass}, or {@code directoryListingPolicy} is {@code null}
+     * @throws PathException
+     *         see {@link #DirectoryListing(File, Class)}
+     * @throws IllegalArgumentException
+     *         if calling method {@link Class#newInstance()} fails for {@code listClass}
+     *
+     * @see #DirectoryListing(File, Class)
+     * @see #DEFAULT_DIRECTORY_LISTING_POLICY
+     */
+    // Raw type matches DEFAULT_LIST_CLASS and constructor DirectoryListing(File, Class).
+    @SuppressWarnings("rawtypes")
+    public DirectoryListing(
+            File dirPath,
+            Class<? extends List> listClass,
+            DirectoryListingPolicy directoryListingPolicy)
     throws PathException {
         _dirPath = PathArgs.checkDirectoryExists(dirPath, "dirPath");
         ObjectArgs.checkNotNull(listClass, "listClass");
+        ObjectArgs.checkNotNull(directoryListingPolicy, "directoryListingPolicy");
 
-        File[] childPathArr = dirPath.listFiles();
-        if (null == childPathArr) {
-            if (!dirPath.exists()) {
-                String msg = String.format(
-                    "Failed to list files for path (does not exist): '%s'",
-                    dirPath.getAbsolutePath());
-                throw new PathException(
-                    PathExceptionReason.PATH_DOES_NOT_EXIST, dirPath, null, msg);
-            }
-            if (dirPath.isFile()) {
-                String msg = String.format(
-                    "Failed to list files for path (exists as file, not directory): '%s'",
-                    dirPath.getAbsolutePath());
-                throw new PathException(
-                    PathExceptionReason.PATH_IS_NORMAL_FILE, dirPath, null, msg);
-            }
-            // Exists + Directory...
-            if (!dirPath.canExecute()) {
-                String msg = String.format(
-                    "Failed to list files for path (execute permission not set): '%s'",
-                    dirPath.getAbsolutePath());
-                throw new PathException(
-                    PathExceptionReason.PATH_IS_NON_EXECUTABLE_DIRECTORY,
-                    dirPath, null, msg);
-            }
+        _childPathList = _newInstance(ContainerFactoryImpl.INSTANCE, listClass);
+        directoryListingPolicy.addChildPaths(dirPath, _childPathList);
+    }
+
+    /**
+     * Diagnoses a failed directory listing.
+     *
+     * @param dirPath
+     *        directory that failed to list
+     * @param optCause
+     *        optional underlying cause.  May be {@code null}.
+     *
+     * @return new exception with the most specific reason available
+     */
+    static PathException newPathException(File dirPath, Throwable optCause) {
+        if (!dirPath.exists()) {
             String msg = String.format(
-                "Failed to list files for path (unknown error): '%s'",
+                "Failed to list files for path (does not exist): '%s'",
                 dirPath.getAbsolutePath());
-            throw new PathException(PathExceptionReason.UNKNOWN, dirPath, null, msg);
+            return new PathException(
+                PathExceptionReason.PATH_DOES_NOT_EXIST, dirPath, null, msg, optCause);
         }
-
-        _childPathList = _newInstance(ContainerFactoryImpl.INSTANCE, listClass);
-        if (0 != childPathArr.length) {
-            _childPathList.addAll(Arrays.asList(childPathArr));
+        if (dirPath.isFile()) {
+            String msg = String.format(
+                "Failed to list files for path (exists as file, not directory): '%s'",
+                dirPath.getAbsolutePath());
+            return new PathException(
+                PathExceptionReason.PATH_IS_NORMAL_FILE, dirPath, null, msg, optCause);
         }
+        // Exists + Directory...
+        if (!dirPath.canExecute()) {
+            String msg = String.format(
+                "Failed to list files for path (execute permission not set): '%s'",
+                dirPath.getAbsolutePath());
+            return new PathException(
+                PathExceptionReason.PATH_IS_NON_EXECUTABLE_DIRECTORY,
+                dirPath, null, msg, optCause);
+        }
+        String msg = String.format(
+            "Failed to list files for path (unknown error): '%s'",
+            dirPath.getAbsolutePath());
+        return new PathException(PathExceptionReason.UNKNOWN, dirPath, null, msg, optCause);
     }
 
     /**
@@ -251,6 +305,15 @@ public final class DirectoryListing {
      * <p>
      * To combine more than one comparator, consider using
      * {@link ComparatorUtils#chain(Collection)}.
+     * <p>
+     * If {@code fileComparator} implements {@link LongKeyComparator} or {@link KeyComparator}, the
+     * sort key for each path is computed exactly once, rather than once per comparison.  For
+     * large listings, this avoids millions of system calls or regular expression matches.  The
+     * file comparators {@link FileLastModifiedOldestToNewestComparator},
+     * {@link FileSizeSmallestToLargestComparator}, and
+     * {@link FileNameNumericPrefixSmallestToLargestComparator} use this optimisation.  When paths
+     * are listed with {@link DirectoryListingPolicy#DIRECTORY_STREAM_WITH_ATTRIBUTES}, file
+     * attributes are already cached, so computing sort keys requires no further system calls.
      *
      * @param fileComparator
      *        how to sort paths.  Must not be {@code null}.  See {@link DirectoryListing class docs}
@@ -264,11 +327,12 @@ public final class DirectoryListing {
      * @see #DirectoryListing(DirectoryListing)
      * @see #DirectoryListing(DirectoryListing, Class)
      * @see #filter(FileFilter)
+     * @see ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)
      */
     public DirectoryListing sort(Comparator<File> fileComparator) {
         ObjectArgs.checkNotNull(fileComparator, "fileComparator");
 
-        Collections.sort(_childPathList, fileComparator);
+        ComparatorUtils.sortWithPrecomputedKeys(_childPathList, fileComparator);
         return this;
     }
 
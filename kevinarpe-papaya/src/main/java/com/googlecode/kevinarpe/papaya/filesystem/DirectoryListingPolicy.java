@@ -0,0 +1,124 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Controls how {@link DirectoryListing} reads the child paths of a directory.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see DirectoryListing#DirectoryListing(File, Class, DirectoryListingPolicy)
+ * @see TraversePathIterable#withDirectoryListingPolicy(DirectoryListingPolicy)
+ */
+@FullyTested
+public enum DirectoryListingPolicy {
+
+    /**
+     * Use {@link File#listFiles()}.  No file attributes are read during the listing, so each call
+     * to methods like {@link File#isDirectory()} or {@link File#lastModified()} queries the file
+     * system again.  This is the default.
+     *
+     * @see #DIRECTORY_STREAM_WITH_ATTRIBUTES
+     */
+    LIST_FILES {
+        @Override
+        void addChildPaths(File dirPath, List<File> childPathList)
+        throws PathException {
+            File[] childPathArr = dirPath.listFiles();
+            if (null == childPathArr) {
+                throw DirectoryListing.newPathException(dirPath, (Throwable) null);
+            }
+            if (0 != childPathArr.length) {
+                childPathList.addAll(Arrays.asList(childPathArr));
+            }
+        }
+    },
+
+    /**
+     * Use {@link Files#newDirectoryStream(Path)}, then read {@link BasicFileAttributes} exactly
+     * once for each child path (following symbolic links).  Each child path is an instance of
+     * {@link AttributedFile}, so later filters and comparators do not query the file system again.
+     * <p>
+     * Recommended for large directory trees, or when filters or comparators inspect file type,
+     * size, or last modified time.
+     *
+     * @see #LIST_FILES
+     * @see AttributedFile#readAttributes(File)
+     */
+    DIRECTORY_STREAM_WITH_ATTRIBUTES {
+        @Override
+        void addChildPaths(File dirPath, List<File> childPathList)
+        throws PathException {
+            try (DirectoryStream<Path> dirStream = Files.newDirectoryStream(dirPath.toPath())) {
+                for (Path childPath : dirStream) {
+                    BasicFileAttributes optAttributes = _tryReadAttributes(childPath);
+                    String childPathName = childPath.getFileName().toString();
+                    childPathList.add(new AttributedFile(dirPath, childPathName, optAttributes));
+                }
+            }
+            catch (IOException e) {
+                throw DirectoryListing.newPathException(dirPath, e);
+            }
+            catch (DirectoryIteratorException e) {
+                throw DirectoryListing.newPathException(dirPath, e.getCause());
+            }
+        }
+
+        private BasicFileAttributes _tryReadAttributes(Path childPath) {
+            try {
+                BasicFileAttributes x = Files.readAttributes(childPath, BasicFileAttributes.class);
+                return x;
+            }
+            catch (IOException e) {
+                // Example: Broken symbolic link or path removed after listing.
+                // Cached methods of AttributedFile will fall back to java.io.File methods.
+                return null;
+            }
+        }
+    };
+
+    /**
+     * Appends all child paths of {@code dirPath} to {@code childPathList}.
+     *
+     * @throws PathException
+     *         if directory listing fails
+     */
+    abstract void addChildPaths(File dirPath, List<File> childPathList)
+    throws PathException;
+}
@@ -0,0 +1,295 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+
+import java.io.Closeable;
+import java.io.File;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lists upcoming directories on background threads so that a path iterator does not stall on
+ * high-latency storage.  The iterator offers its next pending directories via
+ * {@link #prefetch(List)}, then asks for each listing via {@link #tryTake(File)} when it reaches
+ * the directory.  If a listing was not prefetched, the iterator lists the directory itself, so
+ * iteration order never depends upon this class.
+ * <p>
+ * Memory is bounded by a budget of child paths held by completed listings that are not yet
+ * taken.  A completed listing that would exceed the budget is discarded.
+ * <p>
+ * This class is not thread-safe: only the iterator thread may call its methods.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see TraversePathIterable#withDirectoryListingPrefetch(int, int)
+ */
+@FullyTested
+final class DirectoryListingPrefetcher
+implements Closeable {
+
+    static final int MAX_THREAD_COUNT = 8;
+
+    private static final long THREAD_KEEP_ALIVE_MILLIS = 1000;
+    private static final AtomicInteger _nextPrefetcherId = new AtomicInteger(1);
+
+    private final int _prefetchCount;
+    private final int _maxPathCount;
+    private final DirectoryListingPolicy _directoryListingPolicy;
+    private final Map<File, Future<DirectoryListing>> _dirPathToFutureMap;
+    // Sum of child path counts for completed listings not yet taken.  Updated by worker threads.
+    private final AtomicInteger _pathCount;
+    private ThreadPoolExecutor _optExecutor;
+    private long _hitCount;
+    private long _missCount;
+    private final AtomicInteger _discardCount;
+    private boolean _isClosed;
+
+    /**
+     * @param prefetchCount
+     *        maximum number of directory listings pending or held at any time.  Must be positive.
+     * @param maxPathCount
+     *        maximum number of child paths held by completed listings.  Must be positive.
+     * @param directoryListingPolicy
+     *        how to read directory listings.  Must not be {@code null}.
+     */
+    DirectoryListingPrefetcher(
+            int prefetchCount, int maxPathCount, DirectoryListingPolicy directoryListingPolicy) {
+        _prefetchCount = IntArgs.checkPositive(prefetchCount, "prefetchCount");
+        _maxPathCount = IntArgs.checkPositive(maxPathCount, "maxPathCount");
+        _directoryListingPolicy =
+            ObjectArgs.checkNotNull(directoryListingPolicy, "directoryListingPolicy");
+        _dirPathToFutureMap = new HashMap<File, Future<DirectoryListing>>();
+        _pathCount = new AtomicInteger(0);
+        _optExecutor = null;
+        _hitCount = 0;
+        _missCount = 0;
+        _discardCount = new AtomicInteger(0);
+        _isClosed = false;
+    }
+
+    /**
+     * Starts background directory listings for upcoming directories, in order, until the number
+     * of pending and held listings reaches the prefetch count, or the memory budget is full.
+     * Directories already pending are skipped.  After {@link #close()}, this method does nothing.
+     *
+     * @param dirPathList
+     *        upcoming directories in iteration order
+     */
+    void prefetch(List<File> dirPathList) {
+        if (_isClosed) {
+            return;
+        }
+        for (final File dirPath : dirPathList) {
+            if (_dirPathToFutureMap.size() >= _prefetchCount || _pathCount.get() >= _maxPathCount) {
+                return;
+            }
+            if (!_dirPathToFutureMap.containsKey(dirPath)) {
+                Future<DirectoryListing> future = _getExecutor().submit(new _ListTask(dirPath));
+                _dirPathToFutureMap.put(dirPath, future);
+            }
+        }
+    }
+
+    private final class _ListTask
+    implements Callable<DirectoryListing> {
+
+        private final File _dirPath;
+
+        private _ListTask(File dirPath) {
+            _dirPath = dirPath;
+        }
+
+        @Override
+        public DirectoryListing call()
+        throws PathException {
+            DirectoryListing dirListing =
+                new DirectoryListing(
+                    _dirPath,
+                    TraversePathLevel.DEFAULT_DIRECTORY_LISTING_LIST_CLASS,
+                    _directoryListingPolicy);
+            final int size = dirListing.getChildPathList().size();
+            if (_pathCount.addAndGet(size) > _maxPathCount) {
+                _pathCount.addAndGet(-size);
+                _discardCount.incrementAndGet();
+                return null;
+            }
+            return dirListing;
+        }
+    }
+
+    private ThreadPoolExecutor _getExecutor() {
+        if (null == _optExecutor) {
+            final int threadCount = Math.min(_prefetchCount, MAX_THREAD_COUNT);
+            final String threadNamePrefix = String.format("%s-%d-",
+                getClass().getSimpleName(), _nextPrefetcherId.getAndIncrement());
+            _optExecutor =
+                new ThreadPoolExecutor(
+                    threadCount,
+                    threadCount,
+                    THREAD_KEEP_ALIVE_MILLIS,
+                    TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<Runnable>(),
+                    new ThreadFactory() {
+
+                        private final AtomicInteger _nextThreadId = new AtomicInteger(1);
+
+                        @Override
+                        public Thread newThread(Runnable r) {
+                            Thread thread =
+                                new Thread(r, threadNamePrefix + _nextThreadId.getAndIncrement());
+                            thread.setDaemon(true);
+                            return thread;
+                        }
+                    });
+            // Idle iterators should not hold threads.
+            _optExecutor.allowCoreThreadTimeOut(true);
+        }
+        return _optExecutor;
+    }
+
+    /**
+     * Retrieves a prefetched directory listing.  If the listing is still running, this method
+     * waits for it to complete.  If the listing has not yet started, it is cancelled, as the
+     * caller can list the directory sooner itself.
+     *
+     * @param dirPath
+     *        directory to list
+     *
+     * @return prefetched directory listing, or {@code null} if the caller must list the directory
+     *
+     * @throws PathException
+     *         if the background directory listing failed
+     */
+    DirectoryListing tryTake(File dirPath)
+    throws PathException {
+        final Future<DirectoryListing> optFuture = _dirPathToFutureMap.remove(dirPath);
+        if (null == optFuture || optFuture.cancel(false)) {
+            ++_missCount;
+            return null;
+        }
+        final DirectoryListing optDirListing;
+        try {
+            optDirListing = optFuture.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            ++_missCount;
+            return null;
+        }
+        catch (ExecutionException e) {
+            ++_hitCount;
+            final Throwable cause = e.getCause();
+            if (cause instanceof PathException) {
+                throw (PathException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw (Error) cause;
+        }
+        if (null == optDirListing) {
+            // Discarded due to memory budget
+            ++_missCount;
+            return null;
+        }
+        _pathCount.addAndGet(-optDirListing.getChildPathList().size());
+        ++_hitCount;
+        return optDirListing;
+    }
+
+    // package-private for testing
+    boolean isDone(File dirPath) {
+        Future<DirectoryListing> optFuture = _dirPathToFutureMap.get(dirPath);
+        boolean x = (null != optFuture && optFuture.isDone());
+        return x;
+    }
+
+    /**
+     * @return number of directory listings pending or held
+     */
+    int getPendingCount() {
+        return _dirPathToFutureMap.size();
+    }
+
+    /**
+     * @return number of child paths held by completed listings not yet taken
+     */
+    int getPathCount() {
+        return _pathCount.get();
+    }
+
+    /**
+     * @return number of calls to {@link #tryTake(File)} satisfied by a background listing
+     */
+    long getHitCount() {
+        return _hitCount;
+    }
+
+    /**
+     * @return number of calls to {@link #tryTake(File)} where the caller must list the directory
+     */
+    long getMissCount() {
+        return _missCount;
+    }
+
+    /**
+     * @return number of completed listings discarded due to the memory budget
+     */
+    int getDiscardCount() {
+        return _discardCount.get();
+    }
+
+    /**
+     * Cancels all pending directory listings and releases background threads.  This method may
+     * be called more than once.
+     */
+    @Override
+    public void close() {
+        for (Future<DirectoryListing> future : _dirPathToFutureMap.values()) {
+            future.cancel(false);
+        }
+        _dirPathToFutureMap.clear();
+        if (null != _optExecutor) {
+            _optExecutor.shutdownNow();
+            _optExecutor = null;
+        }
+        _isClosed = true;
+    }
+}
@@ -0,0 +1,670 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.LongArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Finds groups of files with identical content among the paths of a {@link TraversePathIterable}.
+ * <p>
+ * Files are narrowed down in three stages, so most files are never read in full:
+ * <ol>
+ *   <li>Group regular files by size.  Files with a unique size cannot have duplicates.</li>
+ *   <li>Hash the first and last block of each remaining file, and group by size and hash.</li>
+ *   <li>Hash the full content of each remaining file via sequential reads into a reused buffer,
+ *   and group by size and hash.</li>
+ * </ol>
+ * <p>
+ * Stages two and three run on a thread pool.  Files no larger than two blocks skip stage three,
+ * as stage two already read all content.  At most {@link #IN_FLIGHT_TASK_COUNT_PER_THREAD} hash
+ * tasks per thread are submitted at once, so memory does not grow with the number of candidate
+ * files.
+ * <p>
+ * Files that cannot be read, including files truncated by another process during the search,
+ * are skipped and counted by {@link DuplicateFileFinderResult#getSkippedFileCount()}.  Hard links
+ * to the same file are reported as duplicates.
+ * <p>
+ * Instances are immutable.  Methods starting with {@code with} and taking a parameter return a
+ * <b>new</b> instance.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see #find(TraversePathIterable)
+ * @see #find(TraversePathIterable, ExecutorService)
+ */
+@FullyTested
+public final class DuplicateFileFinder {
+
+    /**
+     * Default number of bytes read from the start and end of each file in stage two: 4 KiB
+     *
+     * @see #withBlockByteCount(int)
+     */
+    public static final int DEFAULT_BLOCK_BYTE_COUNT = 4 * 1024;
+
+    /**
+     * Default minimum file size: 1 byte.  Empty files are ignored by default, as they are
+     * trivially identical.
+     *
+     * @see #withMinFileSize(long)
+     */
+    public static final long DEFAULT_MIN_FILE_SIZE = 1L;
+
+    /**
+     * Default hash function: SHA-256
+     *
+     * @see #withHashFunction(HashFunction)
+     */
+    public static final HashFunction DEFAULT_HASH_FUNCTION = Hashing.sha256();
+
+    /**
+     * Number of hash tasks submitted, but not yet consumed, per thread: 2.  While one task runs,
+     * the next is queued, so threads never wait for the caller to submit more work.
+     */
+    public static final int IN_FLIGHT_TASK_COUNT_PER_THREAD = 2;
+
+    /**
+     * Bytes read at once when hashing a full file: 256 KiB.  Buffers are reused by later tasks.
+     */
+    static final int READ_BUFFER_BYTE_COUNT = 256 * 1024;
+
+    private static final AtomicInteger _nextFinderId = new AtomicInteger(1);
+
+    private final int _blockByteCount;
+    private final long _minFileSize;
+    private final int _threadCount;
+    private final HashFunction _hashFunction;
+
+    /**
+     * Constructs a new instance with default settings.  The thread count defaults to
+     * {@link Runtime#availableProcessors()}.
+     */
+    public DuplicateFileFinder() {
+        this(
+            DEFAULT_BLOCK_BYTE_COUNT,
+            DEFAULT_MIN_FILE_SIZE,
+            Runtime.getRuntime().availableProcessors(),
+            DEFAULT_HASH_FUNCTION);
+    }
+
+    private DuplicateFileFinder(
+            int blockByteCount, long minFileSize, int threadCount, HashFunction hashFunction) {
+        _blockByteCount = blockByteCount;
+        _minFileSize = minFileSize;
+        _threadCount = threadCount;
+        _hashFunction = hashFunction;
+    }
+
+    /**
+     * Constructs a <b>new</b> instance from the current, replacing the block size for partial
+     * hashes.
+     *
+     * @param blockByteCount
+     *        bytes read from the start and end of each file.  Must be positive.
+     *
+     * @return <b>new</b> instance
+     *
+     * @throws IllegalArgumentException
+     *         if {@code blockByteCount} is not positive
+     *
+     * @see #DEFAULT_BLOCK_BYTE_COUNT
+     */
+    public DuplicateFileFinder withBlockByteCount(int blockByteCount) {
+        IntArgs.checkPositive(blockByteCount, "blockByteCount");
+
+        DuplicateFileFinder x =
+            new DuplicateFileFinder(blockByteCount, _minFileSize, _threadCount, _hashFunction);
+        return x;
+    }
+
+    /**
+     * @return bytes read from the start and end of each file for partial hashes
+     *
+     * @see #withBlockByteCount(int)
+     */
+    public int withBlockByteCount() {
+        return _blockByteCount;
+    }
+
+    /**
+     * Constructs a <b>new</b> instance from the current, replacing the minimum file size.
+     *
+     * @param minFileSize
+     *        smaller files are ignored.  Must not be negative.
+     *
+     * @return <b>new</b> instance
+     *
+     * @throws IllegalArgumentException
+     *         if {@code minFileSize} is negative
+     *
+     * @see #DEFAULT_MIN_FILE_SIZE
+     */
+    public DuplicateFileFinder withMinFileSize(long minFileSize) {
+        LongArgs.checkNotNegative(minFileSize, "minFileSize");
+
+        DuplicateFileFinder x =
+            new DuplicateFileFinder(_blockByteCount, minFileSize, _threadCount, _hashFunction);
+        return x;
+    }
+
+    /**
+     * @return smaller files are ignored
+     *
+     * @see #withMinFileSize(long)
+     */
+    public long withMinFileSize() {
+        return _minFileSize;
+    }
+
+    /**
+     * Constructs a <b>new</b> instance from the current, replacing the number of threads used by
+     * {@link #find(TraversePathIterable)}.
+     *
+     * @param threadCount
+     *        number of hashing threads.  Must be positive.
+     *
+     * @return <b>new</b> instance
+     *
+     * @throws IllegalArgumentException
+     *         if {@code threadCount} is not positive
+     */
+    public DuplicateFileFinder withThreadCount(int threadCount) {
+        IntArgs.checkPositive(threadCount, "threadCount");
+
+        DuplicateFileFinder x =
+            new DuplicateFileFinder(_blockByteCount, _minFileSize, threadCount, _hashFunction);
+        return x;
+    }
+
+    /**
+     * @return number of hashing threads used by {@link #find(TraversePathIterable)}
+     *
+     * @see #withThreadCount(int)
+     */
+    public int withThreadCount() {
+        return _threadCount;
+    }
+
+    /**
+     * Constructs a <b>new</b> instance from the current, replacing the hash function.  A faster,
+     * non-cryptographic function, e.g., {@link Hashing#murmur3_128()}, may be used if the file
+     * set is trusted.
+     *
+     * @param hashFunction
+     *        hash function for partial and full hashes.  Must not be {@code null}.
+     *
+     * @return <b>new</b> instance
+     *
+     * @throws NullPointerException
+     *         if {@code hashFunction} is {@code null}
+     *
+     * @see #DEFAULT_HASH_FUNCTION
+     */
+    public DuplicateFileFinder withHashFunction(HashFunction hashFunction) {
+        ObjectArgs.checkNotNull(hashFunction, "hashFunction");
+
+        DuplicateFileFinder x =
+            new DuplicateFileFinder(_blockByteCount, _minFileSize, _threadCount, hashFunction);
+        return x;
+    }
+
+    /**
+     * @return hash function for partial and full hashes
+     *
+     * @see #withHashFunction(HashFunction)
+     */
+    public HashFunction withHashFunction() {
+        return _hashFunction;
+    }
+
+    /**
+     * Finds duplicate files using a new thread pool of {@link #withThreadCount()} threads.  The
+     * pool is shut down before this method returns.
+     *
+     * @param iterable
+     *        paths to consider.  Directories and other non-regular files are ignored.  Must not be
+     *        {@code null}.
+     *
+     * @return duplicate groups and statistics
+     *
+     * @throws NullPointerException
+     *         if {@code iterable} is {@code null}
+     * @throws InterruptedException
+     *         if interrupted while waiting for hashes
+     *
+     * @see #find(TraversePathIterable, ExecutorService)
+     */
+    public DuplicateFileFinderResult find(TraversePathIterable iterable)
+    throws InterruptedException {
+        ObjectArgs.checkNotNull(iterable, "iterable");
+
+        final String threadNamePrefix = String.format("%s-%d-",
+            getClass().getSimpleName(), _nextFinderId.getAndIncrement());
+        ExecutorService executorService =
+            Executors.newFixedThreadPool(
+                _threadCount,
+                new ThreadFactory() {
+
+                    private final AtomicInteger _nextThreadId = new AtomicInteger(1);
+
+                    @Override
+                    public Thread newThread(Runnable r) {
+                        Thread thread =
+                            new Thread(r, threadNamePrefix + _nextThreadId.getAndIncrement());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        try {
+            DuplicateFileFinderResult x = find(iterable, executorService);
+            return x;
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Finds duplicate files using a caller-provided thread pool.  Traversal runs on the calling
+     * thread; hashing runs on {@code executorService}.
+     *
+     * @param iterable
+     *        paths to consider.  Directories and other non-regular files are ignored.  Must not be
+     *        {@code null}.
+     * @param executorService
+     *        runs hashing tasks.  Must not be {@code null}.  Not shut down by this method.
+     *
+     * @return duplicate groups and statistics
+     *
+     * @throws NullPointerException
+     *         if {@code iterable} or {@code executorService} is {@code null}
+     * @throws InterruptedException
+     *         if interrupted while waiting for hashes
+     *
+     * @see #find(TraversePathIterable)
+     */
+    public DuplicateFileFinderResult find(
+            TraversePathIterable iterable, ExecutorService executorService)
+    throws InterruptedException {
+        ObjectArgs.checkNotNull(iterable, "iterable");
+        ObjectArgs.checkNotNull(executorService, "executorService");
+
+        _Stats stats = new _Stats();
+        // Stage 1: Group by size
+        Map<Long, List<File>> sizeToPathListMap = new HashMap<Long, List<File>>();
+        for (File path : iterable) {
+            final BasicFileAttributes attrs;
+            try {
+                attrs = AttributedFile.readAttributes(path);
+            }
+            catch (IOException e) {
+                stats.skippedFileCount.incrementAndGet();
+                continue;
+            }
+            if (attrs.isRegularFile() && attrs.size() >= _minFileSize) {
+                ++stats.fileCount;
+                List<File> pathList = sizeToPathListMap.get(attrs.size());
+                if (null == pathList) {
+                    pathList = new ArrayList<File>(2);
+                    sizeToPathListMap.put(attrs.size(), pathList);
+                }
+                pathList.add(path);
+            }
+        }
+        final long startNanos = System.nanoTime();
+        // Stage 2: Group by size and hash of first and last blocks
+        List<_Candidate> partialCandidateList = new ArrayList<_Candidate>();
+        for (Map.Entry<Long, List<File>> mapEntry : sizeToPathListMap.entrySet()) {
+            _addCandidates(partialCandidateList, mapEntry.getKey(), mapEntry.getValue());
+        }
+        sizeToPathListMap = null;
+        stats.partialHashFileCount = partialCandidateList.size();
+        Map<_GroupKey, List<File>> partialGroupMap =
+            _hashAll(partialCandidateList, _HashType.PARTIAL, executorService, stats);
+        partialCandidateList = null;
+
+        // Stage 3: Group by size and hash of full content
+        List<DuplicateFileGroup> groupList = new ArrayList<DuplicateFileGroup>();
+        List<_Candidate> fullCandidateList = new ArrayList<_Candidate>();
+        for (Map.Entry<_GroupKey, List<File>> mapEntry : partialGroupMap.entrySet()) {
+            final _GroupKey key = mapEntry.getKey();
+            if (_isPartialHashFull(key.fileSize)) {
+                _addGroup(groupList, key, mapEntry.getValue());
+            }
+            else {
+                _addCandidates(fullCandidateList, key.fileSize, mapEntry.getValue());
+            }
+        }
+        partialGroupMap = null;
+        stats.fullHashFileCount = fullCandidateList.size();
+        Map<_GroupKey, List<File>> fullGroupMap =
+            _hashAll(fullCandidateList, _HashType.FULL, executorService, stats);
+        for (Map.Entry<_GroupKey, List<File>> mapEntry : fullGroupMap.entrySet()) {
+            _addGroup(groupList, mapEntry.getKey(), mapEntry.getValue());
+        }
+        final long hashNanos = System.nanoTime() - startNanos;
+
+        Collections.sort(groupList, GROUP_COMPARATOR);
+        DuplicateFileFinderResult x =
+            new DuplicateFileFinderResult(
+                groupList,
+                stats.fileCount,
+                stats.partialHashFileCount,
+                stats.fullHashFileCount,
+                stats.skippedFileCount.get(),
+                stats.hashedByteCount.get(),
+                hashNanos);
+        return x;
+    }
+
+    private static final Comparator<DuplicateFileGroup> GROUP_COMPARATOR =
+        new Comparator<DuplicateFileGroup>() {
+            @Override
+            public int compare(DuplicateFileGroup o1, DuplicateFileGroup o2) {
+                int x = Long.compare(o2.getWastedByteCount(), o1.getWastedByteCount());
+                if (0 == x) {
+                    x = o1.getPathList().get(0).compareTo(o2.getPathList().get(0));
+                }
+                return x;
+            }
+        };
+
+    private boolean _isPartialHashFull(long fileSize) {
+        boolean x = (fileSize <= 2L * _blockByteCount);
+        return x;
+    }
+
+    private static void _addCandidates(
+            List<_Candidate> candidateList, long fileSize, List<File> pathList) {
+        if (pathList.size() >= 2) {
+            for (File path : pathList) {
+                candidateList.add(new _Candidate(path, fileSize));
+            }
+        }
+    }
+
+    private static void _addGroup(
+            List<DuplicateFileGroup> groupList, _GroupKey key, List<File> pathList) {
+        if (pathList.size() >= 2) {
+            List<File> sortedPathList = new ArrayList<File>(pathList);
+            Collections.sort(sortedPathList);
+            groupList.add(new DuplicateFileGroup(key.fileSize, key.hash, sortedPathList));
+        }
+    }
+
+    private static final class _Stats {
+
+        long fileCount;
+        long partialHashFileCount;
+        long fullHashFileCount;
+        final AtomicLong skippedFileCount = new AtomicLong();
+        final AtomicLong hashedByteCount = new AtomicLong();
+    }
+
+    private static final class _Candidate {
+
+        final File path;
+        final long fileSize;
+
+        _Candidate(File path, long fileSize) {
+            this.path = path;
+            this.fileSize = fileSize;
+        }
+    }
+
+    private static final class _GroupKey {
+
+        final long fileSize;
+        final HashCode hash;
+
+        _GroupKey(long fileSize, HashCode hash) {
+            this.fileSize = fileSize;
+            this.hash = hash;
+        }
+
+        @Override
+        public int hashCode() {
+            int x = 31 * Long.hashCode(fileSize) + hash.hashCode();
+            return x;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            boolean result = (this == obj);
+            if (!result && obj instanceof _GroupKey) {
+                final _GroupKey other = (_GroupKey) obj;
+                result = (fileSize == other.fileSize) && hash.equals(other.hash);
+            }
+            return result;
+        }
+    }
+
+    private enum _HashType {
+        PARTIAL,
+        FULL
+    }
+
+    private Map<_GroupKey, List<File>> _hashAll(
+            List<_Candidate> candidateList,
+            _HashType hashType,
+            ExecutorService executorService,
+            _Stats stats)
+    throws InterruptedException {
+        final int size = candidateList.size();
+        final int maxInFlightTaskCount = IN_FLIGHT_TASK_COUNT_PER_THREAD * _threadCount;
+        // Bound pending tasks, and consume them in submission order.
+        final Queue<Future<HashCode>> futureQueue = new ArrayDeque<Future<HashCode>>();
+        // At most one buffer per running task is ever allocated.
+        final Queue<ByteBuffer> bufferQueue = new ConcurrentLinkedQueue<ByteBuffer>();
+        int submitCount = 0;
+        // Keep encounter order, so groups are deterministic for a given traversal order.
+        Map<_GroupKey, List<File>> groupMap = new LinkedHashMap<_GroupKey, List<File>>();
+        try {
+            for (int i = 0; i < size; ++i) {
+                while (submitCount < size && submitCount - i < maxInFlightTaskCount) {
+                    final _Candidate candidate = candidateList.get(submitCount);
+                    futureQueue.add(
+                        executorService.submit(
+                            new _HashTask(candidate, hashType, stats, bufferQueue)));
+                    ++submitCount;
+                }
+                final HashCode hash;
+                try {
+                    // If interrupted, the future remains in the queue to be cancelled below.
+                    hash = futureQueue.element().get();
+                }
+                catch (ExecutionException e) {
+                    futureQueue.remove();
+                    Throwable cause = e.getCause();
+                    if (cause instanceof IOException) {
+                        stats.skippedFileCount.incrementAndGet();
+                        continue;
+                    }
+                    if (cause instanceof RuntimeException) {
+                        throw (RuntimeException) cause;
+                    }
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    throw new IllegalStateException("Unexpected exception while hashing", cause);
+                }
+                futureQueue.remove();
+                _Candidate candidate = candidateList.get(i);
+                _GroupKey key = new _GroupKey(candidate.fileSize, hash);
+                List<File> pathList = groupMap.get(key);
+                if (null == pathList) {
+                    pathList = new ArrayList<File>(2);
+                    groupMap.put(key, pathList);
+                }
+                pathList.add(candidate.path);
+            }
+        }
+        finally {
+            // No-op if all tasks are complete.
+            for (Future<HashCode> future : futureQueue) {
+                future.cancel(true);
+            }
+        }
+        return groupMap;
+    }
+
+    private final class _HashTask
+    implements Callable<HashCode> {
+
+        private final _Candidate _candidate;
+        private final _HashType _hashType;
+        private final _Stats _stats;
+        private final Queue<ByteBuffer> _bufferQueue;
+
+        private _HashTask(
+                _Candidate candidate,
+                _HashType hashType,
+                _Stats stats,
+                Queue<ByteBuffer> bufferQueue) {
+            _candidate = candidate;
+            _hashType = hashType;
+            _stats = stats;
+            _bufferQueue = bufferQueue;
+        }
+
+        @Override
+        public HashCode call()
+        throws IOException {
+            FileChannel channel =
+                FileChannel.open(_candidate.path.toPath(), StandardOpenOption.READ);
+            try {
+                final long fileSize = channel.size();
+                if (fileSize != _candidate.fileSize) {
+                    throw new IOException(String.format(
+                        "File size changed from %d to %d bytes: '%s'",
+                        _candidate.fileSize, fileSize, _candidate.path));
+                }
+                Hasher hasher = _hashFunction.newHasher();
+                if (_HashType.PARTIAL == _hashType) {
+                    _putPartial(channel, fileSize, hasher);
+                }
+                else {
+                    _putFull(channel, fileSize, hasher);
+                }
+                HashCode x = hasher.hash();
+                return x;
+            }
+            finally {
+                channel.close();
+            }
+        }
+
+        private void _putPartial(FileChannel channel, long fileSize, Hasher hasher)
+        throws IOException {
+            if (_isPartialHashFull(fileSize)) {
+                _putRegion(channel, 0, (int) fileSize, hasher);
+            }
+            else {
+                _putRegion(channel, 0, _blockByteCount, hasher);
+                _putRegion(channel, fileSize - _blockByteCount, _blockByteCount, hasher);
+            }
+        }
+
+        private void _putRegion(FileChannel channel, long position, int byteCount, Hasher hasher)
+        throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(byteCount);
+            while (buffer.hasRemaining()) {
+                int readByteCount = channel.read(buffer, position + buffer.position());
+                if (readByteCount < 0) {
+                    throw new IOException(String.format(
+                        "Unexpected end of file at %d bytes: '%s'",
+                        position + buffer.position(), _candidate.path));
+                }
+            }
+            buffer.flip();
+            hasher.putBytes(buffer);
+            _stats.hashedByteCount.addAndGet(byteCount);
+        }
+
+        // Not memory-mapped: If another process truncates a mapped file, reads fail with
+        // InternalError (SIGBUS), which would abort the whole search.
+        private void _putFull(FileChannel channel, long fileSize, Hasher hasher)
+        throws IOException {
+            ByteBuffer buffer = _bufferQueue.poll();
+            if (null == buffer) {
+                buffer = ByteBuffer.allocate(READ_BUFFER_BYTE_COUNT);
+            }
+            try {
+                long position = 0;
+                while (position < fileSize) {
+                    buffer.clear();
+                    if (fileSize - position < buffer.capacity()) {
+                        buffer.limit((int) (fileSize - position));
+                    }
+                    final int readByteCount = channel.read(buffer, position);
+                    if (readByteCount < 0) {
+                        throw new IOException(String.format(
+                            "Unexpected end of file at %d bytes: '%s'",
+                            position, _candidate.path));
+                    }
+                    buffer.flip();
+                    hasher.putBytes(buffer);
+                    position += readByteCount;
+                    _stats.hashedByteCount.addAndGet(readByteCount);
+                }
+            }
+            finally {
+                _bufferQueue.add(buffer);
+            }
+        }
+    }
+}
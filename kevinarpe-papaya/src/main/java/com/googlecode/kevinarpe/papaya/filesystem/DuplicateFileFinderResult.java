@@ -0,0 +1,161 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+import java.util.List;
+
+/**
+ * Duplicate groups and statistics from {@link DuplicateFileFinder#find(TraversePathIterable)}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+public final class DuplicateFileFinderResult {
+
+    private final ImmutableList<DuplicateFileGroup> _groupList;
+    private final long _fileCount;
+    private final long _partialHashFileCount;
+    private final long _fullHashFileCount;
+    private final long _skippedFileCount;
+    private final long _hashedByteCount;
+    private final long _hashNanos;
+
+    DuplicateFileFinderResult(
+            List<DuplicateFileGroup> groupList,
+            long fileCount,
+            long partialHashFileCount,
+            long fullHashFileCount,
+            long skippedFileCount,
+            long hashedByteCount,
+            long hashNanos) {
+        _groupList = ImmutableList.copyOf(groupList);
+        _fileCount = fileCount;
+        _partialHashFileCount = partialHashFileCount;
+        _fullHashFileCount = fullHashFileCount;
+        _skippedFileCount = skippedFileCount;
+        _hashedByteCount = hashedByteCount;
+        _hashNanos = hashNanos;
+    }
+
+    /**
+     * @return immutable list of duplicate groups, sorted by
+     *         {@link DuplicateFileGroup#getWastedByteCount()} (descending), then by first path.
+     *         Never {@code null}.
+     */
+    public ImmutableList<DuplicateFileGroup> getGroupList() {
+        return _groupList;
+    }
+
+    /**
+     * @return number of regular files returned by the traversal with size at least
+     *         {@link DuplicateFileFinder#withMinFileSize()}
+     */
+    public long getFileCount() {
+        return _fileCount;
+    }
+
+    /**
+     * @return number of files sharing a size with another file, thus hashed by first and last
+     *         blocks
+     */
+    public long getPartialHashFileCount() {
+        return _partialHashFileCount;
+    }
+
+    /**
+     * @return number of files sharing a size and partial hash with another file, thus hashed in
+     *         full.  Files no larger than two blocks are never counted here, as their partial hash
+     *         covers all content.
+     */
+    public long getFullHashFileCount() {
+        return _fullHashFileCount;
+    }
+
+    /**
+     * @return number of files skipped because attributes or content could not be read, or the
+     *         file changed size during hashing
+     */
+    public long getSkippedFileCount() {
+        return _skippedFileCount;
+    }
+
+    /**
+     * @return total bytes read for partial and full hashes
+     */
+    public long getHashedByteCount() {
+        return _hashedByteCount;
+    }
+
+    /**
+     * @return elapsed wall clock time for partial and full hashes in nanoseconds
+     */
+    public long getHashNanos() {
+        return _hashNanos;
+    }
+
+    /**
+     * @return hashing throughput: {@link #getHashedByteCount()} / {@link #getHashNanos()} in bytes
+     *         per second.  Zero if nothing was hashed.
+     */
+    public double getHashedBytesPerSecond() {
+        if (0 == _hashNanos) {
+            return 0d;
+        }
+        double x = (1e9d * _hashedByteCount) / _hashNanos;
+        return x;
+    }
+
+    /**
+     * @return sum of {@link DuplicateFileGroup#getWastedByteCount()} for all groups
+     */
+    public long getWastedByteCount() {
+        long x = 0;
+        for (DuplicateFileGroup group : _groupList) {
+            x += group.getWastedByteCount();
+        }
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        String x = String.format(
+            "%s: groups: %d, wasted bytes: %d, files: %d, partial hashes: %d, full hashes: %d"
+                + ", skipped: %d, hashed bytes: %d, hashed bytes/sec: %.0f",
+            DuplicateFileFinderResult.class.getSimpleName(),
+            _groupList.size(),
+            getWastedByteCount(),
+            _fileCount,
+            _partialHashFileCount,
+            _fullHashFileCount,
+            _skippedFileCount,
+            _hashedByteCount,
+            getHashedBytesPerSecond());
+        return x;
+    }
+}
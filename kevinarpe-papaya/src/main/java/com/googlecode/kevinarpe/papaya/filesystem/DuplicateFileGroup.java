@@ -0,0 +1,116 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.util.List;
+
+/**
+ * Group of two or more files with identical content, as found by {@link DuplicateFileFinder}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see DuplicateFileFinderResult#getGroupList()
+ */
+@FullyTested
+public final class DuplicateFileGroup {
+
+    private final long _fileSize;
+    private final HashCode _hash;
+    private final ImmutableList<File> _pathList;
+
+    DuplicateFileGroup(long fileSize, HashCode hash, List<File> pathList) {
+        _fileSize = fileSize;
+        _hash = ObjectArgs.checkNotNull(hash, "hash");
+        _pathList = ImmutableList.copyOf(pathList);
+    }
+
+    /**
+     * @return size in bytes of each file
+     */
+    public long getFileSize() {
+        return _fileSize;
+    }
+
+    /**
+     * @return hash of full file content using {@link DuplicateFileFinder#withHashFunction()}.
+     *         Never {@code null}.
+     */
+    public HashCode getHash() {
+        return _hash;
+    }
+
+    /**
+     * @return immutable list of identical files sorted by path.  Always two or more elements.
+     */
+    public ImmutableList<File> getPathList() {
+        return _pathList;
+    }
+
+    /**
+     * @return bytes that would be freed by keeping only one file: size &times; (count - 1)
+     */
+    public long getWastedByteCount() {
+        long x = _fileSize * (_pathList.size() - 1);
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        int result = Objects.hashCode(_fileSize, _hash, _pathList);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        // Ref: http://stackoverflow.com/a/5039178/257299
+        boolean result = (this == obj);
+        if (!result && obj instanceof DuplicateFileGroup) {
+            final DuplicateFileGroup other = (DuplicateFileGroup) obj;
+            result =
+                (_fileSize == other._fileSize)
+                && _hash.equals(other._hash)
+                && _pathList.equals(other._pathList);
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        String x = String.format(
+            "%s: fileSize: %d, hash: %s, pathList: %s",
+            DuplicateFileGroup.class.getSimpleName(), _fileSize, _hash, _pathList);
+        return x;
+    }
+}
@@ -0,0 +1,580 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable record of every path below a root directory: relative path, type, size, last
+ * modified time, and inode.  Use a snapshot to find what changed in a large directory tree
+ * without comparing two full traversals by hand.
+ * <p>
+ * Features:
+ * <ul>
+ *   <li>Create: {@link #scan(File)} or {@link #fromIterable(TraversePathIterable)}</li>
+ *   <li>Rescan cheaply: {@link #scan(File, FileTreeSnapshot)} reuses the previous listing of
+ *   each directory whose last modified time and inode are unchanged</li>
+ *   <li>Compare: {@link #diff(FileTreeSnapshot)} returns added, removed, and modified paths</li>
+ *   <li>Persist: {@link #save(File)} writes a compact binary index; {@link #load(File)} reads it
+ *   back via memory-mapping</li>
+ *   <li>Keep live: {@link FileTreeSnapshotWatcher}</li>
+ * </ul>
+ * <p>
+ * Internally, attributes are stored as parallel arrays sorted by relative path, so a snapshot of
+ * one million paths needs no per-path objects.  A loaded snapshot has no arrays: attributes are
+ * read on demand from the memory-mapped file.  Entries are created on demand.  The root
+ * directory itself is not an entry.
+ * <p>
+ * Symbolic links are recorded, but never followed.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see FileTreeSnapshotEntry
+ * @see FileTreeSnapshotDiff
+ * @see FileTreeSnapshotWatcher
+ */
+@FullyTested
+public final class FileTreeSnapshot {
+
+    /**
+     * Value of {@link FileTreeSnapshotEntry#getInode()} when the file system does not provide
+     * inode numbers, e.g., Windows.
+     */
+    public static final long UNKNOWN_INODE = -1L;
+
+    static final Comparator<FileTreeSnapshotEntry> RELATIVE_PATH_COMPARATOR =
+        new Comparator<FileTreeSnapshotEntry>() {
+            @Override
+            public int compare(FileTreeSnapshotEntry o1, FileTreeSnapshotEntry o2) {
+                int x = o1.getRelativePath().compareTo(o2.getRelativePath());
+                return x;
+            }
+        };
+
+    private final File _rootDirPath;
+    private final long _rootDirLastModified;
+    private final long _rootDirInode;
+    private final long _scanStartTimeMillis;
+    private final EntryTable _entryTable;
+    private final List<FileTreeSnapshotEntry> _entryList;
+
+    /**
+     * All arrays must have the same length and be sorted by relative path.
+     */
+    FileTreeSnapshot(
+            File rootDirPath,
+            long rootDirLastModified,
+            long rootDirInode,
+            long scanStartTimeMillis,
+            String[] relativePathArr,
+            boolean[] isDirectoryArr,
+            long[] sizeArr,
+            long[] lastModifiedArr,
+            long[] inodeArr) {
+        this(
+            rootDirPath,
+            rootDirLastModified,
+            rootDirInode,
+            scanStartTimeMillis,
+            new _ArrayEntryTable(
+                relativePathArr, isDirectoryArr, sizeArr, lastModifiedArr, inodeArr));
+    }
+
+    /**
+     * @param entryTable
+     *        must be sorted by relative path
+     */
+    FileTreeSnapshot(
+            File rootDirPath,
+            long rootDirLastModified,
+            long rootDirInode,
+            long scanStartTimeMillis,
+            EntryTable entryTable) {
+        _rootDirPath = ObjectArgs.checkNotNull(rootDirPath, "rootDirPath").getAbsoluteFile();
+        _rootDirLastModified = rootDirLastModified;
+        _rootDirInode = rootDirInode;
+        _scanStartTimeMillis = scanStartTimeMillis;
+        _entryTable = entryTable;
+        _entryList = new _EntryList();
+    }
+
+    /**
+     * @param rootEntry
+     *        attributes of the root directory.  Relative path is ignored.
+     * @param entryList
+     *        must be sorted by {@link #RELATIVE_PATH_COMPARATOR}
+     */
+    static FileTreeSnapshot fromSortedEntryList(
+            FileTreeSnapshotEntry rootEntry,
+            long scanStartTimeMillis,
+            List<FileTreeSnapshotEntry> entryList) {
+        final int size = entryList.size();
+        String[] relativePathArr = new String[size];
+        boolean[] isDirectoryArr = new boolean[size];
+        long[] sizeArr = new long[size];
+        long[] lastModifiedArr = new long[size];
+        long[] inodeArr = new long[size];
+        int i = 0;
+        for (FileTreeSnapshotEntry entry : entryList) {
+            relativePathArr[i] = entry.getRelativePath();
+            isDirectoryArr[i] = entry.isDirectory();
+            sizeArr[i] = entry.getSize();
+            lastModifiedArr[i] = entry.getLastModified();
+            inodeArr[i] = entry.getInode();
+            ++i;
+        }
+        FileTreeSnapshot x =
+            new FileTreeSnapshot(
+                rootEntry.getRootDirPath(),
+                rootEntry.getLastModified(),
+                rootEntry.getInode(),
+                scanStartTimeMillis,
+                relativePathArr,
+                isDirectoryArr,
+                sizeArr,
+                lastModifiedArr,
+                inodeArr);
+        return x;
+    }
+
+    /**
+     * Scans all paths below a directory.
+     *
+     * @param rootDirPath
+     *        directory to scan.  Must not be {@code null}.
+     *
+     * @return new snapshot
+     *
+     * @throws NullPointerException
+     *         if {@code rootDirPath} is {@code null}
+     * @throws PathException
+     * <ul>
+     *   <li>with reason {@link PathExceptionReason#PATH_DOES_NOT_EXIST}
+     *   if {@code rootDirPath} does not exist</li>
+     *   <li>with reason {@link PathExceptionReason#PATH_IS_NORMAL_FILE}
+     *   if {@code rootDirPath} is a normal file, not a directory</li>
+     *   <li>with other reasons if a directory cannot be listed or attributes cannot be read</li>
+     * </ul>
+     *
+     * @see #scan(File, FileTreeSnapshot)
+     */
+    public static FileTreeSnapshot scan(File rootDirPath)
+    throws PathException {
+        FileTreeSnapshot x = scan(rootDirPath, (FileTreeSnapshot) null);
+        return x;
+    }
+
+    /**
+     * Scans all paths below a directory, reusing directory listings from a previous snapshot
+     * where safe.
+     * <p>
+     * Adding, removing, or renaming a path changes the last modified time of its parent
+     * directory, but editing a file does not.  Thus, if a directory has the same last modified
+     * time and inode as in {@code optPrevSnapshot}, its previous list of children is reused
+     * instead of listing the directory again.  Attributes of each child are still read.
+     * <p>
+     * A directory modified less than two seconds before {@code optPrevSnapshot} was started is
+     * always listed again, as a later change within the same tick of a coarse file system clock
+     * would be invisible.
+     *
+     * @param rootDirPath
+     *        directory to scan.  Must not be {@code null}.
+     * @param optPrevSnapshot
+     *        previous snapshot of the same directory.  May be {@code null}.
+     *
+     * @return new snapshot
+     *
+     * @throws NullPointerException
+     *         if {@code rootDirPath} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code optPrevSnapshot} has a different root directory
+     * @throws PathException
+     *         see {@link #scan(File)}
+     */
+    public static FileTreeSnapshot scan(File rootDirPath, FileTreeSnapshot optPrevSnapshot)
+    throws PathException {
+        FileTreeSnapshotScanner scanner = new FileTreeSnapshotScanner(rootDirPath, optPrevSnapshot);
+        FileTreeSnapshot x = scanner.scan();
+        return x;
+    }
+
+    /**
+     * Records each path returned by a traversal.  Use this method to snapshot only paths
+     * selected by filters on {@code iterable}.
+     * <p>
+     * Snapshots created by this method can be compared to each other with
+     * {@link #diff(FileTreeSnapshot)}.  However, they should not be passed as previous snapshot to
+     * {@link #scan(File, FileTreeSnapshot)} if {@code iterable} skips paths.
+     *
+     * @param iterable
+     *        traversal to record.  Must not be {@code null}.
+     *
+     * @return new snapshot
+     *
+     * @throws NullPointerException
+     *         if {@code iterable} is {@code null}
+     * @throws PathException
+     *         if attributes of the root directory or a path cannot be read
+     */
+    public static FileTreeSnapshot fromIterable(TraversePathIterable iterable)
+    throws PathException {
+        ObjectArgs.checkNotNull(iterable, "iterable");
+
+        final long scanStartTimeMillis = System.currentTimeMillis();
+        final File rootDirPath = iterable.withRootDirPath().getAbsoluteFile();
+        FileTreeSnapshotEntry rootEntry = FileTreeSnapshotScanner.readRootEntry(rootDirPath);
+        final Path rootDirNioPath = rootDirPath.toPath();
+        List<FileTreeSnapshotEntry> entryList = new ArrayList<FileTreeSnapshotEntry>();
+        for (File path : iterable) {
+            Path nioPath = path.getAbsoluteFile().toPath();
+            String relativePath = rootDirNioPath.relativize(nioPath).toString();
+            if (relativePath.isEmpty()) {
+                // Traversal iterators include the root directory by default.  It is recorded as
+                // the root entry above.
+                continue;
+            }
+            if ('/' != File.separatorChar) {
+                relativePath = relativePath.replace(File.separatorChar, '/');
+            }
+            FileTreeSnapshotEntry optEntry =
+                FileTreeSnapshotScanner.readEntry(rootDirPath, relativePath, path.toPath());
+            if (null != optEntry) {
+                entryList.add(optEntry);
+            }
+        }
+        Collections.sort(entryList, RELATIVE_PATH_COMPARATOR);
+        FileTreeSnapshot x = fromSortedEntryList(rootEntry, scanStartTimeMillis, entryList);
+        return x;
+    }
+
+    /**
+     * Reads a snapshot written by {@link #save(File)}.  The file is memory-mapped, and only the
+     * header is read by this method.  Attributes of each entry are read from the mapping on
+     * demand, so loading is fast, and pages of a large file are only loaded if used.  Files
+     * larger than 2 GB are mapped in chunks.
+     * <p>
+     * The mapping remains valid until the snapshot is garbage collected.  Do not modify the file
+     * in place while the snapshot is in use.  Replacing the file via {@link #save(File)} is safe
+     * on most platforms, but on some, a file cannot be replaced while memory-mapped.
+     *
+     * @param filePath
+     *        path of snapshot file.  Must not be {@code null}.
+     *
+     * @return new snapshot
+     *
+     * @throws NullPointerException
+     *         if {@code filePath} is {@code null}
+     * @throws IOException
+     *         if the file cannot be read or is not a valid snapshot file
+     */
+    public static FileTreeSnapshot load(File filePath)
+    throws IOException {
+        ObjectArgs.checkNotNull(filePath, "filePath");
+
+        FileTreeSnapshot x = FileTreeSnapshotFormat.read(filePath);
+        return x;
+    }
+
+    /**
+     * Writes this snapshot to a compact binary file.  The file is first written to a temporary
+     * file in the same directory, then renamed, so readers never see a partial file.
+     *
+     * @param filePath
+     *        path of snapshot file.  Must not be {@code null}.  Replaced if it exists.
+     *
+     * @throws NullPointerException
+     *         if {@code filePath} is {@code null}
+     * @throws IOException
+     *         if the file cannot be written
+     *
+     * @see #load(File)
+     */
+    public void save(File filePath)
+    throws IOException {
+        ObjectArgs.checkNotNull(filePath, "filePath");
+
+        FileTreeSnapshotFormat.write(this, filePath);
+    }
+
+    /**
+     * Compares this (older) snapshot to a newer snapshot.  Runtime is linear in the number of
+     * paths, as both snapshots are sorted by relative path.
+     *
+     * @param newSnapshot
+     *        newer snapshot.  Must not be {@code null}.
+     *
+     * @return differences from this snapshot to {@code newSnapshot}
+     *
+     * @throws NullPointerException
+     *         if {@code newSnapshot} is {@code null}
+     */
+    public FileTreeSnapshotDiff diff(FileTreeSnapshot newSnapshot) {
+        ObjectArgs.checkNotNull(newSnapshot, "newSnapshot");
+
+        FileTreeSnapshotDiff x = FileTreeSnapshotDiff.of(this, newSnapshot);
+        return x;
+    }
+
+    /**
+     * @return absolute path of root directory.  Never {@code null}.
+     */
+    public File getRootDirPath() {
+        return _rootDirPath;
+    }
+
+    /**
+     * @return last modified time of root directory in milliseconds since the epoch
+     */
+    public long getRootDirLastModified() {
+        return _rootDirLastModified;
+    }
+
+    long getRootDirInode() {
+        return _rootDirInode;
+    }
+
+    /**
+     * @return time when scanning started in milliseconds since the epoch
+     */
+    public long getScanStartTimeMillis() {
+        return _scanStartTimeMillis;
+    }
+
+    /**
+     * @return number of paths, excluding the root directory
+     */
+    public int size() {
+        return _entryTable.size();
+    }
+
+    /**
+     * @return unmodifiable list of all entries sorted by relative path.  Entries are created on
+     *         demand.  Never {@code null}.
+     */
+    public List<FileTreeSnapshotEntry> getEntryList() {
+        return _entryList;
+    }
+
+    /**
+     * @param relativePath
+     *        path relative to root directory using {@code '/'} as separator.  Must not be
+     *        {@code null}.
+     *
+     * @return matching entry or {@code null} if not found
+     *
+     * @throws NullPointerException
+     *         if {@code relativePath} is {@code null}
+     */
+    public FileTreeSnapshotEntry getOptionalEntry(String relativePath) {
+        ObjectArgs.checkNotNull(relativePath, "relativePath");
+
+        int index = indexOf(relativePath);
+        FileTreeSnapshotEntry x = (index >= 0) ? getEntry(index) : null;
+        return x;
+    }
+
+    /**
+     * @return index of relative path or a negative value as per
+     *         {@link java.util.Arrays#binarySearch(Object[], Object)}
+     */
+    int indexOf(String relativePath) {
+        int low = 0;
+        int high = _entryTable.size() - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int cmp = _entryTable.getRelativePath(mid).compareTo(relativePath);
+            if (cmp < 0) {
+                low = 1 + mid;
+            }
+            else if (cmp > 0) {
+                high = mid - 1;
+            }
+            else {
+                return mid;
+            }
+        }
+        return -(1 + low);
+    }
+
+    FileTreeSnapshotEntry getEntry(int index) {
+        FileTreeSnapshotEntry x =
+            new FileTreeSnapshotEntry(
+                _rootDirPath,
+                _entryTable.getRelativePath(index),
+                _entryTable.isDirectory(index),
+                _entryTable.getSize(index),
+                _entryTable.getLastModified(index),
+                _entryTable.getInode(index));
+        return x;
+    }
+
+    String getRelativePath(int index) {
+        return _entryTable.getRelativePath(index);
+    }
+
+    boolean isDirectory(int index) {
+        return _entryTable.isDirectory(index);
+    }
+
+    long getSize(int index) {
+        return _entryTable.getSize(index);
+    }
+
+    long getLastModified(int index) {
+        return _entryTable.getLastModified(index);
+    }
+
+    long getInode(int index) {
+        return _entryTable.getInode(index);
+    }
+
+    /**
+     * @return {@code true} if type, size, last modified time, or inode differ
+     */
+    boolean isModified(int index, FileTreeSnapshot other, int otherIndex) {
+        final EntryTable otherEntryTable = other._entryTable;
+        boolean x =
+            (_entryTable.isDirectory(index) != otherEntryTable.isDirectory(otherIndex))
+            || (_entryTable.getSize(index) != otherEntryTable.getSize(otherIndex))
+            || (_entryTable.getLastModified(index) != otherEntryTable.getLastModified(otherIndex))
+            || (_entryTable.getInode(index) != otherEntryTable.getInode(otherIndex));
+        return x;
+    }
+
+    /**
+     * Attributes of all entries, sorted by relative path.  Indices are not checked.
+     *
+     * @see FileTreeSnapshotFormat.MappedEntryTable
+     */
+    abstract static class EntryTable {
+
+        abstract int size();
+
+        abstract String getRelativePath(int index);
+
+        abstract boolean isDirectory(int index);
+
+        abstract long getSize(int index);
+
+        abstract long getLastModified(int index);
+
+        abstract long getInode(int index);
+    }
+
+    private static final class _ArrayEntryTable
+    extends EntryTable {
+
+        private final String[] _relativePathArr;
+        private final boolean[] _isDirectoryArr;
+        private final long[] _sizeArr;
+        private final long[] _lastModifiedArr;
+        private final long[] _inodeArr;
+
+        private _ArrayEntryTable(
+                String[] relativePathArr,
+                boolean[] isDirectoryArr,
+                long[] sizeArr,
+                long[] lastModifiedArr,
+                long[] inodeArr) {
+            _relativePathArr = relativePathArr;
+            _isDirectoryArr = isDirectoryArr;
+            _sizeArr = sizeArr;
+            _lastModifiedArr = lastModifiedArr;
+            _inodeArr = inodeArr;
+        }
+
+        @Override
+        int size() {
+            return _relativePathArr.length;
+        }
+
+        @Override
+        String getRelativePath(int index) {
+            return _relativePathArr[index];
+        }
+
+        @Override
+        boolean isDirectory(int index) {
+            return _isDirectoryArr[index];
+        }
+
+        @Override
+        long getSize(int index) {
+            return _sizeArr[index];
+        }
+
+        @Override
+        long getLastModified(int index) {
+            return _lastModifiedArr[index];
+        }
+
+        @Override
+        long getInode(int index) {
+            return _inodeArr[index];
+        }
+    }
+
+    private final class _EntryList
+    extends AbstractList<FileTreeSnapshotEntry>
+    implements RandomAccess {
+
+        @Override
+        public FileTreeSnapshotEntry get(int index) {
+            final int size = _entryTable.size();
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+            }
+            FileTreeSnapshotEntry x = getEntry(index);
+            return x;
+        }
+
+        @Override
+        public int size() {
+            return _entryTable.size();
+        }
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        String x = String.format(
+            "%s: '%s', size: %d",
+            FileTreeSnapshot.class.getSimpleName(), _rootDirPath, _entryTable.size());
+        return x;
+    }
+}
@@ -0,0 +1,177 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Differences between two {@link FileTreeSnapshot}s: added, removed, and modified paths.  All
+ * lists are sorted by relative path.
+ * <p>
+ * A path is modified if its type, size, last modified time, or inode changed.  Adding or
+ * removing a child also modifies the last modified time of its parent directory, so parent
+ * directories usually appear as modified.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see FileTreeSnapshot#diff(FileTreeSnapshot)
+ */
+@FullyTested
+public final class FileTreeSnapshotDiff {
+
+    static final FileTreeSnapshotDiff EMPTY =
+        new FileTreeSnapshotDiff(
+            Collections.<FileTreeSnapshotEntry>emptyList(),
+            Collections.<FileTreeSnapshotEntry>emptyList(),
+            Collections.<FileTreeSnapshotEntry>emptyList());
+
+    private final List<FileTreeSnapshotEntry> _addedEntryList;
+    private final List<FileTreeSnapshotEntry> _removedEntryList;
+    private final List<FileTreeSnapshotEntry> _modifiedEntryList;
+
+    private FileTreeSnapshotDiff(
+            List<FileTreeSnapshotEntry> addedEntryList,
+            List<FileTreeSnapshotEntry> removedEntryList,
+            List<FileTreeSnapshotEntry> modifiedEntryList) {
+        _addedEntryList = Collections.unmodifiableList(addedEntryList);
+        _removedEntryList = Collections.unmodifiableList(removedEntryList);
+        _modifiedEntryList = Collections.unmodifiableList(modifiedEntryList);
+    }
+
+    static FileTreeSnapshotDiff of(FileTreeSnapshot oldSnapshot, FileTreeSnapshot newSnapshot) {
+        List<FileTreeSnapshotEntry> addedEntryList = new ArrayList<FileTreeSnapshotEntry>();
+        List<FileTreeSnapshotEntry> removedEntryList = new ArrayList<FileTreeSnapshotEntry>();
+        List<FileTreeSnapshotEntry> modifiedEntryList = new ArrayList<FileTreeSnapshotEntry>();
+        final int oldSize = oldSnapshot.size();
+        final int newSize = newSnapshot.size();
+        int oldIndex = 0;
+        int newIndex = 0;
+        // Merge join: both snapshots are sorted by relative path.
+        while (oldIndex < oldSize || newIndex < newSize) {
+            final int cmp;
+            if (oldIndex == oldSize) {
+                cmp = 1;
+            }
+            else if (newIndex == newSize) {
+                cmp = -1;
+            }
+            else {
+                cmp = oldSnapshot.getRelativePath(oldIndex)
+                    .compareTo(newSnapshot.getRelativePath(newIndex));
+            }
+            if (cmp < 0) {
+                removedEntryList.add(oldSnapshot.getEntry(oldIndex));
+                ++oldIndex;
+            }
+            else if (cmp > 0) {
+                addedEntryList.add(newSnapshot.getEntry(newIndex));
+                ++newIndex;
+            }
+            else {
+                if (oldSnapshot.isModified(oldIndex, newSnapshot, newIndex)) {
+                    modifiedEntryList.add(newSnapshot.getEntry(newIndex));
+                }
+                ++oldIndex;
+                ++newIndex;
+            }
+        }
+        FileTreeSnapshotDiff x =
+            new FileTreeSnapshotDiff(addedEntryList, removedEntryList, modifiedEntryList);
+        return x;
+    }
+
+    /**
+     * @return unmodifiable list of entries from the new snapshot not found in the old snapshot.
+     *         Never {@code null}.
+     */
+    public List<FileTreeSnapshotEntry> getAddedEntryList() {
+        return _addedEntryList;
+    }
+
+    /**
+     * @return unmodifiable list of entries from the old snapshot not found in the new snapshot.
+     *         Never {@code null}.
+     */
+    public List<FileTreeSnapshotEntry> getRemovedEntryList() {
+        return _removedEntryList;
+    }
+
+    /**
+     * @return unmodifiable list of entries from the new snapshot with different attributes in
+     *         the old snapshot.  Never {@code null}.
+     */
+    public List<FileTreeSnapshotEntry> getModifiedEntryList() {
+        return _modifiedEntryList;
+    }
+
+    /**
+     * @return sequential stream of {@link #getAddedEntryList()}
+     */
+    public Stream<FileTreeSnapshotEntry> addedStream() {
+        return _addedEntryList.stream();
+    }
+
+    /**
+     * @return sequential stream of {@link #getRemovedEntryList()}
+     */
+    public Stream<FileTreeSnapshotEntry> removedStream() {
+        return _removedEntryList.stream();
+    }
+
+    /**
+     * @return sequential stream of {@link #getModifiedEntryList()}
+     */
+    public Stream<FileTreeSnapshotEntry> modifiedStream() {
+        return _modifiedEntryList.stream();
+    }
+
+    /**
+     * @return {@code true} if no paths were added, removed, or modified
+     */
+    public boolean isEmpty() {
+        boolean x =
+            _addedEntryList.isEmpty()
+            && _removedEntryList.isEmpty()
+            && _modifiedEntryList.isEmpty();
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        String x = String.format(
+            "%s: added: %d, removed: %d, modified: %d",
+            FileTreeSnapshotDiff.class.getSimpleName(),
+            _addedEntryList.size(),
+            _removedEntryList.size(),
+            _modifiedEntryList.size());
+        return x;
+    }
+}
@@ -0,0 +1,172 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.google.common.base.Objects;
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+
+/**
+ * One path recorded by a {@link FileTreeSnapshot}: relative path, type, size, last modified time,
+ * and inode.  Instances are immutable and created on demand by {@link FileTreeSnapshot}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see FileTreeSnapshot#getEntryList()
+ */
+@FullyTested
+public final class FileTreeSnapshotEntry {
+
+    private final File _rootDirPath;
+    private final String _relativePath;
+    private final boolean _isDirectory;
+    private final long _size;
+    private final long _lastModified;
+    private final long _inode;
+
+    FileTreeSnapshotEntry(
+            File rootDirPath,
+            String relativePath,
+            boolean isDirectory,
+            long size,
+            long lastModified,
+            long inode) {
+        _rootDirPath = ObjectArgs.checkNotNull(rootDirPath, "rootDirPath");
+        _relativePath = ObjectArgs.checkNotNull(relativePath, "relativePath");
+        _isDirectory = isDirectory;
+        _size = size;
+        _lastModified = lastModified;
+        _inode = inode;
+    }
+
+    /**
+     * @return absolute path of the snapshot root directory.  Never {@code null}.
+     */
+    public File getRootDirPath() {
+        return _rootDirPath;
+    }
+
+    /**
+     * @return path relative to {@link #getRootDirPath()} using {@code '/'} as separator on all
+     *         platforms, e.g., {@code "dir1/file1.txt"}.  Never {@code null} or empty.
+     */
+    public String getRelativePath() {
+        return _relativePath;
+    }
+
+    /**
+     * @return absolute path built from {@link #getRootDirPath()} and {@link #getRelativePath()}
+     */
+    public File getPath() {
+        String x = _relativePath.replace('/', File.separatorChar);
+        File path = new File(_rootDirPath, x);
+        return path;
+    }
+
+    /**
+     * Symbolic links are never followed, so a link to a directory is <b>not</b> a directory.
+     */
+    public boolean isDirectory() {
+        return _isDirectory;
+    }
+
+    /**
+     * @return size in bytes as reported by the file system
+     */
+    public long getSize() {
+        return _size;
+    }
+
+    /**
+     * @return last modified time in milliseconds since the epoch
+     */
+    public long getLastModified() {
+        return _lastModified;
+    }
+
+    /**
+     * @return inode number or {@link FileTreeSnapshot#UNKNOWN_INODE} if the file system does not
+     *         provide one
+     */
+    public long getInode() {
+        return _inode;
+    }
+
+    /**
+     * Compares all attributes except {@link #getRelativePath()} and {@link #getRootDirPath()}.
+     *
+     * @return {@code true} if type, size, last modified time, or inode differ
+     */
+    public boolean isModified(FileTreeSnapshotEntry other) {
+        ObjectArgs.checkNotNull(other, "other");
+
+        boolean x =
+            (_isDirectory != other._isDirectory)
+            || (_size != other._size)
+            || (_lastModified != other._lastModified)
+            || (_inode != other._inode);
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public int hashCode() {
+        int result =
+            Objects.hashCode(
+                _rootDirPath, _relativePath, _isDirectory, _size, _lastModified, _inode);
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public boolean equals(Object obj) {
+        // Ref: http://stackoverflow.com/a/5039178/257299
+        boolean result = (this == obj);
+        if (!result && obj instanceof FileTreeSnapshotEntry) {
+            final FileTreeSnapshotEntry other = (FileTreeSnapshotEntry) obj;
+            result =
+                _rootDirPath.equals(other._rootDirPath)
+                && _relativePath.equals(other._relativePath)
+                && !isModified(other);
+        }
+        return result;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public String toString() {
+        String x = String.format(
+            "%s: '%s', isDirectory: %s, size: %d, lastModified: %d, inode: %d",
+            FileTreeSnapshotEntry.class.getSimpleName(),
+            _relativePath,
+            _isDirectory,
+            _size,
+            _lastModified,
+            _inode);
+        return x;
+    }
+}
@@ -0,0 +1,336 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary file format for {@link FileTreeSnapshot}.  All numbers are big-endian.
+ * <p>
+ * Layout:
+ * <ul>
+ *   <li>Header: magic (4 bytes), version (4 bytes), root directory last modified (8 bytes),
+ *   root directory inode (8 bytes), scan start time (8 bytes), entry count (4 bytes), root
+ *   directory path byte count (4 bytes), path pool byte count (4 bytes)</li>
+ *   <li>Root directory path (UTF-8)</li>
+ *   <li>Entry table: one fixed-width 32 byte record per entry: size (8 bytes), last modified
+ *   (8 bytes), inode (8 bytes), path pool offset (4 bytes), and path byte count (4 bytes, where
+ *   the high bit marks a directory)</li>
+ *   <li>Path pool: relative paths (UTF-8), concatenated in entry order</li>
+ * </ul>
+ * <p>
+ * Fixed-width records allow a reader to seek directly to any entry in a mapped file.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+final class FileTreeSnapshotFormat {
+
+    // "PFTS": Papaya file tree snapshot
+    static final int MAGIC = 0x50465453;
+    static final int VERSION = 1;
+    static final int HEADER_BYTE_COUNT = 4 + 4 + 8 + 8 + 8 + 4 + 4 + 4;
+    static final int ENTRY_BYTE_COUNT = 8 + 8 + 8 + 4 + 4;
+
+    // Each memory-mapped view is limited to Integer.MAX_VALUE bytes.  The path pool always fits in
+    // one view, but the entry table may not.
+    static final int MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT = (1 << 30) / ENTRY_BYTE_COUNT;
+
+    private static final int DIRECTORY_FLAG = 0x80000000;
+    private static final int WRITE_BUFFER_BYTE_COUNT = 64 * 1024;
+
+    private FileTreeSnapshotFormat() {
+        // Empty
+    }
+
+    static void write(FileTreeSnapshot snapshot, File filePath)
+    throws IOException {
+        final int size = snapshot.size();
+        byte[] rootDirPathByteArr =
+            snapshot.getRootDirPath().getPath().getBytes(StandardCharsets.UTF_8);
+        byte[][] pathByteArrArr = new byte[size][];
+        long pathPoolByteCount = 0;
+        for (int i = 0; i < size; ++i) {
+            pathByteArrArr[i] = snapshot.getRelativePath(i).getBytes(StandardCharsets.UTF_8);
+            pathPoolByteCount += pathByteArrArr[i].length;
+        }
+        if (pathPoolByteCount > Integer.MAX_VALUE) {
+            throw new IOException(String.format(
+                "Failed to write snapshot: Relative paths are too large: %d bytes",
+                pathPoolByteCount));
+        }
+        final File absFilePath = filePath.getAbsoluteFile();
+        File tmpFilePath =
+            File.createTempFile(absFilePath.getName() + ".", ".tmp", absFilePath.getParentFile());
+        try {
+            DataOutputStream out =
+                new DataOutputStream(
+                    new BufferedOutputStream(
+                        new FileOutputStream(tmpFilePath), WRITE_BUFFER_BYTE_COUNT));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(snapshot.getRootDirLastModified());
+                out.writeLong(snapshot.getRootDirInode());
+                out.writeLong(snapshot.getScanStartTimeMillis());
+                out.writeInt(size);
+                out.writeInt(rootDirPathByteArr.length);
+                out.writeInt((int) pathPoolByteCount);
+                out.write(rootDirPathByteArr);
+                int pathPoolOffset = 0;
+                for (int i = 0; i < size; ++i) {
+                    out.writeLong(snapshot.getSize(i));
+                    out.writeLong(snapshot.getLastModified(i));
+                    out.writeLong(snapshot.getInode(i));
+                    out.writeInt(pathPoolOffset);
+                    int pathByteCount = pathByteArrArr[i].length;
+                    out.writeInt(
+                        snapshot.isDirectory(i) ? (pathByteCount | DIRECTORY_FLAG) : pathByteCount);
+                    pathPoolOffset += pathByteCount;
+                }
+                for (byte[] pathByteArr : pathByteArrArr) {
+                    out.write(pathByteArr);
+                }
+            }
+            finally {
+                out.close();
+            }
+            _move(tmpFilePath, absFilePath);
+        }
+        finally {
+            // No-op after successful move.
+            Files.deleteIfExists(tmpFilePath.toPath());
+        }
+    }
+
+    private static void _move(File srcFilePath, File destFilePath)
+    throws IOException {
+        try {
+            Files.move(
+                srcFilePath.toPath(),
+                destFilePath.toPath(),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e) {
+            Files.move(
+                srcFilePath.toPath(), destFilePath.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static FileTreeSnapshot read(File filePath)
+    throws IOException {
+        // A mapping remains valid after its channel is closed.
+        FileChannel channel = FileChannel.open(filePath.toPath(), StandardOpenOption.READ);
+        try {
+            FileTreeSnapshot x = _read(filePath, channel);
+            return x;
+        }
+        catch (BufferUnderflowException e) {
+            throw new IOException(
+                String.format("Invalid snapshot file: '%s': Unexpected end of file", filePath), e);
+        }
+        finally {
+            channel.close();
+        }
+    }
+
+    private static FileTreeSnapshot _read(File filePath, FileChannel channel)
+    throws IOException {
+        final long fileByteCount = channel.size();
+        final MappedByteBuffer header =
+            channel.map(
+                FileChannel.MapMode.READ_ONLY, 0, Math.min(HEADER_BYTE_COUNT, fileByteCount));
+        final int magic = header.getInt();
+        if (MAGIC != magic) {
+            throw new IOException(String.format(
+                "Invalid snapshot file: '%s': Expected magic 0x%08X, but found 0x%08X",
+                filePath, MAGIC, magic));
+        }
+        final int version = header.getInt();
+        if (VERSION != version) {
+            throw new IOException(String.format(
+                "Invalid snapshot file: '%s': Unsupported version %d", filePath, version));
+        }
+        final long rootDirLastModified = header.getLong();
+        final long rootDirInode = header.getLong();
+        final long scanStartTimeMillis = header.getLong();
+        final int size = header.getInt();
+        final int rootDirPathByteCount = header.getInt();
+        final int pathPoolByteCount = header.getInt();
+        final long entryTableStart = HEADER_BYTE_COUNT + (long) rootDirPathByteCount;
+        final long pathPoolStart = entryTableStart + ((long) size * ENTRY_BYTE_COUNT);
+        final long expectedByteCount = pathPoolStart + pathPoolByteCount;
+        if (size < 0
+                || rootDirPathByteCount < 0
+                || pathPoolByteCount < 0
+                || expectedByteCount != fileByteCount) {
+            throw new IOException(String.format(
+                "Invalid snapshot file: '%s': Expected %d bytes, but found %d bytes",
+                filePath, expectedByteCount, fileByteCount));
+        }
+        final MappedByteBuffer rootDirPathBuffer =
+            channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTE_COUNT, rootDirPathByteCount);
+        final File rootDirPath = new File(_readString(rootDirPathBuffer, rootDirPathByteCount));
+        final int chunkCount =
+            (int) ((size + (long) MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT - 1)
+                / MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT);
+        final MappedByteBuffer[] entryTableChunkArr = new MappedByteBuffer[chunkCount];
+        for (int i = 0; i < chunkCount; ++i) {
+            final long firstIndex = (long) i * MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT;
+            final long entryCount =
+                Math.min(MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT, size - firstIndex);
+            entryTableChunkArr[i] =
+                channel.map(
+                    FileChannel.MapMode.READ_ONLY,
+                    entryTableStart + (firstIndex * ENTRY_BYTE_COUNT),
+                    entryCount * ENTRY_BYTE_COUNT);
+        }
+        final MappedByteBuffer pathPool =
+            channel.map(FileChannel.MapMode.READ_ONLY, pathPoolStart, pathPoolByteCount);
+        FileTreeSnapshot x =
+            new FileTreeSnapshot(
+                rootDirPath,
+                rootDirLastModified,
+                rootDirInode,
+                scanStartTimeMillis,
+                new MappedEntryTable(filePath, size, entryTableChunkArr, pathPool));
+        return x;
+    }
+
+    private static String _readString(ByteBuffer buffer, int byteCount) {
+        byte[] byteArr = new byte[byteCount];
+        buffer.get(byteArr);
+        String x = new String(byteArr, StandardCharsets.UTF_8);
+        return x;
+    }
+
+    /**
+     * Reads attributes on demand from a memory-mapped snapshot file.  Only absolute reads are
+     * used, so instances are safe for concurrent readers.
+     * <p>
+     * To keep loading fast, entries are not validated in advance.  An entry whose path is out of
+     * bounds throws {@link IllegalStateException} when read.  Sort order is trusted.
+     */
+    static final class MappedEntryTable
+    extends FileTreeSnapshot.EntryTable {
+
+        private static final int SIZE_OFFSET = 0;
+        private static final int LAST_MODIFIED_OFFSET = 8;
+        private static final int INODE_OFFSET = 16;
+        private static final int PATH_POOL_OFFSET_OFFSET = 24;
+        private static final int FLAGS_AND_PATH_BYTE_COUNT_OFFSET = 28;
+
+        private final File _filePath;
+        private final int _size;
+        private final ByteBuffer[] _entryTableChunkArr;
+        private final ByteBuffer _pathPool;
+
+        private MappedEntryTable(
+                File filePath, int size, ByteBuffer[] entryTableChunkArr, ByteBuffer pathPool) {
+            _filePath = filePath;
+            _size = size;
+            _entryTableChunkArr = entryTableChunkArr;
+            _pathPool = pathPool;
+        }
+
+        @Override
+        int size() {
+            return _size;
+        }
+
+        private ByteBuffer _getChunk(int index) {
+            ByteBuffer x = _entryTableChunkArr[index / MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT];
+            return x;
+        }
+
+        private static int _getByteOffset(int index, int fieldOffset) {
+            int x =
+                ((index % MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT) * ENTRY_BYTE_COUNT) + fieldOffset;
+            return x;
+        }
+
+        @Override
+        String getRelativePath(int index) {
+            final ByteBuffer chunk = _getChunk(index);
+            final int pathPoolOffset =
+                chunk.getInt(_getByteOffset(index, PATH_POOL_OFFSET_OFFSET));
+            final int pathByteCount =
+                chunk.getInt(_getByteOffset(index, FLAGS_AND_PATH_BYTE_COUNT_OFFSET))
+                    & ~DIRECTORY_FLAG;
+            if (pathPoolOffset < 0 || pathPoolOffset > _pathPool.limit() - pathByteCount) {
+                throw new IllegalStateException(String.format(
+                    "Invalid snapshot file: '%s': Entry #%d: Path is out of bounds",
+                    _filePath, index));
+            }
+            // Duplicate, as relative bulk reads are not thread-safe.
+            ByteBuffer pathPool = _pathPool.duplicate();
+            pathPool.position(pathPoolOffset);
+            String x = _readString(pathPool, pathByteCount);
+            return x;
+        }
+
+        @Override
+        boolean isDirectory(int index) {
+            final int flagsAndPathByteCount =
+                _getChunk(index).getInt(_getByteOffset(index, FLAGS_AND_PATH_BYTE_COUNT_OFFSET));
+            boolean x = (0 != (flagsAndPathByteCount & DIRECTORY_FLAG));
+            return x;
+        }
+
+        @Override
+        long getSize(int index) {
+            long x = _getChunk(index).getLong(_getByteOffset(index, SIZE_OFFSET));
+            return x;
+        }
+
+        @Override
+        long getLastModified(int index) {
+            long x = _getChunk(index).getLong(_getByteOffset(index, LAST_MODIFIED_OFFSET));
+            return x;
+        }
+
+        @Override
+        long getInode(int index) {
+            long x = _getChunk(index).getLong(_getByteOffset(index, INODE_OFFSET));
+            return x;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.NotDirectoryException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link FileTreeSnapshot} by walking a directory tree, optionally reusing directory
+ * listings from a previous snapshot.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see FileTreeSnapshot#scan(File, FileTreeSnapshot)
+ */
+@FullyTested
+final class FileTreeSnapshotScanner {
+
+    /**
+     * Coarsest common file system clock: FAT stores last modified time in two second ticks.
+     */
+    static final long DIRECTORY_LAST_MODIFIED_GRANULARITY_MILLIS = 2000L;
+
+    private static final boolean IS_UNIX_ATTRIBUTE_VIEW_SUPPORTED =
+        FileSystems.getDefault().supportedFileAttributeViews().contains("unix");
+
+    private static final String UNIX_ATTRIBUTES = "unix:ino,size,lastModifiedTime,isDirectory";
+
+    private static final int ROOT_INDEX = -1;
+    private static final int NOT_REUSABLE_INDEX = -2;
+
+    private final File _rootDirPath;
+    private final FileTreeSnapshot _optPrevSnapshot;
+    // Children of each directory in previous snapshot as linked lists: index size() is the root.
+    private int[] _optPrevFirstChildIndexArr;
+    private int[] _optPrevNextSiblingIndexArr;
+    private int _listedDirCount;
+    private int _reusedDirCount;
+
+    FileTreeSnapshotScanner(File rootDirPath, FileTreeSnapshot optPrevSnapshot) {
+        _rootDirPath = ObjectArgs.checkNotNull(rootDirPath, "rootDirPath").getAbsoluteFile();
+        if (null != optPrevSnapshot && !_rootDirPath.equals(optPrevSnapshot.getRootDirPath())) {
+            throw new IllegalArgumentException(String.format(
+                "Previous snapshot has a different root directory: '%s' != '%s'",
+                optPrevSnapshot.getRootDirPath(), _rootDirPath));
+        }
+        _optPrevSnapshot = optPrevSnapshot;
+    }
+
+    public FileTreeSnapshot scan()
+    throws PathException {
+        final long scanStartTimeMillis = System.currentTimeMillis();
+        FileTreeSnapshotEntry rootEntry = readRootEntry(_rootDirPath);
+        List<FileTreeSnapshotEntry> entryList = new ArrayList<FileTreeSnapshotEntry>();
+        ArrayDeque<FileTreeSnapshotEntry> dirStack = new ArrayDeque<FileTreeSnapshotEntry>();
+        dirStack.push(rootEntry);
+        List<String> childRelativePathList = new ArrayList<String>();
+        while (!dirStack.isEmpty()) {
+            FileTreeSnapshotEntry dirEntry = dirStack.pop();
+            childRelativePathList.clear();
+            if (!_tryAddPrevChildRelativePaths(dirEntry, childRelativePathList)) {
+                if (!addChildRelativePaths(dirEntry, childRelativePathList)) {
+                    // Directory was removed during scan.
+                    continue;
+                }
+                ++_listedDirCount;
+            }
+            for (String childRelativePath : childRelativePathList) {
+                FileTreeSnapshotEntry optEntry =
+                    readEntry(_rootDirPath, childRelativePath, _toPath(childRelativePath));
+                if (null != optEntry) {
+                    entryList.add(optEntry);
+                    if (optEntry.isDirectory()) {
+                        dirStack.push(optEntry);
+                    }
+                }
+            }
+        }
+        Collections.sort(entryList, FileTreeSnapshot.RELATIVE_PATH_COMPARATOR);
+        FileTreeSnapshot x =
+            FileTreeSnapshot.fromSortedEntryList(rootEntry, scanStartTimeMillis, entryList);
+        return x;
+    }
+
+    private Path _toPath(String relativePath) {
+        Path x = _rootDirPath.toPath().resolve(relativePath);
+        return x;
+    }
+
+    private boolean _tryAddPrevChildRelativePaths(
+            FileTreeSnapshotEntry dirEntry, List<String> childRelativePathList) {
+        int prevIndex = _getReusablePrevDirIndex(dirEntry);
+        if (NOT_REUSABLE_INDEX == prevIndex) {
+            return false;
+        }
+        if (null == _optPrevFirstChildIndexArr) {
+            _initPrevChildIndexArrs();
+        }
+        final int headIndex =
+            (ROOT_INDEX == prevIndex) ? _optPrevSnapshot.size() : prevIndex;
+        for (int i = _optPrevFirstChildIndexArr[headIndex];
+                i >= 0;
+                i = _optPrevNextSiblingIndexArr[i]) {
+            childRelativePathList.add(_optPrevSnapshot.getRelativePath(i));
+        }
+        ++_reusedDirCount;
+        return true;
+    }
+
+    private int _getReusablePrevDirIndex(FileTreeSnapshotEntry dirEntry) {
+        if (null == _optPrevSnapshot) {
+            return NOT_REUSABLE_INDEX;
+        }
+        final String relativePath = dirEntry.getRelativePath();
+        final int index;
+        final long prevLastModified;
+        final long prevInode;
+        if (relativePath.isEmpty()) {
+            index = ROOT_INDEX;
+            prevLastModified = _optPrevSnapshot.getRootDirLastModified();
+            prevInode = _optPrevSnapshot.getRootDirInode();
+        }
+        else {
+            index = _optPrevSnapshot.indexOf(relativePath);
+            if (index < 0 || !_optPrevSnapshot.isDirectory(index)) {
+                return NOT_REUSABLE_INDEX;
+            }
+            prevLastModified = _optPrevSnapshot.getLastModified(index);
+            prevInode = _optPrevSnapshot.getInode(index);
+        }
+        if (prevLastModified != dirEntry.getLastModified()
+                || prevInode != dirEntry.getInode()
+                || prevLastModified + DIRECTORY_LAST_MODIFIED_GRANULARITY_MILLIS
+                    > _optPrevSnapshot.getScanStartTimeMillis()) {
+            return NOT_REUSABLE_INDEX;
+        }
+        return index;
+    }
+
+    private void _initPrevChildIndexArrs() {
+        final int size = _optPrevSnapshot.size();
+        _optPrevFirstChildIndexArr = new int[1 + size];
+        Arrays.fill(_optPrevFirstChildIndexArr, -1);
+        _optPrevNextSiblingIndexArr = new int[size];
+        // Iterate backwards, so each linked list is in ascending order.
+        for (int i = size - 1; i >= 0; --i) {
+            String relativePath = _optPrevSnapshot.getRelativePath(i);
+            int slashIndex = relativePath.lastIndexOf('/');
+            int parentIndex =
+                (slashIndex < 0)
+                    ? size
+                    : _optPrevSnapshot.indexOf(relativePath.substring(0, slashIndex));
+            if (parentIndex >= 0) {
+                _optPrevNextSiblingIndexArr[i] = _optPrevFirstChildIndexArr[parentIndex];
+                _optPrevFirstChildIndexArr[parentIndex] = i;
+            }
+        }
+    }
+
+    /**
+     * Lists a directory.
+     *
+     * @param dirEntry
+     *        directory to list
+     * @param childRelativePathList
+     *        output list of relative paths of children
+     *
+     * @return {@code false} if the directory (other than the root) no longer exists
+     *
+     * @throws PathException
+     *         if the directory cannot be listed
+     */
+    static boolean addChildRelativePaths(
+            FileTreeSnapshotEntry dirEntry, List<String> childRelativePathList)
+    throws PathException {
+        final String dirRelativePath = dirEntry.getRelativePath();
+        final Path dirPath = dirEntry.getRootDirPath().toPath().resolve(dirRelativePath);
+        try {
+            DirectoryStream<Path> dirStream = Files.newDirectoryStream(dirPath);
+            try {
+                for (Path childPath : dirStream) {
+                    String childName = childPath.getFileName().toString();
+                    childRelativePathList.add(toChildRelativePath(dirRelativePath, childName));
+                }
+            }
+            finally {
+                dirStream.close();
+            }
+        }
+        catch (IOException e) {
+            if (!dirRelativePath.isEmpty() && isRemoved(dirPath, e)) {
+                return false;
+            }
+            throw DirectoryListing.newPathException(dirPath.toFile(), e);
+        }
+        return true;
+    }
+
+    /**
+     * Paths may be removed during a scan.  If a directory is replaced by a file, paths below
+     * fail with a generic "Not a directory" error, so the parent is also checked.
+     *
+     * @return {@code true} if {@code path} no longer exists
+     */
+    static boolean isRemoved(Path path, IOException e) {
+        if (e instanceof NoSuchFileException || e instanceof NotDirectoryException) {
+            return true;
+        }
+        Path optParentPath = path.getParent();
+        boolean x =
+            (null != optParentPath)
+            && !Files.isDirectory(optParentPath, LinkOption.NOFOLLOW_LINKS);
+        return x;
+    }
+
+    static String toChildRelativePath(String dirRelativePath, String childName) {
+        String x = dirRelativePath.isEmpty() ? childName : dirRelativePath + "/" + childName;
+        return x;
+    }
+
+    static FileTreeSnapshotEntry readRootEntry(File rootDirPath)
+    throws PathException {
+        FileTreeSnapshotEntry optRootEntry = readEntry(rootDirPath, "", rootDirPath.toPath());
+        if (null == optRootEntry) {
+            throw new PathException(
+                PathExceptionReason.PATH_DOES_NOT_EXIST,
+                rootDirPath,
+                null,
+                "Failed to snapshot directory: Path does not exist");
+        }
+        if (!optRootEntry.isDirectory()) {
+            throw new PathException(
+                PathExceptionReason.PATH_IS_NORMAL_FILE,
+                rootDirPath,
+                null,
+                "Failed to snapshot directory: Path is not a directory");
+        }
+        return optRootEntry;
+    }
+
+    /**
+     * Reads attributes of a path without following symbolic links.  On Unix-like systems, this
+     * is a single call to {@code lstat()}, including the inode.
+     *
+     * @return new entry or {@code null} if {@code path} does not exist
+     *
+     * @throws PathException
+     *         if attributes cannot be read for other reasons
+     */
+    static FileTreeSnapshotEntry readEntry(File rootDirPath, String relativePath, Path path)
+    throws PathException {
+        try {
+            final FileTreeSnapshotEntry x;
+            if (IS_UNIX_ATTRIBUTE_VIEW_SUPPORTED) {
+                Map<String, Object> attrMap =
+                    Files.readAttributes(path, UNIX_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+                x = new FileTreeSnapshotEntry(
+                    rootDirPath,
+                    relativePath,
+                    (Boolean) attrMap.get("isDirectory"),
+                    (Long) attrMap.get("size"),
+                    ((FileTime) attrMap.get("lastModifiedTime")).toMillis(),
+                    (Long) attrMap.get("ino"));
+            }
+            else {
+                BasicFileAttributes attrs =
+                    Files.readAttributes(
+                        path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                x = new FileTreeSnapshotEntry(
+                    rootDirPath,
+                    relativePath,
+                    attrs.isDirectory(),
+                    attrs.size(),
+                    attrs.lastModifiedTime().toMillis(),
+                    FileTreeSnapshot.UNKNOWN_INODE);
+            }
+            return x;
+        }
+        catch (IOException e) {
+            if (isRemoved(path, e)) {
+                return null;
+            }
+            throw new PathException(
+                PathExceptionReason.UNKNOWN,
+                path.toFile(),
+                null,
+                "Failed to read file attributes",
+                e);
+        }
+    }
+
+    // package-private for testing
+    int getListedDirCount() {
+        return _listedDirCount;
+    }
+
+    // package-private for testing
+    int getReusedDirCount() {
+        return _reusedDirCount;
+    }
+}
@@ -0,0 +1,373 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps a {@link FileTreeSnapshot} live using a {@link WatchService}.  Instead of rescanning the
+ * whole tree, only paths named by file system events are read again.
+ * <p>
+ * Typical usage:
+ * <pre>{@code
+ * FileTreeSnapshotWatcher watcher = new FileTreeSnapshotWatcher(dirPath);
+ * try {
+ *     while (...) {
+ *         FileTreeSnapshotDiff diff = watcher.poll(1, TimeUnit.SECONDS);
+ *         diff.addedStream().forEach(...);
+ *     }
+ * }
+ * finally {
+ *     watcher.close();
+ * }
+ * }</pre>
+ * <p>
+ * Every directory in the tree is registered with the watch service.  New directories are
+ * registered and scanned when they appear.  If the watch service drops events
+ * ({@link StandardWatchEventKinds#OVERFLOW}), the whole tree is scanned again.
+ * <p>
+ * Events are delivered asynchronously by the operating system, and some implementations poll
+ * the file system.  Thus, a change may be reported by a later call to
+ * {@link #poll(long, TimeUnit)}.
+ * <p>
+ * This class is not thread-safe, except {@link #close()}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see FileTreeSnapshot
+ */
+@FullyTested
+public final class FileTreeSnapshotWatcher
+implements Closeable {
+
+    private final File _rootDirPath;
+    private final WatchService _watchService;
+    private final Map<WatchKey, String> _watchKeyToDirRelativePathMap;
+    private final TreeMap<String, FileTreeSnapshotEntry> _entryMap;
+    private FileTreeSnapshot _snapshot;
+    private boolean _isDirty;
+    private boolean _isRescanNeeded;
+
+    /**
+     * Registers all directories below {@code rootDirPath} with a new watch service, then scans
+     * the tree.
+     *
+     * @param rootDirPath
+     *        directory to watch.  Must not be {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code rootDirPath} is {@code null}
+     * @throws PathException
+     * <ul>
+     *   <li>see {@link FileTreeSnapshot#scan(File)}</li>
+     *   <li>with reason {@link PathExceptionReason#UNKNOWN}
+     *   if a watch service cannot be created or a directory cannot be registered</li>
+     * </ul>
+     */
+    public FileTreeSnapshotWatcher(File rootDirPath)
+    throws PathException {
+        _rootDirPath = ObjectArgs.checkNotNull(rootDirPath, "rootDirPath").getAbsoluteFile();
+        FileTreeSnapshotEntry rootEntry = FileTreeSnapshotScanner.readRootEntry(_rootDirPath);
+        try {
+            _watchService = _rootDirPath.toPath().getFileSystem().newWatchService();
+        }
+        catch (IOException e) {
+            throw new PathException(
+                PathExceptionReason.UNKNOWN,
+                _rootDirPath,
+                null,
+                "Failed to create watch service",
+                e);
+        }
+        _watchKeyToDirRelativePathMap = new HashMap<WatchKey, String>();
+        _entryMap = new TreeMap<String, FileTreeSnapshotEntry>();
+        try {
+            final long scanStartTimeMillis = System.currentTimeMillis();
+            _addTree(rootEntry);
+            _snapshot = _newSnapshot(scanStartTimeMillis);
+        }
+        catch (PathException | RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Registers and scans a directory and all descendants.  Each directory is registered
+     * <b>before</b> it is listed, so no change is missed.
+     */
+    private void _addTree(FileTreeSnapshotEntry topDirEntry)
+    throws PathException {
+        ArrayDeque<FileTreeSnapshotEntry> dirStack = new ArrayDeque<FileTreeSnapshotEntry>();
+        dirStack.push(topDirEntry);
+        List<String> childRelativePathList = new ArrayList<String>();
+        while (!dirStack.isEmpty()) {
+            FileTreeSnapshotEntry dirEntry = dirStack.pop();
+            if (!_tryRegister(dirEntry)) {
+                continue;
+            }
+            childRelativePathList.clear();
+            if (!FileTreeSnapshotScanner.addChildRelativePaths(dirEntry, childRelativePathList)) {
+                continue;
+            }
+            for (String childRelativePath : childRelativePathList) {
+                FileTreeSnapshotEntry optEntry = _readEntry(childRelativePath);
+                if (null != optEntry) {
+                    _entryMap.put(childRelativePath, optEntry);
+                    if (optEntry.isDirectory()) {
+                        dirStack.push(optEntry);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean _tryRegister(FileTreeSnapshotEntry dirEntry)
+    throws PathException {
+        final String relativePath = dirEntry.getRelativePath();
+        final Path dirPath = _rootDirPath.toPath().resolve(relativePath);
+        try {
+            WatchKey key =
+                dirPath.register(
+                    _watchService,
+                    StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_DELETE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+            _watchKeyToDirRelativePathMap.put(key, relativePath);
+            return true;
+        }
+        catch (IOException e) {
+            if (!relativePath.isEmpty() && FileTreeSnapshotScanner.isRemoved(dirPath, e)) {
+                // Directory was removed before registration.
+                return false;
+            }
+            throw new PathException(
+                PathExceptionReason.UNKNOWN,
+                dirPath.toFile(),
+                null,
+                "Failed to register directory with watch service",
+                e);
+        }
+    }
+
+    private FileTreeSnapshotEntry _readEntry(String relativePath)
+    throws PathException {
+        FileTreeSnapshotEntry x =
+            FileTreeSnapshotScanner.readEntry(
+                _rootDirPath, relativePath, _rootDirPath.toPath().resolve(relativePath));
+        return x;
+    }
+
+    private FileTreeSnapshot _newSnapshot(long scanStartTimeMillis)
+    throws PathException {
+        FileTreeSnapshotEntry rootEntry = FileTreeSnapshotScanner.readRootEntry(_rootDirPath);
+        List<FileTreeSnapshotEntry> entryList =
+            new ArrayList<FileTreeSnapshotEntry>(_entryMap.values());
+        FileTreeSnapshot x =
+            FileTreeSnapshot.fromSortedEntryList(rootEntry, scanStartTimeMillis, entryList);
+        return x;
+    }
+
+    /**
+     * @return latest snapshot.  Never {@code null}.
+     */
+    public FileTreeSnapshot getSnapshot() {
+        return _snapshot;
+    }
+
+    /**
+     * Waits for file system events, applies all pending events, and updates
+     * {@link #getSnapshot()}.
+     *
+     * @param timeout
+     *        how long to wait for the first event.  Zero or negative does not wait.
+     * @param unit
+     *        unit of {@code timeout}.  Must not be {@code null}.
+     *
+     * @return differences from the previous snapshot to the new snapshot.  Empty if no events
+     *         arrived before the timeout.
+     *
+     * @throws NullPointerException
+     *         if {@code unit} is {@code null}
+     * @throws InterruptedException
+     *         if interrupted while waiting
+     * @throws java.nio.file.ClosedWatchServiceException
+     *         if this watcher is closed
+     * @throws PathException
+     *         if the root directory no longer exists, or a path cannot be read
+     */
+    public FileTreeSnapshotDiff poll(long timeout, TimeUnit unit)
+    throws InterruptedException, PathException {
+        ObjectArgs.checkNotNull(unit, "unit");
+
+        WatchKey optKey = _watchService.poll(timeout, unit);
+        final long scanStartTimeMillis = System.currentTimeMillis();
+        while (null != optKey) {
+            _processWatchKey(optKey);
+            optKey = _watchService.poll();
+        }
+        if (_isRescanNeeded) {
+            _rescan();
+        }
+        if (!_isDirty) {
+            return FileTreeSnapshotDiff.EMPTY;
+        }
+        FileTreeSnapshot newSnapshot = _newSnapshot(scanStartTimeMillis);
+        FileTreeSnapshotDiff x = _snapshot.diff(newSnapshot);
+        _snapshot = newSnapshot;
+        _isDirty = false;
+        return x;
+    }
+
+    private void _processWatchKey(WatchKey key)
+    throws PathException {
+        final String optDirRelativePath = _watchKeyToDirRelativePathMap.get(key);
+        boolean hasChildEvent = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (StandardWatchEventKinds.OVERFLOW == event.kind()) {
+                _isRescanNeeded = true;
+            }
+            else if (null != optDirRelativePath) {
+                String childName = event.context().toString();
+                String relativePath =
+                    FileTreeSnapshotScanner.toChildRelativePath(optDirRelativePath, childName);
+                _refresh(relativePath);
+                hasChildEvent = true;
+            }
+        }
+        // Changes to children also change the last modified time of their directory, but no
+        // event is delivered for the directory itself.  The root directory is read by
+        // _newSnapshot().
+        if (hasChildEvent && !optDirRelativePath.isEmpty()) {
+            _refresh(optDirRelativePath);
+        }
+        if (!key.reset()) {
+            // Directory was removed or cancelled.
+            _watchKeyToDirRelativePathMap.remove(key);
+        }
+    }
+
+    private void _refresh(String relativePath)
+    throws PathException {
+        FileTreeSnapshotEntry optEntry = _readEntry(relativePath);
+        FileTreeSnapshotEntry optPrevEntry =
+            (null == optEntry)
+                ? _entryMap.remove(relativePath)
+                : _entryMap.put(relativePath, optEntry);
+        if (null != optPrevEntry
+                && optPrevEntry.isDirectory()
+                && !_isSameDir(optEntry, optPrevEntry)) {
+            _removeDescendants(relativePath);
+        }
+        if (null != optEntry && optEntry.isDirectory() && !_isSameDir(optPrevEntry, optEntry)) {
+            _addTree(optEntry);
+        }
+        if (null == optEntry ? null != optPrevEntry : !optEntry.equals(optPrevEntry)) {
+            _isDirty = true;
+        }
+    }
+
+    private static boolean _isSameDir(
+            FileTreeSnapshotEntry optEntry, FileTreeSnapshotEntry dirEntry) {
+        boolean x =
+            null != optEntry
+            && optEntry.isDirectory()
+            && optEntry.getInode() == dirEntry.getInode();
+        return x;
+    }
+
+    private void _removeDescendants(String dirRelativePath) {
+        // All descendants sort between "dir/" and "dir0", as '0' follows '/'.
+        _entryMap.subMap(dirRelativePath + "/", dirRelativePath + "0").clear();
+        final String prefix = dirRelativePath + "/";
+        Iterator<Map.Entry<WatchKey, String>> iter =
+            _watchKeyToDirRelativePathMap.entrySet().iterator();
+        while (iter.hasNext()) {
+            Map.Entry<WatchKey, String> mapEntry = iter.next();
+            String relativePath = mapEntry.getValue();
+            if (relativePath.equals(dirRelativePath) || relativePath.startsWith(prefix)) {
+                mapEntry.getKey().cancel();
+                iter.remove();
+            }
+        }
+    }
+
+    private void _rescan()
+    throws PathException {
+        for (WatchKey key : _watchKeyToDirRelativePathMap.keySet()) {
+            key.cancel();
+        }
+        _watchKeyToDirRelativePathMap.clear();
+        _entryMap.clear();
+        _addTree(FileTreeSnapshotScanner.readRootEntry(_rootDirPath));
+        _isRescanNeeded = false;
+        _isDirty = true;
+    }
+
+    /**
+     * @return absolute path of root directory.  Never {@code null}.
+     */
+    public File getRootDirPath() {
+        return _rootDirPath;
+    }
+
+    // package-private for testing
+    int getWatchedDirCount() {
+        return _watchKeyToDirRelativePathMap.size();
+    }
+
+    /**
+     * Closes the watch service.  Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        try {
+            _watchService.close();
+        }
+        catch (IOException e) {
+            // Ignore: Nothing useful can be done.
+        }
+    }
+}
@@ -63,7 +63,7 @@ public enum FileType {
     NORMAL_FILE {
         @Override
         protected boolean _is(File path) {
-            return path.isFile();
+            return AttributedFile.cachedIsFile(path);
         }
     },
 
@@ -77,7 +77,7 @@ public enum FileType {
     DIRECTORY {
         @Override
         protected boolean _is(File path) {
-            return path.isDirectory();
+            return AttributedFile.cachedIsDirectory(path);
         }
     };
 
@@ -83,4 +83,25 @@ public interface ITraversePathUtils {
      * @see #newTraversePathIterable(File, TraversePathDepthPolicy)
      */
     TraversePathIterableFactory getTraversePathIterableFactory();
+
+    /**
+     * Retrieves the global instance that implements interface {@link TraversePathIterableFactory}
+     * where each new iterable uses a specific directory listing policy.
+     * <p>
+     * To read file attributes exactly once for each path, use
+     * {@link DirectoryListingPolicy#DIRECTORY_STREAM_WITH_ATTRIBUTES}.
+     *
+     * @param directoryListingPolicy
+     *        how to read directory listings.  Must not be {@code null}.
+     *
+     * @return global instance
+     *
+     * @throws NullPointerException
+     *         if {@code directoryListingPolicy} is {@code null}
+     *
+     * @see #getTraversePathIterableFactory()
+     * @see TraversePathIterable#withDirectoryListingPolicy(DirectoryListingPolicy)
+     */
+    TraversePathIterableFactory getTraversePathIterableFactory(
+        DirectoryListingPolicy directoryListingPolicy);
 }
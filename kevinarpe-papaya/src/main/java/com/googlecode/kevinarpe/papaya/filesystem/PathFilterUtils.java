@@ -37,6 +37,7 @@ import java.util.Collection;
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  *
  * @see FileFilterUtils
+ * @see PathPatternFilter
  */
 // TODO: Convert to I/*Utils format.
 @FullyTested
@@ -0,0 +1,337 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Combines many path patterns into one automaton, so each path is matched in a single pass,
+ * regardless of the number of patterns.
+ * <p>
+ * Patterns are first compiled into one non-deterministic automaton (NFA): each pattern is a
+ * sequence of {@link Token}s, and each token is one NFA state.  During matching, sets of NFA
+ * states are lazily converted to deterministic automaton (DFA) states, and transitions are
+ * cached.  After warm-up, matching a path costs one array lookup per character.  Literal prefixes
+ * share DFA states, like a trie.
+ * <p>
+ * To bound memory, at most {@code maxDfaStateCount} DFA states are cached.  Beyond this limit,
+ * transitions are computed on demand from NFA states, which is slower, but still correct.
+ * <p>
+ * Path separator is always {@code '/'}.
+ * <p>
+ * This class is thread-safe.  The transition cache is updated with atomic operations.  If two
+ * threads race, both compute the same transition, and one result is kept.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see PathPatternFilter
+ */
+final class PathPatternAutomaton {
+
+    static final int DEFAULT_MAX_DFA_STATE_COUNT = 10000;
+
+    /** Matches one literal char. */
+    static final byte LITERAL = 0;
+    /** Matches one char, except {@code '/'}: glob {@code ?}. */
+    static final byte ANY_CHAR = 1;
+    /** Matches one char from a {@link CharClass}, except {@code '/'}: glob {@code [...]}. */
+    static final byte CHAR_CLASS = 2;
+    /** Matches zero or more chars, except {@code '/'}: glob {@code *}. */
+    static final byte STAR = 3;
+    /** Matches zero or more chars, including {@code '/'}: glob {@code **}. */
+    static final byte DOUBLE_STAR = 4;
+    /** Matches zero or more directories, each ending with {@code '/'}: glob {@code **}{@code /}. */
+    static final byte DOUBLE_STAR_SLASH = 5;
+    private static final byte ACCEPT = 6;
+
+    private static final int ASCII_CHAR_COUNT = 128;
+
+    /**
+     * One NFA state.  For {@link #LITERAL}, {@code ch} is the char to match.  For
+     * {@link #CHAR_CLASS}, {@code optCharClass} is not {@code null}.
+     */
+    static final class Token {
+
+        final byte type;
+        final char ch;
+        final CharClass optCharClass;
+
+        Token(byte type, char ch, CharClass optCharClass) {
+            this.type = type;
+            this.ch = ch;
+            this.optCharClass = optCharClass;
+        }
+    }
+
+    /**
+     * Set of chars from a glob bracket expression, e.g., {@code [a-z_]} or {@code [!0-9]}.
+     */
+    static final class CharClass {
+
+        // Pairs of inclusive ranges: [first0, last0, first1, last1, ...]
+        private final char[] _rangeArr;
+        private final boolean _isNegated;
+
+        CharClass(char[] rangeArr, boolean isNegated) {
+            _rangeArr = rangeArr;
+            _isNegated = isNegated;
+        }
+
+        boolean matches(char ch) {
+            for (int i = 0; i < _rangeArr.length; i += 2) {
+                if (ch >= _rangeArr[i] && ch <= _rangeArr[i + 1]) {
+                    return !_isNegated;
+                }
+            }
+            return _isNegated;
+        }
+    }
+
+    private static final class _DfaState {
+
+        final BitSet nfaStateSet;
+        final int matchMask;
+        // Groups that match any path with this prefix, e.g., after a literal prefix then "**".
+        final int stickyMatchMask;
+        final boolean isDead;
+        final boolean isCached;
+        final AtomicReferenceArray<_DfaState> asciiNextStateArr;
+        final ConcurrentMap<Character, _DfaState> nonAsciiNextStateMap;
+
+        _DfaState(
+                BitSet nfaStateSet, int matchMask, int stickyMatchMask, boolean isCached) {
+            this.nfaStateSet = nfaStateSet;
+            this.matchMask = matchMask;
+            this.stickyMatchMask = stickyMatchMask;
+            this.isDead = nfaStateSet.isEmpty();
+            this.isCached = isCached;
+            this.asciiNextStateArr = new AtomicReferenceArray<_DfaState>(ASCII_CHAR_COUNT);
+            this.nonAsciiNextStateMap = new ConcurrentHashMap<Character, _DfaState>();
+        }
+    }
+
+    private final byte[] _typeArr;
+    private final char[] _charArr;
+    private final CharClass[] _charClassArr;
+    // Only set for ACCEPT states
+    private final int[] _groupMaskArr;
+    private final int _allGroupMask;
+    private final int _maxDfaStateCount;
+    private final ConcurrentMap<BitSet, _DfaState> _dfaStateMap;
+    private final _DfaState _startState;
+
+    /**
+     * @param patternList
+     *        each pattern is a sequence of tokens
+     * @param groupMaskList
+     *        for each pattern, a bit mask to identify its group, e.g.,
+     *        {@link PathPatternMatch#INCLUDE_MASK}
+     * @param maxDfaStateCount
+     *        maximum number of cached DFA states
+     */
+    PathPatternAutomaton(
+            List<Token[]> patternList, List<Integer> groupMaskList, int maxDfaStateCount) {
+        int stateCount = 0;
+        for (Token[] tokenArr : patternList) {
+            // Plus one: ACCEPT state
+            stateCount += 1 + tokenArr.length;
+        }
+        _typeArr = new byte[stateCount];
+        _charArr = new char[stateCount];
+        _charClassArr = new CharClass[stateCount];
+        _groupMaskArr = new int[stateCount];
+        _maxDfaStateCount = maxDfaStateCount;
+        _dfaStateMap = new ConcurrentHashMap<BitSet, _DfaState>();
+
+        BitSet startNfaStateSet = new BitSet(stateCount);
+        int allGroupMask = 0;
+        int state = 0;
+        for (int i = 0; i < patternList.size(); ++i) {
+            final int firstState = state;
+            for (Token token : patternList.get(i)) {
+                _typeArr[state] = token.type;
+                _charArr[state] = token.ch;
+                _charClassArr[state] = token.optCharClass;
+                ++state;
+            }
+            final int groupMask = groupMaskList.get(i);
+            _typeArr[state] = ACCEPT;
+            _groupMaskArr[state] = groupMask;
+            ++state;
+            allGroupMask |= groupMask;
+            _addClosure(startNfaStateSet, firstState);
+        }
+        _allGroupMask = allGroupMask;
+        _startState = _getDfaState(startNfaStateSet);
+    }
+
+    /**
+     * Matches a pathname against all patterns in a single pass.
+     *
+     * @return bit mask of groups with at least one matching pattern, or zero if none match
+     */
+    int match(CharSequence pathname) {
+        _DfaState state = _startState;
+        final int length = pathname.length();
+        for (int i = 0; i < length; ++i) {
+            if (state.isDead) {
+                return 0;
+            }
+            if (_allGroupMask == state.stickyMatchMask) {
+                return _allGroupMask;
+            }
+            state = _getNextDfaState(state, pathname.charAt(i));
+        }
+        return state.matchMask;
+    }
+
+    // package-private for testing
+    int getDfaStateCount() {
+        return _dfaStateMap.size();
+    }
+
+    private _DfaState _getNextDfaState(_DfaState state, char ch) {
+        if (ch < ASCII_CHAR_COUNT) {
+            _DfaState optNextState = state.asciiNextStateArr.get(ch);
+            if (null != optNextState) {
+                return optNextState;
+            }
+            _DfaState nextState = _newNextDfaState(state, ch);
+            if (nextState.isCached) {
+                state.asciiNextStateArr.set(ch, nextState);
+            }
+            return nextState;
+        }
+        else {
+            final Character key = Character.valueOf(ch);
+            _DfaState optNextState = state.nonAsciiNextStateMap.get(key);
+            if (null != optNextState) {
+                return optNextState;
+            }
+            _DfaState nextState = _newNextDfaState(state, ch);
+            if (nextState.isCached) {
+                state.nonAsciiNextStateMap.put(key, nextState);
+            }
+            return nextState;
+        }
+    }
+
+    private _DfaState _newNextDfaState(_DfaState state, char ch) {
+        final BitSet nfaStateSet = state.nfaStateSet;
+        final BitSet nextNfaStateSet = new BitSet(_typeArr.length);
+        for (int i = nfaStateSet.nextSetBit(0); i >= 0; i = nfaStateSet.nextSetBit(1 + i)) {
+            switch (_typeArr[i]) {
+                case LITERAL: {
+                    if (ch == _charArr[i]) {
+                        _addClosure(nextNfaStateSet, 1 + i);
+                    }
+                    break;
+                }
+                case ANY_CHAR: {
+                    if ('/' != ch) {
+                        _addClosure(nextNfaStateSet, 1 + i);
+                    }
+                    break;
+                }
+                case CHAR_CLASS: {
+                    if ('/' != ch && _charClassArr[i].matches(ch)) {
+                        _addClosure(nextNfaStateSet, 1 + i);
+                    }
+                    break;
+                }
+                case STAR: {
+                    if ('/' != ch) {
+                        _addClosure(nextNfaStateSet, i);
+                    }
+                    break;
+                }
+                case DOUBLE_STAR: {
+                    _addClosure(nextNfaStateSet, i);
+                    break;
+                }
+                case DOUBLE_STAR_SLASH: {
+                    // Inside a directory name: Next token may only follow '/'.
+                    nextNfaStateSet.set(i);
+                    if ('/' == ch) {
+                        _addClosure(nextNfaStateSet, 1 + i);
+                    }
+                    break;
+                }
+                default: {
+                    // ACCEPT: No transitions
+                    break;
+                }
+            }
+        }
+        _DfaState x = _getDfaState(nextNfaStateSet);
+        return x;
+    }
+
+    /**
+     * Adds an NFA state and all states reachable without consuming a char.  Only star tokens
+     * may match zero chars, so the closure always follows the next state.
+     */
+    private void _addClosure(BitSet nfaStateSet, int state) {
+        // Do not stop early if state is already set: DOUBLE_STAR_SLASH may be set without closure.
+        while (true) {
+            nfaStateSet.set(state);
+            final byte type = _typeArr[state];
+            if (STAR != type && DOUBLE_STAR != type && DOUBLE_STAR_SLASH != type) {
+                break;
+            }
+            ++state;
+        }
+    }
+
+    private _DfaState _getDfaState(BitSet nfaStateSet) {
+        _DfaState optState = _dfaStateMap.get(nfaStateSet);
+        if (null != optState) {
+            return optState;
+        }
+        int matchMask = 0;
+        int stickyMatchMask = 0;
+        for (int i = nfaStateSet.nextSetBit(0); i >= 0; i = nfaStateSet.nextSetBit(1 + i)) {
+            if (ACCEPT == _typeArr[i]) {
+                matchMask |= _groupMaskArr[i];
+            }
+            else if (DOUBLE_STAR == _typeArr[i] && ACCEPT == _typeArr[1 + i]) {
+                stickyMatchMask |= _groupMaskArr[1 + i];
+            }
+        }
+        if (_dfaStateMap.size() >= _maxDfaStateCount) {
+            _DfaState x = new _DfaState(nfaStateSet, matchMask, stickyMatchMask, false);
+            return x;
+        }
+        _DfaState newState = new _DfaState(nfaStateSet, matchMask, stickyMatchMask, true);
+        _DfaState optOtherState = _dfaStateMap.putIfAbsent(nfaStateSet, newState);
+        _DfaState x = (null == optOtherState) ? newState : optOtherState;
+        return x;
+    }
+}
@@ -0,0 +1,533 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.argument.StringArgs;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Path filter to match many glob and literal prefix/suffix patterns in a single pass.  Unlike
+ * {@link PathFilterUtils#anyOf(Collection)}, which tests each filter in turn, all patterns are
+ * compiled into one combined automaton.  Cost to match a path depends upon path length, but
+ * not the number of patterns.
+ * <p>
+ * Patterns belong to one of two groups: include or exclude.  Method {@link #match(CharSequence)}
+ * reports which groups match a path.  Method {@link #accept(File, int)} accepts a path if it
+ * matches an include pattern (or there are no include patterns), and does not match an exclude
+ * pattern.
+ * <p>
+ * Glob syntax:
+ * <ul>
+ *   <li>{@code *}: zero or more chars, except {@code '/'}</li>
+ *   <li>{@code **}: zero or more chars, including {@code '/'}</li>
+ *   <li>{@code **}{@code /}: zero or more directories, e.g., {@code a/**}{@code /b} matches
+ *   {@code a/b} and {@code a/x/y/b}</li>
+ *   <li>{@code ?}: one char, except {@code '/'}</li>
+ *   <li>{@code [abc]}, {@code [a-z]}, {@code [!a-z]}: one char in (or not in) a set, except
+ *   {@code '/'}</li>
+ *   <li>{@code {java,kt}}: alternatives, which may be nested</li>
+ *   <li>{@code \}: escape the next char</li>
+ * </ul>
+ * <p>
+ * A glob must match the entire pathname.  Path separator is always {@code '/'}.  To match a
+ * file name in any directory, start with {@code **}{@code /}, e.g., {@code **}{@code /*Test.java}.
+ * <p>
+ * Instances are immutable and thread-safe.  Build with {@link #builder()}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see PathPatternMatch
+ */
+@FullyTested
+public final class PathPatternFilter
+implements PathFilter {
+
+    /**
+     * @return new builder with no patterns
+     */
+    public static Builder builder() {
+        Builder x = new Builder();
+        return x;
+    }
+
+    /**
+     * Escapes all special glob chars, so a literal string may be used as part of a glob.
+     * Example: {@code "**}{@code /" + escapeGlob("a*b.txt")} matches files named {@code a*b.txt}
+     * in any directory.
+     *
+     * @param literal
+     *        must not be {@code null}
+     *
+     * @return glob that only matches {@code literal}
+     *
+     * @throws NullPointerException
+     *         if {@code literal} is {@code null}
+     */
+    public static String escapeGlob(String literal) {
+        ObjectArgs.checkNotNull(literal, "literal");
+
+        StringBuilder sb = new StringBuilder(literal.length());
+        for (int i = 0; i < literal.length(); ++i) {
+            final char ch = literal.charAt(i);
+            if (-1 != SPECIAL_GLOB_CHARS.indexOf(ch)) {
+                sb.append('\\');
+            }
+            sb.append(ch);
+        }
+        String x = sb.toString();
+        return x;
+    }
+
+    private static final String SPECIAL_GLOB_CHARS = "\\*?[]{},";
+
+    private final PathPatternAutomaton _automaton;
+    private final int _patternCount;
+    private final boolean _hasIncludePattern;
+
+    private PathPatternFilter(Builder builder) {
+        _automaton =
+            new PathPatternAutomaton(
+                builder._patternList, builder._groupMaskList, builder._maxDfaStateCount);
+        _patternCount = builder._patternList.size();
+        _hasIncludePattern = builder._groupMaskList.contains(PathPatternMatch.INCLUDE_MASK);
+    }
+
+    /**
+     * Matches the absolute path.  On platforms where the path separator is not {@code '/'}, it is
+     * converted to {@code '/'}.
+     * <hr>
+     * {@inheritDoc}
+     *
+     * @return {@code true} if the absolute path matches at least one include pattern (or there are
+     *         no include patterns), and no exclude pattern
+     *
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     *
+     * @see #match(CharSequence)
+     */
+    @Override
+    public boolean accept(File path, int depth) {
+        ObjectArgs.checkNotNull(path, "path");
+
+        String absPathname = path.getAbsolutePath();
+        if ('/' != File.separatorChar) {
+            absPathname = absPathname.replace(File.separatorChar, '/');
+        }
+        PathPatternMatch match = match(absPathname);
+        boolean x = (match.isInclude() || !_hasIncludePattern) && !match.isExclude();
+        return x;
+    }
+
+    /**
+     * Matches a pathname against all include and exclude patterns in a single pass.
+     *
+     * @param pathname
+     *        must not be {@code null}.  Path separator must be {@code '/'}.
+     *
+     * @return which groups of patterns match
+     *
+     * @throws NullPointerException
+     *         if {@code pathname} is {@code null}
+     *
+     * @see #accept(File, int)
+     */
+    public PathPatternMatch match(CharSequence pathname) {
+        ObjectArgs.checkNotNull(pathname, "pathname");
+
+        final int mask = _automaton.match(pathname);
+        PathPatternMatch x = PathPatternMatch.fromMask(mask);
+        return x;
+    }
+
+    /**
+     * @return number of patterns after expansion of glob alternatives, e.g., {@code *.{c,h}} is
+     *         two patterns
+     */
+    public int getPatternCount() {
+        return _patternCount;
+    }
+
+    // package-private for testing
+    PathPatternAutomaton getAutomaton() {
+        return _automaton;
+    }
+
+    /**
+     * Collects patterns for {@link PathPatternFilter}.  Not thread-safe.
+     *
+     * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+     */
+    public static final class Builder {
+
+        private final List<PathPatternAutomaton.Token[]> _patternList;
+        private final List<Integer> _groupMaskList;
+        private int _maxDfaStateCount;
+
+        private Builder() {
+            _patternList = new ArrayList<PathPatternAutomaton.Token[]>();
+            _groupMaskList = new ArrayList<Integer>();
+            _maxDfaStateCount = PathPatternAutomaton.DEFAULT_MAX_DFA_STATE_COUNT;
+        }
+
+        /**
+         * @param glob
+         *        see {@link PathPatternFilter} for syntax.  Must not be {@code null} or empty.
+         *
+         * @return self for fluent interface / method chaining
+         *
+         * @throws NullPointerException
+         *         if {@code glob} is {@code null}
+         * @throws IllegalArgumentException
+         *         if {@code glob} is empty or has invalid syntax, e.g., unclosed {@code '['}
+         */
+        public Builder addIncludeGlob(String glob) {
+            _addGlob(glob, PathPatternMatch.INCLUDE_MASK);
+            return this;
+        }
+
+        /**
+         * @param prefix
+         *        literal prefix, e.g., {@code "/home/kca/src/"}.  Must not be {@code null} or
+         *        empty.
+         *
+         * @return self for fluent interface / method chaining
+         *
+         * @throws NullPointerException
+         *         if {@code prefix} is {@code null}
+         * @throws IllegalArgumentException
+         *         if {@code prefix} is empty
+         */
+        public Builder addIncludeLiteralPrefix(String prefix) {
+            _addLiteral(prefix, "prefix", false, true, PathPatternMatch.INCLUDE_MASK);
+            return this;
+        }
+
+        /**
+         * @param suffix
+         *        literal suffix, e.g., {@code ".java"}.  Must not be {@code null} or empty.
+         *
+         * @return self for fluent interface / method chaining
+         *
+         * @throws NullPointerException
+         *         if {@code suffix} is {@code null}
+         * @throws IllegalArgumentException
+         *         if {@code suffix} is empty
+         */
+        public Builder addIncludeLiteralSuffix(String suffix) {
+            _addLiteral(suffix, "suffix", true, false, PathPatternMatch.INCLUDE_MASK);
+            return this;
+        }
+
+        /**
+         * Same as {@link #addIncludeGlob(String)}, but for an exclude pattern.
+         */
+        public Builder addExcludeGlob(String glob) {
+            _addGlob(glob, PathPatternMatch.EXCLUDE_MASK);
+            return this;
+        }
+
+        /**
+         * Same as {@link #addIncludeLiteralPrefix(String)}, but for an exclude pattern.
+         */
+        public Builder addExcludeLiteralPrefix(String prefix) {
+            _addLiteral(prefix, "prefix", false, true, PathPatternMatch.EXCLUDE_MASK);
+            return this;
+        }
+
+        /**
+         * Same as {@link #addIncludeLiteralSuffix(String)}, but for an exclude pattern.
+         */
+        public Builder addExcludeLiteralSuffix(String suffix) {
+            _addLiteral(suffix, "suffix", true, false, PathPatternMatch.EXCLUDE_MASK);
+            return this;
+        }
+
+        // package-private for testing
+        Builder withMaxDfaStateCount(int maxDfaStateCount) {
+            _maxDfaStateCount = IntArgs.checkNotNegative(maxDfaStateCount, "maxDfaStateCount");
+            return this;
+        }
+
+        /**
+         * Compiles all patterns.  This builder may be modified and reused afterwards.
+         *
+         * @return new immutable path filter
+         */
+        public PathPatternFilter build() {
+            PathPatternFilter x = new PathPatternFilter(this);
+            return x;
+        }
+
+        private void _addGlob(String glob, int groupMask) {
+            StringArgs.checkNotEmpty(glob, "glob");
+
+            List<String> expandedGlobList = new ArrayList<String>();
+            _expandAlternatives(glob, glob, expandedGlobList);
+            for (String expandedGlob : expandedGlobList) {
+                PathPatternAutomaton.Token[] tokenArr = _parseGlob(glob, expandedGlob);
+                _patternList.add(tokenArr);
+                _groupMaskList.add(groupMask);
+            }
+        }
+
+        private void _addLiteral(
+                String literal,
+                String argName,
+                boolean hasLeadingDoubleStar,
+                boolean hasTrailingDoubleStar,
+                int groupMask) {
+            StringArgs.checkNotEmpty(literal, argName);
+
+            List<PathPatternAutomaton.Token> tokenList =
+                new ArrayList<PathPatternAutomaton.Token>();
+            if (hasLeadingDoubleStar) {
+                tokenList.add(_newToken(PathPatternAutomaton.DOUBLE_STAR));
+            }
+            for (int i = 0; i < literal.length(); ++i) {
+                tokenList.add(_newLiteralToken(literal.charAt(i)));
+            }
+            if (hasTrailingDoubleStar) {
+                tokenList.add(_newToken(PathPatternAutomaton.DOUBLE_STAR));
+            }
+            _patternList.add(_toArray(tokenList));
+            _groupMaskList.add(groupMask);
+        }
+    }
+
+    /**
+     * Expands the first (outer-most) glob alternatives, e.g., {@code {a,b}}, then recurses.
+     */
+    private static void _expandAlternatives(String origGlob, String glob, List<String> outList) {
+        int openIndex = -1;
+        int depth = 0;
+        for (int i = 0; i < glob.length(); ++i) {
+            final char ch = glob.charAt(i);
+            if ('\\' == ch) {
+                ++i;
+            }
+            else if ('[' == ch) {
+                final int closeIndex = _findCharClassCloseIndex(glob, i);
+                if (-1 == closeIndex) {
+                    // Report in _parseGlob().
+                    break;
+                }
+                i = closeIndex;
+            }
+            else if ('{' == ch) {
+                if (0 == depth) {
+                    openIndex = i;
+                }
+                ++depth;
+            }
+            else if ('}' == ch && depth > 0) {
+                --depth;
+                if (0 == depth) {
+                    final String prefix = glob.substring(0, openIndex);
+                    final String suffix = glob.substring(1 + i);
+                    for (String alternative : _splitAlternatives(glob, openIndex + 1, i)) {
+                        _expandAlternatives(origGlob, prefix + alternative + suffix, outList);
+                    }
+                    return;
+                }
+            }
+        }
+        if (depth > 0) {
+            throw new IllegalArgumentException(String.format(
+                "Invalid glob: Missing '}' to close '{' at index %d: \"%s\"", openIndex, origGlob));
+        }
+        outList.add(glob);
+    }
+
+    /**
+     * Splits text between braces at top-level commas.
+     */
+    private static List<String> _splitAlternatives(String glob, int beginIndex, int endIndex) {
+        List<String> list = new ArrayList<String>();
+        int depth = 0;
+        int alternativeBeginIndex = beginIndex;
+        for (int i = beginIndex; i < endIndex; ++i) {
+            final char ch = glob.charAt(i);
+            if ('\\' == ch) {
+                ++i;
+            }
+            else if ('[' == ch) {
+                i = _findCharClassCloseIndex(glob, i);
+            }
+            else if ('{' == ch) {
+                ++depth;
+            }
+            else if ('}' == ch) {
+                --depth;
+            }
+            else if (',' == ch && 0 == depth) {
+                list.add(glob.substring(alternativeBeginIndex, i));
+                alternativeBeginIndex = 1 + i;
+            }
+        }
+        list.add(glob.substring(alternativeBeginIndex, endIndex));
+        return list;
+    }
+
+    /**
+     * @return index of {@code ']'} to close {@code '['} at {@code openIndex}, or {@code -1}
+     */
+    private static int _findCharClassCloseIndex(String glob, int openIndex) {
+        int i = 1 + openIndex;
+        if (i < glob.length() && ('!' == glob.charAt(i) || '^' == glob.charAt(i))) {
+            ++i;
+        }
+        // Leading ']' is literal, e.g., "[]]"
+        if (i < glob.length() && ']' == glob.charAt(i)) {
+            ++i;
+        }
+        for (; i < glob.length(); ++i) {
+            final char ch = glob.charAt(i);
+            if ('\\' == ch) {
+                ++i;
+            }
+            else if (']' == ch) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static PathPatternAutomaton.Token[] _parseGlob(String origGlob, String glob) {
+        List<PathPatternAutomaton.Token> tokenList = new ArrayList<PathPatternAutomaton.Token>();
+        final int length = glob.length();
+        for (int i = 0; i < length; ++i) {
+            final char ch = glob.charAt(i);
+            if ('\\' == ch) {
+                ++i;
+                if (i == length) {
+                    throw new IllegalArgumentException(
+                        "Invalid glob: Trailing '\\' escapes nothing: \"" + origGlob + "\"");
+                }
+                tokenList.add(_newLiteralToken(glob.charAt(i)));
+            }
+            else if ('*' == ch) {
+                if (1 + i < length && '*' == glob.charAt(1 + i)) {
+                    // Collapse "***" to "**"
+                    while (1 + i < length && '*' == glob.charAt(1 + i)) {
+                        ++i;
+                    }
+                    if (1 + i < length && '/' == glob.charAt(1 + i)) {
+                        ++i;
+                        tokenList.add(_newToken(PathPatternAutomaton.DOUBLE_STAR_SLASH));
+                    }
+                    else {
+                        tokenList.add(_newToken(PathPatternAutomaton.DOUBLE_STAR));
+                    }
+                }
+                else {
+                    tokenList.add(_newToken(PathPatternAutomaton.STAR));
+                }
+            }
+            else if ('?' == ch) {
+                tokenList.add(_newToken(PathPatternAutomaton.ANY_CHAR));
+            }
+            else if ('[' == ch) {
+                final int closeIndex = _findCharClassCloseIndex(glob, i);
+                if (-1 == closeIndex) {
+                    throw new IllegalArgumentException(
+                        "Invalid glob: Missing ']' to close '[': \"" + origGlob + "\"");
+                }
+                PathPatternAutomaton.CharClass charClass =
+                    _parseCharClass(glob, 1 + i, closeIndex);
+                tokenList.add(
+                    new PathPatternAutomaton.Token(
+                        PathPatternAutomaton.CHAR_CLASS, '\0', charClass));
+                i = closeIndex;
+            }
+            else {
+                tokenList.add(_newLiteralToken(ch));
+            }
+        }
+        PathPatternAutomaton.Token[] x = _toArray(tokenList);
+        return x;
+    }
+
+    private static PathPatternAutomaton.CharClass _parseCharClass(
+            String glob, int beginIndex, int endIndex) {
+        int i = beginIndex;
+        final boolean isNegated = ('!' == glob.charAt(i) || '^' == glob.charAt(i));
+        if (isNegated) {
+            ++i;
+        }
+        StringBuilder rangeBuilder = new StringBuilder();
+        while (i < endIndex) {
+            char first = glob.charAt(i);
+            if ('\\' == first) {
+                ++i;
+                first = glob.charAt(i);
+            }
+            ++i;
+            char last = first;
+            // Trailing '-' is literal, e.g., "[a-]"
+            if (1 + i < endIndex && '-' == glob.charAt(i)) {
+                ++i;
+                last = glob.charAt(i);
+                if ('\\' == last) {
+                    ++i;
+                    last = glob.charAt(i);
+                }
+                ++i;
+            }
+            if (last < first) {
+                throw new IllegalArgumentException(String.format(
+                    "Invalid glob: Char range '%c-%c' is reversed: \"%s\"", first, last, glob));
+            }
+            rangeBuilder.append(first).append(last);
+        }
+        char[] rangeArr = rangeBuilder.toString().toCharArray();
+        PathPatternAutomaton.CharClass x = new PathPatternAutomaton.CharClass(rangeArr, isNegated);
+        return x;
+    }
+
+    private static PathPatternAutomaton.Token _newToken(byte type) {
+        PathPatternAutomaton.Token x = new PathPatternAutomaton.Token(type, '\0', null);
+        return x;
+    }
+
+    private static PathPatternAutomaton.Token _newLiteralToken(char ch) {
+        PathPatternAutomaton.Token x =
+            new PathPatternAutomaton.Token(PathPatternAutomaton.LITERAL, ch, null);
+        return x;
+    }
+
+    private static PathPatternAutomaton.Token[] _toArray(List<PathPatternAutomaton.Token> list) {
+        PathPatternAutomaton.Token[] x = list.toArray(new PathPatternAutomaton.Token[list.size()]);
+        return x;
+    }
+}
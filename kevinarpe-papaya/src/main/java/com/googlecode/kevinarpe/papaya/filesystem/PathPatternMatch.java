@@ -0,0 +1,93 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+/**
+ * Result of {@link PathPatternFilter#match(CharSequence)}: which groups of patterns, include or
+ * exclude, match a path.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see PathPatternFilter
+ */
+@FullyTested
+public enum PathPatternMatch {
+
+    /**
+     * No include or exclude pattern matches.
+     */
+    NONE(false, false),
+
+    /**
+     * At least one include pattern matches, but no exclude pattern matches.
+     */
+    INCLUDE(true, false),
+
+    /**
+     * At least one exclude pattern matches, but no include pattern matches.
+     */
+    EXCLUDE(false, true),
+
+    /**
+     * At least one include pattern and at least one exclude pattern match.
+     */
+    INCLUDE_AND_EXCLUDE(true, true);
+
+    // Index is match mask: include is bit 0 and exclude is bit 1.
+    private static final PathPatternMatch[] _VALUE_ARR = values();
+
+    static final int INCLUDE_MASK = 1;
+    static final int EXCLUDE_MASK = 2;
+
+    private final boolean _isInclude;
+    private final boolean _isExclude;
+
+    private PathPatternMatch(boolean isInclude, boolean isExclude) {
+        _isInclude = isInclude;
+        _isExclude = isExclude;
+    }
+
+    static PathPatternMatch fromMask(int mask) {
+        PathPatternMatch x = _VALUE_ARR[mask];
+        return x;
+    }
+
+    /**
+     * @return {@code true} if at least one include pattern matches
+     */
+    public boolean isInclude() {
+        return _isInclude;
+    }
+
+    /**
+     * @return {@code true} if at least one exclude pattern matches
+     */
+    public boolean isExclude() {
+        return _isExclude;
+    }
+}
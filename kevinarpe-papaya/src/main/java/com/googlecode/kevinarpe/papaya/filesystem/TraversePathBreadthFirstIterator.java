@@ -0,0 +1,211 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Iterates paths level by level: all paths at depth one, then all paths at depth two, etc.
+ * Pending directories are stored in a {@link TraversePathFrontierQueue}, which spills to a
+ * temporary file beyond {@link #withBreadthFirstFrontierCapacity()}.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see TraversePathDepthPolicy#BREADTH_FIRST
+ */
+@FullyTested
+final class TraversePathBreadthFirstIterator
+extends AbstractTraversePathIteratorImpl {
+
+    private final TraversePathFrontierQueue _frontierQueue;
+    private boolean _isInitDone;
+    private TraversePathLevel _currentLevel;  // null before first level and after last level
+    private int _currentDepth;
+    private boolean _hasIteratedDirPath;
+
+    TraversePathBreadthFirstIterator(
+            File dirPath,
+            TraversePathDepthPolicy depthPolicy,
+            TraversePathExceptionPolicy exceptionPolicy,
+            DirectoryListingPolicy directoryListingPolicy,
+            int breadthFirstFrontierCapacity,
+            int directoryListingPrefetchCount,
+            int directoryListingPrefetchMaxPathCount,
+            PathFilter optDescendDirPathFilter,
+            Comparator<File> optDescendDirPathComparator,
+            PathFilter optIteratePathFilter,
+            Comparator<File> optIteratePathComparator) {
+        super(
+            dirPath,
+            depthPolicy,
+            exceptionPolicy,
+            directoryListingPolicy,
+            breadthFirstFrontierCapacity,
+            directoryListingPrefetchCount,
+            directoryListingPrefetchMaxPathCount,
+            optDescendDirPathFilter,
+            optDescendDirPathComparator,
+            optIteratePathFilter,
+            optIteratePathComparator);
+        _frontierQueue = new TraversePathFrontierQueue(breadthFirstFrontierCapacity);
+        _isInitDone = false;
+        _currentLevel = null;  // Pedantic.
+        _currentDepth = 0;
+        _hasIteratedDirPath = false;
+    }
+
+    private void _doInit() {
+        if (!_isInitDone) {
+            File dirPath = withRootDirPath();
+            PathFilter optDescendDirFilter = withOptionalDescendDirPathFilter();
+            if (null == optDescendDirFilter || optDescendDirFilter.accept(dirPath, 0)) {
+                _addToFrontier(dirPath, 1);
+            }
+            if (!canIterateDirPath()) {
+                _hasIteratedDirPath = true;  // We will never iterate 'dirPath'.
+            }
+            _isInitDone = true;
+        }
+    }
+
+    private void _addToFrontier(File dirPath, int depth) {
+        try {
+            _frontierQueue.add(dirPath, depth);
+        }
+        catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to spill breadth-first frontier", e);
+        }
+    }
+
+    private TraversePathFrontierQueue.Entry _pollFrontier() {
+        try {
+            TraversePathFrontierQueue.Entry x = _frontierQueue.poll();
+            return x;
+        }
+        catch (IOException e) {
+            close();
+            throw new UncheckedIOException("Failed to read spilled breadth-first frontier", e);
+        }
+    }
+
+    /**
+     * Lists the next directory from the frontier.  All accepted descend directories from the new
+     * listing are immediately appended to the frontier.
+     *
+     * @return {@code false} if the frontier is empty
+     */
+    private boolean _tryListNextDir() {
+        TraversePathFrontierQueue.Entry entry = _pollFrontier();
+        if (null == entry) {
+            return false;
+        }
+        // If directory listing fails, but exceptions are ignored, 'level' will be null.
+        TraversePathLevel level = tryNewLevel(entry.dirPath, entry.depth);
+        if (null != level) {
+            Iterator<File> descendDirPathIter = level.getDescendDirPathIter();
+            while (descendDirPathIter.hasNext()) {
+                File descendDirPath = descendDirPathIter.next();
+                _addToFrontier(descendDirPath, 1 + entry.depth);
+            }
+        }
+        prefetchUpcomingDirPaths();
+        _currentLevel = level;
+        _currentDepth = entry.depth;
+        return true;
+    }
+
+    @Override
+    public boolean hasNext() {
+        _doInit();
+        if (!_hasIteratedDirPath) {
+            return true;
+        }
+        while (null == _currentLevel || !_currentLevel.getIteratePathIter().hasNext()) {
+            if (!_tryListNextDir()) {
+                _currentLevel = null;
+                close();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public File next() {
+        assertHasNext();
+        if (!_hasIteratedDirPath) {
+            _hasIteratedDirPath = true;
+            File dirPath = withRootDirPath();
+            return dirPath;
+        }
+        File path = _currentLevel.getIteratePathIter().next();
+        return path;
+    }
+
+    /**
+     * @return depth of the current directory listing.  Before the first directory listing, this
+     *         is zero.
+     */
+    @Override
+    public int getDepth() {
+        return _currentDepth;
+    }
+
+    /**
+     * Deletes the temporary file used by the frontier, if any, and releases background threads
+     * used by directory listing prefetch, if any.
+     * <hr>
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        _frontierQueue.close();
+        super.close();
+    }
+
+    /**
+     * Upcoming directories are the head of the frontier.
+     * <hr>
+     * {@inheritDoc}
+     */
+    @Override
+    protected void addUpcomingDirPaths(List<File> dirPathList, int maxCount) {
+        _frontierQueue.addUpcomingDirPaths(dirPathList, maxCount);
+    }
+
+    // package-private for testing
+    TraversePathFrontierQueue getFrontierQueue() {
+        return _frontierQueue;
+    }
+}
@@ -51,10 +51,40 @@ extends AbstractTraversePathIteratorImpl {
             Comparator<File> optDescendDirPathComparator,
             PathFilter optIteratePathFilter,
             Comparator<File> optIteratePathComparator) {
+        this(
+            dirPath,
+            depthPolicy,
+            exceptionPolicy,
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
+            optDescendDirPathFilter,
+            optDescendDirPathComparator,
+            optIteratePathFilter,
+            optIteratePathComparator);
+    }
+
+    TraversePathDepthFirstIterator(
+            File dirPath,
+            TraversePathDepthPolicy depthPolicy,
+            TraversePathExceptionPolicy exceptionPolicy,
+            DirectoryListingPolicy directoryListingPolicy,
+            int breadthFirstFrontierCapacity,
+            int directoryListingPrefetchCount,
+            int directoryListingPrefetchMaxPathCount,
+            PathFilter optDescendDirPathFilter,
+            Comparator<File> optDescendDirPathComparator,
+            PathFilter optIteratePathFilter,
+            Comparator<File> optIteratePathComparator) {
         super(
             dirPath,
             depthPolicy,
             exceptionPolicy,
+            directoryListingPolicy,
+            breadthFirstFrontierCapacity,
+            directoryListingPrefetchCount,
+            directoryListingPrefetchMaxPathCount,
             optDescendDirPathFilter,
             optDescendDirPathComparator,
             optIteratePathFilter,
@@ -69,7 +99,7 @@ extends AbstractTraversePathIteratorImpl {
         if (null != _currentLevel) {
             while (true) {
                 Iterator<File> descendDirPathIter =
-                    _currentLevel.getDescendDirDirectoryListingIter();
+                    _currentLevel.getDescendDirPathIter();
                 if (!descendDirPathIter.hasNext()) {
                     break;
                 }
@@ -93,7 +123,7 @@ extends AbstractTraversePathIteratorImpl {
     @Override
     public boolean hasNext() {
         _doInit();
-        while (null != _currentLevel && !_currentLevel.getIterateDirectoryListingIter().hasNext()) {
+        while (null != _currentLevel && !_currentLevel.getIteratePathIter().hasNext()) {
             _currentLevel = tryRemoveAndGetNextLevel();
             _descendAndUpdateCurrentLevel();
         }
@@ -105,12 +135,14 @@ extends AbstractTraversePathIteratorImpl {
                 }
                 else {
                     _hasIteratedDirPath = true;
+                    close();
                     return false;
                 }
             }
+            close();
             return false;
         }
-        return _currentLevel.getIterateDirectoryListingIter().hasNext();
+        return _currentLevel.getIteratePathIter().hasNext();
     }
 
     @Override
@@ -121,7 +153,7 @@ extends AbstractTraversePathIteratorImpl {
             _isNextElementDirPath = false;
             return withRootDirPath();
         }
-        Iterator<File> iterateDirPathIter =_currentLevel.getIterateDirectoryListingIter();
+        Iterator<File> iterateDirPathIter =_currentLevel.getIteratePathIter();
         File path = iterateDirPathIter.next();
         return path;
     }
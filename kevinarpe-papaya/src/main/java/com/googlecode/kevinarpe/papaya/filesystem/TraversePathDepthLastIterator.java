@@ -50,10 +50,40 @@ extends AbstractTraversePathIteratorImpl {
             Comparator<File> optDescendDirPathComparator,
             PathFilter optIteratePathFilter,
             Comparator<File> optIteratePathComparator) {
+        this(
+            dirPath,
+            depthPolicy,
+            exceptionPolicy,
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
+            optDescendDirPathFilter,
+            optDescendDirPathComparator,
+            optIteratePathFilter,
+            optIteratePathComparator);
+    }
+
+    TraversePathDepthLastIterator(
+            File dirPath,
+            TraversePathDepthPolicy depthPolicy,
+            TraversePathExceptionPolicy exceptionPolicy,
+            DirectoryListingPolicy directoryListingPolicy,
+            int breadthFirstFrontierCapacity,
+            int directoryListingPrefetchCount,
+            int directoryListingPrefetchMaxPathCount,
+            PathFilter optDescendDirPathFilter,
+            Comparator<File> optDescendDirPathComparator,
+            PathFilter optIteratePathFilter,
+            Comparator<File> optIteratePathComparator) {
         super(
             dirPath,
             depthPolicy,
             exceptionPolicy,
+            directoryListingPolicy,
+            breadthFirstFrontierCapacity,
+            directoryListingPrefetchCount,
+            directoryListingPrefetchMaxPathCount,
             optDescendDirPathFilter,
             optDescendDirPathComparator,
             optIteratePathFilter,
@@ -80,18 +110,19 @@ extends AbstractTraversePathIteratorImpl {
         }
         // New
         while (null != _currentLevel) {
-            final Iterator<File> iterateDirPathIter =_currentLevel.getIterateDirectoryListingIter();
+            final Iterator<File> iterateDirPathIter =_currentLevel.getIteratePathIter();
             if (iterateDirPathIter.hasNext()) {
                 return true;
             }
             _tryUpdateCurrentLevel();
         }
+        close();
         return false;
     }
 
     private void _tryUpdateCurrentLevel() {
         final Iterator<File> descendDirPathIter =
-            _currentLevel.getDescendDirDirectoryListingIter();
+            _currentLevel.getDescendDirPathIter();
         if (descendDirPathIter.hasNext()) {
             File descendDirPath = descendDirPathIter.next();
             TraversePathLevel newCurrentLevel = tryAddLevel(descendDirPath);
@@ -111,7 +142,7 @@ extends AbstractTraversePathIteratorImpl {
             _hasIteratedDirPath = true;
             return withRootDirPath();
         }
-        Iterator<File> iterateDirPathIter =_currentLevel.getIterateDirectoryListingIter();
+        Iterator<File> iterateDirPathIter =_currentLevel.getIteratePathIter();
         File path = iterateDirPathIter.next();
         return path;
     }
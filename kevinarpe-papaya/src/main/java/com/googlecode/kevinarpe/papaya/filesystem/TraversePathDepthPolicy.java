@@ -31,7 +31,7 @@ import java.io.File;
 import java.util.Comparator;
 
 /**
- * Controls how a directory tree is traversed: depth-first or depth-last.
+ * Controls how a directory tree is traversed: depth-first, depth-last, or breadth-first.
  *
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  *
@@ -54,6 +54,10 @@ public enum TraversePathDepthPolicy {
         TraversePathDepthFirstIterator createTraversePathIterator(
                 File dirPath,
                 TraversePathExceptionPolicy exceptionPolicy,
+                DirectoryListingPolicy directoryListingPolicy,
+                int breadthFirstFrontierCapacity,
+                int directoryListingPrefetchCount,
+                int directoryListingPrefetchMaxPathCount,
                 PathFilter optDescendDirPathFilter,
                 Comparator<File> descendDirPathComparatorList,
                 PathFilter optIteratePathFilter,
@@ -62,6 +66,10 @@ public enum TraversePathDepthPolicy {
                 dirPath,
                 this,
                 exceptionPolicy,
+                directoryListingPolicy,
+                breadthFirstFrontierCapacity,
+                directoryListingPrefetchCount,
+                directoryListingPrefetchMaxPathCount,
                 optDescendDirPathFilter,
                 descendDirPathComparatorList,
                 optIteratePathFilter,
@@ -80,6 +88,10 @@ public enum TraversePathDepthPolicy {
         TraversePathDepthLastIterator createTraversePathIterator(
                 File dirPath,
                 TraversePathExceptionPolicy exceptionPolicy,
+                DirectoryListingPolicy directoryListingPolicy,
+                int breadthFirstFrontierCapacity,
+                int directoryListingPrefetchCount,
+                int directoryListingPrefetchMaxPathCount,
                 PathFilter optDescendDirPathFilter,
                 Comparator<File> descendDirPathComparatorList,
                 PathFilter optIteratePathFilter,
@@ -88,6 +100,50 @@ public enum TraversePathDepthPolicy {
                 dirPath,
                 this,
                 exceptionPolicy,
+                directoryListingPolicy,
+                breadthFirstFrontierCapacity,
+                directoryListingPrefetchCount,
+                directoryListingPrefetchMaxPathCount,
+                optDescendDirPathFilter,
+                descendDirPathComparatorList,
+                optIteratePathFilter,
+                iterateFileComparatorList);
+        }
+    },
+
+    /**
+     * When traversing a directory hierarchy, iterate all paths at each depth before any paths at
+     * the next depth.  This finds the shallowest matches first, e.g., to find the nearest
+     * configuration file, and iteration may stop early without descending into huge subtrees.
+     * <p>
+     * Pending directories (the "frontier") are kept in memory up to
+     * {@link TraversePathIterable#withBreadthFirstFrontierCapacity(int)}.  Beyond this, they are
+     * spilled to a compact temporary file.  If iteration stops early, call
+     * {@link TraversePathIterator#close()} to delete this file immediately.
+     *
+     * @see #DEPTH_LAST
+     */
+    BREADTH_FIRST {
+        @Override
+        TraversePathBreadthFirstIterator createTraversePathIterator(
+                File dirPath,
+                TraversePathExceptionPolicy exceptionPolicy,
+                DirectoryListingPolicy directoryListingPolicy,
+                int breadthFirstFrontierCapacity,
+                int directoryListingPrefetchCount,
+                int directoryListingPrefetchMaxPathCount,
+                PathFilter optDescendDirPathFilter,
+                Comparator<File> descendDirPathComparatorList,
+                PathFilter optIteratePathFilter,
+                Comparator<File> iterateFileComparatorList) {
+            return new TraversePathBreadthFirstIterator(
+                dirPath,
+                this,
+                exceptionPolicy,
+                directoryListingPolicy,
+                breadthFirstFrontierCapacity,
+                directoryListingPrefetchCount,
+                directoryListingPrefetchMaxPathCount,
                 optDescendDirPathFilter,
                 descendDirPathComparatorList,
                 optIteratePathFilter,
@@ -98,6 +154,10 @@ public enum TraversePathDepthPolicy {
     abstract AbstractTraversePathIteratorImpl createTraversePathIterator(
             File dirPath,
             TraversePathExceptionPolicy exceptionPolicy,
+            DirectoryListingPolicy directoryListingPolicy,
+            int breadthFirstFrontierCapacity,
+            int directoryListingPrefetchCount,
+            int directoryListingPrefetchMaxPathCount,
             PathFilter optDescendDirPathFilter,
             Comparator<File> descendDirPathComparatorList,
             PathFilter optIteratePathFilter,
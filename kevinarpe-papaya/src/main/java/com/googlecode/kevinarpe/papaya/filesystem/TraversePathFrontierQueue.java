@@ -0,0 +1,346 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * First-in, first-out queue of pending directories for {@link TraversePathBreadthFirstIterator}
+ * with bounded memory.  Up to {@code capacity} entries are kept in memory.  Beyond this, entries
+ * are appended to a compact temporary file, then read back in order when memory is empty.
+ * <p>
+ * At most one temporary file exists per queue.  It is created by the first spill, truncated and
+ * reused each time all spilled entries are read back, and deleted by {@link #close()}.  If a queue
+ * is garbage collected before {@link #close()}, its temporary file is deleted by the next spill
+ * from any queue.
+ * <p>
+ * Each spilled entry is stored as: depth (4 bytes), path length (4 bytes), and path (UTF-8).
+ * Cached attributes from {@link AttributedFile} are not spilled.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+@FullyTested
+final class TraversePathFrontierQueue
+implements Closeable {
+
+    static final class Entry {
+
+        final File dirPath;
+        final int depth;
+
+        Entry(File dirPath, int depth) {
+            this.dirPath = dirPath;
+            this.depth = depth;
+        }
+    }
+
+    private static final int SPILL_BUFFER_BYTE_COUNT = 64 * 1024;
+
+    // Spill files of queues that are garbage collected before close() are enqueued here.
+    private static final ReferenceQueue<TraversePathFrontierQueue> _unreachableQueue =
+        new ReferenceQueue<TraversePathFrontierQueue>();
+    // Phantom references are only enqueued if they remain reachable.
+    private static final Set<_SpillFile> _openSpillFileSet = ConcurrentHashMap.newKeySet();
+
+    private final int _capacity;
+    private final ArrayDeque<Entry> _memoryDeque;
+    private _SpillFile _optSpillFile;
+    private long _spillWriteCount;
+    private long _spillReadCount;
+    private long _totalSpillCount;
+
+    /**
+     * @param capacity
+     *        maximum number of entries kept in memory.  Must be positive.
+     *
+     * @throws IllegalArgumentException
+     *         if {@code capacity} is not positive
+     */
+    TraversePathFrontierQueue(int capacity) {
+        _capacity = IntArgs.checkPositive(capacity, "capacity");
+        _memoryDeque = new ArrayDeque<Entry>();
+    }
+
+    /**
+     * Appends an entry to the end of this queue.
+     *
+     * @throws IOException
+     *         if spilling to the temporary file fails
+     */
+    public void add(File dirPath, int depth)
+    throws IOException {
+        ObjectArgs.checkNotNull(dirPath, "dirPath");
+
+        // If any entries are spilled, new entries must follow them to preserve order.
+        if (0 == _getSpillSize() && _memoryDeque.size() < _capacity) {
+            _memoryDeque.addLast(new Entry(dirPath, depth));
+        }
+        else {
+            _spill(dirPath, depth);
+        }
+    }
+
+    private long _getSpillSize() {
+        long x = _spillWriteCount - _spillReadCount;
+        return x;
+    }
+
+    private void _spill(File dirPath, int depth)
+    throws IOException {
+        if (null == _optSpillFile) {
+            _closeUnreachableSpillFiles();
+            _optSpillFile = _SpillFile.create(this);
+        }
+        byte[] pathByteArr = dirPath.getPath().getBytes(StandardCharsets.UTF_8);
+        DataOutputStream out = _optSpillFile._out;
+        out.writeInt(depth);
+        out.writeInt(pathByteArr.length);
+        out.write(pathByteArr);
+        ++_spillWriteCount;
+        ++_totalSpillCount;
+    }
+
+    /**
+     * Removes the first entry of this queue.
+     *
+     * @return first entry or {@code null} if empty
+     *
+     * @throws IOException
+     *         if reading from the temporary file fails
+     */
+    public Entry poll()
+    throws IOException {
+        if (_memoryDeque.isEmpty() && _getSpillSize() > 0) {
+            _refill();
+        }
+        Entry x = _memoryDeque.pollFirst();
+        return x;
+    }
+
+    private static void _closeUnreachableSpillFiles() {
+        _SpillFile spillFile;
+        while (null != (spillFile = (_SpillFile) _unreachableQueue.poll())) {
+            spillFile.close();
+        }
+    }
+
+    private void _refill()
+    throws IOException {
+        _optSpillFile._out.flush();
+        DataInputStream in = _optSpillFile._in;
+        final long count = Math.min(_capacity, _getSpillSize());
+        for (long i = 0; i < count; ++i) {
+            int depth = in.readInt();
+            int pathByteCount = in.readInt();
+            byte[] pathByteArr = new byte[pathByteCount];
+            in.readFully(pathByteArr);
+            File dirPath = new File(new String(pathByteArr, StandardCharsets.UTF_8));
+            _memoryDeque.addLast(new Entry(dirPath, depth));
+            ++_spillReadCount;
+        }
+        if (0 == _getSpillSize()) {
+            // Reuse the same temporary file on next spill.
+            _optSpillFile.truncate();
+            _spillWriteCount = 0;
+            _spillReadCount = 0;
+        }
+    }
+
+    /**
+     * Appends directories from the head of this queue without removing them.  Only entries in
+     * memory are considered; the temporary file is never read.
+     *
+     * @param dirPathList
+     *        output list of upcoming directories
+     * @param maxCount
+     *        stop when {@code dirPathList} has this many elements
+     */
+    public void addUpcomingDirPaths(List<File> dirPathList, int maxCount) {
+        for (Entry entry : _memoryDeque) {
+            if (dirPathList.size() >= maxCount) {
+                break;
+            }
+            dirPathList.add(entry.dirPath);
+        }
+    }
+
+    /**
+     * @return number of entries, in memory and spilled
+     */
+    public long size() {
+        long x = _memoryDeque.size() + _getSpillSize();
+        return x;
+    }
+
+    public boolean isEmpty() {
+        boolean x = (0 == size());
+        return x;
+    }
+
+    /**
+     * @return total number of entries ever spilled to a temporary file
+     */
+    public long getTotalSpillCount() {
+        return _totalSpillCount;
+    }
+
+    /**
+     * @return {@code true} if a temporary file currently exists
+     */
+    public boolean hasSpillFile() {
+        boolean x = (null != _optSpillFile);
+        return x;
+    }
+
+    // package-private for testing
+    File getOptionalSpillFilePath() {
+        File x = (null == _optSpillFile) ? null : _optSpillFile._file;
+        return x;
+    }
+
+    /**
+     * Discards all entries and deletes the temporary file, if any.  Safe to call more than once.
+     */
+    @Override
+    public void close() {
+        _memoryDeque.clear();
+        _closeSpillFile();
+    }
+
+    private void _closeSpillFile() {
+        if (null == _optSpillFile) {
+            return;
+        }
+        _optSpillFile.close();
+        _optSpillFile = null;
+        _spillWriteCount = 0;
+        _spillReadCount = 0;
+    }
+
+    private static void _closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        }
+        catch (IOException e) {
+            // Intentionally ignore exception.
+            @SuppressWarnings("unused")
+            int dummy = 1;  // debug breakpoint
+        }
+    }
+
+    /**
+     * Owns the temporary file of a single queue.  This class must never refer to its queue, else
+     * the queue is never unreachable.
+     */
+    private static final class _SpillFile
+    extends PhantomReference<TraversePathFrontierQueue> {
+
+        private final File _file;
+        private final FileOutputStream _fileOut;
+        private final DataOutputStream _out;
+        private final FileInputStream _fileIn;
+        private final DataInputStream _in;
+
+        private static _SpillFile create(TraversePathFrontierQueue queue)
+        throws IOException {
+            File file =
+                File.createTempFile(TraversePathFrontierQueue.class.getSimpleName() + ".", ".tmp");
+            FileOutputStream fileOut = null;
+            try {
+                fileOut = new FileOutputStream(file);
+                FileInputStream fileIn = new FileInputStream(file);
+                _SpillFile x = new _SpillFile(queue, file, fileOut, fileIn);
+                return x;
+            }
+            catch (IOException e) {
+                if (null != fileOut) {
+                    _closeQuietly(fileOut);
+                }
+                file.delete();
+                throw e;
+            }
+        }
+
+        private _SpillFile(
+                TraversePathFrontierQueue queue,
+                File file,
+                FileOutputStream fileOut,
+                FileInputStream fileIn) {
+            super(queue, _unreachableQueue);
+            _file = file;
+            _fileOut = fileOut;
+            _out =
+                new DataOutputStream(new BufferedOutputStream(fileOut, SPILL_BUFFER_BYTE_COUNT));
+            _fileIn = fileIn;
+            _in = new DataInputStream(new BufferedInputStream(fileIn, SPILL_BUFFER_BYTE_COUNT));
+            _openSpillFileSet.add(this);
+        }
+
+        /**
+         * Discards all bytes.  Caller must first read every byte written, so the input buffer is
+         * empty.
+         */
+        private void truncate()
+        throws IOException {
+            _fileOut.getChannel().truncate(0);
+            _fileIn.getChannel().position(0);
+        }
+
+        // May be called more than once.
+        private void close() {
+            if (!_openSpillFileSet.remove(this)) {
+                return;
+            }
+            clear();
+            _closeQuietly(_out);
+            _closeQuietly(_in);
+            if (!_file.delete()) {
+                // Intentionally ignore failure.
+                @SuppressWarnings("unused")
+                int dummy = 1;  // debug breakpoint
+            }
+        }
+    }
+}
@@ -39,6 +39,14 @@ public interface TraversePathIterSettings {
 
     TraversePathExceptionPolicy withExceptionPolicy();
 
+    DirectoryListingPolicy withDirectoryListingPolicy();
+
+    int withBreadthFirstFrontierCapacity();
+
+    int withDirectoryListingPrefetchCount();
+
+    int withDirectoryListingPrefetchMaxPathCount();
+
     PathFilter withOptionalDescendDirPathFilter();
 
     Comparator<File> withOptionalDescendDirPathComparator();
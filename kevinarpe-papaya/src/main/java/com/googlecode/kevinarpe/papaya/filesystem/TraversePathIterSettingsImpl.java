@@ -43,11 +43,44 @@ implements TraversePathIterSettings {
     private final File _dirPath;
     private final TraversePathDepthPolicy _depthPolicy;
     private final TraversePathExceptionPolicy _exceptionPolicy;
+    private final DirectoryListingPolicy _directoryListingPolicy;
+    private final int _breadthFirstFrontierCapacity;
+    private final int _directoryListingPrefetchCount;
+    private final int _directoryListingPrefetchMaxPathCount;
     private final PathFilter _optDescendDirPathFilter;
     private final Comparator<File> _optDescendDirPathComparator;
     private final PathFilter _optIteratePathFilter;
     private final Comparator<File> _optIteratePathComparator;
 
+    /**
+     * This is a convenience constructor where {@code directoryListingPolicy} is
+     * {@link DirectoryListing#DEFAULT_DIRECTORY_LISTING_POLICY} and
+     * {@code breadthFirstFrontierCapacity} is
+     * {@link TraversePathUtils#DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY}, and directory listing
+     * prefetch is disabled.
+     */
+    protected TraversePathIterSettingsImpl(
+        File dirPath,
+        TraversePathDepthPolicy depthPolicy,
+        TraversePathExceptionPolicy exceptionPolicy,
+        PathFilter optDescendDirPathFilter,
+        Comparator<File> optDescendDirPathComparator,
+        PathFilter optIteratePathFilter,
+        Comparator<File> optIteratePathComparator) {
+        this(
+            dirPath,
+            depthPolicy,
+            exceptionPolicy,
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
+            optDescendDirPathFilter,
+            optDescendDirPathComparator,
+            optIteratePathFilter,
+            optIteratePathComparator);
+    }
+
     /**
      * Parameters to this method are completely unchecked.  Subclasses must implement checks.
      */
@@ -55,6 +88,10 @@ implements TraversePathIterSettings {
         File dirPath,
         TraversePathDepthPolicy depthPolicy,
         TraversePathExceptionPolicy exceptionPolicy,
+        DirectoryListingPolicy directoryListingPolicy,
+        int breadthFirstFrontierCapacity,
+        int directoryListingPrefetchCount,
+        int directoryListingPrefetchMaxPathCount,
         PathFilter optDescendDirPathFilter,
         Comparator<File> optDescendDirPathComparator,
         PathFilter optIteratePathFilter,
@@ -62,6 +99,10 @@ implements TraversePathIterSettings {
         _dirPath = dirPath;
         _depthPolicy = depthPolicy;
         _exceptionPolicy = exceptionPolicy;
+        _directoryListingPolicy = directoryListingPolicy;
+        _breadthFirstFrontierCapacity = breadthFirstFrontierCapacity;
+        _directoryListingPrefetchCount = directoryListingPrefetchCount;
+        _directoryListingPrefetchMaxPathCount = directoryListingPrefetchMaxPathCount;
         _optDescendDirPathFilter = optDescendDirPathFilter;
         _optDescendDirPathComparator = optDescendDirPathComparator;
         _optIteratePathFilter = optIteratePathFilter;
@@ -99,6 +140,50 @@ implements TraversePathIterSettings {
         return _exceptionPolicy;
     }
 
+    /**
+     * @return how to read directory listings.  Never {@code null}.
+     *
+     * @see TraversePathIterableImpl#withDirectoryListingPolicy(DirectoryListingPolicy)
+     */
+    @Override
+    public final DirectoryListingPolicy withDirectoryListingPolicy() {
+        return _directoryListingPolicy;
+    }
+
+    /**
+     * @return maximum number of pending directories kept in memory by
+     *         {@link TraversePathDepthPolicy#BREADTH_FIRST} before spilling to a temporary file.
+     *         Always positive.
+     *
+     * @see TraversePathIterableImpl#withBreadthFirstFrontierCapacity(int)
+     */
+    @Override
+    public final int withBreadthFirstFrontierCapacity() {
+        return _breadthFirstFrontierCapacity;
+    }
+
+    /**
+     * @return maximum number of upcoming directories listed in the background.  Zero when
+     *         prefetch is disabled.
+     *
+     * @see TraversePathIterableImpl#withDirectoryListingPrefetch(int, int)
+     */
+    @Override
+    public final int withDirectoryListingPrefetchCount() {
+        return _directoryListingPrefetchCount;
+    }
+
+    /**
+     * @return maximum number of child paths held by prefetched directory listings that are not
+     *         yet iterated.  Always positive.
+     *
+     * @see TraversePathIterableImpl#withDirectoryListingPrefetch(int, int)
+     */
+    @Override
+    public final int withDirectoryListingPrefetchMaxPathCount() {
+        return _directoryListingPrefetchMaxPathCount;
+    }
+
     /**
      * @return filter used before traversing directories.  May be {@code null}.
      *
@@ -146,11 +231,15 @@ implements TraversePathIterSettings {
     public String toString() {
         // TODO: Add object ID, e.g., @123456
         String x = String.format(
-            "%s {%n\t%s = %s%n\t%s = '%s'%n\t%s = '%s'%n\t%s = '%s'%n\t%s = '%s'%n\t%s = '%s'%n\t%s = '%s'%n}",
+            "%s {%n\t%s = %s%n\t%s = '%s'%n\t%s = '%s'%n\t%s = '%s'%n\t%s = %d%n\t%s = %d%n\t%s = %d%n\t%s = '%s'%n\t%s = '%s'%n\t%s = '%s'%n\t%s = '%s'%n}",
             TraversePathIterSettingsImpl.class.getName(),
             "dirPath", _formatPath(_dirPath),
             "depthPolicy", _depthPolicy,
             "exceptionPolicy", _exceptionPolicy,
+            "directoryListingPolicy", _directoryListingPolicy,
+            "breadthFirstFrontierCapacity", _breadthFirstFrontierCapacity,
+            "directoryListingPrefetchCount", _directoryListingPrefetchCount,
+            "directoryListingPrefetchMaxPathCount", _directoryListingPrefetchMaxPathCount,
             "optDescendDirPathFilter", _optDescendDirPathFilter,
             "optDescendDirPathComparator", _optDescendDirPathComparator,
             "optIteratePathFilter", _optIteratePathFilter,
@@ -26,10 +26,14 @@ package com.googlecode.kevinarpe.papaya.filesystem;
  */
 
 import com.googlecode.kevinarpe.papaya.compare.ComparatorUtils;
+import com.googlecode.kevinarpe.papaya.exception.PathRuntimeException;
 
 import java.io.File;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 /**
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -90,6 +94,97 @@ extends TraversePathIterSettings, Iterable<File> {
      */
     TraversePathIterable withExceptionPolicy(TraversePathExceptionPolicy exceptionPolicy);
 
+    /**
+     * Constructs a <b>new</b> iterable from the current, replacing the directory listing policy.
+     * <p>
+     * With {@link DirectoryListingPolicy#DIRECTORY_STREAM_WITH_ATTRIBUTES}, file attributes for
+     * each path are read exactly once during the directory listing.  All paths passed to path
+     * filters and comparators are instances of {@link AttributedFile}, so methods like
+     * {@link AttributedFile#cachedIsDirectory(File)}, {@link AttributedFile#cachedLength(File)},
+     * and {@link AttributedFile#cachedLastModified(File)} do not query the file system again.
+     * Built-in filters and comparators, e.g., {@link FileType}, use these methods.  All
+     * attributes are available via {@link AttributedFile#readAttributes(File)}.
+     *
+     * @param directoryListingPolicy
+     *        how to read directory listings.  Must not be {@code null}.
+     *
+     * @return <b>new</b> iterable
+     *
+     * @throws NullPointerException
+     *         if {@code directoryListingPolicy} is {@code null}
+     *
+     * @see DirectoryListing#DEFAULT_DIRECTORY_LISTING_POLICY
+     * @see #withDirectoryListingPolicy()
+     */
+    TraversePathIterable withDirectoryListingPolicy(DirectoryListingPolicy directoryListingPolicy);
+
+    /**
+     * Constructs a <b>new</b> iterable from the current, replacing the breadth-first frontier
+     * capacity.  This attribute only affects {@link TraversePathDepthPolicy#BREADTH_FIRST}.
+     * <p>
+     * Breadth-first traversal must remember all directories at the next depth before it can
+     * descend.  For very wide trees, this frontier can be huge.  Beyond this capacity, pending
+     * directories are spilled to a compact temporary file and read back in order.  Each iterator
+     * uses at most one temporary file, which is reused as it empties.  The temporary file is
+     * deleted when iteration completes or {@link TraversePathIterator#close()} is called.  If an
+     * iterator is abandoned without either, e.g., {@code break} from a for-each loop, the temporary
+     * file is deleted after the iterator is garbage collected.
+     *
+     * @param breadthFirstFrontierCapacity
+     *        maximum number of pending directories to keep in memory.  Must be positive.
+     *
+     * @return <b>new</b> iterable
+     *
+     * @throws IllegalArgumentException
+     *         if {@code breadthFirstFrontierCapacity} is not positive
+     *
+     * @see TraversePathUtils#DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY
+     * @see #withBreadthFirstFrontierCapacity()
+     */
+    TraversePathIterable withBreadthFirstFrontierCapacity(int breadthFirstFrontierCapacity);
+
+    /**
+     * Constructs a <b>new</b> iterable from the current, replacing the directory listing prefetch
+     * attributes.  By default, prefetch is disabled.
+     * <p>
+     * Normally, each directory is listed only when the iterator reaches it.  On high-latency
+     * storage, e.g., network file systems, the iterator stalls on every directory.  When prefetch
+     * is enabled, background threads list up to {@code prefetchCount} upcoming directories, i.e.,
+     * pending siblings and children of the current directory, while the caller processes the
+     * current directory.  Iteration order is exactly the same with or without prefetch.
+     * <p>
+     * Directory listings are held in memory until the iterator reaches them.  To bound memory, a
+     * listing is discarded (and later listed again by the iterator) if it would cause prefetched
+     * listings to hold more than {@code prefetchMaxPathCount} child paths.
+     * <p>
+     * Background threads are daemon threads and are released by
+     * {@link TraversePathIterator#close()}, or when iteration completes.
+     * <p>
+     * Prefetched listings may be slightly stale: if a directory is modified after it is
+     * prefetched, but before the iterator reaches it, the change is not visible.  Exceptions
+     * thrown by background directory listings are rethrown (or ignored) as per
+     * {@link #withExceptionPolicy()} when the iterator reaches the directory.
+     *
+     * @param prefetchCount
+     *        maximum number of upcoming directories to list in the background.  Zero disables
+     *        prefetch.  Must not be negative.
+     * @param prefetchMaxPathCount
+     *        memory budget: maximum number of child paths held by prefetched listings.
+     *        Must be positive.
+     *
+     * @return <b>new</b> iterable
+     *
+     * @throws IllegalArgumentException
+     *         if {@code prefetchCount} is negative or {@code prefetchMaxPathCount} is not
+     *         positive
+     *
+     * @see TraversePathUtils#DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT
+     * @see TraversePathUtils#DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT
+     * @see #withDirectoryListingPrefetchCount()
+     * @see #withDirectoryListingPrefetchMaxPathCount()
+     */
+    TraversePathIterable withDirectoryListingPrefetch(int prefetchCount, int prefetchMaxPathCount);
+
     /**
      * Constructs a <b>new</b> iterable from the current, replacing the optional descend directory
      * path filter.  This attribute filters directories before traversal, <i>including</i> the root
@@ -208,12 +303,56 @@ extends TraversePathIterSettings, Iterable<File> {
      */
     TraversePathIterator iterator();
 
+    /**
+     * Returns a new splittable traversal for parallel processing.  Work is split by subdirectory.
+     * All filters and the exception policy are honored, but the encounter order is not defined.
+     * Filters and comparators must be thread-safe.
+     *
+     * @return new spliterator
+     *
+     * @see #parallelStream()
+     */
+    @Override
+    Spliterator<File> spliterator();
+
+    /**
+     * Returns a new sequential stream of paths.  The encounter order is identical to
+     * {@link #iterator()}.
+     *
+     * @return new sequential stream
+     *
+     * @see #parallelStream()
+     */
+    Stream<File> stream();
+
+    /**
+     * Returns a new parallel stream of paths backed by {@link #spliterator()}.  Subdirectories are
+     * distributed across threads of a {@link ForkJoinPool} via work stealing.  By default, this is
+     * {@link ForkJoinPool#commonPool()}.  To use a different pool, run the terminal operation
+     * inside a task submitted to that pool.
+     * <p>
+     * All filters and the exception policy are honored, but the encounter order is not defined.
+     * Filters and comparators must be thread-safe.  If the exception policy is
+     * {@link TraversePathExceptionPolicy#THROW}, the terminal operation throws
+     * {@link PathRuntimeException}.
+     *
+     * @return new parallel stream
+     *
+     * @see #stream()
+     * @see #spliterator()
+     */
+    Stream<File> parallelStream();
+
     /**
      * Returns hash code of all attributes.  These are:
      * <ul>
      *     <li>{@link #withRootDirPath()}</li>
      *     <li>{@link #withDepthPolicy()}</li>
      *     <li>{@link #withExceptionPolicy()}</li>
+     *     <li>{@link #withDirectoryListingPolicy()}</li>
+     *     <li>{@link #withBreadthFirstFrontierCapacity()}</li>
+     *     <li>{@link #withDirectoryListingPrefetchCount()}</li>
+     *     <li>{@link #withDirectoryListingPrefetchMaxPathCount()}</li>
      *     <li>{@link #withOptionalDescendDirPathFilter()}</li>
      *     <li>{@link #withOptionalDescendDirPathComparator()}</li>
      *     <li>{@link #withOptionalIteratePathFilter()}</li>
@@ -231,6 +370,10 @@ extends TraversePathIterSettings, Iterable<File> {
      *     <li>{@link #withRootDirPath()}</li>
      *     <li>{@link #withDepthPolicy()}</li>
      *     <li>{@link #withExceptionPolicy()}</li>
+     *     <li>{@link #withDirectoryListingPolicy()}</li>
+     *     <li>{@link #withBreadthFirstFrontierCapacity()}</li>
+     *     <li>{@link #withDirectoryListingPrefetchCount()}</li>
+     *     <li>{@link #withDirectoryListingPrefetchMaxPathCount()}</li>
      *     <li>{@link #withOptionalDescendDirPathFilter()}</li>
      *     <li>{@link #withOptionalDescendDirPathComparator()}</li>
      *     <li>{@link #withOptionalIteratePathFilter()}</li>
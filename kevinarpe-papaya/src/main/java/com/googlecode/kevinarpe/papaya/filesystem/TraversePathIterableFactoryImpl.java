@@ -25,7 +25,10 @@ package com.googlecode.kevinarpe.papaya.filesystem;
  * #L%
  */
 
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
 import java.io.File;
+import java.util.Comparator;
 
 /**
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -34,11 +37,48 @@ final class TraversePathIterableFactoryImpl
 implements TraversePathIterableFactory {
 
     public static final TraversePathIterableFactoryImpl INSTANCE =
-        new TraversePathIterableFactoryImpl();
+        new TraversePathIterableFactoryImpl(DirectoryListingPolicy.LIST_FILES);
+
+    public static final TraversePathIterableFactoryImpl DIRECTORY_STREAM_WITH_ATTRIBUTES_INSTANCE =
+        new TraversePathIterableFactoryImpl(
+            DirectoryListingPolicy.DIRECTORY_STREAM_WITH_ATTRIBUTES);
+
+    private final DirectoryListingPolicy _directoryListingPolicy;
+
+    private TraversePathIterableFactoryImpl(DirectoryListingPolicy directoryListingPolicy) {
+        _directoryListingPolicy = directoryListingPolicy;
+    }
+
+    static TraversePathIterableFactoryImpl getInstance(
+            DirectoryListingPolicy directoryListingPolicy) {
+        ObjectArgs.checkNotNull(directoryListingPolicy, "directoryListingPolicy");
+
+        switch (directoryListingPolicy) {
+            case LIST_FILES:
+                return INSTANCE;
+            case DIRECTORY_STREAM_WITH_ATTRIBUTES:
+                return DIRECTORY_STREAM_WITH_ATTRIBUTES_INSTANCE;
+            default:
+                throw new IllegalStateException(
+                    "Unknown directory listing policy: " + directoryListingPolicy);
+        }
+    }
 
     @Override
     public TraversePathIterableImpl newInstance(File dirPath, TraversePathDepthPolicy depthPolicy) {
-        TraversePathIterableImpl x = new TraversePathIterableImpl(dirPath, depthPolicy);
+        TraversePathIterableImpl x =
+            new TraversePathIterableImpl(
+                ObjectArgs.checkNotNull(dirPath, "dirPath"),
+                ObjectArgs.checkNotNull(depthPolicy, "depthPolicy"),
+                TraversePathUtils.DEFAULT_EXCEPTION_POLICY,
+                _directoryListingPolicy,
+                TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+                TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+                TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
+                (PathFilter) null,
+                (Comparator<File>) null,
+                (PathFilter) null,
+                (Comparator<File>) null);
         return x;
     }
 }
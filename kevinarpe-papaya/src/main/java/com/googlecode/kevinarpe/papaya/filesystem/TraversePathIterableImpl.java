@@ -27,11 +27,16 @@ package com.googlecode.kevinarpe.papaya.filesystem;
 
 import com.google.common.base.Objects;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 
 import java.io.File;
 import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Builder class for {@link AbstractTraversePathIteratorImpl}.
@@ -69,6 +74,10 @@ implements TraversePathIterable {
             ObjectArgs.checkNotNull(dirPath, "dirPath"),
             ObjectArgs.checkNotNull(depthPolicy, "depthPolicy"),
             TraversePathUtils.DEFAULT_EXCEPTION_POLICY,
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
             (PathFilter) null,
             (Comparator<File>) null,
             (PathFilter) null,
@@ -83,10 +92,40 @@ implements TraversePathIterable {
         Comparator<File> optDescendDirPathComparator,
         PathFilter optIteratePathFilter,
         Comparator<File> optIteratePathComparator) {
+        this(
+            dirPath,
+            depthPolicy,
+            exceptionPolicy,
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
+            optDescendDirPathFilter,
+            optDescendDirPathComparator,
+            optIteratePathFilter,
+            optIteratePathComparator);
+    }
+
+    TraversePathIterableImpl(
+        File dirPath,
+        TraversePathDepthPolicy depthPolicy,
+        TraversePathExceptionPolicy exceptionPolicy,
+        DirectoryListingPolicy directoryListingPolicy,
+        int breadthFirstFrontierCapacity,
+        int directoryListingPrefetchCount,
+        int directoryListingPrefetchMaxPathCount,
+        PathFilter optDescendDirPathFilter,
+        Comparator<File> optDescendDirPathComparator,
+        PathFilter optIteratePathFilter,
+        Comparator<File> optIteratePathComparator) {
         super(
             dirPath,
             depthPolicy,
             exceptionPolicy,
+            directoryListingPolicy,
+            breadthFirstFrontierCapacity,
+            directoryListingPrefetchCount,
+            directoryListingPrefetchMaxPathCount,
             optDescendDirPathFilter,
             optDescendDirPathComparator,
             optIteratePathFilter,
@@ -100,6 +139,10 @@ implements TraversePathIterable {
             ObjectArgs.checkNotNull(rootDirPath, "rootDirPath"),
             withDepthPolicy(),
             withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
             withOptionalDescendDirPathFilter(),
             withOptionalDescendDirPathComparator(),
             withOptionalIteratePathFilter(),
@@ -113,6 +156,10 @@ implements TraversePathIterable {
             withRootDirPath(),
             ObjectArgs.checkNotNull(depthPolicy, "depthPolicy"),
             withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
             withOptionalDescendDirPathFilter(),
             withOptionalDescendDirPathComparator(),
             withOptionalIteratePathFilter(),
@@ -126,6 +173,63 @@ implements TraversePathIterable {
             withRootDirPath(),
             withDepthPolicy(),
             ObjectArgs.checkNotNull(exceptionPolicy, "exceptionPolicy"),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
+            withOptionalDescendDirPathFilter(),
+            withOptionalDescendDirPathComparator(),
+            withOptionalIteratePathFilter(),
+            withOptionalIteratePathComparator());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TraversePathIterable withDirectoryListingPolicy(
+        DirectoryListingPolicy directoryListingPolicy) {
+        return new TraversePathIterableImpl(
+            withRootDirPath(),
+            withDepthPolicy(),
+            withExceptionPolicy(),
+            ObjectArgs.checkNotNull(directoryListingPolicy, "directoryListingPolicy"),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
+            withOptionalDescendDirPathFilter(),
+            withOptionalDescendDirPathComparator(),
+            withOptionalIteratePathFilter(),
+            withOptionalIteratePathComparator());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TraversePathIterable withBreadthFirstFrontierCapacity(int breadthFirstFrontierCapacity) {
+        return new TraversePathIterableImpl(
+            withRootDirPath(),
+            withDepthPolicy(),
+            withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            IntArgs.checkPositive(breadthFirstFrontierCapacity, "breadthFirstFrontierCapacity"),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
+            withOptionalDescendDirPathFilter(),
+            withOptionalDescendDirPathComparator(),
+            withOptionalIteratePathFilter(),
+            withOptionalIteratePathComparator());
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public TraversePathIterable withDirectoryListingPrefetch(
+        int prefetchCount, int prefetchMaxPathCount) {
+        return new TraversePathIterableImpl(
+            withRootDirPath(),
+            withDepthPolicy(),
+            withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            IntArgs.checkNotNegative(prefetchCount, "prefetchCount"),
+            IntArgs.checkPositive(prefetchMaxPathCount, "prefetchMaxPathCount"),
             withOptionalDescendDirPathFilter(),
             withOptionalDescendDirPathComparator(),
             withOptionalIteratePathFilter(),
@@ -140,6 +244,10 @@ implements TraversePathIterable {
             withRootDirPath(),
             withDepthPolicy(),
             withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
             optDescendDirPathFilter,
             withOptionalDescendDirPathComparator(),
             withOptionalIteratePathFilter(),
@@ -154,6 +262,10 @@ implements TraversePathIterable {
             withRootDirPath(),
             withDepthPolicy(),
             withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
             withOptionalDescendDirPathFilter(),
             optDescendDirPathComparator,
             withOptionalIteratePathFilter(),
@@ -167,6 +279,10 @@ implements TraversePathIterable {
             withRootDirPath(),
             withDepthPolicy(),
             withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
             withOptionalDescendDirPathFilter(),
             withOptionalDescendDirPathComparator(),
             optIteratePathFilter,
@@ -181,6 +297,10 @@ implements TraversePathIterable {
             withRootDirPath(),
             withDepthPolicy(),
             withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
             withOptionalDescendDirPathFilter(),
             withOptionalDescendDirPathComparator(),
             withOptionalIteratePathFilter(),
@@ -194,12 +314,40 @@ implements TraversePathIterable {
         return depthPolicy.createTraversePathIterator(
             withRootDirPath(),
             withExceptionPolicy(),
+            withDirectoryListingPolicy(),
+            withBreadthFirstFrontierCapacity(),
+            withDirectoryListingPrefetchCount(),
+            withDirectoryListingPrefetchMaxPathCount(),
             withOptionalDescendDirPathFilter(),
             withOptionalDescendDirPathComparator(),
             withOptionalIteratePathFilter(),
             withOptionalIteratePathComparator());
     }
 
+    /** {@inheritDoc} */
+    @Override
+    public Spliterator<File> spliterator() {
+        TraversePathSpliterator x = new TraversePathSpliterator(this);
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<File> stream() {
+        Spliterator<File> spliterator =
+            Spliterators.spliteratorUnknownSize(
+                iterator(), Spliterator.ORDERED | Spliterator.NONNULL);
+        Stream<File> x = StreamSupport.stream(spliterator, false);
+        return x;
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public Stream<File> parallelStream() {
+        Stream<File> x = StreamSupport.stream(spliterator(), true);
+        return x;
+    }
+
     /** {@inheritDoc} */
     @Override
     public final int hashCode() {
@@ -208,6 +356,10 @@ implements TraversePathIterable {
                 withRootDirPath(),
                 withDepthPolicy(),
                 withExceptionPolicy(),
+                withDirectoryListingPolicy(),
+                withBreadthFirstFrontierCapacity(),
+                withDirectoryListingPrefetchCount(),
+                withDirectoryListingPrefetchMaxPathCount(),
                 withOptionalDescendDirPathFilter(),
                 withOptionalDescendDirPathComparator(),
                 withOptionalIteratePathFilter(),
@@ -226,6 +378,14 @@ implements TraversePathIterable {
                 Objects.equal(this.withRootDirPath(), other.withRootDirPath())
                     && Objects.equal(this.withDepthPolicy(), other.withDepthPolicy())
                     && Objects.equal(this.withExceptionPolicy(), other.withExceptionPolicy())
+                    && Objects.equal(
+                            this.withDirectoryListingPolicy(), other.withDirectoryListingPolicy())
+                    && this.withBreadthFirstFrontierCapacity()
+                            == other.withBreadthFirstFrontierCapacity()
+                    && this.withDirectoryListingPrefetchCount()
+                            == other.withDirectoryListingPrefetchCount()
+                    && this.withDirectoryListingPrefetchMaxPathCount()
+                            == other.withDirectoryListingPrefetchMaxPathCount()
                     && Objects.equal(
                             this.withOptionalDescendDirPathFilter(),
                             other.withOptionalDescendDirPathFilter())
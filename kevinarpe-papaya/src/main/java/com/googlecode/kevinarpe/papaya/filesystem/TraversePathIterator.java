@@ -25,14 +25,31 @@ package com.googlecode.kevinarpe.papaya.filesystem;
  * #L%
  */
 
+import java.io.Closeable;
 import java.io.File;
 import java.util.Iterator;
 
 /**
+ * Iterator returned by {@link TraversePathIterable#iterator()}.
+ * <p>
+ * This interface extends {@link Closeable}.  Earlier versions did not, so external implementations
+ * of this interface must now implement {@link #close()}.  Callers that stop iteration early, e.g.,
+ * {@code break} from a loop, should call {@link #close()}, ideally via try-with-resources.  If not,
+ * temporary files are only deleted after this iterator is garbage collected.
+ *
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  */
 public interface TraversePathIterator
-extends TraversePathIterSettings, Iterator<File> {
+extends TraversePathIterSettings, Iterator<File>, Closeable {
 
     int getDepth();
+
+    /**
+     * Releases any resources held by this iterator, such as temporary files used by
+     * {@link TraversePathDepthPolicy#BREADTH_FIRST}.  Resources are also released when
+     * {@link #hasNext()} returns {@code false}, so this method is only required if iteration
+     * stops early.  Safe to call more than once.
+     */
+    @Override
+    void close();
 }
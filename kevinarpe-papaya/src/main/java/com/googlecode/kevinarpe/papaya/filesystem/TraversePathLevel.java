@@ -28,16 +28,24 @@ package com.googlecode.kevinarpe.papaya.filesystem;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.IntArgs;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.compare.ComparatorUtils;
 import com.googlecode.kevinarpe.papaya.exception.PathException;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.NoSuchElementException;
 
 /**
+ * One directory listing during traversal.  To keep memory low and iteration cache-friendly for
+ * very large directories, child paths are stored in a single array.  The two views, descend
+ * directories and iterate paths, are separate arrays only if filtering or sorting requires it;
+ * otherwise, the view shares the array of child paths.  Each view has an index cursor.
+ *
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  */
 @FullyTested
@@ -45,11 +53,12 @@ final class TraversePathLevel {
 
     static interface Factory {
 
-        DirectoryListing newDirectoryListingInstance(File dirPath, Class<? extends List> listClass)
+        DirectoryListing newDirectoryListingInstance(
+                File dirPath,
+                Class<? extends List> listClass,
+                DirectoryListingPolicy directoryListingPolicy)
         throws PathException;
 
-        DirectoryListing newDirectoryListingInstance(DirectoryListing other);
-
         DescendDirFileFilter newDescendDirFileFilterInstance(PathFilter pathFilter, int depth);
 
         IterateFileFilter newIterateFileFilterInstance(PathFilter pathFilter, int depth);
@@ -62,14 +71,11 @@ final class TraversePathLevel {
 
         @Override
         public DirectoryListing newDirectoryListingInstance(
-                File dirPath, Class<? extends List> listClass)
+                File dirPath,
+                Class<? extends List> listClass,
+                DirectoryListingPolicy directoryListingPolicy)
         throws PathException {
-            return new DirectoryListing(dirPath, listClass);
-        }
-
-        @Override
-        public DirectoryListing newDirectoryListingInstance(DirectoryListing other) {
-            return new DirectoryListing(other);
+            return new DirectoryListing(dirPath, listClass, directoryListingPolicy);
         }
 
         @Override
@@ -84,16 +90,17 @@ final class TraversePathLevel {
         }
     }
 
-    static final Class<? extends List> DEFAULT_DIRECTORY_LISTING_LIST_CLASS = LinkedList.class;
+    static final Class<? extends List> DEFAULT_DIRECTORY_LISTING_LIST_CLASS = ArrayList.class;
+
+    private static final File[] EMPTY_PATH_ARR = new File[0];
 
     private final Factory _factory;
     private final AbstractTraversePathIteratorImpl _parent;
     private final int _depth;
-    private final DirectoryListing _origDirectoryListing;
-    private DirectoryListing _descendDirDirectoryListing;
-    private Iterator<File> _descendDirDirectoryListingIter;
-    private DirectoryListing _iterateDirectoryListing;
-    private Iterator<File> _iterateDirectoryListingIter;
+    // Released after both views are created.
+    private File[] _optChildPathArr;
+    private PathArrayIterator _optDescendDirPathIter;
+    private PathArrayIterator _optIteratePathIter;
 
     TraversePathLevel(AbstractTraversePathIteratorImpl parent, File dirPath, int depth)
     throws PathException {
@@ -108,9 +115,18 @@ final class TraversePathLevel {
     throws PathException {
         _parent = ObjectArgs.checkNotNull(parent, "parent");
         _factory = ObjectArgs.checkNotNull(factory, "factory");
-        _origDirectoryListing =
-            _factory.newDirectoryListingInstance(dirPath, DEFAULT_DIRECTORY_LISTING_LIST_CLASS);
         _depth = IntArgs.checkPositive(depth, "getDepth");
+        DirectoryListing dirListing = _parent.tryTakePrefetchedDirectoryListing(dirPath);
+        if (null == dirListing) {
+            dirListing =
+                _factory.newDirectoryListingInstance(
+                    dirPath,
+                    DEFAULT_DIRECTORY_LISTING_LIST_CLASS,
+                    _parent.withDirectoryListingPolicy());
+        }
+        _optChildPathArr = dirListing.getChildPathList().toArray(EMPTY_PATH_ARR);
+        _optDescendDirPathIter = null;
+        _optIteratePathIter = null;
     }
 
     static final class DescendDirFileFilter
@@ -126,7 +142,7 @@ final class TraversePathLevel {
 
         @Override
         public boolean accept(File path) {
-            if (!path.isDirectory()) {
+            if (!AttributedFile.cachedIsDirectory(path)) {
                 return false;
             }
             if (null == _pathFilter) {
@@ -137,35 +153,6 @@ final class TraversePathLevel {
         }
     }
 
-    public DirectoryListing getDescendDirDirectoryListing() {
-        if (null == _descendDirDirectoryListing) {
-            DirectoryListing newDirListing =
-                _factory.newDirectoryListingInstance(_origDirectoryListing);
-            PathFilter descendDirPathFilter = _parent.withOptionalDescendDirPathFilter();
-            DescendDirFileFilter fileFilter =
-                _factory.newDescendDirFileFilterInstance(descendDirPathFilter, _depth);
-            newDirListing.filter(fileFilter);
-            sortDirListing(newDirListing, _parent.withOptionalDescendDirPathComparator());
-            _descendDirDirectoryListing = newDirListing;
-        }
-        return _descendDirDirectoryListing;
-    }
-
-    private void sortDirListing(DirectoryListing dirListing, Comparator<File> optPathComparator) {
-        if (null != optPathComparator) {
-            dirListing.sort(optPathComparator);
-        }
-    }
-
-    public Iterator<File> getDescendDirDirectoryListingIter() {
-        if (null == _descendDirDirectoryListingIter) {
-            DirectoryListing descendDirDirectoryListing = getDescendDirDirectoryListing();
-            List<File> childPathList = descendDirDirectoryListing.getChildPathList();
-            _descendDirDirectoryListingIter = childPathList.iterator();
-        }
-        return _descendDirDirectoryListingIter;
-    }
-
     static final class IterateFileFilter
     implements FileFilter {
 
@@ -187,28 +174,154 @@ final class TraversePathLevel {
         }
     }
 
-    public DirectoryListing getIterateDirectoryListing() {
-        if (null == _iterateDirectoryListing) {
-            PathFilter pathFilter = _parent.withOptionalIteratePathFilter();
-            DirectoryListing newDirListing =
-                _factory.newDirectoryListingInstance(_origDirectoryListing);
-            if (null != pathFilter) {
-                IterateFileFilter fileFilter =
-                    _factory.newIterateFileFilterInstance(pathFilter, _depth);
-                newDirListing.filter(fileFilter);
+    /**
+     * Iterator over a range of an array of paths.  Unlike iterators for {@link List}, this
+     * iterator allows peeking at upcoming paths.
+     */
+    static final class PathArrayIterator
+    implements Iterator<File> {
+
+        private final File[] _pathArr;
+        private int _index;
+
+        PathArrayIterator(File[] pathArr) {
+            _pathArr = ObjectArgs.checkNotNull(pathArr, "pathArr");
+            _index = 0;
+        }
+
+        @Override
+        public boolean hasNext() {
+            boolean x = (_index < _pathArr.length);
+            return x;
+        }
+
+        @Override
+        public File next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            File x = _pathArr[_index];
+            ++_index;
+            return x;
+        }
+
+        /**
+         * Appends paths not yet returned by {@link #next()} without advancing this iterator.
+         *
+         * @param pathList
+         *        output list of upcoming paths
+         * @param maxCount
+         *        stop when {@code pathList} has this many elements
+         */
+        void addUpcomingPaths(List<File> pathList, int maxCount) {
+            for (int i = _index; i < _pathArr.length && pathList.size() < maxCount; ++i) {
+                pathList.add(_pathArr[i]);
+            }
+        }
+
+        /**
+         * Always throws {@link UnsupportedOperationException}.
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException(String.format(
+                "Class is unmodifiable: %s", this.getClass().getName()));
+        }
+    }
+
+    /**
+     * Filters then sorts the array of child paths.  If neither is required, the array is shared.
+     *
+     * @param optFileFilter
+     *        if {@code null}, all paths are accepted
+     * @param optPathComparator
+     *        if {@code null}, paths retain directory listing order
+     *
+     * @return new or shared array of paths
+     */
+    private File[] _newView(FileFilter optFileFilter, Comparator<File> optPathComparator) {
+        File[] pathArr = _optChildPathArr;
+        if (null != optFileFilter) {
+            final File[] filteredPathArr = new File[pathArr.length];
+            int count = 0;
+            for (File path : pathArr) {
+                if (optFileFilter.accept(path)) {
+                    filteredPathArr[count] = path;
+                    ++count;
+                }
+            }
+            pathArr =
+                (count == pathArr.length) ? pathArr : Arrays.copyOf(filteredPathArr, count);
+        }
+        if (null != optPathComparator && pathArr.length > 1) {
+            if (pathArr == _optChildPathArr) {
+                pathArr = pathArr.clone();
             }
-            sortDirListing(newDirListing, _parent.withOptionalIteratePathComparator());
-            _iterateDirectoryListing = newDirListing;
+            ComparatorUtils.sortWithPrecomputedKeys(Arrays.asList(pathArr), optPathComparator);
         }
-        return _iterateDirectoryListing;
+        return pathArr;
     }
 
-    public Iterator<File> getIterateDirectoryListingIter() {
-        if (null == _iterateDirectoryListingIter) {
-            DirectoryListing iterateDirectoryListing = getIterateDirectoryListing();
-            List<File> childPathList = iterateDirectoryListing.getChildPathList();
-            _iterateDirectoryListingIter = childPathList.iterator();
+    private void _tryReleaseChildPathArr() {
+        if (null != _optDescendDirPathIter && null != _optIteratePathIter) {
+            _optChildPathArr = null;
+        }
+    }
+
+    /**
+     * @return iterator over child directories to descend: filtered by
+     *         {@link AbstractTraversePathIteratorImpl#withOptionalDescendDirPathFilter()}, then
+     *         sorted by
+     *         {@link AbstractTraversePathIteratorImpl#withOptionalDescendDirPathComparator()}.
+     *         The same instance is returned for each call.
+     */
+    public Iterator<File> getDescendDirPathIter() {
+        return _getDescendDirPathIter();
+    }
+
+    private PathArrayIterator _getDescendDirPathIter() {
+        if (null == _optDescendDirPathIter) {
+            PathFilter optDescendDirPathFilter = _parent.withOptionalDescendDirPathFilter();
+            DescendDirFileFilter fileFilter =
+                _factory.newDescendDirFileFilterInstance(optDescendDirPathFilter, _depth);
+            File[] pathArr =
+                _newView(fileFilter, _parent.withOptionalDescendDirPathComparator());
+            _optDescendDirPathIter = new PathArrayIterator(pathArr);
+            _tryReleaseChildPathArr();
+        }
+        return _optDescendDirPathIter;
+    }
+
+    /**
+     * Appends directories not yet returned by {@link #getDescendDirPathIter()} without advancing
+     * the iterator.
+     *
+     * @param dirPathList
+     *        output list of upcoming directories
+     * @param maxCount
+     *        stop when {@code dirPathList} has this many elements
+     */
+    void addUpcomingDescendDirPaths(List<File> dirPathList, int maxCount) {
+        _getDescendDirPathIter().addUpcomingPaths(dirPathList, maxCount);
+    }
+
+    /**
+     * @return iterator over child paths to iterate: filtered by
+     *         {@link AbstractTraversePathIteratorImpl#withOptionalIteratePathFilter()}, then
+     *         sorted by {@link AbstractTraversePathIteratorImpl#withOptionalIteratePathComparator()}.
+     *         The same instance is returned for each call.
+     */
+    public Iterator<File> getIteratePathIter() {
+        if (null == _optIteratePathIter) {
+            PathFilter optIteratePathFilter = _parent.withOptionalIteratePathFilter();
+            IterateFileFilter optFileFilter = null;
+            if (null != optIteratePathFilter) {
+                optFileFilter = _factory.newIterateFileFilterInstance(optIteratePathFilter, _depth);
+            }
+            File[] pathArr = _newView(optFileFilter, _parent.withOptionalIteratePathComparator());
+            _optIteratePathIter = new PathArrayIterator(pathArr);
+            _tryReleaseChildPathArr();
         }
-        return _iterateDirectoryListingIter;
+        return _optIteratePathIter;
     }
 }
@@ -0,0 +1,259 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathRuntimeException;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Splittable traversal of a directory tree for parallel streams.  Work is split by subdirectory:
+ * each instance keeps a stack of pending directories to list, and {@link #trySplit()} hands off
+ * the oldest half of this stack.  The oldest pending directories are closest to the root, thus
+ * usually the largest subtrees.  When run by a parallel stream, the {@link
+ * java.util.concurrent.ForkJoinPool} work-stealing scheduler balances these subtrees across
+ * threads.
+ * <p>
+ * The same paths are produced as the serial iterators, {@link TraversePathDepthFirstIterator} and
+ * {@link TraversePathDepthLastIterator}, including descend directory and iterate path filters,
+ * plus the exception policy.  However, the encounter order is not defined.  Comparators are
+ * applied to each directory listing, but only affect the order within a single instance.
+ * <p>
+ * Filters and comparators are called concurrently from more than one thread.  They must be
+ * thread-safe.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ *
+ * @see TraversePathIterable#spliterator()
+ * @see TraversePathIterable#parallelStream()
+ */
+@FullyTested
+final class TraversePathSpliterator
+implements Spliterator<File> {
+
+    /**
+     * If no pending directories remain, a single directory listing is only split if it has at
+     * least this many paths remaining.
+     */
+    static final int MIN_SPLIT_PATH_COUNT = 1024;
+
+    private static final class _PendingDir {
+
+        final File dirPath;
+        // Depth used by filters for child paths of this directory.  The root directory has depth 1.
+        final int depth;
+
+        _PendingDir(File dirPath, int depth) {
+            this.dirPath = dirPath;
+            this.depth = depth;
+        }
+    }
+
+    private final TraversePathIterSettings _settings;
+    // First is newest (deepest).  Last is oldest (closest to root).
+    private final ArrayDeque<_PendingDir> _pendingDirDeque;
+    private final ArrayDeque<File> _pathDeque;
+
+    /**
+     * Creates a spliterator to traverse {@link TraversePathIterSettings#withRootDirPath()}.
+     *
+     * @param settings
+     *        all filters, comparators, and policies.  Must not be {@code null}.
+     *
+     * @throws NullPointerException
+     *         if {@code settings} is {@code null}
+     */
+    TraversePathSpliterator(TraversePathIterSettings settings) {
+        _settings = ObjectArgs.checkNotNull(settings, "settings");
+        _pendingDirDeque = new ArrayDeque<_PendingDir>();
+        _pathDeque = new ArrayDeque<File>();
+
+        final File dirPath = settings.withRootDirPath();
+        PathFilter optIteratePathFilter = settings.withOptionalIteratePathFilter();
+        if (null == optIteratePathFilter || optIteratePathFilter.accept(dirPath, 0)) {
+            _pathDeque.add(dirPath);
+        }
+        PathFilter optDescendDirPathFilter = settings.withOptionalDescendDirPathFilter();
+        if (null == optDescendDirPathFilter || optDescendDirPathFilter.accept(dirPath, 0)) {
+            _pendingDirDeque.add(new _PendingDir(dirPath, 1));
+        }
+    }
+
+    private TraversePathSpliterator(
+            TraversePathIterSettings settings,
+            ArrayDeque<_PendingDir> pendingDirDeque,
+            ArrayDeque<File> pathDeque) {
+        _settings = settings;
+        _pendingDirDeque = pendingDirDeque;
+        _pathDeque = pathDeque;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super File> action) {
+        ObjectArgs.checkNotNull(action, "action");
+
+        while (_pathDeque.isEmpty()) {
+            if (_pendingDirDeque.isEmpty()) {
+                return false;
+            }
+            _listNextPendingDir();
+        }
+        File path = _pathDeque.removeFirst();
+        action.accept(path);
+        return true;
+    }
+
+    /**
+     * Lists the newest pending directory.  Accepted paths are added for iteration, and accepted
+     * directories are added as pending directories.
+     *
+     * @throws PathRuntimeException
+     *         if directory listing fails and exception policy is
+     *         {@link TraversePathExceptionPolicy#THROW}
+     */
+    private void _listNextPendingDir()
+    throws PathRuntimeException {
+        _PendingDir pendingDir = _pendingDirDeque.removeFirst();
+        DirectoryListing dirListing = null;
+        try {
+            dirListing =
+                new DirectoryListing(
+                    pendingDir.dirPath,
+                    ArrayList.class,
+                    _settings.withDirectoryListingPolicy());
+        }
+        catch (PathException e) {
+            if (TraversePathExceptionPolicy.THROW == _settings.withExceptionPolicy()) {
+                throw new PathRuntimeException(e);
+            }
+            return;
+        }
+
+        DirectoryListing descendDirListing = new DirectoryListing(dirListing);
+        descendDirListing.filter(
+            new TraversePathLevel.DescendDirFileFilter(
+                _settings.withOptionalDescendDirPathFilter(), pendingDir.depth));
+        _trySort(descendDirListing, _settings.withOptionalDescendDirPathComparator());
+        // Push in reverse order, so the first sorted directory is listed first.
+        List<File> descendDirPathList = descendDirListing.getChildPathList();
+        ListIterator<File> iter = descendDirPathList.listIterator(descendDirPathList.size());
+        while (iter.hasPrevious()) {
+            File descendDirPath = iter.previous();
+            _pendingDirDeque.addFirst(new _PendingDir(descendDirPath, 1 + pendingDir.depth));
+        }
+
+        PathFilter optIteratePathFilter = _settings.withOptionalIteratePathFilter();
+        if (null != optIteratePathFilter) {
+            dirListing.filter(
+                new TraversePathLevel.IterateFileFilter(optIteratePathFilter, pendingDir.depth));
+        }
+        _trySort(dirListing, _settings.withOptionalIteratePathComparator());
+        _pathDeque.addAll(dirListing.getChildPathList());
+    }
+
+    private static void _trySort(DirectoryListing dirListing, Comparator<File> optPathComparator) {
+        if (null != optPathComparator) {
+            dirListing.sort(optPathComparator);
+        }
+    }
+
+    /**
+     * Splits by pending directories first.  If only one pending directory remains, it is listed
+     * first to discover subdirectories.  If no pending directories remain, a large directory
+     * listing is split in half.
+     * <hr>
+     * {@inheritDoc}
+     *
+     * @throws PathRuntimeException
+     *         if directory listing fails and exception policy is
+     *         {@link TraversePathExceptionPolicy#THROW}
+     */
+    @Override
+    public Spliterator<File> trySplit()
+    throws PathRuntimeException {
+        if (1 == _pendingDirDeque.size()) {
+            _listNextPendingDir();
+        }
+        final int pendingDirCount = _pendingDirDeque.size();
+        if (pendingDirCount >= 2) {
+            ArrayDeque<_PendingDir> splitPendingDirDeque = new ArrayDeque<_PendingDir>();
+            for (int i = pendingDirCount / 2; i > 0; --i) {
+                splitPendingDirDeque.addFirst(_pendingDirDeque.removeLast());
+            }
+            TraversePathSpliterator x =
+                new TraversePathSpliterator(
+                    _settings, splitPendingDirDeque, new ArrayDeque<File>());
+            return x;
+        }
+        final int pathCount = _pathDeque.size();
+        if (0 == pendingDirCount && pathCount >= MIN_SPLIT_PATH_COUNT) {
+            ArrayDeque<File> splitPathDeque = new ArrayDeque<File>();
+            for (int i = pathCount / 2; i > 0; --i) {
+                splitPathDeque.addLast(_pathDeque.removeFirst());
+            }
+            TraversePathSpliterator x =
+                new TraversePathSpliterator(
+                    _settings, new ArrayDeque<_PendingDir>(), splitPathDeque);
+            return x;
+        }
+        return null;
+    }
+
+    /**
+     * If no pending directories remain, this is the exact number of remaining paths.  Else,
+     * {@link Long#MAX_VALUE} (unknown).
+     * <hr>
+     * {@inheritDoc}
+     */
+    @Override
+    public long estimateSize() {
+        if (_pendingDirDeque.isEmpty()) {
+            return _pathDeque.size();
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Always {@link #NONNULL}.  Paths are not {@link #DISTINCT} as symbolic links to directories
+     * are followed, and the encounter order is not defined, so not {@link #ORDERED}.
+     * <hr>
+     * {@inheritDoc}
+     */
+    @Override
+    public int characteristics() {
+        return NONNULL;
+    }
+}
@@ -61,6 +61,33 @@ implements ITraversePathUtils {
     public static final TraversePathExceptionPolicy DEFAULT_EXCEPTION_POLICY =
         TraversePathExceptionPolicy.THROW;
 
+    /**
+     * Used by the constructor to set the default breadth-first frontier capacity for path
+     * iterators.  The value is 100,000 directories, which requires roughly 20 MB of memory.
+     *
+     * @see TraversePathIterable#withBreadthFirstFrontierCapacity()
+     * @see TraversePathIterable#withBreadthFirstFrontierCapacity(int)
+     */
+    public static final int DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY = 100 * 1000;
+
+    /**
+     * Used by the constructor to set the default number of upcoming directories listed in the
+     * background.  The value is zero: prefetch is disabled.
+     *
+     * @see TraversePathIterable#withDirectoryListingPrefetchCount()
+     * @see TraversePathIterable#withDirectoryListingPrefetch(int, int)
+     */
+    public static final int DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT = 0;
+
+    /**
+     * Used by the constructor to set the default memory budget for prefetched directory listings.
+     * The value is 100,000 child paths, which requires roughly 20 MB of memory.
+     *
+     * @see TraversePathIterable#withDirectoryListingPrefetchMaxPathCount()
+     * @see TraversePathIterable#withDirectoryListingPrefetch(int, int)
+     */
+    public static final int DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT = 100 * 1000;
+
     public TraversePathUtils() {
         // Empty
     }
@@ -78,4 +105,13 @@ implements ITraversePathUtils {
     public TraversePathIterableFactory getTraversePathIterableFactory() {
         return TraversePathIterableFactoryImpl.INSTANCE;
     }
+
+    /** {@inheritDoc} */
+    @Override
+    public TraversePathIterableFactory getTraversePathIterableFactory(
+        DirectoryListingPolicy directoryListingPolicy) {
+        TraversePathIterableFactoryImpl x =
+            TraversePathIterableFactoryImpl.getInstance(directoryListingPolicy);
+        return x;
+    }
 }
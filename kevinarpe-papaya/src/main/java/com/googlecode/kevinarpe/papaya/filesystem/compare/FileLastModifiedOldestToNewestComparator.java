@@ -28,10 +28,14 @@ package com.googlecode.kevinarpe.papaya.filesystem.compare;
 import com.google.common.primitives.Longs;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.compare.ComparatorUtils;
+import com.googlecode.kevinarpe.papaya.compare.LongKeyComparator;
+import com.googlecode.kevinarpe.papaya.filesystem.AttributedFile;
 import com.googlecode.kevinarpe.papaya.object.StatelessObject;
 
 import java.io.File;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Compares two {@link File} references using {@link File#lastModified()}.
@@ -42,11 +46,13 @@ import java.util.Comparator;
  *
  * @see StatelessObject
  * @see #compare(File, File)
+ * @see #getLongSortKey(File)
+ * @see ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)
  */
 @FullyTested
 public final class FileLastModifiedOldestToNewestComparator
 extends StatelessObject
-implements Comparator<File> {
+implements LongKeyComparator<File> {
 
     /**
      * @see StatelessObject#StatelessObject()
@@ -81,9 +87,24 @@ implements Comparator<File> {
         ObjectArgs.checkNotNull(path1, "path1");
         ObjectArgs.checkNotNull(path2, "path2");
 
-        final long lastModified1 = path1.lastModified();
-        final long lastModified2 = path2.lastModified();
-        final int result = Longs.compare(lastModified1, lastModified2);
+        final long key1 = getLongSortKey(path1);
+        final long key2 = getLongSortKey(path2);
+        final int result = Longs.compare(key1, key2);
         return result;
     }
+
+    /**
+     * Returns the result of {@link AttributedFile#cachedLastModified(File)}.  If {@code path} is
+     * an {@link AttributedFile} with cached attributes, this is not a system call.  Else, this is
+     * the result of {@link File#lastModified()}.
+     * <hr>
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongSortKey(File path) {
+        ObjectArgs.checkNotNull(path, "path");
+
+        final long key = AttributedFile.cachedLastModified(path);
+        return key;
+    }
 }
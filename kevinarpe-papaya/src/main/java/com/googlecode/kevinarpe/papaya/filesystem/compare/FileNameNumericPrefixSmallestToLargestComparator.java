@@ -29,11 +29,13 @@ import com.google.common.primitives.Longs;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 import com.googlecode.kevinarpe.papaya.compare.ComparatorUtils;
+import com.googlecode.kevinarpe.papaya.compare.KeyComparator;
 import com.googlecode.kevinarpe.papaya.object.StatelessObject;
 import com.googlecode.kevinarpe.papaya.string.NumericPrefix;
 
 import java.io.File;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Compares two {@link File} references using the numeric prefix of {@link File#getName()}.
@@ -45,11 +47,12 @@ import java.util.Comparator;
  * @see StatelessObject
  * @see #compare(File, File)
  * @see NumericPrefix
+ * @see ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)
  */
 @FullyTested
 public final class FileNameNumericPrefixSmallestToLargestComparator
 extends StatelessObject
-implements Comparator<File> {
+implements KeyComparator<File, NumericPrefix> {
 
     /**
      * @see StatelessObject#StatelessObject()
@@ -87,13 +90,42 @@ implements Comparator<File> {
         ObjectArgs.checkNotNull(path1, "path1");
         ObjectArgs.checkNotNull(path2, "path2");
 
-        final String fileName1 = path1.getName();
-        final String fileName2 = path2.getName();
+        final NumericPrefix numericPrefix1 = getSortKey(path1);
+        final NumericPrefix numericPrefix2 = getSortKey(path2);
+        final int result = compareSortKeys(numericPrefix1, numericPrefix2);
+        return result;
+    }
+
+    /**
+     * Scans {@link File#getName()} for a numeric prefix.  This requires a regular expression
+     * match, so it is relatively expensive.
+     * <hr>
+     * {@inheritDoc}
+     *
+     * @see NumericPrefix#NumericPrefix(String)
+     */
+    @Override
+    public NumericPrefix getSortKey(File path) {
+        ObjectArgs.checkNotNull(path, "path");
 
-        final NumericPrefix numericPrefix1 = new NumericPrefix(fileName1);
-        final NumericPrefix numericPrefix2 = new NumericPrefix(fileName2);
+        final String fileName = path.getName();
+        final NumericPrefix numericPrefix = new NumericPrefix(fileName);
+        return numericPrefix;
+    }
 
+    /**
+     * Compares numeric prefixes via {@link Longs#compare(long, long)}.  If either does not have a
+     * numeric value, the file names are compared via {@link String#compareTo(String)}.
+     * <hr>
+     * {@inheritDoc}
+     *
+     * @return -1, 0, or +1
+     */
+    @Override
+    public int compareSortKeys(NumericPrefix numericPrefix1, NumericPrefix numericPrefix2) {
         if (!numericPrefix1.hasNumericValue() || !numericPrefix2.hasNumericValue()) {
+            final String fileName1 = numericPrefix1.getInput();
+            final String fileName2 = numericPrefix2.getInput();
             int result = fileName1.compareTo(fileName2);
             result = ComparatorUtils.normalizeCompareResult(result);
             return result;
@@ -28,10 +28,14 @@ package com.googlecode.kevinarpe.papaya.filesystem.compare;
 import com.google.common.primitives.Longs;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.compare.ComparatorUtils;
+import com.googlecode.kevinarpe.papaya.compare.LongKeyComparator;
+import com.googlecode.kevinarpe.papaya.filesystem.AttributedFile;
 import com.googlecode.kevinarpe.papaya.object.StatelessObject;
 
 import java.io.File;
 import java.util.Comparator;
+import java.util.List;
 
 /**
  * Compares two {@link File} references using {@link File#length()}.
@@ -42,11 +46,13 @@ import java.util.Comparator;
  *
  * @see StatelessObject
  * @see #compare(File, File)
+ * @see #getLongSortKey(File)
+ * @see ComparatorUtils#sortWithPrecomputedKeys(List, Comparator)
  */
 @FullyTested
 public final class FileSizeSmallestToLargestComparator
 extends StatelessObject
-implements Comparator<File> {
+implements LongKeyComparator<File> {
 
     /**
      * @see StatelessObject#StatelessObject()
@@ -81,11 +87,27 @@ implements Comparator<File> {
         ObjectArgs.checkNotNull(path1, "path1");
         ObjectArgs.checkNotNull(path2, "path2");
 
+        final long key1 = getLongSortKey(path1);
+        final long key2 = getLongSortKey(path2);
+        final int result = Longs.compare(key1, key2);
+        return result;
+    }
+
+    /**
+     * Returns the result of {@link AttributedFile#cachedLength(File)}, or zero for directories.
+     * If {@code path} is an {@link AttributedFile} with cached attributes, this is not a system
+     * call.  Else, this is the result of {@link File#length()}.
+     * <hr>
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLongSortKey(File path) {
+        ObjectArgs.checkNotNull(path, "path");
+
         // From Javadocs for File.isDirectory():
         // "The return value is unspecified if this pathname denotes a directory."
-        final long pathSize1 = (path1.isDirectory() ? 0 : path1.length());
-        final long pathSize2 = (path2.isDirectory() ? 0 : path2.length());
-        final int result = Longs.compare(pathSize1, pathSize2);
-        return result;
+        final long key =
+            (AttributedFile.cachedIsDirectory(path) ? 0 : AttributedFile.cachedLength(path));
+        return key;
     }
 }
@@ -0,0 +1,245 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Used by {@link ReadInputStreamThread} to decode bytes from a child process output stream and
+ * split the resulting characters without creating new objects per read.
+ * <p>
+ * Bytes are decoded with a single (reused) {@link CharsetDecoder} into a single (reused)
+ * {@link CharBuffer}.  If a multi-byte character is split across two reads, the leading bytes are
+ * held until the next read.  Then, the pending characters are split in place with a single
+ * (reused) {@link Matcher}.  If a match touches the end of pending characters, more input could
+ * change the match, e.g., {@code "\r"} followed by {@code "\n"}, so pending characters are held
+ * until the next read.
+ * <p>
+ * The {@link CharSequence} passed to {@link Appendable#append(CharSequence)} is a view of the
+ * internal buffer.  It is only valid during the call.  Callbacks that need to retain the text must
+ * copy it, e.g., via {@link CharSequence#toString()}.
+ * <p>
+ * This class is not thread-safe.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessOutputStreamSettings#splitRegex(Pattern)
+ */
+@FullyTested
+final class IncrementalTextSplitter {
+    
+    // Allow a few extra bytes for an incomplete multi-byte character from the previous read.
+    private static final int EXTRA_BYTE_COUNT = 16;
+    
+    private final ByteBuffer _byteBuffer;
+    private CharBuffer _charBuffer;
+    // Read by the matcher
+    private CharBuffer _matchView;
+    // Passed to callbacks
+    private CharBuffer _callbackView;
+    private CharsetDecoder _optDecoder;
+    private Matcher _optMatcher;
+    
+    /**
+     * @param initialCapacity
+     *        number of bytes (and chars) for internal buffers.  The char buffer grows as necessary
+     *        to hold a single long line.  Must be positive.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code initialCapacity} is not positive
+     */
+    IncrementalTextSplitter(int initialCapacity) {
+        IntArgs.checkPositive(initialCapacity, "initialCapacity");
+        
+        _byteBuffer = ByteBuffer.allocate(initialCapacity + EXTRA_BYTE_COUNT);
+        _charBuffer = CharBuffer.allocate(initialCapacity);
+        _matchView = _charBuffer.duplicate();
+        _callbackView = _charBuffer.duplicate();
+        _optDecoder = null;
+        _optMatcher = null;
+    }
+    
+    /**
+     * Decodes bytes and appends each complete part of text to {@code callback}.
+     * 
+     * @param byteArr
+     *        data read from child process output stream
+     * @param count
+     *        number of valid bytes in {@code byteArr}, starting at index zero
+     * @param cs
+     *        used to decode bytes
+     * @param optSplitRegex
+     * <ul>
+     *   <li>(optional) regular expression to split text.  Matched text is discarded.</li>
+     *   <li>If {@code null}, all decoded text is immediately appended to {@code callback}.</li>
+     * </ul>
+     * @param callback
+     *        receives each part of text
+     * 
+     * @throws IOException
+     *         if {@code callback} throws
+     * 
+     * @see #finish(Charset, Pattern, Appendable)
+     */
+    public void append(
+            byte[] byteArr, int count, Charset cs, Pattern optSplitRegex, Appendable callback)
+    throws IOException {
+        ObjectArgs.checkNotNull(byteArr, "byteArr");
+        ObjectArgs.checkNotNull(cs, "cs");
+        ObjectArgs.checkNotNull(callback, "callback");
+        
+        CharsetDecoder decoder = _getDecoder(cs);
+        int offset = 0;
+        while (offset < count) {
+            int partCount = Math.min(count - offset, _byteBuffer.remaining());
+            _byteBuffer.put(byteArr, offset, partCount);
+            offset += partCount;
+            _byteBuffer.flip();
+            _decode(decoder, false);
+            // Incomplete multi-byte chars are moved to the front.
+            _byteBuffer.compact();
+        }
+        _split(optSplitRegex, callback, false);
+    }
+    
+    /**
+     * Decodes any remaining bytes, then appends all remaining text to {@code callback}.  Call this
+     * method once at the end of the stream.  Afterwards, this instance may be reused.
+     * 
+     * @throws IOException
+     *         if {@code callback} throws
+     * 
+     * @see #append(byte[], int, Charset, Pattern, Appendable)
+     */
+    public void finish(Charset cs, Pattern optSplitRegex, Appendable callback)
+    throws IOException {
+        ObjectArgs.checkNotNull(cs, "cs");
+        ObjectArgs.checkNotNull(callback, "callback");
+        
+        CharsetDecoder decoder = _getDecoder(cs);
+        _byteBuffer.flip();
+        _decode(decoder, true);
+        while (decoder.flush(_charBuffer).isOverflow()) {
+            _growCharBuffer();
+        }
+        _byteBuffer.clear();
+        decoder.reset();
+        _split(optSplitRegex, callback, true);
+    }
+    
+    private CharsetDecoder _getDecoder(Charset cs) {
+        // Settings may be changed while the child process is running.
+        if (null == _optDecoder || !_optDecoder.charset().equals(cs)) {
+            // Same behaviour as new String(byte[], int, int, Charset)
+            _optDecoder =
+                cs.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        return _optDecoder;
+    }
+    
+    private void _decode(CharsetDecoder decoder, boolean isEndOfInput) {
+        while (true) {
+            CoderResult result = decoder.decode(_byteBuffer, _charBuffer, isEndOfInput);
+            if (!result.isOverflow()) {
+                break;
+            }
+            _growCharBuffer();
+        }
+    }
+    
+    private void _growCharBuffer() {
+        CharBuffer x = CharBuffer.allocate(2 * _charBuffer.capacity());
+        _charBuffer.flip();
+        x.put(_charBuffer);
+        _charBuffer = x;
+        _matchView = _charBuffer.duplicate();
+        _callbackView = _charBuffer.duplicate();
+        _optMatcher = null;
+    }
+    
+    private void _split(Pattern optSplitRegex, Appendable callback, boolean isEndOfInput)
+    throws IOException {
+        int length = _charBuffer.position();
+        if (null == optSplitRegex) {
+            if (length > 0) {
+                _appendView(callback, 0, length);
+            }
+            _charBuffer.clear();
+            return;
+        }
+        _matchView.clear();
+        _matchView.limit(length);
+        Matcher matcher = _getMatcher(optSplitRegex);
+        matcher.reset(_matchView);
+        int start = 0;
+        while (matcher.find()) {
+            if (!isEndOfInput && matcher.hitEnd()) {
+                // More input may change this match, e.g., "\r" then "\n".
+                break;
+            }
+            _appendView(callback, start, matcher.start());
+            start = matcher.end();
+        }
+        if (isEndOfInput && start < length) {
+            _appendView(callback, start, length);
+            start = length;
+        }
+        // Move remaining chars to the front.
+        _charBuffer.flip();
+        _charBuffer.position(start);
+        _charBuffer.compact();
+    }
+    
+    private Matcher _getMatcher(Pattern splitRegex) {
+        // Settings may be changed while the child process is running.
+        if (null == _optMatcher || _optMatcher.pattern() != splitRegex) {
+            _optMatcher = splitRegex.matcher(_matchView);
+        }
+        return _optMatcher;
+    }
+    
+    private void _appendView(Appendable callback, int start, int end)
+    throws IOException {
+        _callbackView.clear();
+        _callbackView.limit(end);
+        _callbackView.position(start);
+        callback.append(_callbackView);
+    }
+}
@@ -0,0 +1,192 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Immutable sample of CPU time and peak memory for a child process from {@code /proc/<pid>} on
+ * Linux.  On other platforms, no samples are available.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+final class LinuxProcStats {
+    
+    /**
+     * Clock ticks per second for CPU times in {@code /proc/<pid>/stat}.  The JDK cannot call
+     * {@code sysconf(_SC_CLK_TCK)}, but Linux fixes this value (USER_HZ) at 100 on all common
+     * architectures.
+     */
+    static final long CLOCK_TICKS_PER_SECOND = 100;
+    
+    private static final File PROC_DIR_PATH = new File("/proc");
+    
+    private static final Method _optPidMethod;
+    private static final Field _optPidField;
+    
+    static {
+        Method optPidMethod = null;
+        Field optPidField = null;
+        try {
+            // Java 9+
+            optPidMethod = Process.class.getMethod("pid");
+        }
+        catch (Exception e) {
+            try {
+                // Java 8 on Linux and other UNIX-like platforms: java.lang.UNIXProcess
+                Class<?> c = Class.forName("java.lang.UNIXProcess");
+                optPidField = c.getDeclaredField("pid");
+                optPidField.setAccessible(true);
+            }
+            catch (Exception e2) {
+                // Intentionally ignore exception.
+                optPidField = null;
+            }
+        }
+        _optPidMethod = optPidMethod;
+        _optPidField = optPidField;
+    }
+    
+    /**
+     * @return process ID of {@code process}, or -1 if unavailable
+     */
+    static long getPid(Process process) {
+        try {
+            if (null != _optPidMethod) {
+                long x = ((Number) _optPidMethod.invoke(process)).longValue();
+                return x;
+            }
+            if (null != _optPidField && _optPidField.getDeclaringClass().isInstance(process)) {
+                long x = _optPidField.getInt(process);
+                return x;
+            }
+        }
+        catch (Exception e) {
+            // Intentionally ignore exception.
+            @SuppressWarnings("unused")
+            int dummy = 1;  // debug breakpoint
+        }
+        return -1;
+    }
+    
+    /**
+     * Reads {@code /proc/<pid>/stat} and {@code /proc/<pid>/status}.
+     * 
+     * @return {@code null} if {@code pid} is -1, the platform has no {@code /proc}, or the process
+     *         has already been reaped
+     */
+    static LinuxProcStats tryRead(long pid) {
+        if (-1 == pid || !PROC_DIR_PATH.isDirectory()) {
+            return null;
+        }
+        File dirPath = new File(PROC_DIR_PATH, String.valueOf(pid));
+        try {
+            String stat = _readSmallFile(new File(dirPath, "stat"));
+            String status = _readSmallFile(new File(dirPath, "status"));
+            LinuxProcStats x = parse(stat, status);
+            return x;
+        }
+        catch (Exception e) {
+            return null;
+        }
+    }
+    
+    /**
+     * Parses the contents of {@code /proc/<pid>/stat} and {@code /proc/<pid>/status}.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code stat} is malformed
+     */
+    static LinuxProcStats parse(String stat, String status) {
+        // Field #2 is the command name in parentheses, which may contain spaces.
+        int index = stat.lastIndexOf(')');
+        if (-1 == index) {
+            throw new IllegalArgumentException("Missing ')' in /proc/<pid>/stat: " + stat);
+        }
+        // First element is field #3 (state).  utime is field #14, and stime is field #15.
+        String[] fieldArr = stat.substring(index + 1).trim().split(" +");
+        if (fieldArr.length < 13) {
+            throw new IllegalArgumentException(
+                "Too few fields in /proc/<pid>/stat: " + Arrays.toString(fieldArr));
+        }
+        long userTicks = Long.parseLong(fieldArr[11]);
+        long systemTicks = Long.parseLong(fieldArr[12]);
+        
+        // Example line: "VmHWM:\t    1234 kB"
+        long peakRssByteCount = -1;
+        for (String line : status.split("\n")) {
+            if (line.startsWith("VmHWM:")) {
+                String value = line.substring("VmHWM:".length()).trim();
+                value = value.substring(0, value.indexOf(' '));
+                peakRssByteCount = 1024L * Long.parseLong(value);
+                break;
+            }
+        }
+        LinuxProcStats x = new LinuxProcStats(
+            1000L * userTicks / CLOCK_TICKS_PER_SECOND,
+            1000L * systemTicks / CLOCK_TICKS_PER_SECOND,
+            peakRssByteCount);
+        return x;
+    }
+    
+    private static String _readSmallFile(File path)
+    throws IOException {
+        // Files in /proc report a size of zero, so read until end of file.
+        FileInputStream fin = new FileInputStream(path);
+        try {
+            byte[] buffer = new byte[4096];
+            int length = 0;
+            int readCount;
+            while (-1 != (readCount = fin.read(buffer, length, buffer.length - length))) {
+                length += readCount;
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                }
+            }
+            String x = new String(buffer, 0, length, StandardCharsets.ISO_8859_1);
+            return x;
+        }
+        finally {
+            fin.close();
+        }
+    }
+    
+    final long _cpuUserMillis;
+    final long _cpuSystemMillis;
+    final long _peakRssByteCount;
+    
+    LinuxProcStats(long cpuUserMillis, long cpuSystemMillis, long peakRssByteCount) {
+        _cpuUserMillis = cpuUserMillis;
+        _cpuSystemMillis = cpuSystemMillis;
+        _peakRssByteCount = peakRssByteCount;
+    }
+}
@@ -36,6 +36,7 @@ import com.googlecode.kevinarpe.papaya.argument.StringArgs;
 import com.googlecode.kevinarpe.papaya.exception.InvalidExitValueException;
 import com.googlecode.kevinarpe.papaya.exception.TimeoutException;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
@@ -45,6 +46,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Instances of this class must be created via {@link ProcessBuilder2#start()}.  An instance of
@@ -53,8 +59,9 @@ import java.util.Map;
  * The following auxilliary threads may be created to manage child process input and output:
  * <ul>
  *   <li>Write data to STDIN: If data for STDIN is specified via
- *   {@link ProcessBuilder2#stdinData(byte[])} or {@link ProcessBuilder2#stdinText(String)}, a
- *   thread is spawned to write these bytes to the child process' STDIN stream.  A separate thread
+ *   {@link ProcessBuilder2#stdinData(byte[])}, {@link ProcessBuilder2#stdinText(String)}, or
+ *   {@link ProcessBuilder2#stdinSource(StdinSource)}, a thread is spawned to write these bytes to
+ *   the child process' STDIN stream.  A separate thread
  *   is used to prevent blocking in the main thread if the operating system or child process cannot
  *   read the entire data array in a single read.</li>
  *   <li>Read data from STDOUT: A thread is always spawned to read data from the child process'
@@ -63,6 +70,9 @@ import java.util.Map;
  *   {@link ProcessBuilder2#redirectErrorStream(boolean)}, then a thread is spawned to read data
  *   from the child process' STDERR stream.</li>
  * </ul>
+ * If a shared pump is set via {@link ProcessBuilder2#outputStreamPump(ProcessOutputStreamPump)},
+ * no threads are spawned to read STDOUT and STDERR.  Instead, the pump's threads read these
+ * streams.
  * <p>
  * In the standard JDK implementation of {@link Process}, the process' original argument list,
  * environment, directory, and if STDERR is redirected to STDOUT are not available.  This extended
@@ -97,6 +107,11 @@ import java.util.Map;
  *   Waits indefinitely for child process to terminate</li>
  *   <li>{@link #waitFor(long)}:
  *   Waits (up to a maximum number of milliseconds) for child process to terminate</li>
+ *   <li>{@link #onExit()}:
+ *   Does not block.  Future completes after child process terminates and its output streams are
+ *   drained</li>
+ *   <li>{@link #onExit(long)}:
+ *   Does not block.  Same as {@link #onExit()}, but with a timeout</li>
  *   <li>{@link #waitForThenCheckExitValue(int)}:
  *   Waits indefinitely for child process to terminate, then validates the exit value</li>
  *   <li>{@link #waitForThenCheckExitValue(Collection)}:
@@ -109,6 +124,9 @@ import java.util.Map;
  *   then validates the exit value</li>
  * </ul>
  * <p>
+ * Resource usage, e.g., wall time, I/O counts, CPU time, and peak memory, is available as an
+ * immutable snapshot via {@link #metrics()}.
+ * <p>
  * Careful readers will note that many methods unexpectedly throw {@link IOException}.  This is a
  * wart of design.  If data is to be written to the child process STDIN stream, a separate thread
  * is spawned to prevent blocking in the main thread.  If an exception is caught in this background
@@ -131,14 +149,47 @@ extends AbstractProcessSettings {
     private final boolean _redirectErrorStream;
     private final byte[] _optStdinByteArr;
     private final String _optStdinText;
+    private final StdinSource _optStdinSource;
     private final ReadInputStreamThread _readStdoutThread;
     private final ReadInputStreamThread _optReadStderrThread;
+    private final ProcessOutputStreamPump.Registration _optStdoutPumpRegistration;
+    private final ProcessOutputStreamPump.Registration _optStderrPumpRegistration;
     private final WriteOutputStreamThread _optWriteStdinThread;
+    private final ProcessExitWatcher _exitWatcher;
+    private CompletableFuture<Integer> _optExitFuture;
+    private CompletableFuture<Integer> _optOnExitFuture;
+    private final ProcessMetricsListener _optMetricsListener;
+    private final long _startNanos;
+    private final long _pid;
+    private volatile long _exitNanos;
+    private volatile boolean _hasExited;
+    private volatile LinuxProcStats _optLastProcStats;
+    // Only accessed by the ProcessExitWatcher thread after this constructor returns
+    private long _lastProcStatsSampleNanos;
     
     Process2(ProcessBuilder2 pb, Process process) {
+        this(pb, process, false, false);
+    }
+    
+    /**
+     * @param isStdoutReadByCaller
+     *        if {@code true}, STDOUT is read by the caller, e.g., the next stage of a
+     *        {@link ProcessPipeline}, so no thread (or pump registration) is created to read STDOUT
+     * @param isStdinWrittenByCaller
+     *        if {@code true}, STDIN is written by the caller, e.g., {@link ProcessWorkerPool}, so
+     *        STDIN is not closed, and no thread is created to write STDIN
+     */
+    Process2(
+            ProcessBuilder2 pb,
+            Process process,
+            boolean isStdoutReadByCaller,
+            boolean isStdinWrittenByCaller) {
         super(ObjectArgs.checkNotNull(pb, "pb"), ChildProcessState.HAS_STARTED);
         
+        _startNanos = System.nanoTime();
         _process = ObjectArgs.checkNotNull(process, "process");
+        _pid = LinuxProcStats.getPid(_process);
+        _optMetricsListener = pb.metricsListener();
         _argList = ImmutableList.copyOf(pb.command());
         _argListStr = ProcessBuilder2.argListToString(_argList);
         _environment = ImmutableMap.copyOf(pb.environment());
@@ -149,20 +200,51 @@ extends AbstractProcessSettings {
         _optStdinByteArr =
             (null == optByteArr ? null : Arrays.copyOf(optByteArr, optByteArr.length));
         _optStdinText = pb.stdinText();
+        _optStdinSource = pb.stdinSource();
+        
+        ProcessOutputStreamPump optPump = pb.outputStreamPump();
+        ProcessExitWatcher optExitWatcher = pb.exitWatcher();
+        _exitWatcher =
+            (null == optExitWatcher ? ProcessExitWatcher.getDefault() : optExitWatcher);
         
         InputStream stdoutStream = _process.getInputStream();
         ProcessOutputStreamSettings stdoutSettings = this.stdoutSettings();
-        _readStdoutThread =
-            createReadInputStreamThreadAndStart(stdoutStream, stdoutSettings, "STDOUT");
+        if (isStdoutReadByCaller) {
+            // Never started: Joins return immediately and accumulated data is always empty.
+            _readStdoutThread =
+                createReadInputStreamThread(stdoutStream, stdoutSettings, "STDOUT");
+            _optStdoutPumpRegistration = null;
+        }
+        else if (null == optPump) {
+            _readStdoutThread =
+                createReadInputStreamThreadAndStart(stdoutStream, stdoutSettings, "STDOUT");
+            _optStdoutPumpRegistration = null;
+        }
+        else {
+            _readStdoutThread =
+                createReadInputStreamThread(stdoutStream, stdoutSettings, "STDOUT");
+            _optStdoutPumpRegistration =
+                optPump.register(_process, stdoutStream, _readStdoutThread);
+        }
         
         if (_redirectErrorStream) {
             _optReadStderrThread = null;
+            _optStderrPumpRegistration = null;
         }
         else {
             InputStream stderrStream = _process.getErrorStream();
             ProcessOutputStreamSettings stderrSettings = this.stderrSettings();
-            _optReadStderrThread =
-                createReadInputStreamThreadAndStart(stderrStream, stderrSettings, "STDERR");
+            if (null == optPump) {
+                _optReadStderrThread =
+                    createReadInputStreamThreadAndStart(stderrStream, stderrSettings, "STDERR");
+                _optStderrPumpRegistration = null;
+            }
+            else {
+                _optReadStderrThread =
+                    createReadInputStreamThread(stderrStream, stderrSettings, "STDERR");
+                _optStderrPumpRegistration =
+                    optPump.register(_process, stderrStream, _optReadStderrThread);
+            }
         }
         
         OutputStream stdinStream = _process.getOutputStream();
@@ -170,7 +252,15 @@ extends AbstractProcessSettings {
         if (null == stdinByteArr && null != _optStdinText) {
             stdinByteArr = _optStdinText.getBytes();
         }
-        if (null == stdinByteArr) {
+        if (isStdinWrittenByCaller) {
+            _optWriteStdinThread = null;
+        }
+        else if (null != _optStdinSource) {
+            _optWriteStdinThread = createWriteOutputStreamThread(stdinStream, _optStdinSource);
+            setThreadName(_optWriteStdinThread, "STDIN");
+            _optWriteStdinThread.start();
+        }
+        else if (null == stdinByteArr) {
             _optWriteStdinThread = null;
             try {
                 stdinStream.close();
@@ -186,6 +276,22 @@ extends AbstractProcessSettings {
             setThreadName(_optWriteStdinThread, "STDIN");
             _optWriteStdinThread.start();
         }
+        
+        if (null != _optMetricsListener) {
+            // First sample is a lower bound, in case the child process exits before the first poll.
+            sampleProcStats();
+            _lastProcStatsSampleNanos = System.nanoTime();
+            // Last step: The watcher thread may call metrics() before this constructor returns.
+            _watch();
+            final ProcessMetricsListener listener = _optMetricsListener;
+            _optOnExitFuture.thenAccept(new Consumer<Integer>() {
+                
+                @Override
+                public void accept(Integer exitValue) {
+                    listener.onExit(Process2.this, metrics());
+                }
+            });
+        }
     }
     
     /**
@@ -255,6 +361,16 @@ extends AbstractProcessSettings {
         return _optStdinText;
     }
     
+    /**
+     * @return original source of bytes streamed to child process' STDIN stream.
+     *         May be {@code null}.
+     * 
+     * @see ProcessBuilder2#stdinSource(StdinSource)
+     */
+    public StdinSource stdinSource() {
+        return _optStdinSource;
+    }
+    
     /**
      * Tests if the current process has returned an exit value via {@link #tryExitValue()}.
      * A return value of {@code null} is interpretaed as the child process is still running and has
@@ -352,6 +468,30 @@ extends AbstractProcessSettings {
         return x;
     }
     
+    /**
+     * Similar to {@link #stdoutDataAsByteArr()}, but no bytes are copied.  The result reads
+     * directly from the internal segments used to accumulate bytes from the child process' STDOUT
+     * stream.  Prefer this method when the child process writes a large amount of data.  This
+     * method may be safely called repeatedly during runtime and after termination of child
+     * process.  Bytes received afterwards are not visible to the result.
+     * 
+     * @return new stream over currently accumulated bytes from child process' STDOUT stream.
+     *         May be empty, but will never be {@code null}
+     * 
+     * @throws IOException
+     *         if an error occurred when writing data to STDIN (rethrown from STDIN thread)
+     *
+     * @see #stdoutDataAsByteArr()
+     */
+    public InputStream stdoutDataAsInputStream()
+    throws IOException {
+        tryWriteStdinThreadRethrowCaughtException();
+        tryReadStdxxxThreadRethrowCaughtException(_readStdoutThread);
+        
+        InputStream x = _readStdoutThread.getDataAsInputStream();
+        return x;
+    }
+    
     /**
      * This is a convenience methods to call {@link #stdoutDataAsString(Charset)} where
      * {@code optCs} is {@code null}.
@@ -397,6 +537,12 @@ extends AbstractProcessSettings {
     
     private static final byte[] _EMPTY_BYTE_ARRAY = new byte[0];
     
+    /**
+     * Minimum time between samples of {@code /proc/<pid>} by {@link ProcessExitWatcher}.  Polls
+     * are much more frequent, and each sample reads and parses two files.
+     */
+    static final long PROC_STATS_SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    
     /**
      * Retrieves raw bytes from child process' STDERR stream.
      * 
@@ -421,6 +567,32 @@ extends AbstractProcessSettings {
         return x;
     }
     
+    /**
+     * Similar to {@link #stderrDataAsByteArr()}, but no bytes are copied.
+     * 
+     * @return new stream over currently accumulated bytes from child process' STDERR stream.
+     *         If zero bytes received, the result is an empty stream
+     * 
+     * @throws IOException
+     *         if an error occurred when writing data to STDIN (rethrown from STDIN thread)
+     *
+     * @see #stdoutDataAsInputStream()
+     */
+    public InputStream stderrDataAsInputStream()
+    throws IOException {
+        tryWriteStdinThreadRethrowCaughtException();
+        tryReadStdxxxThreadRethrowCaughtException(_optReadStderrThread);
+        
+        InputStream x = null;
+        if (null != _optReadStderrThread) {
+            x = _optReadStderrThread.getDataAsInputStream();
+        }
+        else {
+            x = new ByteArrayInputStream(_EMPTY_BYTE_ARRAY);
+        }
+        return x;
+    }
+    
     /**
      * This is a convenience method for {@link #stderrDataAsString(Charset)} where {@code optCs} is
      * {@code null}.
@@ -458,6 +630,37 @@ extends AbstractProcessSettings {
         }
         return x;
     }
+    
+    /**
+     * Retrieves the number of bytes accumulated from child process' STDOUT and STDERR streams.
+     * No bytes are copied.
+     */
+    long accumulatedDataByteCount() {
+        long x = _readStdoutThread.getDataByteCount();
+        if (null != _optReadStderrThread) {
+            x += _optReadStderrThread.getDataByteCount();
+        }
+        return x;
+    }
+    
+    /**
+     * Removes all accumulated data from child process' STDOUT and STDERR streams.  If accumulated
+     * data was spilled to temporary files, the files are deleted.  This method may be safely called
+     * during runtime and after termination of child process.  Data received afterwards is
+     * accumulated as usual.
+     * 
+     * @throws IOException
+     *         if a temporary file cannot be closed
+     * 
+     * @see ProcessOutputStreamSettings#spillToDiskThresholdByteCount(int)
+     */
+    public void clearAccumulatedData()
+    throws IOException {
+        _readStdoutThread.clearData();
+        if (null != _optReadStderrThread) {
+            _optReadStderrThread.clearData();
+        }
+    }
 
     /**
      * Tries to retrieve the exit value from the terminated child process.
@@ -478,13 +681,12 @@ extends AbstractProcessSettings {
         Integer optExitValue = null;
         try {
             optExitValue = _process.exitValue();
+            markExited();
             if (null != _optWriteStdinThread) {
                 _optWriteStdinThread.join();
             }
-            _readStdoutThread.join();
-            if (null != _optReadStderrThread) {
-                _optReadStderrThread.join();
-            }
+            _joinReadStdxxx(_readStdoutThread, _optStdoutPumpRegistration);
+            _joinReadStdxxx(_optReadStderrThread, _optStderrPumpRegistration);
         }
         catch (Exception e) {
             // We failed to get exit code.  Process is still running.
@@ -495,6 +697,211 @@ extends AbstractProcessSettings {
         return optExitValue;
     }
     
+    /**
+     * Waits indefinitely for a child process output stream (STDOUT or STDERR) to be drained,
+     * either by its own thread, or by a shared pump.
+     */
+    private void _joinReadStdxxx(
+            ReadInputStreamThread optThread,
+            ProcessOutputStreamPump.Registration optPumpRegistration)
+    throws InterruptedException {
+        if (null != optPumpRegistration) {
+            optPumpRegistration.await();
+        }
+        else if (null != optThread) {
+            optThread.join();
+        }
+    }
+    
+    /**
+     * Tests if the threads (or pump registrations) for STDIN, STDOUT, and STDERR streams are
+     * finished.  This method does not block.
+     */
+    boolean isFinished() {
+        if (null != _optWriteStdinThread && _optWriteStdinThread.isAlive()) {
+            return false;
+        }
+        boolean x =
+            _isReadStdxxxFinished(_readStdoutThread, _optStdoutPumpRegistration)
+            && _isReadStdxxxFinished(_optReadStderrThread, _optStderrPumpRegistration);
+        return x;
+    }
+    
+    private boolean _isReadStdxxxFinished(
+            ReadInputStreamThread optThread,
+            ProcessOutputStreamPump.Registration optPumpRegistration) {
+        if (null != optPumpRegistration) {
+            return optPumpRegistration.isDone();
+        }
+        boolean x = (null == optThread || !optThread.isAlive());
+        return x;
+    }
+    
+    /**
+     * Records the time of termination on first call.  Call only after the child process has
+     * terminated.
+     */
+    synchronized void markExited() {
+        if (!_hasExited) {
+            _exitNanos = System.nanoTime();
+            _hasExited = true;
+        }
+    }
+    
+    /**
+     * @return {@code true} if {@link ProcessExitWatcher} should call
+     *         {@link #sampleProcStatsIfDue(long)} at each poll, and {@link #sampleProcStats()} once
+     *         on exit
+     */
+    boolean isMetricsSampled() {
+        boolean x = (null != _optMetricsListener);
+        return x;
+    }
+    
+    /**
+     * Calls {@link #sampleProcStats()} if at least {@link #PROC_STATS_SAMPLE_INTERVAL_NANOS} have
+     * passed since the previous call that sampled.  Only called by {@link ProcessExitWatcher}.
+     * 
+     * @param nowNanos
+     *        result of {@link System#nanoTime()}
+     */
+    void sampleProcStatsIfDue(long nowNanos) {
+        if (nowNanos - _lastProcStatsSampleNanos >= PROC_STATS_SAMPLE_INTERVAL_NANOS) {
+            _lastProcStatsSampleNanos = nowNanos;
+            sampleProcStats();
+        }
+    }
+    
+    /**
+     * Samples CPU time and peak memory from {@code /proc/<pid>}.  If the child process has been
+     * reaped, the previous sample is kept.  If the child process has exited, but is not yet
+     * reaped, the previous peak memory is kept.
+     */
+    void sampleProcStats() {
+        LinuxProcStats optProcStats = LinuxProcStats.tryRead(_pid);
+        if (null != optProcStats) {
+            LinuxProcStats optLastProcStats = _optLastProcStats;
+            if (optProcStats._peakRssByteCount < 0 && null != optLastProcStats) {
+                // Exited, but not yet reaped (zombie): /proc/<pid>/status omits VmHWM.
+                optProcStats =
+                    new LinuxProcStats(
+                        optProcStats._cpuUserMillis,
+                        optProcStats._cpuSystemMillis,
+                        optLastProcStats._peakRssByteCount);
+            }
+            _optLastProcStats = optProcStats;
+        }
+    }
+    
+    /**
+     * Creates a snapshot of resource usage for this child process: wall time, bytes and read
+     * calls for STDOUT and STDERR, bytes written to STDIN, and (on Linux) CPU time and peak
+     * memory.  This method does not block, and may be called while the child process is running.
+     * <p>
+     * If the child process is running, CPU time and peak memory are sampled by this call.  Else,
+     * the last sample is used, which may be missing for very short-lived child processes.  To
+     * sample regularly, set {@link ProcessBuilder2#metricsListener(ProcessMetricsListener)}.
+     * 
+     * @return new immutable snapshot
+     * 
+     * @see ProcessMetrics
+     */
+    public ProcessMetrics metrics() {
+        if (!_hasExited) {
+            if (_process.isAlive()) {
+                sampleProcStats();
+            }
+            else {
+                markExited();
+            }
+        }
+        boolean hasExited = _hasExited;
+        long wallNanos = (hasExited ? _exitNanos : System.nanoTime()) - _startNanos;
+        long stdinByteCount =
+            (null == _optWriteStdinThread ? 0 : _optWriteStdinThread.getWrittenByteCount());
+        long stderrByteCount =
+            (null == _optReadStderrThread ? 0 : _optReadStderrThread.getReadByteCount());
+        long stderrReadCallCount =
+            (null == _optReadStderrThread ? 0 : _optReadStderrThread.getReadCallCount());
+        ProcessMetrics x = new ProcessMetrics(
+            _pid,
+            hasExited,
+            wallNanos,
+            stdinByteCount,
+            _readStdoutThread.getReadByteCount(),
+            _readStdoutThread.getReadCallCount(),
+            stderrByteCount,
+            stderrReadCallCount,
+            _optLastProcStats);
+        return x;
+    }
+    
+    /**
+     * Registers this child process with its {@link ProcessExitWatcher} on first call.
+     */
+    private synchronized void _watch() {
+        if (null == _optExitFuture) {
+            CompletableFuture<Integer> exitFuture = new CompletableFuture<Integer>();
+            CompletableFuture<Integer> onExitFuture = new CompletableFuture<Integer>();
+            _exitWatcher.watch(this, exitFuture, onExitFuture);
+            _optExitFuture = exitFuture;
+            _optOnExitFuture = onExitFuture;
+        }
+    }
+    
+    /**
+     * Retrieves a future that completes with the exit value after the child process terminates
+     * <b>and</b> all data from STDOUT and STDERR is read (and passed to callbacks).  Data written
+     * to STDIN is also finished.  This method does not block, and no thread is parked to wait
+     * for the child process.  Instead, the shared {@link ProcessExitWatcher} completes the future.
+     * <p>
+     * Exceptions caught while reading STDOUT or STDERR, or writing STDIN, do not complete the
+     * future exceptionally.  They are rethrown as usual by methods such as
+     * {@link #stdoutDataAsByteArr()}.
+     * <p>
+     * Each call returns a new dependent future, so completing or cancelling the result does not
+     * affect other callers.
+     * 
+     * @return new future for exit value
+     * 
+     * @throws IllegalStateException
+     *         if the {@link ProcessExitWatcher} has been shutdown
+     * 
+     * @see #onExit(long)
+     * @see ProcessBuilder2#exitWatcher(ProcessExitWatcher)
+     */
+    public CompletableFuture<Integer> onExit() {
+        _watch();
+        CompletableFuture<Integer> x = _optOnExitFuture.thenApply(Function.<Integer>identity());
+        return x;
+    }
+    
+    /**
+     * Similar to {@link #onExit()}, but the future completes exceptionally with
+     * {@link java.util.concurrent.TimeoutException} if the child process does not finish within
+     * {@code timeoutMillis} milliseconds.  The timeout is scheduled on the shared
+     * {@link ProcessExitWatcher}, and the child process is <b>not</b> destroyed.
+     * 
+     * @param timeoutMillis
+     *        maximum number of milliseconds to wait.  Must be positive.
+     * 
+     * @return new future for exit value
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code timeoutMillis} is not positive
+     * @throws IllegalStateException
+     *         if the {@link ProcessExitWatcher} has been shutdown
+     * 
+     * @see ProcessExitWatcher#withTimeout(CompletableFuture, long)
+     */
+    public CompletableFuture<Integer> onExit(long timeoutMillis) {
+        LongArgs.checkPositive(timeoutMillis, "timeoutMillis");
+        _watch();
+        
+        CompletableFuture<Integer> x = _exitWatcher.withTimeout(_optOnExitFuture, timeoutMillis);
+        return x;
+    }
+    
     /**
      * Forwards to {@link Process#exitValue()}.
      * 
@@ -505,6 +912,7 @@ extends AbstractProcessSettings {
         tryWriteStdinThreadRethrowCaughtException();
         
         int exitValue = _process.waitFor();
+        markExited();
         return exitValue;
     }
     
@@ -545,39 +953,27 @@ extends AbstractProcessSettings {
         Integer optExitValue = null;
         if (0 == timeoutMillis) {
             optExitValue = _process.waitFor();
+            markExited();
         }
         else {
-            // Before we create a thread (expensive), check if process has finished.
-            // If yes, get the exit code and skip the thread create below.
+            // Before we register with the watcher, check if process has finished.
+            // If yes, get the exit code and skip the wait below.
             optExitValue = this.tryExitValue();
             if (null != optExitValue) {
                 return optExitValue;
             }
-            // Unfortunately, due to the complexities of threading (spawn/join/interrupt), this
-            // section of code looks *far* more complicated than necessary.  There are no secrets
-            // here.
-            WaitForProcessThread thread = createWaitForProcessThread();
-            thread.start();
+            // No thread is created here.  The shared ProcessExitWatcher completes the future.
+            _watch();
             try {
-                // First:
-                // Surprisingly, a failed join is not clearly indicated here.  It is necessary to
-                // check if the thread is still alive via Thread.isAlive().  Why didn't JDK API add
-                // a boolean return value to this method?  <My Jimmies Are Rustled>
-                // Second:
-                // This method only throws InterruptedException if this thread has its interrupt()
-                // method called while we are waiting for Thread.join(long) to complete.  In this
-                // section of code: Impossible (as I see it).
-                thread.join(timeoutMillis);
+                optExitValue = _optExitFuture.get(timeoutMillis, TimeUnit.MILLISECONDS);
             }
-            catch (InterruptedException e) {
-                // Ignore this exception.
-                @SuppressWarnings("unused")
-                int dummy = 1;  // debug breakpoint
+            catch (java.util.concurrent.TimeoutException e) {
+                optExitValue = null;
+            }
+            catch (ExecutionException e) {
+                // Only possible if the watcher was shutdown.
+                throw new IllegalStateException("Failed to wait for child process", e.getCause());
             }
-            // If null, our call to Thread.join(long) above failed (timed-out).
-            optExitValue = thread.getOptExitValue();
-            // This has no effect if the thread is not alive.  Always call to be safe.
-            thread.interrupt();
         }
         return optExitValue;
     }
@@ -586,7 +982,11 @@ extends AbstractProcessSettings {
      * Override this method if class {@link WaitForProcessThread} has also been subclassed.
      * 
      * @return new thread to wait for child process to terminate
+     * 
+     * @deprecated No longer called by {@link #waitFor(long)}, which uses the shared
+     *             {@link ProcessExitWatcher}.  See {@link #onExit(long)}.
      */
+    @Deprecated
     protected WaitForProcessThread createWaitForProcessThread() {
         WaitForProcessThread x = new WaitForProcessThread(_process);
         return x;
@@ -762,6 +1162,28 @@ extends AbstractProcessSettings {
         return thread;
     }
     
+    /**
+     * Creates, but does not start (spawn), a new thread to stream bytes from a source to the
+     * STDIN stream of a child process.
+     * <p>
+     * Subclasses of {@link Process2} that want to subclass {@link WriteOutputStreamThread} will
+     * need to override this method.
+     * 
+     * @param outputStream
+     *        STDIN stream handle ({@link Process#getOutputStream()})
+     * @param source
+     *        source of bytes to write to STDIN stream of child process
+     *        
+     * @return new thread
+     * 
+     * @see ProcessBuilder2#stdinSource(StdinSource)
+     */
+    protected WriteOutputStreamThread createWriteOutputStreamThread(
+            OutputStream outputStream, StdinSource source) {
+        WriteOutputStreamThread thread = new WriteOutputStreamThread(outputStream, source);
+        return thread;
+    }
+    
     /**
      * This method:
      * <ol>
@@ -0,0 +1,423 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.NotFullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Runs many child processes with a limit on the number running concurrently.  Use this class
+ * instead of a hand-written loop around {@link ProcessBuilder2#start()} to launch thousands of
+ * short-lived commands.
+ * <p>
+ * Submitted builders wait in a bounded queue.  When the queue is full,
+ * {@link #submit(ProcessBuilder2)} blocks, so a fast producer cannot exhaust memory (backpressure).
+ * A single launcher thread takes builders from the queue and starts child processes while fewer
+ * than {@link #maxConcurrentProcessCount()} are running.  No thread is parked to wait for each
+ * child process: {@link Process2#onExit()} signals completion, which frees a slot for the next
+ * child process.
+ * <p>
+ * Exit values and captured output are accessed via the {@link Process2} result of each future,
+ * e.g., {@link Process2#exitValue()} and {@link Process2#stdoutDataAsByteArr()}.  To capture
+ * output, enable {@link ProcessOutputStreamSettings#isDataAccumulated(boolean)} on the builder.
+ * To keep the thread count flat, also consider
+ * {@link ProcessBuilder2#outputStreamPump(ProcessOutputStreamPump)}.
+ * <p>
+ * Aggregate throughput is available via {@link #stats()}.  Percentiles of wall time are estimated
+ * from a uniform random sample of at most {@value #MAX_WALL_NANOS_SAMPLE_COUNT} completed child
+ * processes (reservoir sampling), so memory use does not grow with the number of child processes.
+ * <p>
+ * The launcher thread is a daemon thread.  Call {@link #shutdown()} to stop it after all queued
+ * builders are started.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessBatchStats
+ */
+@NotFullyTested
+public final class ProcessBatchExecutor {
+    
+    private static final long SHUTDOWN_POLL_MILLIS = 100;
+    
+    /**
+     * Maximum number of wall times kept to estimate percentiles.
+     * 
+     * @see #stats()
+     */
+    public static final int MAX_WALL_NANOS_SAMPLE_COUNT = 4096;
+    
+    private static final AtomicInteger _nextExecutorId = new AtomicInteger(1);
+    
+    private final int _maxConcurrentProcessCount;
+    private final int _maxQueuedProcessCount;
+    private final BlockingQueue<_Task> _queue;
+    private final Semaphore _runningPermits;
+    // Not derived from _runningPermits: The launcher thread holds a permit while it waits.
+    private final AtomicInteger _runningProcessCount;
+    private final Thread _launchThread;
+    private volatile boolean _isShutdown;
+    // Set by the launcher thread before it drains the queue for the last time.
+    private volatile boolean _isLaunchThreadDone;
+    
+    // All stats are guarded by _statsLock.
+    private final Object _statsLock;
+    private long _launchCount;
+    private long _failedLaunchCount;
+    private long _firstLaunchNanos;
+    private long _capturedByteCount;
+    private final long[] _wallNanosSampleArr;
+    private long _maxWallNanos;
+    private long _completedCount;
+    
+    /**
+     * Constructs a new executor and starts its launcher thread.
+     * 
+     * @param maxConcurrentProcessCount
+     *        maximum number of child processes to run concurrently.  Must be positive.
+     * @param maxQueuedProcessCount
+     *        maximum number of builders waiting to start before {@link #submit(ProcessBuilder2)}
+     *        blocks.  Must be positive.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code maxConcurrentProcessCount} or {@code maxQueuedProcessCount} is not
+     *         positive
+     */
+    public ProcessBatchExecutor(int maxConcurrentProcessCount, int maxQueuedProcessCount) {
+        _maxConcurrentProcessCount =
+            IntArgs.checkPositive(maxConcurrentProcessCount, "maxConcurrentProcessCount");
+        _maxQueuedProcessCount =
+            IntArgs.checkPositive(maxQueuedProcessCount, "maxQueuedProcessCount");
+        
+        _queue = new ArrayBlockingQueue<_Task>(maxQueuedProcessCount);
+        _runningPermits = new Semaphore(maxConcurrentProcessCount);
+        _runningProcessCount = new AtomicInteger(0);
+        _isShutdown = false;
+        _isLaunchThreadDone = false;
+        _statsLock = new Object();
+        _launchCount = 0;
+        _failedLaunchCount = 0;
+        _firstLaunchNanos = 0;
+        _capturedByteCount = 0;
+        _wallNanosSampleArr = new long[MAX_WALL_NANOS_SAMPLE_COUNT];
+        _maxWallNanos = 0;
+        _completedCount = 0;
+        
+        _launchThread = new Thread(new Runnable() {
+            
+            @Override
+            public void run() {
+                _runLaunchThread();
+            }
+        });
+        _launchThread.setName(String.format("%s-%d",
+            getClass().getSimpleName(), _nextExecutorId.getAndIncrement()));
+        _launchThread.setDaemon(true);
+        _launchThread.start();
+    }
+    
+    /**
+     * @return maximum number of child processes to run concurrently.  This value never changes.
+     */
+    public int maxConcurrentProcessCount() {
+        return _maxConcurrentProcessCount;
+    }
+    
+    /**
+     * @return maximum number of builders waiting to start.  This value never changes.
+     */
+    public int maxQueuedProcessCount() {
+        return _maxQueuedProcessCount;
+    }
+    
+    /**
+     * @return number of builders waiting to start
+     */
+    public int queuedProcessCount() {
+        return _queue.size();
+    }
+    
+    /**
+     * @return number of child processes started, but not yet completed
+     */
+    public int runningProcessCount() {
+        return _runningProcessCount.get();
+    }
+    
+    /**
+     * Submits a builder to start a new child process.  If the queue is full, this method blocks
+     * until space is available.
+     * <p>
+     * The builder is copied via {@link ProcessBuilder2#ProcessBuilder2(ProcessBuilder2)}, so the
+     * caller may modify or reuse it immediately.
+     * 
+     * @param pb
+     *        builder for new child process
+     * 
+     * @return future to complete after the child process terminates and its output streams are
+     *         drained.  If the child process fails to start, the future completes exceptionally.
+     *         If {@link #shutdown()} is called concurrently, and the launcher thread exits before
+     *         this builder is started, the future completes exceptionally with
+     *         {@link IllegalStateException}.
+     * 
+     * @throws NullPointerException
+     *         if {@code pb} is {@code null}
+     * @throws IllegalStateException
+     *         if {@link #shutdown()} has been called
+     * @throws InterruptedException
+     *         if the current thread is interrupted while waiting for space in the queue
+     * 
+     * @see #submitAll(Iterator)
+     */
+    public CompletableFuture<Process2> submit(ProcessBuilder2 pb)
+    throws InterruptedException {
+        ObjectArgs.checkNotNull(pb, "pb");
+        _checkNotShutdown();
+        
+        _Task task = new _Task(new ProcessBuilder2(pb));
+        _queue.put(task);
+        // Rare: shutdown() was called after the check above, and the launcher thread has drained
+        // the queue for the last time.  If the task was drained, its future is already complete.
+        if (_isLaunchThreadDone && _queue.remove(task)) {
+            _checkNotShutdown();
+        }
+        return task._future;
+    }
+    
+    /**
+     * Calls {@link #submit(ProcessBuilder2)} for each builder.  This method blocks whenever the
+     * queue is full, so builders may be created lazily by the iterator.
+     * 
+     * @param builderIter
+     *        iterator of builders for new child processes
+     * 
+     * @return list of futures in the same order as {@code builderIter}
+     * 
+     * @throws NullPointerException
+     *         if {@code builderIter} is {@code null}, or returns {@code null}
+     * @throws IllegalStateException
+     *         if {@link #shutdown()} has been called
+     * @throws InterruptedException
+     *         if the current thread is interrupted while waiting for space in the queue
+     */
+    public List<CompletableFuture<Process2>> submitAll(
+            Iterator<? extends ProcessBuilder2> builderIter)
+    throws InterruptedException {
+        ObjectArgs.checkNotNull(builderIter, "builderIter");
+        
+        List<CompletableFuture<Process2>> x = new ArrayList<CompletableFuture<Process2>>();
+        while (builderIter.hasNext()) {
+            ProcessBuilder2 pb = builderIter.next();
+            CompletableFuture<Process2> future = submit(pb);
+            x.add(future);
+        }
+        return x;
+    }
+    
+    /**
+     * Stops accepting new builders.  The launcher thread exits after queued builders are started.
+     * Child processes already started are not affected.  This method does not block and may be
+     * called more than once.
+     * 
+     * @see #isShutdown()
+     */
+    public void shutdown() {
+        _isShutdown = true;
+    }
+    
+    /**
+     * @return {@code true} if {@link #shutdown()} has been called
+     */
+    public boolean isShutdown() {
+        return _isShutdown;
+    }
+    
+    private void _checkNotShutdown() {
+        if (_isShutdown) {
+            throw _newShutdownException();
+        }
+    }
+    
+    private static IllegalStateException _newShutdownException() {
+        IllegalStateException x =
+            new IllegalStateException("Failed to submit child process: Executor has been shutdown");
+        return x;
+    }
+    
+    /**
+     * Creates a snapshot of aggregate throughput.  This method sorts a copy of at most
+     * {@link #MAX_WALL_NANOS_SAMPLE_COUNT} wall times.
+     * 
+     * @return new snapshot
+     */
+    public ProcessBatchStats stats() {
+        final long[] wallNanosSampleArr;
+        final int sampleCount;
+        final ProcessBatchStats x;
+        synchronized (_statsLock) {
+            long elapsedNanos = (0 == _launchCount ? 0 : System.nanoTime() - _firstLaunchNanos);
+            sampleCount = (int) Math.min(_completedCount, _wallNanosSampleArr.length);
+            wallNanosSampleArr = ProcessBatchStats.sortedCopy(_wallNanosSampleArr, sampleCount);
+            x = new ProcessBatchStats(
+                _launchCount,
+                _failedLaunchCount,
+                _completedCount,
+                elapsedNanos,
+                _capturedByteCount,
+                wallNanosSampleArr,
+                sampleCount,
+                _maxWallNanos);
+        }
+        return x;
+    }
+    
+    private void _runLaunchThread() {
+        while (true) {
+            _Task task = null;
+            try {
+                _runningPermits.acquire();
+                task = _queue.poll(SHUTDOWN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                // Launcher thread is never interrupted by this class.  Exit politely.
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (null == task) {
+                _runningPermits.release();
+                if (_isShutdown && _queue.isEmpty()) {
+                    _drainAfterShutdown();
+                    return;
+                }
+            }
+            else {
+                _launch(task);
+            }
+        }
+    }
+    
+    /**
+     * Completes exceptionally the future of each builder submitted concurrently with
+     * {@link #shutdown()}.  Any builder enqueued later is removed by
+     * {@link #submit(ProcessBuilder2)}.
+     */
+    private void _drainAfterShutdown() {
+        _isLaunchThreadDone = true;
+        for (_Task task = _queue.poll(); null != task; task = _queue.poll()) {
+            task._future.completeExceptionally(_newShutdownException());
+        }
+    }
+    
+    private void _launch(final _Task task) {
+        final long startNanos = System.nanoTime();
+        final Process2 proc;
+        try {
+            proc = task._builder.start();
+        }
+        catch (Exception e) {
+            synchronized (_statsLock) {
+                ++_failedLaunchCount;
+            }
+            _runningPermits.release();
+            task._future.completeExceptionally(e);
+            return;
+        }
+        synchronized (_statsLock) {
+            if (0 == _launchCount) {
+                _firstLaunchNanos = startNanos;
+            }
+            ++_launchCount;
+        }
+        _runningProcessCount.incrementAndGet();
+        CompletableFuture<Integer> onExitFuture;
+        try {
+            onExitFuture = proc.onExit();
+        }
+        catch (Exception e) {
+            _runningProcessCount.decrementAndGet();
+            _runningPermits.release();
+            task._future.completeExceptionally(e);
+            return;
+        }
+        onExitFuture.whenComplete(new BiConsumer<Integer, Throwable>() {
+            
+            @Override
+            public void accept(Integer exitValue, Throwable optThrowable) {
+                long wallNanos = System.nanoTime() - startNanos;
+                _runningProcessCount.decrementAndGet();
+                _runningPermits.release();
+                _addCompleted(wallNanos, proc.accumulatedDataByteCount());
+                if (null == optThrowable) {
+                    task._future.complete(proc);
+                }
+                else {
+                    task._future.completeExceptionally(optThrowable);
+                }
+            }
+        });
+    }
+    
+    private void _addCompleted(long wallNanos, long capturedByteCount) {
+        synchronized (_statsLock) {
+            // Reservoir sampling (Algorithm R): Each wall time is kept with equal probability.
+            if (_completedCount < _wallNanosSampleArr.length) {
+                _wallNanosSampleArr[(int) _completedCount] = wallNanos;
+            }
+            else {
+                long index = ThreadLocalRandom.current().nextLong(_completedCount + 1);
+                if (index < _wallNanosSampleArr.length) {
+                    _wallNanosSampleArr[(int) index] = wallNanos;
+                }
+            }
+            _maxWallNanos = Math.max(_maxWallNanos, wallNanos);
+            ++_completedCount;
+            _capturedByteCount += capturedByteCount;
+        }
+    }
+    
+    private static final class _Task {
+        
+        private final ProcessBuilder2 _builder;
+        private final CompletableFuture<Process2> _future;
+        
+        private _Task(ProcessBuilder2 builder) {
+            _builder = builder;
+            _future = new CompletableFuture<Process2>();
+        }
+    }
+}
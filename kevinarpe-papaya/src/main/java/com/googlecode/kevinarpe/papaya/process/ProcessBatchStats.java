@@ -0,0 +1,192 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+import java.util.Arrays;
+
+/**
+ * Immutable snapshot of aggregate throughput for a {@link ProcessBatchExecutor}.
+ * <p>
+ * Wall time for a single child process is measured from the call to
+ * {@link ProcessBuilder2#start()} until {@link Process2#onExit()} completes, i.e., the child
+ * process has terminated and its output streams are drained.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessBatchExecutor#stats()
+ */
+@FullyTested
+public final class ProcessBatchStats {
+    
+    private final long _launchCount;
+    private final long _failedLaunchCount;
+    private final long _completedCount;
+    private final long _elapsedNanos;
+    private final long _capturedByteCount;
+    private final long _p50WallNanos;
+    private final long _p99WallNanos;
+    private final long _maxWallNanos;
+    
+    /**
+     * @param sortedWallNanosSampleArr
+     *        sample of wall times for completed child processes, sorted ascending.  Only the first
+     *        {@code sampleCount} elements are used.
+     * @param maxWallNanos
+     *        maximum wall time for all completed child processes, not only the sample
+     */
+    ProcessBatchStats(
+            long launchCount,
+            long failedLaunchCount,
+            long completedCount,
+            long elapsedNanos,
+            long capturedByteCount,
+            long[] sortedWallNanosSampleArr,
+            int sampleCount,
+            long maxWallNanos) {
+        _launchCount = launchCount;
+        _failedLaunchCount = failedLaunchCount;
+        _completedCount = completedCount;
+        _elapsedNanos = elapsedNanos;
+        _capturedByteCount = capturedByteCount;
+        _p50WallNanos = percentile(sortedWallNanosSampleArr, sampleCount, 0.50);
+        _p99WallNanos = percentile(sortedWallNanosSampleArr, sampleCount, 0.99);
+        _maxWallNanos = maxWallNanos;
+    }
+    
+    /**
+     * Nearest-rank percentile.
+     * 
+     * @return zero if {@code count} is zero
+     */
+    static long percentile(long[] sortedArr, int count, double fraction) {
+        if (0 == count) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(fraction * count);
+        long x = sortedArr[Math.max(rank, 1) - 1];
+        return x;
+    }
+    
+    static long[] sortedCopy(long[] arr, int count) {
+        long[] x = Arrays.copyOf(arr, count);
+        Arrays.sort(x);
+        return x;
+    }
+    
+    /**
+     * @return number of child processes started successfully
+     */
+    public long launchCount() {
+        return _launchCount;
+    }
+    
+    /**
+     * @return number of child processes that failed to start, e.g., executable not found
+     */
+    public long failedLaunchCount() {
+        return _failedLaunchCount;
+    }
+    
+    /**
+     * @return number of child processes that have terminated and whose output streams are drained
+     */
+    public long completedCount() {
+        return _completedCount;
+    }
+    
+    /**
+     * @return number of milliseconds since the first child process was started.  Zero if no child
+     *         process has started.
+     */
+    public long elapsedMillis() {
+        return _elapsedNanos / 1000000L;
+    }
+    
+    /**
+     * @return {@link #launchCount()} divided by elapsed seconds.  Zero if no child process has
+     *         started.
+     */
+    public double launchesPerSecond() {
+        double x = (0 == _elapsedNanos ? 0.0 : _launchCount * 1e9 / _elapsedNanos);
+        return x;
+    }
+    
+    /**
+     * @return total number of bytes accumulated from STDOUT and STDERR of completed child
+     *         processes
+     * 
+     * @see ProcessOutputStreamSettings#isDataAccumulated(boolean)
+     */
+    public long capturedByteCount() {
+        return _capturedByteCount;
+    }
+    
+    /**
+     * @return median wall time for completed child processes.  This value is estimated from a
+     *         sample if more than {@link ProcessBatchExecutor#MAX_WALL_NANOS_SAMPLE_COUNT}
+     *         completed.  Zero if none completed.
+     */
+    public double p50WallMillis() {
+        return _p50WallNanos / 1e6;
+    }
+    
+    /**
+     * @return 99th percentile wall time for completed child processes.  This value is estimated
+     *         from a sample if more than {@link ProcessBatchExecutor#MAX_WALL_NANOS_SAMPLE_COUNT}
+     *         completed.  Zero if none completed.
+     */
+    public double p99WallMillis() {
+        return _p99WallNanos / 1e6;
+    }
+    
+    /**
+     * @return maximum wall time for completed child processes.  Zero if none completed.
+     */
+    public double maxWallMillis() {
+        return _maxWallNanos / 1e6;
+    }
+    
+    @Override
+    public String toString() {
+        String x = String.format(
+            "%s [launchCount=%d, failedLaunchCount=%d, completedCount=%d, elapsedMillis=%d"
+            + ", launchesPerSecond=%.1f, p50WallMillis=%.3f, p99WallMillis=%.3f"
+            + ", maxWallMillis=%.3f, capturedByteCount=%d]",
+            getClass().getSimpleName(),
+            _launchCount,
+            _failedLaunchCount,
+            _completedCount,
+            elapsedMillis(),
+            launchesPerSecond(),
+            p50WallMillis(),
+            p99WallMillis(),
+            maxWallMillis(),
+            _capturedByteCount);
+        return x;
+    }
+}
@@ -73,8 +73,16 @@ import com.googlecode.kevinarpe.papaya.argument.PathArgs;
  * <ul>
  *   <li>Set text for STDIN via {@link ProcessBuilder2#stdinText(String)}</li>
  *   <li>Set raw bytes for STDIN via {@link ProcessBuilder2#stdinData(byte[])}</li>
+ *   <li>Stream bytes for STDIN from a file, stream, channel, or chunk supplier via
+ *   {@link ProcessBuilder2#stdinSource(StdinSource)}</li>
  *   <li>Configure STDOUT handling via {@link ProcessBuilder2#stdoutSettings()}</li>
  *   <li>Configure STDERR handling via {@link ProcessBuilder2#stderrSettings()}</li>
+ *   <li>Share a small, fixed number of threads to read STDOUT and STDERR from many child
+ *   processes via {@link ProcessBuilder2#outputStreamPump(ProcessOutputStreamPump)}</li>
+ *   <li>Share a single thread to complete {@link Process2#onExit()} futures and timeouts via
+ *   {@link ProcessBuilder2#exitWatcher(ProcessExitWatcher)}</li>
+ *   <li>Export wall time, I/O counts, CPU time, and peak memory of each child process via
+ *   {@link ProcessBuilder2#metricsListener(ProcessMetricsListener)}</li>
  * </ul>
  * 
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -86,6 +94,10 @@ extends AbstractProcessSettings {
     private final ProcessBuilder _processBuilder;
     private byte[] _optStdinByteArr;
     private String _optStdinText;
+    private StdinSource _optStdinSource;
+    private ProcessOutputStreamPump _optOutputStreamPump;
+    private ProcessExitWatcher _optExitWatcher;
+    private ProcessMetricsListener _optMetricsListener;
     
     /**
      * Forwards to {@link ProcessBuilder#ProcessBuilder(List)}.
@@ -138,6 +150,20 @@ extends AbstractProcessSettings {
         if (null != stdinText) {
             this.stdinText(stdinText);
         }
+        
+        StdinSource optStdinSource = pb.stdinSource();
+        if (null != optStdinSource) {
+            this.stdinSource(optStdinSource);
+        }
+        
+        ProcessOutputStreamPump optPump = pb.outputStreamPump();
+        this.outputStreamPump(optPump);
+        
+        ProcessExitWatcher optExitWatcher = pb.exitWatcher();
+        this.exitWatcher(optExitWatcher);
+        
+        ProcessMetricsListener optMetricsListener = pb.metricsListener();
+        this.metricsListener(optMetricsListener);
     }
 
     /**
@@ -257,7 +283,8 @@ extends AbstractProcessSettings {
     /**
      * Sets array of bytes to write to STDIN stream in new process.
      * <p>
-     * This method clears any text previously set with {@link #stdinText(String)}.
+     * This method clears any text previously set with {@link #stdinText(String)}, and any source
+     * previously set with {@link #stdinSource(StdinSource)}.
      * 
      * @param optByteArr
      * <ul>
@@ -273,6 +300,7 @@ extends AbstractProcessSettings {
      */
     public ProcessBuilder2 stdinData(byte[] optByteArr) {
         _optStdinText = null;
+        _optStdinSource = null;
         if (null == optByteArr || 0 == optByteArr.length) {
             _optStdinByteArr = null;
         }
@@ -287,7 +315,8 @@ extends AbstractProcessSettings {
      * STDIN stream.  Instead, the bytes first are extracted via {@link String#getBytes()}, then
      * written to STDIN stream.
      * <p>
-     * This method clears any bytes previously set with {@link #stdinData(byte[])}.
+     * This method clears any bytes previously set with {@link #stdinData(byte[])}, and any source
+     * previously set with {@link #stdinSource(StdinSource)}.
      * 
      * @param optStr
      * <ul>
@@ -303,6 +332,7 @@ extends AbstractProcessSettings {
      */
     public ProcessBuilder2 stdinText(String optStr) {
         _optStdinByteArr = null;
+        _optStdinSource = null;
         if (null == optStr || optStr.isEmpty()) {
             _optStdinText = null;
         }
@@ -352,6 +382,141 @@ extends AbstractProcessSettings {
         return _optStdinText;
     }
     
+    /**
+     * Sets the optional source of bytes to stream to STDIN stream in new process.  Unlike
+     * {@link #stdinData(byte[])}, bytes are written with a small, fixed-size buffer, so the source
+     * may be much larger than available memory.
+     * <p>
+     * This method clears any bytes previously set with {@link #stdinData(byte[])}, and any text
+     * previously set with {@link #stdinText(String)}.
+     * 
+     * @param optSource
+     *        (optional) source of bytes for STDIN stream.  May be {@code null}.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #stdinSource()
+     * @see StdinSource
+     */
+    public ProcessBuilder2 stdinSource(StdinSource optSource) {
+        _optStdinByteArr = null;
+        _optStdinText = null;
+        _optStdinSource = optSource;
+        return this;
+    }
+    
+    /**
+     * Retrieves the optional source of bytes to stream to STDIN stream in new process.
+     * <p>
+     * If the return value is <b>not</b> {@code null}, the return values of {@link #stdinData()}
+     * and {@link #stdinText()} are guaranteed to be {@code null}.
+     * 
+     * @return may be {@code null}
+     * 
+     * @see #stdinSource(StdinSource)
+     */
+    public StdinSource stdinSource() {
+        return _optStdinSource;
+    }
+    
+    /**
+     * Sets the optional shared pump used to read STDOUT and STDERR streams of new processes.
+     * The initial value is {@code null}.
+     * <p>
+     * By default, each new process spawns one thread to read STDOUT, and (if not redirected)
+     * another to read STDERR.  When many child processes run concurrently, a single pump (with a
+     * small, fixed number of threads) may be shared by many instances of {@link ProcessBuilder2}
+     * to keep the thread count flat.
+     * 
+     * @param optPump
+     *        (optional) shared pump to read child process output streams.  May be {@code null}.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #outputStreamPump()
+     * @see ProcessOutputStreamPump
+     */
+    public ProcessBuilder2 outputStreamPump(ProcessOutputStreamPump optPump) {
+        _optOutputStreamPump = optPump;
+        return this;
+    }
+    
+    /**
+     * Retrieves the optional shared pump used to read STDOUT and STDERR streams of new processes.
+     * 
+     * @return may be {@code null}
+     * 
+     * @see #outputStreamPump(ProcessOutputStreamPump)
+     */
+    public ProcessOutputStreamPump outputStreamPump() {
+        return _optOutputStreamPump;
+    }
+    
+    /**
+     * Sets the optional watcher used to complete {@link Process2#onExit()} futures, timeouts, and
+     * timed waits via {@link Process2#waitFor(long)} for new processes.  The initial value is
+     * {@code null}.
+     * 
+     * @param optExitWatcher
+     *        (optional) shared watcher.  If {@code null}, {@link ProcessExitWatcher#getDefault()}
+     *        is used.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #exitWatcher()
+     * @see ProcessExitWatcher
+     */
+    public ProcessBuilder2 exitWatcher(ProcessExitWatcher optExitWatcher) {
+        _optExitWatcher = optExitWatcher;
+        return this;
+    }
+    
+    /**
+     * Retrieves the optional watcher used to complete {@link Process2#onExit()} futures for new
+     * processes.
+     * 
+     * @return may be {@code null}
+     * 
+     * @see #exitWatcher(ProcessExitWatcher)
+     */
+    public ProcessExitWatcher exitWatcher() {
+        return _optExitWatcher;
+    }
+    
+    /**
+     * Sets the optional listener to receive {@link Process2#metrics()} after each new child
+     * process terminates and its output streams are drained.  The initial value is {@code null}.
+     * <p>
+     * If set, CPU time and peak memory of the child process are also sampled by its
+     * {@link ProcessExitWatcher}: about once per second, and once more when exit is detected.
+     * Peak memory is a high-water mark, so it is exact as of the last sample, but CPU time in the
+     * final snapshot may miss up to about one second before exit.
+     * 
+     * @param optMetricsListener
+     *        (optional) listener called from the {@link ProcessExitWatcher} thread
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #metricsListener()
+     * @see ProcessMetrics
+     */
+    public ProcessBuilder2 metricsListener(ProcessMetricsListener optMetricsListener) {
+        _optMetricsListener = optMetricsListener;
+        return this;
+    }
+    
+    /**
+     * Retrieves the optional listener to receive {@link Process2#metrics()} after each new child
+     * process terminates.
+     * 
+     * @return may be {@code null}
+     * 
+     * @see #metricsListener(ProcessMetricsListener)
+     */
+    public ProcessMetricsListener metricsListener() {
+        return _optMetricsListener;
+    }
+    
     /**
      * Spawns a child process and creates an instance of {@link Process2} to manage and control
      * this new child process.
@@ -367,6 +532,21 @@ extends AbstractProcessSettings {
      * </ul>
      */
     public Process2 start()
+    throws IOException {
+        Process2 x = start(false, false);
+        return x;
+    }
+    
+    /**
+     * @param isStdoutReadByCaller
+     *        if {@code true}, STDOUT is read by the caller, e.g., the next stage of a
+     *        {@link ProcessPipeline}
+     * @param isStdinWrittenByCaller
+     *        if {@code true}, STDIN is written by the caller, e.g., {@link ProcessWorkerPool}
+     * 
+     * @see #start()
+     */
+    Process2 start(boolean isStdoutReadByCaller, boolean isStdinWrittenByCaller)
     throws IOException {
         List<String> command = this.command();
         try {
@@ -395,7 +575,7 @@ extends AbstractProcessSettings {
             String s = String.format("Failed to start command: %s", argListToString(argList));
             throw new IOException(s, e);
         }
-        Process2 p2 = new Process2(this, p);
+        Process2 p2 = new Process2(this, p, isStdoutReadByCaller, isStdinWrittenByCaller);
         return p2;
     }
     
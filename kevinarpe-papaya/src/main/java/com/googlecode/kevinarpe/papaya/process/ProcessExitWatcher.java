@@ -0,0 +1,329 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.NotFullyTested;
+import com.googlecode.kevinarpe.papaya.argument.LongArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Shared scheduler to complete {@link Process2#onExit()} futures and their timeouts with a single
+ * thread.  Before this class, each call to {@link Process2#waitFor(long)} spawned a new
+ * {@link WaitForProcessThread}.  With thousands of child processes in flight, the parent process
+ * would park one thread per wait.
+ * <p>
+ * Java 8 does not offer {@code Process.onExit()}, so the single watcher thread polls
+ * {@link Process#isAlive()} for all watched child processes every {@link #pollMillis()}
+ * milliseconds.  When a child process has terminated, and its STDOUT and STDERR streams are
+ * drained, its future is completed from the watcher thread.  Timeouts are scheduled on the same
+ * thread.
+ * <p>
+ * Dependent stages (via {@link CompletableFuture#thenApply(java.util.function.Function)}, etc.)
+ * are run on the watcher thread unless an async variant is used.  Long-running dependent stages
+ * should use an async variant, else they delay all other child processes.
+ * <p>
+ * The watcher thread is a daemon thread.  Normally, there is no need to create instances of this
+ * class.  Unless set via {@link ProcessBuilder2#exitWatcher(ProcessExitWatcher)}, the shared
+ * instance from {@link #getDefault()} is used.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see Process2#onExit()
+ * @see Process2#onExit(long)
+ * @see ProcessBuilder2#exitWatcher(ProcessExitWatcher)
+ */
+@NotFullyTested
+public final class ProcessExitWatcher {
+    
+    /**
+     * Default value for {@link #pollMillis()}.
+     */
+    public static final long DEFAULT_POLL_MILLIS = 10;
+    
+    private static final AtomicInteger _nextWatcherId = new AtomicInteger(1);
+    
+    private static final class _DefaultHolder {
+        
+        private static final ProcessExitWatcher INSTANCE = new ProcessExitWatcher();
+    }
+    
+    /**
+     * Retrieves the shared instance used by {@link Process2} when
+     * {@link ProcessBuilder2#exitWatcher()} is {@code null}.  The instance is created on first
+     * call.
+     */
+    public static ProcessExitWatcher getDefault() {
+        return _DefaultHolder.INSTANCE;
+    }
+    
+    private final long _pollMillis;
+    private final ScheduledExecutorService _executor;
+    private final ConcurrentLinkedQueue<_Watch> _watchQueue;
+    private final AtomicInteger _watchedProcessCount;
+    private volatile boolean _isShutdown;
+    
+    /**
+     * This is a convenience constructor to call {@link #ProcessExitWatcher(long)} where
+     * {@code pollMillis} is {@link #DEFAULT_POLL_MILLIS}.
+     */
+    public ProcessExitWatcher() {
+        this(DEFAULT_POLL_MILLIS);
+    }
+    
+    /**
+     * Constructs a new watcher and starts its thread.
+     * 
+     * @param pollMillis
+     *        number of milliseconds between polls of watched child processes.  Lower values
+     *        reduce latency to complete futures, but increase CPU usage.  Must be positive.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code pollMillis} is not positive
+     */
+    public ProcessExitWatcher(long pollMillis) {
+        _pollMillis = LongArgs.checkPositive(pollMillis, "pollMillis");
+        
+        final String threadName = String.format("%s-%d",
+            getClass().getSimpleName(), _nextWatcherId.getAndIncrement());
+        ScheduledThreadPoolExecutor executor =
+            new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                
+                @Override
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        // Else, cancelled timeouts are only removed when their delay expires.
+        executor.setRemoveOnCancelPolicy(true);
+        _executor = executor;
+        _watchQueue = new ConcurrentLinkedQueue<_Watch>();
+        _watchedProcessCount = new AtomicInteger(0);
+        _isShutdown = false;
+        
+        _executor.scheduleWithFixedDelay(new Runnable() {
+            
+            @Override
+            public void run() {
+                _poll();
+            }
+        }, _pollMillis, _pollMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    /**
+     * @return number of milliseconds between polls of watched child processes
+     */
+    public long pollMillis() {
+        return _pollMillis;
+    }
+    
+    /**
+     * @return number of child processes currently watched, and not yet completed
+     */
+    public int watchedProcessCount() {
+        return _watchedProcessCount.get();
+    }
+    
+    /**
+     * Stops the watcher thread.  All futures not yet completed are completed exceptionally with
+     * {@link IllegalStateException}.  This method may be called more than once.
+     * <p>
+     * The instance from {@link #getDefault()} should never be shutdown.
+     * 
+     * @see #isShutdown()
+     */
+    public void shutdown() {
+        _isShutdown = true;
+        _executor.shutdownNow();
+        IllegalStateException e = new IllegalStateException("Watcher has been shutdown");
+        for (_Watch watch; null != (watch = _watchQueue.poll()); ) {
+            _watchedProcessCount.decrementAndGet();
+            watch._exitFuture.completeExceptionally(e);
+            watch._onExitFuture.completeExceptionally(e);
+        }
+    }
+    
+    /**
+     * @return {@code true} if {@link #shutdown()} has been called
+     */
+    public boolean isShutdown() {
+        return _isShutdown;
+    }
+    
+    /**
+     * Creates a new future that completes with the same result as {@code future}, or completes
+     * exceptionally with {@link TimeoutException} if {@code future} is not completed within
+     * {@code timeoutMillis} milliseconds.  The timeout is scheduled on the watcher thread, and
+     * cancelled when {@code future} completes.
+     * <p>
+     * Completing or cancelling the result does not affect {@code future}.
+     * 
+     * @param future
+     *        future to wait for
+     * @param timeoutMillis
+     *        maximum number of milliseconds to wait.  Must be positive.
+     * 
+     * @return new future
+     * 
+     * @throws NullPointerException
+     *         if {@code future} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code timeoutMillis} is not positive
+     * @throws IllegalStateException
+     *         if {@link #shutdown()} has been called
+     */
+    public <T> CompletableFuture<T> withTimeout(
+            CompletableFuture<T> future, final long timeoutMillis) {
+        ObjectArgs.checkNotNull(future, "future");
+        LongArgs.checkPositive(timeoutMillis, "timeoutMillis");
+        _checkNotShutdown();
+        
+        final CompletableFuture<T> x = new CompletableFuture<T>();
+        final ScheduledFuture<?> timeout = _executor.schedule(new Runnable() {
+            
+            @Override
+            public void run() {
+                x.completeExceptionally(new TimeoutException(String.format(
+                    "Timed out after %d milliseconds", timeoutMillis)));
+            }
+        }, timeoutMillis, TimeUnit.MILLISECONDS);
+        future.whenComplete(new BiConsumer<T, Throwable>() {
+            
+            @Override
+            public void accept(T result, Throwable optThrowable) {
+                timeout.cancel(false);
+                if (null == optThrowable) {
+                    x.complete(result);
+                }
+                else {
+                    x.completeExceptionally(optThrowable);
+                }
+            }
+        });
+        return x;
+    }
+    
+    private void _checkNotShutdown() {
+        if (_isShutdown) {
+            throw new IllegalStateException("Watcher has been shutdown");
+        }
+    }
+    
+    /**
+     * Watches a child process.  After the child process terminates, {@code exitFuture} is
+     * completed with its exit value.  After STDIN, STDOUT, and STDERR streams are also finished,
+     * {@code onExitFuture} is completed with the same exit value.
+     * 
+     * @throws IllegalStateException
+     *         if {@link #shutdown()} has been called
+     */
+    void watch(
+            Process2 process,
+            CompletableFuture<Integer> exitFuture,
+            CompletableFuture<Integer> onExitFuture) {
+        ObjectArgs.checkNotNull(process, "process");
+        ObjectArgs.checkNotNull(exitFuture, "exitFuture");
+        ObjectArgs.checkNotNull(onExitFuture, "onExitFuture");
+        _checkNotShutdown();
+        
+        _watchedProcessCount.incrementAndGet();
+        _watchQueue.add(new _Watch(process, exitFuture, onExitFuture));
+    }
+    
+    private void _poll() {
+        Iterator<_Watch> iter = _watchQueue.iterator();
+        while (iter.hasNext()) {
+            _Watch watch = iter.next();
+            boolean isDone = false;
+            try {
+                isDone = watch.poll();
+            }
+            catch (Exception e) {
+                watch._exitFuture.completeExceptionally(e);
+                watch._onExitFuture.completeExceptionally(e);
+                isDone = true;
+            }
+            if (isDone) {
+                iter.remove();
+                _watchedProcessCount.decrementAndGet();
+            }
+        }
+    }
+    
+    private static final class _Watch {
+        
+        private final Process2 _process;
+        private final CompletableFuture<Integer> _exitFuture;
+        private final CompletableFuture<Integer> _onExitFuture;
+        
+        private _Watch(
+                Process2 process,
+                CompletableFuture<Integer> exitFuture,
+                CompletableFuture<Integer> onExitFuture) {
+            _process = process;
+            _exitFuture = exitFuture;
+            _onExitFuture = onExitFuture;
+        }
+        
+        /**
+         * @return {@code true} if both futures are completed
+         */
+        private boolean poll() {
+            if (!_exitFuture.isDone()) {
+                if (_process._process.isAlive()) {
+                    if (_process.isMetricsSampled()) {
+                        _process.sampleProcStatsIfDue(System.nanoTime());
+                    }
+                    return false;
+                }
+                if (_process.isMetricsSampled()) {
+                    // Final sample.  If the child process is already reaped, this is a no-op.
+                    _process.sampleProcStats();
+                }
+                _process.markExited();
+                _exitFuture.complete(_process._process.exitValue());
+            }
+            if (!_process.isFinished()) {
+                return false;
+            }
+            _onExitFuture.complete(_exitFuture.join());
+            return true;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+
+/**
+ * Immutable snapshot of resource usage for a single child process.  Retrieve via
+ * {@link Process2#metrics()}, or receive a final snapshot after the child process terminates via
+ * {@link ProcessBuilder2#metricsListener(ProcessMetricsListener)}.
+ * <p>
+ * I/O counts are exact.  CPU time and peak memory are sampled from {@code /proc/<pid>} on Linux
+ * while the child process is running.  After the child process terminates, its {@code /proc}
+ * entry is removed, so the last sample is kept.  On other platforms, or if no sample was taken,
+ * these values are -1.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see Process2#metrics()
+ * @see ProcessMetricsListener
+ */
+@FullyTested
+public final class ProcessMetrics {
+    
+    private final long _pid;
+    private final boolean _hasExited;
+    private final long _wallNanos;
+    private final long _stdinByteCount;
+    private final long _stdoutByteCount;
+    private final long _stdoutReadCallCount;
+    private final long _stderrByteCount;
+    private final long _stderrReadCallCount;
+    private final long _cpuUserMillis;
+    private final long _cpuSystemMillis;
+    private final long _peakRssByteCount;
+    
+    ProcessMetrics(
+            long pid,
+            boolean hasExited,
+            long wallNanos,
+            long stdinByteCount,
+            long stdoutByteCount,
+            long stdoutReadCallCount,
+            long stderrByteCount,
+            long stderrReadCallCount,
+            LinuxProcStats optProcStats) {
+        _pid = pid;
+        _hasExited = hasExited;
+        _wallNanos = wallNanos;
+        _stdinByteCount = stdinByteCount;
+        _stdoutByteCount = stdoutByteCount;
+        _stdoutReadCallCount = stdoutReadCallCount;
+        _stderrByteCount = stderrByteCount;
+        _stderrReadCallCount = stderrReadCallCount;
+        _cpuUserMillis = (null == optProcStats ? -1 : optProcStats._cpuUserMillis);
+        _cpuSystemMillis = (null == optProcStats ? -1 : optProcStats._cpuSystemMillis);
+        _peakRssByteCount = (null == optProcStats ? -1 : optProcStats._peakRssByteCount);
+    }
+    
+    /**
+     * @return operating system process ID, or -1 if unavailable
+     */
+    public long pid() {
+        return _pid;
+    }
+    
+    /**
+     * @return {@code true} if the child process had terminated when this snapshot was taken
+     */
+    public boolean hasExited() {
+        return _hasExited;
+    }
+    
+    /**
+     * @return number of milliseconds from start until the child process terminated.  If
+     *         {@link #hasExited()} is {@code false}, number of milliseconds from start until this
+     *         snapshot was taken.
+     */
+    public double wallMillis() {
+        return _wallNanos / 1e6;
+    }
+    
+    /**
+     * @return number of bytes written to STDIN.  Updated after each chunk is written.
+     * 
+     * @see WriteOutputStreamThread#getWrittenByteCount()
+     */
+    public long stdinByteCount() {
+        return _stdinByteCount;
+    }
+    
+    /**
+     * @return number of bytes read from STDOUT, including bytes that were not accumulated
+     * 
+     * @see ReadInputStreamThread#getReadByteCount()
+     */
+    public long stdoutByteCount() {
+        return _stdoutByteCount;
+    }
+    
+    /**
+     * @return number of blocks of bytes read from STDOUT
+     * 
+     * @see ReadInputStreamThread#getReadCallCount()
+     */
+    public long stdoutReadCallCount() {
+        return _stdoutReadCallCount;
+    }
+    
+    /**
+     * @return number of bytes read from STDERR.  Zero if STDERR is redirected to STDOUT.
+     * 
+     * @see ReadInputStreamThread#getReadByteCount()
+     */
+    public long stderrByteCount() {
+        return _stderrByteCount;
+    }
+    
+    /**
+     * @return number of blocks of bytes read from STDERR.  Zero if STDERR is redirected to
+     *         STDOUT.
+     * 
+     * @see ReadInputStreamThread#getReadCallCount()
+     */
+    public long stderrReadCallCount() {
+        return _stderrReadCallCount;
+    }
+    
+    /**
+     * @return number of milliseconds of CPU time in user mode, or -1 if unavailable
+     */
+    public long cpuUserMillis() {
+        return _cpuUserMillis;
+    }
+    
+    /**
+     * @return number of milliseconds of CPU time in kernel mode, or -1 if unavailable
+     */
+    public long cpuSystemMillis() {
+        return _cpuSystemMillis;
+    }
+    
+    /**
+     * @return peak resident set size (physical memory) in bytes, or -1 if unavailable
+     */
+    public long peakRssByteCount() {
+        return _peakRssByteCount;
+    }
+    
+    @Override
+    public String toString() {
+        String x = String.format(
+            "%s [pid=%d, hasExited=%s, wallMillis=%.3f, stdinByteCount=%d, stdoutByteCount=%d"
+            + ", stdoutReadCallCount=%d, stderrByteCount=%d, stderrReadCallCount=%d"
+            + ", cpuUserMillis=%d, cpuSystemMillis=%d, peakRssByteCount=%d]",
+            getClass().getSimpleName(),
+            _pid,
+            _hasExited,
+            wallMillis(),
+            _stdinByteCount,
+            _stdoutByteCount,
+            _stdoutReadCallCount,
+            _stderrByteCount,
+            _stderrReadCallCount,
+            _cpuUserMillis,
+            _cpuSystemMillis,
+            _peakRssByteCount);
+        return x;
+    }
+}
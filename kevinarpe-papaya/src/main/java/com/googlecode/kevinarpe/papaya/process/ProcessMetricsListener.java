@@ -0,0 +1,48 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+/**
+ * Receives a final {@link ProcessMetrics} snapshot after a child process terminates.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessBuilder2#metricsListener(ProcessMetricsListener)
+ */
+public interface ProcessMetricsListener {
+    
+    /**
+     * Called once after the child process terminates, and its STDIN, STDOUT, and STDERR streams
+     * are finished.  This method is called from the {@link ProcessExitWatcher} thread, so it must
+     * not block.  Exceptions thrown by this method are ignored.
+     * 
+     * @param process
+     *        terminated child process
+     * @param metrics
+     *        final snapshot of metrics for {@code process}
+     */
+    void onExit(Process2 process, ProcessMetrics metrics);
+}
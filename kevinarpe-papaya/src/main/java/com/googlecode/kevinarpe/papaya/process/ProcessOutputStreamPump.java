@@ -0,0 +1,338 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.NotFullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.LongArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared engine to drain STDOUT and STDERR streams from many child processes with a small, fixed
+ * number of threads.  By default, each {@link Process2} starts one {@link ReadInputStreamThread}
+ * per output stream.  With hundreds of child processes in flight, the parent process may exhaust
+ * threads long before it exhausts CPU.  When a pump is set via
+ * {@link ProcessBuilder2#outputStreamPump(ProcessOutputStreamPump)}, the thread count stays flat,
+ * no matter how many child processes are running.
+ * <p>
+ * The JDK does not expose child process pipes as selectable channels, so readiness is polled via
+ * {@link InputStream#available()}.  Each pump thread takes the next ready stream, reads all bytes
+ * available without blocking, then reschedules the stream.  Streams without new data are polled
+ * less and less frequently, up to {@link #maxIdleWaitMillis()}.  Bytes are forwarded to the same
+ * {@link ProcessOutputStreamSettings} callbacks, and accumulated in the same manner, as the
+ * thread-per-stream implementation.
+ * <p>
+ * After the child process terminates, the final read of each stream may block if a grandchild
+ * process inherited the pipe and holds it open.  In this rare case, one pump thread is occupied
+ * until the grandchild closes the pipe.
+ * <p>
+ * Data written to STDIN (via {@link ProcessBuilder2#stdinData(byte[])} or
+ * {@link ProcessBuilder2#stdinText(String)}) is not affected by this class.  Pipe writes may block,
+ * so a separate thread is still used.
+ * <p>
+ * Pump threads are daemon threads.  Call {@link #shutdown()} to stop them after all registered
+ * streams are drained.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessBuilder2#outputStreamPump(ProcessOutputStreamPump)
+ */
+@NotFullyTested
+public final class ProcessOutputStreamPump {
+    
+    /**
+     * Default value for {@link #maxIdleWaitMillis()}.
+     */
+    public static final long DEFAULT_MAX_IDLE_WAIT_MILLIS = 10;
+    
+    private static final int BUFFER_BYTE_COUNT = 8192;
+    // Read at most this many bytes from a single stream before moving to the next stream.
+    // This prevents a single chatty child process from starving all others.
+    private static final int MAX_BYTE_COUNT_PER_TURN = 16 * BUFFER_BYTE_COUNT;
+    private static final long SHUTDOWN_POLL_MILLIS = 100;
+    
+    private static final AtomicInteger _nextPumpId = new AtomicInteger(1);
+    
+    private final long _maxIdleWaitMillis;
+    private final DelayQueue<Registration> _queue;
+    private final AtomicInteger _registeredStreamCount;
+    private final List<Thread> _threadList;
+    private volatile boolean _isShutdown;
+    
+    /**
+     * This is a convenience constructor to call {@link #ProcessOutputStreamPump(int, long)} where
+     * {@code maxIdleWaitMillis} is {@link #DEFAULT_MAX_IDLE_WAIT_MILLIS}.
+     */
+    public ProcessOutputStreamPump(int threadCount) {
+        this(threadCount, DEFAULT_MAX_IDLE_WAIT_MILLIS);
+    }
+    
+    /**
+     * Constructs a new pump and starts all of its threads.
+     * 
+     * @param threadCount
+     *        number of shared threads to drain child process output streams.  Must be positive.
+     * @param maxIdleWaitMillis
+     *        maximum number of milliseconds between polls for a stream without new data.  Lower
+     *        values reduce latency for callbacks, but increase CPU usage.  Must be positive.
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code threadCount} or {@code maxIdleWaitMillis} is not positive
+     */
+    public ProcessOutputStreamPump(int threadCount, long maxIdleWaitMillis) {
+        IntArgs.checkPositive(threadCount, "threadCount");
+        _maxIdleWaitMillis = LongArgs.checkPositive(maxIdleWaitMillis, "maxIdleWaitMillis");
+        
+        _queue = new DelayQueue<Registration>();
+        _registeredStreamCount = new AtomicInteger(0);
+        _isShutdown = false;
+        
+        int pumpId = _nextPumpId.getAndIncrement();
+        List<Thread> threadList = new ArrayList<Thread>(threadCount);
+        for (int i = 0; i < threadCount; ++i) {
+            Thread thread = new Thread(new Runnable() {
+                
+                @Override
+                public void run() {
+                    _runPumpThread();
+                }
+            });
+            thread.setName(String.format("%s-%d: thread %d of %d",
+                getClass().getSimpleName(), pumpId, 1 + i, threadCount));
+            thread.setDaemon(true);
+            threadList.add(thread);
+        }
+        _threadList = Collections.unmodifiableList(threadList);
+        for (Thread thread : _threadList) {
+            thread.start();
+        }
+    }
+    
+    /**
+     * @return number of shared threads used by this pump.  This value never changes.
+     */
+    public int threadCount() {
+        return _threadList.size();
+    }
+    
+    /**
+     * @return maximum number of milliseconds between polls for a stream without new data
+     */
+    public long maxIdleWaitMillis() {
+        return _maxIdleWaitMillis;
+    }
+    
+    /**
+     * @return number of child process output streams currently registered, and not yet drained
+     */
+    public int registeredStreamCount() {
+        return _registeredStreamCount.get();
+    }
+    
+    /**
+     * Stops accepting new streams.  All threads exit after registered streams are drained.
+     * This method does not block and may be called more than once.
+     * 
+     * @see #isShutdown()
+     */
+    public void shutdown() {
+        _isShutdown = true;
+    }
+    
+    /**
+     * @return {@code true} if {@link #shutdown()} has been called
+     */
+    public boolean isShutdown() {
+        return _isShutdown;
+    }
+    
+    /**
+     * Registers a child process output stream.  From this point, all bytes read from
+     * {@code inputStream} are passed to {@code reader}.  The thread {@code reader} is never
+     * started.
+     * 
+     * @throws IllegalStateException
+     *         if {@link #shutdown()} has been called
+     */
+    Registration register(Process process, InputStream inputStream, ReadInputStreamThread reader) {
+        ObjectArgs.checkNotNull(process, "process");
+        ObjectArgs.checkNotNull(inputStream, "inputStream");
+        ObjectArgs.checkNotNull(reader, "reader");
+        if (_isShutdown) {
+            throw new IllegalStateException(
+                "Failed to register child process stream: Pump has been shutdown");
+        }
+        
+        Registration x = new Registration(process, inputStream, reader);
+        _registeredStreamCount.incrementAndGet();
+        _queue.add(x);
+        return x;
+    }
+    
+    private void _runPumpThread() {
+        byte[] buffer = new byte[BUFFER_BYTE_COUNT];
+        while (!(_isShutdown && 0 == _registeredStreamCount.get())) {
+            Registration x = null;
+            try {
+                x = _queue.poll(SHUTDOWN_POLL_MILLIS, TimeUnit.MILLISECONDS);
+            }
+            catch (InterruptedException e) {
+                // Pump threads are never interrupted by this class.  Exit politely.
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (null == x) {
+                continue;
+            }
+            boolean isDone = x.pump(buffer, _maxIdleWaitMillis);
+            if (isDone) {
+                _registeredStreamCount.decrementAndGet();
+                x._doneLatch.countDown();
+            }
+            else {
+                _queue.add(x);
+            }
+        }
+    }
+    
+    /**
+     * Tracks a single child process output stream registered with a pump.
+     * 
+     * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+     */
+    static final class Registration
+    implements Delayed {
+        
+        private final Process _process;
+        private final InputStream _inputStream;
+        private final ReadInputStreamThread _reader;
+        private final CountDownLatch _doneLatch;
+        private int _idleCount;
+        private long _readyNanos;
+        
+        private Registration(Process process, InputStream inputStream, ReadInputStreamThread reader) {
+            _process = process;
+            _inputStream = inputStream;
+            _reader = reader;
+            _doneLatch = new CountDownLatch(1);
+            _idleCount = 0;
+            _readyNanos = System.nanoTime();
+        }
+        
+        /**
+         * Reads all bytes available without blocking.
+         * 
+         * @return {@code true} if end of stream is reached, or an exception was thrown, including
+         *         exceptions thrown by callbacks
+         */
+        private boolean pump(byte[] buffer, long maxIdleWaitMillis) {
+            int totalReadCount = 0;
+            try {
+                while (totalReadCount < MAX_BYTE_COUNT_PER_TURN) {
+                    int availableCount = _inputStream.available();
+                    int readCount = 0;
+                    if (availableCount > 0) {
+                        readCount =
+                            _inputStream.read(buffer, 0, Math.min(availableCount, buffer.length));
+                    }
+                    else if (!_process.isAlive()) {
+                        // The child process has terminated, so this read will only block if a
+                        // grandchild process inherited the pipe.
+                        readCount = _inputStream.read(buffer);
+                    }
+                    else {
+                        break;
+                    }
+                    if (-1 == readCount) {
+                        _reader.processEndOfStream();
+                        return true;
+                    }
+                    _reader.processData(buffer, readCount);
+                    totalReadCount += readCount;
+                }
+            }
+            // Also catch exceptions thrown by callbacks, e.g., a char callback, so this shared pump
+            // thread survives, and waiting threads are released.  This matches ReadInputStreamThread,
+            // where AbstractThreadWithException.run() catches all exceptions.
+            catch (Exception e) {
+                _reader.setPumpException(e);
+                return true;
+            }
+            if (totalReadCount > 0) {
+                _idleCount = 0;
+                _readyNanos = System.nanoTime();
+            }
+            else {
+                // Back-off: 1, 2, 4, 8, ... milliseconds, up to the max
+                long waitMillis = Math.min(1L << Math.min(_idleCount, 30), maxIdleWaitMillis);
+                ++_idleCount;
+                _readyNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMillis);
+            }
+            return false;
+        }
+        
+        /**
+         * @return {@code true} if the end of stream is reached (or an exception was thrown), and
+         *         all bytes were passed to the reader
+         */
+        boolean isDone() {
+            boolean x = (0 == _doneLatch.getCount());
+            return x;
+        }
+        
+        /**
+         * Waits indefinitely until {@link #isDone()}.
+         */
+        void await()
+        throws InterruptedException {
+            _doneLatch.await();
+        }
+        
+        @Override
+        public long getDelay(TimeUnit unit) {
+            long x = unit.convert(_readyNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+            return x;
+        }
+        
+        @Override
+        public int compareTo(Delayed other) {
+            long otherDelayNanos = other.getDelay(TimeUnit.NANOSECONDS);
+            long delayNanos = getDelay(TimeUnit.NANOSECONDS);
+            int x = Long.compare(delayNanos, otherDelayNanos);
+            return x;
+        }
+    }
+}
@@ -26,7 +26,6 @@ package com.googlecode.kevinarpe.papaya.process;
  */
 
 import com.google.common.base.Objects;
-import com.google.common.base.Splitter;
 import com.googlecode.kevinarpe.papaya.FuncUtils;
 import com.googlecode.kevinarpe.papaya.StringUtils;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
@@ -35,9 +34,12 @@ import com.googlecode.kevinarpe.papaya.appendable.AppendablePrintLineWithPrefix;
 import com.googlecode.kevinarpe.papaya.appendable.ByteAppendable;
 import com.googlecode.kevinarpe.papaya.argument.IntArgs;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+import com.googlecode.kevinarpe.papaya.container.ByteArraySpillableBuilder;
 
 import java.io.BufferedWriter;
+import java.io.File;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.regex.Pattern;
 
@@ -62,6 +64,8 @@ public class ProcessOutputStreamSettings {
     static final FuncUtils.Func0<ByteAppendable> DEFAULT_BYTE_CALLBACK_FACTORY = null;
     static final boolean DEFAULT_IS_DATA_ACCUMULATED = false;
     static final int DEFAULT_MAX_ACCUMULATED_DATA_BYTE_COUNT = -1;
+    static final int DEFAULT_SPILL_TO_DISK_THRESHOLD_BYTE_COUNT = -1;
+    static final File DEFAULT_SPILL_DIRECTORY = null;
     
     private Charset _charset;
     private Pattern _optSplitRegex;
@@ -71,6 +75,8 @@ public class ProcessOutputStreamSettings {
     private FuncUtils.Func0<ByteAppendable> _optByteCallbackFactory;
     private boolean _isDataAccumulated;
     private int _maxAccumulatedDataByteCount;
+    private int _spillToDiskThresholdByteCount;
+    private File _optSpillDirectory;
 
     ProcessOutputStreamSettings() {
         _charset = DEFAULT_CHARSET;
@@ -81,6 +87,8 @@ public class ProcessOutputStreamSettings {
         _optByteCallbackFactory = DEFAULT_BYTE_CALLBACK_FACTORY;
         _isDataAccumulated = DEFAULT_IS_DATA_ACCUMULATED;
         _maxAccumulatedDataByteCount = DEFAULT_MAX_ACCUMULATED_DATA_BYTE_COUNT;
+        _spillToDiskThresholdByteCount = DEFAULT_SPILL_TO_DISK_THRESHOLD_BYTE_COUNT;
+        _optSpillDirectory = DEFAULT_SPILL_DIRECTORY;
     }
     
     /**
@@ -97,6 +105,8 @@ public class ProcessOutputStreamSettings {
         this._optByteCallbackFactory = x._optByteCallbackFactory;
         this._isDataAccumulated = x._isDataAccumulated;
         this._maxAccumulatedDataByteCount = x._maxAccumulatedDataByteCount;
+        this._spillToDiskThresholdByteCount = x._spillToDiskThresholdByteCount;
+        this._optSpillDirectory = x._optSpillDirectory;
     }
     
     /**
@@ -141,12 +151,17 @@ public class ProcessOutputStreamSettings {
      * is {@link StringUtils#NEW_LINE_REGEX}.
      * <p>
      * If this feature is enabled and a character-based callback is set, as bytes are read from
-     * the child process stream handle, they are converted to {@link String} using
-     * {@link Charset} from {@link #charset()}.  Then, the resulting {@code String} is then
-     * split using this regular expression using {@link Splitter}.  Important note: The text
-     * matched by the regular expression is discarded!  Remaining characters are saved between
-     * stream reads until the regular expression matches.  When the child process terminates,
-     * all remaining characters are written to the character-based callback.
+     * the child process stream handle, they are decoded using {@link Charset} from
+     * {@link #charset()}.  Then, the resulting characters are split using this regular
+     * expression.  Important note: The text matched by the regular expression is discarded!
+     * Remaining characters are saved between stream reads until the regular expression matches.
+     * If a match touches the end of the characters read so far, e.g., {@code "\r"} when the next
+     * read may begin with {@code "\n"}, the match is deferred until the next read.  When the child
+     * process terminates, all remaining characters are written to the character-based callback.
+     * <p>
+     * Splitting is incremental: Decoded characters and split parts are not copied to new
+     * instances of {@link String}.  Each part is passed to the callback as a {@link CharSequence}
+     * view of an internal buffer.
      * <p>
      * If the description above confuses, follow this example:
      * <ul>
@@ -276,6 +291,11 @@ public class ProcessOutputStreamSettings {
      * All calls to this method, which do not throw exceptions, clear previous settings to
      * {@link #charCallbackFactory(FuncUtils.Func0)}.
      * <p>
+     * The {@link CharSequence} passed to {@link Appendable#append(CharSequence)} is a view of an
+     * internal buffer, and is only valid during the call.  To retain the text, copy it, e.g., via
+     * {@link CharSequence#toString()}.  Classes such as {@link StringBuffer} and {@link Writer}
+     * always copy.
+     * <p>
      * To capture child process output and write to a file, consider using a {@link BufferedWriter}
      * that wraps a {@link OutputStreamWriter}.  This allows for full control over {@link Charset},
      * with buffering for more efficient I/O.
@@ -500,10 +520,10 @@ public class ProcessOutputStreamSettings {
      * to enable or disable this feature.
      * <p>
      * If this feature is enabled, it is crucial to also set
-     * {@link #maxAccumulatedDataByteCount(int)}.  By default, an unlimited amount of data is
-     * accumulated.  If a large number of processes are launched simultaneously and each
-     * outputs a large amount of data on STDOUT or STDERR, the parent Java Virtual Machine may
-     * easily exhaust available memory.
+     * {@link #maxAccumulatedDataByteCount(int)} or {@link #spillToDiskThresholdByteCount(int)}.
+     * By default, an unlimited amount of data is accumulated in memory.  If a large number of
+     * processes are launched simultaneously and each outputs a large amount of data on STDOUT or
+     * STDERR, the parent Java Virtual Machine may easily exhaust available memory.
      * <p>
      * If this feature is enabled, call one of these methods to access the accumulated data
      * while the child process is running or after it has terminated:
@@ -533,6 +553,7 @@ public class ProcessOutputStreamSettings {
      *
      * @see #isDataAccumulated()
      * @see #maxAccumulatedDataByteCount(int)
+     * @see #spillToDiskThresholdByteCount(int)
      * @see Process2#stdoutDataAsByteArr()
      * @see Process2#stdoutDataAsString()
      * @see Process2#stdoutDataAsString(Charset)
@@ -560,6 +581,9 @@ public class ProcessOutputStreamSettings {
      * It is very important to configure this feature in parallel with
      * {@link #isDataAccumulated()}.  It is easy for a errant process to produce gigabytes of data
      * on STDOUT or STDERR and exhaust all available memory for the parent Java virtual machine.
+     * <p>
+     * Data beyond the maximum is discarded.  To keep all data without exhausting memory, instead
+     * use {@link #spillToDiskThresholdByteCount(int)}.
      * 
      * @param max
      *        any value except zero.  Negative value implies this feature is disabled.
@@ -589,6 +613,82 @@ public class ProcessOutputStreamSettings {
         return _maxAccumulatedDataByteCount;
     }
     
+    /**
+     * Sets the maximum number of bytes to accumulate in memory from this stream (either STDOUT or
+     * STDERR) before all accumulated data is moved to a temporary file.  Afterwards, incoming data
+     * is appended directly to the file, and heap used for this stream remains constant.  This
+     * feature is only relevant if {@link #isDataAccumulated()} is enabled.
+     * <p>
+     * Unlike {@link #maxAccumulatedDataByteCount(int)}, no data is discarded.  (If both features
+     * are enabled, data beyond {@link #maxAccumulatedDataByteCount()} is still discarded.)
+     * Accumulated data is read as usual, e.g., {@link Process2#stdoutDataAsInputStream()}.  After
+     * data is moved to a file, reads are served from a read-only memory-mapped view of the file.
+     * Thus, data is read from the operating system page cache, at near-memory speed.
+     * <p>
+     * The temporary file is created in {@link #spillDirectory()}.  It is closed and deleted by
+     * {@link Process2#clearAccumulatedData()}.  Else, it is closed and deleted after its
+     * {@link Process2} is garbage collected, during the next spill by any child process.
+     * 
+     * @param threshold
+     *        any value except zero.  Negative value implies this feature is disabled.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #spillToDiskThresholdByteCount()
+     * @see #spillDirectory(File)
+     * @see #isDataAccumulated()
+     * @see ByteArraySpillableBuilder
+     */
+    public ProcessOutputStreamSettings spillToDiskThresholdByteCount(int threshold) {
+        IntArgs.checkNotExactValue(threshold, 0, "threshold");
+        
+        _spillToDiskThresholdByteCount = threshold;
+        return this;
+    }
+    
+    /**
+     * Retrieves the maximum number of bytes to accumulate in memory from this stream (either
+     * STDOUT or STDERR) before all accumulated data is moved to a temporary file.  This feature is
+     * only relevant if {@link #isDataAccumulated()} is enabled.
+     *
+     * @return if negative, this feature is disabled
+     * 
+     * @see #spillToDiskThresholdByteCount(int)
+     */
+    public int spillToDiskThresholdByteCount() {
+        return _spillToDiskThresholdByteCount;
+    }
+    
+    /**
+     * Sets the optional directory for temporary files created by
+     * {@link #spillToDiskThresholdByteCount(int)}.  The initial value is {@code null}.
+     * 
+     * @param optDirectory
+     *        (optional) directory for temporary files.  If {@code null}, the default temporary
+     *        directory is used.  See {@link File#createTempFile(String, String, File)}.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see #spillDirectory()
+     * @see #spillToDiskThresholdByteCount(int)
+     */
+    public ProcessOutputStreamSettings spillDirectory(File optDirectory) {
+        _optSpillDirectory = optDirectory;
+        return this;
+    }
+    
+    /**
+     * Retrieves the optional directory for temporary files created by
+     * {@link #spillToDiskThresholdByteCount(int)}.  The initial value is {@code null}.
+     * 
+     * @return may be {@code null}
+     * 
+     * @see #spillDirectory(File)
+     */
+    public File spillDirectory() {
+        return _optSpillDirectory;
+    }
+    
     @Override
     public String toString() {
         String x = String.format(
@@ -601,6 +701,8 @@ public class ProcessOutputStreamSettings {
             + "%n\tbyteCallbackFactory()=%s"
             + "%n\tisDataAccumulated()=%s"
             + "%n\tmaxAccumulatedDataByteCount()=%d"
+            + "%n\tspillToDiskThresholdByteCount()=%d"
+            + "%n\tspillDirectory()=%s"
             + "%n\t]",
             getClass().getSimpleName(),
             _charset.getClass().getSimpleName(),
@@ -613,7 +715,9 @@ public class ProcessOutputStreamSettings {
             (null == _optByteCallbackFactory
                 ? "null" : _optByteCallbackFactory.getClass().getSimpleName()),
             _isDataAccumulated,
-            _maxAccumulatedDataByteCount);
+            _maxAccumulatedDataByteCount,
+            _spillToDiskThresholdByteCount,
+            _optSpillDirectory);
         return x;
     }
     
@@ -633,7 +737,9 @@ public class ProcessOutputStreamSettings {
             _optByteCallback,
             _optByteCallbackFactory,
             _isDataAccumulated,
-            _maxAccumulatedDataByteCount);
+            _maxAccumulatedDataByteCount,
+            _spillToDiskThresholdByteCount,
+            _optSpillDirectory);
         return x;
     }
 
@@ -652,6 +758,8 @@ public class ProcessOutputStreamSettings {
             result =
                 (this._isDataAccumulated == other._isDataAccumulated)
                 && (this._maxAccumulatedDataByteCount == other._maxAccumulatedDataByteCount)
+                && (this._spillToDiskThresholdByteCount == other._spillToDiskThresholdByteCount)
+                && Objects.equal(this._optSpillDirectory, other._optSpillDirectory)
                 && Objects.equal(this._charset, other._charset)
                 && Objects.equal(this._optSplitRegex, other._optSplitRegex)
                 && Objects.equal(this._optCharCallback, other._optCharCallback)
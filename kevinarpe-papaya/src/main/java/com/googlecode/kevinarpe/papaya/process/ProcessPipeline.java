@@ -0,0 +1,242 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.annotation.NotFullyTested;
+import com.googlecode.kevinarpe.papaya.argument.CollectionArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Chain of running child processes, where STDOUT of each stage is connected to STDIN of the next
+ * stage.  Instances of this class must be created via {@link ProcessPipelineBuilder#start()}.
+ * <p>
+ * Each stage is a normal {@link Process2}, so exit values and STDERR data are available per
+ * stage, e.g., {@link Process2#exitValue()} and {@link Process2#stderrDataAsString()}.  STDOUT of
+ * intermediate stages is consumed by the next stage, so their STDOUT data is always empty and
+ * their STDOUT callbacks are never called.
+ * <p>
+ * If a stage stops reading STDIN early, e.g., {@code head}, copying to that stage quietly stops,
+ * and STDOUT of the previous stage is closed.  Thus, the previous stage receives an error (or
+ * {@code SIGPIPE}) on its next write, the same as in a shell.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessPipelineBuilder
+ */
+@NotFullyTested
+public final class ProcessPipeline {
+    
+    private final ImmutableList<Process2> _stageList;
+    
+    ProcessPipeline(List<Process2> stageList) {
+        _stageList = ImmutableList.copyOf(ObjectArgs.checkNotNull(stageList, "stageList"));
+    }
+    
+    /**
+     * @return immutable list of child processes, from first to last stage
+     */
+    public List<Process2> stageList() {
+        return _stageList;
+    }
+    
+    /**
+     * @return number of stages
+     */
+    public int stageCount() {
+        int x = _stageList.size();
+        return x;
+    }
+    
+    /**
+     * @param index
+     *        zero-based index of stage
+     * 
+     * @return child process for stage
+     * 
+     * @throws IndexOutOfBoundsException
+     *         if {@code index} is negative, or not less than {@link #stageCount()}
+     */
+    public Process2 stage(int index) {
+        CollectionArgs.checkAccessIndex(_stageList, index, "stageList", "index");
+        Process2 x = _stageList.get(index);
+        return x;
+    }
+    
+    /**
+     * @return child process for first stage, which reads the STDIN data of the pipeline
+     */
+    public Process2 firstStage() {
+        Process2 x = _stageList.get(0);
+        return x;
+    }
+    
+    /**
+     * @return child process for last stage, which writes the STDOUT data of the pipeline
+     */
+    public Process2 lastStage() {
+        Process2 x = _stageList.get(_stageList.size() - 1);
+        return x;
+    }
+    
+    /**
+     * Waits indefinitely for all stages to terminate, and their streams to be drained.
+     * 
+     * @return immutable list of exit values, from first to last stage
+     * 
+     * @throws IOException
+     *         if an error occurred when writing data to STDIN of any stage (rethrown from STDIN
+     *         thread)
+     * @throws InterruptedException
+     *         if the current thread is waiting, but is interrupted with {@link Thread#interrupt()}
+     *         by another thread
+     * 
+     * @see Process2#waitFor()
+     */
+    public List<Integer> waitFor()
+    throws IOException, InterruptedException {
+        ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+        for (Process2 stage : _stageList) {
+            stage.waitFor();
+            // Also joins threads for STDIN, STDOUT, and STDERR.
+            Integer exitValue = stage.tryExitValue();
+            builder.add(exitValue);
+        }
+        ImmutableList<Integer> x = builder.build();
+        return x;
+    }
+    
+    /**
+     * Retrieves a future that completes with exit values after all stages terminate and their
+     * streams are drained.  This method does not block.
+     * 
+     * @return new future for immutable list of exit values, from first to last stage
+     * 
+     * @throws IllegalStateException
+     *         if the {@link ProcessExitWatcher} of any stage has been shutdown
+     * 
+     * @see Process2#onExit()
+     */
+    public CompletableFuture<List<Integer>> onExit() {
+        final List<CompletableFuture<Integer>> futureList =
+            new ArrayList<CompletableFuture<Integer>>(_stageList.size());
+        for (Process2 stage : _stageList) {
+            futureList.add(stage.onExit());
+        }
+        CompletableFuture<?>[] futureArr = futureList.toArray(new CompletableFuture<?>[0]);
+        CompletableFuture<List<Integer>> x =
+            CompletableFuture.allOf(futureArr).thenApply(
+                new Function<Void, List<Integer>>() {
+                    
+                    @Override
+                    public List<Integer> apply(Void dummy) {
+                        ImmutableList.Builder<Integer> builder = ImmutableList.builder();
+                        for (CompletableFuture<Integer> future : futureList) {
+                            builder.add(future.join());
+                        }
+                        ImmutableList<Integer> x = builder.build();
+                        return x;
+                    }
+                });
+        return x;
+    }
+    
+    /**
+     * Destroys the child process of every stage.  Unlike {@link Process2#destroy()}, exceptions
+     * from STDIN threads are not rethrown.
+     * 
+     * @return reference to {@code this}
+     * 
+     * @see Process2#destroy()
+     */
+    public ProcessPipeline destroy() {
+        for (Process2 stage : _stageList) {
+            stage._process.destroy();
+        }
+        return this;
+    }
+    
+    /**
+     * Thrown by {@link PipeStdinSource} when the next stage has closed its STDIN stream.
+     */
+    static final class NextStageClosedException
+    extends IOException {
+        
+        private static final long serialVersionUID = 1L;
+        
+        NextStageClosedException(IOException cause) {
+            super("Next stage closed its STDIN stream", cause);
+        }
+    }
+    
+    /**
+     * Copies STDOUT of the previous stage to STDIN of the next stage.
+     */
+    static final class PipeStdinSource
+    extends StdinSource {
+        
+        private final InputStream _prevStdoutStream;
+        
+        PipeStdinSource(InputStream prevStdoutStream) {
+            _prevStdoutStream = ObjectArgs.checkNotNull(prevStdoutStream, "prevStdoutStream");
+        }
+        
+        @Override
+        public long writeTo(OutputStream outputStream, byte[] buffer)
+        throws IOException {
+            long total = 0;
+            try {
+                // Process streams are buffered.  When the buffer is at least as large as their
+                // internal buffers, reads and writes bypass them, so each chunk is copied once.
+                int readCount;
+                while (-1 != (readCount = _prevStdoutStream.read(buffer))) {
+                    try {
+                        outputStream.write(buffer, 0, readCount);
+                        // Stream each chunk immediately, even if smaller than the buffer.
+                        outputStream.flush();
+                    }
+                    catch (IOException e) {
+                        throw new NextStageClosedException(e);
+                    }
+                    total += readCount;
+                }
+            }
+            finally {
+                // If the next stage closed STDIN early, this stops the previous stage.
+                _prevStdoutStream.close();
+            }
+            return total;
+        }
+    }
+}
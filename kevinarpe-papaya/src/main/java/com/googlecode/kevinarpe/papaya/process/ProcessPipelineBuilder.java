@@ -0,0 +1,165 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.annotation.NotFullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds a chain of child processes, where STDOUT of each stage is connected to STDIN of the next
+ * stage.  This is similar to a shell pipeline: {@code cmd1 | cmd2 | cmd3}.
+ * <p>
+ * Intermediate output is streamed, not accumulated: Bytes are copied from one stage to the next
+ * with a small, fixed-size buffer by the STDIN writer thread of each downstream stage.  Writes
+ * block when the next stage does not read quickly enough, so a fast upstream stage cannot exhaust
+ * memory (backpressure).
+ * <p>
+ * Each stage keeps its own settings, e.g., {@link ProcessBuilder2#stderrSettings()} and
+ * {@link ProcessBuilder2#redirectErrorStream(boolean)}.  If an intermediate stage redirects
+ * STDERR to STDOUT, its STDERR is also piped to the next stage, like {@code 2>&1 |} in a shell.
+ * Only the first stage may write STDIN data, and only the last stage reads STDOUT data
+ * normally.
+ * <p>
+ * Example:
+ * <pre>{@code
+ * ProcessPipeline pipeline =
+ *     new ProcessPipelineBuilder()
+ *         .addStage(new ProcessBuilder2("cat", "huge.txt"))
+ *         .addStage(new ProcessBuilder2("grep", "ERROR"))
+ *         .addStage(new ProcessBuilder2("sort"))
+ *         .start();
+ * List<Integer> exitValueList = pipeline.waitFor();
+ * String text = pipeline.lastStage().stdoutDataAsString();
+ * }</pre>
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessPipeline
+ */
+@NotFullyTested
+public final class ProcessPipelineBuilder {
+    
+    private final List<ProcessBuilder2> _stageList;
+    
+    /**
+     * Constructs a new pipeline without stages.
+     */
+    public ProcessPipelineBuilder() {
+        _stageList = new ArrayList<ProcessBuilder2>();
+    }
+    
+    /**
+     * Appends a stage to this pipeline.  The builder is copied, so later changes to {@code pb} do
+     * not affect this pipeline.
+     * 
+     * @param pb
+     *        settings for the new stage
+     * 
+     * @return reference to {@code this}
+     * 
+     * @throws NullPointerException
+     *         if {@code pb} is {@code null}
+     * @throws IllegalArgumentException
+     *         if this is not the first stage and {@code pb} has data for STDIN, e.g.,
+     *         {@link ProcessBuilder2#stdinText(String)}
+     */
+    public ProcessPipelineBuilder addStage(ProcessBuilder2 pb) {
+        ObjectArgs.checkNotNull(pb, "pb");
+        if (!_stageList.isEmpty()
+                && (null != pb.stdinData() || null != pb.stdinText() || null != pb.stdinSource())) {
+            String msg = String.format(
+                "Only the first stage may have data for STDIN, but stage #%d does: %s",
+                1 + _stageList.size(), ProcessBuilder2.argListToString(pb.command()));
+            throw new IllegalArgumentException(msg);
+        }
+        _stageList.add(new ProcessBuilder2(pb));
+        return this;
+    }
+    
+    /**
+     * @return immutable list of copies of each stage
+     */
+    public List<ProcessBuilder2> stageList() {
+        ImmutableList<ProcessBuilder2> x = ImmutableList.copyOf(_stageList);
+        return x;
+    }
+    
+    /**
+     * Spawns a child process for each stage, from first to last.  If any stage fails to start,
+     * all previous stages are destroyed.
+     * 
+     * @return handle to new pipeline
+     * 
+     * @throws IllegalStateException
+     *         if this pipeline has no stages
+     * @throws IllegalArgumentException
+     *         if the command of any stage is empty or contains {@code null} values
+     * @throws IOException
+     *         if any stage cannot be started
+     * 
+     * @see ProcessBuilder2#start()
+     */
+    public ProcessPipeline start()
+    throws IOException {
+        if (_stageList.isEmpty()) {
+            throw new IllegalStateException("Pipeline has no stages");
+        }
+        final int count = _stageList.size();
+        List<Process2> processList = new ArrayList<Process2>(count);
+        boolean isStarted = false;
+        try {
+            Process2 optPrevProcess = null;
+            for (int i = 0; i < count; ++i) {
+                ProcessBuilder2 pb = _stageList.get(i);
+                if (null != optPrevProcess) {
+                    InputStream prevStdoutStream = optPrevProcess._process.getInputStream();
+                    pb = new ProcessBuilder2(pb);
+                    pb.stdinSource(new ProcessPipeline.PipeStdinSource(prevStdoutStream));
+                }
+                final boolean isStdoutPiped = (i < count - 1);
+                Process2 process = pb.start(isStdoutPiped, false);
+                processList.add(process);
+                optPrevProcess = process;
+            }
+            isStarted = true;
+        }
+        finally {
+            if (!isStarted) {
+                for (Process2 process : processList) {
+                    process._process.destroy();
+                }
+            }
+        }
+        ProcessPipeline x = new ProcessPipeline(processList);
+        return x;
+    }
+}
@@ -0,0 +1,212 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Splits the STDIN and STDOUT streams of a long-lived child process into discrete requests and
+ * responses for {@link ProcessWorkerPool}.
+ * <p>
+ * Create instances via:
+ * <ul>
+ *   <li>{@link #lengthPrefixed(int)}: Each message is a 4-byte, big-endian length, followed by
+ *   that many bytes.  Messages may contain any bytes.</li>
+ *   <li>{@link #delimited(byte)}: Each message is followed by a delimiter, e.g., {@code '\n'}.
+ *   Messages must not contain the delimiter.</li>
+ * </ul>
+ * Subclasses may implement other framing protocols.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessWorkerPool
+ */
+@FullyTested
+public abstract class ProcessWorkerFraming {
+    
+    /**
+     * Writes a single request to the STDIN stream of a child process.  Do not flush or close
+     * {@code outputStream}.
+     * 
+     * @param outputStream
+     *        STDIN stream of child process
+     * @param request
+     *        bytes of request
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code request} cannot be framed, e.g., it contains the delimiter
+     * @throws IOException
+     *         if {@code outputStream} cannot be written
+     */
+    public abstract void writeRequest(OutputStream outputStream, byte[] request)
+    throws IOException;
+    
+    /**
+     * Reads a single response from the STDOUT stream of a child process.
+     * 
+     * @param inputStream
+     *        STDOUT stream of child process
+     * 
+     * @return bytes of response, or {@code null} if end of stream is reached before the first
+     *         byte of a response
+     * 
+     * @throws EOFException
+     *         if end of stream is reached in the middle of a response
+     * @throws IOException
+     *         if {@code inputStream} cannot be read, or the response is malformed
+     */
+    public abstract byte[] readResponse(InputStream inputStream)
+    throws IOException;
+    
+    /**
+     * Creates a framing where each message is a 4-byte, big-endian length, followed by that many
+     * bytes.  This is the same format as {@link java.io.DataOutputStream#writeInt(int)}, followed
+     * by the bytes.
+     * 
+     * @param maxResponseByteCount
+     *        maximum length of response.  Longer responses are rejected to protect against a
+     *        corrupt length prefix.  Must be positive.
+     * 
+     * @return new framing
+     * 
+     * @throws IllegalArgumentException
+     *         if {@code maxResponseByteCount} is not positive
+     */
+    public static ProcessWorkerFraming lengthPrefixed(final int maxResponseByteCount) {
+        IntArgs.checkPositive(maxResponseByteCount, "maxResponseByteCount");
+        
+        ProcessWorkerFraming x = new ProcessWorkerFraming() {
+            
+            @Override
+            public void writeRequest(OutputStream outputStream, byte[] request)
+            throws IOException {
+                int length = request.length;
+                outputStream.write(new byte[] {
+                    (byte) (length >>> 24), (byte) (length >>> 16), (byte) (length >>> 8),
+                    (byte) length });
+                outputStream.write(request);
+            }
+            
+            @Override
+            public byte[] readResponse(InputStream inputStream)
+            throws IOException {
+                byte[] prefix = new byte[4];
+                int readCount = _readFully(inputStream, prefix);
+                if (0 == readCount) {
+                    return null;
+                }
+                if (prefix.length != readCount) {
+                    throw new EOFException("End of stream in length prefix of response");
+                }
+                int length =
+                    ((prefix[0] & 0xFF) << 24) | ((prefix[1] & 0xFF) << 16)
+                    | ((prefix[2] & 0xFF) << 8) | (prefix[3] & 0xFF);
+                if (length < 0 || length > maxResponseByteCount) {
+                    throw new IOException(String.format(
+                        "Invalid response length: %d (max: %d)", length, maxResponseByteCount));
+                }
+                byte[] x = new byte[length];
+                if (length != _readFully(inputStream, x)) {
+                    throw new EOFException(String.format(
+                        "End of stream in response of %d bytes", length));
+                }
+                return x;
+            }
+        };
+        return x;
+    }
+    
+    /**
+     * Creates a framing where each message is followed by a delimiter.  For line-based text
+     * protocols, use {@code '\n'}.
+     * 
+     * @param delimiter
+     *        byte after each message
+     * 
+     * @return new framing
+     */
+    public static ProcessWorkerFraming delimited(final byte delimiter) {
+        ProcessWorkerFraming x = new ProcessWorkerFraming() {
+            
+            @Override
+            public void writeRequest(OutputStream outputStream, byte[] request)
+            throws IOException {
+                for (int i = 0; i < request.length; ++i) {
+                    if (delimiter == request[i]) {
+                        throw new IllegalArgumentException(String.format(
+                            "Request contains delimiter (%d) at index %d", delimiter, i));
+                    }
+                }
+                outputStream.write(request);
+                outputStream.write(delimiter);
+            }
+            
+            @Override
+            public byte[] readResponse(InputStream inputStream)
+            throws IOException {
+                // STDOUT streams of child processes are buffered, so single-byte reads are cheap.
+                ByteArrayOutputStream out = new ByteArrayOutputStream();
+                int b;
+                while (-1 != (b = inputStream.read())) {
+                    if (delimiter == (byte) b) {
+                        byte[] x = out.toByteArray();
+                        return x;
+                    }
+                    out.write(b);
+                }
+                if (0 == out.size()) {
+                    return null;
+                }
+                throw new EOFException(String.format(
+                    "End of stream after %d bytes of response, but before delimiter", out.size()));
+            }
+        };
+        return x;
+    }
+    
+    /**
+     * @return number of bytes read: less than {@code buffer.length} only at end of stream
+     */
+    private static int _readFully(InputStream inputStream, byte[] buffer)
+    throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int readCount = inputStream.read(buffer, total, buffer.length - total);
+            if (-1 == readCount) {
+                break;
+            }
+            total += readCount;
+        }
+        return total;
+    }
+}
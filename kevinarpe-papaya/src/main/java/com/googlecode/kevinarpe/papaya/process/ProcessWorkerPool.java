@@ -0,0 +1,430 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.NotFullyTested;
+import com.googlecode.kevinarpe.papaya.argument.IntArgs;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps a fixed number of long-lived ("warm") child processes to serve many requests.  Use this
+ * class instead of {@link ProcessBuilder2#start()} per request when the same helper program is
+ * called thousands of times, and the cost to start a child process dominates.
+ * <p>
+ * Each request is written to STDIN of an idle worker, and its response is read from STDOUT of the
+ * same worker.  Requests and responses are split by a {@link ProcessWorkerFraming}, e.g.,
+ * length-prefixed or newline-delimited.  A worker serves one request at a time, so
+ * {@link #call(byte[])} blocks while all workers are busy.
+ * <p>
+ * Workers are replaced in these cases:
+ * <ul>
+ *   <li>Died: If a worker terminates, or its response is malformed, {@link #call(byte[])}
+ *   throws {@link IOException}, and the worker is destroyed and restarted.  The request is
+ *   <b>not</b> retried, as it may not be idempotent.</li>
+ *   <li>Recycled: After {@link #maxRequestCountPerWorker()} requests, STDIN of the worker is
+ *   closed, so it may exit gracefully, and a new worker is started.  This bounds the impact of
+ *   memory leaks in the helper program.</li>
+ * </ul>
+ * Replacement workers are started by a single background thread, so callers rarely wait for a
+ * child process to start.
+ * <p>
+ * STDERR of each worker is handled per {@link ProcessBuilder2#stderrSettings()}.  As workers are
+ * long-lived, avoid {@link ProcessOutputStreamSettings#isDataAccumulated(boolean)} for STDERR,
+ * or set {@link ProcessOutputStreamSettings#maxAccumulatedDataByteCount(int)}.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessWorkerFraming
+ */
+@NotFullyTested
+public final class ProcessWorkerPool
+implements Closeable {
+    
+    /**
+     * Value for {@code maxRequestCountPerWorker} to never recycle workers.
+     */
+    public static final int UNLIMITED_REQUEST_COUNT = -1;
+    
+    /**
+     * Number of milliseconds a worker may take to exit after its STDIN is closed.  Afterwards,
+     * the worker is destroyed.
+     */
+    public static final long GRACEFUL_EXIT_TIMEOUT_MILLIS = 5000;
+    
+    private static final AtomicInteger _nextPoolId = new AtomicInteger(1);
+    
+    private final ProcessBuilder2 _pb;
+    private final ProcessWorkerFraming _framing;
+    private final int _workerCount;
+    private final int _maxRequestCountPerWorker;
+    private final BlockingQueue<_Worker> _idleQueue;
+    private final ExecutorService _restartExecutor;
+    private final AtomicLong _startCount;
+    private final AtomicLong _requestCount;
+    private volatile boolean _isClosed;
+    
+    /**
+     * Constructs a new pool and starts all workers.
+     * 
+     * @param pb
+     *        settings for each worker.  This is copied.  Must not have data for STDIN.
+     * @param framing
+     *        protocol to split requests and responses
+     * @param workerCount
+     *        number of workers.  Must be positive.
+     * @param maxRequestCountPerWorker
+     *        number of requests before a worker is recycled.  Must be positive, or
+     *        {@link #UNLIMITED_REQUEST_COUNT}.
+     * 
+     * @throws NullPointerException
+     *         if {@code pb} or {@code framing} is {@code null}
+     * @throws IllegalArgumentException
+     * <ul>
+     *   <li>if {@code pb} has data for STDIN, e.g., {@link ProcessBuilder2#stdinText(String)}</li>
+     *   <li>if {@code workerCount} is not positive</li>
+     *   <li>if {@code maxRequestCountPerWorker} is not positive and not
+     *   {@link #UNLIMITED_REQUEST_COUNT}</li>
+     * </ul>
+     * @throws IOException
+     *         if any worker cannot be started.  Workers already started are destroyed.
+     */
+    public ProcessWorkerPool(
+            ProcessBuilder2 pb,
+            ProcessWorkerFraming framing,
+            int workerCount,
+            int maxRequestCountPerWorker)
+    throws IOException {
+        ObjectArgs.checkNotNull(pb, "pb");
+        if (null != pb.stdinData() || null != pb.stdinText() || null != pb.stdinSource()) {
+            String msg = String.format("Workers must not have data for STDIN: %s",
+                ProcessBuilder2.argListToString(pb.command()));
+            throw new IllegalArgumentException(msg);
+        }
+        _pb = new ProcessBuilder2(pb);
+        _framing = ObjectArgs.checkNotNull(framing, "framing");
+        _workerCount = IntArgs.checkPositive(workerCount, "workerCount");
+        if (UNLIMITED_REQUEST_COUNT != maxRequestCountPerWorker) {
+            IntArgs.checkPositive(maxRequestCountPerWorker, "maxRequestCountPerWorker");
+        }
+        _maxRequestCountPerWorker = maxRequestCountPerWorker;
+        _idleQueue = new ArrayBlockingQueue<_Worker>(workerCount);
+        _startCount = new AtomicLong(0);
+        _requestCount = new AtomicLong(0);
+        _isClosed = false;
+        
+        final String threadName = String.format("%s-%d",
+            getClass().getSimpleName(), _nextPoolId.getAndIncrement());
+        _restartExecutor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, threadName);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        
+        boolean isStarted = false;
+        try {
+            for (int i = 0; i < workerCount; ++i) {
+                _Worker worker = new _Worker();
+                worker.start();
+                _idleQueue.add(worker);
+            }
+            isStarted = true;
+        }
+        finally {
+            if (!isStarted) {
+                _isClosed = true;
+                _restartExecutor.shutdown();
+                for (_Worker worker; null != (worker = _idleQueue.poll()); ) {
+                    _destroy(worker.detach());
+                }
+            }
+        }
+    }
+    
+    /**
+     * @return number of workers
+     */
+    public int workerCount() {
+        return _workerCount;
+    }
+    
+    /**
+     * @return number of requests before a worker is recycled, or {@link #UNLIMITED_REQUEST_COUNT}
+     */
+    public int maxRequestCountPerWorker() {
+        return _maxRequestCountPerWorker;
+    }
+    
+    /**
+     * @return number of workers that are not serving a request
+     */
+    public int idleWorkerCount() {
+        return _idleQueue.size();
+    }
+    
+    /**
+     * @return total number of child processes started, including restarts and recycles
+     */
+    public long startCount() {
+        return _startCount.get();
+    }
+    
+    /**
+     * @return total number of requests with a successful response
+     */
+    public long requestCount() {
+        return _requestCount.get();
+    }
+    
+    /**
+     * Sends a request to an idle worker, and waits for its response.  If all workers are busy,
+     * this method blocks until a worker is idle.  This method is thread-safe.
+     * 
+     * @param request
+     *        bytes of request
+     * 
+     * @return bytes of response
+     * 
+     * @throws NullPointerException
+     *         if {@code request} is {@code null}
+     * @throws IllegalArgumentException
+     *         if {@code request} cannot be framed, e.g., it contains the delimiter
+     * @throws IllegalStateException
+     *         if {@link #close()} has been called
+     * @throws IOException
+     *         if the worker cannot be started, terminates before its response, or its response
+     *         is malformed.  The worker is replaced.
+     * @throws InterruptedException
+     *         if the current thread is interrupted while waiting for an idle worker
+     */
+    public byte[] call(byte[] request)
+    throws IOException, InterruptedException {
+        ObjectArgs.checkNotNull(request, "request");
+        _checkNotClosed();
+        
+        _Worker worker = _idleQueue.take();
+        boolean isHealthy = false;
+        try {
+            _checkNotClosed();
+            if (!worker.isAlive()) {
+                // Died while idle, or background restart failed.
+                _destroy(worker.detach());
+                worker.start();
+            }
+            byte[] x = worker.call(request);
+            isHealthy = true;
+            _requestCount.incrementAndGet();
+            return x;
+        }
+        catch (IllegalArgumentException e) {
+            // Request was rejected by framing before any bytes were written.
+            isHealthy = true;
+            throw e;
+        }
+        finally {
+            _release(worker, isHealthy);
+        }
+    }
+    
+    private void _checkNotClosed() {
+        if (_isClosed) {
+            throw new IllegalStateException("Pool has been closed");
+        }
+    }
+    
+    private void _release(final _Worker worker, boolean isHealthy) {
+        if (isHealthy
+                && !_isClosed
+                && (UNLIMITED_REQUEST_COUNT == _maxRequestCountPerWorker
+                    || worker._requestCount < _maxRequestCountPerWorker)) {
+            _idleQueue.add(worker);
+            // If close() ran after the check above, but before add(), it missed this worker.
+            // If not, detach() returns null, and this is a no-op.
+            if (_isClosed) {
+                _closeGracefully(worker.detach());
+            }
+            return;
+        }
+        Process2 optProcess = worker.detach();
+        if (isHealthy) {
+            _closeGracefully(optProcess);
+        }
+        else {
+            _destroy(optProcess);
+        }
+        try {
+            _restartExecutor.execute(new Runnable() {
+                
+                @Override
+                public void run() {
+                    if (!_isClosed) {
+                        try {
+                            worker.start();
+                        }
+                        catch (IOException e) {
+                            // Intentionally ignore exception.  The next call will retry, and
+                            // throw to its caller.
+                            @SuppressWarnings("unused")
+                            int dummy = 1;  // debug breakpoint
+                        }
+                    }
+                    _idleQueue.add(worker);
+                    if (_isClosed) {
+                        _closeIdleWorkers();
+                    }
+                }
+            });
+        }
+        catch (RejectedExecutionException e) {
+            // Pool is closed.  Keep the empty worker, so blocked callers wake up.
+            _idleQueue.add(worker);
+        }
+    }
+    
+    /**
+     * Closes STDIN of all workers, so they may exit gracefully.  Workers that do not exit within
+     * {@link #GRACEFUL_EXIT_TIMEOUT_MILLIS} are destroyed.  Busy workers are closed after their
+     * current request.  This method may be called more than once.
+     */
+    @Override
+    public void close() {
+        _isClosed = true;
+        _restartExecutor.shutdown();
+        _closeIdleWorkers();
+    }
+    
+    /**
+     * @return {@code true} if {@link #close()} has been called
+     */
+    public boolean isClosed() {
+        return _isClosed;
+    }
+    
+    private void _closeIdleWorkers() {
+        for (_Worker worker : _idleQueue) {
+            _closeGracefully(worker.detach());
+        }
+    }
+    
+    private static void _closeGracefully(Process2 optProcess) {
+        if (null == optProcess) {
+            return;
+        }
+        try {
+            optProcess.getOutputStream().close();
+        }
+        catch (IOException e) {
+            _destroy(optProcess);
+            return;
+        }
+        final Process2 process = optProcess;
+        process.onExit(GRACEFUL_EXIT_TIMEOUT_MILLIS).whenComplete(
+            new BiConsumer<Integer, Throwable>() {
+                
+                @Override
+                public void accept(Integer exitValue, Throwable optThrowable) {
+                    if (null != optThrowable) {
+                        _destroy(process);
+                    }
+                }
+            });
+    }
+    
+    private static void _destroy(Process2 optProcess) {
+        if (null != optProcess) {
+            optProcess._process.destroy();
+        }
+    }
+    
+    /**
+     * Slot for a single child process.  Only accessed by one thread at a time: the caller that
+     * took it from the idle queue, or the restart thread.  The exception is
+     * {@link ProcessWorkerPool#close()}, which may detach the child process of any worker in the
+     * idle queue, so all access to {@code _optProcess} is synchronized.
+     */
+    private final class _Worker {
+        
+        private Process2 _optProcess;
+        private int _requestCount;
+        
+        private synchronized void start()
+        throws IOException {
+            _optProcess = _pb.start(true, true);
+            _requestCount = 0;
+            _startCount.incrementAndGet();
+        }
+        
+        private synchronized boolean isAlive() {
+            boolean x = (null != _optProcess && _optProcess._process.isAlive());
+            return x;
+        }
+        
+        private synchronized Process2 detach() {
+            Process2 x = _optProcess;
+            _optProcess = null;
+            return x;
+        }
+        
+        private synchronized Process2 getOptionalProcess() {
+            return _optProcess;
+        }
+        
+        private byte[] call(byte[] request)
+        throws IOException {
+            Process2 process = getOptionalProcess();
+            if (null == process) {
+                throw new IOException("Worker was closed");
+            }
+            OutputStream outputStream = process.getOutputStream();
+            _framing.writeRequest(outputStream, request);
+            outputStream.flush();
+            byte[] optResponse = _framing.readResponse(process.getInputStream());
+            if (null == optResponse) {
+                throw new EOFException(String.format("Worker exited before response: %s",
+                    ProcessBuilder2.argListToString(process.command())));
+            }
+            ++_requestCount;
+            return optResponse;
+        }
+    }
+}
@@ -25,20 +25,20 @@ package com.googlecode.kevinarpe.papaya.process;
  * #L%
  */
 
-import com.google.common.base.Splitter;
-import com.google.common.collect.Iterables;
 import com.googlecode.kevinarpe.papaya.AbstractThreadWithException;
 import com.googlecode.kevinarpe.papaya.FuncUtils;
 import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
 import com.googlecode.kevinarpe.papaya.appendable.ByteAppendable;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 import com.googlecode.kevinarpe.papaya.argument.StringArgs;
+import com.googlecode.kevinarpe.papaya.container.ByteArraySegmentedBuilder;
 import com.googlecode.kevinarpe.papaya.container.ByteArraySimpleBuilder;
+import com.googlecode.kevinarpe.papaya.container.ByteArraySpillableBuilder;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.regex.Pattern;
 
@@ -51,6 +51,10 @@ import java.util.regex.Pattern;
  * <p>
  * It is possible to customize the behavior of this class through subclassing and overriding
  * {@link Process2#createReadInputStreamThread(InputStream, ProcessOutputStreamSettings, String)}.
+ * <p>
+ * If {@link ProcessBuilder2#outputStreamPump(ProcessOutputStreamPump)} is set, instances of this
+ * class are never started as threads.  Instead, a shared pump drives
+ * {@link #processData(byte[], int)} and {@link #processEndOfStream()}.
  * 
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  *
@@ -67,9 +71,13 @@ extends AbstractThreadWithException {
     private final InputStream _inputStream;
     private final ProcessOutputStreamSettings _settings;
     private final String _streamName;
-    private final ByteArraySimpleBuilder _byteArrBuilder;
+    private final ByteArraySpillableBuilder _byteArrBuilder;
     private final Appendable _optCharCallbackFromFactory;
     private final ByteAppendable _optByteCallbackFromFactory;
+    private final IncrementalTextSplitter _textSplitter;
+    // Only written by a single thread: this thread, or one pump thread.
+    private volatile long _readByteCount;
+    private volatile long _readCallCount;
 
     /**
      * Constructor.
@@ -95,11 +103,12 @@ extends AbstractThreadWithException {
         _settings = ObjectArgs.checkNotNull(settings, "settings");
         _streamName = StringArgs.checkNotEmptyOrWhitespace(streamName, "streamName");
         
-        _byteArrBuilder = new ByteArraySimpleBuilder(DEFAULT_BYTE_ARR_LENGTH);
+        _byteArrBuilder = new ByteArraySpillableBuilder(DEFAULT_BYTE_ARR_LENGTH);
         FuncUtils.Func0<Appendable> ccFactory = _settings.charCallbackFactory();
         _optCharCallbackFromFactory = (null == ccFactory ? null : ccFactory.call());
         FuncUtils.Func0<ByteAppendable> bcFactory = _settings.byteCallbackFactory();
         _optByteCallbackFromFactory = (null == bcFactory ? null : bcFactory.call());
+        _textSplitter = new IncrementalTextSplitter(DEFAULT_BYTE_ARR_LENGTH);
     }
     
     /**
@@ -116,6 +125,9 @@ extends AbstractThreadWithException {
      * @return new array with all bytes from internal buffer.
      *         Never {@code null}, but may be empty.
      * 
+     * @throws UncheckedIOException
+     *         if accumulated data was spilled to a file, and the file cannot be read
+     * 
      * @see #getDataAsByteArr()
      * @see #getDataAsString(Charset)
      */
@@ -134,6 +146,9 @@ extends AbstractThreadWithException {
      * @return new array with all bytes from internal buffer
      *         Never {@code null}, but may be empty.
      * 
+     * @throws UncheckedIOException
+     *         if accumulated data was spilled to a file, and the file cannot be read
+     * 
      * @see #getDataAsString(Charset)
      */
     public byte[] getDataAsByteArr() {
@@ -141,6 +156,66 @@ extends AbstractThreadWithException {
         return x;
     }
     
+    /**
+     * Retrieves a stream over all bytes read from the child process output stream.  Unlike
+     * {@link #getDataAsByteArr()}, no bytes are copied: The stream reads directly from the
+     * internal segments, or from a memory-mapped view if data was spilled to a file.  This method
+     * is thread-safe, so it may be called while the child process is outputting data -- not yet
+     * terminated.  Bytes read afterwards are not visible to the result.
+     * 
+     * @return new stream over all bytes from internal buffer.
+     *         Never {@code null}, but may be empty.
+     * 
+     * @throws UncheckedIOException
+     *         if accumulated data was spilled to a file, and the file cannot be mapped
+     * 
+     * @see ByteArraySpillableBuilder#newInputStream()
+     * @see ProcessOutputStreamSettings#spillToDiskThresholdByteCount(int)
+     */
+    public InputStream getDataAsInputStream() {
+        synchronized (_byteArrBuilder) {
+            InputStream x = _byteArrBuilder.newInputStream();
+            return x;
+        }
+    }
+    
+    /**
+     * Retrieves the number of bytes accumulated from the child process output stream.  This
+     * method is thread-safe, and does not copy any bytes.
+     * 
+     * @return number of accumulated bytes, including bytes spilled to a file
+     * 
+     * @see ProcessOutputStreamSettings#isDataAccumulated()
+     */
+    public long getDataByteCount() {
+        synchronized (_byteArrBuilder) {
+            long x = _byteArrBuilder.length();
+            return x;
+        }
+    }
+    
+    /**
+     * Retrieves the number of bytes read from the child process output stream.  Unlike
+     * {@link #getDataByteCount()}, this count includes bytes that are not accumulated, and is not
+     * reset by {@link #clearData()}.  This method is thread-safe.
+     * 
+     * @return number of bytes passed to {@link #processData(byte[], int)}
+     */
+    public long getReadByteCount() {
+        return _readByteCount;
+    }
+    
+    /**
+     * Retrieves the number of blocks of bytes read from the child process output stream.  Many
+     * small reads hint that the child process flushes its output too often.  This method is
+     * thread-safe.
+     * 
+     * @return number of calls to {@link #processData(byte[], int)}
+     */
+    public long getReadCallCount() {
+        return _readCallCount;
+    }
+    
     /**
      * Retrieves a {@link String} created from all bytes read from the child process output stream.
      * This method is thread-safe, so it may be called while the child process is outputting data
@@ -155,6 +230,9 @@ extends AbstractThreadWithException {
      * @return new {@code String} created from all bytes from internal buffer
      *         Never {@code null}, but may be empty.
      * 
+     * @throws UncheckedIOException
+     *         if accumulated data was spilled to a file, and the file cannot be read
+     * 
      * @see #getDataAsByteArr()
      */
     public String getDataAsString(Charset optCs) {
@@ -169,67 +247,128 @@ extends AbstractThreadWithException {
     @Override
     public void runWithException()
     throws IOException {
-        byte[] buffer = new byte[8192];
-        String lastText = "";
+        byte[] buffer = new byte[DEFAULT_BYTE_ARR_LENGTH];
         while (true) {
             int readCount = _inputStream.read(buffer);
             if (-1 == readCount) {
                 break;
             }
-            if (_settings.isDataAccumulated()) {
-                synchronized (_byteArrBuilder) {
-                    int adjReadCount = readCount;
-                    int maxByteCount = _settings.maxAccumulatedDataByteCount();
-                    if (maxByteCount > 0) {
-                        int maxReadCount = maxByteCount - _byteArrBuilder.length();
-                        adjReadCount = Math.min(readCount, maxReadCount);
-                    }
-                    _byteArrBuilder.append(buffer, 0, adjReadCount);
-                    //System.out.println(_byteArrBuilder.length());
-                }
-            }
-            // Make a reference copy here, _settings.charCallback(), to be thread-safe.
-            Appendable optCharCallback =
-                (null != _optCharCallbackFromFactory
-                    ? _optCharCallbackFromFactory : _settings.charCallback());
-            if (null != optCharCallback) {
-                Charset cs = _settings.charset();
-                String s = new String(buffer, 0, readCount, cs);
-                // Make a reference copy here to be thread-safe.
-                Pattern optSplitRegex = _settings.splitRegex();
-                if (null != optSplitRegex) {
-                    String text = lastText.concat(s);
-                    Iterable<String> partIter = Splitter.on(optSplitRegex).split(text);
-                    ArrayList<String> partList = new ArrayList<String>();
-                    Iterables.addAll(partList, partIter);
-                    int partListSize = partList.size();
-                    for (int i = 0; i < partListSize - 1; ++i) {
-                        String part = partList.get(i);
-                        optCharCallback.append(part);
-                    }
-                    lastText = partList.get(partListSize - 1);
+            processData(buffer, readCount);
+        }
+        processEndOfStream();
+    }
+    
+    /**
+     * Processes a block of bytes read from the child process output stream.  Incoming data is
+     * accumulated (if enabled), then forwarded to the character- and byte-based callbacks.
+     * Subclasses that override this method must call it, else {@link #getReadByteCount()} and
+     * {@link #getReadCallCount()} are not updated.
+     * <p>
+     * Normally, this method is called by {@link #runWithException()}.  If the child process
+     * was started with a {@link ProcessOutputStreamPump}, this thread is never started, and the
+     * pump calls this method from one of its shared threads.
+     * 
+     * @param buffer
+     *        data read from the child process output stream.  This array is reused by the caller,
+     *        so implementations must not keep a reference.
+     * @param readCount
+     *        number of valid bytes in {@code buffer}, starting at index zero
+     * 
+     * @throws IOException
+     *         if a callback fails to consume the data, or data cannot be spilled to a file
+     * 
+     * @see #processEndOfStream()
+     */
+    protected void processData(byte[] buffer, int readCount)
+    throws IOException {
+        _readByteCount += readCount;
+        ++_readCallCount;
+        if (_settings.isDataAccumulated()) {
+            synchronized (_byteArrBuilder) {
+                int adjReadCount = readCount;
+                int maxByteCount = _settings.maxAccumulatedDataByteCount();
+                if (maxByteCount > 0) {
+                    long maxReadCount = maxByteCount - _byteArrBuilder.length();
+                    adjReadCount = (int) Math.min(readCount, maxReadCount);
                 }
-                else {
-                    optCharCallback.append(s);
+                int spillThreshold = _settings.spillToDiskThresholdByteCount();
+                if (spillThreshold > 0
+                        && !_byteArrBuilder.isSpilled()
+                        && _byteArrBuilder.length() + adjReadCount > spillThreshold) {
+                    _byteArrBuilder.spill(_settings.spillDirectory());
                 }
+                _byteArrBuilder.append(buffer, 0, adjReadCount);
+                //System.out.println(_byteArrBuilder.length());
             }
-            // Make a reference copy here, _settings.byteCallback(),  to be thread-safe.
-            ByteAppendable optByteCallback =
-                (null != _optByteCallbackFromFactory
-                    ? _optByteCallbackFromFactory : _settings.byteCallback());
-            if (null != optByteCallback) {
-                byte[] truncBuffer = Arrays.copyOf(buffer, readCount);
-                optByteCallback.append(truncBuffer);
-            }
         }
         // Make a reference copy here, _settings.charCallback(), to be thread-safe.
         Appendable optCharCallback =
             (null != _optCharCallbackFromFactory
                 ? _optCharCallbackFromFactory : _settings.charCallback());
-        if (null != optCharCallback && !lastText.isEmpty()) {
-            optCharCallback.append(lastText);
+        if (null != optCharCallback) {
+            Charset cs = _settings.charset();
+            // Make a reference copy here to be thread-safe.
+            Pattern optSplitRegex = _settings.splitRegex();
+            _textSplitter.append(buffer, readCount, cs, optSplitRegex, optCharCallback);
+        }
+        // Make a reference copy here, _settings.byteCallback(),  to be thread-safe.
+        ByteAppendable optByteCallback =
+            (null != _optByteCallbackFromFactory
+                ? _optByteCallbackFromFactory : _settings.byteCallback());
+        if (null != optByteCallback) {
+            byte[] truncBuffer = Arrays.copyOf(buffer, readCount);
+            optByteCallback.append(truncBuffer);
+        }
+    }
+    
+    /**
+     * Called once after the last call to {@link #processData(byte[], int)} when the end of the
+     * child process output stream is reached.  Any remaining characters (not yet matched by
+     * {@link ProcessOutputStreamSettings#splitRegex()}), including bytes of an incomplete
+     * multi-byte character, are written to the character-based callback.
+     * 
+     * @throws IOException
+     *         if the character-based callback fails to consume the data
+     * 
+     * @see #processData(byte[], int)
+     */
+    protected void processEndOfStream()
+    throws IOException {
+        // Make a reference copy here, _settings.charCallback(), to be thread-safe.
+        Appendable optCharCallback =
+            (null != _optCharCallbackFromFactory
+                ? _optCharCallbackFromFactory : _settings.charCallback());
+        if (null != optCharCallback) {
+            Charset cs = _settings.charset();
+            Pattern optSplitRegex = _settings.splitRegex();
+            _textSplitter.finish(cs, optSplitRegex, optCharCallback);
+        }
+    }
+    
+    /**
+     * Removes all accumulated data.  If accumulated data was spilled to a file, the file is
+     * deleted.  This method is thread-safe, so it may be called while the child process is
+     * outputting data -- not yet terminated.
+     * 
+     * @throws IOException
+     *         if the spill file cannot be closed
+     * 
+     * @see ProcessOutputStreamSettings#spillToDiskThresholdByteCount(int)
+     */
+    public void clearData()
+    throws IOException {
+        synchronized (_byteArrBuilder) {
+            _byteArrBuilder.close();
         }
     }
+    
+    /**
+     * Used by {@link ProcessOutputStreamPump} to record an exception when this thread is not
+     * started.  Afterwards, the exception is available from {@link #getException()}.
+     */
+    void setPumpException(Exception e) {
+        setException(e);
+    }
 
     /**
      * For subclasses to access members.
@@ -247,8 +386,32 @@ extends AbstractThreadWithException {
 
     /**
      * For subclasses to access members.
+     * <p>
+     * Accumulated data is no longer stored in a {@link ByteArraySimpleBuilder}, so the result is a
+     * new builder with a copy of all accumulated bytes.  Changes to the result are not visible to
+     * this thread.
+     * 
+     * @throws UncheckedIOException
+     *         if accumulated data was spilled to a file, and the file cannot be read
+     * 
+     * @deprecated Use {@link #getByteArrSegmentedBuilder()} to access accumulated data without
+     *             copies.
      */
+    @Deprecated
     protected ByteArraySimpleBuilder getByteArrBuilder() {
+        synchronized (_byteArrBuilder) {
+            byte[] byteArr = _byteArrBuilder.toArray();
+            ByteArraySimpleBuilder x =
+                new ByteArraySimpleBuilder(Math.max(1, byteArr.length)).append(byteArr);
+            return x;
+        }
+    }
+
+    /**
+     * For subclasses to access members.  The result is a {@link ByteArraySpillableBuilder}.
+     * Synchronize on the result to access it while this thread is running.
+     */
+    protected ByteArraySegmentedBuilder getByteArrSegmentedBuilder() {
         return _byteArrBuilder;
     }
     
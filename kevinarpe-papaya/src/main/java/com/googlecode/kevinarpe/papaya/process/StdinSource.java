@@ -0,0 +1,319 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.annotation.FullyTested;
+import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Source of bytes to write to the STDIN stream of a child process.  Unlike
+ * {@link ProcessBuilder2#stdinData(byte[])} and {@link ProcessBuilder2#stdinText(String)}, bytes
+ * are streamed to the child process with a small, fixed-size buffer.  Thus, a 10 GB file may be
+ * written to STDIN without loading it into memory.
+ * <p>
+ * Writes to STDIN block when the child process does not read quickly enough, so bytes are read
+ * from the source no faster than the child process consumes them (backpressure).
+ * <p>
+ * Create instances via:
+ * <ul>
+ *   <li>{@link #fromInputStream(InputStream)}</li>
+ *   <li>{@link #fromChannel(ReadableByteChannel)}</li>
+ *   <li>{@link #fromFile(File)}</li>
+ *   <li>{@link #fromChunkSupplier(ChunkSupplier)}</li>
+ * </ul>
+ * Sources from streams, channels, and chunk suppliers can only be read once.  If more than one
+ * child process is started from a single {@link ProcessBuilder2}, use {@link #fromFile(File)}.
+ * <p>
+ * Subclasses may implement {@link #writeTo(OutputStream, byte[])} to write other kinds of sources.
+ * 
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ * 
+ * @see ProcessBuilder2#stdinSource(StdinSource)
+ */
+@FullyTested
+public abstract class StdinSource {
+    
+    /**
+     * Pull-based supplier of chunks for {@link #fromChunkSupplier(ChunkSupplier)}.
+     * 
+     * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+     */
+    public static interface ChunkSupplier {
+        
+        /**
+         * Retrieves the next chunk of bytes to write.  This method is called from the STDIN
+         * writer thread only after the previous chunk is written.
+         * 
+         * @return (optional) next chunk.  Bytes from position to limit are written.  If
+         *         {@code null}, there are no more chunks.
+         * 
+         * @throws IOException
+         *         if the next chunk cannot be created
+         */
+        ByteBuffer nextChunk()
+        throws IOException;
+    }
+    
+    /**
+     * Writes all bytes from this source to the STDIN stream of a child process.  Do not close
+     * {@code outputStream}.
+     * 
+     * @param outputStream
+     *        STDIN stream of child process
+     * @param buffer
+     *        reusable buffer with fixed size
+     * 
+     * @return number of bytes written
+     * 
+     * @throws IOException
+     *         if bytes cannot be read from this source, or written to {@code outputStream}
+     */
+    public abstract long writeTo(OutputStream outputStream, byte[] buffer)
+    throws IOException;
+    
+    /**
+     * Creates a source that copies bytes from an {@link InputStream}.  The stream is closed after
+     * all bytes are written.
+     * 
+     * @param inputStream
+     *        source of bytes
+     * 
+     * @return new source
+     * 
+     * @throws NullPointerException
+     *         if {@code inputStream} is {@code null}
+     */
+    public static StdinSource fromInputStream(final InputStream inputStream) {
+        ObjectArgs.checkNotNull(inputStream, "inputStream");
+        
+        StdinSource x = new StdinSource() {
+            
+            @Override
+            public long writeTo(OutputStream outputStream, byte[] buffer)
+            throws IOException {
+                try {
+                    long x = copy(inputStream, outputStream, buffer);
+                    return x;
+                }
+                finally {
+                    inputStream.close();
+                }
+            }
+        };
+        return x;
+    }
+    
+    /**
+     * Creates a source that copies bytes from a {@link ReadableByteChannel}.  If
+     * {@code channel} is a {@link FileChannel}, bytes are copied via
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)} from its current position.
+     * The channel is closed after all bytes are written.
+     * 
+     * @param channel
+     *        source of bytes
+     * 
+     * @return new source
+     * 
+     * @throws NullPointerException
+     *         if {@code channel} is {@code null}
+     */
+    public static StdinSource fromChannel(final ReadableByteChannel channel) {
+        ObjectArgs.checkNotNull(channel, "channel");
+        
+        StdinSource x = new StdinSource() {
+            
+            @Override
+            public long writeTo(OutputStream outputStream, byte[] buffer)
+            throws IOException {
+                try {
+                    long x;
+                    if (channel instanceof FileChannel) {
+                        x = transfer((FileChannel) channel, outputStream);
+                    }
+                    else {
+                        x = copy(channel, outputStream, buffer);
+                    }
+                    return x;
+                }
+                finally {
+                    channel.close();
+                }
+            }
+        };
+        return x;
+    }
+    
+    /**
+     * Creates a source that copies bytes from a file via
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}.  The file is opened each
+     * time {@link #writeTo(OutputStream, byte[])} is called, so this source may be reused to start
+     * many child processes.
+     * <p>
+     * If the file is only written to STDIN of a single child process, consider
+     * {@link ProcessBuilder.Redirect#from(File)} instead, which requires no copy at all.
+     * 
+     * @param path
+     *        path to file
+     * 
+     * @return new source
+     * 
+     * @throws NullPointerException
+     *         if {@code path} is {@code null}
+     */
+    public static StdinSource fromFile(final File path) {
+        ObjectArgs.checkNotNull(path, "path");
+        
+        StdinSource x = new StdinSource() {
+            
+            @Override
+            public long writeTo(OutputStream outputStream, byte[] buffer)
+            throws IOException {
+                FileInputStream fis = new FileInputStream(path);
+                try {
+                    long x = transfer(fis.getChannel(), outputStream);
+                    return x;
+                }
+                finally {
+                    fis.close();
+                }
+            }
+        };
+        return x;
+    }
+    
+    /**
+     * Creates a source that writes chunks from a pull-based supplier.  The next chunk is requested
+     * only after the previous chunk is written, so at most one chunk is held in memory.
+     * 
+     * @param supplier
+     *        source of chunks
+     * 
+     * @return new source
+     * 
+     * @throws NullPointerException
+     *         if {@code supplier} is {@code null}
+     */
+    public static StdinSource fromChunkSupplier(final ChunkSupplier supplier) {
+        ObjectArgs.checkNotNull(supplier, "supplier");
+        
+        StdinSource x = new StdinSource() {
+            
+            @Override
+            public long writeTo(OutputStream outputStream, byte[] buffer)
+            throws IOException {
+                long total = 0;
+                ByteBuffer chunk;
+                while (null != (chunk = supplier.nextChunk())) {
+                    if (chunk.hasArray()) {
+                        int count = chunk.remaining();
+                        outputStream.write(
+                            chunk.array(), chunk.arrayOffset() + chunk.position(), count);
+                        chunk.position(chunk.limit());
+                        total += count;
+                    }
+                    else {
+                        while (chunk.hasRemaining()) {
+                            int count = Math.min(buffer.length, chunk.remaining());
+                            chunk.get(buffer, 0, count);
+                            outputStream.write(buffer, 0, count);
+                            total += count;
+                        }
+                    }
+                }
+                return total;
+            }
+        };
+        return x;
+    }
+    
+    static long copy(InputStream inputStream, OutputStream outputStream, byte[] buffer)
+    throws IOException {
+        long total = 0;
+        int readCount;
+        while (-1 != (readCount = inputStream.read(buffer))) {
+            outputStream.write(buffer, 0, readCount);
+            total += readCount;
+        }
+        return total;
+    }
+    
+    static long copy(ReadableByteChannel channel, OutputStream outputStream, byte[] buffer)
+    throws IOException {
+        ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+        long total = 0;
+        int readCount;
+        while (-1 != (readCount = channel.read(byteBuffer))) {
+            outputStream.write(buffer, 0, readCount);
+            total += readCount;
+            byteBuffer.clear();
+        }
+        return total;
+    }
+    
+    /**
+     * Copies all bytes from the current position of {@code fileChannel} to its end.  If
+     * {@code outputStream} is a {@link FileOutputStream}, the operating system may copy bytes
+     * directly, without a user-space buffer.
+     */
+    static long transfer(FileChannel fileChannel, OutputStream outputStream)
+    throws IOException {
+        // Unbuffered STDIN streams are instances of FileOutputStream.  Else, data in the buffer
+        // must be flushed before bytes are written via a channel.
+        WritableByteChannel target;
+        if (outputStream instanceof FileOutputStream) {
+            target = ((FileOutputStream) outputStream).getChannel();
+        }
+        else {
+            outputStream.flush();
+            target = Channels.newChannel(outputStream);
+        }
+        long position = fileChannel.position();
+        long size = fileChannel.size();
+        long total = 0;
+        while (position + total < size) {
+            long count = fileChannel.transferTo(position + total, size - position - total, target);
+            if (0 == count) {
+                // File was truncated while copying.
+                break;
+            }
+            total += count;
+        }
+        fileChannel.position(position + total);
+        return total;
+    }
+}
@@ -25,6 +25,8 @@ package com.googlecode.kevinarpe.papaya.process;
  * #L%
  */
 
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import com.googlecode.kevinarpe.papaya.AbstractThreadWithException;
@@ -39,7 +41,8 @@ import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
  * process.
  * <p>
  * It is possible to customize the behavior of this class through subclassing and overriding
- * {@link Process2#createWriteOutputStreamThread(OutputStream, byte[])}.
+ * {@link Process2#createWriteOutputStreamThread(OutputStream, byte[])} or
+ * {@link Process2#createWriteOutputStreamThread(OutputStream, StdinSource)}.
  * 
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
  *
@@ -49,8 +52,12 @@ import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 public class WriteOutputStreamThread
 extends AbstractThreadWithException {
     
+    private static final int DEFAULT_BUFFER_BYTE_COUNT = 8192;
+    
     private final OutputStream _outputStream;
-    private final byte[] _byteArr;
+    private final byte[] _optByteArr;
+    private final StdinSource _optSource;
+    private volatile long _writtenByteCount;
 
     /**
      * Constructor.
@@ -70,16 +77,65 @@ extends AbstractThreadWithException {
             OutputStream outputStream,
             byte[] byteArr) {
         _outputStream = ObjectArgs.checkNotNull(outputStream, "outputStream");
-        _byteArr = ObjectArgs.checkNotNull(byteArr, "byteArr");
+        _optByteArr = ObjectArgs.checkNotNull(byteArr, "byteArr");
+        _optSource = null;
+    }
+    
+    /**
+     * Constructor to stream bytes from a source.  Bytes are written with a fixed-size buffer, so
+     * the source may be much larger than available memory.
+     * 
+     * @param outputStream
+     *        handle to STDIN stream from child process
+     * @param source
+     *        source of bytes to write to STDIN stream of child process
+     * 
+     * @throws NullPointerException
+     *         if {@code outputStream} or {@code source} is {@code null}
+     */
+    public WriteOutputStreamThread(
+            OutputStream outputStream,
+            StdinSource source) {
+        _outputStream = ObjectArgs.checkNotNull(outputStream, "outputStream");
+        _optByteArr = null;
+        _optSource = ObjectArgs.checkNotNull(source, "source");
     }
     
     @Override
     public void runWithException()
     throws IOException {
         try {
-            // This is synchronous / blocking.  For massive byte arrays (1 meg +), this will
-            // not be received in a single read by the listening process.
-            _outputStream.write(_byteArr);
+            if (null != _optByteArr) {
+                // This is synchronous / blocking.  For massive byte arrays (1 meg +), this will
+                // not be received in a single read by the listening process.  Write in chunks, so
+                // the count of written bytes is updated during the write.
+                for (int offset = 0; offset < _optByteArr.length; ) {
+                    int len = Math.min(DEFAULT_BUFFER_BYTE_COUNT, _optByteArr.length - offset);
+                    _outputStream.write(_optByteArr, offset, len);
+                    offset += len;
+                    _writtenByteCount = offset;
+                }
+            }
+            else {
+                // Writes block until the child process reads, so the source is never read
+                // faster than the child process consumes.
+                byte[] buffer = new byte[DEFAULT_BUFFER_BYTE_COUNT];
+                if (_outputStream instanceof FileOutputStream) {
+                    // Do not wrap: StdinSource.fromFile() may copy bytes directly via its channel.
+                    long writtenByteCount = _optSource.writeTo(_outputStream, buffer);
+                    _writtenByteCount = writtenByteCount;
+                }
+                else {
+                    _optSource.writeTo(new _CountingOutputStream(_outputStream), buffer);
+                }
+                _outputStream.flush();
+            }
+        }
+        catch (ProcessPipeline.NextStageClosedException e) {
+            // Same as SIGPIPE in a shell pipeline: This is normal, e.g., "head" stops reading early.
+            // Intentionally ignore exception.
+            @SuppressWarnings("unused")
+            int dummy = 1;  // debug breakpoint
         }
         catch (IOException e) {
             throw e;  // debug breakpoint
@@ -96,6 +152,20 @@ extends AbstractThreadWithException {
         }
     }
     
+    /**
+     * Retrieves the number of bytes written to the STDIN stream of the child process.  The count
+     * is updated after each chunk is written, so it may be polled while the child process reads.
+     * (Exception: If the STDIN stream is an unbuffered {@link FileOutputStream} and bytes are
+     * written from a {@link StdinSource}, the count is only updated after all bytes are written.)
+     * This method is thread-safe.
+     * 
+     * @return number of bytes written so far.  If writing failed, the count of bytes written
+     *         before the failure.
+     */
+    public long getWrittenByteCount() {
+        return _writtenByteCount;
+    }
+    
     /**
      * For subclasses to access members.
      */
@@ -105,8 +175,51 @@ extends AbstractThreadWithException {
 
     /**
      * For subclasses to access members.
+     * 
+     * @return may be {@code null} if constructed with a {@link StdinSource}
      */
     protected byte[] getByteArr() {
-        return _byteArr;
+        return _optByteArr;
+    }
+    
+    /**
+     * For subclasses to access members.
+     * 
+     * @return may be {@code null} if constructed with an array of bytes
+     */
+    protected StdinSource getSource() {
+        return _optSource;
+    }
+    
+    /**
+     * Updates {@link #_writtenByteCount} after each write.  Only the writer thread calls write,
+     * so a volatile field is sufficient.
+     */
+    private final class _CountingOutputStream
+    extends FilterOutputStream {
+        
+        private _CountingOutputStream(OutputStream outputStream) {
+            super(outputStream);
+        }
+        
+        @Override
+        public void write(int b)
+        throws IOException {
+            out.write(b);
+            _writtenByteCount = _writtenByteCount + 1;
+        }
+        
+        @Override
+        public void write(byte[] byteArr, int offset, int length)
+        throws IOException {
+            // Do not call super: FilterOutputStream writes one byte at a time.
+            out.write(byteArr, offset, length);
+            _writtenByteCount = _writtenByteCount + length;
+        }
+        
+        @Override
+        public void close() {
+            // Closed by runWithException().
+        }
     }
 }
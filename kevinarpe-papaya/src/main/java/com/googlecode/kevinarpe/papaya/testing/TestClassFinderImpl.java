@@ -34,6 +34,8 @@ import com.googlecode.kevinarpe.papaya.container.Lists2;
 import com.googlecode.kevinarpe.papaya.exception.ClassNotFoundRuntimeException;
 import com.googlecode.kevinarpe.papaya.exception.PathRuntimeException;
 import com.googlecode.kevinarpe.papaya.filesystem.PathFilter;
+import com.googlecode.kevinarpe.papaya.filesystem.PathPatternFilter;
+import com.googlecode.kevinarpe.papaya.filesystem.PathPatternMatch;
 import com.googlecode.kevinarpe.papaya.filesystem.TraversePathDepthPolicy;
 import com.googlecode.kevinarpe.papaya.filesystem.TraversePathIterable;
 import com.googlecode.kevinarpe.papaya.filesystem.TraversePathIterableFactory;
@@ -261,17 +263,53 @@ implements TestClassFinder {
         }
     }
 
+    /**
+     * Literal patterns, e.g., {@code "\\.java$"}, are compiled into a single
+     * {@link PathPatternFilter}, so many patterns are matched in one pass.  Other patterns are
+     * matched one by one.
+     * <p>
+     * {@link PathPatternFilter} requires {@code '/'} as path separator, but patterns match the
+     * platform absolute pathname.  Thus, on platforms where the path separator is not
+     * {@code '/'}, e.g., Windows, all patterns are matched one by one.
+     */
     final class IteratePathFilter
     implements PathFilter {
 
+        private final PathPatternFilter _literalPathPatternFilter;
+        private final List<Pattern> _includeRegexPatternList;
+        private final List<Pattern> _excludeRegexPatternList;
+
+        IteratePathFilter() {
+            this(File.separatorChar);
+        }
+
+        // package-private for testing
+        IteratePathFilter(char separatorChar) {
+            PathPatternFilter.Builder builder = PathPatternFilter.builder();
+            if ('/' == separatorChar) {
+                _includeRegexPatternList =
+                    _addLiteralPatterns(builder, _includeByAbsolutePathPatternList, true);
+                _excludeRegexPatternList =
+                    _addLiteralPatterns(builder, _excludeByAbsolutePathPatternList, false);
+            }
+            else {
+                _includeRegexPatternList = _includeByAbsolutePathPatternList;
+                _excludeRegexPatternList = _excludeByAbsolutePathPatternList;
+            }
+            _literalPathPatternFilter = builder.build();
+        }
+
         @Override
         public boolean accept(File path, int depth) {
             if (!path.isFile()) {
                 return false;
             }
             String absPathname = path.getAbsolutePath();
-            boolean include = _isMatch(absPathname, _includeByAbsolutePathPatternList);
-            boolean exclude = _isMatch(absPathname, _excludeByAbsolutePathPatternList);
+            PathPatternMatch match = _literalPathPatternFilter.match(absPathname);
+            boolean include =
+                match.isInclude() || _isMatch(absPathname, _includeRegexPatternList);
+            boolean exclude =
+                match.isExclude() || _isMatch(absPathname, _excludeRegexPatternList);
             _logIsMatch(absPathname, include, exclude);
             boolean result = include && !exclude;
             return result;
@@ -293,6 +331,131 @@ implements TestClassFinder {
         }
     }
 
+    /**
+     * Adds each pattern that only matches literal text, with optional anchors {@code '^'} and
+     * {@code '$'}, to {@code builder}.
+     *
+     * @return all other patterns
+     */
+    private static List<Pattern> _addLiteralPatterns(
+            PathPatternFilter.Builder builder, List<Pattern> patternList, boolean isInclude) {
+        List<Pattern> regexPatternList = new ArrayList<Pattern>();
+        for (Pattern pattern : patternList) {
+            if (!_tryAddLiteralPattern(builder, pattern, isInclude)) {
+                regexPatternList.add(pattern);
+            }
+        }
+        return regexPatternList;
+    }
+
+    private static boolean _tryAddLiteralPattern(
+            PathPatternFilter.Builder builder, Pattern pattern, boolean isInclude) {
+        if (0 != pattern.flags()) {
+            return false;
+        }
+        final String regex = pattern.pattern();
+        final boolean isBeginAnchored = regex.startsWith("^");
+        final int beginIndex = isBeginAnchored ? 1 : 0;
+        final boolean isEndAnchored =
+            regex.length() > beginIndex
+                && '$' == regex.charAt(regex.length() - 1)
+                && !_isEscaped(regex, regex.length() - 1);
+        final int endIndex = isEndAnchored ? regex.length() - 1 : regex.length();
+        final String optLiteral = _tryUnescapeRegexLiteral(regex, beginIndex, endIndex);
+        if (null == optLiteral || optLiteral.isEmpty()) {
+            return false;
+        }
+        if (isBeginAnchored && isEndAnchored) {
+            String glob = PathPatternFilter.escapeGlob(optLiteral);
+            if (isInclude) {
+                builder.addIncludeGlob(glob);
+            }
+            else {
+                builder.addExcludeGlob(glob);
+            }
+        }
+        else if (isBeginAnchored) {
+            if (isInclude) {
+                builder.addIncludeLiteralPrefix(optLiteral);
+            }
+            else {
+                builder.addExcludeLiteralPrefix(optLiteral);
+            }
+        }
+        else if (isEndAnchored) {
+            if (isInclude) {
+                builder.addIncludeLiteralSuffix(optLiteral);
+            }
+            else {
+                builder.addExcludeLiteralSuffix(optLiteral);
+            }
+        }
+        else {
+            // Same as Matcher.find(): Match anywhere.
+            String glob = "**" + PathPatternFilter.escapeGlob(optLiteral) + "**";
+            if (isInclude) {
+                builder.addIncludeGlob(glob);
+            }
+            else {
+                builder.addExcludeGlob(glob);
+            }
+        }
+        return true;
+    }
+
+    private static boolean _isEscaped(String regex, int index) {
+        int backslashCount = 0;
+        for (int i = index - 1; i >= 0 && '\\' == regex.charAt(i); --i) {
+            ++backslashCount;
+        }
+        boolean x = (1 == backslashCount % 2);
+        return x;
+    }
+
+    /**
+     * @return literal text matched by {@code regex}, or {@code null} if any regex syntax is used,
+     *         except escapes for special chars, e.g., {@code "\\."}, and quotes, e.g.,
+     *         {@code "\\Q...\\E"}
+     */
+    private static String _tryUnescapeRegexLiteral(String regex, int beginIndex, int endIndex) {
+        StringBuilder sb = new StringBuilder(endIndex - beginIndex);
+        for (int i = beginIndex; i < endIndex; ++i) {
+            final char ch = regex.charAt(i);
+            if ('\\' == ch) {
+                if (1 + i == endIndex) {
+                    return null;
+                }
+                final char nextCh = regex.charAt(1 + i);
+                if ('Q' == nextCh) {
+                    final int quoteEndIndex = regex.indexOf("\\E", 2 + i);
+                    if (-1 == quoteEndIndex || 2 + quoteEndIndex > endIndex) {
+                        return null;
+                    }
+                    sb.append(regex, 2 + i, quoteEndIndex);
+                    i = 1 + quoteEndIndex;
+                }
+                // Escaped letters and digits are char classes, back references, etc.
+                else if (Character.isLetterOrDigit(nextCh)) {
+                    return null;
+                }
+                else {
+                    sb.append(nextCh);
+                    ++i;
+                }
+            }
+            else if (-1 != REGEX_SPECIAL_CHARS.indexOf(ch)) {
+                return null;
+            }
+            else {
+                sb.append(ch);
+            }
+        }
+        String x = sb.toString();
+        return x;
+    }
+
+    private static final String REGEX_SPECIAL_CHARS = ".[]{}()*+?|^$";
+
     private static boolean _isMatch(String pathname, List<Pattern> patternList) {
         for (Pattern pattern : patternList) {
             if (pattern.matcher(pathname).find()) {
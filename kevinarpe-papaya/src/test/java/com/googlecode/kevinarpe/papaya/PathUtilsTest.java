@@ -36,7 +36,11 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
 import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -882,6 +886,407 @@ public class PathUtilsTest {
         }
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // PathUtils.removeDirectoryTree
+    //
+
+    /**
+     * Creates a tree with nested directories, one directory larger than
+     * {@link AbstractPathTreeTask#FILE_BATCH_SIZE}, and a symbolic link to an outside directory.
+     */
+    private static void _createTree(File dirPath, File outsideDirPath)
+    throws IOException {
+        Files.createDirectories(new File(dirPath, "a/b/c").toPath());
+        Files.write(new File(dirPath, "file0").toPath(), new byte[] { 1, 2, 3 });
+        Files.write(new File(dirPath, "a/file1").toPath(), new byte[] { 4, 5 });
+        Files.write(new File(dirPath, "a/b/c/file2").toPath(), new byte[0]);
+        File bigDirPath = new File(dirPath, "big");
+        bigDirPath.mkdir();
+        for (int i = 0; i < 3 * AbstractPathTreeTask.FILE_BATCH_SIZE + 1; ++i) {
+            Files.write(new File(bigDirPath, "file" + i).toPath(), new byte[] { (byte) i });
+        }
+        Files.createSymbolicLink(new File(dirPath, "a/link").toPath(), outsideDirPath.toPath());
+    }
+
+    @Test
+    public void removeDirectoryTree_Pass()
+    throws IOException {
+        _removeDirectoryTree_Pass(0);
+        _removeDirectoryTree_Pass(1);
+        _removeDirectoryTree_Pass(2);
+    }
+
+    private void _removeDirectoryTree_Pass(int overload)
+    throws IOException {
+        File tmpDirPath = Files.createTempDirectory("removeDirectoryTree_Pass_").toFile();
+        File outsideDirPath = new File(tmpDirPath, "outside");
+        File outsideFilePath = new File(outsideDirPath, "file");
+        File path = new File(tmpDirPath, "tree");
+        try {
+            outsideDirPath.mkdir();
+            outsideFilePath.createNewFile();
+            _createTree(path, outsideDirPath);
+            if (0 == overload) {
+                PathUtils.removeDirectoryTree(path.toString());
+            }
+            else if (1 == overload) {
+                PathUtils.removeDirectoryTree(path);
+            }
+            else {
+                ForkJoinPool pool = new ForkJoinPool(2);
+                try {
+                    PathUtils.removeDirectoryTree(path, pool);
+                }
+                finally {
+                    pool.shutdown();
+                }
+            }
+            Assert.assertFalse(path.exists());
+            // Symbolic links are never followed.
+            Assert.assertTrue(outsideFilePath.isFile());
+        }
+        finally {
+            PathUtils.removeDirectoryTree(tmpDirPath);
+        }
+    }
+
+    @Test
+    public void removeDirectoryTree_PassWithDirNotExists()
+    throws PathException {
+        File path =
+            new File("removeDirectoryTree_PassWithDirNotExists_" + UUID.randomUUID().toString());
+        Assert.assertFalse(path.exists());
+        PathUtils.removeDirectoryTree(path);
+        PathUtils.removeDirectoryTree(path.toString());
+    }
+
+    @Test
+    public void removeDirectoryTree_PassWithSymbolicLink()
+    throws IOException {
+        File tmpDirPath =
+            Files.createTempDirectory("removeDirectoryTree_PassWithSymbolicLink_").toFile();
+        File outsideDirPath = new File(tmpDirPath, "outside");
+        File outsideFilePath = new File(outsideDirPath, "file");
+        File linkPath = new File(tmpDirPath, "link");
+        try {
+            outsideDirPath.mkdir();
+            outsideFilePath.createNewFile();
+            Files.createSymbolicLink(linkPath.toPath(), outsideDirPath.toPath());
+            PathUtils.removeDirectoryTree(linkPath);
+            Assert.assertFalse(Files.exists(linkPath.toPath(), LinkOption.NOFOLLOW_LINKS));
+            Assert.assertTrue(outsideFilePath.isFile());
+        }
+        finally {
+            PathUtils.removeDirectoryTree(tmpDirPath);
+        }
+    }
+
+    @Test
+    public void removeDirectoryTree_FailWithFileExists()
+    throws IOException {
+        File path =
+            new File("removeDirectoryTree_FailWithFileExists_" + UUID.randomUUID().toString());
+        path.createNewFile();
+        try {
+            PathUtils.removeDirectoryTree(path);
+            Assert.fail();
+        }
+        catch (PathException e) {
+            PathExceptionTest.assertPathExceptionEquals(
+                e,
+                new PathException(
+                    PathExceptionReason.PATH_IS_NORMAL_FILE,
+                    path,
+                    null,
+                    "dummy"));
+        }
+        finally {
+            path.delete();
+        }
+    }
+
+    @Test
+    public void removeDirectoryTree_FailWithRootDir() {
+        File path = new File(_convertPath("/"));
+        try {
+            PathUtils.removeDirectoryTree(path);
+            Assert.fail();
+        }
+        catch (PathException e) {
+            PathExceptionTest.assertPathExceptionEquals(
+                e,
+                new PathException(
+                    PathExceptionReason.PATH_IS_ROOT_DIRECTORY,
+                    path,
+                    null,
+                    "dummy"));
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void removeDirectoryTree_FailWithNullPath()
+    throws PathException {
+        PathUtils.removeDirectoryTree((File) null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void removeDirectoryTree_FailWithNullPathname()
+    throws PathException {
+        PathUtils.removeDirectoryTree((String) null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void removeDirectoryTree_FailWithEmptyPathname()
+    throws PathException {
+        PathUtils.removeDirectoryTree("");
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void removeDirectoryTree_FailWithNullForkJoinPool()
+    throws PathException {
+        PathUtils.removeDirectoryTree(new File("."), null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // PathUtils.copyDirectoryTree
+    //
+
+    @Test
+    public void copyDirectoryTree_Pass()
+    throws IOException {
+        _copyDirectoryTree_Pass(0);
+        _copyDirectoryTree_Pass(1);
+        _copyDirectoryTree_Pass(2);
+    }
+
+    private void _copyDirectoryTree_Pass(int overload)
+    throws IOException {
+        File tmpDirPath = Files.createTempDirectory("copyDirectoryTree_Pass_").toFile();
+        File outsideDirPath = new File(tmpDirPath, "outside");
+        File srcPath = new File(tmpDirPath, "src");
+        File destPath = new File(tmpDirPath, "dest");
+        try {
+            outsideDirPath.mkdir();
+            new File(outsideDirPath, "file").createNewFile();
+            _createTree(srcPath, outsideDirPath);
+            final long lastModified = 1234567890000L;
+            new File(srcPath, "a/file1").setLastModified(lastModified);
+            new File(srcPath, "a/b").setLastModified(lastModified);
+            if (0 == overload) {
+                PathUtils.copyDirectoryTree(srcPath.toString(), destPath.toString());
+            }
+            else if (1 == overload) {
+                PathUtils.copyDirectoryTree(srcPath, destPath);
+            }
+            else {
+                ForkJoinPool pool = new ForkJoinPool(2);
+                try {
+                    PathUtils.copyDirectoryTree(srcPath, destPath, pool);
+                }
+                finally {
+                    pool.shutdown();
+                }
+            }
+            Assert.assertEquals(
+                Files.readAllBytes(new File(destPath, "file0").toPath()), new byte[] { 1, 2, 3 });
+            Assert.assertEquals(
+                Files.readAllBytes(new File(destPath, "a/file1").toPath()), new byte[] { 4, 5 });
+            Assert.assertEquals(new File(destPath, "a/b/c/file2").length(), 0L);
+            Assert.assertEquals(
+                new File(destPath, "big").list().length,
+                3 * AbstractPathTreeTask.FILE_BATCH_SIZE + 1);
+            Assert.assertEquals(
+                Files.readAllBytes(new File(destPath, "big/file7").toPath()), new byte[] { 7 });
+            Assert.assertEquals(new File(destPath, "a/file1").lastModified(), lastModified);
+            Assert.assertEquals(new File(destPath, "a/b").lastModified(), lastModified);
+            // Symbolic links are copied as links.
+            Path destLinkPath = new File(destPath, "a/link").toPath();
+            Assert.assertTrue(Files.isSymbolicLink(destLinkPath));
+            Assert.assertEquals(Files.readSymbolicLink(destLinkPath), outsideDirPath.toPath());
+        }
+        finally {
+            PathUtils.removeDirectoryTree(tmpDirPath);
+        }
+    }
+
+    @Test
+    public void copyDirectoryTree_FailWithDestFilesExist()
+    throws IOException {
+        File tmpDirPath =
+            Files.createTempDirectory("copyDirectoryTree_FailWithDestFilesExist_").toFile();
+        File srcPath = new File(tmpDirPath, "src");
+        File destPath = new File(tmpDirPath, "dest");
+        try {
+            Files.createDirectories(new File(srcPath, "a").toPath());
+            Files.write(new File(srcPath, "file0").toPath(), new byte[] { 1 });
+            Files.write(new File(srcPath, "file1").toPath(), new byte[] { 2 });
+            Files.write(new File(srcPath, "a/file2").toPath(), new byte[] { 3 });
+            Files.createDirectories(new File(destPath, "a/file2").toPath());
+            Files.write(new File(destPath, "file0").toPath(), new byte[] { 9 });
+            try {
+                PathUtils.copyDirectoryTree(srcPath, destPath);
+                Assert.fail();
+            }
+            catch (PathException e) {
+                // Failures are sorted by path.
+                PathExceptionTest.assertPathExceptionEquals(
+                    e,
+                    new PathException(
+                        PathExceptionReason.PATH_IS_DIRECTORY,
+                        new File(destPath, "a/file2"),
+                        null,
+                        "dummy"));
+                Assert.assertEquals(e.getSuppressed().length, 1);
+                PathExceptionTest.assertPathExceptionEquals(
+                    (PathException) e.getSuppressed()[0],
+                    new PathException(
+                        PathExceptionReason.PATH_IS_NORMAL_FILE,
+                        new File(destPath, "file0"),
+                        null,
+                        "dummy"));
+            }
+            // Existing files are never replaced, but other files are copied.
+            Assert.assertEquals(
+                Files.readAllBytes(new File(destPath, "file0").toPath()), new byte[] { 9 });
+            Assert.assertEquals(
+                Files.readAllBytes(new File(destPath, "file1").toPath()), new byte[] { 2 });
+        }
+        finally {
+            PathUtils.removeDirectoryTree(tmpDirPath);
+        }
+    }
+
+    @Test
+    public void copyDirectoryTree_FailWithSrcNotExists() {
+        File srcPath =
+            new File("copyDirectoryTree_FailWithSrcNotExists_" + UUID.randomUUID().toString());
+        File destPath = new File(srcPath.getPath() + "_dest");
+        try {
+            PathUtils.copyDirectoryTree(srcPath, destPath);
+            Assert.fail();
+        }
+        catch (PathException e) {
+            PathExceptionTest.assertPathExceptionEquals(
+                e,
+                new PathException(
+                    PathExceptionReason.PATH_DOES_NOT_EXIST,
+                    srcPath,
+                    null,
+                    "dummy"));
+        }
+        Assert.assertFalse(destPath.exists());
+    }
+
+    @Test
+    public void copyDirectoryTree_FailWithSrcFileExists()
+    throws IOException {
+        File srcPath =
+            new File("copyDirectoryTree_FailWithSrcFileExists_" + UUID.randomUUID().toString());
+        File destPath = new File(srcPath.getPath() + "_dest");
+        srcPath.createNewFile();
+        try {
+            PathUtils.copyDirectoryTree(srcPath, destPath);
+            Assert.fail();
+        }
+        catch (PathException e) {
+            PathExceptionTest.assertPathExceptionEquals(
+                e,
+                new PathException(
+                    PathExceptionReason.PATH_IS_NORMAL_FILE,
+                    srcPath,
+                    null,
+                    "dummy"));
+        }
+        finally {
+            srcPath.delete();
+        }
+        Assert.assertFalse(destPath.exists());
+    }
+
+    @Test
+    public void copyDirectoryTree_FailWithDestFileExists()
+    throws IOException {
+        File tmpDirPath =
+            Files.createTempDirectory("copyDirectoryTree_FailWithDestFileExists_").toFile();
+        File srcPath = new File(tmpDirPath, "src");
+        File destPath = new File(tmpDirPath, "dest");
+        try {
+            srcPath.mkdir();
+            destPath.createNewFile();
+            PathUtils.copyDirectoryTree(srcPath, destPath);
+            Assert.fail();
+        }
+        catch (PathException e) {
+            PathExceptionTest.assertPathExceptionEquals(
+                e,
+                new PathException(
+                    PathExceptionReason.PATH_IS_NORMAL_FILE,
+                    destPath,
+                    null,
+                    "dummy"));
+        }
+        finally {
+            PathUtils.removeDirectoryTree(tmpDirPath);
+        }
+    }
+
+    @Test
+    public void copyDirectoryTree_FailWithDestInsideSrc()
+    throws IOException {
+        File tmpDirPath =
+            Files.createTempDirectory("copyDirectoryTree_FailWithDestInsideSrc_").toFile();
+        try {
+            try {
+                PathUtils.copyDirectoryTree(tmpDirPath, new File(tmpDirPath, "dest"));
+                Assert.fail();
+            }
+            catch (IllegalArgumentException ignore) {
+                // Expected
+            }
+            try {
+                PathUtils.copyDirectoryTree(tmpDirPath, tmpDirPath);
+                Assert.fail();
+            }
+            catch (IllegalArgumentException ignore) {
+                // Expected
+            }
+            Assert.assertEquals(tmpDirPath.list().length, 0);
+        }
+        finally {
+            PathUtils.removeDirectoryTree(tmpDirPath);
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyDirectoryTree_FailWithNullSrcPath()
+    throws PathException {
+        PathUtils.copyDirectoryTree(null, new File("dest"));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyDirectoryTree_FailWithNullDestPath()
+    throws PathException {
+        PathUtils.copyDirectoryTree(new File("src"), null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyDirectoryTree_FailWithNullForkJoinPool()
+    throws PathException {
+        PathUtils.copyDirectoryTree(new File("src"), new File("dest"), null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void copyDirectoryTree_FailWithEmptySrcPathname()
+    throws PathException {
+        PathUtils.copyDirectoryTree("", "dest");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void copyDirectoryTree_FailWithEmptyDestPathname()
+    throws PathException {
+        PathUtils.copyDirectoryTree("src", "");
+    }
+
     // TODO: Reserve for next release
 //    ///////////////////////////////////////////////////////////////////////////
 //    // PathUtils.recursiveListFilePaths
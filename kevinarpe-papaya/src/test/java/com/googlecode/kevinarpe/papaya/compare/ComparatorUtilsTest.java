@@ -31,8 +31,12 @@ import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 
 /**
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -126,4 +130,162 @@ public class ComparatorUtilsTest {
     public void chain_FailWithEmptyCollection() {
         ComparatorUtils.chain(ImmutableList.<Comparator<Object>>of());
     }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ComparatorUtils.sortWithPrecomputedKeys()
+    //
+
+    private static final class _Item {
+
+        private final long key;
+        private final int originalIndex;
+
+        private _Item(long key, int originalIndex) {
+            this.key = key;
+            this.originalIndex = originalIndex;
+        }
+
+        @Override
+        public String toString() {
+            return key + "@" + originalIndex;
+        }
+    }
+
+    private static final class _ItemLongKeyComparator
+    implements LongKeyComparator<_Item> {
+
+        private int keyCount = 0;
+
+        @Override
+        public long getLongSortKey(_Item value) {
+            ++keyCount;
+            return value.key;
+        }
+
+        @Override
+        public int compare(_Item left, _Item right) {
+            return Long.compare(left.key, right.key);
+        }
+    }
+
+    private static final class _ItemKeyComparator
+    implements KeyComparator<_Item, String> {
+
+        private int keyCount = 0;
+
+        @Override
+        public String getSortKey(_Item value) {
+            ++keyCount;
+            return String.format("%05d", value.key);
+        }
+
+        @Override
+        public int compareSortKeys(String key1, String key2) {
+            return key1.compareTo(key2);
+        }
+
+        @Override
+        public int compare(_Item left, _Item right) {
+            return compareSortKeys(getSortKey(left), getSortKey(right));
+        }
+    }
+
+    private static List<_Item> _newRandomItemList(int size) {
+        Random random = new Random(size);
+        List<_Item> itemList = new ArrayList<_Item>(size);
+        for (int i = 0; i < size; ++i) {
+            // Few distinct keys: many ties to test stability.
+            itemList.add(new _Item(random.nextInt(1 + size / 4), i));
+        }
+        return itemList;
+    }
+
+    @DataProvider
+    private static Object[][] _sortWithPrecomputedKeys_Pass_Data() {
+        return new Object[][] {
+            { 0 },
+            { 1 },
+            { 2 },
+            { 3 },
+            { 17 },
+            { 64 },
+            { 1000 },
+            { 4097 },
+        };
+    }
+
+    @Test(dataProvider = "_sortWithPrecomputedKeys_Pass_Data")
+    public void sortWithPrecomputedKeys_PassWithLongKeyComparator(int size) {
+        List<_Item> itemList = _newRandomItemList(size);
+        _ItemLongKeyComparator comparator = new _ItemLongKeyComparator();
+        List<_Item> linkedItemList = new LinkedList<_Item>(itemList);
+        List<_Item> expectedList = new ArrayList<_Item>(itemList);
+        Collections.sort(expectedList, comparator);
+
+        ComparatorUtils.sortWithPrecomputedKeys(itemList, comparator);
+        Assert.assertEquals(itemList, expectedList);
+        Assert.assertEquals(comparator.keyCount, (size < 2) ? 0 : size);
+
+        ComparatorUtils.sortWithPrecomputedKeys(linkedItemList, comparator);
+        Assert.assertEquals(linkedItemList, expectedList);
+    }
+
+    @Test(dataProvider = "_sortWithPrecomputedKeys_Pass_Data")
+    public void sortWithPrecomputedKeys_PassWithReverseLongKeyComparator(int size) {
+        List<_Item> itemList = _newRandomItemList(size);
+        Comparator<_Item> comparator = ReverseComparator.of(
+            (Comparator<_Item>) new _ItemLongKeyComparator());
+        List<_Item> expectedList = new ArrayList<_Item>(itemList);
+        Collections.sort(expectedList, comparator);
+
+        ComparatorUtils.sortWithPrecomputedKeys(itemList, comparator);
+        Assert.assertEquals(itemList, expectedList);
+    }
+
+    @Test(dataProvider = "_sortWithPrecomputedKeys_Pass_Data")
+    public void sortWithPrecomputedKeys_PassWithKeyComparator(int size) {
+        List<_Item> itemList = _newRandomItemList(size);
+        _ItemKeyComparator comparator = new _ItemKeyComparator();
+        List<_Item> expectedList = new ArrayList<_Item>(itemList);
+        Collections.sort(expectedList, comparator);
+        comparator.keyCount = 0;
+
+        ComparatorUtils.sortWithPrecomputedKeys(itemList, comparator);
+        Assert.assertEquals(itemList, expectedList);
+        Assert.assertEquals(comparator.keyCount, (size < 2) ? 0 : size);
+
+        List<_Item> reverseItemList = _newRandomItemList(size);
+        Comparator<_Item> reverseComparator =
+            ReverseComparator.of((Comparator<_Item>) new _ItemKeyComparator());
+        List<_Item> reverseExpectedList = new ArrayList<_Item>(reverseItemList);
+        Collections.sort(reverseExpectedList, reverseComparator);
+        ComparatorUtils.sortWithPrecomputedKeys(reverseItemList, reverseComparator);
+        Assert.assertEquals(reverseItemList, reverseExpectedList);
+    }
+
+    @Test(dataProvider = "_sortWithPrecomputedKeys_Pass_Data")
+    public void sortWithPrecomputedKeys_PassWithPlainComparator(int size) {
+        List<_Item> itemList = _newRandomItemList(size);
+        Comparator<_Item> comparator = new Comparator<_Item>() {
+            @Override
+            public int compare(_Item left, _Item right) {
+                return Long.compare(right.key, left.key);
+            }
+        };
+        List<_Item> expectedList = new ArrayList<_Item>(itemList);
+        Collections.sort(expectedList, comparator);
+
+        ComparatorUtils.sortWithPrecomputedKeys(itemList, comparator);
+        Assert.assertEquals(itemList, expectedList);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void sortWithPrecomputedKeys_FailWithNullList() {
+        ComparatorUtils.sortWithPrecomputedKeys((List<_Item>) null, new _ItemLongKeyComparator());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void sortWithPrecomputedKeys_FailWithNullComparator() {
+        ComparatorUtils.sortWithPrecomputedKeys(new ArrayList<_Item>(), (Comparator<_Item>) null);
+    }
 }
@@ -0,0 +1,217 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Shared tests for {@link EnumLongAdderMap} and {@link EnumDoubleAdderMap}.  Values are passed as {@code int} and
+ * widened by each subclass.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public abstract class AbstractEnumPrimitiveAdderMapTestBase<TMap extends _AbstractEnumPrimitiveMap<?>> {
+
+    protected enum _EmptyEnum {}
+
+    protected enum _Enum { _1, _2, _3 }
+
+    /** Call static method {@code create()}. */
+    protected abstract <TEnumKey extends Enum<TEnumKey>>
+    _AbstractEnumPrimitiveMap<TEnumKey>
+    create(Class<TEnumKey> enumClass);
+
+    /** Call static method {@code create()} with {@link _Enum}. */
+    protected abstract TMap
+    newMap();
+
+    protected abstract void
+    add(TMap map, _Enum key, int delta);
+
+    protected abstract Number
+    sum(TMap map, _Enum key);
+
+    protected abstract Number
+    sumThenReset(TMap map, _Enum key);
+
+    protected abstract Number
+    sum(TMap map);
+
+    protected abstract void
+    reset(TMap map);
+
+    protected abstract void
+    forEach(TMap map, BiConsumer<_Enum, Object> action);
+
+    protected abstract Object
+    toImmutable(TMap map);
+
+    protected abstract Object
+    toImmutableThenReset(TMap map);
+
+    /** Call static method {@code ofKeys()} of the matching immutable class with {@link _Enum}. */
+    protected abstract Object
+    immutableOfKeys(ToIntFunction<_Enum> func);
+
+    /** Format {@code value} as the map would, e.g., {@code "1"} or {@code "1.0"}. */
+    protected abstract String
+    valueToString(int value);
+
+    protected static void
+    assertValueEquals(Number actual, int expected) {
+
+        Assert.assertEquals(actual.doubleValue(), (double) expected);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // create()
+    //
+
+    @Test
+    public void create_Pass() {
+
+        final _AbstractEnumPrimitiveMap<_Enum> map = create(_Enum.class);
+        final String zero = valueToString(0);
+
+        Assert.assertSame(map.getEnumClass(), _Enum.class);
+        Assert.assertEquals(map.size(), 3);
+        Assert.assertEquals(map.toString(), "{_1=" + zero + ", _2=" + zero + ", _3=" + zero + "}");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void create_FailWhenEmptyEnum() {
+
+        create(_EmptyEnum.class);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // add()/sum()
+    //
+
+    @Test
+    public void add_Pass() {
+
+        final TMap map = newMap();
+        add(map, _Enum._1, 5);
+        add(map, _Enum._1, 1);
+        add(map, _Enum._2, -1);
+
+        assertValueEquals(sum(map, _Enum._1), 6);
+        assertValueEquals(sum(map, _Enum._2), -1);
+        assertValueEquals(sum(map, _Enum._3), 0);
+        assertValueEquals(sum(map), 5);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void add_FailWhenKeyIsNull() {
+
+        add(newMap(), null, 1);
+    }
+
+    @Test
+    public void add_PassWhenConcurrent() {
+
+        final TMap map = newMap();
+        final int count = 10_000;
+        IntStream.range(0, count).parallel().forEach(i -> add(map, _Enum.values()[i % 3], 1));
+
+        assertValueEquals(sum(map), count);
+        assertValueEquals(sum(map, _Enum._1), 3334);
+        assertValueEquals(sum(map, _Enum._2), 3333);
+        assertValueEquals(sum(map, _Enum._3), 3333);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // sumThenReset()/reset()
+    //
+
+    @Test
+    public void sumThenReset_Pass() {
+
+        final TMap map = newMap();
+        add(map, _Enum._3, 7);
+
+        assertValueEquals(sumThenReset(map, _Enum._3), 7);
+        assertValueEquals(sum(map, _Enum._3), 0);
+    }
+
+    @Test
+    public void reset_Pass() {
+
+        final TMap map = newMap();
+        add(map, _Enum._1, 1);
+        add(map, _Enum._3, 3);
+        reset(map);
+
+        assertValueEquals(sum(map), 0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // forEach()/toImmutable()/toImmutableThenReset()
+    //
+
+    @Test
+    public void forEach_Pass() {
+
+        final TMap map = newMap();
+        add(map, _Enum._2, 2);
+        final List<String> list = new ArrayList<>();
+        forEach(map, (key, value) -> list.add(key + "=" + value));
+
+        Assert.assertEquals(list,
+            ImmutableList.of("_1=" + valueToString(0), "_2=" + valueToString(2), "_3=" + valueToString(0)));
+    }
+
+    @Test
+    public void toImmutable_Pass() {
+
+        final TMap map = newMap();
+        add(map, _Enum._2, 2);
+        final Object map2 = toImmutable(map);
+
+        Assert.assertEquals(map2, immutableOfKeys(e -> _Enum._2 == e ? 2 : 0));
+        assertValueEquals(sum(map, _Enum._2), 2);
+    }
+
+    @Test
+    public void toImmutableThenReset_Pass() {
+
+        final TMap map = newMap();
+        add(map, _Enum._2, 2);
+        final Object map2 = toImmutableThenReset(map);
+
+        Assert.assertEquals(map2, immutableOfKeys(e -> _Enum._2 == e ? 2 : 0));
+        assertValueEquals(sum(map), 0);
+    }
+}
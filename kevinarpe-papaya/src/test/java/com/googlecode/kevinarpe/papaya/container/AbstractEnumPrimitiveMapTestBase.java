@@ -0,0 +1,281 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+import java.util.stream.IntStream;
+
+/**
+ * Shared tests for {@link EnumIntMap}, {@link EnumLongMap}, and {@link EnumDoubleMap}.  Values are passed as
+ * {@code int} and widened by each subclass, so only type-specific behaviour (overflow, NaN, etc.) remains in
+ * the subclasses.
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public abstract class AbstractEnumPrimitiveMapTestBase<TMap extends _AbstractEnumPrimitiveMap<?>> {
+
+    protected enum _EmptyEnum {}
+
+    protected enum _Enum { _1, _2, _3 }
+
+    /** Call static method {@code create()}. */
+    protected abstract <TEnumKey extends Enum<TEnumKey>>
+    _AbstractEnumPrimitiveMap<TEnumKey>
+    create(Class<TEnumKey> enumClass);
+
+    /** Call static method {@code create()} with {@link _Enum}. */
+    protected abstract TMap
+    newMap();
+
+    /** Call static method {@code ofKeys()} with {@link _Enum}.  If {@code func} is null, pass null. */
+    protected abstract TMap
+    ofKeys(ToIntFunction<_Enum> func);
+
+    /** Call static method {@code copyOf()} with {@link _Enum}. */
+    protected abstract TMap
+    copyOf(Map<_Enum, Integer> map);
+
+    protected abstract Number
+    get(TMap map, _Enum key);
+
+    protected abstract void
+    set(TMap map, _Enum key, int value);
+
+    protected abstract Number
+    getAndSet(TMap map, _Enum key, int value);
+
+    protected abstract boolean
+    compareAndSet(TMap map, _Enum key, int expectedValue, int newValue);
+
+    protected abstract Number
+    getAndAdd(TMap map, _Enum key, int delta);
+
+    protected abstract Number
+    addAndGet(TMap map, _Enum key, int delta);
+
+    protected abstract void
+    setAll(TMap map, int value);
+
+    /** If {@code action} is null, pass null. */
+    protected abstract void
+    forEach(TMap map, BiConsumer<_Enum, Object> action);
+
+    protected abstract Number
+    sum(TMap map);
+
+    protected abstract Object
+    toImmutable(TMap map);
+
+    /** Call static method {@code ofKeys()} of the matching immutable class with {@link _Enum}. */
+    protected abstract Object
+    immutableOfKeys(ToIntFunction<_Enum> func);
+
+    /** Format {@code value} as the map would, e.g., {@code "1"} or {@code "1.0"}. */
+    protected abstract String
+    valueToString(int value);
+
+    protected static void
+    assertValueEquals(Number actual, int expected) {
+
+        Assert.assertEquals(actual.doubleValue(), (double) expected);
+    }
+
+    private String
+    _toString(int value1, int value2, int value3) {
+
+        return "{_1=" + valueToString(value1) + ", _2=" + valueToString(value2) + ", _3=" + valueToString(value3) + "}";
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // create()/ofKeys()/copyOf()
+    //
+
+    @Test
+    public void create_Pass() {
+
+        final _AbstractEnumPrimitiveMap<_Enum> map = create(_Enum.class);
+
+        Assert.assertSame(map.getEnumClass(), _Enum.class);
+        Assert.assertEquals(map.size(), 3);
+        Assert.assertEquals(map.toString(), _toString(0, 0, 0));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void create_FailWhenEnumClassIsNull() {
+
+        create((Class<_Enum>) null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void create_FailWhenEmptyEnum() {
+
+        create(_EmptyEnum.class);
+    }
+
+    @Test
+    public void ofKeys_Pass() {
+
+        final TMap map = ofKeys(e -> 1 + e.ordinal());
+
+        Assert.assertEquals(map.toString(), _toString(1, 2, 3));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWhenFuncIsNull() {
+
+        ofKeys(null);
+    }
+
+    @Test
+    public void copyOf_Pass() {
+
+        final TMap map = copyOf(ImmutableMap.of(_Enum._3, 3, _Enum._1, 1, _Enum._2, 2));
+
+        Assert.assertEquals(map.toString(), _toString(1, 2, 3));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void copyOf_FailWhenMissingKey() {
+
+        copyOf(ImmutableMap.of(_Enum._3, 3));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // get()/set()/getAndSet()/compareAndSet()
+    //
+
+    @Test
+    public void getAndSet_Pass() {
+
+        final TMap map = newMap();
+        set(map, _Enum._2, 5);
+
+        assertValueEquals(get(map, _Enum._2), 5);
+        assertValueEquals(getAndSet(map, _Enum._2, 7), 5);
+        assertValueEquals(get(map, _Enum._2), 7);
+        assertValueEquals(get(map, _Enum._1), 0);
+    }
+
+    @Test
+    public void compareAndSet_Pass() {
+
+        final TMap map = newMap();
+
+        Assert.assertFalse(compareAndSet(map, _Enum._3, 1, 2));
+        assertValueEquals(get(map, _Enum._3), 0);
+        Assert.assertTrue(compareAndSet(map, _Enum._3, 0, 2));
+        assertValueEquals(get(map, _Enum._3), 2);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void get_FailWhenKeyIsNull() {
+
+        get(newMap(), null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void set_FailWhenKeyIsNull() {
+
+        set(newMap(), null, 1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // getAndAdd()/addAndGet()
+    //
+
+    @Test
+    public void add_Pass() {
+
+        final TMap map = newMap();
+
+        assertValueEquals(getAndAdd(map, _Enum._1, 3), 0);
+        assertValueEquals(addAndGet(map, _Enum._1, 3), 6);
+        assertValueEquals(addAndGet(map, _Enum._2, -1), -1);
+    }
+
+    @Test
+    public void addAndGet_PassWhenConcurrent() {
+
+        final TMap map = newMap();
+        final int count = 10_000;
+        IntStream.range(0, count).parallel().forEach(i -> addAndGet(map, _Enum.values()[i % 3], 1));
+
+        assertValueEquals(sum(map), count);
+        assertValueEquals(get(map, _Enum._1), 3334);
+        assertValueEquals(get(map, _Enum._2), 3333);
+        assertValueEquals(get(map, _Enum._3), 3333);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // setAll()/forEach()/sum()/toImmutable()
+    //
+
+    @Test
+    public void setAll_Pass() {
+
+        final TMap map = ofKeys(e -> 1 + e.ordinal());
+        setAll(map, -1);
+
+        Assert.assertEquals(map.toString(), _toString(-1, -1, -1));
+        assertValueEquals(sum(map), -3);
+    }
+
+    @Test
+    public void forEach_Pass() {
+
+        final TMap map = ofKeys(e -> 1 + e.ordinal());
+        final List<String> list = new ArrayList<>();
+        forEach(map, (key, value) -> list.add(key + "=" + value));
+
+        Assert.assertEquals(list,
+            ImmutableList.of("_1=" + valueToString(1), "_2=" + valueToString(2), "_3=" + valueToString(3)));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void forEach_FailWhenActionIsNull() {
+
+        forEach(newMap(), null);
+    }
+
+    @Test
+    public void toImmutable_Pass() {
+
+        final TMap map = ofKeys(e -> 1 + e.ordinal());
+        final Object map2 = toImmutable(map);
+        set(map, _Enum._1, 99);
+
+        Assert.assertEquals(map2, immutableOfKeys(e -> 1 + e.ordinal()));
+    }
+}
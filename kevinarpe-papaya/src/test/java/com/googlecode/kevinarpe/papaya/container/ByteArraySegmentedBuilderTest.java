@@ -0,0 +1,308 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public final class ByteArraySegmentedBuilderTest {
+    
+    private static byte[] _newByteArr(int length) {
+        byte[] x = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            x[i] = (byte) (i * 31);
+        }
+        return x;
+    }
+    
+    private static byte[] _readAll(InputStream in, int bufferLength)
+    throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferLength];
+        int readCount;
+        while (-1 != (readCount = in.read(buffer))) {
+            out.write(buffer, 0, readCount);
+        }
+        return out.toByteArray();
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.ctor()
+    //
+    
+    @DataProvider
+    public static Object[][] _ctor_Pass_Data() {
+        return new Object[][] {
+                { 1, 1 },
+                { 1, 99 },
+                { 99, 99 },
+                { 10000, 20000 },
+        };
+    }
+
+    @Test(dataProvider = "_ctor_Pass_Data")
+    public void ctor_Pass(int initialSegmentByteCount, int maxSegmentByteCount) {
+        ByteArraySegmentedBuilder x =
+            new ByteArraySegmentedBuilder(initialSegmentByteCount, maxSegmentByteCount);
+        Assert.assertEquals(x.length(), 0);
+        Assert.assertEquals(x.segmentCount(), 1);
+        new ByteArraySegmentedBuilder(initialSegmentByteCount);
+    }
+    
+    @DataProvider
+    public static Object[][] _ctor_Fail_Data() {
+        return new Object[][] {
+                { 0, 1 },
+                { -99, 1 },
+                { 2, 1 },
+                { 10000, 9999 },
+        };
+    }
+
+    @Test(dataProvider = "_ctor_Fail_Data",
+            expectedExceptions = IllegalArgumentException.class)
+    public void ctor_Fail(int initialSegmentByteCount, int maxSegmentByteCount) {
+        new ByteArraySegmentedBuilder(initialSegmentByteCount, maxSegmentByteCount);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.append(byte)
+    //
+    
+    @Test
+    public void appendByte_Pass() {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1, 4);
+        Assert.assertEquals(x.toArray(), new byte[0]);
+        byte[] byteArr = _newByteArr(37);
+        int len = 0;
+        for (byte b: byteArr) {
+            x.append(b);
+            ++len;
+            Assert.assertEquals(x.length(), len);
+        }
+        Assert.assertEquals(x.toArray(), byteArr);
+        // 1 + 2 + 4 * 9 = 39
+        Assert.assertEquals(x.segmentCount(), 11);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.append(byte[])
+    //
+    
+    @DataProvider
+    public static Object[][] _appendByteArr_Pass_Data() {
+        return new Object[][] {
+                { new byte[] { } },
+                { new byte[] { 99 } },
+                { new byte[] { 99, 101 } },
+                { new byte[] { 99, 101, 103 } },
+                { _newByteArr(1000) },
+        };
+    }
+    
+    @Test(dataProvider = "_appendByteArr_Pass_Data")
+    public void appendByteArr_Pass(byte[] byteArr) {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1, 16);
+        x.append(byteArr);
+        Assert.assertEquals(x.length(), byteArr.length);
+        Assert.assertEquals(x.toArray(), byteArr);
+        x.append(byteArr);
+        Assert.assertEquals(x.length(), 2 * byteArr.length);
+        byte[] expected = Arrays.copyOf(byteArr, 2 * byteArr.length);
+        System.arraycopy(byteArr, 0, expected, byteArr.length, byteArr.length);
+        Assert.assertEquals(x.toArray(), expected);
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void appendByteArr_FailWithNullArray() {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1);
+        x.append((byte[]) null);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.append(byte[], int, int)
+    //
+    
+    @DataProvider
+    public static Object[][] _appendByteArr2_Pass_Data() {
+        return new Object[][] {
+                { new byte[] { 99 }, 0, 0 },
+                { new byte[] { 99 }, 0, 1 },
+                { new byte[] { 99, 101 }, 1, 1 },
+                { new byte[] { 99, 101, 103 }, 0, 3 },
+                { new byte[] { 99, 101, 103 }, 1, 2 },
+                { new byte[] { 99, 101, 103 }, 2, 1 },
+                { _newByteArr(1000), 7, 900 },
+        };
+    }
+    
+    @Test(dataProvider = "_appendByteArr2_Pass_Data")
+    public void appendByteArr2_Pass(byte[] byteArr, int offset, int length) {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1, 8);
+        x.append(byteArr, offset, length);
+        Assert.assertEquals(x.length(), length);
+        Assert.assertEquals(x.toArray(), Arrays.copyOfRange(byteArr, offset, offset + length));
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void appendByteArr2_FailWithNullArray() {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1);
+        x.append(null, 0, 0);
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void appendByteArr2_FailWithEmptyArray() {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1);
+        x.append(new byte[0], 0, 0);
+    }
+    
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void appendByteArr2_FailWithInvalidLength() {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1);
+        x.append(new byte[] { 99 }, 0, 2);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.newInputStream()
+    //
+    
+    @DataProvider
+    public static Object[][] _newInputStream_Pass_Data() {
+        return new Object[][] {
+                { 0, 1 },
+                { 1, 1 },
+                { 7, 3 },
+                { 64, 64 },
+                { 1000, 1 },
+                { 1000, 13 },
+                { 1000, 4096 },
+        };
+    }
+    
+    @Test(dataProvider = "_newInputStream_Pass_Data")
+    public void newInputStream_Pass(int length, int bufferLength)
+    throws IOException {
+        byte[] byteArr = _newByteArr(length);
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(4, 32);
+        x.append(byteArr);
+        InputStream in = x.newInputStream();
+        Assert.assertEquals(in.available(), length);
+        // Snapshot: later bytes are not visible.
+        x.append((byte) 1);
+        Assert.assertEquals(_readAll(in, bufferLength), byteArr);
+        Assert.assertEquals(in.available(), 0);
+        Assert.assertEquals(in.read(), -1);
+    }
+    
+    @Test
+    public void newInputStream_PassWithReadAndSkip()
+    throws IOException {
+        byte[] byteArr = _newByteArr(100);
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(4, 16);
+        x.append(byteArr);
+        InputStream in = x.newInputStream();
+        Assert.assertEquals(in.read(), byteArr[0] & 0xFF);
+        Assert.assertEquals(in.skip(50), 50);
+        Assert.assertEquals(in.read(), byteArr[51] & 0xFF);
+        Assert.assertEquals(in.skip(1000), 48);
+        Assert.assertEquals(in.read(), -1);
+        Assert.assertEquals(in.read(new byte[1], 0, 0), 0);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.toByteBufferArr()
+    //
+    
+    @Test
+    public void toByteBufferArr_Pass() {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(4, 8);
+        Assert.assertEquals(x.toByteBufferArr().length, 0);
+        byte[] byteArr = _newByteArr(12);
+        x.append(byteArr);
+        ByteBuffer[] bufferArr = x.toByteBufferArr();
+        // 4 + 8
+        Assert.assertEquals(bufferArr.length, 2);
+        ByteBuffer all = ByteBuffer.allocate(byteArr.length);
+        for (ByteBuffer buffer : bufferArr) {
+            Assert.assertTrue(buffer.isReadOnly());
+            all.put(buffer);
+        }
+        Assert.assertEquals(all.array(), byteArr);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.writeTo(WritableByteChannel)
+    //
+    
+    @Test
+    public void writeTo_Pass()
+    throws IOException {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(4, 64);
+        byte[] byteArr = _newByteArr(1000);
+        x.append(byteArr);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WritableByteChannel channel = Channels.newChannel(out);
+        Assert.assertEquals(x.writeTo(channel), byteArr.length);
+        Assert.assertEquals(out.toByteArray(), byteArr);
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void writeTo_FailWithNull()
+    throws IOException {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(1);
+        x.writeTo(null);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder.clear()
+    //
+    
+    @Test
+    public void clear_Pass()
+    throws IOException {
+        ByteArraySegmentedBuilder x = new ByteArraySegmentedBuilder(4, 8);
+        byte[] byteArr = _newByteArr(20);
+        x.append(byteArr);
+        InputStream beforeClear = x.newInputStream();
+        x.clear();
+        Assert.assertEquals(x.length(), 0);
+        Assert.assertEquals(x.segmentCount(), 1);
+        Assert.assertEquals(x.toArray(), new byte[0]);
+        // Old segments are never modified.
+        x.append(new byte[] { 1, 2, 3, 4, 5 });
+        Assert.assertEquals(_readAll(beforeClear, 7), byteArr);
+        Assert.assertEquals(x.toArray(), new byte[] { 1, 2, 3, 4, 5 });
+    }
+}
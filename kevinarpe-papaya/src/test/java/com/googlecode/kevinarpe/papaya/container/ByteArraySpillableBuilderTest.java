@@ -0,0 +1,261 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+public final class ByteArraySpillableBuilderTest {
+    
+    private static byte[] _newByteArr(int length) {
+        byte[] x = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            x[i] = (byte) (i * 31);
+        }
+        return x;
+    }
+    
+    private static byte[] _readAll(InputStream in, int bufferLength)
+    throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[bufferLength];
+        int readCount;
+        while (-1 != (readCount = in.read(buffer))) {
+            out.write(buffer, 0, readCount);
+        }
+        return out.toByteArray();
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySpillableBuilder.ctor()
+    //
+    
+    @Test
+    public void ctor_Pass() {
+        ByteArraySpillableBuilder x = new ByteArraySpillableBuilder(16);
+        Assert.assertEquals(x.length(), 0);
+        Assert.assertFalse(x.isSpilled());
+        Assert.assertNull(x.spillFile());
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithZero() {
+        new ByteArraySpillableBuilder(0);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySpillableBuilder.spill(File)
+    //
+    
+    @DataProvider
+    public static Object[][] _spill_Pass_Data() {
+        return new Object[][] {
+                { 0, 0 },
+                { 0, 100 },
+                { 7, 0 },
+                { 100, 1000 },
+                { 5000, 7 },
+        };
+    }
+    
+    @Test(dataProvider = "_spill_Pass_Data")
+    public void spill_Pass(int memoryByteCount, int diskByteCount)
+    throws IOException {
+        byte[] byteArr = _newByteArr(memoryByteCount + diskByteCount);
+        ByteArraySpillableBuilder x = new ByteArraySpillableBuilder(4);
+        try {
+            if (memoryByteCount > 0) {
+                x.append(byteArr, 0, memoryByteCount);
+            }
+            InputStream beforeSpill = x.newInputStream();
+            Assert.assertTrue(x == x.spill(null));
+            Assert.assertTrue(x.isSpilled());
+            File file = x.spillFile();
+            Assert.assertTrue(file.isFile());
+            Assert.assertEquals(file.length(), memoryByteCount);
+            if (diskByteCount > 0) {
+                x.append(byteArr, memoryByteCount, diskByteCount);
+            }
+            Assert.assertEquals(x.length(), byteArr.length);
+            Assert.assertEquals(file.length(), byteArr.length);
+            Assert.assertEquals(x.toArray(), byteArr);
+            Assert.assertEquals(_readAll(x.newInputStream(), 13), byteArr);
+            Assert.assertEquals(
+                _readAll(beforeSpill, 13), Arrays.copyOf(byteArr, memoryByteCount));
+            
+            x.clear();
+            Assert.assertFalse(x.isSpilled());
+            Assert.assertNull(x.spillFile());
+            Assert.assertFalse(file.exists());
+            Assert.assertEquals(x.length(), 0);
+            Assert.assertEquals(x.toArray(), new byte[0]);
+        }
+        finally {
+            x.close();
+        }
+    }
+    
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void spill_FailWhenSpilled()
+    throws IOException {
+        ByteArraySpillableBuilder x = new ByteArraySpillableBuilder(4);
+        try {
+            x.spill(null);
+            x.spill(null);
+        }
+        finally {
+            x.close();
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySpillableBuilder.newInputStream()
+    //
+    
+    @Test
+    public void newInputStream_PassWithReadAndSkip()
+    throws IOException {
+        byte[] byteArr = _newByteArr(100);
+        ByteArraySpillableBuilder x = new ByteArraySpillableBuilder(4);
+        try {
+            x.spill(null);
+            x.append(byteArr, 0, byteArr.length);
+            InputStream in = x.newInputStream();
+            // Snapshot: later bytes are not visible.
+            x.append(byteArr, 0, 1);
+            Assert.assertEquals(in.available(), 100);
+            Assert.assertEquals(in.read(), byteArr[0] & 0xFF);
+            Assert.assertEquals(in.skip(50), 50);
+            Assert.assertEquals(in.read(), byteArr[51] & 0xFF);
+            Assert.assertEquals(in.skip(1000), 48);
+            Assert.assertEquals(in.available(), 0);
+            Assert.assertEquals(in.read(), -1);
+            Assert.assertEquals(in.read(new byte[1], 0, 0), 0);
+            Assert.assertEquals(in.read(new byte[1]), -1);
+        }
+        finally {
+            x.close();
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySpillableBuilder.append(byte[], int, int)
+    //
+    
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void append_FailWithInvalidLengthWhenSpilled()
+    throws IOException {
+        ByteArraySpillableBuilder x = new ByteArraySpillableBuilder(4);
+        try {
+            x.spill(null);
+            x.append(new byte[] { 99 }, 0, 2);
+        }
+        finally {
+            x.close();
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ByteArraySegmentedBuilder methods after spill
+    //
+    
+    @Test
+    public void superclassMethods_PassWhenSpilled()
+    throws IOException {
+        byte[] byteArr = _newByteArr(100);
+        ByteArraySpillableBuilder x = new ByteArraySpillableBuilder(4);
+        try {
+            x.append(byteArr, 0, 10);
+            ByteArraySegmentedBuilder y = x.spill(null);
+            Assert.assertEquals(y.segmentCount(), 1);
+            y.append(byteArr[10]);
+            y.append(Arrays.copyOfRange(byteArr, 11, byteArr.length));
+            Assert.assertEquals(y.length(), byteArr.length);
+            
+            ByteBuffer[] bufferArr = y.toByteBufferArr();
+            Assert.assertEquals(bufferArr.length, 1);
+            Assert.assertTrue(bufferArr[0].isReadOnly());
+            byte[] mappedByteArr = new byte[bufferArr[0].remaining()];
+            bufferArr[0].get(mappedByteArr);
+            Assert.assertEquals(mappedByteArr, byteArr);
+            
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Assert.assertEquals(y.writeTo(Channels.newChannel(out)), byteArr.length);
+            Assert.assertEquals(out.toByteArray(), byteArr);
+        }
+        finally {
+            x.close();
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // Spill file cleanup after garbage collection
+    //
+    
+    private static File _spillThenDiscard(File dirPath)
+    throws IOException {
+        ByteArraySpillableBuilder x = new ByteArraySpillableBuilder(4);
+        x.append(_newByteArr(10));
+        x.spill(dirPath);
+        File file = x.spillFile();
+        return file;
+    }
+    
+    @Test
+    public void spill_PassWhenUnreachableBuilderSpillFileIsDeleted()
+    throws Exception {
+        File dirPath = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        try {
+            File file = _spillThenDiscard(dirPath);
+            Assert.assertTrue(file.isFile());
+            // Garbage collection is not deterministic, so try many times.
+            for (int i = 0; i < 100 && file.exists(); ++i) {
+                System.gc();
+                Thread.sleep(10);
+                // Each spill first cleans up spill files from unreachable builders.
+                new ByteArraySpillableBuilder(4).spill(dirPath).close();
+            }
+            Assert.assertFalse(file.exists());
+            Assert.assertEquals(dirPath.list().length, 0);
+        }
+        finally {
+            for (File file : dirPath.listFiles()) {
+                file.delete();
+            }
+            dirPath.delete();
+        }
+    }
+}
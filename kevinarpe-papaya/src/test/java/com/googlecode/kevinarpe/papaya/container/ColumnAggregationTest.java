@@ -0,0 +1,91 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.testing.EqualsTester;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ColumnAggregationTest {
+
+    @Test
+    public void count_Pass() {
+
+        final ColumnAggregation<String> x = ColumnAggregation.count("n");
+
+        Assert.assertEquals(x.outputKey, "n");
+        Assert.assertSame(x.function, ColumnAggregateFunction.COUNT);
+        Assert.assertNull(x.nullableSourceKey);
+        Assert.assertEquals(x.toString(), "n=COUNT()");
+    }
+
+    @Test
+    public void of_Pass() {
+
+        final ColumnAggregation<String> x = ColumnAggregation.of("total", ColumnAggregateFunction.SUM, "price");
+
+        Assert.assertEquals(x.nullableSourceKey, "price");
+        Assert.assertEquals(x.toString(), "total=SUM(price)");
+        Assert.assertEquals(
+            ColumnAggregation.of("n", ColumnAggregateFunction.COUNT, "price"), ColumnAggregation.count("n"));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void of_FailWhenOutputKeyIsNull() {
+
+        ColumnAggregation.of(null, ColumnAggregateFunction.SUM, "price");
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void of_FailWhenFunctionIsNull() {
+
+        ColumnAggregation.of("total", null, "price");
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void of_FailWhenSourceKeyIsNull() {
+
+        ColumnAggregation.of("total", ColumnAggregateFunction.SUM, null);
+    }
+
+    @Test
+    public void hashCodeAndEquals_Pass() {
+
+        new EqualsTester()
+            .addEqualityGroup(ColumnAggregation.count("n"), ColumnAggregation.count("n"))
+            .addEqualityGroup(ColumnAggregation.count("m"))
+            .addEqualityGroup(
+                ColumnAggregation.of("n", ColumnAggregateFunction.SUM, "a"),
+                ColumnAggregation.of("n", ColumnAggregateFunction.SUM, "a"))
+            .addEqualityGroup(ColumnAggregation.of("n", ColumnAggregateFunction.SUM, "b"))
+            .addEqualityGroup(ColumnAggregation.of("n", ColumnAggregateFunction.MAX, "a"))
+            .testEquals();
+    }
+}
@@ -0,0 +1,355 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ColumnTableQueryTest {
+
+    private ForkJoinPool pool;
+
+    @BeforeClass
+    public void beforeClass() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public void afterClass() {
+        pool.shutdownNow();
+    }
+
+    private static ImmutableColumnTableBuilder<String, Object>
+    _newBuilder() {
+
+        final ImmutableColumnTableBuilder<String, Object> x =
+            ImmutableColumnTableBuilder.withColumnTypes(ImmutableMap.<String, ImmutableColumnType>builder()
+                .put("country", ImmutableColumnType.STRING_DICTIONARY)
+                .put("qty", ImmutableColumnType.INT)
+                .put("amount", ImmutableColumnType.LONG)
+                .put("price", ImmutableColumnType.DOUBLE)
+                .put("flag", ImmutableColumnType.BOOLEAN)
+                .put("tag", ImmutableColumnType.OBJECT)
+                .build());
+        return x;
+    }
+
+    private static void
+    _addRow(ImmutableColumnTableBuilder<String, Object> b,
+            String country,
+            int qty,
+            long amount,
+            double price,
+            boolean flag,
+            Object tag) {
+
+        b.addString("country", country)
+            .addInt("qty", qty)
+            .addLong("amount", amount)
+            .addDouble("price", price)
+            .addBoolean("flag", flag)
+            .add("tag", tag);
+    }
+
+    private static ImmutableColumnTable<String, Object>
+    _newTable() {
+
+        final ImmutableColumnTableBuilder<String, Object> b = _newBuilder();
+        _addRow(b, "US", 1, 10L, 1.5d, true, "a");
+        _addRow(b, "UK", 2, 20L, 2.5d, false, "b");
+        _addRow(b, "US", 3, 30L, 3.5d, true, "a");
+        _addRow(b, "JP", 4, 40L, 4.5d, false, "b");
+        _addRow(b, "US", 5, 50L, 5.5d, false, "a");
+        final ImmutableColumnTable<String, Object> x = b.build();
+        return x;
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ColumnTableQuery.of()
+    //
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void of_FailWhenTableIsNull() {
+
+        ColumnTableQuery.of((ImmutableColumnTable<String, Object>) null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void of_FailWhenThresholdNotPositive() {
+
+        ColumnTableQuery.of(_newTable(), pool, 0);
+    }
+
+    private enum _Enum { A, B }
+
+    @Test
+    public void of_PassWhenFullEnumTable() {
+
+        final ImmutableFullEnumColumnTable<_Enum, String> table =
+            ImmutableFullEnumColumnTable.copyOf(ImmutableMap.of(
+                _Enum.A, ImmutableList.of("x", "y", "x"),
+                _Enum.B, ImmutableList.of("1", "2", "3")));
+        final ColumnTableQuery<_Enum, String> query = ColumnTableQuery.of(table);
+        final ImmutableColumnTable<_Enum, Object> x =
+            query.groupBy(query.filter(_Enum.B, s -> false == "2".equals(s)), ImmutableList.of(_Enum.A),
+                ImmutableList.of());
+
+        Assert.assertEquals(x.listMap.get(_Enum.A), ImmutableList.of("x"));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ColumnTableQuery.filter*()
+    //
+
+    @Test
+    public void filter_Pass() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+
+        Assert.assertEquals(query.all().count(), 5);
+        Assert.assertEquals(query.filterInt("qty", x -> x >= 3).toRowIndexArray(), new int[]{2, 3, 4});
+        Assert.assertEquals(query.filterLong("amount", x -> x < 30L).toRowIndexArray(), new int[]{0, 1});
+        Assert.assertEquals(query.filterDouble("price", x -> x > 4.0d).toRowIndexArray(), new int[]{3, 4});
+        Assert.assertEquals(query.filterBoolean("flag", true).toRowIndexArray(), new int[]{0, 2});
+        Assert.assertEquals(query.filterBoolean("flag", false).toRowIndexArray(), new int[]{1, 3, 4});
+        Assert.assertEquals(query.filterString("country", "US"::equals).toRowIndexArray(), new int[]{0, 2, 4});
+        Assert.assertEquals(query.filter("tag", "b"::equals).toRowIndexArray(), new int[]{1, 3});
+        Assert.assertEquals(query.filter("qty", x -> 2 == (Integer) x).toRowIndexArray(), new int[]{1});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void filterInt_FailWhenWrongColumnType() {
+
+        ColumnTableQuery.of(_newTable()).filterInt("amount", x -> true);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void filterDouble_FailWhenPredicateIsNull() {
+
+        ColumnTableQuery.of(_newTable()).filterDouble("price", null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ColumnTableQuery.groupBy()/aggregate()
+    //
+
+    private static final ImmutableList<ColumnAggregation<String>> ALL_AGGREGATION_LIST =
+        ImmutableList.of(
+            ColumnAggregation.count("count"),
+            ColumnAggregation.of("sumQty", ColumnAggregateFunction.SUM, "qty"),
+            ColumnAggregation.of("minAmount", ColumnAggregateFunction.MIN, "amount"),
+            ColumnAggregation.of("maxQty", ColumnAggregateFunction.MAX, "qty"),
+            ColumnAggregation.of("sumPrice", ColumnAggregateFunction.SUM, "price"),
+            ColumnAggregation.of("maxPrice", ColumnAggregateFunction.MAX, "price"),
+            ColumnAggregation.of("meanAmount", ColumnAggregateFunction.MEAN, "amount"));
+
+    @Test
+    public void groupBy_Pass() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        final ImmutableColumnTable<String, Object> x =
+            query.groupBy(query.all(), ImmutableList.of("country"), ALL_AGGREGATION_LIST);
+
+        Assert.assertEquals(x.rowCount, 3);
+        Assert.assertEquals(ImmutableList.copyOf(x.columnMap.keySet()),
+            ImmutableList.of(
+                "country", "count", "sumQty", "minAmount", "maxQty", "sumPrice", "maxPrice", "meanAmount"));
+        Assert.assertEquals(x.listMap.get("country"), ImmutableList.of("US", "UK", "JP"));
+        Assert.assertEquals(x.getLongColumn("count").toArray(), new long[]{3L, 1L, 1L});
+        Assert.assertEquals(x.getLongColumn("sumQty").toArray(), new long[]{9L, 2L, 4L});
+        Assert.assertEquals(x.getLongColumn("minAmount").toArray(), new long[]{10L, 20L, 40L});
+        Assert.assertEquals(x.getIntColumn("maxQty").toArray(), new int[]{5, 2, 4});
+        Assert.assertEquals(x.getDoubleColumn("sumPrice").toArray(), new double[]{10.5d, 2.5d, 4.5d});
+        Assert.assertEquals(x.getDoubleColumn("maxPrice").toArray(), new double[]{5.5d, 2.5d, 4.5d});
+        Assert.assertEquals(x.getDoubleColumn("meanAmount").toArray(), new double[]{30.0d, 20.0d, 40.0d});
+    }
+
+    @Test
+    public void groupBy_PassWhenManyKeys() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        final RowSelection selection = query.filterInt("qty", x -> x != 4);
+        final ImmutableColumnTable<String, Object> x =
+            query.groupBy(selection, ImmutableList.of("flag", "tag", "qty"),
+                ImmutableList.of(ColumnAggregation.count("count")));
+
+        Assert.assertEquals(x.listMap.get("flag"), ImmutableList.of(true, false, true, false));
+        Assert.assertEquals(x.listMap.get("tag"), ImmutableList.of("a", "b", "a", "a"));
+        Assert.assertEquals(x.getIntColumn("qty").toArray(), new int[]{1, 2, 3, 5});
+        Assert.assertEquals(x.getLongColumn("count").toArray(), new long[]{1L, 1L, 1L, 1L});
+    }
+
+    @Test
+    public void groupBy_PassWhenDistinct() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        final ImmutableColumnTable<String, Object> x =
+            query.groupBy(query.all(), ImmutableList.of("flag", "tag"), ImmutableList.of());
+
+        Assert.assertEquals(x.listMap.get("flag"), ImmutableList.of(true, false, false));
+        Assert.assertEquals(x.listMap.get("tag"), ImmutableList.of("a", "b", "a"));
+    }
+
+    @Test
+    public void aggregate_Pass() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        final ImmutableColumnTable<String, Object> x =
+            query.aggregate(query.filterString("country", "US"::equals), ALL_AGGREGATION_LIST);
+
+        Assert.assertEquals(x.rowCount, 1);
+        Assert.assertEquals(x.getLongColumn("count").getLong(0), 3L);
+        Assert.assertEquals(x.getDoubleColumn("meanAmount").getDouble(0), 30.0d);
+    }
+
+    @Test
+    public void aggregate_PassWhenEmptySelection() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        final ImmutableColumnTable<String, Object> x =
+            query.aggregate(query.filterString("country", "FR"::equals), ALL_AGGREGATION_LIST);
+
+        Assert.assertEquals(x.rowCount, 0);
+        Assert.assertEquals(x.columnMap.size(), ALL_AGGREGATION_LIST.size());
+    }
+
+    @Test
+    public void aggregate_PassWhenNaN() {
+
+        final ImmutableColumnTable<String, Double> table =
+            ImmutableColumnTable.ofColumns(ImmutableMap.of("x", ImmutableDoubleColumn.copyOf(Double.NaN, 2.0d, -1.0d)));
+        final ColumnTableQuery<String, Double> query = ColumnTableQuery.of(table);
+        final ImmutableColumnTable<String, Object> x =
+            query.aggregate(query.all(), ImmutableList.of(
+                ColumnAggregation.of("min", ColumnAggregateFunction.MIN, "x"),
+                ColumnAggregation.of("max", ColumnAggregateFunction.MAX, "x"),
+                ColumnAggregation.of("sum", ColumnAggregateFunction.SUM, "x")));
+
+        Assert.assertEquals(x.getDoubleColumn("min").getDouble(0), -1.0d);
+        Assert.assertEquals(x.getDoubleColumn("max").getDouble(0), 2.0d);
+        Assert.assertTrue(Double.isNaN(x.getDoubleColumn("sum").getDouble(0)));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void groupBy_FailWhenSelectionRowCountNotMatch() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        query.groupBy(RowSelection.all(4), ImmutableList.of("country"), ImmutableList.of());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void groupBy_FailWhenBothListsEmpty() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        query.groupBy(query.all(), ImmutableList.of(), ImmutableList.of());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+        expectedExceptionsMessageRegExp = "^Output key \\[country\\] is not unique$")
+    public void groupBy_FailWhenOutputKeyNotUnique() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        query.groupBy(query.all(), ImmutableList.of("country"), ImmutableList.of(ColumnAggregation.count("country")));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void groupBy_FailWhenSourceColumnNotNumeric() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        query.aggregate(query.all(), ImmutableList.of(ColumnAggregation.of("x", ColumnAggregateFunction.SUM, "tag")));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void groupBy_FailWhenUnknownGroupKey() {
+
+        final ColumnTableQuery<String, Object> query = ColumnTableQuery.of(_newTable());
+        query.groupBy(query.all(), ImmutableList.of("unknown"), ImmutableList.of(ColumnAggregation.count("n")));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // Parallel
+    //
+
+    @Test
+    public void groupBy_PassWhenParallel() {
+
+        final Random random = new Random(12345);
+        final ImmutableColumnTableBuilder<String, Object> b = _newBuilder();
+        final ImmutableList<String> countryList = ImmutableList.of("US", "UK", "JP", "FR", "DE");
+        final int rowCount = 10_007;
+        for (int i = 0; i < rowCount; ++i) {
+
+            // Integer prices: Sums are exact in any order.
+            _addRow(b, countryList.get(random.nextInt(countryList.size())), random.nextInt(100) - 50,
+                random.nextLong() >> 20, random.nextInt(1000), random.nextBoolean(), random.nextInt(3));
+        }
+        final ImmutableColumnTable<String, Object> table = b.build();
+        final ColumnTableQuery<String, Object> sequentialQuery = ColumnTableQuery.of(table, pool, Integer.MAX_VALUE);
+        final ColumnTableQuery<String, Object> parallelQuery = ColumnTableQuery.of(table, pool, 100);
+
+        final RowSelection sequentialSelection =
+            sequentialQuery.filterInt("qty", x -> x > -25).and(sequentialQuery.filterBoolean("flag", true).not());
+        final RowSelection parallelSelection =
+            parallelQuery.filterInt("qty", x -> x > -25).and(parallelQuery.filterBoolean("flag", true).not());
+        Assert.assertEquals(parallelSelection, sequentialSelection);
+        Assert.assertEquals(parallelQuery.filterDouble("price", x -> x < 500.0d),
+            sequentialQuery.filterDouble("price", x -> x < 500.0d));
+
+        final ImmutableList<String> groupKeyList = ImmutableList.of("country", "tag");
+        final ImmutableColumnTable<String, Object> sequentialTable =
+            sequentialQuery.groupBy(sequentialSelection, groupKeyList, ALL_AGGREGATION_LIST);
+        final ImmutableColumnTable<String, Object> parallelTable =
+            parallelQuery.groupBy(parallelSelection, groupKeyList, ALL_AGGREGATION_LIST);
+
+        Assert.assertEquals(parallelTable.rowCount, 15);
+        Assert.assertEquals(parallelTable.listMap, sequentialTable.listMap);
+        long count = 0;
+        for (final long x : parallelTable.getLongColumn("count").toArray()) {
+
+            count += x;
+        }
+        Assert.assertEquals(count, sequentialSelection.count());
+
+        // Too many groups to aggregate in parallel
+        final ImmutableList<String> manyGroupKeyList = ImmutableList.of("qty");
+        final ImmutableColumnTable<String, Object> parallelTable2 =
+            parallelQuery.groupBy(parallelSelection, manyGroupKeyList, ALL_AGGREGATION_LIST);
+        Assert.assertTrue(parallelTable2.rowCount * ColumnTableQuery.MIN_PARALLEL_ROW_COUNT_PER_GROUP > 100);
+        Assert.assertEquals(parallelTable2.listMap,
+            sequentialQuery.groupBy(sequentialSelection, manyGroupKeyList, ALL_AGGREGATION_LIST).listMap);
+    }
+}
@@ -0,0 +1,150 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class EnumDoubleAdderMapTest
+extends AbstractEnumPrimitiveAdderMapTestBase<EnumDoubleAdderMap<AbstractEnumPrimitiveAdderMapTestBase._Enum>> {
+
+    @Override
+    protected <TEnumKey extends Enum<TEnumKey>>
+    _AbstractEnumPrimitiveMap<TEnumKey>
+    create(Class<TEnumKey> enumClass) {
+
+        return EnumDoubleAdderMap.create(enumClass);
+    }
+
+    @Override
+    protected EnumDoubleAdderMap<_Enum>
+    newMap() {
+
+        return EnumDoubleAdderMap.create(_Enum.class);
+    }
+
+    @Override
+    protected void
+    add(EnumDoubleAdderMap<_Enum> map, _Enum key, int delta) {
+
+        map.add(key, delta);
+    }
+
+    @Override
+    protected Number
+    sum(EnumDoubleAdderMap<_Enum> map, _Enum key) {
+
+        return map.sum(key);
+    }
+
+    @Override
+    protected Number
+    sumThenReset(EnumDoubleAdderMap<_Enum> map, _Enum key) {
+
+        return map.sumThenReset(key);
+    }
+
+    @Override
+    protected Number
+    sum(EnumDoubleAdderMap<_Enum> map) {
+
+        return map.sum();
+    }
+
+    @Override
+    protected void
+    reset(EnumDoubleAdderMap<_Enum> map) {
+
+        map.reset();
+    }
+
+    @Override
+    protected void
+    forEach(EnumDoubleAdderMap<_Enum> map, BiConsumer<_Enum, Object> action) {
+
+        map.forEach(action::accept);
+    }
+
+    @Override
+    protected Object
+    toImmutable(EnumDoubleAdderMap<_Enum> map) {
+
+        return map.toImmutable();
+    }
+
+    @Override
+    protected Object
+    toImmutableThenReset(EnumDoubleAdderMap<_Enum> map) {
+
+        return map.toImmutableThenReset();
+    }
+
+    @Override
+    protected Object
+    immutableOfKeys(ToIntFunction<_Enum> func) {
+
+        return ImmutableEnumDoubleMap.ofKeys(_Enum.class, func::applyAsInt);
+    }
+
+    @Override
+    protected String
+    valueToString(int value) {
+
+        return String.valueOf((double) value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // EnumDoubleAdderMap.add()
+    //
+
+    @Test
+    public void add_PassWithFraction() {
+
+        final EnumDoubleAdderMap<_Enum> map = EnumDoubleAdderMap.create(_Enum.class);
+        map.add(_Enum._1, 0.25);
+        map.add(_Enum._1, 0.5);
+
+        Assert.assertEquals(map.sum(_Enum._1), 0.75);
+        Assert.assertEquals(map.toString(), "{_1=0.75, _2=0.0, _3=0.0}");
+    }
+
+    @Test
+    public void add_PassWhenNaN() {
+
+        final EnumDoubleAdderMap<_Enum> map = EnumDoubleAdderMap.create(_Enum.class);
+        map.add(_Enum._1, 1.0);
+        map.add(_Enum._1, Double.NaN);
+
+        Assert.assertTrue(Double.isNaN(map.sum(_Enum._1)));
+        Assert.assertTrue(Double.isNaN(map.sum()));
+    }
+}
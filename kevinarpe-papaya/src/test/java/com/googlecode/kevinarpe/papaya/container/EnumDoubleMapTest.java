@@ -0,0 +1,178 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.Maps;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class EnumDoubleMapTest
+extends AbstractEnumPrimitiveMapTestBase<EnumDoubleMap<AbstractEnumPrimitiveMapTestBase._Enum>> {
+
+    @Override
+    protected <TEnumKey extends Enum<TEnumKey>>
+    _AbstractEnumPrimitiveMap<TEnumKey>
+    create(Class<TEnumKey> enumClass) {
+
+        return EnumDoubleMap.create(enumClass);
+    }
+
+    @Override
+    protected EnumDoubleMap<_Enum>
+    newMap() {
+
+        return EnumDoubleMap.create(_Enum.class);
+    }
+
+    @Override
+    protected EnumDoubleMap<_Enum>
+    ofKeys(ToIntFunction<_Enum> func) {
+
+        return EnumDoubleMap.ofKeys(_Enum.class, null == func ? null : func::applyAsInt);
+    }
+
+    @Override
+    protected EnumDoubleMap<_Enum>
+    copyOf(Map<_Enum, Integer> map) {
+
+        return EnumDoubleMap.copyOf(_Enum.class, Maps.transformValues(map, Integer::doubleValue));
+    }
+
+    @Override
+    protected Number
+    get(EnumDoubleMap<_Enum> map, _Enum key) {
+
+        return map.get(key);
+    }
+
+    @Override
+    protected void
+    set(EnumDoubleMap<_Enum> map, _Enum key, int value) {
+
+        map.set(key, value);
+    }
+
+    @Override
+    protected Number
+    getAndSet(EnumDoubleMap<_Enum> map, _Enum key, int value) {
+
+        return map.getAndSet(key, value);
+    }
+
+    @Override
+    protected boolean
+    compareAndSet(EnumDoubleMap<_Enum> map, _Enum key, int expectedValue, int newValue) {
+
+        return map.compareAndSet(key, expectedValue, newValue);
+    }
+
+    @Override
+    protected Number
+    getAndAdd(EnumDoubleMap<_Enum> map, _Enum key, int delta) {
+
+        return map.getAndAdd(key, delta);
+    }
+
+    @Override
+    protected Number
+    addAndGet(EnumDoubleMap<_Enum> map, _Enum key, int delta) {
+
+        return map.addAndGet(key, delta);
+    }
+
+    @Override
+    protected void
+    setAll(EnumDoubleMap<_Enum> map, int value) {
+
+        map.setAll(value);
+    }
+
+    @Override
+    protected void
+    forEach(EnumDoubleMap<_Enum> map, BiConsumer<_Enum, Object> action) {
+
+        map.forEach(null == action ? null : action::accept);
+    }
+
+    @Override
+    protected Number
+    sum(EnumDoubleMap<_Enum> map) {
+
+        return map.sum();
+    }
+
+    @Override
+    protected Object
+    toImmutable(EnumDoubleMap<_Enum> map) {
+
+        return map.toImmutable();
+    }
+
+    @Override
+    protected Object
+    immutableOfKeys(ToIntFunction<_Enum> func) {
+
+        return ImmutableEnumDoubleMap.ofKeys(_Enum.class, func::applyAsInt);
+    }
+
+    @Override
+    protected String
+    valueToString(int value) {
+
+        return String.valueOf((double) value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // EnumDoubleMap.compareAndSet()/addAndGet()
+    //
+
+    @Test
+    public void compareAndSet_PassWhenNaN() {
+
+        final EnumDoubleMap<_Enum> map = EnumDoubleMap.ofKeys(_Enum.class, e -> Double.NaN);
+
+        Assert.assertTrue(map.compareAndSet(_Enum._1, Double.NaN, -0.0));
+        Assert.assertFalse(map.compareAndSet(_Enum._1, 0.0, 1.0));
+        Assert.assertTrue(map.compareAndSet(_Enum._1, -0.0, 1.0));
+    }
+
+    @Test
+    public void addAndGet_PassWithFraction() {
+
+        final EnumDoubleMap<_Enum> map = EnumDoubleMap.create(_Enum.class);
+
+        Assert.assertEquals(map.getAndAdd(_Enum._1, 0.25), 0.0);
+        Assert.assertEquals(map.addAndGet(_Enum._1, 0.5), 0.75);
+        Assert.assertEquals(map.toString(), "{_1=0.75, _2=0.0, _3=0.0}");
+    }
+}
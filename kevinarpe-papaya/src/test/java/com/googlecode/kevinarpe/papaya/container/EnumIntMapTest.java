@@ -0,0 +1,184 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class EnumIntMapTest
+extends AbstractEnumPrimitiveMapTestBase<EnumIntMap<AbstractEnumPrimitiveMapTestBase._Enum>> {
+
+    @Override
+    protected <TEnumKey extends Enum<TEnumKey>>
+    _AbstractEnumPrimitiveMap<TEnumKey>
+    create(Class<TEnumKey> enumClass) {
+
+        return EnumIntMap.create(enumClass);
+    }
+
+    @Override
+    protected EnumIntMap<_Enum>
+    newMap() {
+
+        return EnumIntMap.create(_Enum.class);
+    }
+
+    @Override
+    protected EnumIntMap<_Enum>
+    ofKeys(ToIntFunction<_Enum> func) {
+
+        return EnumIntMap.ofKeys(_Enum.class, null == func ? null : func::applyAsInt);
+    }
+
+    @Override
+    protected EnumIntMap<_Enum>
+    copyOf(Map<_Enum, Integer> map) {
+
+        return EnumIntMap.copyOf(_Enum.class, map);
+    }
+
+    @Override
+    protected Number
+    get(EnumIntMap<_Enum> map, _Enum key) {
+
+        return map.get(key);
+    }
+
+    @Override
+    protected void
+    set(EnumIntMap<_Enum> map, _Enum key, int value) {
+
+        map.set(key, value);
+    }
+
+    @Override
+    protected Number
+    getAndSet(EnumIntMap<_Enum> map, _Enum key, int value) {
+
+        return map.getAndSet(key, value);
+    }
+
+    @Override
+    protected boolean
+    compareAndSet(EnumIntMap<_Enum> map, _Enum key, int expectedValue, int newValue) {
+
+        return map.compareAndSet(key, expectedValue, newValue);
+    }
+
+    @Override
+    protected Number
+    getAndAdd(EnumIntMap<_Enum> map, _Enum key, int delta) {
+
+        return map.getAndAdd(key, delta);
+    }
+
+    @Override
+    protected Number
+    addAndGet(EnumIntMap<_Enum> map, _Enum key, int delta) {
+
+        return map.addAndGet(key, delta);
+    }
+
+    @Override
+    protected void
+    setAll(EnumIntMap<_Enum> map, int value) {
+
+        map.setAll(value);
+    }
+
+    @Override
+    protected void
+    forEach(EnumIntMap<_Enum> map, BiConsumer<_Enum, Object> action) {
+
+        map.forEach(null == action ? null : action::accept);
+    }
+
+    @Override
+    protected Number
+    sum(EnumIntMap<_Enum> map) {
+
+        return map.sum();
+    }
+
+    @Override
+    protected Object
+    toImmutable(EnumIntMap<_Enum> map) {
+
+        return map.toImmutable();
+    }
+
+    @Override
+    protected Object
+    immutableOfKeys(ToIntFunction<_Enum> func) {
+
+        return ImmutableEnumIntMap.ofKeys(_Enum.class, func::applyAsInt);
+    }
+
+    @Override
+    protected String
+    valueToString(int value) {
+
+        return String.valueOf(value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // EnumIntMap.incrementAndGet()/decrementAndGet()/sum()
+    //
+
+    @Test
+    public void incrementAndGet_Pass() {
+
+        final EnumIntMap<_Enum> map = EnumIntMap.create(_Enum.class);
+
+        Assert.assertEquals(map.incrementAndGet(_Enum._1), 1);
+        Assert.assertEquals(map.decrementAndGet(_Enum._1), 0);
+        Assert.assertEquals(map.decrementAndGet(_Enum._2), -1);
+    }
+
+    @Test
+    public void incrementAndGet_PassWhenOverflow() {
+
+        final EnumIntMap<_Enum> map = EnumIntMap.ofKeys(_Enum.class, e -> Integer.MAX_VALUE);
+
+        Assert.assertEquals(map.incrementAndGet(_Enum._1), Integer.MIN_VALUE);
+        Assert.assertEquals(map.decrementAndGet(_Enum._1), Integer.MAX_VALUE);
+    }
+
+    @Test
+    public void sum_PassWithoutOverflow() {
+
+        final EnumIntMap<_Enum> map = EnumIntMap.ofKeys(_Enum.class, e -> Integer.MAX_VALUE);
+
+        Assert.assertEquals(map.sum(), 3L * Integer.MAX_VALUE);
+    }
+}
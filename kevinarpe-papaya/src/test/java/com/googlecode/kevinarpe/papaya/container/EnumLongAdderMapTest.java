@@ -0,0 +1,151 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class EnumLongAdderMapTest
+extends AbstractEnumPrimitiveAdderMapTestBase<EnumLongAdderMap<AbstractEnumPrimitiveAdderMapTestBase._Enum>> {
+
+    @Override
+    protected <TEnumKey extends Enum<TEnumKey>>
+    _AbstractEnumPrimitiveMap<TEnumKey>
+    create(Class<TEnumKey> enumClass) {
+
+        return EnumLongAdderMap.create(enumClass);
+    }
+
+    @Override
+    protected EnumLongAdderMap<_Enum>
+    newMap() {
+
+        return EnumLongAdderMap.create(_Enum.class);
+    }
+
+    @Override
+    protected void
+    add(EnumLongAdderMap<_Enum> map, _Enum key, int delta) {
+
+        map.add(key, delta);
+    }
+
+    @Override
+    protected Number
+    sum(EnumLongAdderMap<_Enum> map, _Enum key) {
+
+        return map.sum(key);
+    }
+
+    @Override
+    protected Number
+    sumThenReset(EnumLongAdderMap<_Enum> map, _Enum key) {
+
+        return map.sumThenReset(key);
+    }
+
+    @Override
+    protected Number
+    sum(EnumLongAdderMap<_Enum> map) {
+
+        return map.sum();
+    }
+
+    @Override
+    protected void
+    reset(EnumLongAdderMap<_Enum> map) {
+
+        map.reset();
+    }
+
+    @Override
+    protected void
+    forEach(EnumLongAdderMap<_Enum> map, BiConsumer<_Enum, Object> action) {
+
+        map.forEach(action::accept);
+    }
+
+    @Override
+    protected Object
+    toImmutable(EnumLongAdderMap<_Enum> map) {
+
+        return map.toImmutable();
+    }
+
+    @Override
+    protected Object
+    toImmutableThenReset(EnumLongAdderMap<_Enum> map) {
+
+        return map.toImmutableThenReset();
+    }
+
+    @Override
+    protected Object
+    immutableOfKeys(ToIntFunction<_Enum> func) {
+
+        return ImmutableEnumLongMap.ofKeys(_Enum.class, func::applyAsInt);
+    }
+
+    @Override
+    protected String
+    valueToString(int value) {
+
+        return String.valueOf((long) value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // EnumLongAdderMap.increment()/decrement()
+    //
+
+    @Test
+    public void increment_Pass() {
+
+        final EnumLongAdderMap<_Enum> map = EnumLongAdderMap.create(_Enum.class);
+        map.increment(_Enum._1);
+        map.increment(_Enum._1);
+        map.decrement(_Enum._2);
+
+        Assert.assertEquals(map.sum(_Enum._1), 2L);
+        Assert.assertEquals(map.sum(_Enum._2), -1L);
+        Assert.assertEquals(map.sum(), 1L);
+    }
+
+    @Test
+    public void add_PassWhenOverflow() {
+
+        final EnumLongAdderMap<_Enum> map = EnumLongAdderMap.create(_Enum.class);
+        map.add(_Enum._1, Long.MAX_VALUE);
+        map.increment(_Enum._1);
+
+        Assert.assertEquals(map.sum(_Enum._1), Long.MIN_VALUE);
+    }
+}
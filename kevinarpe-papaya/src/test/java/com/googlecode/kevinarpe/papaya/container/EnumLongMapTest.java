@@ -0,0 +1,186 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.Maps;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class EnumLongMapTest
+extends AbstractEnumPrimitiveMapTestBase<EnumLongMap<AbstractEnumPrimitiveMapTestBase._Enum>> {
+
+    @Override
+    protected <TEnumKey extends Enum<TEnumKey>>
+    _AbstractEnumPrimitiveMap<TEnumKey>
+    create(Class<TEnumKey> enumClass) {
+
+        return EnumLongMap.create(enumClass);
+    }
+
+    @Override
+    protected EnumLongMap<_Enum>
+    newMap() {
+
+        return EnumLongMap.create(_Enum.class);
+    }
+
+    @Override
+    protected EnumLongMap<_Enum>
+    ofKeys(ToIntFunction<_Enum> func) {
+
+        return EnumLongMap.ofKeys(_Enum.class, null == func ? null : func::applyAsInt);
+    }
+
+    @Override
+    protected EnumLongMap<_Enum>
+    copyOf(Map<_Enum, Integer> map) {
+
+        return EnumLongMap.copyOf(_Enum.class, Maps.transformValues(map, Integer::longValue));
+    }
+
+    @Override
+    protected Number
+    get(EnumLongMap<_Enum> map, _Enum key) {
+
+        return map.get(key);
+    }
+
+    @Override
+    protected void
+    set(EnumLongMap<_Enum> map, _Enum key, int value) {
+
+        map.set(key, value);
+    }
+
+    @Override
+    protected Number
+    getAndSet(EnumLongMap<_Enum> map, _Enum key, int value) {
+
+        return map.getAndSet(key, value);
+    }
+
+    @Override
+    protected boolean
+    compareAndSet(EnumLongMap<_Enum> map, _Enum key, int expectedValue, int newValue) {
+
+        return map.compareAndSet(key, expectedValue, newValue);
+    }
+
+    @Override
+    protected Number
+    getAndAdd(EnumLongMap<_Enum> map, _Enum key, int delta) {
+
+        return map.getAndAdd(key, delta);
+    }
+
+    @Override
+    protected Number
+    addAndGet(EnumLongMap<_Enum> map, _Enum key, int delta) {
+
+        return map.addAndGet(key, delta);
+    }
+
+    @Override
+    protected void
+    setAll(EnumLongMap<_Enum> map, int value) {
+
+        map.setAll(value);
+    }
+
+    @Override
+    protected void
+    forEach(EnumLongMap<_Enum> map, BiConsumer<_Enum, Object> action) {
+
+        map.forEach(null == action ? null : action::accept);
+    }
+
+    @Override
+    protected Number
+    sum(EnumLongMap<_Enum> map) {
+
+        return map.sum();
+    }
+
+    @Override
+    protected Object
+    toImmutable(EnumLongMap<_Enum> map) {
+
+        return map.toImmutable();
+    }
+
+    @Override
+    protected Object
+    immutableOfKeys(ToIntFunction<_Enum> func) {
+
+        return ImmutableEnumLongMap.ofKeys(_Enum.class, func::applyAsInt);
+    }
+
+    @Override
+    protected String
+    valueToString(int value) {
+
+        return String.valueOf((long) value);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // EnumLongMap.incrementAndGet()/decrementAndGet()
+    //
+
+    @Test
+    public void incrementAndGet_Pass() {
+
+        final EnumLongMap<_Enum> map = EnumLongMap.create(_Enum.class);
+
+        Assert.assertEquals(map.incrementAndGet(_Enum._1), 1L);
+        Assert.assertEquals(map.decrementAndGet(_Enum._1), 0L);
+        Assert.assertEquals(map.decrementAndGet(_Enum._2), -1L);
+    }
+
+    @Test
+    public void incrementAndGet_PassWhenOverflow() {
+
+        final EnumLongMap<_Enum> map = EnumLongMap.ofKeys(_Enum.class, e -> Long.MAX_VALUE);
+
+        Assert.assertEquals(map.incrementAndGet(_Enum._1), Long.MIN_VALUE);
+        Assert.assertEquals(map.decrementAndGet(_Enum._1), Long.MAX_VALUE);
+    }
+
+    @Test
+    public void set_PassWithValueLargerThanInt() {
+
+        final EnumLongMap<_Enum> map = EnumLongMap.create(_Enum.class);
+        map.set(_Enum._1, 1L + Integer.MAX_VALUE);
+
+        Assert.assertEquals(map.addAndGet(_Enum._1, 1L + Integer.MAX_VALUE), 2L + 2L * Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,122 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableBooleanColumnTest {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableBooleanColumn.copyOf()
+    //
+
+    @Test
+    public void copyOf_Pass() {
+
+        final ImmutableBooleanColumn column = ImmutableBooleanColumn.copyOf(true, false, true);
+
+        Assert.assertSame(column.getColumnType(), ImmutableColumnType.BOOLEAN);
+        Assert.assertEquals(column.size(), 3);
+        Assert.assertTrue(column.getBoolean(0));
+        Assert.assertFalse(column.getBoolean(1));
+        Assert.assertEquals(column.get(2), Boolean.TRUE);
+        Assert.assertEquals(column.countTrue(), 2);
+        Assert.assertEquals(column.asList(), ImmutableList.of(true, false, true));
+        Assert.assertEquals(column.toArray(), new boolean[]{true, false, true});
+        Assert.assertEquals(column.toWordArray(), new long[]{0b101L});
+    }
+
+    @Test
+    public void copyOf_PassWhenEmpty() {
+
+        final ImmutableBooleanColumn column = ImmutableBooleanColumn.copyOf();
+
+        Assert.assertEquals(column.size(), 0);
+        Assert.assertEquals(column.countTrue(), 0);
+        Assert.assertEquals(column.toWordArray(), new long[0]);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyOf_FailWhenNull() {
+
+        ImmutableBooleanColumn.copyOf((boolean[]) null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableBooleanColumn.getBoolean()
+    //
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void getBoolean_FailWhenIndexTooLarge() {
+
+        // Bits 1 to 63 exist in the word array, but are outside the column.
+        ImmutableBooleanColumn.copyOf(true).getBoolean(1);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void getBoolean_FailWhenIndexNegative() {
+
+        ImmutableBooleanColumn.copyOf(true).getBoolean(-1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableBooleanColumn.Builder
+    //
+
+    @Test
+    public void builder_PassWhenManyWords() {
+
+        final ImmutableBooleanColumn.Builder b = ImmutableBooleanColumn.builder();
+        final int size = 1000;
+        for (int i = 0; i < size; ++i) {
+
+            b.add(0 == i % 3);
+        }
+        b.addBoxed(true);
+        final ImmutableBooleanColumn column = b.build();
+
+        Assert.assertEquals(column.size(), size + 1);
+        Assert.assertEquals(column.toWordArray().length, 16);
+        Assert.assertEquals(column.countTrue(), 335);
+        for (int i = 0; i < size; ++i) {
+
+            Assert.assertEquals(column.getBoolean(i), 0 == i % 3);
+        }
+        Assert.assertTrue(column.getBoolean(size));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void builderAddBoxed_FailWhenNull() {
+
+        ImmutableBooleanColumn.builder().addBoxed(null);
+    }
+}
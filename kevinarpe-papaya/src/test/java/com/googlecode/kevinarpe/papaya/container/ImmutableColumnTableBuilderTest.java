@@ -29,6 +29,7 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableListMultimap;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 /**
@@ -226,4 +227,114 @@ public class ImmutableColumnTableBuilderTest {
             .put(ImmutableMap.of(_Enum.A, "abc"))
             .build();
     }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // ImmutableColumnTableBuilder.withColumnTypes
+    //
+
+    private static ImmutableColumnTableBuilder<String, Object>
+    _newTypedBuilder() {
+
+        final ImmutableColumnTableBuilder<String, Object> x =
+            ImmutableColumnTableBuilder.withColumnTypes(ImmutableMap.<String, ImmutableColumnType>builder()
+                .put("int", ImmutableColumnType.INT)
+                .put("long", ImmutableColumnType.LONG)
+                .put("double", ImmutableColumnType.DOUBLE)
+                .put("boolean", ImmutableColumnType.BOOLEAN)
+                .put("string", ImmutableColumnType.STRING_DICTIONARY)
+                .put("object", ImmutableColumnType.OBJECT)
+                .build());
+        return x;
+    }
+
+    @Test
+    public void withColumnTypes_Pass() {
+
+        final ImmutableColumnTableBuilder<String, Object> b = _newTypedBuilder();
+        b.addInt("int", 1)
+            .addLong("long", 2L)
+            .addDouble("double", 3.5d)
+            .addBoolean("boolean", true)
+            .addString("string", "abc")
+            .add("object", "xyz");
+        b.put(ImmutableMap.<String, Object>builder()
+            .put("int", 10)
+            .put("long", 20L)
+            .put("double", 30.5d)
+            .put("boolean", false)
+            .put("string", "abc")
+            .put("object", 123)
+            .build());
+        b.putAll(ImmutableListMultimap.<String, Object>builder()
+            .put("int", 100)
+            .put("long", 200L)
+            .put("double", 300.5d)
+            .put("boolean", true)
+            .put("string", "def")
+            .put("object", 456L)
+            .build());
+        final ImmutableColumnTable<String, Object> table = b.build();
+
+        Assert.assertEquals(b.columnTypeMap.get("double"), ImmutableColumnType.DOUBLE);
+        Assert.assertEquals(ImmutableList.copyOf(b.keySet),
+            ImmutableList.of("int", "long", "double", "boolean", "string", "object"));
+        Assert.assertEquals(table.rowCount, 3);
+        Assert.assertEquals(table.getIntColumn("int").toArray(), new int[]{1, 10, 100});
+        Assert.assertEquals(table.getLongColumn("long").toArray(), new long[]{2L, 20L, 200L});
+        Assert.assertEquals(table.getDoubleColumn("double").toArray(), new double[]{3.5d, 30.5d, 300.5d});
+        Assert.assertEquals(table.getBooleanColumn("boolean").toArray(), new boolean[]{true, false, true});
+        Assert.assertEquals(table.getStringDictionaryColumn("string").getDictionary(), ImmutableList.of("abc", "def"));
+        Assert.assertEquals(table.listMap.get("object"), ImmutableList.of("xyz", 123, 456L));
+        Assert.assertEquals(table.listMap.get("int"), ImmutableList.of(1, 10, 100));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void add_FailWhenUnknownKey() {
+
+        _newTypedBuilder().add("unknown", 1);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void add_FailWhenNullValue() {
+
+        _newTypedBuilder().add("int", null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withColumnTypes_FailWhenEmpty() {
+
+        ImmutableColumnTableBuilder.withColumnTypes(ImmutableMap.of());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+        expectedExceptionsMessageRegExp = "^Key \\[double\\]: Expected column type INT, but found DOUBLE$")
+    public void addInt_FailWhenWrongColumnType() {
+
+        _newTypedBuilder().addInt("double", 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void addLong_FailWhenUnknownKey() {
+
+        _newTypedBuilder().addLong("unknown", 1L);
+    }
+
+    @Test(expectedExceptions = ClassCastException.class)
+    public void put_FailWhenWrongValueType() {
+
+        _newTypedBuilder().put(ImmutableMap.<String, Object>builder()
+            .put("int", 10L)
+            .put("long", 20L)
+            .put("double", 30.5d)
+            .put("boolean", false)
+            .put("string", "abc")
+            .put("object", "xyz")
+            .build());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void build_FailWhenColumnSizeNotMatch() {
+
+        _newTypedBuilder().addInt("int", 1).build();
+    }
 }
@@ -0,0 +1,269 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.googlecode.kevinarpe.papaya.PathUtils;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableColumnTableFileFormatTest {
+
+    private File dirPath;
+    private File filePath;
+
+    @BeforeMethod
+    public void beforeEachTestMethod()
+    throws IOException {
+
+        dirPath = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        filePath = new File(dirPath, "table.bin");
+    }
+
+    @AfterMethod
+    public void afterEachTestMethod()
+    throws PathException {
+
+        PathUtils.removeDirectoryTree(dirPath);
+    }
+
+    private static ImmutableColumnTable<String, Object>
+    _newTable(int rowCount) {
+
+        final ImmutableColumnTableBuilder<String, Object> b =
+            ImmutableColumnTableBuilder.withColumnTypes(ImmutableMap.<String, ImmutableColumnType>builder()
+                .put("qty", ImmutableColumnType.INT)
+                .put("amount", ImmutableColumnType.LONG)
+                .put("price", ImmutableColumnType.DOUBLE)
+                .put("flag", ImmutableColumnType.BOOLEAN)
+                .put("country é", ImmutableColumnType.STRING_DICTIONARY)
+                .build());
+        final ImmutableList<String> countryList = ImmutableList.of("US", "UK", "日本", "");
+        for (int i = 0; i < rowCount; ++i) {
+
+            b.addInt("qty", i - 7)
+                .addLong("amount", Long.MAX_VALUE - i)
+                .addDouble("price", (0 == i % 11) ? Double.NaN : i / 4.0d)
+                .addBoolean("flag", 0 == i % 3)
+                .addString("country é", countryList.get(i % countryList.size()));
+        }
+        final ImmutableColumnTable<String, Object> x = b.build();
+        return x;
+    }
+
+    private static void
+    _assertTableEquals(ImmutableColumnTable<String, Object> actual,
+                       ImmutableColumnTable<String, Object> expected) {
+
+        Assert.assertEquals(actual.rowCount, expected.rowCount);
+        Assert.assertEquals(ImmutableList.copyOf(actual.columnMap.keySet()),
+            ImmutableList.copyOf(expected.columnMap.keySet()));
+        for (final String key : expected.columnMap.keySet()) {
+
+            Assert.assertEquals(actual.getColumn(key).getColumnType(), expected.getColumn(key).getColumnType());
+        }
+        Assert.assertEquals(actual.listMap, expected.listMap);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableColumnTableFileFormat.write()/map()
+    //
+
+    @Test
+    public void write_map_Pass()
+    throws IOException {
+
+        final ImmutableColumnTable<String, Object> table = _newTable(130);
+        ImmutableColumnTableFileFormat.write(table, filePath);
+        final ImmutableColumnTable<String, Object> x = ImmutableColumnTableFileFormat.map(filePath);
+
+        _assertTableEquals(x, table);
+        Assert.assertEquals(x.getIntColumn("qty").toArray(), table.getIntColumn("qty").toArray());
+        Assert.assertEquals(x.getLongColumn("amount").getLong(129), Long.MAX_VALUE - 129);
+        Assert.assertTrue(Double.isNaN(x.getDoubleColumn("price").getDouble(11)));
+        Assert.assertEquals(x.getBooleanColumn("flag").toWordArray(), table.getBooleanColumn("flag").toWordArray());
+        Assert.assertEquals(x.getBooleanColumn("flag").countTrue(), 44);
+        final ImmutableStringDictionaryColumn column = x.getStringDictionaryColumn("country é");
+        Assert.assertEquals(column.getDictionary(), ImmutableList.of("US", "UK", "日本", ""));
+        Assert.assertEquals(column.getCodeOf("UK"), 1);
+        Assert.assertEquals(column.toCodeArray(), table.getStringDictionaryColumn("country é").toCodeArray());
+        Assert.assertEquals(dirPath.list(), new String[]{filePath.getName()});
+    }
+
+    @Test
+    public void write_map_PassWhenEmpty()
+    throws IOException {
+
+        final ImmutableColumnTable<String, Object> table = _newTable(0);
+        ImmutableColumnTableFileFormat.write(table, filePath);
+        final ImmutableColumnTable<String, Object> x = ImmutableColumnTableFileFormat.map(filePath);
+
+        _assertTableEquals(x, table);
+        Assert.assertTrue(x.getStringDictionaryColumn("country é").getDictionary().isEmpty());
+    }
+
+    @Test
+    public void map_PassWithBufferColumnsOnlyForMappedFiles()
+    throws IOException {
+
+        final ImmutableColumnTable<String, Object> table = _newTable(3);
+        ImmutableColumnTableFileFormat.write(table, filePath);
+        final ImmutableColumnTable<String, Object> x = ImmutableColumnTableFileFormat.map(filePath);
+
+        for (final String key : table.columnMap.keySet()) {
+
+            Assert.assertNotSame(x.getColumn(key).getClass(), table.getColumn(key).getClass(), key);
+        }
+    }
+
+    @Test
+    public void write_PassWhenFileExists()
+    throws IOException {
+
+        ImmutableColumnTableFileFormat.write(_newTable(100), filePath);
+        final ImmutableColumnTable<String, Object> table = _newTable(3);
+        ImmutableColumnTableFileFormat.write(table, filePath);
+        final ImmutableColumnTable<String, Object> x = ImmutableColumnTableFileFormat.map(filePath);
+
+        _assertTableEquals(x, table);
+    }
+
+    @Test
+    public void map_PassWithColumnTableQuery()
+    throws IOException {
+
+        ImmutableColumnTableFileFormat.write(_newTable(1000), filePath);
+        final ColumnTableQuery<String, Object> query =
+            ColumnTableQuery.of(ImmutableColumnTableFileFormat.map(filePath));
+        final ImmutableColumnTable<String, Object> x =
+            query.aggregate(query.filterString("country é", "UK"::equals).and(query.filterBoolean("flag", true)),
+                ImmutableList.of(ColumnAggregation.count("count"),
+                    ColumnAggregation.of("sum", ColumnAggregateFunction.SUM, "qty")));
+
+        // Rows 1 + 4k and 3k: 9, 21, 33, ..., 993
+        Assert.assertEquals(x.getLongColumn("count").getLong(0), 83L);
+        Assert.assertEquals(x.getLongColumn("sum").getLong(0), (9L + 993L) * 83L / 2L - 7L * 83L);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class,
+        expectedExceptionsMessageRegExp = "^Column \\[x\\]: Type OBJECT cannot be written$")
+    public void write_FailWhenObjectColumn()
+    throws IOException {
+
+        final ImmutableColumnTable<String, Object> table =
+            ImmutableColumnTable.of(ImmutableMap.of("x", ImmutableList.<Object>of("abc")));
+        ImmutableColumnTableFileFormat.write(table, filePath);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void write_FailWhenTableIsNull()
+    throws IOException {
+
+        ImmutableColumnTableFileFormat.write(null, filePath);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void map_FailWhenFilePathIsNull()
+    throws IOException {
+
+        ImmutableColumnTableFileFormat.map(null);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void map_FailWhenFileNotExists()
+    throws IOException {
+
+        ImmutableColumnTableFileFormat.map(filePath);
+    }
+
+    @Test(expectedExceptions = IOException.class,
+        expectedExceptionsMessageRegExp = "^Invalid column table file: .*: Expected magic 0x50435442, but found .*$")
+    public void map_FailWhenInvalidMagic()
+    throws IOException {
+
+        Files.write(filePath.toPath(), new byte[64]);
+        ImmutableColumnTableFileFormat.map(filePath);
+    }
+
+    @Test(expectedExceptions = IOException.class,
+        expectedExceptionsMessageRegExp = "^Invalid column table file: .*: Unsupported version 2$")
+    public void map_FailWhenUnsupportedVersion()
+    throws IOException {
+
+        ImmutableColumnTableFileFormat.write(_newTable(3), filePath);
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+
+            file.seek(4);
+            file.write(2);
+        }
+        ImmutableColumnTableFileFormat.map(filePath);
+    }
+
+    @Test(expectedExceptions = IOException.class,
+        expectedExceptionsMessageRegExp = "^Invalid column table file: .*: Invalid data block: .*$")
+    public void map_FailWhenTruncated()
+    throws IOException {
+
+        ImmutableColumnTableFileFormat.write(_newTable(100), filePath);
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+
+            file.setLength(file.length() - 1);
+        }
+        ImmutableColumnTableFileFormat.map(filePath);
+    }
+
+    @Test(expectedExceptions = IOException.class,
+        expectedExceptionsMessageRegExp = "^Invalid column table file: .*: Unused bits in last word are not zero$")
+    public void map_FailWhenBooleanColumnUnusedBitsNotZero()
+    throws IOException {
+
+        final ImmutableColumnTable<String, Object> table =
+            ImmutableColumnTable.ofColumns(ImmutableMap.of("b", ImmutableBooleanColumn.copyOf(true, false, true)));
+        ImmutableColumnTableFileFormat.write(table, filePath);
+        try (RandomAccessFile file = new RandomAccessFile(filePath, "rw")) {
+
+            // Header (20 bytes) + schema (40 + 1 bytes), then aligned to eight bytes
+            file.seek(64);
+            Assert.assertEquals(file.read(), 0x05);
+            file.seek(64);
+            file.write(0xFF);
+        }
+        ImmutableColumnTableFileFormat.map(filePath);
+    }
+}
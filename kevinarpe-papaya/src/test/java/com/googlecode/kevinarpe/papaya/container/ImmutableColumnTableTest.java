@@ -27,6 +27,7 @@ package com.googlecode.kevinarpe.papaya.container;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.util.List;
@@ -147,4 +148,81 @@ public class ImmutableColumnTableTest {
             1.5d, ImmutableList.of(123d, 456d),
             2.5d, ImmutableList.of(456d, 789d)));
     }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // ImmutableColumnTable.ofColumns
+    //
+
+    @Test
+    public void ofColumns_Pass() {
+
+        final ImmutableColumnTable<String, Number> table =
+            ImmutableColumnTable.ofColumns(ImmutableMap.<String, ImmutableColumn<? extends Number>>of(
+                "int", ImmutableIntColumn.copyOf(1, 2),
+                "double", ImmutableDoubleColumn.copyOf(1.5d, 2.5d),
+                "object", ImmutableObjectColumn.copyOf(ImmutableList.of(1L, 2.5f))));
+
+        Assert.assertEquals(table.rowCount, 2);
+        Assert.assertEquals(table.getIntColumn("int").getInt(1), 2);
+        Assert.assertEquals(table.getDoubleColumn("double").getDouble(0), 1.5d);
+        Assert.assertEquals(table.getColumn("object").get(1), 2.5f);
+        Assert.assertEquals(table.listMap.get("int"), ImmutableList.of(1, 2));
+        Assert.assertEquals(table.listMap.get("double"), ImmutableList.of(1.5d, 2.5d));
+        Assert.assertEquals(table.listMap.get("object"), ImmutableList.of(1L, 2.5f));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofColumns_FailWhenZeroColumns() {
+
+        ImmutableColumnTable.ofColumns(ImmutableMap.<String, ImmutableColumn<?>>of());
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofColumns_FailWhenColumnSizeNotMatch() {
+
+        ImmutableColumnTable.ofColumns(ImmutableMap.of(
+            "abc", ImmutableIntColumn.copyOf(1, 2),
+            "def", ImmutableIntColumn.copyOf(1)));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////
+    // ImmutableColumnTable.get*Column
+    //
+
+    @Test
+    public void of_PassWhenListMapIsSame() {
+
+        final ImmutableList<String> list = ImmutableList.of("123", "456");
+        final ImmutableColumnTable<String, String> table = ImmutableColumnTable.of(ImmutableMap.of("abc", list));
+
+        Assert.assertSame(table.listMap.get("abc"), list);
+        Assert.assertSame(table.getColumn("abc").getColumnType(), ImmutableColumnType.OBJECT);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void getColumn_FailWhenUnknownKey() {
+
+        ImmutableColumnTable.of(ImmutableMap.of("abc", ImmutableList.of("123"))).getColumn("def");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void getIntColumn_FailWhenWrongColumnType() {
+
+        ImmutableColumnTable.ofColumns(ImmutableMap.of("abc", ImmutableLongColumn.copyOf(1L))).getIntColumn("abc");
+    }
+
+    @Test
+    public void getColumn_PassWhenAllTypes() {
+
+        final ImmutableColumnTable<String, Object> table =
+            ImmutableColumnTable.ofColumns(ImmutableMap.<String, ImmutableColumn<?>>builder()
+                .put("long", ImmutableLongColumn.copyOf(1L))
+                .put("boolean", ImmutableBooleanColumn.copyOf(true))
+                .put("string", ImmutableStringDictionaryColumn.copyOf(ImmutableList.of("abc")))
+                .build());
+
+        Assert.assertEquals(table.getLongColumn("long").getLong(0), 1L);
+        Assert.assertTrue(table.getBooleanColumn("boolean").getBoolean(0));
+        Assert.assertEquals(table.getStringDictionaryColumn("string").getString(0), "abc");
+    }
 }
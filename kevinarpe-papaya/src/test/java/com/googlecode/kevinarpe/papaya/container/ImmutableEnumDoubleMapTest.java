@@ -0,0 +1,187 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableEnumDoubleMapTest {
+
+    private enum _EmptyEnum {}
+
+    private enum _Enum { _1, _2, _3 }
+
+    private enum _Enum2 { _1, _2, _3 }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumDoubleMap.ofKeys()
+    //
+
+    @Test
+    public void ofKeys_Pass() {
+
+        final ImmutableEnumDoubleMap<_Enum> map = ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 10.0 * e.ordinal());
+
+        Assert.assertSame(map.getEnumClass(), _Enum.class);
+        Assert.assertEquals(map.size(), 3);
+        Assert.assertEquals(ImmutableList.copyOf(map.keySet()), ImmutableList.of(_Enum._1, _Enum._2, _Enum._3));
+        Assert.assertEquals(map.get(_Enum._1), 0.0);
+        Assert.assertEquals(map.get(_Enum._2), 10.0);
+        Assert.assertEquals(map.get(_Enum._3), 20.0);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWhenEnumClassIsNull() {
+
+        ImmutableEnumDoubleMap.ofKeys((Class<_Enum>) null, e -> 1.0);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWhenFuncIsNull() {
+
+        ImmutableEnumDoubleMap.ofKeys(_Enum.class, null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofKeys_FailWhenEmptyEnum() {
+
+        ImmutableEnumDoubleMap.ofKeys(_EmptyEnum.class, e -> 1.0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumDoubleMap.copyOf()
+    //
+
+    @Test
+    public void copyOf_Pass() {
+
+        final ImmutableEnumDoubleMap<_Enum> map =
+            ImmutableEnumDoubleMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._3, 3.0, _Enum._1, 1.0, _Enum._2, 2.0));
+
+        Assert.assertEquals(map.toArray(), new double[]{1.0, 2.0, 3.0});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void copyOf_FailWhenMissingKey() {
+
+        ImmutableEnumDoubleMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._3, 3.0, _Enum._1, 1.0));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyOf_FailWhenMapIsNull() {
+
+        ImmutableEnumDoubleMap.copyOf(_Enum.class, null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumDoubleMap.get()
+    //
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void get_FailWhenKeyIsNull() {
+
+        ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 1.0).get(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void get_FailWhenKeyFromOtherEnum() {
+
+        final ImmutableEnumDoubleMap<_Enum> map = ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 1.0);
+        // Only possible with unchecked casts.
+        final ImmutableEnumDoubleMap<_Enum2> map2 = (ImmutableEnumDoubleMap<_Enum2>) (ImmutableEnumDoubleMap<?>) map;
+        map2.get(_Enum2._1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumDoubleMap.forEach()/sum()/toArray()
+    //
+
+    @Test
+    public void forEach_Pass() {
+
+        final ImmutableEnumDoubleMap<_Enum> map = ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 1.0 + e.ordinal());
+        final List<String> list = new ArrayList<>();
+        map.forEach((key, value) -> list.add(key + "=" + value));
+
+        Assert.assertEquals(list, ImmutableList.of("_1=1.0", "_2=2.0", "_3=3.0"));
+    }
+
+    @Test
+    public void sum_Pass() {
+
+        Assert.assertEquals(ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 1.0 + e.ordinal()).sum(), 6.0);
+    }
+
+    @Test
+    public void toArray_PassWhenModifyCopy() {
+
+        final ImmutableEnumDoubleMap<_Enum> map = ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 7.0);
+        map.toArray()[0] = 99.0;
+
+        Assert.assertEquals(map.get(_Enum._1), 7.0);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumDoubleMap.hashCode()/equals()/toString()
+    //
+
+    @Test
+    public void hashCodeAndEquals_Pass() {
+
+        new EqualsTester()
+            .addEqualityGroup(
+                ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 1.0 + e.ordinal()),
+                ImmutableEnumDoubleMap.copyOf(
+                    _Enum.class, ImmutableMap.of(_Enum._1, 1.0, _Enum._2, 2.0, _Enum._3, 3.0)))
+            .addEqualityGroup(ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 1.0))
+            .addEqualityGroup(ImmutableEnumDoubleMap.ofKeys(_Enum2.class, e -> 1.0 + e.ordinal()))
+            .addEqualityGroup(
+                ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> Double.NaN),
+                ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> Double.NaN))
+            .addEqualityGroup(ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 0.0))
+            .addEqualityGroup(ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> -0.0))
+            .testEquals();
+    }
+
+    @Test
+    public void toString_Pass() {
+
+        final ImmutableEnumDoubleMap<_Enum> map = ImmutableEnumDoubleMap.ofKeys(_Enum.class, e -> 1.0 + e.ordinal());
+
+        Assert.assertEquals(map.toString(), "{_1=1.0, _2=2.0, _3=3.0}");
+    }
+}
@@ -0,0 +1,181 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableEnumIntMapTest {
+
+    private enum _EmptyEnum {}
+
+    private enum _Enum { _1, _2, _3 }
+
+    private enum _Enum2 { _1, _2, _3 }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumIntMap.ofKeys()
+    //
+
+    @Test
+    public void ofKeys_Pass() {
+
+        final ImmutableEnumIntMap<_Enum> map = ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 10 * e.ordinal());
+
+        Assert.assertSame(map.getEnumClass(), _Enum.class);
+        Assert.assertEquals(map.size(), 3);
+        Assert.assertEquals(ImmutableList.copyOf(map.keySet()), ImmutableList.of(_Enum._1, _Enum._2, _Enum._3));
+        Assert.assertEquals(map.get(_Enum._1), 0);
+        Assert.assertEquals(map.get(_Enum._2), 10);
+        Assert.assertEquals(map.get(_Enum._3), 20);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWhenEnumClassIsNull() {
+
+        ImmutableEnumIntMap.ofKeys((Class<_Enum>) null, e -> 1);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWhenFuncIsNull() {
+
+        ImmutableEnumIntMap.ofKeys(_Enum.class, null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofKeys_FailWhenEmptyEnum() {
+
+        ImmutableEnumIntMap.ofKeys(_EmptyEnum.class, e -> 1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumIntMap.copyOf()
+    //
+
+    @Test
+    public void copyOf_Pass() {
+
+        final ImmutableEnumIntMap<_Enum> map =
+            ImmutableEnumIntMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._3, 3, _Enum._1, 1, _Enum._2, 2));
+
+        Assert.assertEquals(map.toArray(), new int[]{1, 2, 3});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void copyOf_FailWhenMissingKey() {
+
+        ImmutableEnumIntMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._3, 3, _Enum._1, 1));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyOf_FailWhenMapIsNull() {
+
+        ImmutableEnumIntMap.copyOf(_Enum.class, null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumIntMap.get()
+    //
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void get_FailWhenKeyIsNull() {
+
+        ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 1).get(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void get_FailWhenKeyFromOtherEnum() {
+
+        final ImmutableEnumIntMap<_Enum> map = ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 1);
+        // Only possible with unchecked casts.
+        final ImmutableEnumIntMap<_Enum2> map2 = (ImmutableEnumIntMap<_Enum2>) (ImmutableEnumIntMap<?>) map;
+        map2.get(_Enum2._1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumIntMap.forEach()/sum()/toArray()
+    //
+
+    @Test
+    public void forEach_Pass() {
+
+        final ImmutableEnumIntMap<_Enum> map = ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 1 + e.ordinal());
+        final List<String> list = new ArrayList<>();
+        map.forEach((key, value) -> list.add(key + "=" + value));
+
+        Assert.assertEquals(list, ImmutableList.of("_1=1", "_2=2", "_3=3"));
+    }
+
+    @Test
+    public void sum_Pass() {
+
+        Assert.assertEquals(ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 1 + e.ordinal()).sum(), 6);
+    }
+
+    @Test
+    public void toArray_PassWhenModifyCopy() {
+
+        final ImmutableEnumIntMap<_Enum> map = ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 7);
+        map.toArray()[0] = 99;
+
+        Assert.assertEquals(map.get(_Enum._1), 7);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumIntMap.hashCode()/equals()/toString()
+    //
+
+    @Test
+    public void hashCodeAndEquals_Pass() {
+
+        new EqualsTester()
+            .addEqualityGroup(
+                ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 1 + e.ordinal()),
+                ImmutableEnumIntMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._1, 1, _Enum._2, 2, _Enum._3, 3)))
+            .addEqualityGroup(ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 1))
+            .addEqualityGroup(ImmutableEnumIntMap.ofKeys(_Enum2.class, e -> 1 + e.ordinal()))
+            .testEquals();
+    }
+
+    @Test
+    public void toString_Pass() {
+
+        final ImmutableEnumIntMap<_Enum> map = ImmutableEnumIntMap.ofKeys(_Enum.class, e -> 1 + e.ordinal());
+
+        Assert.assertEquals(map.toString(), "{_1=1, _2=2, _3=3}");
+    }
+}
@@ -0,0 +1,181 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableEnumLongMapTest {
+
+    private enum _EmptyEnum {}
+
+    private enum _Enum { _1, _2, _3 }
+
+    private enum _Enum2 { _1, _2, _3 }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumLongMap.ofKeys()
+    //
+
+    @Test
+    public void ofKeys_Pass() {
+
+        final ImmutableEnumLongMap<_Enum> map = ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 10L * e.ordinal());
+
+        Assert.assertSame(map.getEnumClass(), _Enum.class);
+        Assert.assertEquals(map.size(), 3);
+        Assert.assertEquals(ImmutableList.copyOf(map.keySet()), ImmutableList.of(_Enum._1, _Enum._2, _Enum._3));
+        Assert.assertEquals(map.get(_Enum._1), 0L);
+        Assert.assertEquals(map.get(_Enum._2), 10L);
+        Assert.assertEquals(map.get(_Enum._3), 20L);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWhenEnumClassIsNull() {
+
+        ImmutableEnumLongMap.ofKeys((Class<_Enum>) null, e -> 1L);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWhenFuncIsNull() {
+
+        ImmutableEnumLongMap.ofKeys(_Enum.class, null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofKeys_FailWhenEmptyEnum() {
+
+        ImmutableEnumLongMap.ofKeys(_EmptyEnum.class, e -> 1L);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumLongMap.copyOf()
+    //
+
+    @Test
+    public void copyOf_Pass() {
+
+        final ImmutableEnumLongMap<_Enum> map =
+            ImmutableEnumLongMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._3, 3L, _Enum._1, 1L, _Enum._2, 2L));
+
+        Assert.assertEquals(map.toArray(), new long[]{1L, 2L, 3L});
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void copyOf_FailWhenMissingKey() {
+
+        ImmutableEnumLongMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._3, 3L, _Enum._1, 1L));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyOf_FailWhenMapIsNull() {
+
+        ImmutableEnumLongMap.copyOf(_Enum.class, null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumLongMap.get()
+    //
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void get_FailWhenKeyIsNull() {
+
+        ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 1L).get(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void get_FailWhenKeyFromOtherEnum() {
+
+        final ImmutableEnumLongMap<_Enum> map = ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 1L);
+        // Only possible with unchecked casts.
+        final ImmutableEnumLongMap<_Enum2> map2 = (ImmutableEnumLongMap<_Enum2>) (ImmutableEnumLongMap<?>) map;
+        map2.get(_Enum2._1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumLongMap.forEach()/sum()/toArray()
+    //
+
+    @Test
+    public void forEach_Pass() {
+
+        final ImmutableEnumLongMap<_Enum> map = ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 1L + e.ordinal());
+        final List<String> list = new ArrayList<>();
+        map.forEach((key, value) -> list.add(key + "=" + value));
+
+        Assert.assertEquals(list, ImmutableList.of("_1=1", "_2=2", "_3=3"));
+    }
+
+    @Test
+    public void sum_Pass() {
+
+        Assert.assertEquals(ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 1L + e.ordinal()).sum(), 6L);
+    }
+
+    @Test
+    public void toArray_PassWhenModifyCopy() {
+
+        final ImmutableEnumLongMap<_Enum> map = ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 7L);
+        map.toArray()[0] = 99L;
+
+        Assert.assertEquals(map.get(_Enum._1), 7L);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableEnumLongMap.hashCode()/equals()/toString()
+    //
+
+    @Test
+    public void hashCodeAndEquals_Pass() {
+
+        new EqualsTester()
+            .addEqualityGroup(
+                ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 1L + e.ordinal()),
+                ImmutableEnumLongMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._1, 1L, _Enum._2, 2L, _Enum._3, 3L)))
+            .addEqualityGroup(ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 1L))
+            .addEqualityGroup(ImmutableEnumLongMap.ofKeys(_Enum2.class, e -> 1L + e.ordinal()))
+            .testEquals();
+    }
+
+    @Test
+    public void toString_Pass() {
+
+        final ImmutableEnumLongMap<_Enum> map = ImmutableEnumLongMap.ofKeys(_Enum.class, e -> 1L + e.ordinal());
+
+        Assert.assertEquals(map.toString(), "{_1=1, _2=2, _3=3}");
+    }
+}
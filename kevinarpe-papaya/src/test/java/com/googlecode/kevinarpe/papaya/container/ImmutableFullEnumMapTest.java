@@ -26,11 +26,23 @@ package com.googlecode.kevinarpe.papaya.container;
  */
 
 import com.google.common.collect.ImmutableBiMap;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
 
 /**
  * Note: Full coverage is achieved in conjunction with ImmutableFullEnumMapBuilderImplTest.
@@ -43,6 +55,8 @@ public class ImmutableFullEnumMapTest {
 
     private enum _Enum { _1, _2 }
 
+    private enum _Enum2 { _1, _2 }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // ImmutableFullEnumMap.ctor()
     //
@@ -93,6 +107,18 @@ public class ImmutableFullEnumMapTest {
         Assert.assertEquals(map2, map);
     }
 
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofKeys_FailWithNullValue() {
+
+        ImmutableFullEnumMap.ofKeys(_Enum.class, e -> (_Enum._1 == e) ? "abc" : null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofKeys_FailWhenEmptyEnum() {
+
+        ImmutableFullEnumMap.ofKeys(_EmptyEnum.class, e -> "abc");
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // ImmutableFullEnumMap.ofKeys2()
     //
@@ -134,6 +160,24 @@ public class ImmutableFullEnumMapTest {
         Assert.assertEquals(map2, map.inverse());
     }
 
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofValues_FailWhenMultipleValuesMapToSameKey() {
+
+        ImmutableFullEnumMap.ofValues(_Enum.class, Arrays.asList("abc", "def", "ghi"), v -> "abc".equals(v) ? _Enum._1 : _Enum._2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ofValues_FailWhenMissingKey() {
+
+        ImmutableFullEnumMap.ofValues(_Enum.class, Arrays.asList("abc"), v -> _Enum._2);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ofValues_FailWithNullKey() {
+
+        ImmutableFullEnumMap.ofValues(_Enum.class, Arrays.asList("abc", "def"), v -> null);
+    }
+
     ////////////////////////////////////////////////////////////////////////////////////////////////
     // ImmutableFullEnumMap.ofValues2()
     //
@@ -556,4 +600,213 @@ public class ImmutableFullEnumMapTest {
         // @SuppressWarnings("deprecation")
         map.merge(_Enum._1, "uvw", (any, any2) -> "xyz");
     }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableFullEnumMap.size(), isEmpty(), containsKey(Object), containsValue(Object), get(Object)
+    //
+
+    @Test
+    public void readMethods_Pass() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        Assert.assertEquals(map.size(), 2);
+        Assert.assertFalse(map.isEmpty());
+        Assert.assertTrue(map.containsKey(_Enum._1));
+        Assert.assertTrue(map.containsKey(_Enum._2));
+        Assert.assertFalse(map.containsKey(_Enum2._1));
+        Assert.assertFalse(map.containsKey("abc"));
+        Assert.assertFalse(map.containsKey(null));
+        Assert.assertTrue(map.containsValue("abc"));
+        Assert.assertFalse(map.containsValue("xyz"));
+        Assert.assertFalse(map.containsValue(null));
+        Assert.assertEquals(map.get(_Enum._2), "abc");
+        Assert.assertNull(map.get(_Enum2._2));
+        Assert.assertNull(map.get(null));
+        Assert.assertEquals(map.getOrDefault(_Enum._1, "xyz"), "def");
+        Assert.assertEquals(map.getOrDefault(_Enum2._1, "xyz"), "xyz");
+        Assert.assertEquals(map.getByEnumOrDefault(_Enum._1, "xyz"), "def");
+    }
+
+    @Test
+    public void readMethods_PassWhenEmpty() {
+
+        final ImmutableFullEnumMap<_EmptyEnum, String> map =
+            new ImmutableFullEnumMap<>(_EmptyEnum.class, ImmutableMap.of(), IsEmptyEnumAllowed.YES);
+
+        Assert.assertEquals(map.size(), 0);
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertFalse(map.containsKey(_Enum._1));
+        Assert.assertNull(map.get(_Enum._1));
+        Assert.assertTrue(map.keySet().isEmpty());
+        Assert.assertTrue(map.values().isEmpty());
+        Assert.assertTrue(map.entrySet().isEmpty());
+        Assert.assertEquals(map.toString(), "{}");
+        Assert.assertEquals(map.hashCode(), 0);
+        Assert.assertEquals(map, ImmutableMap.of());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test(expectedExceptions = NullPointerException.class)
+    public void getByEnum_FailWithKeyFromOtherEnum() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        @SuppressWarnings("rawtypes")
+        final ImmutableFullEnumMap rawMap = map;
+        rawMap.getByEnum(_Enum2._1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithKeyFromOtherEnum() {
+
+        final Map map = new HashMap();
+        map.put(_Enum._1, "abc");
+        map.put(_Enum2._1, "def");
+        new ImmutableFullEnumMap<>(_Enum.class, map, IsEmptyEnumAllowed.NO);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ctor_FailWithNullValue() {
+
+        final Map<_Enum, String> map = new EnumMap<>(_Enum.class);
+        map.put(_Enum._1, "abc");
+        map.put(_Enum._2, null);
+        new ImmutableFullEnumMap<>(_Enum.class, map, IsEmptyEnumAllowed.NO);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableFullEnumMap.keySet(), values(), entrySet()
+    //
+
+    @Test
+    public void keySet_Pass() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+        final ImmutableFullEnumMap<_Enum, String> map2 =
+            ImmutableFullEnumMap.ofKeys(_Enum.class, e -> e.name());
+
+        Assert.assertEquals(new ArrayList<>(map.keySet()), Arrays.asList(_Enum._1, _Enum._2));
+        // Shared by all maps with the same enum class
+        Assert.assertSame(map.keySet(), map2.keySet());
+    }
+
+    @Test
+    public void values_Pass() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        Assert.assertEquals(new ArrayList<>(map.values()), Arrays.asList("def", "abc"));
+        Assert.assertTrue(map.values() instanceof RandomAccess);
+        Assert.assertTrue(map.values().contains("abc"));
+        Assert.assertFalse(map.values().contains("xyz"));
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void values_FailWhenModified() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        map.values().add("xyz");
+    }
+
+    @Test
+    public void entrySet_Pass() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        Assert.assertEquals(new ArrayList<>(map.entrySet()),
+            Arrays.asList(new AbstractMap.SimpleImmutableEntry<>(_Enum._1, "def"),
+                          new AbstractMap.SimpleImmutableEntry<>(_Enum._2, "abc")));
+        Assert.assertEquals(map.entrySet().size(), 2);
+        Assert.assertTrue(map.entrySet().contains(new AbstractMap.SimpleImmutableEntry<>(_Enum._2, "abc")));
+        Assert.assertFalse(map.entrySet().contains(new AbstractMap.SimpleImmutableEntry<>(_Enum._2, "def")));
+        Assert.assertFalse(map.entrySet().contains(new AbstractMap.SimpleImmutableEntry<>(_Enum2._2, "abc")));
+        Assert.assertFalse(map.entrySet().contains("abc"));
+        Assert.assertEquals(map.entrySet(), ImmutableMap.of(_Enum._1, "def", _Enum._2, "abc").entrySet());
+    }
+
+    @Test(expectedExceptions = NoSuchElementException.class)
+    public void entrySet_FailWithNoSuchElementException() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        final Iterator<Map.Entry<_Enum, String>> iter = map.entrySet().iterator();
+        iter.next();
+        iter.next();
+        Assert.assertFalse(iter.hasNext());
+        iter.next();
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void entrySet_FailWhenModified() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        final Iterator<Map.Entry<_Enum, String>> iter = map.entrySet().iterator();
+        iter.next();
+        iter.remove();
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableFullEnumMap.forEach(BiConsumer)
+    //
+
+    @Test
+    public void forEach_Pass() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        final List<Object> list = new ArrayList<>();
+        map.forEach((k, v) -> { list.add(k); list.add(v); });
+        Assert.assertEquals(list, ImmutableList.of(_Enum._1, "def", _Enum._2, "abc"));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableFullEnumMap.equals(Object), hashCode(), toString()
+    //
+
+    @Test
+    public void equalsAndHashCode_Pass() {
+
+        final Map<_Enum, String> enumMap = new EnumMap<>(_Enum.class);
+        enumMap.put(_Enum._1, "def");
+        enumMap.put(_Enum._2, "abc");
+
+        new EqualsTester()
+            .addEqualityGroup(
+                ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def")),
+                ImmutableFullEnumMap.ofKeys(_Enum.class, e -> (_Enum._1 == e) ? "def" : "abc"),
+                ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"),
+                enumMap,
+                new HashMap<>(enumMap))
+            .addEqualityGroup(
+                ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "xyz")),
+                ImmutableMap.of(_Enum._2, "abc", _Enum._1, "xyz"))
+            .addEqualityGroup(
+                ImmutableFullEnumMap.copyOf(_Enum2.class, ImmutableMap.of(_Enum2._2, "abc", _Enum2._1, "def")))
+            .addEqualityGroup(ImmutableMap.of(_Enum._2, "abc"))
+            .addEqualityGroup("abc")
+            .testEquals();
+    }
+
+    @Test
+    public void toString_Pass() {
+
+        final ImmutableFullEnumMap<_Enum, String> map =
+            ImmutableFullEnumMap.copyOf(_Enum.class, ImmutableMap.of(_Enum._2, "abc", _Enum._1, "def"));
+
+        Assert.assertEquals(map.toString(), "{_1=def, _2=abc}");
+        Assert.assertEquals(map.toString(), new EnumMap<>(map).toString());
+    }
 }
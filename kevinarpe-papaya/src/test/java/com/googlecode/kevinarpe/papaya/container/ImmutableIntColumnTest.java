@@ -0,0 +1,132 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableIntColumnTest {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableIntColumn.copyOf()
+    //
+
+    @Test
+    public void copyOf_Pass() {
+
+        final int[] arr = {3, -1, Integer.MAX_VALUE};
+        final ImmutableIntColumn column = ImmutableIntColumn.copyOf(arr);
+        arr[0] = 99;
+
+        Assert.assertSame(column.getColumnType(), ImmutableColumnType.INT);
+        Assert.assertEquals(column.size(), 3);
+        Assert.assertEquals(column.getInt(0), 3);
+        Assert.assertEquals(column.getInt(2), Integer.MAX_VALUE);
+        Assert.assertEquals(column.get(1), Integer.valueOf(-1));
+        Assert.assertEquals(column.asList(), ImmutableList.of(3, -1, Integer.MAX_VALUE));
+        Assert.assertEquals(column.toString(), "[3, -1, " + Integer.MAX_VALUE + "]");
+    }
+
+    @Test
+    public void copyOf_PassWhenEmpty() {
+
+        final ImmutableIntColumn column = ImmutableIntColumn.copyOf();
+
+        Assert.assertEquals(column.size(), 0);
+        Assert.assertEquals(column.asList(), ImmutableList.of());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyOf_FailWhenNull() {
+
+        ImmutableIntColumn.copyOf((int[]) null);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void getLong_FailWhenIndexTooLarge() {
+
+        ImmutableIntColumn.copyOf(1).getInt(1);
+    }
+
+    @Test
+    public void toArray_PassWhenModifyCopy() {
+
+        final ImmutableIntColumn column = ImmutableIntColumn.copyOf(1, 2);
+        column.toArray()[0] = 99;
+
+        Assert.assertEquals(column.toArray(), new int[]{1, 2});
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void asList_FailWhenModify() {
+
+        ImmutableIntColumn.copyOf(1).asList().set(0, 2);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableIntColumn.Builder
+    //
+
+    @Test
+    public void builder_Pass() {
+
+        final ImmutableIntColumn.Builder b = ImmutableIntColumn.builder();
+        for (int i = 0; i < 100; ++i) {
+
+            b.add(i);
+        }
+        b.addAll(100, 101).addBoxed(102);
+        final ImmutableIntColumn column = b.build();
+
+        Assert.assertEquals(b.size(), 103);
+        Assert.assertEquals(column.size(), 103);
+        for (int i = 0; i < column.size(); ++i) {
+
+            Assert.assertEquals(column.getInt(i), i);
+        }
+        // Builder may be reused.
+        b.add(103);
+        Assert.assertEquals(column.size(), 103);
+        Assert.assertEquals(b.build().size(), 104);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void builderAddBoxed_FailWhenNull() {
+
+        ImmutableIntColumn.builder().addBoxed(null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void builderAddAll_FailWhenNull() {
+
+        ImmutableIntColumn.builder().addAll((int[]) null);
+    }
+}
@@ -0,0 +1,132 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableLongColumnTest {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableLongColumn.copyOf()
+    //
+
+    @Test
+    public void copyOf_Pass() {
+
+        final long[] arr = {3L, -1L, Long.MAX_VALUE};
+        final ImmutableLongColumn column = ImmutableLongColumn.copyOf(arr);
+        arr[0] = 99L;
+
+        Assert.assertSame(column.getColumnType(), ImmutableColumnType.LONG);
+        Assert.assertEquals(column.size(), 3);
+        Assert.assertEquals(column.getLong(0), 3L);
+        Assert.assertEquals(column.getLong(2), Long.MAX_VALUE);
+        Assert.assertEquals(column.get(1), Long.valueOf(-1L));
+        Assert.assertEquals(column.asList(), ImmutableList.of(3L, -1L, Long.MAX_VALUE));
+        Assert.assertEquals(column.toString(), "[3, -1, " + Long.MAX_VALUE + "]");
+    }
+
+    @Test
+    public void copyOf_PassWhenEmpty() {
+
+        final ImmutableLongColumn column = ImmutableLongColumn.copyOf();
+
+        Assert.assertEquals(column.size(), 0);
+        Assert.assertEquals(column.asList(), ImmutableList.of());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyOf_FailWhenNull() {
+
+        ImmutableLongColumn.copyOf((long[]) null);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void getLong_FailWhenIndexTooLarge() {
+
+        ImmutableLongColumn.copyOf(1L).getLong(1);
+    }
+
+    @Test
+    public void toArray_PassWhenModifyCopy() {
+
+        final ImmutableLongColumn column = ImmutableLongColumn.copyOf(1L, 2L);
+        column.toArray()[0] = 99L;
+
+        Assert.assertEquals(column.toArray(), new long[]{1L, 2L});
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void asList_FailWhenModify() {
+
+        ImmutableLongColumn.copyOf(1L).asList().set(0, 2L);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableLongColumn.Builder
+    //
+
+    @Test
+    public void builder_Pass() {
+
+        final ImmutableLongColumn.Builder b = ImmutableLongColumn.builder();
+        for (long i = 0; i < 100; ++i) {
+
+            b.add(i);
+        }
+        b.addAll(100L, 101L).addBoxed(102L);
+        final ImmutableLongColumn column = b.build();
+
+        Assert.assertEquals(b.size(), 103);
+        Assert.assertEquals(column.size(), 103);
+        for (int i = 0; i < column.size(); ++i) {
+
+            Assert.assertEquals(column.getLong(i), i);
+        }
+        // Builder may be reused.
+        b.add(103L);
+        Assert.assertEquals(column.size(), 103);
+        Assert.assertEquals(b.build().size(), 104);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void builderAddBoxed_FailWhenNull() {
+
+        ImmutableLongColumn.builder().addBoxed(null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void builderAddAll_FailWhenNull() {
+
+        ImmutableLongColumn.builder().addAll((long[]) null);
+    }
+}
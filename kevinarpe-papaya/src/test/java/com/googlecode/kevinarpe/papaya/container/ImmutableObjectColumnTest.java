@@ -0,0 +1,88 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableObjectColumnTest {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableObjectColumn.of()/copyOf()
+    //
+
+    @Test
+    public void of_Pass() {
+
+        final ImmutableList<String> list = ImmutableList.of("abc", "def");
+        final ImmutableObjectColumn<String> column = ImmutableObjectColumn.of(list);
+
+        Assert.assertSame(column.getColumnType(), ImmutableColumnType.OBJECT);
+        Assert.assertSame(column.asList(), list);
+        Assert.assertEquals(column.size(), 2);
+        Assert.assertEquals(column.get(1), "def");
+        Assert.assertEquals(column.toString(), "[abc, def]");
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void of_FailWhenNull() {
+
+        ImmutableObjectColumn.of(null);
+    }
+
+    @Test
+    public void copyOf_Pass() {
+
+        final ImmutableObjectColumn<Object> column = ImmutableObjectColumn.copyOf(ImmutableList.of("abc", 123));
+
+        Assert.assertEquals(column.asList(), ImmutableList.of("abc", 123));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableObjectColumn.Builder
+    //
+
+    @Test
+    public void builder_Pass() {
+
+        final ImmutableObjectColumn.Builder<String> b = ImmutableObjectColumn.builder();
+        b.add("abc").addBoxed("def");
+
+        Assert.assertEquals(b.size(), 2);
+        Assert.assertEquals(b.build().asList(), ImmutableList.of("abc", "def"));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void builderAdd_FailWhenNull() {
+
+        ImmutableObjectColumn.<String>builder().add(null);
+    }
+}
@@ -0,0 +1,106 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ImmutableStringDictionaryColumnTest {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableStringDictionaryColumn.copyOf()
+    //
+
+    @Test
+    public void copyOf_Pass() {
+
+        final ImmutableStringDictionaryColumn column =
+            ImmutableStringDictionaryColumn.copyOf(ImmutableList.of("USD", "EUR", "USD", "JPY", "EUR"));
+
+        Assert.assertSame(column.getColumnType(), ImmutableColumnType.STRING_DICTIONARY);
+        Assert.assertEquals(column.size(), 5);
+        Assert.assertEquals(column.getDictionary(), ImmutableList.of("USD", "EUR", "JPY"));
+        Assert.assertEquals(column.toCodeArray(), new int[]{0, 1, 0, 2, 1});
+        Assert.assertEquals(column.getCode(3), 2);
+        Assert.assertEquals(column.getString(3), "JPY");
+        Assert.assertEquals(column.get(4), "EUR");
+        Assert.assertEquals(column.asList(), ImmutableList.of("USD", "EUR", "USD", "JPY", "EUR"));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void copyOf_FailWhenValueIsNull() {
+
+        ImmutableStringDictionaryColumn.copyOf(Arrays.asList("abc", null));
+    }
+
+    @Test
+    public void getCodeOf_Pass() {
+
+        final ImmutableStringDictionaryColumn column =
+            ImmutableStringDictionaryColumn.copyOf(ImmutableList.of("abc", "def", "abc"));
+
+        Assert.assertEquals(column.getCodeOf("abc"), 0);
+        Assert.assertEquals(column.getCodeOf("def"), 1);
+        Assert.assertEquals(column.getCodeOf("xyz"), -1);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void getCodeOf_FailWhenNull() {
+
+        ImmutableStringDictionaryColumn.copyOf(ImmutableList.of("abc")).getCodeOf(null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // ImmutableStringDictionaryColumn.Builder
+    //
+
+    @Test
+    public void builder_PassWhenReused() {
+
+        final ImmutableStringDictionaryColumn.Builder b = ImmutableStringDictionaryColumn.builder();
+        for (int i = 0; i < 100; ++i) {
+
+            b.add("x" + (i % 4));
+        }
+        final ImmutableStringDictionaryColumn column = b.build();
+        b.addBoxed("new");
+        final ImmutableStringDictionaryColumn column2 = b.build();
+
+        Assert.assertEquals(column.size(), 100);
+        Assert.assertEquals(column.getDictionary().size(), 4);
+        Assert.assertEquals(column.getCodeOf("new"), -1);
+        Assert.assertEquals(column2.size(), 101);
+        Assert.assertEquals(column2.getCodeOf("new"), 4);
+        Assert.assertEquals(column2.getString(100), "new");
+    }
+}
@@ -0,0 +1,160 @@
+package com.googlecode.kevinarpe.papaya.container;
+
+/*-
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.testing.EqualsTester;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class RowSelectionTest {
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // RowSelection.all()/none()
+    //
+
+    @Test
+    public void all_Pass() {
+
+        for (final int rowCount : new int[]{0, 1, 63, 64, 65, 130}) {
+
+            final RowSelection x = RowSelection.all(rowCount);
+
+            Assert.assertEquals(x.getRowCount(), rowCount);
+            Assert.assertEquals(x.count(), rowCount);
+            Assert.assertEquals(x.toRowIndexArray().length, rowCount);
+            Assert.assertEquals(RowSelection.none(rowCount).count(), 0);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void none_FailWhenRowCountNegative() {
+
+        RowSelection.none(-1);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // RowSelection.isSelected()
+    //
+
+    @Test
+    public void isSelected_Pass() {
+
+        final RowSelection x = RowSelection.all(70);
+
+        Assert.assertTrue(x.isSelected(0));
+        Assert.assertTrue(x.isSelected(69));
+        Assert.assertFalse(x.not().isSelected(69));
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void isSelected_FailWhenIndexTooLarge() {
+
+        RowSelection.all(70).isSelected(70);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // RowSelection.and()/or()/andNot()/not()
+    //
+
+    private static RowSelection
+    _newSelection(int rowCount,
+                  int... rowIndexArr) {
+
+        final long[] wordArr = new long[RowSelection._wordCount(rowCount)];
+        for (final int rowIndex : rowIndexArr) {
+
+            wordArr[rowIndex >>> 6] |= 1L << rowIndex;
+        }
+        final RowSelection x = new RowSelection(wordArr, rowCount);
+        return x;
+    }
+
+    @Test
+    public void and_Pass() {
+
+        final RowSelection a = _newSelection(100, 1, 64, 99);
+        final RowSelection b = _newSelection(100, 1, 65, 99);
+
+        Assert.assertEquals(a.and(b).toRowIndexArray(), new int[]{1, 99});
+        Assert.assertEquals(a.or(b).toRowIndexArray(), new int[]{1, 64, 65, 99});
+        Assert.assertEquals(a.andNot(b).toRowIndexArray(), new int[]{64});
+        Assert.assertEquals(a.not().count(), 97);
+        Assert.assertEquals(a.not().not(), a);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void and_FailWhenRowCountNotMatch() {
+
+        RowSelection.all(10).and(RowSelection.all(11));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void or_FailWhenNull() {
+
+        RowSelection.all(10).or(null);
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // RowSelection.forEachSelected()
+    //
+
+    @Test
+    public void forEachSelected_Pass() {
+
+        final List<Integer> list = new ArrayList<>();
+        _newSelection(200, 0, 63, 64, 199).forEachSelected(list::add);
+
+        Assert.assertEquals(list, ImmutableList.of(0, 63, 64, 199));
+    }
+
+    ////////////////////////////////////////////////////////////////////////////////////////////////
+    // RowSelection.hashCode()/equals()/toString()
+    //
+
+    @Test
+    public void hashCodeAndEquals_Pass() {
+
+        new EqualsTester()
+            .addEqualityGroup(RowSelection.all(3), _newSelection(3, 0, 1, 2))
+            .addEqualityGroup(RowSelection.none(3))
+            .addEqualityGroup(RowSelection.all(4))
+            .testEquals();
+    }
+
+    @Test
+    public void toString_Pass() {
+
+        Assert.assertEquals(_newSelection(10, 1, 2, 3).toString(), "RowSelection{count=3, rowCount=10}");
+    }
+}
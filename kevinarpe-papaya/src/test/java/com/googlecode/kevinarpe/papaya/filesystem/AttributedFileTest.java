@@ -0,0 +1,185 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class AttributedFileTest {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // AttributedFile.ctor()
+    //
+
+    @Test
+    public void ctor_Pass() {
+        File dirPath = new File("dummy");
+        AttributedFile x = new AttributedFile(dirPath, "abc", (BasicFileAttributes) null);
+        Assert.assertEquals(x, new File(dirPath, "abc"));
+        Assert.assertEquals(new File(dirPath, "abc"), x);
+        Assert.assertEquals(x.hashCode(), new File(dirPath, "abc").hashCode());
+        Assert.assertNull(x.getOptionalAttributes());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ctor_FailWithNull() {
+        new AttributedFile(new File("dummy"), (String) null, (BasicFileAttributes) null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // AttributedFile.cachedExists()/cachedIsDirectory()/cachedIsFile()/cachedLength()
+    // AttributedFile.cachedLastModified()
+    //
+
+    @Test
+    public void attributes_Pass()
+    throws IOException {
+        File filePath = File.createTempFile(AttributedFileTest.class.getSimpleName(), ".tmp");
+        try {
+            Files.write(filePath.toPath(), new byte[] { 1, 2, 3 });
+            BasicFileAttributes attributes =
+                Files.readAttributes(filePath.toPath(), BasicFileAttributes.class);
+            AttributedFile x =
+                new AttributedFile(filePath.getParentFile(), filePath.getName(), attributes);
+            Assert.assertSame(x.getOptionalAttributes(), attributes);
+            Assert.assertSame(AttributedFile.readAttributes(x), attributes);
+
+            // Cached attributes are not refreshed after changes to the file system.
+            Files.write(filePath.toPath(), new byte[] { 1, 2, 3, 4, 5 });
+            Assert.assertTrue(x.cachedExists());
+            Assert.assertTrue(x.cachedIsFile());
+            Assert.assertFalse(x.cachedIsDirectory());
+            Assert.assertEquals(x.cachedLength(), 3L);
+            Assert.assertEquals(x.cachedLastModified(), attributes.lastModifiedTime().toMillis());
+            Assert.assertEquals(AttributedFile.cachedLength(x), 3L);
+            // Methods from java.io.File are live.
+            Assert.assertEquals(x.length(), 5L);
+            Assert.assertEquals(AttributedFile.cachedLength(filePath), 5L);
+
+            Assert.assertTrue(filePath.delete());
+            Assert.assertTrue(x.cachedExists());
+            Assert.assertTrue(AttributedFile.cachedExists(x));
+            Assert.assertFalse(x.exists());
+            Assert.assertFalse(x.isFile());
+            Assert.assertFalse(AttributedFile.cachedExists(filePath));
+        }
+        finally {
+            filePath.delete();
+        }
+    }
+
+    @Test
+    public void attributes_PassWithNull()
+    throws IOException {
+        File filePath = File.createTempFile(AttributedFileTest.class.getSimpleName(), ".tmp");
+        try {
+            Files.write(filePath.toPath(), new byte[] { 1, 2, 3 });
+            AttributedFile x =
+                new AttributedFile(
+                    filePath.getParentFile(), filePath.getName(), (BasicFileAttributes) null);
+            Assert.assertTrue(x.cachedExists());
+            Assert.assertTrue(x.cachedIsFile());
+            Assert.assertFalse(x.cachedIsDirectory());
+            Assert.assertEquals(x.cachedLength(), 3L);
+            Assert.assertEquals(x.cachedLastModified(), filePath.lastModified());
+            Assert.assertTrue(AttributedFile.cachedIsFile(x));
+            Assert.assertFalse(AttributedFile.cachedIsDirectory(x));
+            Assert.assertEquals(AttributedFile.cachedLastModified(x), filePath.lastModified());
+            Assert.assertEquals(AttributedFile.readAttributes(x).size(), 3L);
+        }
+        finally {
+            filePath.delete();
+        }
+        AttributedFile x2 =
+            new AttributedFile(
+                filePath.getParentFile(), filePath.getName(), (BasicFileAttributes) null);
+        Assert.assertFalse(x2.cachedExists());
+        Assert.assertFalse(x2.cachedIsFile());
+        Assert.assertEquals(x2.cachedLength(), 0L);
+    }
+
+    @Test
+    public void serialize_Pass()
+    throws IOException, ClassNotFoundException {
+        File dirPath = new File(".").getAbsoluteFile();
+        BasicFileAttributes attributes =
+            Files.readAttributes(dirPath.toPath(), BasicFileAttributes.class);
+        AttributedFile x =
+            new AttributedFile(dirPath.getParentFile(), dirPath.getName(), attributes);
+
+        ByteArrayOutputStream byteOut = new ByteArrayOutputStream();
+        ObjectOutputStream objectOut = new ObjectOutputStream(byteOut);
+        objectOut.writeObject(x);
+        objectOut.close();
+        ObjectInputStream objectIn =
+            new ObjectInputStream(new ByteArrayInputStream(byteOut.toByteArray()));
+        AttributedFile y = (AttributedFile) objectIn.readObject();
+        Assert.assertEquals(y, x);
+        Assert.assertNull(y.getOptionalAttributes());
+        Assert.assertTrue(y.cachedIsDirectory());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void cachedLength_FailWithNull() {
+        AttributedFile.cachedLength((File) null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // AttributedFile.readAttributes()
+    //
+
+    @Test
+    public void readAttributes_Pass()
+    throws IOException {
+        File dirPath = new File(".");
+        BasicFileAttributes attributes = AttributedFile.readAttributes(dirPath);
+        Assert.assertTrue(attributes.isDirectory());
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void readAttributes_FailWithMissingPath()
+    throws IOException {
+        AttributedFile.readAttributes(new File("does-not-exist." + System.nanoTime()));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void readAttributes_FailWithNull()
+    throws IOException {
+        AttributedFile.readAttributes((File) null);
+    }
+}
@@ -68,6 +68,15 @@ public class BaseTraversePathIterTest {
         Assert.assertSame(actual.withRootDirPath(), expected.withRootDirPath());
         Assert.assertSame(actual.withDepthPolicy(), expected.withDepthPolicy());
         Assert.assertSame(actual.withExceptionPolicy(), expected.withExceptionPolicy());
+        Assert.assertSame(
+            actual.withDirectoryListingPolicy(), expected.withDirectoryListingPolicy());
+        Assert.assertEquals(
+            actual.withBreadthFirstFrontierCapacity(), expected.withBreadthFirstFrontierCapacity());
+        Assert.assertEquals(
+            actual.withDirectoryListingPrefetchCount(), expected.withDirectoryListingPrefetchCount());
+        Assert.assertEquals(
+            actual.withDirectoryListingPrefetchMaxPathCount(),
+            expected.withDirectoryListingPrefetchMaxPathCount());
         Assert.assertSame(
             actual.withOptionalDescendDirPathFilter(), expected.withOptionalDescendDirPathFilter());
         Assert.assertSame(
@@ -0,0 +1,246 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class DirectoryListingPrefetcherTest {
+
+    private File baseDirPath;
+    private File dirPath1;
+    private File dirPath2;
+    private File dirPath3;
+
+    @BeforeMethod
+    public void beforeEachTestMethod()
+    throws IOException {
+        baseDirPath = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        dirPath1 = _createDir("dir1", 1);
+        dirPath2 = _createDir("dir2", 2);
+        dirPath3 = _createDir("dir3", 3);
+    }
+
+    private File _createDir(String name, int fileCount)
+    throws IOException {
+        File dirPath = new File(baseDirPath, name);
+        assertTrue(dirPath.mkdir());
+        for (int i = 0; i < fileCount; ++i) {
+            assertTrue(new File(dirPath, "file" + i).createNewFile());
+        }
+        return dirPath;
+    }
+
+    @AfterMethod
+    public void afterEachTestMethod() {
+        for (File dirPath : baseDirPath.listFiles()) {
+            for (File path : dirPath.listFiles()) {
+                assertTrue(path.delete());
+            }
+            assertTrue(dirPath.delete());
+        }
+        assertTrue(baseDirPath.delete());
+    }
+
+    private static void _awaitDone(DirectoryListingPrefetcher prefetcher, File dirPath)
+    throws InterruptedException {
+        for (int i = 0; i < 1000 && !prefetcher.isDone(dirPath); ++i) {
+            Thread.sleep(10);
+        }
+        assertTrue(prefetcher.isDone(dirPath));
+    }
+
+    private static List<File> _sorted(List<File> pathList) {
+        List<File> x = new ArrayList<File>(pathList);
+        Collections.sort(x);
+        return x;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // DirectoryListingPrefetcher.ctor()
+    //
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithZeroPrefetchCount() {
+        new DirectoryListingPrefetcher(0, 1, DirectoryListingPolicy.LIST_FILES);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithZeroMaxPathCount() {
+        new DirectoryListingPrefetcher(1, 0, DirectoryListingPolicy.LIST_FILES);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ctor_FailWithNullDirectoryListingPolicy() {
+        new DirectoryListingPrefetcher(1, 1, (DirectoryListingPolicy) null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // DirectoryListingPrefetcher.prefetch()/tryTake()
+    //
+
+    @Test
+    public void prefetchAndTryTake_Pass()
+    throws Exception {
+        DirectoryListingPrefetcher classUnderTest =
+            new DirectoryListingPrefetcher(2, 100, DirectoryListingPolicy.LIST_FILES);
+        try {
+            classUnderTest.prefetch(ImmutableList.of(dirPath1, dirPath2, dirPath3));
+            // Limited by prefetch count
+            assertEquals(classUnderTest.getPendingCount(), 2);
+            _awaitDone(classUnderTest, dirPath1);
+            _awaitDone(classUnderTest, dirPath2);
+            assertEquals(classUnderTest.getPathCount(), 1 + 2);
+
+            DirectoryListing dirListing = classUnderTest.tryTake(dirPath2);
+            assertNotNull(dirListing);
+            assertEquals(dirListing.getDirPath(), dirPath2);
+            assertEquals(
+                _sorted(dirListing.getChildPathList()),
+                _sorted(new DirectoryListing(dirPath2).getChildPathList()));
+            assertEquals(classUnderTest.getPathCount(), 1);
+            assertEquals(classUnderTest.getPendingCount(), 1);
+            assertEquals(classUnderTest.getHitCount(), 1);
+
+            // Never prefetched
+            assertNull(classUnderTest.tryTake(dirPath3));
+            assertEquals(classUnderTest.getMissCount(), 1);
+
+            // Already pending: not submitted twice
+            classUnderTest.prefetch(ImmutableList.of(dirPath1, dirPath3));
+            assertEquals(classUnderTest.getPendingCount(), 2);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test
+    public void prefetchAndTryTake_PassWhenMemoryBudgetExceeded()
+    throws Exception {
+        DirectoryListingPrefetcher classUnderTest =
+            new DirectoryListingPrefetcher(1, 2, DirectoryListingPolicy.LIST_FILES);
+        try {
+            classUnderTest.prefetch(ImmutableList.of(dirPath3));
+            _awaitDone(classUnderTest, dirPath3);
+            assertEquals(classUnderTest.getDiscardCount(), 1);
+            assertEquals(classUnderTest.getPathCount(), 0);
+            assertNull(classUnderTest.tryTake(dirPath3));
+            assertEquals(classUnderTest.getMissCount(), 1);
+
+            classUnderTest.prefetch(ImmutableList.of(dirPath2));
+            _awaitDone(classUnderTest, dirPath2);
+            assertEquals(classUnderTest.getPathCount(), 2);
+            // Budget is full: nothing submitted.
+            classUnderTest.tryTake(dirPath2);
+            classUnderTest.prefetch(ImmutableList.of(dirPath1));
+            assertEquals(classUnderTest.getPendingCount(), 1);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test
+    public void prefetchAndTryTake_PassWhenBudgetFullBeforeSubmit()
+    throws Exception {
+        DirectoryListingPrefetcher classUnderTest =
+            new DirectoryListingPrefetcher(3, 2, DirectoryListingPolicy.LIST_FILES);
+        try {
+            classUnderTest.prefetch(ImmutableList.of(dirPath2));
+            _awaitDone(classUnderTest, dirPath2);
+            assertEquals(classUnderTest.getPathCount(), 2);
+            classUnderTest.prefetch(ImmutableList.of(dirPath2, dirPath1, dirPath3));
+            assertEquals(classUnderTest.getPendingCount(), 1);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test
+    public void prefetchAndTryTake_FailWithPathException()
+    throws Exception {
+        DirectoryListingPrefetcher classUnderTest =
+            new DirectoryListingPrefetcher(1, 100, DirectoryListingPolicy.LIST_FILES);
+        File missingDirPath = new File(baseDirPath, "missing");
+        try {
+            classUnderTest.prefetch(ImmutableList.of(missingDirPath));
+            _awaitDone(classUnderTest, missingDirPath);
+            try {
+                classUnderTest.tryTake(missingDirPath);
+                fail("Expected PathException");
+            }
+            catch (PathException e) {
+                assertEquals(e.getAbsPath(), missingDirPath.getAbsoluteFile());
+            }
+            assertEquals(classUnderTest.getPendingCount(), 0);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // DirectoryListingPrefetcher.close()
+    //
+
+    @Test
+    public void close_Pass()
+    throws Exception {
+        DirectoryListingPrefetcher classUnderTest =
+            new DirectoryListingPrefetcher(3, 100, DirectoryListingPolicy.LIST_FILES);
+        classUnderTest.prefetch(ImmutableList.of(dirPath1, dirPath2, dirPath3));
+        classUnderTest.close();
+        assertEquals(classUnderTest.getPendingCount(), 0);
+        assertNull(classUnderTest.tryTake(dirPath1));
+        classUnderTest.close();
+        classUnderTest.prefetch(ImmutableList.of(dirPath1));
+        assertEquals(classUnderTest.getPendingCount(), 0);
+        assertFalse(classUnderTest.isDone(dirPath1));
+    }
+}
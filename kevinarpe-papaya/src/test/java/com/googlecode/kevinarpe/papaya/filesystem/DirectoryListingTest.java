@@ -31,6 +31,7 @@ import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
 import com.googlecode.kevinarpe.papaya.container.ContainerFactory;
 import com.googlecode.kevinarpe.papaya.exception.PathException;
 import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+import com.googlecode.kevinarpe.papaya.filesystem.compare.FileLastModifiedOldestToNewestComparator;
 import com.googlecode.kevinarpe.papaya.filesystem.compare.FileNameLexicographicalComparator;
 import org.joda.time.DateTime;
 import org.mockito.Mockito;
@@ -42,6 +43,8 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -226,6 +229,80 @@ public class DirectoryListingTest {
         }
     }
 
+    ///////////////////////////////////////////////////////////////////////////
+    // DirectoryListing.ctor(File, Class, DirectoryListingPolicy)
+    //
+
+    @Test
+    public void ctor3_Pass()
+    throws IOException {
+        File dirPath = Files.createTempDirectory(DirectoryListingTest.class.getSimpleName()).toFile();
+        File filePath = new File(dirPath, "file");
+        File subDirPath = new File(dirPath, "subdir");
+        try {
+            Files.write(filePath.toPath(), new byte[] { 1, 2, 3 });
+            Assert.assertTrue(subDirPath.mkdir());
+
+            for (DirectoryListingPolicy directoryListingPolicy : DirectoryListingPolicy.values()) {
+                DirectoryListing x =
+                    new DirectoryListing(dirPath, LinkedList.class, directoryListingPolicy);
+                Assert.assertSame(x.getDirPath(), dirPath);
+                Assert.assertEquals(x.getChildPathList().getClass(), LinkedList.class);
+                x.sort(new FileNameLexicographicalComparator());
+                Assert.assertEquals(x.getChildPathList(), Arrays.asList(filePath, subDirPath));
+
+                File filePath2 = x.getChildPathList().get(0);
+                File subDirPath2 = x.getChildPathList().get(1);
+                Assert.assertTrue(filePath2.isFile());
+                Assert.assertEquals(filePath2.length(), 3L);
+                Assert.assertTrue(subDirPath2.isDirectory());
+
+                if (DirectoryListingPolicy.LIST_FILES == directoryListingPolicy) {
+                    Assert.assertFalse(filePath2 instanceof AttributedFile);
+                }
+                else {
+                    Assert.assertTrue(filePath2 instanceof AttributedFile);
+                    Assert.assertNotNull(((AttributedFile) filePath2).getOptionalAttributes());
+                    Assert.assertTrue(subDirPath2 instanceof AttributedFile);
+                    Assert.assertNotNull(((AttributedFile) subDirPath2).getOptionalAttributes());
+                }
+            }
+            Assert.assertEquals(
+                new DirectoryListing(dirPath).getChildPathList().size(),
+                new DirectoryListing(
+                    dirPath,
+                    DirectoryListing.DEFAULT_LIST_CLASS,
+                    DirectoryListingPolicy.DIRECTORY_STREAM_WITH_ATTRIBUTES)
+                    .getChildPathList().size());
+        }
+        finally {
+            filePath.delete();
+            subDirPath.delete();
+            dirPath.delete();
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ctor3_FailWithNull()
+    throws PathException {
+        File mockDirPath = _createMockDirPath(new File[0]);
+        new DirectoryListing(mockDirPath, ArrayList.class, (DirectoryListingPolicy) null);
+    }
+
+    @Test
+    public void newPathException_Pass() {
+        File mockDirPath = Mockito.mock(File.class);
+        Mockito.when(mockDirPath.exists()).thenReturn(true);
+        Mockito.when(mockDirPath.isDirectory()).thenReturn(true);
+        Mockito.when(mockDirPath.isFile()).thenReturn(false);
+        Mockito.when(mockDirPath.canExecute()).thenReturn(false);
+        IOException cause = new IOException("dummy");
+
+        PathException e = DirectoryListing.newPathException(mockDirPath, cause);
+        Assert.assertEquals(e.getReason(), PathExceptionReason.PATH_IS_NON_EXECUTABLE_DIRECTORY);
+        Assert.assertSame(e.getCause(), cause);
+    }
+
     ///////////////////////////////////////////////////////////////////////////
     // DirectoryListing.ctor(DirectoryListing)
     //
@@ -516,6 +593,32 @@ public class DirectoryListingTest {
             .compare(Mockito.any(File.class), Mockito.any(File.class));
     }
 
+    @Test
+    public void sort_PassWithLongKeyComparator()
+    throws PathException {
+        DateTime now = DateTime.now();
+        DateTime beforeNow = now.plusHours(-1);
+        DateTime afterNow = now.plusHours(+1);
+
+        File mockFilePath1 = _createMockFilePath("def", afterNow);
+        File mockFilePath2 = _createMockFilePath("abc", now);
+        File mockFilePath3 = _createMockFilePath("ghi", beforeNow);
+        DirectoryListing directoryListing =
+            _createDirectoryListing(new File[]{ mockFilePath1, mockFilePath2, mockFilePath3 });
+
+        Assert.assertSame(
+            directoryListing.sort(new FileLastModifiedOldestToNewestComparator()),
+            directoryListing);
+        List<File> childPathList = directoryListing.getChildPathList();
+        Assert.assertEquals(childPathList.get(0).getName(), "ghi");
+        Assert.assertEquals(childPathList.get(1).getName(), "abc");
+        Assert.assertEquals(childPathList.get(2).getName(), "def");
+        // Sort keys are computed exactly once per path.
+        Mockito.verify(mockFilePath1, Mockito.times(1)).lastModified();
+        Mockito.verify(mockFilePath2, Mockito.times(1)).lastModified();
+        Mockito.verify(mockFilePath3, Mockito.times(1)).lastModified();
+    }
+
     private Comparator<File> _createMockComparator(final Comparator<File> comparator) {
         // We cannot spy withSeparator a final class with Mockito (or Powermock), so we fake a spy here.
         // Create a mock, but delegate compare(T, T) calls to a real Comparator<T> instance.
@@ -0,0 +1,358 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class DuplicateFileFinderTest {
+
+    private static final int BLOCK_BYTE_COUNT = 16;
+
+    private File baseDirPath;
+    private byte[] bigByteArr;
+    private File a1;
+    private File a2;
+    private File c1;
+    private File c2;
+    private File e1;
+    private File e2;
+
+    @BeforeMethod
+    public void beforeEachTestMethod()
+    throws IOException {
+        baseDirPath = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        a1 = _writeFile("a1", "hello".getBytes(StandardCharsets.UTF_8));
+        a2 = _writeFile("a2", "hello".getBytes(StandardCharsets.UTF_8));
+        // Same size as "a*", but different content
+        _writeFile("a3", "world".getBytes(StandardCharsets.UTF_8));
+        // Unique size
+        _writeFile("b", "x".getBytes(StandardCharsets.UTF_8));
+
+        bigByteArr = new byte[3 * BLOCK_BYTE_COUNT];
+        for (int i = 0; i < bigByteArr.length; ++i) {
+            bigByteArr[i] = (byte) i;
+        }
+        File dirPath = new File(baseDirPath, "dir");
+        assertTrue(dirPath.mkdir());
+        c1 = _writeFile("c1", bigByteArr);
+        c2 = _writeFile("dir/c2", bigByteArr);
+        // Same first and last blocks as "c*", but different middle block
+        byte[] byteArr = bigByteArr.clone();
+        byteArr[BLOCK_BYTE_COUNT + 1] = -1;
+        _writeFile("c3", byteArr);
+        // Different first block
+        byteArr = bigByteArr.clone();
+        byteArr[0] = -1;
+        _writeFile("d1", byteArr);
+
+        e1 = _writeFile("e1", new byte[0]);
+        e2 = _writeFile("e2", new byte[0]);
+    }
+
+    private File _writeFile(String relativePath, byte[] byteArr)
+    throws IOException {
+        File path = new File(baseDirPath, relativePath);
+        FileOutputStream out = new FileOutputStream(path);
+        try {
+            out.write(byteArr);
+        }
+        finally {
+            out.close();
+        }
+        return path;
+    }
+
+    @AfterMethod
+    public void afterEachTestMethod() {
+        for (File path : baseDirPath.listFiles()) {
+            if (path.isDirectory()) {
+                for (File childPath : path.listFiles()) {
+                    assertTrue(childPath.delete());
+                }
+            }
+            assertTrue(path.delete());
+        }
+        assertTrue(baseDirPath.delete());
+    }
+
+    private TraversePathIterable _newIterable() {
+        TraversePathIterable x =
+            new TraversePathIterableImpl(baseDirPath, TraversePathDepthPolicy.DEPTH_FIRST);
+        return x;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // DuplicateFileFinder.find()
+    //
+
+    @Test
+    public void find_Pass()
+    throws InterruptedException {
+        DuplicateFileFinder classUnderTest =
+            new DuplicateFileFinder().withBlockByteCount(BLOCK_BYTE_COUNT);
+        DuplicateFileFinderResult result = classUnderTest.find(_newIterable());
+
+        assertEquals(
+            result.getGroupList(),
+            ImmutableList.of(
+                new DuplicateFileGroup(
+                    bigByteArr.length,
+                    Hashing.sha256().hashBytes(bigByteArr),
+                    Arrays.asList(c1, c2)),
+                new DuplicateFileGroup(
+                    5,
+                    Hashing.sha256().hashString("hello", StandardCharsets.UTF_8),
+                    Arrays.asList(a1, a2))));
+        assertEquals(result.getFileCount(), 8);
+        // a1, a2, a3, c1, c2, c3, d1
+        assertEquals(result.getPartialHashFileCount(), 7);
+        // c1, c2, c3
+        assertEquals(result.getFullHashFileCount(), 3);
+        assertEquals(result.getSkippedFileCount(), 0);
+        assertEquals(
+            result.getHashedByteCount(),
+            (3 * 5) + (4 * 2 * BLOCK_BYTE_COUNT) + (3 * bigByteArr.length));
+        assertEquals(result.getWastedByteCount(), bigByteArr.length + 5);
+        assertTrue(result.getHashNanos() > 0);
+        assertTrue(result.getHashedBytesPerSecond() > 0);
+        assertTrue(result.toString().contains("groups: 2"));
+    }
+
+    @Test
+    public void find_PassWithMinFileSize()
+    throws InterruptedException {
+        DuplicateFileFinderResult result =
+            new DuplicateFileFinder()
+                .withBlockByteCount(BLOCK_BYTE_COUNT)
+                .withMinFileSize(6)
+                .find(_newIterable());
+        assertEquals(result.getGroupList().size(), 1);
+        assertEquals(result.getGroupList().get(0).getPathList(), ImmutableList.of(c1, c2));
+        assertEquals(result.getFileCount(), 4);
+    }
+
+    @Test
+    public void find_PassWithEmptyFiles()
+    throws InterruptedException {
+        DuplicateFileFinderResult result =
+            new DuplicateFileFinder()
+                .withBlockByteCount(BLOCK_BYTE_COUNT)
+                .withMinFileSize(0)
+                .find(_newIterable());
+        assertEquals(result.getGroupList().size(), 3);
+        DuplicateFileGroup group = result.getGroupList().get(2);
+        assertEquals(group.getPathList(), ImmutableList.of(e1, e2));
+        assertEquals(group.getWastedByteCount(), 0);
+        assertEquals(result.getFileCount(), 10);
+    }
+
+    @Test
+    public void find_PassWithSmallFilesOnly()
+    throws InterruptedException {
+        // All files fit in two blocks: no full hashes.
+        DuplicateFileFinderResult result =
+            new DuplicateFileFinder().withBlockByteCount(bigByteArr.length).find(_newIterable());
+        assertEquals(result.getGroupList().size(), 2);
+        assertEquals(result.getFullHashFileCount(), 0);
+        assertEquals(
+            result.getGroupList().get(0).getHash(), Hashing.sha256().hashBytes(bigByteArr));
+    }
+
+    @Test
+    public void find_PassWithExecutorServiceAndHashFunction()
+    throws InterruptedException {
+        ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            DuplicateFileFinderResult result =
+                new DuplicateFileFinder()
+                    .withBlockByteCount(BLOCK_BYTE_COUNT)
+                    .withHashFunction(Hashing.murmur3_128())
+                    .find(_newIterable(), executorService);
+            assertEquals(result.getGroupList().size(), 2);
+            assertEquals(
+                result.getGroupList().get(0).getHash(),
+                Hashing.murmur3_128().hashBytes(bigByteArr));
+            assertFalse(executorService.isShutdown());
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void find_PassWithFileLargerThanReadBuffer()
+    throws InterruptedException, IOException {
+        // Not a multiple of the buffer size: The last read is partial.
+        byte[] byteArr = new byte[(2 * DuplicateFileFinder.READ_BUFFER_BYTE_COUNT) + 7];
+        for (int i = 0; i < byteArr.length; ++i) {
+            byteArr[i] = (byte) (i * 31);
+        }
+        File f1 = _writeFile("f1", byteArr);
+        File f2 = _writeFile("dir/f2", byteArr);
+        DuplicateFileFinderResult result =
+            new DuplicateFileFinder().withBlockByteCount(BLOCK_BYTE_COUNT).find(_newIterable());
+        DuplicateFileGroup group = result.getGroupList().get(0);
+        assertEquals(group.getPathList(), ImmutableList.of(f2, f1));
+        assertEquals(group.getHash(), Hashing.sha256().hashBytes(byteArr));
+    }
+
+    @Test
+    public void find_PassWithBoundedInFlightTasks()
+    throws InterruptedException, IOException {
+        final int fileCount = 20;
+        for (int i = 0; i < fileCount; ++i) {
+            _writeFile("g" + i, "12345678".getBytes(StandardCharsets.UTF_8));
+        }
+        final AtomicInteger maxQueuedTaskCount = new AtomicInteger(0);
+        ExecutorService executorService =
+            new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>()) {
+
+                @Override
+                protected void beforeExecute(Thread t, Runnable r) {
+                    int queuedTaskCount = getQueue().size();
+                    if (queuedTaskCount > maxQueuedTaskCount.get()) {
+                        maxQueuedTaskCount.set(queuedTaskCount);
+                    }
+                }
+            };
+        try {
+            DuplicateFileFinderResult result =
+                new DuplicateFileFinder()
+                    .withBlockByteCount(BLOCK_BYTE_COUNT)
+                    .withThreadCount(1)
+                    .find(_newIterable(), executorService);
+            assertEquals(result.getGroupList().get(0).getPathList().size(), fileCount);
+            // One task runs, while the others wait in the queue.
+            assertTrue(
+                maxQueuedTaskCount.get() < DuplicateFileFinder.IN_FLIGHT_TASK_COUNT_PER_THREAD,
+                String.valueOf(maxQueuedTaskCount.get()));
+        }
+        finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    public void find_PassWithNoDuplicates()
+    throws InterruptedException {
+        TraversePathIterable iterable =
+            _newIterable().withRootDirPath(new File(baseDirPath, "dir"));
+        DuplicateFileFinderResult result = new DuplicateFileFinder().find(iterable);
+        assertTrue(result.getGroupList().isEmpty());
+        assertEquals(result.getFileCount(), 1);
+        assertEquals(result.getHashedByteCount(), 0);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void find_FailWithNull()
+    throws InterruptedException {
+        new DuplicateFileFinder().find((TraversePathIterable) null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void find_FailWithNull2()
+    throws InterruptedException {
+        new DuplicateFileFinder().find(_newIterable(), (ExecutorService) null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // DuplicateFileFinder.with*()
+    //
+
+    @Test
+    public void with_Pass() {
+        DuplicateFileFinder classUnderTest = new DuplicateFileFinder();
+        assertEquals(
+            classUnderTest.withBlockByteCount(), DuplicateFileFinder.DEFAULT_BLOCK_BYTE_COUNT);
+        assertEquals(
+            classUnderTest.withMinFileSize(), DuplicateFileFinder.DEFAULT_MIN_FILE_SIZE);
+        assertEquals(
+            classUnderTest.withThreadCount(), Runtime.getRuntime().availableProcessors());
+        assertSame(classUnderTest.withHashFunction(), DuplicateFileFinder.DEFAULT_HASH_FUNCTION);
+
+        DuplicateFileFinder next =
+            classUnderTest
+                .withBlockByteCount(7)
+                .withMinFileSize(8)
+                .withThreadCount(9)
+                .withHashFunction(Hashing.murmur3_128());
+        assertNotSame(next, classUnderTest);
+        assertEquals(next.withBlockByteCount(), 7);
+        assertEquals(next.withMinFileSize(), 8);
+        assertEquals(next.withThreadCount(), 9);
+        assertEquals(next.withHashFunction(), Hashing.murmur3_128());
+        // Unchanged
+        assertEquals(
+            classUnderTest.withBlockByteCount(), DuplicateFileFinder.DEFAULT_BLOCK_BYTE_COUNT);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withBlockByteCount_FailWithInvalidValue() {
+        new DuplicateFileFinder().withBlockByteCount(0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withMinFileSize_FailWithInvalidValue() {
+        new DuplicateFileFinder().withMinFileSize(-1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withThreadCount_FailWithInvalidValue() {
+        new DuplicateFileFinder().withThreadCount(0);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void withHashFunction_FailWithNull() {
+        new DuplicateFileFinder().withHashFunction(null);
+    }
+}
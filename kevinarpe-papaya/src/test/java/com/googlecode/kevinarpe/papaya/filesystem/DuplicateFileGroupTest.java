@@ -0,0 +1,86 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.testing.EqualsTester;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.Arrays;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class DuplicateFileGroupTest {
+
+    private static final HashCode HASH = HashCode.fromString("0123456789abcdef");
+    private static final HashCode HASH2 = HashCode.fromString("fedcba9876543210");
+
+    private final File path1 = new File("abc");
+    private final File path2 = new File("def");
+    private final File path3 = new File("ghi");
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // DuplicateFileGroup.ctor()
+    //
+
+    @Test
+    public void ctor_Pass() {
+        DuplicateFileGroup classUnderTest =
+            new DuplicateFileGroup(10, HASH, Arrays.asList(path1, path2, path3));
+        assertEquals(classUnderTest.getFileSize(), 10);
+        assertEquals(classUnderTest.getHash(), HASH);
+        assertEquals(classUnderTest.getPathList(), ImmutableList.of(path1, path2, path3));
+        assertEquals(classUnderTest.getWastedByteCount(), 20);
+        assertTrue(classUnderTest.toString().contains(HASH.toString()));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ctor_FailWithNull() {
+        new DuplicateFileGroup(10, (HashCode) null, Arrays.asList(path1, path2));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // DuplicateFileGroup.hashCode()/equals()
+    //
+
+    @Test
+    public void hashCodeAndEquals_Pass() {
+        new EqualsTester()
+            .addEqualityGroup(
+                new DuplicateFileGroup(10, HASH, Arrays.asList(path1, path2)),
+                new DuplicateFileGroup(10, HASH, Arrays.asList(path1, path2)))
+            .addEqualityGroup(new DuplicateFileGroup(11, HASH, Arrays.asList(path1, path2)))
+            .addEqualityGroup(new DuplicateFileGroup(10, HASH2, Arrays.asList(path1, path2)))
+            .addEqualityGroup(new DuplicateFileGroup(10, HASH, Arrays.asList(path1, path3)))
+            .testEquals();
+    }
+}
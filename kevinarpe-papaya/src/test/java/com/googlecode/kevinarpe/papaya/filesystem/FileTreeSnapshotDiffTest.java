@@ -0,0 +1,139 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class FileTreeSnapshotDiffTest
+extends FileTreeSnapshotTestBase {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshot.diff()
+    //
+
+    @Test
+    public void diff_PassWithNoChanges()
+    throws PathException {
+        FileTreeSnapshot snapshot1 = FileTreeSnapshot.scan(baseDirPath);
+        FileTreeSnapshot snapshot2 = FileTreeSnapshot.scan(baseDirPath);
+        FileTreeSnapshotDiff classUnderTest = snapshot1.diff(snapshot2);
+        assertTrue(classUnderTest.isEmpty());
+        assertTrue(classUnderTest.getAddedEntryList().isEmpty());
+        assertTrue(classUnderTest.getRemovedEntryList().isEmpty());
+        assertTrue(classUnderTest.getModifiedEntryList().isEmpty());
+        assertTrue(classUnderTest.toString().contains("added: 0, removed: 0, modified: 0"));
+    }
+
+    @Test
+    public void diff_Pass()
+    throws PathException, IOException {
+        backdateDirs();
+        FileTreeSnapshot snapshot1 = FileTreeSnapshot.scan(baseDirPath);
+        deleteTree(dirPath2);
+        writeFile(new File(baseDirPath, "a.txt"), "defg");
+        writeFile(new File(baseDirPath, "b.txt"), "");
+        writeFile(new File(dirPath1, "a.txt"), "");
+        FileTreeSnapshot snapshot2 = FileTreeSnapshot.scan(baseDirPath);
+
+        FileTreeSnapshotDiff classUnderTest = snapshot1.diff(snapshot2);
+        assertFalse(classUnderTest.isEmpty());
+        assertEquals(
+            getRelativePathList(classUnderTest.getAddedEntryList()),
+            ImmutableList.of("b.txt", "dir1/a.txt"));
+        assertEquals(
+            getRelativePathList(classUnderTest.getRemovedEntryList()),
+            ImmutableList.of("dir1/dir2", "dir1/dir2/c.txt"));
+        // Adding and removing children also modifies "dir1".
+        assertEquals(
+            getRelativePathList(classUnderTest.getModifiedEntryList()),
+            ImmutableList.of("a.txt", "dir1"));
+
+        FileTreeSnapshotEntry modifiedEntry = classUnderTest.getModifiedEntryList().get(0);
+        assertEquals(modifiedEntry.getSize(), 7);
+        assertTrue(modifiedEntry.isModified(snapshot1.getOptionalEntry("a.txt")));
+        assertEquals(modifiedEntry, snapshot2.getOptionalEntry("a.txt"));
+
+        assertEquals(
+            classUnderTest.addedStream().collect(Collectors.toList()),
+            classUnderTest.getAddedEntryList());
+        assertEquals(
+            classUnderTest.removedStream().collect(Collectors.toList()),
+            classUnderTest.getRemovedEntryList());
+        assertEquals(
+            classUnderTest.modifiedStream().collect(Collectors.toList()),
+            classUnderTest.getModifiedEntryList());
+
+        // Reverse
+        FileTreeSnapshotDiff reverse = snapshot2.diff(snapshot1);
+        assertEquals(reverse.getAddedEntryList(), classUnderTest.getRemovedEntryList());
+        assertEquals(reverse.getRemovedEntryList(), classUnderTest.getAddedEntryList());
+    }
+
+    @Test
+    public void diff_PassWithDirReplacedByFile()
+    throws PathException, IOException {
+        FileTreeSnapshot snapshot1 = FileTreeSnapshot.scan(dirPath1);
+        deleteTree(dirPath2);
+        writeFile(dirPath2, "");
+        FileTreeSnapshot snapshot2 = FileTreeSnapshot.scan(dirPath1);
+
+        FileTreeSnapshotDiff classUnderTest = snapshot1.diff(snapshot2);
+        assertTrue(classUnderTest.getAddedEntryList().isEmpty());
+        assertEquals(
+            getRelativePathList(classUnderTest.getRemovedEntryList()),
+            ImmutableList.of("dir2/c.txt"));
+        List<FileTreeSnapshotEntry> modifiedEntryList = classUnderTest.getModifiedEntryList();
+        assertEquals(getRelativePathList(modifiedEntryList), ImmutableList.of("dir2"));
+        assertFalse(modifiedEntryList.get(0).isDirectory());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void diff_FailWithNull()
+    throws PathException {
+        FileTreeSnapshot.scan(baseDirPath).diff((FileTreeSnapshot) null);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void getAddedEntryList_FailWithUnmodifiable()
+    throws PathException {
+        FileTreeSnapshot snapshot = FileTreeSnapshot.scan(baseDirPath);
+        snapshot.diff(snapshot).getAddedEntryList().add(snapshot.getEntryList().get(0));
+    }
+}
@@ -0,0 +1,149 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class FileTreeSnapshotScannerTest
+extends FileTreeSnapshotTestBase {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshotScanner.scan()
+    //
+
+    @Test
+    public void scan_PassWithoutPrevSnapshot()
+    throws PathException {
+        backdateDirs();
+        FileTreeSnapshotScanner classUnderTest = new FileTreeSnapshotScanner(baseDirPath, null);
+        classUnderTest.scan();
+        assertEquals(classUnderTest.getListedDirCount(), 3);
+        assertEquals(classUnderTest.getReusedDirCount(), 0);
+    }
+
+    @Test
+    public void scan_PassWithUnchangedTree()
+    throws PathException {
+        backdateDirs();
+        FileTreeSnapshot prevSnapshot = FileTreeSnapshot.scan(baseDirPath);
+        FileTreeSnapshotScanner classUnderTest =
+            new FileTreeSnapshotScanner(baseDirPath, prevSnapshot);
+        FileTreeSnapshot snapshot = classUnderTest.scan();
+        assertEquals(classUnderTest.getListedDirCount(), 0);
+        assertEquals(classUnderTest.getReusedDirCount(), 3);
+        assertEquals(snapshot.getEntryList(), prevSnapshot.getEntryList());
+    }
+
+    @Test
+    public void scan_PassWithAddedFile()
+    throws PathException, IOException {
+        backdateDirs();
+        FileTreeSnapshot prevSnapshot = FileTreeSnapshot.scan(baseDirPath);
+        writeFile(new File(dirPath2, "d.txt"), "abc");
+        FileTreeSnapshotScanner classUnderTest =
+            new FileTreeSnapshotScanner(baseDirPath, prevSnapshot);
+        FileTreeSnapshot snapshot = classUnderTest.scan();
+        // Only "dir1/dir2" is listed again.
+        assertEquals(classUnderTest.getListedDirCount(), 1);
+        assertEquals(classUnderTest.getReusedDirCount(), 2);
+        assertEquals(
+            getRelativePathList(prevSnapshot.diff(snapshot).getAddedEntryList()),
+            ImmutableList.of("dir1/dir2/d.txt"));
+    }
+
+    @Test
+    public void scan_PassWithModifiedFileInReusedDir()
+    throws PathException, IOException {
+        backdateDirs();
+        FileTreeSnapshot prevSnapshot = FileTreeSnapshot.scan(baseDirPath);
+        writeFile(new File(dirPath1, "b.txt"), "ghi");
+        FileTreeSnapshotScanner classUnderTest =
+            new FileTreeSnapshotScanner(baseDirPath, prevSnapshot);
+        FileTreeSnapshot snapshot = classUnderTest.scan();
+        assertEquals(classUnderTest.getListedDirCount(), 0);
+        assertEquals(
+            getRelativePathList(prevSnapshot.diff(snapshot).getModifiedEntryList()),
+            ImmutableList.of("dir1/b.txt"));
+    }
+
+    @Test
+    public void scan_PassWithRemovedDir()
+    throws PathException {
+        backdateDirs();
+        FileTreeSnapshot prevSnapshot = FileTreeSnapshot.scan(baseDirPath);
+        deleteTree(dirPath2);
+        FileTreeSnapshotScanner classUnderTest =
+            new FileTreeSnapshotScanner(baseDirPath, prevSnapshot);
+        FileTreeSnapshot snapshot = classUnderTest.scan();
+        assertEquals(classUnderTest.getListedDirCount(), 1);
+        assertEquals(classUnderTest.getReusedDirCount(), 1);
+        assertEquals(
+            getRelativePathList(snapshot.getEntryList()),
+            ImmutableList.of("a.txt", "dir1", "dir1/b.txt"));
+    }
+
+    @Test
+    public void scan_PassWithRecentlyModifiedDirs()
+    throws PathException {
+        // Directories modified within clock granularity of previous scan are always listed.
+        FileTreeSnapshot prevSnapshot = FileTreeSnapshot.scan(baseDirPath);
+        FileTreeSnapshotScanner classUnderTest =
+            new FileTreeSnapshotScanner(baseDirPath, prevSnapshot);
+        classUnderTest.scan();
+        assertEquals(classUnderTest.getListedDirCount(), 3);
+        assertEquals(classUnderTest.getReusedDirCount(), 0);
+    }
+
+    @Test
+    public void scan_PassWithLoadedPrevSnapshot()
+    throws PathException, IOException {
+        backdateDirs();
+        File snapshotFilePath = File.createTempFile(getClass().getSimpleName(), ".snapshot");
+        try {
+            FileTreeSnapshot.scan(baseDirPath).save(snapshotFilePath);
+            FileTreeSnapshot prevSnapshot = FileTreeSnapshot.load(snapshotFilePath);
+            FileTreeSnapshotScanner classUnderTest =
+                new FileTreeSnapshotScanner(baseDirPath, prevSnapshot);
+            FileTreeSnapshot snapshot = classUnderTest.scan();
+            assertEquals(classUnderTest.getReusedDirCount(), 3);
+            assertTrue(prevSnapshot.diff(snapshot).isEmpty());
+        }
+        finally {
+            assertTrue(snapshotFilePath.delete());
+        }
+    }
+}
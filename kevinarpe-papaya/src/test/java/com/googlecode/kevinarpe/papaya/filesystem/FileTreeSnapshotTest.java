@@ -0,0 +1,379 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class FileTreeSnapshotTest
+extends FileTreeSnapshotTestBase {
+
+    private static final List<String> ALL_RELATIVE_PATH_LIST =
+        ImmutableList.of("a.txt", "dir1", "dir1/b.txt", "dir1/dir2", "dir1/dir2/c.txt");
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshot.scan()
+    //
+
+    @Test
+    public void scan_Pass()
+    throws PathException {
+        FileTreeSnapshot classUnderTest = FileTreeSnapshot.scan(baseDirPath);
+        assertEquals(classUnderTest.getRootDirPath(), baseDirPath.getAbsoluteFile());
+        assertEquals(classUnderTest.getRootDirLastModified(), baseDirPath.lastModified());
+        assertEquals(classUnderTest.size(), ALL_RELATIVE_PATH_LIST.size());
+        assertEquals(
+            getRelativePathList(classUnderTest.getEntryList()), ALL_RELATIVE_PATH_LIST);
+
+        FileTreeSnapshotEntry entry = classUnderTest.getEntryList().get(2);
+        assertEquals(entry.getRelativePath(), "dir1/b.txt");
+        assertEquals(entry.getPath(), new File(dirPath1, "b.txt").getAbsoluteFile());
+        assertEquals(entry.getRootDirPath(), baseDirPath.getAbsoluteFile());
+        assertFalse(entry.isDirectory());
+        assertEquals(entry.getSize(), 6);
+        assertEquals(entry.getLastModified(), entry.getPath().lastModified());
+        assertEquals(entry, classUnderTest.getOptionalEntry("dir1/b.txt"));
+        assertEquals(entry.hashCode(), classUnderTest.getOptionalEntry("dir1/b.txt").hashCode());
+        assertTrue(classUnderTest.getEntryList().get(1).isDirectory());
+    }
+
+    @Test
+    public void scan_PassWithEmptyDir()
+    throws PathException {
+        FileTreeSnapshot classUnderTest = FileTreeSnapshot.scan(dirPath2);
+        assertEquals(getRelativePathList(classUnderTest.getEntryList()), ImmutableList.of("c.txt"));
+        deleteTree(new File(dirPath2, "c.txt"));
+        classUnderTest = FileTreeSnapshot.scan(dirPath2);
+        assertTrue(classUnderTest.getEntryList().isEmpty());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void scan_FailWithNull()
+    throws PathException {
+        FileTreeSnapshot.scan((File) null);
+    }
+
+    @Test
+    public void scan_FailWithPathDoesNotExist() {
+        File missingDirPath = new File(baseDirPath, "missing");
+        try {
+            FileTreeSnapshot.scan(missingDirPath);
+            fail();
+        }
+        catch (PathException e) {
+            assertEquals(e.getReason(), PathExceptionReason.PATH_DOES_NOT_EXIST);
+            assertEquals(e.getAbsPath(), missingDirPath.getAbsoluteFile());
+        }
+    }
+
+    @Test
+    public void scan_FailWithPathIsNormalFile() {
+        File filePath = new File(baseDirPath, "a.txt");
+        try {
+            FileTreeSnapshot.scan(filePath);
+            fail();
+        }
+        catch (PathException e) {
+            assertEquals(e.getReason(), PathExceptionReason.PATH_IS_NORMAL_FILE);
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void scan_FailWithPrevSnapshotHasDifferentRootDir()
+    throws PathException {
+        FileTreeSnapshot prevSnapshot = FileTreeSnapshot.scan(dirPath1);
+        FileTreeSnapshot.scan(baseDirPath, prevSnapshot);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshot.fromIterable()
+    //
+
+    @Test
+    public void fromIterable_Pass()
+    throws PathException {
+        TraversePathIterable iterable =
+            new TraversePathIterableImpl(baseDirPath, TraversePathDepthPolicy.DEPTH_FIRST)
+                .withOptionalIteratePathFilter(
+                    new PathFilter() {
+                        @Override
+                        public boolean accept(File path, int depth) {
+                            return path.isFile();
+                        }
+                    });
+        FileTreeSnapshot classUnderTest = FileTreeSnapshot.fromIterable(iterable);
+        assertEquals(
+            getRelativePathList(classUnderTest.getEntryList()),
+            ImmutableList.of("a.txt", "dir1/b.txt", "dir1/dir2/c.txt"));
+        assertEquals(
+            classUnderTest.getOptionalEntry("dir1/b.txt"),
+            FileTreeSnapshot.scan(baseDirPath).getOptionalEntry("dir1/b.txt"));
+    }
+
+    @Test
+    public void fromIterable_PassWithoutFilter()
+    throws PathException {
+        // Depth-last traversal yields the root directory as its last path.
+        TraversePathIterable iterable =
+            new TraversePathIterableImpl(baseDirPath, TraversePathDepthPolicy.DEPTH_LAST);
+        FileTreeSnapshot classUnderTest = FileTreeSnapshot.fromIterable(iterable);
+        assertEquals(
+            getRelativePathList(classUnderTest.getEntryList()),
+            ALL_RELATIVE_PATH_LIST);
+        assertNull(classUnderTest.getOptionalEntry(""));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void fromIterable_FailWithNull()
+    throws PathException {
+        FileTreeSnapshot.fromIterable((TraversePathIterable) null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshot.getOptionalEntry()
+    //
+
+    @Test
+    public void getOptionalEntry_Pass()
+    throws PathException {
+        FileTreeSnapshot classUnderTest = FileTreeSnapshot.scan(baseDirPath);
+        for (String relativePath : ALL_RELATIVE_PATH_LIST) {
+            FileTreeSnapshotEntry entry = classUnderTest.getOptionalEntry(relativePath);
+            assertEquals(entry.getRelativePath(), relativePath);
+        }
+        assertNull(classUnderTest.getOptionalEntry("dir1/missing"));
+        assertNull(classUnderTest.getOptionalEntry(""));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void getOptionalEntry_FailWithNull()
+    throws PathException {
+        FileTreeSnapshot.scan(baseDirPath).getOptionalEntry((String) null);
+    }
+
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void getEntryList_FailWithIndexOutOfBounds()
+    throws PathException {
+        FileTreeSnapshot.scan(baseDirPath).getEntryList().get(ALL_RELATIVE_PATH_LIST.size());
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void getEntryList_FailWithUnmodifiable()
+    throws PathException {
+        FileTreeSnapshot.scan(baseDirPath).getEntryList().remove(0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshot.save(), FileTreeSnapshot.load()
+    //
+
+    @Test
+    public void saveAndLoad_Pass()
+    throws PathException, IOException {
+        _assertSaveAndLoad(FileTreeSnapshot.scan(baseDirPath));
+    }
+
+    @Test
+    public void saveAndLoad_PassWithEmptySnapshot()
+    throws PathException, IOException {
+        deleteTree(new File(dirPath2, "c.txt"));
+        _assertSaveAndLoad(FileTreeSnapshot.scan(dirPath2));
+    }
+
+    @Test
+    public void saveAndLoad_PassWithNonAsciiPath()
+    throws PathException, IOException {
+        writeFile(new File(dirPath1, "été.txt"), "x");
+        _assertSaveAndLoad(FileTreeSnapshot.scan(baseDirPath));
+    }
+
+    private void _assertSaveAndLoad(FileTreeSnapshot snapshot)
+    throws IOException {
+        File snapshotFilePath = File.createTempFile(getClass().getSimpleName(), ".snapshot");
+        try {
+            snapshot.save(snapshotFilePath);
+            // Replace existing file
+            snapshot.save(snapshotFilePath);
+            FileTreeSnapshot loadedSnapshot = FileTreeSnapshot.load(snapshotFilePath);
+            assertEquals(loadedSnapshot.getRootDirPath(), snapshot.getRootDirPath());
+            assertEquals(
+                loadedSnapshot.getRootDirLastModified(), snapshot.getRootDirLastModified());
+            assertEquals(loadedSnapshot.getRootDirInode(), snapshot.getRootDirInode());
+            assertEquals(
+                loadedSnapshot.getScanStartTimeMillis(), snapshot.getScanStartTimeMillis());
+            assertEquals(loadedSnapshot.getEntryList(), snapshot.getEntryList());
+            assertTrue(snapshot.diff(loadedSnapshot).isEmpty());
+            assertEquals(
+                snapshotFilePath.length(),
+                FileTreeSnapshotFormat.HEADER_BYTE_COUNT
+                    + snapshot.getRootDirPath().getPath().getBytes("UTF-8").length
+                    + (snapshot.size() * FileTreeSnapshotFormat.ENTRY_BYTE_COUNT)
+                    + _getPathPoolByteCount(snapshot));
+        }
+        finally {
+            assertTrue(snapshotFilePath.delete());
+        }
+    }
+
+    private static int _getPathPoolByteCount(FileTreeSnapshot snapshot)
+    throws IOException {
+        int x = 0;
+        for (FileTreeSnapshotEntry entry : snapshot.getEntryList()) {
+            x += entry.getRelativePath().getBytes("UTF-8").length;
+        }
+        return x;
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void save_FailWithNull()
+    throws PathException, IOException {
+        FileTreeSnapshot.scan(baseDirPath).save((File) null);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void load_FailWithNull()
+    throws IOException {
+        FileTreeSnapshot.load((File) null);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void load_FailWithMissingFile()
+    throws IOException {
+        FileTreeSnapshot.load(new File(baseDirPath, "missing"));
+    }
+
+    @Test
+    public void load_FailWithInvalidFile()
+    throws PathException, IOException {
+        File snapshotFilePath = new File(baseDirPath, "snapshot");
+        FileTreeSnapshot.scan(dirPath1).save(snapshotFilePath);
+        final long byteCount = snapshotFilePath.length();
+        RandomAccessFile file = new RandomAccessFile(snapshotFilePath, "rw");
+        try {
+            // Truncated
+            file.setLength(byteCount - 1);
+            _assertLoadFails(snapshotFilePath, "Expected " + byteCount + " bytes");
+            file.setLength(10);
+            _assertLoadFails(snapshotFilePath, "Unexpected end of file");
+            // Bad magic
+            file.seek(0);
+            file.writeInt(0x12345678);
+            _assertLoadFails(snapshotFilePath, "Expected magic");
+            // Bad version
+            file.seek(0);
+            file.writeInt(FileTreeSnapshotFormat.MAGIC);
+            file.writeInt(FileTreeSnapshotFormat.VERSION + 1);
+            _assertLoadFails(snapshotFilePath, "Unsupported version");
+        }
+        finally {
+            file.close();
+        }
+    }
+
+    @Test
+    public void load_PassWithFileLargerThanTwoGigabytes()
+    throws IOException {
+        final int chunkEntryCount = FileTreeSnapshotFormat.MAPPED_ENTRY_TABLE_CHUNK_ENTRY_COUNT;
+        final int entryByteCount = FileTreeSnapshotFormat.ENTRY_BYTE_COUNT;
+        // Three chunks: 3 GB
+        final int size = 3 * chunkEntryCount;
+        final byte[] rootDirPathByteArr = "root".getBytes("UTF-8");
+        final long entryTableStart = FileTreeSnapshotFormat.HEADER_BYTE_COUNT + 4;
+        File snapshotFilePath = new File(baseDirPath, "snapshot");
+        RandomAccessFile file = new RandomAccessFile(snapshotFilePath, "rw");
+        try {
+            file.writeInt(FileTreeSnapshotFormat.MAGIC);
+            file.writeInt(FileTreeSnapshotFormat.VERSION);
+            file.writeLong(1L);
+            file.writeLong(2L);
+            file.writeLong(3L);
+            file.writeInt(size);
+            file.writeInt(rootDirPathByteArr.length);
+            file.writeInt(1);
+            file.write(rootDirPathByteArr);
+            // Sparse file: no disk space is used.  All other entries are zeros.
+            // First entry of second chunk
+            file.seek(entryTableStart + ((long) chunkEntryCount * entryByteCount));
+            file.writeLong(7L);
+            file.writeLong(8L);
+            file.writeLong(9L);
+            // Last entry: directory "z"
+            file.seek(entryTableStart + ((size - 1L) * entryByteCount));
+            file.writeLong(10L);
+            file.writeLong(11L);
+            file.writeLong(12L);
+            file.writeInt(0);
+            file.writeInt(0x80000001);
+            file.write('z');
+        }
+        finally {
+            file.close();
+        }
+        FileTreeSnapshot snapshot = FileTreeSnapshot.load(snapshotFilePath);
+        assertEquals(snapshot.size(), size);
+        assertEquals(snapshot.getRootDirLastModified(), 1L);
+        assertEquals(snapshot.getScanStartTimeMillis(), 3L);
+        FileTreeSnapshotEntry entry = snapshot.getEntryList().get(chunkEntryCount);
+        assertEquals(entry.getRelativePath(), "");
+        assertFalse(entry.isDirectory());
+        assertEquals(entry.getSize(), 7L);
+        assertEquals(entry.getLastModified(), 8L);
+        assertEquals(entry.getInode(), 9L);
+        assertEquals(snapshot.getEntryList().get(chunkEntryCount - 1).getSize(), 0L);
+        entry = snapshot.getEntryList().get(size - 1);
+        assertEquals(entry.getRelativePath(), "z");
+        assertTrue(entry.isDirectory());
+        assertEquals(entry.getSize(), 10L);
+        assertEquals(entry.getLastModified(), 11L);
+        assertEquals(entry.getInode(), 12L);
+    }
+
+    private static void _assertLoadFails(File snapshotFilePath, String expectedMessage) {
+        try {
+            FileTreeSnapshot.load(snapshotFilePath);
+            fail();
+        }
+        catch (IOException e) {
+            assertTrue(e.getMessage().contains(expectedMessage), e.getMessage());
+        }
+    }
+}
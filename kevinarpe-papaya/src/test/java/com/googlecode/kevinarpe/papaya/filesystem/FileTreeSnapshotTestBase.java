@@ -0,0 +1,115 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Creates a small directory tree for {@link FileTreeSnapshot} tests:
+ * <pre>
+ * a.txt
+ * dir1/
+ * dir1/b.txt
+ * dir1/dir2/
+ * dir1/dir2/c.txt
+ * </pre>
+ *
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public abstract class FileTreeSnapshotTestBase {
+
+    protected File baseDirPath;
+    protected File dirPath1;
+    protected File dirPath2;
+
+    @BeforeMethod
+    public void beforeEachTestMethod()
+    throws IOException {
+        baseDirPath = Files.createTempDirectory(getClass().getSimpleName()).toFile();
+        writeFile(new File(baseDirPath, "a.txt"), "abc");
+        dirPath1 = new File(baseDirPath, "dir1");
+        assertTrue(dirPath1.mkdir());
+        writeFile(new File(dirPath1, "b.txt"), "abcdef");
+        dirPath2 = new File(dirPath1, "dir2");
+        assertTrue(dirPath2.mkdir());
+        writeFile(new File(dirPath2, "c.txt"), "");
+    }
+
+    @AfterMethod
+    public void afterEachTestMethod() {
+        deleteTree(baseDirPath);
+    }
+
+    protected static void writeFile(File filePath, String text)
+    throws IOException {
+        FileOutputStream out = new FileOutputStream(filePath, true);
+        try {
+            out.write(text.getBytes("UTF-8"));
+        }
+        finally {
+            out.close();
+        }
+    }
+
+    protected static void deleteTree(File path) {
+        File[] optChildPathArr = path.listFiles();
+        if (null != optChildPathArr) {
+            for (File childPath : optChildPathArr) {
+                deleteTree(childPath);
+            }
+        }
+        assertTrue(path.delete());
+    }
+
+    /**
+     * Moves last modified time of the base directory and all descendant directories one minute
+     * into the past, so a later scan may reuse their listings.
+     */
+    protected void backdateDirs() {
+        long lastModified = System.currentTimeMillis() - 60 * 1000;
+        for (File dirPath : new File[] { baseDirPath, dirPath1, dirPath2 }) {
+            assertTrue(dirPath.setLastModified(lastModified));
+        }
+    }
+
+    protected static List<String> getRelativePathList(List<FileTreeSnapshotEntry> entryList) {
+        List<String> x = new ArrayList<String>(entryList.size());
+        for (FileTreeSnapshotEntry entry : entryList) {
+            x.add(entry.getRelativePath());
+        }
+        return x;
+    }
+}
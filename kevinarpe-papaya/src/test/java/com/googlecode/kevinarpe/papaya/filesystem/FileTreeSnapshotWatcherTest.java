@@ -0,0 +1,240 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.google.common.collect.ImmutableList;
+import com.googlecode.kevinarpe.papaya.exception.PathException;
+import com.googlecode.kevinarpe.papaya.exception.PathExceptionReason;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class FileTreeSnapshotWatcherTest
+extends FileTreeSnapshotTestBase {
+
+    private static final long MAX_WAIT_MILLIS = 30 * 1000;
+
+    /**
+     * Events are asynchronous, so poll until the live snapshot matches a full scan.
+     *
+     * @return union of all diffs
+     */
+    private _Changes _awaitSnapshotMatchesScan(FileTreeSnapshotWatcher classUnderTest)
+    throws InterruptedException, PathException {
+        _Changes changes = new _Changes();
+        final long deadlineMillis = System.currentTimeMillis() + MAX_WAIT_MILLIS;
+        while (true) {
+            FileTreeSnapshotDiff diff = classUnderTest.poll(100, TimeUnit.MILLISECONDS);
+            changes.add(diff);
+            FileTreeSnapshot expected = FileTreeSnapshot.scan(baseDirPath);
+            if (expected.diff(classUnderTest.getSnapshot()).isEmpty()) {
+                return changes;
+            }
+            if (System.currentTimeMillis() > deadlineMillis) {
+                FileTreeSnapshotDiff x = expected.diff(classUnderTest.getSnapshot());
+                fail("Snapshot does not match scan: " + x);
+            }
+        }
+    }
+
+    private static final class _Changes {
+
+        final TreeSet<String> addedSet = new TreeSet<String>();
+        final TreeSet<String> removedSet = new TreeSet<String>();
+
+        void add(FileTreeSnapshotDiff diff) {
+            addedSet.addAll(getRelativePathList(diff.getAddedEntryList()));
+            removedSet.addAll(getRelativePathList(diff.getRemovedEntryList()));
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshotWatcher.ctor()
+    //
+
+    @Test
+    public void ctor_Pass()
+    throws PathException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        try {
+            assertEquals(classUnderTest.getRootDirPath(), baseDirPath.getAbsoluteFile());
+            assertEquals(classUnderTest.getWatchedDirCount(), 3);
+            FileTreeSnapshot snapshot = classUnderTest.getSnapshot();
+            assertEquals(
+                snapshot.getEntryList(), FileTreeSnapshot.scan(baseDirPath).getEntryList());
+            assertEquals(snapshot.getRootDirLastModified(), baseDirPath.lastModified());
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ctor_FailWithNull()
+    throws PathException {
+        new FileTreeSnapshotWatcher((File) null);
+    }
+
+    @Test
+    public void ctor_FailWithPathDoesNotExist() {
+        try {
+            new FileTreeSnapshotWatcher(new File(baseDirPath, "missing"));
+            fail();
+        }
+        catch (PathException e) {
+            assertEquals(e.getReason(), PathExceptionReason.PATH_DOES_NOT_EXIST);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // FileTreeSnapshotWatcher.poll()
+    //
+
+    @Test
+    public void poll_PassWithNoChanges()
+    throws PathException, InterruptedException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        try {
+            FileTreeSnapshot snapshot = classUnderTest.getSnapshot();
+            assertTrue(classUnderTest.poll(10, TimeUnit.MILLISECONDS).isEmpty());
+            assertTrue(classUnderTest.poll(0, TimeUnit.MILLISECONDS).isEmpty());
+            assertEquals(classUnderTest.getSnapshot(), snapshot);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test
+    public void poll_PassWithAddedFileAndDir()
+    throws PathException, InterruptedException, IOException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        try {
+            writeFile(new File(dirPath2, "d.txt"), "abc");
+            File dirPath3 = new File(dirPath1, "dir3");
+            assertTrue(dirPath3.mkdir());
+            writeFile(new File(dirPath3, "e.txt"), "abc");
+            _Changes changes = _awaitSnapshotMatchesScan(classUnderTest);
+            assertEquals(
+                ImmutableList.copyOf(changes.addedSet),
+                ImmutableList.of("dir1/dir2/d.txt", "dir1/dir3", "dir1/dir3/e.txt"));
+            assertTrue(changes.removedSet.isEmpty());
+            assertEquals(classUnderTest.getWatchedDirCount(), 4);
+
+            // New directory is watched.
+            writeFile(new File(dirPath3, "f.txt"), "abc");
+            changes = _awaitSnapshotMatchesScan(classUnderTest);
+            assertEquals(
+                ImmutableList.copyOf(changes.addedSet), ImmutableList.of("dir1/dir3/f.txt"));
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test
+    public void poll_PassWithModifiedFile()
+    throws PathException, InterruptedException, IOException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        try {
+            writeFile(new File(dirPath1, "b.txt"), "ghi");
+            _awaitSnapshotMatchesScan(classUnderTest);
+            assertEquals(classUnderTest.getSnapshot().getOptionalEntry("dir1/b.txt").getSize(), 9);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test
+    public void poll_PassWithRemovedDir()
+    throws PathException, InterruptedException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        try {
+            deleteTree(dirPath2);
+            _Changes changes = _awaitSnapshotMatchesScan(classUnderTest);
+            assertEquals(
+                ImmutableList.copyOf(changes.removedSet),
+                ImmutableList.of("dir1/dir2", "dir1/dir2/c.txt"));
+            assertEquals(classUnderTest.getWatchedDirCount(), 2);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test
+    public void poll_PassWithDirReplacedByFile()
+    throws PathException, InterruptedException, IOException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        try {
+            deleteTree(dirPath2);
+            writeFile(dirPath2, "abc");
+            _awaitSnapshotMatchesScan(classUnderTest);
+            List<FileTreeSnapshotEntry> entryList = classUnderTest.getSnapshot().getEntryList();
+            assertEquals(
+                getRelativePathList(entryList),
+                ImmutableList.of("a.txt", "dir1", "dir1/b.txt", "dir1/dir2"));
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void poll_FailWithNull()
+    throws PathException, InterruptedException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        try {
+            classUnderTest.poll(1, (TimeUnit) null);
+        }
+        finally {
+            classUnderTest.close();
+        }
+    }
+
+    @Test(expectedExceptions = ClosedWatchServiceException.class)
+    public void poll_FailWithClosed()
+    throws PathException, InterruptedException {
+        FileTreeSnapshotWatcher classUnderTest = new FileTreeSnapshotWatcher(baseDirPath);
+        classUnderTest.close();
+        // Safe to call more than once.
+        classUnderTest.close();
+        classUnderTest.poll(1, TimeUnit.MILLISECONDS);
+    }
+}
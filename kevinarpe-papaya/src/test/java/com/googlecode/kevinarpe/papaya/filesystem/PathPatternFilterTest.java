@@ -0,0 +1,406 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class PathPatternFilterTest {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // PathPatternFilter.Builder.addIncludeGlob(String)
+    //
+
+    @DataProvider
+    private static Object[][] _addIncludeGlob_Pass_Data() {
+        return new Object[][] {
+            { "abc", "abc", true },
+            { "abc", "abcd", false },
+            { "abc", "xabc", false },
+            { "*.java", "Foo.java", true },
+            { "*.java", "a/Foo.java", false },
+            { "*.java", ".java", true },
+            { "**.java", "a/b/Foo.java", true },
+            { "**/*.java", "Foo.java", true },
+            { "**/*.java", "a/b/Foo.java", true },
+            { "**/*.java", "a/b/Foo.javax", false },
+            { "/src/**/test/*Test.java", "/src/test/FooTest.java", true },
+            { "/src/**/test/*Test.java", "/src/a/b/test/FooTest.java", true },
+            { "/src/**/test/*Test.java", "/src/a/btest/FooTest.java", false },
+            { "/src/**/test/*Test.java", "/src/test/a/FooTest.java", false },
+            { "/src/**", "/src/", true },
+            { "/src/**", "/src/a/b/c", true },
+            { "/src/**", "/sr", false },
+            { "a/**/", "a/", true },
+            { "a/**/", "a/b/", true },
+            { "a/**/", "a/b", false },
+            { "?.txt", "a.txt", true },
+            { "?.txt", "ab.txt", false },
+            { "a?b", "a/b", false },
+            { "*", "abc", true },
+            { "*", "", true },
+            { "*", "a/b", false },
+            { "a*b*c", "abbbc", true },
+            { "a*b*c", "acb", false },
+            { "***", "a/b", true },
+            { "[abc].txt", "b.txt", true },
+            { "[abc].txt", "d.txt", false },
+            { "[a-c0-9].txt", "7.txt", true },
+            { "[a-c0-9].txt", "d.txt", false },
+            { "[!a-c].txt", "d.txt", true },
+            { "[!a-c].txt", "a.txt", false },
+            { "[^a-c].txt", "d.txt", true },
+            { "[!a-c]", "/", false },
+            { "[]]", "]", true },
+            { "[a-]", "-", true },
+            { "[\\]]", "]", true },
+            { "*.{java,kt}", "Foo.java", true },
+            { "*.{java,kt}", "Foo.kt", true },
+            { "*.{java,kt}", "Foo.scala", false },
+            { "{a,b{c,d}}x", "bdx", true },
+            { "{a,b{c,d}}x", "bx", false },
+            { "{,a}b", "b", true },
+            { "{,a}b", "ab", true },
+            { "[{]", "{", true },
+            { "a,b", "a,b", true },
+            { "a}b", "a}b", true },
+            { "\\*", "*", true },
+            { "\\*", "a", false },
+            { "\\{a,b\\}", "{a,b}", true },
+            { "été/*", "été/x", true },
+            { "été/*", "étè/x", false },
+        };
+    }
+
+    @Test(dataProvider = "_addIncludeGlob_Pass_Data")
+    public void addIncludeGlob_Pass(String glob, String pathname, boolean expected) {
+        PathPatternFilter classUnderTest = PathPatternFilter.builder().addIncludeGlob(glob).build();
+        assertEquals(classUnderTest.match(pathname).isInclude(), expected);
+        assertFalse(classUnderTest.match(pathname).isExclude());
+        // Warm DFA cache
+        assertEquals(classUnderTest.match(pathname).isInclude(), expected);
+        PathPatternFilter classUnderTest2 =
+            PathPatternFilter.builder().addExcludeGlob(glob).build();
+        assertEquals(classUnderTest2.match(pathname).isExclude(), expected);
+        assertFalse(classUnderTest2.match(pathname).isInclude());
+    }
+
+    @Test(dataProvider = "_addIncludeGlob_Pass_Data")
+    public void addIncludeGlob_PassWithoutDfaStateCache(
+            String glob, String pathname, boolean expected) {
+        PathPatternFilter classUnderTest =
+            PathPatternFilter.builder().addIncludeGlob(glob).withMaxDfaStateCount(0).build();
+        assertEquals(classUnderTest.match(pathname).isInclude(), expected);
+        assertEquals(classUnderTest.getAutomaton().getDfaStateCount(), 0);
+    }
+
+    @DataProvider
+    private static Object[][] _addIncludeGlob_FailWithInvalidGlob_Data() {
+        return new Object[][] {
+            { "" },
+            { "abc\\" },
+            { "[abc" },
+            { "[]" },
+            { "[c-a]" },
+            { "{a,b" },
+            { "{a,{b}" },
+        };
+    }
+
+    @Test(dataProvider = "_addIncludeGlob_FailWithInvalidGlob_Data",
+            expectedExceptions = IllegalArgumentException.class)
+    public void addIncludeGlob_FailWithInvalidGlob(String glob) {
+        PathPatternFilter.builder().addIncludeGlob(glob);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void addIncludeGlob_FailWithNull() {
+        PathPatternFilter.builder().addIncludeGlob(null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void addExcludeGlob_FailWithEmpty() {
+        PathPatternFilter.builder().addExcludeGlob("");
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // PathPatternFilter.Builder.add*Literal*()
+    //
+
+    @Test
+    public void addIncludeLiteralPrefix_Pass() {
+        PathPatternFilter classUnderTest =
+            PathPatternFilter.builder()
+                .addIncludeLiteralPrefix("/home/*/")
+                .addExcludeLiteralPrefix("/home/*/tmp/")
+                .build();
+        assertEquals(classUnderTest.match("/home/*/a.txt"), PathPatternMatch.INCLUDE);
+        assertEquals(classUnderTest.match("/home/*/tmp/a"), PathPatternMatch.INCLUDE_AND_EXCLUDE);
+        assertEquals(classUnderTest.match("/home/kca/a.txt"), PathPatternMatch.NONE);
+        assertEquals(classUnderTest.match("/home/*"), PathPatternMatch.NONE);
+    }
+
+    @Test
+    public void addIncludeLiteralSuffix_Pass() {
+        PathPatternFilter classUnderTest =
+            PathPatternFilter.builder()
+                .addIncludeLiteralSuffix(".java")
+                .addExcludeLiteralSuffix("Test.java")
+                .build();
+        assertEquals(classUnderTest.match("a/Foo.java"), PathPatternMatch.INCLUDE);
+        assertEquals(classUnderTest.match("a/FooTest.java"), PathPatternMatch.INCLUDE_AND_EXCLUDE);
+        assertEquals(classUnderTest.match("a/Foo.javax"), PathPatternMatch.NONE);
+        assertEquals(classUnderTest.match(".java.java"), PathPatternMatch.INCLUDE);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void addIncludeLiteralPrefix_FailWithEmpty() {
+        PathPatternFilter.builder().addIncludeLiteralPrefix("");
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void addExcludeLiteralPrefix_FailWithNull() {
+        PathPatternFilter.builder().addExcludeLiteralPrefix(null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void addIncludeLiteralSuffix_FailWithEmpty() {
+        PathPatternFilter.builder().addIncludeLiteralSuffix("");
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void addExcludeLiteralSuffix_FailWithNull() {
+        PathPatternFilter.builder().addExcludeLiteralSuffix(null);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withMaxDfaStateCount_FailWithNegative() {
+        PathPatternFilter.builder().withMaxDfaStateCount(-1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // PathPatternFilter.match(CharSequence)
+    //
+
+    /**
+     * Compares single pass match of many literal prefixes and suffixes with a naive loop.
+     */
+    @Test
+    public void match_PassWithManyPatterns() {
+        _match_PassWithManyPatterns(PathPatternAutomaton.DEFAULT_MAX_DFA_STATE_COUNT);
+        _match_PassWithManyPatterns(50);
+    }
+
+    private void _match_PassWithManyPatterns(int maxDfaStateCount) {
+        Random random = new Random(12345);
+        List<String> prefixList = new ArrayList<String>();
+        List<String> suffixList = new ArrayList<String>();
+        PathPatternFilter.Builder builder =
+            PathPatternFilter.builder().withMaxDfaStateCount(maxDfaStateCount);
+        for (int i = 0; i < 300; ++i) {
+            String prefix = _newRandomPathname(random, 1 + random.nextInt(6));
+            prefixList.add(prefix);
+            builder.addIncludeLiteralPrefix(prefix);
+            String suffix = _newRandomPathname(random, 1 + random.nextInt(4));
+            suffixList.add(suffix);
+            builder.addExcludeLiteralSuffix(suffix);
+        }
+        PathPatternFilter classUnderTest = builder.build();
+        assertEquals(classUnderTest.getPatternCount(), 600);
+        for (int i = 0; i < 5000; ++i) {
+            String pathname = _newRandomPathname(random, random.nextInt(12));
+            boolean isInclude = false;
+            for (String prefix : prefixList) {
+                isInclude |= pathname.startsWith(prefix);
+            }
+            boolean isExclude = false;
+            for (String suffix : suffixList) {
+                isExclude |= pathname.endsWith(suffix);
+            }
+            PathPatternMatch match = classUnderTest.match(pathname);
+            assertEquals(match.isInclude(), isInclude, pathname);
+            assertEquals(match.isExclude(), isExclude, pathname);
+        }
+        assertTrue(classUnderTest.getAutomaton().getDfaStateCount() <= maxDfaStateCount);
+    }
+
+    private static String _newRandomPathname(Random random, int length) {
+        final String chars = "ab/.";
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            sb.append(chars.charAt(random.nextInt(chars.length())));
+        }
+        return sb.toString();
+    }
+
+    @Test
+    public void match_PassWithConcurrentThreads()
+    throws Exception {
+        final PathPatternFilter classUnderTest =
+            PathPatternFilter.builder()
+                .addIncludeGlob("**/*.{java,kt}")
+                .addExcludeGlob("**/test/**")
+                .build();
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> futureList = new ArrayList<Future<Boolean>>();
+            for (int i = 0; i < 8; ++i) {
+                final int threadIndex = i;
+                futureList.add(executorService.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int j = 0; j < 1000; ++j) {
+                            String dir = (0 == (j + threadIndex) % 3) ? "test" : "main";
+                            String pathname = "/src/" + dir + "/p" + j + "/Foo" + j + ".java";
+                            PathPatternMatch expected =
+                                "test".equals(dir)
+                                    ? PathPatternMatch.INCLUDE_AND_EXCLUDE
+                                    : PathPatternMatch.INCLUDE;
+                            if (expected != classUnderTest.match(pathname)) {
+                                return false;
+                            }
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futureList) {
+                assertTrue(future.get());
+            }
+        }
+        finally {
+            executorService.shutdown();
+        }
+    }
+
+    @Test
+    public void match_PassWithoutPatterns() {
+        PathPatternFilter classUnderTest = PathPatternFilter.builder().build();
+        assertEquals(classUnderTest.match("abc"), PathPatternMatch.NONE);
+        assertEquals(classUnderTest.match(""), PathPatternMatch.NONE);
+        assertEquals(classUnderTest.getPatternCount(), 0);
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void match_FailWithNull() {
+        PathPatternFilter.builder().build().match(null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // PathPatternFilter.accept(File, int)
+    //
+
+    @Test
+    public void accept_Pass() {
+        PathPatternFilter classUnderTest =
+            PathPatternFilter.builder()
+                .addIncludeGlob("**/*.java")
+                .addExcludeGlob("**/*Test.java")
+                .build();
+        assertTrue(classUnderTest.accept(new File("a/Foo.java"), 1));
+        assertFalse(classUnderTest.accept(new File("a/FooTest.java"), 1));
+        assertFalse(classUnderTest.accept(new File("a/Foo.txt"), 1));
+        // Relative paths are matched as absolute paths.
+        String absPathname = new File("a").getAbsolutePath().replace(File.separatorChar, '/');
+        PathPatternFilter classUnderTest2 =
+            PathPatternFilter.builder().addIncludeLiteralPrefix(absPathname).build();
+        assertTrue(classUnderTest2.accept(new File("a/Foo.java"), 1));
+        assertFalse(classUnderTest2.accept(new File("b/Foo.java"), 1));
+    }
+
+    @Test
+    public void accept_PassWithoutIncludePatterns() {
+        PathPatternFilter classUnderTest =
+            PathPatternFilter.builder().addExcludeLiteralSuffix(".class").build();
+        assertTrue(classUnderTest.accept(new File("Foo.java"), 1));
+        assertFalse(classUnderTest.accept(new File("Foo.class"), 1));
+        assertTrue(PathPatternFilter.builder().build().accept(new File("Foo.class"), 1));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void accept_FailWithNull() {
+        PathPatternFilter.builder().build().accept(null, 1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // PathPatternFilter.getPatternCount()
+    //
+
+    @Test
+    public void getPatternCount_Pass() {
+        PathPatternFilter classUnderTest =
+            PathPatternFilter.builder()
+                .addIncludeGlob("*.{c,h,{cpp,hpp}}")
+                .addExcludeLiteralPrefix("/tmp/")
+                .build();
+        assertEquals(classUnderTest.getPatternCount(), 5);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // PathPatternFilter.escapeGlob(String)
+    //
+
+    @DataProvider
+    private static Object[][] _escapeGlob_Pass_Data() {
+        return new Object[][] {
+            { "" },
+            { "abc" },
+            { "a*b?c" },
+            { "[a-z]{x,y}\\**" },
+        };
+    }
+
+    @Test(dataProvider = "_escapeGlob_Pass_Data")
+    public void escapeGlob_Pass(String literal) {
+        String glob = "**/" + PathPatternFilter.escapeGlob(literal);
+        PathPatternFilter classUnderTest = PathPatternFilter.builder().addIncludeGlob(glob).build();
+        assertEquals(classUnderTest.getPatternCount(), 1);
+        assertTrue(classUnderTest.match("dir/" + literal).isInclude());
+        assertFalse(classUnderTest.match("dir/" + literal + "x").isInclude());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void escapeGlob_FailWithNull() {
+        PathPatternFilter.escapeGlob(null);
+    }
+}
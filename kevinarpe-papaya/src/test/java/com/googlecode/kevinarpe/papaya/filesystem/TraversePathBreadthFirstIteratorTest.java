@@ -0,0 +1,297 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.Lists;
+import com.googlecode.kevinarpe.papaya.exception.PathRuntimeException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class TraversePathBreadthFirstIteratorTest
+extends TraversePathIteratorTestBase {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathBreadthFirstIterator.ctor()
+    //
+
+    @Test
+    public void ctor_Pass() {
+        core_ctor_Pass(TraversePathDepthPolicy.BREADTH_FIRST);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathBreadthFirstIterator.hasNext()/next()
+    //
+
+    @DataProvider
+    private Object[][] _hasNextAndNext_Pass_Data() {
+        return new Object[][] {
+            new Object[] {
+                new String[] {
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "1/2/3/4/5/6/7/8/{9}",
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "{1,2,3}",
+                    "4/{7,8,9}",
+                    "5/{10,11,12}",
+                    "6/13/{17,18,19}",
+                    "6/{14,15,16}",
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "1/{7,8,9}",
+                    "2/{10,11,12}",
+                    "3/{13,14,15}",
+                    "{4,5,6}",
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "1/4/7/{10}",
+                    "2/5/8/{11}",
+                    "3/6/9/{12}",
+                },
+            },
+        };
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_Pass(String[] pathSpecArr)
+    throws IOException {
+        TraversePathIterator pathIter =
+            newInstance(TraversePathDepthPolicy.BREADTH_FIRST).iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithSpilledFrontier(String[] pathSpecArr)
+    throws IOException {
+        TraversePathIterator pathIter =
+            newInstance(TraversePathDepthPolicy.BREADTH_FIRST)
+                .withBreadthFirstFrontierCapacity(1)
+                .iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+        assertFalse(((TraversePathBreadthFirstIterator) pathIter).getFrontierQueue().hasSpillFile());
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithDirectoryStreamWithAttributes(String[] pathSpecArr)
+    throws IOException {
+        TraversePathIterator pathIter =
+            newInstance(TraversePathDepthPolicy.BREADTH_FIRST)
+                .withDirectoryListingPolicy(DirectoryListingPolicy.DIRECTORY_STREAM_WITH_ATTRIBUTES)
+                .iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithPrefetch(String[] pathSpecArr)
+    throws IOException {
+        AbstractTraversePathIteratorImpl pathIter =
+            (AbstractTraversePathIteratorImpl)
+                newInstance(TraversePathDepthPolicy.BREADTH_FIRST)
+                    .withDirectoryListingPrefetch(2, 1000)
+                    .iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+        assertEquals(pathIter.getOptionalPrefetcher().getPendingCount(), 0);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithPrefetchAndTinyMemoryBudget(String[] pathSpecArr)
+    throws IOException {
+        TraversePathIterator pathIter =
+            newInstance(TraversePathDepthPolicy.BREADTH_FIRST)
+                .withDirectoryListingPrefetch(4, 1)
+                .iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data",
+            expectedExceptions = NoSuchElementException.class)
+    public void hasNextAndNext_FailWithNoSuchElementException(String[] pathSpecArr)
+    throws IOException {
+        core_hasNextAndNext_FailWithNoSuchElementException(
+            TraversePathDepthPolicy.BREADTH_FIRST, pathSpecArr);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithFilter(String[] pathSpecArr)
+    throws IOException {
+        core_hasNextAndNext_PassWithEvenNumericPrefixFilter(
+            TraversePathDepthPolicy.BREADTH_FIRST, pathSpecArr);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithOnlyRootDirFilter(String[] pathSpecArr)
+    throws IOException {
+        core_hasNextAndNext_PassWithOnlyRootDirFilter(
+            TraversePathDepthPolicy.BREADTH_FIRST, pathSpecArr);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithAcceptNoneFilter(String[] pathSpecArr)
+    throws IOException {
+        core_hasNextAndNext_PassWithAcceptNoneFilter(
+            TraversePathDepthPolicy.BREADTH_FIRST, pathSpecArr);
+    }
+
+    @Test
+    public void hasNextAndNext_PassWithDescendDirFilter()
+    throws IOException {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            createFiles(new String[] { "1/3/{5}", "2/4/{6}" });
+            // Only descend root directory and directories at depth one.
+            TraversePathIterable pathIterable =
+                newInstance(TraversePathDepthPolicy.BREADTH_FIRST)
+                    .withOptionalDescendDirPathFilter(new PathFilter() {
+                        @Override
+                        public boolean accept(File path, int depth) {
+                            return depth <= 1;
+                        }
+                    });
+            List<String> nameList = Lists.newArrayList();
+            for (File path : pathIterable) {
+                nameList.add(path.getName());
+            }
+            assertEquals(
+                nameList,
+                Lists.newArrayList(
+                    BASE_DIR_PATH.getName(),
+                    "1.directory", "2.directory", "3.directory", "4.directory"));
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    @Test
+    public void getDepth_Pass()
+    throws IOException {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            createFiles(new String[] { "1/2/{3}" });
+            TraversePathIterator pathIter =
+                newInstance(TraversePathDepthPolicy.BREADTH_FIRST).iterator();
+            assertEquals(pathIter.getDepth(), 0);
+            assertEquals(pathIter.next(), BASE_DIR_PATH);
+            assertEquals(pathIter.next().getName(), "1.directory");
+            assertEquals(pathIter.getDepth(), 1);
+            assertEquals(pathIter.next().getName(), "2.directory");
+            assertEquals(pathIter.getDepth(), 2);
+            assertEquals(pathIter.next().getName(), "3.regularFile");
+            assertEquals(pathIter.getDepth(), 3);
+            assertFalse(pathIter.hasNext());
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    @Test
+    public void close_PassWithEarlyStop()
+    throws IOException {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            createFiles(new String[] { "{1}", "2/{5}", "3/{6}", "4/{7}" });
+            TraversePathIterator pathIter =
+                newInstance(TraversePathDepthPolicy.BREADTH_FIRST)
+                    .withBreadthFirstFrontierCapacity(1)
+                    .iterator();
+            TraversePathFrontierQueue frontierQueue =
+                ((TraversePathBreadthFirstIterator) pathIter).getFrontierQueue();
+            // Stop early at first shallow hit.
+            File path = null;
+            while (pathIter.hasNext()) {
+                path = pathIter.next();
+                if (path.getName().equals("1.regularFile")) {
+                    break;
+                }
+            }
+            assertEquals(path.getName(), "1.regularFile");
+            assertTrue(frontierQueue.hasSpillFile());
+            assertEquals(frontierQueue.getTotalSpillCount(), 2);
+            File spillFilePath = frontierQueue.getOptionalSpillFilePath();
+            pathIter.close();
+            assertFalse(frontierQueue.hasSpillFile());
+            assertFalse(spillFilePath.exists());
+            assertTrue(frontierQueue.isEmpty());
+            pathIter.close();
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    @Test(expectedExceptions = PathRuntimeException.class)
+    public void hasNextAndNext_FailWithPathRuntimeException()
+    throws IOException {
+        TraversePathIterable pathIterable = newInstance(TraversePathDepthPolicy.BREADTH_FIRST);
+        pathIterable = pathIterable.withExceptionPolicy(TraversePathExceptionPolicy.THROW);
+        TraversePathIterator pathIter = pathIterable.iterator();
+
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            createFiles(new String[] { "1/{3}", "2" });
+            assertTrue(pathIter.hasNext());
+            File firstPath = pathIter.next();
+            assertEquals(firstPath, BASE_DIR_PATH);
+            while (pathIter.hasNext()) {
+                File path = pathIter.next();
+                if (path.getName().equals("2.directory")) {
+                    assertTrue(path.delete());
+                }
+            }
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+}
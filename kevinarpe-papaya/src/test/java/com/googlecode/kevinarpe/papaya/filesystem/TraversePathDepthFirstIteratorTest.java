@@ -33,6 +33,7 @@ import java.io.File;
 import java.io.IOException;
 import java.util.NoSuchElementException;
 
+import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertTrue;
 
 /**
@@ -108,6 +109,38 @@ extends TraversePathIteratorTestBase {
         core_hasNextAndNext_Pass(pathIter, pathSpecArr);
     }
 
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithDirectoryStreamWithAttributes(String[] pathSpecArr)
+    throws IOException {
+        TraversePathIterator pathIter =
+            newInstance(TraversePathDepthPolicy.DEPTH_FIRST)
+                .withDirectoryListingPolicy(DirectoryListingPolicy.DIRECTORY_STREAM_WITH_ATTRIBUTES)
+                .iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithPrefetch(String[] pathSpecArr)
+    throws IOException {
+        AbstractTraversePathIteratorImpl pathIter =
+            (AbstractTraversePathIteratorImpl)
+                newInstance(TraversePathDepthPolicy.DEPTH_FIRST)
+                    .withDirectoryListingPrefetch(2, 1000)
+                    .iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+        assertEquals(pathIter.getOptionalPrefetcher().getPendingCount(), 0);
+    }
+
+    @Test(dataProvider = "_hasNextAndNext_Pass_Data")
+    public void hasNextAndNext_PassWithPrefetchAndTinyMemoryBudget(String[] pathSpecArr)
+    throws IOException {
+        TraversePathIterator pathIter =
+            newInstance(TraversePathDepthPolicy.DEPTH_FIRST)
+                .withDirectoryListingPrefetch(4, 1)
+                .iterator();
+        core_hasNextAndNext_Pass(pathIter, pathSpecArr);
+    }
+
     @Test(dataProvider = "_hasNextAndNext_Pass_Data",
             expectedExceptions = NoSuchElementException.class)
     public void hasNextAndNext_FailWithNoSuchElementException(String[] pathSpecArr)
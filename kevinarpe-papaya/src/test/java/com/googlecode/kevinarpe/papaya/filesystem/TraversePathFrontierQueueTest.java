@@ -0,0 +1,181 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class TraversePathFrontierQueueTest {
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathFrontierQueue.ctor()
+    //
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithZeroCapacity() {
+        new TraversePathFrontierQueue(0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathFrontierQueue.add()/poll()
+    //
+
+    @Test
+    public void addAndPoll_Pass()
+    throws IOException {
+        TraversePathFrontierQueue classUnderTest = new TraversePathFrontierQueue(3);
+        File spillFilePath = null;
+        try {
+            assertTrue(classUnderTest.isEmpty());
+            assertNull(classUnderTest.poll());
+            int next = 0;
+            int expected = 0;
+            // Interleave adds and polls across many refills of the temporary file.
+            for (int round = 1; round <= 5; ++round) {
+                for (int i = 0; i < 4 * round; ++i, ++next) {
+                    classUnderTest.add(new File("dir" + next + "/é"), next);
+                }
+                assertEquals(classUnderTest.size(), next - expected);
+                for (int i = 0; i < 3 * round; ++i, ++expected) {
+                    TraversePathFrontierQueue.Entry entry = classUnderTest.poll();
+                    assertEquals(entry.dirPath, new File("dir" + expected + "/é"));
+                    assertEquals(entry.depth, expected);
+                }
+                // The same temporary file is reused after each refill.
+                if (null == spillFilePath) {
+                    spillFilePath = classUnderTest.getOptionalSpillFilePath();
+                }
+                assertEquals(classUnderTest.getOptionalSpillFilePath(), spillFilePath);
+            }
+            assertTrue(classUnderTest.hasSpillFile());
+            while (!classUnderTest.isEmpty()) {
+                TraversePathFrontierQueue.Entry entry = classUnderTest.poll();
+                assertEquals(entry.depth, expected);
+                ++expected;
+            }
+            assertEquals(expected, next);
+            assertNull(classUnderTest.poll());
+            // Emptied, but kept for reuse
+            assertEquals(classUnderTest.getOptionalSpillFilePath(), spillFilePath);
+            assertEquals(spillFilePath.length(), 0);
+            assertEquals(classUnderTest.getTotalSpillCount(), next - 3L);
+        }
+        finally {
+            classUnderTest.close();
+        }
+        assertFalse(classUnderTest.hasSpillFile());
+        assertFalse(spillFilePath.exists());
+    }
+
+    @Test
+    public void addAndPoll_PassWithoutSpill()
+    throws IOException {
+        TraversePathFrontierQueue classUnderTest = new TraversePathFrontierQueue(10);
+        for (int i = 0; i < 10; ++i) {
+            classUnderTest.add(new File("dir" + i), 1);
+        }
+        assertFalse(classUnderTest.hasSpillFile());
+        assertEquals(classUnderTest.getTotalSpillCount(), 0);
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(classUnderTest.poll().dirPath, new File("dir" + i));
+        }
+        assertTrue(classUnderTest.isEmpty());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void add_FailWithNull()
+    throws IOException {
+        new TraversePathFrontierQueue(1).add((File) null, 1);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathFrontierQueue.close()
+    //
+
+    @Test
+    public void close_Pass()
+    throws IOException {
+        TraversePathFrontierQueue classUnderTest = new TraversePathFrontierQueue(1);
+        classUnderTest.add(new File("a"), 1);
+        classUnderTest.add(new File("b"), 1);
+        assertTrue(classUnderTest.hasSpillFile());
+        classUnderTest.close();
+        assertFalse(classUnderTest.hasSpillFile());
+        assertTrue(classUnderTest.isEmpty());
+        classUnderTest.close();
+        // Reusable after close
+        classUnderTest.add(new File("c"), 2);
+        classUnderTest.add(new File("d"), 2);
+        assertEquals(classUnderTest.poll().dirPath, new File("c"));
+        assertEquals(classUnderTest.poll().dirPath, new File("d"));
+        assertTrue(classUnderTest.hasSpillFile());
+        File spillFilePath = classUnderTest.getOptionalSpillFilePath();
+        classUnderTest.close();
+        assertFalse(spillFilePath.exists());
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // Spill file cleanup after garbage collection
+    //
+
+    private static File _spillThenDiscard()
+    throws IOException {
+        TraversePathFrontierQueue classUnderTest = new TraversePathFrontierQueue(1);
+        classUnderTest.add(new File("a"), 1);
+        classUnderTest.add(new File("b"), 1);
+        File x = classUnderTest.getOptionalSpillFilePath();
+        return x;
+    }
+
+    @Test
+    public void add_PassWhenUnreachableQueueSpillFileIsDeleted()
+    throws Exception {
+        File spillFilePath = _spillThenDiscard();
+        assertTrue(spillFilePath.isFile());
+        // Garbage collection is not deterministic, so try many times.
+        for (int i = 0; i < 100 && spillFilePath.exists(); ++i) {
+            System.gc();
+            Thread.sleep(10);
+            // Each new spill file first cleans up spill files from unreachable queues.
+            TraversePathFrontierQueue queue = new TraversePathFrontierQueue(1);
+            queue.add(new File("c"), 1);
+            queue.add(new File("d"), 1);
+            queue.close();
+        }
+        assertFalse(spillFilePath.exists());
+    }
+}
@@ -219,6 +219,119 @@ public class TraversePathIterableImplTest {
         classUnderTestWithDefaults.withExceptionPolicy((TraversePathExceptionPolicy) null);
     }
 
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathIterableImpl.withDirectoryListingPolicy()
+    //
+
+    @Test
+    public void withDirectoryListingPolicy_Pass() {
+        assertEquals(
+            classUnderTestWithDefaults.withDirectoryListingPolicy(),
+            DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY);
+        for (DirectoryListingPolicy directoryListingPolicy : DirectoryListingPolicy.values()) {
+            TraversePathIterable next =
+                classUnderTestWithoutDefaults.withDirectoryListingPolicy(directoryListingPolicy);
+            assertNotSame(next, classUnderTestWithoutDefaults);
+            assertEquals(next.withDirectoryListingPolicy(), directoryListingPolicy);
+            BaseTraversePathIterTest.assertAttrSame(
+                next,
+                classUnderTestWithoutDefaults.withRootDirPath(),
+                classUnderTestWithoutDefaults.withDepthPolicy(),
+                classUnderTestWithoutDefaults.withExceptionPolicy(),
+                classUnderTestWithoutDefaults.withOptionalDescendDirPathFilter(),
+                classUnderTestWithoutDefaults.withOptionalDescendDirPathComparator(),
+                classUnderTestWithoutDefaults.withOptionalIteratePathFilter(),
+                classUnderTestWithoutDefaults.withOptionalIteratePathComparator());
+            assertEquals(next.iterator().withDirectoryListingPolicy(), directoryListingPolicy);
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void withDirectoryListingPolicy_FailWithNull() {
+        classUnderTestWithDefaults.withDirectoryListingPolicy((DirectoryListingPolicy) null);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathIterableImpl.withBreadthFirstFrontierCapacity()
+    //
+
+    @Test
+    public void withBreadthFirstFrontierCapacity_Pass() {
+        assertEquals(
+            classUnderTestWithDefaults.withBreadthFirstFrontierCapacity(),
+            TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY);
+        TraversePathIterable next =
+            classUnderTestWithoutDefaults.withBreadthFirstFrontierCapacity(7);
+        assertNotSame(next, classUnderTestWithoutDefaults);
+        assertEquals(next.withBreadthFirstFrontierCapacity(), 7);
+        assertEquals(
+            next.withDirectoryListingPolicy(),
+            classUnderTestWithoutDefaults.withDirectoryListingPolicy());
+        BaseTraversePathIterTest.assertAttrSame(
+            next,
+            classUnderTestWithoutDefaults.withRootDirPath(),
+            classUnderTestWithoutDefaults.withDepthPolicy(),
+            classUnderTestWithoutDefaults.withExceptionPolicy(),
+            classUnderTestWithoutDefaults.withOptionalDescendDirPathFilter(),
+            classUnderTestWithoutDefaults.withOptionalDescendDirPathComparator(),
+            classUnderTestWithoutDefaults.withOptionalIteratePathFilter(),
+            classUnderTestWithoutDefaults.withOptionalIteratePathComparator());
+        assertEquals(next.iterator().withBreadthFirstFrontierCapacity(), 7);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withBreadthFirstFrontierCapacity_FailWithZero() {
+        classUnderTestWithDefaults.withBreadthFirstFrontierCapacity(0);
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathIterableImpl.withDirectoryListingPrefetch()
+    //
+
+    @Test
+    public void withDirectoryListingPrefetch_Pass() {
+        assertEquals(
+            classUnderTestWithDefaults.withDirectoryListingPrefetchCount(),
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT);
+        assertEquals(
+            classUnderTestWithDefaults.withDirectoryListingPrefetchMaxPathCount(),
+            TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT);
+        TraversePathIterable next =
+            classUnderTestWithoutDefaults.withDirectoryListingPrefetch(3, 17);
+        assertNotSame(next, classUnderTestWithoutDefaults);
+        assertEquals(next.withDirectoryListingPrefetchCount(), 3);
+        assertEquals(next.withDirectoryListingPrefetchMaxPathCount(), 17);
+        assertEquals(
+            next.withBreadthFirstFrontierCapacity(),
+            classUnderTestWithoutDefaults.withBreadthFirstFrontierCapacity());
+        BaseTraversePathIterTest.assertAttrSame(
+            next,
+            classUnderTestWithoutDefaults.withRootDirPath(),
+            classUnderTestWithoutDefaults.withDepthPolicy(),
+            classUnderTestWithoutDefaults.withExceptionPolicy(),
+            classUnderTestWithoutDefaults.withOptionalDescendDirPathFilter(),
+            classUnderTestWithoutDefaults.withOptionalDescendDirPathComparator(),
+            classUnderTestWithoutDefaults.withOptionalIteratePathFilter(),
+            classUnderTestWithoutDefaults.withOptionalIteratePathComparator());
+        TraversePathIterator iter = next.iterator();
+        assertEquals(iter.withDirectoryListingPrefetchCount(), 3);
+        assertEquals(iter.withDirectoryListingPrefetchMaxPathCount(), 17);
+        iter.close();
+
+        TraversePathIterable disabled = next.withDirectoryListingPrefetch(0, 17);
+        assertEquals(disabled.withDirectoryListingPrefetchCount(), 0);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withDirectoryListingPrefetch_FailWithNegativeCount() {
+        classUnderTestWithDefaults.withDirectoryListingPrefetch(-1, 17);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void withDirectoryListingPrefetch_FailWithZeroMaxPathCount() {
+        classUnderTestWithDefaults.withDirectoryListingPrefetch(3, 0);
+    }
+
     ///////////////////////////////////////////////////////////////////////////////////////////////
     // TraversePathIterableImpl.withOptionalDescendDirPathFilter()
     //
@@ -367,6 +480,20 @@ public class TraversePathIterableImplTest {
             .addEqualityGroup(
                 classUnderTestWithoutDefaults.withRootDirPath(newDirPath),
                 classUnderTestWithoutDefaults.withRootDirPath(newDirPath))
+            .addEqualityGroup(
+                classUnderTestWithoutDefaults.withDirectoryListingPolicy(
+                    DirectoryListingPolicy.DIRECTORY_STREAM_WITH_ATTRIBUTES),
+                classUnderTestWithoutDefaults.withDirectoryListingPolicy(
+                    DirectoryListingPolicy.DIRECTORY_STREAM_WITH_ATTRIBUTES))
+            .addEqualityGroup(
+                classUnderTestWithoutDefaults.withBreadthFirstFrontierCapacity(7),
+                classUnderTestWithoutDefaults.withBreadthFirstFrontierCapacity(7))
+            .addEqualityGroup(
+                classUnderTestWithoutDefaults.withDirectoryListingPrefetch(3, 17),
+                classUnderTestWithoutDefaults.withDirectoryListingPrefetch(3, 17))
+            .addEqualityGroup(
+                classUnderTestWithoutDefaults.withDirectoryListingPrefetch(3, 18),
+                classUnderTestWithoutDefaults.withDirectoryListingPrefetch(3, 18))
             .testEquals();
     }
 }
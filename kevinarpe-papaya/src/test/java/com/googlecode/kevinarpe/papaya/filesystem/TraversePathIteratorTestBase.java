@@ -89,7 +89,11 @@ public class TraversePathIteratorTestBase {
                     PathFilter optIteratePathFilter,
                     Comparator<File> optIteratePathComparator) {
                 return depthPolicy.createTraversePathIterator(
-                    dirPath, exceptionPolicy, optDescendDirPathFilter, optDescendDirPathComparator,
+                    dirPath, exceptionPolicy, DirectoryListing.DEFAULT_DIRECTORY_LISTING_POLICY,
+                    TraversePathUtils.DEFAULT_BREADTH_FIRST_FRONTIER_CAPACITY,
+                    TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_COUNT,
+                    TraversePathUtils.DEFAULT_DIRECTORY_LISTING_PREFETCH_MAX_PATH_COUNT,
+                    optDescendDirPathFilter, optDescendDirPathComparator,
                     optIteratePathFilter, optIteratePathComparator);
             }
         };
@@ -112,7 +116,8 @@ public class TraversePathIteratorTestBase {
 
         try {
             int max = createFiles(pathSpecArr);
-            if (TraversePathDepthPolicy.DEPTH_LAST == pathIter.withDepthPolicy()) {
+            // Root directory is first for DEPTH_LAST and BREADTH_FIRST.
+            if (TraversePathDepthPolicy.DEPTH_FIRST != pathIter.withDepthPolicy()) {
                 assertTrue(pathIter.hasNext());
                 assertTrue(pathIter.hasNext());  // check for no further side effects
                 assertTrue(pathIter.hasNext());  // check for no further side effects
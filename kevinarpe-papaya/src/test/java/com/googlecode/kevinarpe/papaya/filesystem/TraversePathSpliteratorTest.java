@@ -0,0 +1,302 @@
+package com.googlecode.kevinarpe.papaya.filesystem;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.googlecode.kevinarpe.papaya.exception.PathRuntimeException;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class TraversePathSpliteratorTest
+extends TraversePathIteratorTestBase {
+
+    private static final PathFilter ONLY_DESCEND_ROOT_DIR_OR_EVEN_NUMERIC_PREFIX_PATH_FILTER =
+        new PathFilter() {
+            @Override
+            public boolean accept(File path, int depth) {
+                return (0 == depth)
+                    || ONLY_ACCEPT_EVEN_NUMERIC_PREFIX_PATH_FILTER.accept(path, depth);
+            }
+        };
+
+    @DataProvider
+    private Object[][] _parallelStream_Pass_Data() {
+        return new Object[][] {
+            new Object[] {
+                new String[] {
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "1/2/3/4/5/6/7/8/{9}",
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "{1,2,3}",
+                    "4/{7,8,9}",
+                    "5/{10,11,12}",
+                    "6/13/{17,18,19}",
+                    "6/{14,15,16}",
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "1/{7,8,9}",
+                    "2/{10,11,12}",
+                    "3/{13,14,15}",
+                    "{4,5,6}",
+                },
+            },
+            new Object[] {
+                new String[] {
+                    "1/4/5/6",
+                    "2/7/8/9",
+                    "3/10/11/12",
+                },
+            },
+        };
+    }
+
+    private List<TraversePathIterable> _newInstanceList() {
+        List<TraversePathIterable> list = Lists.newArrayList();
+        for (TraversePathDepthPolicy depthPolicy : TraversePathDepthPolicy.values()) {
+            for (DirectoryListingPolicy directoryListingPolicy : DirectoryListingPolicy.values()) {
+                TraversePathIterable x =
+                    newInstance(depthPolicy).withDirectoryListingPolicy(directoryListingPolicy);
+                list.add(x);
+                list.add(
+                    x.withOptionalIteratePathFilter(ONLY_ACCEPT_EVEN_NUMERIC_PREFIX_PATH_FILTER));
+                list.add(
+                    x.withOptionalDescendDirPathFilter(
+                        ONLY_DESCEND_ROOT_DIR_OR_EVEN_NUMERIC_PREFIX_PATH_FILTER));
+                list.add(x.withOptionalDescendDirPathFilter(ACCEPT_NONE_PATH_FILTER));
+                list.add(x.withOptionalIteratePathFilter(ONLY_ACCEPT_ROOT_DIR_PATH_FILTER));
+            }
+        }
+        return list;
+    }
+
+    private static List<File> _toList(TraversePathIterable pathIterable) {
+        List<File> list = Lists.newArrayList(pathIterable);
+        return list;
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathIterableImpl.parallelStream()
+    //
+
+    @Test(dataProvider = "_parallelStream_Pass_Data")
+    public void parallelStream_Pass(String[] pathSpecArr)
+    throws IOException {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            createFiles(pathSpecArr);
+            for (TraversePathIterable pathIterable : _newInstanceList()) {
+                List<File> expectedList = _toList(pathIterable);
+                List<File> actualList = pathIterable.parallelStream().collect(Collectors.toList());
+                assertEquals(actualList.size(), expectedList.size());
+                assertEquals(ImmutableSet.copyOf(actualList), ImmutableSet.copyOf(expectedList));
+            }
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    @Test
+    public void parallelStream_PassWithCustomForkJoinPool()
+    throws Exception {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        ForkJoinPool forkJoinPool = new ForkJoinPool(3);
+        try {
+            createFiles(new String[] { "1/{4,5}", "2/{6,7}", "3/8/{9,10}" });
+            final TraversePathIterable pathIterable =
+                newInstance(TraversePathDepthPolicy.DEPTH_LAST);
+            ForkJoinTask<Set<File>> task =
+                forkJoinPool.submit(
+                    new Callable<Set<File>>() {
+                        @Override
+                        public Set<File> call() {
+                            return pathIterable.parallelStream().collect(Collectors.toSet());
+                        }
+                    });
+            assertEquals(task.get(), ImmutableSet.copyOf(_toList(pathIterable)));
+        }
+        finally {
+            forkJoinPool.shutdown();
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    @Test(expectedExceptions = PathRuntimeException.class)
+    public void parallelStream_FailWithPathRuntimeException() {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        TraversePathIterable pathIterable =
+            newInstance(TraversePathDepthPolicy.DEPTH_LAST)
+                .withExceptionPolicy(TraversePathExceptionPolicy.THROW);
+        pathIterable.parallelStream().count();
+    }
+
+    @Test
+    public void parallelStream_PassWithIgnoreExceptionPolicy() {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        TraversePathIterable pathIterable =
+            newInstance(TraversePathDepthPolicy.DEPTH_LAST)
+                .withExceptionPolicy(TraversePathExceptionPolicy.IGNORE);
+        List<File> list = pathIterable.parallelStream().collect(Collectors.toList());
+        assertEquals(list, _toList(pathIterable));
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathIterableImpl.stream()
+    //
+
+    @Test(dataProvider = "_parallelStream_Pass_Data")
+    public void stream_Pass(String[] pathSpecArr)
+    throws IOException {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            createFiles(pathSpecArr);
+            for (TraversePathIterable pathIterable : _newInstanceList()) {
+                List<File> expectedList = _toList(pathIterable);
+                List<File> actualList = pathIterable.stream().collect(Collectors.toList());
+                assertEquals(actualList, expectedList);
+            }
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    ///////////////////////////////////////////////////////////////////////////////////////////////
+    // TraversePathSpliterator.trySplit()
+    //
+
+    @Test
+    public void trySplit_Pass()
+    throws IOException {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            createFiles(new String[] { "1/{5,6}", "2/{7,8}", "3/{9,10}", "4/11/{12}" });
+            TraversePathIterable pathIterable = newInstance(TraversePathDepthPolicy.DEPTH_FIRST);
+            Spliterator<File> spliterator = pathIterable.spliterator();
+            assertEquals(spliterator.characteristics(), Spliterator.NONNULL);
+            assertEquals(spliterator.estimateSize(), Long.MAX_VALUE);
+
+            // Lists the root directory to discover four subdirectories, then splits off two.
+            Spliterator<File> spliterator2 = spliterator.trySplit();
+            assertNotNull(spliterator2);
+            final List<File> list = Lists.newArrayList();
+            Consumer<File> consumer = new Consumer<File>() {
+                @Override
+                public void accept(File path) {
+                    list.add(path);
+                }
+            };
+            spliterator2.forEachRemaining(consumer);
+            int size2 = list.size();
+            assertTrue(size2 > 0);
+            spliterator.forEachRemaining(consumer);
+            assertTrue(list.size() > size2);
+            assertFalse(spliterator.tryAdvance(consumer));
+            assertEquals(spliterator.estimateSize(), 0L);
+            assertNull(spliterator.trySplit());
+
+            assertEquals(list.size(), _toList(pathIterable).size());
+            assertEquals(ImmutableSet.copyOf(list), ImmutableSet.copyOf(_toList(pathIterable)));
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    @Test
+    public void trySplit_PassWithLargeDirectory()
+    throws IOException {
+        recursiveDeleteDir(BASE_DIR_PATH);
+        assertTrue(BASE_DIR_PATH.mkdir());
+        try {
+            for (int i = 1; i <= TraversePathSpliterator.MIN_SPLIT_PATH_COUNT; ++i) {
+                assertTrue(new File(BASE_DIR_PATH, i + ".regularFile").createNewFile());
+            }
+            TraversePathIterable pathIterable =
+                newInstance(TraversePathDepthPolicy.DEPTH_LAST)
+                    .withOptionalIteratePathFilter(ONLY_ACCEPT_EVEN_NUMERIC_PREFIX_PATH_FILTER);
+            Spliterator<File> spliterator = pathIterable.spliterator();
+            // Too few paths to split after filter.
+            assertNull(spliterator.trySplit());
+            assertEquals(
+                spliterator.estimateSize(), TraversePathSpliterator.MIN_SPLIT_PATH_COUNT / 2);
+
+            pathIterable = pathIterable.withOptionalIteratePathFilter((PathFilter) null);
+            spliterator = pathIterable.spliterator();
+            Spliterator<File> spliterator2 = spliterator.trySplit();
+            assertNotNull(spliterator2);
+            // Root directory plus all files
+            assertEquals(
+                spliterator.estimateSize() + spliterator2.estimateSize(),
+                1 + TraversePathSpliterator.MIN_SPLIT_PATH_COUNT);
+            List<File> list = pathIterable.parallelStream().collect(Collectors.toList());
+            assertEquals(list.size(), 1 + TraversePathSpliterator.MIN_SPLIT_PATH_COUNT);
+            assertEquals(ImmutableSet.copyOf(list), ImmutableSet.copyOf(_toList(pathIterable)));
+        }
+        finally {
+            recursiveDeleteDir(BASE_DIR_PATH);
+        }
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void ctor_FailWithNull() {
+        new TraversePathSpliterator((TraversePathIterSettings) null);
+    }
+}
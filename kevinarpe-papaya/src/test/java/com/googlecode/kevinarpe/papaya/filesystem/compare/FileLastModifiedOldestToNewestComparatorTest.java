@@ -31,7 +31,10 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 /**
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -72,4 +75,17 @@ extends AbstractFileComparatorTestBase<FileLastModifiedOldestToNewestComparator,
             FileLastModifiedOldestToNewestComparator comparator, Long value1, Long value2) {
         return compareLongs(comparator, value1, value2);
     }
+
+    @Test(dataProvider = "compare_Pass_Data")
+    public void getLongSortKey_Pass(long lastModifiedEpochMillis, long ignored) {
+        File mockPath = mock(File.class);
+        when(mockPath.lastModified()).thenReturn(lastModifiedEpochMillis);
+        assertEquals(newComparator().getLongSortKey(mockPath), lastModifiedEpochMillis);
+        verify(mockPath).lastModified();
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void getLongSortKey_FailWithNull() {
+        newComparator().getLongSortKey((File) null);
+    }
 }
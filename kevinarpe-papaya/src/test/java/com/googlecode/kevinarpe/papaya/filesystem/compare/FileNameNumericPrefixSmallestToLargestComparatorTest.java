@@ -32,6 +32,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 
 import static org.mockito.Mockito.when;
+import static org.testng.Assert.assertEquals;
 
 /**
  * @author Kevin Connor ARPE (kevinarpe@gmail.com)
@@ -93,4 +94,20 @@ extends AbstractFileComparatorTestBase<FileNameNumericPrefixSmallestToLargestCom
         return compareLongs(
             comparator, numericPrefix1.getNumericValue(), numericPrefix2.getNumericValue());
     }
+
+    @Test(dataProvider = "compare_Pass_Data")
+    public void compareSortKeys_Pass(String fileName1, String fileName2) {
+        FileNameNumericPrefixSmallestToLargestComparator classUnderTest = newComparator();
+        NumericPrefix key1 = classUnderTest.getSortKey(new File(fileName1));
+        NumericPrefix key2 = classUnderTest.getSortKey(new File(fileName2));
+        assertEquals(key1.getInput(), fileName1);
+        assertCompareResultEquals(
+            classUnderTest.compareSortKeys(key1, key2),
+            compareValues(classUnderTest, fileName1, fileName2));
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void getSortKey_FailWithNull() {
+        newComparator().getSortKey((File) null);
+    }
 }
@@ -96,4 +96,20 @@ extends AbstractFileComparatorTestBase<FileSizeSmallestToLargestComparator, Long
         int actualResult = new FileSizeSmallestToLargestComparator().compare(path1, path2);
         assertEquals(actualResult, expectedResult);
     }
+
+    @Test(dataProvider = "_compare_PassWhenAtLeastOnePathIsDir_Data")
+    public void getLongSortKey_PassWhenAtLeastOnePathIsDir(
+            File path1, File path2, int expectedResult) {
+        FileSizeSmallestToLargestComparator classUnderTest =
+            new FileSizeSmallestToLargestComparator();
+        long key1 = classUnderTest.getLongSortKey(path1);
+        long key2 = classUnderTest.getLongSortKey(path2);
+        assertEquals(Long.compare(key1, key2), expectedResult);
+        assertEquals(key1, path1.isDirectory() ? 0L : path1.length());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void getLongSortKey_FailWithNull() {
+        new FileSizeSmallestToLargestComparator().getLongSortKey((File) null);
+    }
 }
@@ -0,0 +1,167 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.StringUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class IncrementalTextSplitterTest {
+    
+    private static final Charset UTF_8 = StandardCharsets.UTF_8;
+    
+    private static final class _ListAppendable
+    implements Appendable {
+        
+        private final List<String> _list = new ArrayList<String>();
+        
+        @Override
+        public Appendable append(CharSequence csq) {
+            // Intentional: Copy the view.
+            _list.add(csq.toString());
+            return this;
+        }
+        
+        @Override
+        public Appendable append(CharSequence csq, int start, int end) {
+            return append(csq.subSequence(start, end));
+        }
+        
+        @Override
+        public Appendable append(char c) {
+            return append(String.valueOf(c));
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // IncrementalTextSplitter.ctor()
+    //
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithZeroCapacity() {
+        new IncrementalTextSplitter(0);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // IncrementalTextSplitter.append() & .finish()
+    //
+    
+    @DataProvider
+    public static Object[][] _append_Pass_Data() {
+        return new Object[][] {
+                { "", StringUtils.UNIX_OR_WINDOWS_NEW_LINE_REGEX, new String[] { } },
+                { "abc", StringUtils.UNIX_OR_WINDOWS_NEW_LINE_REGEX, new String[] { "abc" } },
+                { "abc\n", StringUtils.UNIX_OR_WINDOWS_NEW_LINE_REGEX, new String[] { "abc" } },
+                { "abc\r\ndef", StringUtils.UNIX_OR_WINDOWS_NEW_LINE_REGEX, new String[] { "abc", "def" } },
+                { "abc\n\ndef\n", StringUtils.UNIX_OR_WINDOWS_NEW_LINE_REGEX, new String[] { "abc", "", "def" } },
+                { "a,b,,c", Pattern.compile(","), new String[] { "a", "b", "", "c" } },
+                { "été\n日本\n😀", StringUtils.UNIX_OR_WINDOWS_NEW_LINE_REGEX,
+                    new String[] { "été", "日本", "😀" } },
+        };
+    }
+    
+    @Test(dataProvider = "_append_Pass_Data")
+    public void append_Pass(String text, Pattern splitRegex, String[] expectedArr)
+    throws IOException {
+        byte[] byteArr = text.getBytes(UTF_8);
+        // Split the bytes at every possible boundary, including inside multi-byte chars.
+        for (int chunkSize = 1; chunkSize <= Math.max(1, byteArr.length); ++chunkSize) {
+            for (int capacity : new int[] { 1, 2, 1024 }) {
+                List<String> list = _split(byteArr, chunkSize, capacity, splitRegex);
+                Assert.assertEquals(list, Arrays.asList(expectedArr),
+                    String.format("chunkSize=%d, capacity=%d", chunkSize, capacity));
+            }
+        }
+    }
+    
+    @Test
+    public void append_PassWithoutSplitRegex()
+    throws IOException {
+        String text = "été\n日本";
+        byte[] byteArr = text.getBytes(UTF_8);
+        for (int chunkSize = 1; chunkSize <= byteArr.length; ++chunkSize) {
+            List<String> list = _split(byteArr, chunkSize, 4, null);
+            StringBuilder sb = new StringBuilder();
+            for (String s : list) {
+                Assert.assertFalse(s.isEmpty());
+                sb.append(s);
+            }
+            Assert.assertEquals(sb.toString(), text);
+        }
+    }
+    
+    @Test
+    public void append_PassWithWindowsNewLineSplitAcrossReads()
+    throws IOException {
+        IncrementalTextSplitter x = new IncrementalTextSplitter(16);
+        _ListAppendable callback = new _ListAppendable();
+        Pattern regex = StringUtils.UNIX_OR_WINDOWS_NEW_LINE_REGEX;
+        x.append("abc\r".getBytes(UTF_8), 4, UTF_8, regex, callback);
+        Assert.assertEquals(callback._list, Arrays.asList());
+        x.append("\ndef".getBytes(UTF_8), 4, UTF_8, regex, callback);
+        Assert.assertEquals(callback._list, Arrays.asList("abc"));
+        x.finish(UTF_8, regex, callback);
+        Assert.assertEquals(callback._list, Arrays.asList("abc", "def"));
+    }
+    
+    @Test
+    public void finish_PassWithIncompleteMultiByteChar()
+    throws IOException {
+        IncrementalTextSplitter x = new IncrementalTextSplitter(16);
+        _ListAppendable callback = new _ListAppendable();
+        byte[] byteArr = "aé".getBytes(UTF_8);
+        // Drop the last byte of the two-byte char
+        x.append(byteArr, byteArr.length - 1, UTF_8, null, callback);
+        x.finish(UTF_8, null, callback);
+        Assert.assertEquals(callback._list, Arrays.asList("a", "�"));
+    }
+    
+    private static List<String> _split(
+            byte[] byteArr, int chunkSize, int capacity, Pattern optSplitRegex)
+    throws IOException {
+        IncrementalTextSplitter x = new IncrementalTextSplitter(capacity);
+        _ListAppendable callback = new _ListAppendable();
+        for (int i = 0; i < byteArr.length; i += chunkSize) {
+            int count = Math.min(chunkSize, byteArr.length - i);
+            byte[] chunk = Arrays.copyOfRange(byteArr, i, i + count);
+            x.append(chunk, count, UTF_8, optSplitRegex, callback);
+        }
+        x.finish(UTF_8, optSplitRegex, callback);
+        return callback._list;
+    }
+}
@@ -0,0 +1,244 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ChildProcess2a;
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ProcessStream;
+import com.googlecode.kevinarpe.papaya.test.TestAssertUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ProcessBatchExecutorTest {
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBatchExecutor.ctor()
+    //
+    
+    @Test
+    public void ctor_Pass() {
+        ProcessBatchExecutor x = new ProcessBatchExecutor(3, 5);
+        Assert.assertEquals(x.maxConcurrentProcessCount(), 3);
+        Assert.assertEquals(x.maxQueuedProcessCount(), 5);
+        Assert.assertEquals(x.queuedProcessCount(), 0);
+        Assert.assertEquals(x.runningProcessCount(), 0);
+        Assert.assertFalse(x.isShutdown());
+        ProcessBatchStats stats = x.stats();
+        Assert.assertEquals(stats.launchCount(), 0);
+        Assert.assertEquals(stats.completedCount(), 0);
+        Assert.assertEquals(stats.launchesPerSecond(), 0.0);
+        Assert.assertEquals(stats.p99WallMillis(), 0.0);
+        x.shutdown();
+        Assert.assertTrue(x.isShutdown());
+    }
+    
+    @DataProvider
+    public static Object[][] _ctor_Fail_Data() {
+        return new Object[][] {
+                { 0, 1 },
+                { -1, 1 },
+                { 1, 0 },
+                { 1, -1 },
+        };
+    }
+    
+    @Test(dataProvider = "_ctor_Fail_Data",
+            expectedExceptions = IllegalArgumentException.class)
+    public void ctor_Fail(int maxConcurrentProcessCount, int maxQueuedProcessCount) {
+        new ProcessBatchExecutor(maxConcurrentProcessCount, maxQueuedProcessCount);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBatchExecutor.submitAll(Iterator)
+    //
+    
+    @Test
+    public void submitAll_Pass()
+    throws Exception {
+        ProcessBatchExecutor x = new ProcessBatchExecutor(3, 2);
+        try {
+            String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+            ProcessBuilder2 builder =
+                new ProcessBuilder2("java", "-classpath", classpath, ChildProcess2a.class.getName());
+            builder.stdoutSettings().isDataAccumulated(true);
+            builder.stderrSettings().isDataAccumulated(true);
+            int count = 10;
+            List<ProcessBuilder2> builderList = new ArrayList<ProcessBuilder2>();
+            for (int i = 0; i < count; ++i) {
+                builderList.add(builder);
+            }
+            List<CompletableFuture<Process2>> futureList = x.submitAll(builderList.iterator());
+            Assert.assertEquals(futureList.size(), count);
+            Assert.assertTrue(x.runningProcessCount() <= 3);
+            for (CompletableFuture<Process2> future : futureList) {
+                Process2 proc = future.get();
+                Assert.assertEquals(proc.exitValue(), 0);
+                TestAssertUtils.assertHugeStringEquals(
+                    proc.stdoutDataAsString(), ProcessStream.STDOUT.text);
+                TestAssertUtils.assertHugeStringEquals(
+                    proc.stderrDataAsString(), ProcessStream.STDERR.text);
+            }
+            ProcessBatchStats stats = x.stats();
+            Assert.assertEquals(stats.launchCount(), count);
+            Assert.assertEquals(stats.failedLaunchCount(), 0);
+            Assert.assertEquals(stats.completedCount(), count);
+            long byteCount =
+                ProcessStream.STDOUT.text.getBytes().length
+                + ProcessStream.STDERR.text.getBytes().length;
+            Assert.assertEquals(stats.capturedByteCount(), count * byteCount);
+            Assert.assertTrue(stats.launchesPerSecond() > 0.0);
+            Assert.assertTrue(stats.p50WallMillis() > 0.0);
+            Assert.assertTrue(stats.p50WallMillis() <= stats.p99WallMillis());
+            Assert.assertTrue(stats.p99WallMillis() <= stats.maxWallMillis());
+            Assert.assertTrue(stats.toString().contains("launchCount=" + count));
+        }
+        finally {
+            x.shutdown();
+        }
+    }
+    
+    @Test
+    public void submit_PassWithFailedLaunch()
+    throws InterruptedException {
+        ProcessBatchExecutor x = new ProcessBatchExecutor(1, 1);
+        try {
+            ProcessBuilder2 builder = new ProcessBuilder2("no_such_executable_" + getClass().getName());
+            CompletableFuture<Process2> future = x.submit(builder);
+            try {
+                future.get();
+                Assert.fail();
+            }
+            catch (ExecutionException e) {
+                // expected
+            }
+            Assert.assertEquals(x.stats().failedLaunchCount(), 1);
+            Assert.assertEquals(x.stats().launchCount(), 0);
+        }
+        finally {
+            x.shutdown();
+        }
+    }
+    
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void submit_FailWhenShutdown()
+    throws InterruptedException {
+        ProcessBatchExecutor x = new ProcessBatchExecutor(1, 1);
+        x.shutdown();
+        x.submit(new ProcessBuilder2("java"));
+    }
+    
+    @Test(timeOut = 60000)
+    public void submit_PassWhenShutdownConcurrently()
+    throws Exception {
+        final ProcessBuilder2 builder =
+            new ProcessBuilder2("no_such_executable_" + getClass().getName());
+        for (int i = 0; i < 20; ++i) {
+            final ProcessBatchExecutor x = new ProcessBatchExecutor(1, 4);
+            final List<CompletableFuture<Process2>> futureList =
+                new ArrayList<CompletableFuture<Process2>>();
+            Thread thread = new Thread(new Runnable() {
+                
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            futureList.add(x.submit(builder));
+                        }
+                    }
+                    catch (IllegalStateException e) {
+                        // expected
+                    }
+                    catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                    }
+                }
+            });
+            thread.start();
+            Thread.sleep(10);
+            x.shutdown();
+            thread.join();
+            // Each future is completed, either by the launcher thread, or by shutdown.
+            for (CompletableFuture<Process2> future : futureList) {
+                try {
+                    future.get(10, TimeUnit.SECONDS);
+                    Assert.fail();
+                }
+                catch (ExecutionException e) {
+                    // expected
+                }
+            }
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBatchStats.ctor()
+    //
+    
+    @Test
+    public void ProcessBatchStats_ctor_Pass() {
+        long[] sortedWallNanosSampleArr = new long[] { 1000000, 2000000, 3000000, 0 };
+        ProcessBatchStats x =
+            new ProcessBatchStats(10, 1, 9, 0, 0, sortedWallNanosSampleArr, 3, 7000000);
+        Assert.assertEquals(x.completedCount(), 9);
+        Assert.assertEquals(x.p50WallMillis(), 2.0);
+        Assert.assertEquals(x.p99WallMillis(), 3.0);
+        // Maximum is not limited to the sample.
+        Assert.assertEquals(x.maxWallMillis(), 7.0);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBatchStats.percentile(long[], int, double)
+    //
+    
+    @DataProvider
+    public static Object[][] _percentile_Pass_Data() {
+        return new Object[][] {
+                { new long[] { }, 0.50, 0L },
+                { new long[] { 7 }, 0.50, 7L },
+                { new long[] { 7 }, 0.99, 7L },
+                { new long[] { 1, 2, 3, 4 }, 0.50, 2L },
+                { new long[] { 1, 2, 3, 4 }, 0.99, 4L },
+                { new long[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, 0.0, 1L },
+                { new long[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, 0.50, 5L },
+                { new long[] { 1, 2, 3, 4, 5, 6, 7, 8, 9, 10 }, 0.99, 10L },
+        };
+    }
+    
+    @Test(dataProvider = "_percentile_Pass_Data")
+    public void percentile_Pass(long[] sortedArr, double fraction, long expected) {
+        Assert.assertEquals(
+            ProcessBatchStats.percentile(sortedArr, sortedArr.length, fraction), expected);
+    }
+}
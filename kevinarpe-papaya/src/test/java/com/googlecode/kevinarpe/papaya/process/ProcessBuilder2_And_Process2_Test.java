@@ -27,6 +27,7 @@ package com.googlecode.kevinarpe.papaya.process;
 
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
+import com.google.common.io.ByteStreams;
 import com.googlecode.kevinarpe.papaya.PathUtils;
 import com.googlecode.kevinarpe.papaya.appendable.AbstractSimplifiedAppendable;
 import com.googlecode.kevinarpe.papaya.argument.ObjectArgs;
@@ -348,7 +349,7 @@ public class ProcessBuilder2_And_Process2_Test {
         Assert.assertEquals(exitValue, 0);
     }
     
-    private static String _getCurrentClasspath() {
+    static String _getCurrentClasspath() {
         ArrayList<String> classpathList = new ArrayList<String>();
         ClassLoader cl = ClassLoader.getSystemClassLoader();
         // A little bit of cheating.  How does this work exactly?
@@ -441,12 +442,16 @@ public class ProcessBuilder2_And_Process2_Test {
             String actualStdout = proc.stdoutDataAsString();
             byte[] actualStdoutByteArr = proc.stdoutDataAsByteArr();
             Assert.assertEquals(actualStdoutByteArr, actualStdout.getBytes());
+            Assert.assertEquals(
+                ByteStreams.toByteArray(proc.stdoutDataAsInputStream()), actualStdoutByteArr);
             
             String expectedStderr =
                 (psList.contains(ProcessStream.STDERR) ? ProcessStream.STDERR.text : "");
             String actualStderr = proc.stderrDataAsString();
             byte[] actualStderrByteArr = proc.stderrDataAsByteArr();
             Assert.assertEquals(actualStderrByteArr, actualStderr.getBytes());
+            Assert.assertEquals(
+                ByteStreams.toByteArray(proc.stderrDataAsInputStream()), actualStderrByteArr);
             
             TestAssertUtils.assertHugeStringEquals(actualStdout, expectedStdout);
             TestAssertUtils.assertHugeStringEquals(actualStderr, expectedStderr);
@@ -1516,6 +1521,31 @@ Caused by: java.io.IOException: Broken pipe
         Assert.assertEquals(stdoutText, ProcessStream.STDERR.text.substring(0, max));
     }
     
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessOutputStreamSettings.spillToDiskThresholdByteCount
+    //
+    
+    @Test
+    public void ProcessOutputStreamSettings_spillToDiskThresholdByteCount_Pass()
+    throws IOException, InvalidExitValueException, InterruptedException, TimeoutException {
+        ProcessBuilder2 builder = _createBuilder(ProcessStream.STDOUT, ProcessStream.STDERR);
+        builder.stdoutSettings().spillToDiskThresholdByteCount(99);
+        builder.stderrSettings().spillToDiskThresholdByteCount(101);
+        Process2 proc = builder.start();
+        proc.waitFor();
+        Assert.assertEquals(proc.stdoutDataAsString(), ProcessStream.STDOUT.text);
+        Assert.assertEquals(
+            ByteStreams.toByteArray(proc.stdoutDataAsInputStream()),
+            ProcessStream.STDOUT.text.getBytes());
+        Assert.assertEquals(proc.stderrDataAsString(), ProcessStream.STDERR.text);
+        Assert.assertEquals(
+            ByteStreams.toByteArray(proc.stderrDataAsInputStream()),
+            ProcessStream.STDERR.text.getBytes());
+        proc.clearAccumulatedData();
+        Assert.assertEquals(proc.stdoutDataAsByteArr(), new byte[0]);
+        Assert.assertEquals(proc.stderrDataAsByteArr(), new byte[0]);
+    }
+    
     ///////////////////////////////////////////////////////////////////////////
     // ProcessOutputStreamSettings.splitRegex
     //
@@ -0,0 +1,235 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ChildProcess1;
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ChildProcess2a;
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ProcessStream;
+import com.googlecode.kevinarpe.papaya.test.TestAssertUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ProcessExitWatcherTest {
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessExitWatcher.ctor()
+    //
+    
+    @Test
+    public void ctor_Pass() {
+        ProcessExitWatcher watcher = new ProcessExitWatcher();
+        Assert.assertEquals(watcher.pollMillis(), ProcessExitWatcher.DEFAULT_POLL_MILLIS);
+        Assert.assertEquals(watcher.watchedProcessCount(), 0);
+        Assert.assertFalse(watcher.isShutdown());
+        watcher.shutdown();
+        Assert.assertTrue(watcher.isShutdown());
+    }
+    
+    @DataProvider
+    public static Object[][] _ctor_Fail_Data() {
+        return new Object[][] {
+                { 0 },
+                { -1 },
+        };
+    }
+    
+    @Test(dataProvider = "_ctor_Fail_Data",
+            expectedExceptions = IllegalArgumentException.class)
+    public void ctor_Fail(long pollMillis) {
+        new ProcessExitWatcher(pollMillis);
+    }
+    
+    @Test
+    public void getDefault_Pass() {
+        Assert.assertSame(ProcessExitWatcher.getDefault(), ProcessExitWatcher.getDefault());
+        Assert.assertFalse(ProcessExitWatcher.getDefault().isShutdown());
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessExitWatcher.withTimeout(CompletableFuture, long)
+    //
+    
+    @Test
+    public void withTimeout_PassWithTimeout()
+    throws InterruptedException {
+        ProcessExitWatcher watcher = new ProcessExitWatcher();
+        try {
+            CompletableFuture<String> future = new CompletableFuture<String>();
+            CompletableFuture<String> x = watcher.withTimeout(future, 10);
+            try {
+                x.get();
+                Assert.fail();
+            }
+            catch (ExecutionException e) {
+                Assert.assertTrue(e.getCause() instanceof TimeoutException);
+            }
+            Assert.assertFalse(future.isDone());
+        }
+        finally {
+            watcher.shutdown();
+        }
+    }
+    
+    @Test
+    public void withTimeout_PassWithoutTimeout()
+    throws Exception {
+        ProcessExitWatcher watcher = new ProcessExitWatcher();
+        try {
+            CompletableFuture<String> future = new CompletableFuture<String>();
+            CompletableFuture<String> x = watcher.withTimeout(future, 60 * 1000);
+            future.complete("abc");
+            Assert.assertEquals(x.get(), "abc");
+        }
+        finally {
+            watcher.shutdown();
+        }
+    }
+    
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void withTimeout_FailWhenShutdown() {
+        ProcessExitWatcher watcher = new ProcessExitWatcher();
+        watcher.shutdown();
+        watcher.withTimeout(new CompletableFuture<String>(), 10);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBuilder2.exitWatcher(ProcessExitWatcher)
+    //
+    
+    @Test
+    public void exitWatcher_Pass() {
+        ProcessExitWatcher watcher = new ProcessExitWatcher();
+        try {
+            ProcessBuilder2 builder = new ProcessBuilder2("java");
+            Assert.assertNull(builder.exitWatcher());
+            Assert.assertSame(builder.exitWatcher(watcher), builder);
+            Assert.assertSame(builder.exitWatcher(), watcher);
+            ProcessBuilder2 builder2 = new ProcessBuilder2(builder);
+            Assert.assertSame(builder2.exitWatcher(), watcher);
+            builder.exitWatcher(null);
+            Assert.assertNull(builder.exitWatcher());
+        }
+        finally {
+            watcher.shutdown();
+        }
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // Process2.onExit()
+    //
+    
+    @Test
+    public void onExit_PassWithManyProcesses()
+    throws Exception {
+        ProcessExitWatcher watcher = new ProcessExitWatcher(1);
+        ProcessOutputStreamPump pump = new ProcessOutputStreamPump(2);
+        try {
+            String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+            ProcessBuilder2 builder =
+                new ProcessBuilder2("java", "-classpath", classpath, ChildProcess2a.class.getName());
+            builder.exitWatcher(watcher);
+            builder.stdoutSettings().isDataAccumulated(true);
+            builder.stderrSettings().isDataAccumulated(true);
+            List<Process2> procList = new ArrayList<Process2>();
+            List<CompletableFuture<Integer>> futureList = new ArrayList<CompletableFuture<Integer>>();
+            for (int i = 0; i < 8; ++i) {
+                // Half with threads, half with a shared pump
+                builder.outputStreamPump(0 == i % 2 ? null : pump);
+                Process2 proc = builder.start();
+                procList.add(proc);
+                futureList.add(proc.onExit(60 * 1000));
+            }
+            for (int i = 0; i < procList.size(); ++i) {
+                Process2 proc = procList.get(i);
+                Assert.assertEquals(futureList.get(i).get().intValue(), 0);
+                // Output streams are drained before the future completes.
+                TestAssertUtils.assertHugeStringEquals(
+                    proc.stdoutDataAsString(), ProcessStream.STDOUT.text);
+                TestAssertUtils.assertHugeStringEquals(
+                    proc.stderrDataAsString(), ProcessStream.STDERR.text);
+            }
+            Assert.assertEquals(watcher.watchedProcessCount(), 0);
+        }
+        finally {
+            pump.shutdown();
+            watcher.shutdown();
+        }
+    }
+    
+    @Test
+    public void onExit_Pass()
+    throws Exception {
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcess1.class.getName());
+        StringBuffer stdout = new StringBuffer();
+        builder.stdoutSettings().charCallback(stdout).splitRegex(null);
+        Process2 proc = builder.start();
+        CompletableFuture<Integer> x = proc.onExit();
+        CompletableFuture<Integer> x2 = proc.onExit();
+        Assert.assertNotSame(x, x2);
+        // Cancelling one future does not affect others.
+        x2.cancel(false);
+        Assert.assertEquals(x.get().intValue(), 0);
+        Assert.assertEquals(stdout.toString().trim(), "Hello, World!");
+        Assert.assertEquals(proc.onExit().get().intValue(), 0);
+        Assert.assertEquals(proc.waitFor(1000).intValue(), 0);
+    }
+    
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void onExit_FailWhenShutdown()
+    throws IOException {
+        ProcessExitWatcher watcher = new ProcessExitWatcher();
+        watcher.shutdown();
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcess1.class.getName());
+        builder.exitWatcher(watcher);
+        Process2 proc = builder.start();
+        proc.onExit();
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void onExit_FailWithZeroTimeout()
+    throws IOException {
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcess1.class.getName());
+        Process2 proc = builder.start();
+        proc.onExit(0);
+    }
+}
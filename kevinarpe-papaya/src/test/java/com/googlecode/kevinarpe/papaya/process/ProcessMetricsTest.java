@@ -0,0 +1,206 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ProcessStream;
+import com.googlecode.kevinarpe.papaya.process.StdinSourceTest.ChildProcessEcho;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ProcessMetricsTest {
+    
+    private static final boolean HAS_PROC = new File("/proc/self/stat").isFile();
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // LinuxProcStats.parse(String, String)
+    //
+    
+    @DataProvider
+    public static Object[][] _parse_Pass_Data() {
+        String status = "Name:\tjava\nVmPeak:\t  999 kB\nVmHWM:\t    1234 kB\nVmRSS:\t  1000 kB\n";
+        return new Object[][] {
+                {
+                    "4242 (java) S 1 4242 4242 0 -1 4194560 100 0 0 0 250 37 0 0 20 0 1 0",
+                    status,
+                    2500L, 370L, 1234L * 1024L
+                },
+                {
+                    "4242 (my (odd) cmd) R 1 4242 4242 0 -1 4194560 100 0 0 0 7 3 0 0 20 0 1 0\n",
+                    "Name:\tx\n",
+                    70L, 30L, -1L
+                },
+        };
+    }
+    
+    @Test(dataProvider = "_parse_Pass_Data")
+    public void parse_Pass(
+            String stat,
+            String status,
+            long expectedCpuUserMillis,
+            long expectedCpuSystemMillis,
+            long expectedPeakRssByteCount) {
+        LinuxProcStats x = LinuxProcStats.parse(stat, status);
+        Assert.assertEquals(x._cpuUserMillis, expectedCpuUserMillis);
+        Assert.assertEquals(x._cpuSystemMillis, expectedCpuSystemMillis);
+        Assert.assertEquals(x._peakRssByteCount, expectedPeakRssByteCount);
+    }
+    
+    @DataProvider
+    public static Object[][] _parse_FailWithMalformedStat_Data() {
+        return new Object[][] {
+                { "4242 java S 1" },
+                { "4242 (java) S 1 2 3" },
+        };
+    }
+    
+    @Test(dataProvider = "_parse_FailWithMalformedStat_Data",
+            expectedExceptions = IllegalArgumentException.class)
+    public void parse_FailWithMalformedStat(String stat) {
+        LinuxProcStats.parse(stat, "");
+    }
+    
+    @Test
+    public void tryRead_PassWithSelfOrMissing() {
+        Assert.assertNull(LinuxProcStats.tryRead(-1));
+        if (HAS_PROC) {
+            Assert.assertNotNull(LinuxProcStats.tryRead(Long.parseLong(_getSelfPid())));
+        }
+    }
+    
+    private static String _getSelfPid() {
+        // Example: "12345@hostname"
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        String x = name.substring(0, name.indexOf('@'));
+        return x;
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBuilder2.metricsListener(ProcessMetricsListener)
+    //
+    
+    @Test
+    public void metricsListener_Pass() {
+        ProcessMetricsListener listener = new ProcessMetricsListener() {
+            
+            @Override
+            public void onExit(Process2 process, ProcessMetrics metrics) {
+            }
+        };
+        ProcessBuilder2 builder = new ProcessBuilder2("java");
+        Assert.assertNull(builder.metricsListener());
+        Assert.assertSame(builder.metricsListener(listener), builder);
+        Assert.assertSame(builder.metricsListener(), listener);
+        Assert.assertSame(new ProcessBuilder2(builder).metricsListener(), listener);
+        builder.metricsListener(null);
+        Assert.assertNull(builder.metricsListener());
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // Process2.metrics()
+    //
+    
+    @Test
+    public void metrics_PassWithListener()
+    throws Exception {
+        final CompletableFuture<ProcessMetrics> future = new CompletableFuture<ProcessMetrics>();
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcessEcho.class.getName());
+        builder.stdinSource(StdinSource.fromFile(ProcessStream.STDIN.dataFilePath));
+        builder.metricsListener(new ProcessMetricsListener() {
+            
+            @Override
+            public void onExit(Process2 process, ProcessMetrics metrics) {
+                future.complete(metrics);
+            }
+        });
+        Process2 proc = builder.start();
+        ProcessMetrics metrics = future.get(60, TimeUnit.SECONDS);
+        Assert.assertEquals(proc.onExit().get().intValue(), 0);
+        
+        long byteCount = ProcessStream.STDIN.dataFilePath.length();
+        Assert.assertTrue(metrics.hasExited());
+        Assert.assertTrue(metrics.wallMillis() > 0.0);
+        Assert.assertEquals(metrics.stdinByteCount(), byteCount);
+        // Data is not accumulated, but still counted.
+        Assert.assertEquals(metrics.stdoutByteCount(), byteCount);
+        Assert.assertTrue(metrics.stdoutReadCallCount() >= 1);
+        Assert.assertEquals(metrics.stderrByteCount(), 0);
+        Assert.assertEquals(metrics.stderrReadCallCount(), 0);
+        if (HAS_PROC) {
+            Assert.assertTrue(metrics.pid() > 0);
+            Assert.assertTrue(metrics.cpuUserMillis() >= 0);
+            Assert.assertTrue(metrics.cpuSystemMillis() >= 0);
+            Assert.assertTrue(metrics.peakRssByteCount() > 0);
+        }
+        // Snapshots after exit are stable.
+        ProcessMetrics metrics2 = proc.metrics();
+        Assert.assertEquals(metrics2.wallMillis(), metrics.wallMillis());
+        Assert.assertEquals(metrics2.toString(), metrics.toString());
+    }
+    
+    @Test
+    public void metrics_PassWhileRunning()
+    throws Exception {
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcessEcho.class.getName());
+        // Echo waits for STDIN, which is never closed until the chunk supplier returns null.
+        final CompletableFuture<Void> release = new CompletableFuture<Void>();
+        builder.stdinSource(StdinSource.fromChunkSupplier(new StdinSource.ChunkSupplier() {
+            
+            @Override
+            public ByteBuffer nextChunk() {
+                release.join();
+                return null;
+            }
+        }));
+        Process2 proc = builder.start();
+        try {
+            ProcessMetrics metrics = proc.metrics();
+            Assert.assertFalse(metrics.hasExited());
+            Assert.assertEquals(metrics.stdinByteCount(), 0);
+            if (HAS_PROC) {
+                Assert.assertTrue(metrics.peakRssByteCount() > 0);
+            }
+        }
+        finally {
+            release.complete(null);
+        }
+        Assert.assertEquals(proc.onExit().get().intValue(), 0);
+        Assert.assertTrue(proc.metrics().hasExited());
+    }
+}
@@ -0,0 +1,227 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ChildProcess1;
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ChildProcess2a;
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ProcessStream;
+import com.googlecode.kevinarpe.papaya.test.TestAssertUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ProcessOutputStreamPumpTest {
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessOutputStreamPump.ctor()
+    //
+    
+    @Test
+    public void ctor_Pass() {
+        ProcessOutputStreamPump pump = new ProcessOutputStreamPump(3);
+        Assert.assertEquals(pump.threadCount(), 3);
+        Assert.assertEquals(
+            pump.maxIdleWaitMillis(), ProcessOutputStreamPump.DEFAULT_MAX_IDLE_WAIT_MILLIS);
+        Assert.assertEquals(pump.registeredStreamCount(), 0);
+        Assert.assertFalse(pump.isShutdown());
+        pump.shutdown();
+        Assert.assertTrue(pump.isShutdown());
+    }
+    
+    @DataProvider
+    public static Object[][] _ctor_Fail_Data() {
+        return new Object[][] {
+                { 0, 1 },
+                { -1, 1 },
+                { 1, 0 },
+                { 1, -1 },
+        };
+    }
+    
+    @Test(dataProvider = "_ctor_Fail_Data",
+            expectedExceptions = IllegalArgumentException.class)
+    public void ctor_Fail(int threadCount, long maxIdleWaitMillis) {
+        new ProcessOutputStreamPump(threadCount, maxIdleWaitMillis);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBuilder2.outputStreamPump(ProcessOutputStreamPump)
+    //
+    
+    @Test
+    public void outputStreamPump_Pass() {
+        ProcessOutputStreamPump pump = new ProcessOutputStreamPump(1);
+        try {
+            ProcessBuilder2 builder = new ProcessBuilder2("java");
+            Assert.assertNull(builder.outputStreamPump());
+            Assert.assertSame(builder.outputStreamPump(pump), builder);
+            Assert.assertSame(builder.outputStreamPump(), pump);
+            ProcessBuilder2 builder2 = new ProcessBuilder2(builder);
+            Assert.assertSame(builder2.outputStreamPump(), pump);
+            builder.outputStreamPump(null);
+            Assert.assertNull(builder.outputStreamPump());
+        }
+        finally {
+            pump.shutdown();
+        }
+    }
+    
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void start_FailWhenShutdown()
+    throws IOException {
+        ProcessOutputStreamPump pump = new ProcessOutputStreamPump(1);
+        pump.shutdown();
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcess1.class.getName());
+        builder.outputStreamPump(pump);
+        builder.start();
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // Many child processes with a single pump
+    //
+    
+    @Test
+    public void start_PassWithManyProcesses()
+    throws Exception {
+        ProcessOutputStreamPump pump = new ProcessOutputStreamPump(2);
+        try {
+            String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+            ProcessBuilder2 builder =
+                new ProcessBuilder2("java", "-classpath", classpath, ChildProcess2a.class.getName());
+            builder.outputStreamPump(pump);
+            builder.stdoutSettings().isDataAccumulated(true);
+            builder.stderrSettings().isDataAccumulated(true);
+            List<Process2> procList = new ArrayList<Process2>();
+            for (int i = 0; i < 8; ++i) {
+                Process2 proc = builder.start();
+                procList.add(proc);
+            }
+            for (Process2 proc : procList) {
+                int exitValue = proc.waitFor();
+                Assert.assertEquals(exitValue, 0);
+                // Join the pump before reading accumulated data.
+                while (null == proc.tryExitValue()) {
+                    Thread.yield();
+                }
+                TestAssertUtils.assertHugeStringEquals(
+                    proc.stdoutDataAsString(), ProcessStream.STDOUT.text);
+                TestAssertUtils.assertHugeStringEquals(
+                    proc.stderrDataAsString(), ProcessStream.STDERR.text);
+            }
+            Assert.assertEquals(pump.registeredStreamCount(), 0);
+        }
+        finally {
+            pump.shutdown();
+        }
+    }
+    
+    @Test
+    public void start_PassWithCharCallback()
+    throws Exception {
+        ProcessOutputStreamPump pump = new ProcessOutputStreamPump(1);
+        try {
+            String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+            ProcessBuilder2 builder =
+                new ProcessBuilder2("java", "-classpath", classpath, ChildProcess1.class.getName());
+            builder.outputStreamPump(pump);
+            StringBuffer stdout = new StringBuffer();
+            StringBuffer stderr = new StringBuffer();
+            builder.stdoutSettings().charCallback(stdout).splitRegex(null);
+            builder.stderrSettings().charCallback(stderr).splitRegex(null);
+            Process2 proc = builder.start();
+            Assert.assertEquals(proc.waitFor(), 0);
+            while (null == proc.tryExitValue()) {
+                Thread.yield();
+            }
+            Assert.assertEquals(stdout.toString().trim(), "Hello, World!");
+            Assert.assertEquals(stderr.toString().trim(), "Hello, World! x 2");
+        }
+        finally {
+            pump.shutdown();
+        }
+    }
+    
+    @Test(timeOut = 60000)
+    public void start_PassWhenCallbackThrows()
+    throws Exception {
+        ProcessOutputStreamPump pump = new ProcessOutputStreamPump(1);
+        try {
+            String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+            ProcessBuilder2 builder =
+                new ProcessBuilder2("java", "-classpath", classpath, ChildProcess1.class.getName());
+            builder.outputStreamPump(pump);
+            final RuntimeException callbackException = new IllegalStateException("Callback failed");
+            builder.stdoutSettings().charCallback(new Appendable() {
+                
+                @Override
+                public Appendable append(CharSequence csq) {
+                    throw callbackException;
+                }
+                
+                @Override
+                public Appendable append(CharSequence csq, int start, int end) {
+                    throw callbackException;
+                }
+                
+                @Override
+                public Appendable append(char c) {
+                    throw callbackException;
+                }
+            }).splitRegex(null);
+            builder.stdoutSettings().isDataAccumulated(true);
+            builder.stderrSettings().isDataAccumulated(true);
+            // Twice: The single pump thread must survive the first child process.
+            for (int i = 0; i < 2; ++i) {
+                Process2 proc = builder.start();
+                Assert.assertEquals(proc.waitFor(), 0);
+                while (null == proc.tryExitValue()) {
+                    Thread.yield();
+                }
+                Assert.assertEquals(proc.stderrDataAsString().trim(), "Hello, World! x 2");
+                try {
+                    proc.stdoutDataAsString();
+                    Assert.fail("Expected IOException");
+                }
+                catch (IOException e) {
+                    Assert.assertSame(e.getCause(), callbackException);
+                }
+            }
+            Assert.assertEquals(pump.registeredStreamCount(), 0);
+        }
+        finally {
+            pump.shutdown();
+        }
+    }
+}
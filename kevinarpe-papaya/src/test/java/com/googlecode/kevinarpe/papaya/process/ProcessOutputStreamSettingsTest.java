@@ -25,6 +25,7 @@ package com.googlecode.kevinarpe.papaya.process;
  * #L%
  */
 
+import java.io.File;
 import java.io.IOException;
 import java.nio.charset.Charset;
 import java.util.regex.Pattern;
@@ -372,4 +373,56 @@ public class ProcessOutputStreamSettingsTest {
         
         x.maxAccumulatedDataByteCount(0);
     }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessOutputStreamSettings.spillToDiskThresholdByteCount
+    //
+    
+    @Test(dataProvider = "_dataForStdxxxSettings")
+    public void spillToDiskThresholdByteCount_Pass(
+            ProcessOutputStreamSettings x) {
+        ObjectArgs.checkNotNull(x, "x");
+        
+        Assert.assertEquals(
+            x.spillToDiskThresholdByteCount(),
+            ProcessOutputStreamSettings.DEFAULT_SPILL_TO_DISK_THRESHOLD_BYTE_COUNT);
+        // Two steps here: (1) call the method, (2) assert the result
+        Assert.assertTrue(x == x.spillToDiskThresholdByteCount(25));
+        Assert.assertEquals(x.spillToDiskThresholdByteCount(), 25);
+        Assert.assertTrue(
+            x == x.spillToDiskThresholdByteCount(
+                    ProcessOutputStreamSettings.DEFAULT_SPILL_TO_DISK_THRESHOLD_BYTE_COUNT));
+        Assert.assertEquals(
+            x.spillToDiskThresholdByteCount(),
+            ProcessOutputStreamSettings.DEFAULT_SPILL_TO_DISK_THRESHOLD_BYTE_COUNT);
+    }
+    
+    @Test(dataProvider = "_dataForStdxxxSettings",
+            expectedExceptions = IllegalArgumentException.class)
+    public void spillToDiskThresholdByteCount_FailWithZero(
+            ProcessOutputStreamSettings x) {
+        ObjectArgs.checkNotNull(x, "x");
+        
+        x.spillToDiskThresholdByteCount(0);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessOutputStreamSettings.spillDirectory
+    //
+    
+    @Test(dataProvider = "_dataForStdxxxSettings")
+    public void spillDirectory_Pass(
+            ProcessOutputStreamSettings x) {
+        ObjectArgs.checkNotNull(x, "x");
+        
+        Assert.assertEquals(
+            x.spillDirectory(),
+            ProcessOutputStreamSettings.DEFAULT_SPILL_DIRECTORY);
+        File dir = new File("abc");
+        // Two steps here: (1) call the method, (2) assert the result
+        Assert.assertTrue(x == x.spillDirectory(dir));
+        Assert.assertEquals(x.spillDirectory(), dir);
+        Assert.assertTrue(x == x.spillDirectory(null));
+        Assert.assertEquals(x.spillDirectory(), null);
+    }
 }
@@ -0,0 +1,210 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ProcessStream;
+import com.googlecode.kevinarpe.papaya.process.StdinSourceTest.ChildProcessEcho;
+import com.googlecode.kevinarpe.papaya.test.TestAssertUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ProcessPipelineTest {
+    
+    /**
+     * Copies all text from STDIN to STDOUT as upper case.  Writes the number of bytes to STDERR.
+     */
+    public static class ChildProcessUpperCase {
+        
+        public static void main(String[] argArr)
+        throws IOException {
+            byte[] buffer = new byte[4096];
+            int readCount;
+            long total = 0;
+            while (-1 != (readCount = System.in.read(buffer))) {
+                String s = new String(buffer, 0, readCount, "ISO-8859-1");
+                System.out.write(s.toUpperCase(Locale.ROOT).getBytes("ISO-8859-1"));
+                total += readCount;
+            }
+            System.out.flush();
+            System.err.print(total);
+        }
+    }
+    
+    /**
+     * Writes to STDOUT until STDOUT is closed.
+     */
+    public static class ChildProcessYes {
+        
+        public static void main(String[] argArr) {
+            byte[] buffer = new byte[4096];
+            Arrays.fill(buffer, (byte) 'y');
+            while (!System.out.checkError()) {
+                System.out.write(buffer, 0, buffer.length);
+            }
+        }
+    }
+    
+    /**
+     * Reads ten bytes from STDIN, writes them to STDOUT, then exits.
+     */
+    public static class ChildProcessHead {
+        
+        public static void main(String[] argArr)
+        throws IOException {
+            InputStream in = System.in;
+            for (int i = 0; i < 10; ++i) {
+                System.out.write(in.read());
+            }
+            System.out.flush();
+        }
+    }
+    
+    private static ProcessBuilder2 _newBuilder(Class<?> childProcessClass) {
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 x =
+            new ProcessBuilder2("java", "-classpath", classpath, childProcessClass.getName());
+        x.stderrSettings().isDataAccumulated(true);
+        return x;
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessPipelineBuilder.addStage(ProcessBuilder2)
+    //
+    
+    @Test
+    public void addStage_Pass() {
+        ProcessBuilder2 pb = _newBuilder(ChildProcessEcho.class);
+        ProcessPipelineBuilder builder = new ProcessPipelineBuilder();
+        Assert.assertTrue(builder.stageList().isEmpty());
+        Assert.assertSame(builder.addStage(pb), builder);
+        Assert.assertSame(builder.addStage(pb), builder);
+        Assert.assertEquals(builder.stageList().size(), 2);
+        // Builders are copied.
+        Assert.assertNotSame(builder.stageList().get(0), pb);
+        Assert.assertEquals(builder.stageList().get(0).command(), pb.command());
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void addStage_FailWithNull() {
+        new ProcessPipelineBuilder().addStage(null);
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void addStage_FailWithStdinOnSecondStage() {
+        new ProcessPipelineBuilder()
+            .addStage(_newBuilder(ChildProcessEcho.class))
+            .addStage(_newBuilder(ChildProcessEcho.class).stdinText("abc"));
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessPipelineBuilder.start()
+    //
+    
+    @Test
+    public void start_Pass()
+    throws Exception {
+        ProcessBuilder2 first = _newBuilder(ChildProcessEcho.class);
+        first.stdinSource(StdinSource.fromFile(ProcessStream.STDIN.dataFilePath));
+        ProcessBuilder2 last = _newBuilder(ChildProcessEcho.class);
+        last.stdoutSettings().isDataAccumulated(true);
+        ProcessPipeline pipeline =
+            new ProcessPipelineBuilder()
+                .addStage(first)
+                .addStage(_newBuilder(ChildProcessUpperCase.class))
+                .addStage(last)
+                .start();
+        Assert.assertEquals(pipeline.stageCount(), 3);
+        Assert.assertSame(pipeline.firstStage(), pipeline.stage(0));
+        Assert.assertSame(pipeline.lastStage(), pipeline.stage(2));
+        
+        List<Integer> exitValueList = pipeline.onExit().get();
+        Assert.assertEquals(exitValueList, Arrays.asList(0, 0, 0));
+        Assert.assertEquals(pipeline.waitFor(), exitValueList);
+        
+        String text = ProcessStream.STDIN.text;
+        TestAssertUtils.assertHugeStringEquals(
+            pipeline.lastStage().stdoutDataAsString(), text.toUpperCase(Locale.ROOT));
+        Assert.assertEquals(
+            pipeline.stage(1).stderrDataAsString(),
+            String.valueOf(text.getBytes("ISO-8859-1").length));
+        // Output of intermediate stages is not accumulated.
+        Assert.assertEquals(pipeline.firstStage().stdoutDataAsByteArr().length, 0);
+    }
+    
+    @Test
+    public void start_PassWhenNextStageStopsReadingEarly()
+    throws Exception {
+        ProcessBuilder2 last = _newBuilder(ChildProcessHead.class);
+        last.stdoutSettings().isDataAccumulated(true);
+        ProcessPipeline pipeline =
+            new ProcessPipelineBuilder()
+                .addStage(_newBuilder(ChildProcessYes.class))
+                .addStage(last)
+                .start();
+        List<Integer> exitValueList = pipeline.waitFor();
+        Assert.assertEquals(exitValueList, Arrays.asList(0, 0));
+        Assert.assertEquals(pipeline.lastStage().stdoutDataAsString(), "yyyyyyyyyy");
+    }
+    
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void start_FailWithoutStages()
+    throws IOException {
+        new ProcessPipelineBuilder().start();
+    }
+    
+    @Test(expectedExceptions = IOException.class)
+    public void start_FailWithBadCommand()
+    throws IOException {
+        new ProcessPipelineBuilder()
+            .addStage(_newBuilder(ChildProcessYes.class))
+            .addStage(new ProcessBuilder2("no-such-command-xyz"))
+            .start();
+    }
+    
+    @Test(expectedExceptions = IndexOutOfBoundsException.class)
+    public void stage_FailWithBadIndex()
+    throws IOException {
+        ProcessPipeline pipeline =
+            new ProcessPipelineBuilder()
+                .addStage(_newBuilder(ChildProcessEcho.class))
+                .start();
+        try {
+            pipeline.stage(1);
+        }
+        finally {
+            pipeline.destroy();
+        }
+    }
+}
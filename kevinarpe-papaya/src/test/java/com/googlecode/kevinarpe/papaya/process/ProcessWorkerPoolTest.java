@@ -0,0 +1,290 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class ProcessWorkerPoolTest {
+    
+    /**
+     * Replies to each request with {@code "<request>:<count>"}, where count is the number of
+     * requests served by this child process.  Request {@code "exit"} exits without a reply.
+     * First argument is {@code "length"} for length-prefixed framing, else newline-delimited.
+     */
+    public static class ChildProcessWorker {
+        
+        public static void main(String[] argArr)
+        throws IOException {
+            ProcessWorkerFraming framing =
+                ("length".equals(argArr[0])
+                    ? ProcessWorkerFraming.lengthPrefixed(1024)
+                    : ProcessWorkerFraming.delimited((byte) '\n'));
+            OutputStream out =
+                new BufferedOutputStream(new FileOutputStream(FileDescriptor.out));
+            int count = 0;
+            byte[] request;
+            // Same framing for requests and responses.
+            while (null != (request = framing.readResponse(System.in))) {
+                String s = new String(request, "UTF-8");
+                if ("exit".equals(s)) {
+                    System.exit(3);
+                }
+                ++count;
+                framing.writeRequest(out, (s + ":" + count).getBytes("UTF-8"));
+                out.flush();
+            }
+        }
+    }
+    
+    private static ProcessBuilder2 _newBuilder(String framingName) {
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 x = new ProcessBuilder2(
+            "java", "-classpath", classpath, ChildProcessWorker.class.getName(), framingName);
+        return x;
+    }
+    
+    private static String _call(ProcessWorkerPool pool, String request)
+    throws Exception {
+        byte[] response = pool.call(request.getBytes("UTF-8"));
+        String x = new String(response, "UTF-8");
+        return x;
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessWorkerFraming
+    //
+    
+    @DataProvider
+    public static Object[][] _framing_Pass_Data() {
+        return new Object[][] {
+                { ProcessWorkerFraming.lengthPrefixed(100), new byte[] { 0, 10, 1, 2 } },
+                { ProcessWorkerFraming.lengthPrefixed(100), new byte[0] },
+                { ProcessWorkerFraming.delimited((byte) '\n'), "abc def".getBytes() },
+                { ProcessWorkerFraming.delimited((byte) 0), new byte[0] },
+        };
+    }
+    
+    @Test(dataProvider = "_framing_Pass_Data")
+    public void framing_Pass(ProcessWorkerFraming framing, byte[] message)
+    throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        framing.writeRequest(out, message);
+        framing.writeRequest(out, message);
+        ByteArrayInputStream in = new ByteArrayInputStream(out.toByteArray());
+        Assert.assertEquals(framing.readResponse(in), message);
+        Assert.assertEquals(framing.readResponse(in), message);
+        Assert.assertNull(framing.readResponse(in));
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void delimited_FailWithDelimiterInRequest()
+    throws IOException {
+        ProcessWorkerFraming.delimited((byte) '\n').writeRequest(
+            new ByteArrayOutputStream(), "a\nb".getBytes());
+    }
+    
+    @DataProvider
+    public static Object[][] _readResponse_FailWithEndOfStream_Data() {
+        return new Object[][] {
+                { ProcessWorkerFraming.lengthPrefixed(100), new byte[] { 0, 0 } },
+                { ProcessWorkerFraming.lengthPrefixed(100), new byte[] { 0, 0, 0, 3, 1 } },
+                { ProcessWorkerFraming.delimited((byte) '\n'), "abc".getBytes() },
+        };
+    }
+    
+    @Test(dataProvider = "_readResponse_FailWithEndOfStream_Data",
+            expectedExceptions = EOFException.class)
+    public void readResponse_FailWithEndOfStream(ProcessWorkerFraming framing, byte[] byteArr)
+    throws IOException {
+        framing.readResponse(new ByteArrayInputStream(byteArr));
+    }
+    
+    @Test(expectedExceptions = IOException.class)
+    public void lengthPrefixed_FailWithTooLongResponse()
+    throws IOException {
+        ProcessWorkerFraming.lengthPrefixed(2).readResponse(
+            new ByteArrayInputStream(new byte[] { 0, 0, 0, 3, 1, 2, 3 }));
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void lengthPrefixed_FailWithZeroMax() {
+        ProcessWorkerFraming.lengthPrefixed(0);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessWorkerPool
+    //
+    
+    @DataProvider
+    public static Object[][] _call_Pass_Data() {
+        return new Object[][] {
+                { "length", ProcessWorkerFraming.lengthPrefixed(1024) },
+                { "line", ProcessWorkerFraming.delimited((byte) '\n') },
+        };
+    }
+    
+    @Test(dataProvider = "_call_Pass_Data")
+    public void call_Pass(String framingName, ProcessWorkerFraming framing)
+    throws Exception {
+        ProcessWorkerPool pool = new ProcessWorkerPool(
+            _newBuilder(framingName), framing, 1, ProcessWorkerPool.UNLIMITED_REQUEST_COUNT);
+        try {
+            Assert.assertEquals(pool.workerCount(), 1);
+            Assert.assertEquals(pool.idleWorkerCount(), 1);
+            for (int i = 1; i <= 5; ++i) {
+                Assert.assertEquals(_call(pool, "abc"), "abc:" + i);
+            }
+            Assert.assertEquals(pool.startCount(), 1);
+            Assert.assertEquals(pool.requestCount(), 5);
+        }
+        finally {
+            pool.close();
+        }
+    }
+    
+    @Test
+    public void call_PassWithRecycle()
+    throws Exception {
+        ProcessWorkerPool pool = new ProcessWorkerPool(
+            _newBuilder("length"), ProcessWorkerFraming.lengthPrefixed(1024), 1, 2);
+        try {
+            Assert.assertEquals(pool.maxRequestCountPerWorker(), 2);
+            Assert.assertEquals(_call(pool, "a"), "a:1");
+            Assert.assertEquals(_call(pool, "b"), "b:2");
+            Assert.assertEquals(_call(pool, "c"), "c:1");
+            Assert.assertEquals(pool.startCount(), 2);
+        }
+        finally {
+            pool.close();
+        }
+    }
+    
+    @Test
+    public void call_PassWithRestartAfterDeath()
+    throws Exception {
+        ProcessWorkerPool pool = new ProcessWorkerPool(
+            _newBuilder("line"), ProcessWorkerFraming.delimited((byte) '\n'), 1,
+            ProcessWorkerPool.UNLIMITED_REQUEST_COUNT);
+        try {
+            Assert.assertEquals(_call(pool, "a"), "a:1");
+            try {
+                _call(pool, "exit");
+                Assert.fail("Expected exception");
+            }
+            catch (EOFException e) {
+                // Expected
+            }
+            Assert.assertEquals(_call(pool, "b"), "b:1");
+            Assert.assertEquals(pool.startCount(), 2);
+            Assert.assertEquals(pool.requestCount(), 2);
+        }
+        finally {
+            pool.close();
+        }
+    }
+    
+    @Test
+    public void call_PassWithManyThreads()
+    throws Exception {
+        final ProcessWorkerPool pool = new ProcessWorkerPool(
+            _newBuilder("length"), ProcessWorkerFraming.lengthPrefixed(1024), 2, 7);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> futureList = new ArrayList<Future<String>>();
+            for (int i = 0; i < 40; ++i) {
+                final String request = "r" + i;
+                futureList.add(executor.submit(new Callable<String>() {
+                    
+                    @Override
+                    public String call()
+                    throws Exception {
+                        return _call(pool, request);
+                    }
+                }));
+            }
+            for (int i = 0; i < futureList.size(); ++i) {
+                String response = futureList.get(i).get();
+                Assert.assertTrue(response.startsWith("r" + i + ":"), response);
+            }
+            Assert.assertEquals(pool.requestCount(), 40);
+        }
+        finally {
+            executor.shutdown();
+            pool.close();
+        }
+    }
+    
+    @Test(expectedExceptions = IllegalStateException.class)
+    public void call_FailWhenClosed()
+    throws Exception {
+        ProcessWorkerPool pool = new ProcessWorkerPool(
+            _newBuilder("length"), ProcessWorkerFraming.lengthPrefixed(1024), 1, 1);
+        pool.close();
+        Assert.assertTrue(pool.isClosed());
+        pool.close();
+        _call(pool, "abc");
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithStdin()
+    throws IOException {
+        new ProcessWorkerPool(
+            _newBuilder("length").stdinText("abc"), ProcessWorkerFraming.lengthPrefixed(1), 1, 1);
+    }
+    
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void ctor_FailWithZeroMaxRequestCount()
+    throws IOException {
+        new ProcessWorkerPool(_newBuilder("length"), ProcessWorkerFraming.lengthPrefixed(1), 1, 0);
+    }
+    
+    @Test(expectedExceptions = IOException.class)
+    public void ctor_FailWithBadCommand()
+    throws IOException {
+        new ProcessWorkerPool(
+            new ProcessBuilder2("no-such-command-xyz"), ProcessWorkerFraming.lengthPrefixed(1), 2, 1);
+    }
+}
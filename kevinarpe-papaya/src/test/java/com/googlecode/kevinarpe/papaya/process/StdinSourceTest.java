@@ -0,0 +1,280 @@
+package com.googlecode.kevinarpe.papaya.process;
+
+/*
+ * #%L
+ * This file is part of Papaya.
+ * %%
+ * Copyright (C) 2013 - 2020 Kevin Connor ARPE (kevinarpe@gmail.com)
+ * %%
+ * Papaya is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * GPL Classpath Exception:
+ * This project is subject to the "Classpath" exception as provided in
+ * the LICENSE file that accompanied this code.
+ * 
+ * Papaya is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with Papaya.  If not, see <http://www.gnu.org/licenses/>.
+ * #L%
+ */
+
+import com.googlecode.kevinarpe.papaya.process.ProcessBuilder2_And_Process2_Test.ProcessStream;
+import com.googlecode.kevinarpe.papaya.test.TestAssertUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+/**
+ * @author Kevin Connor ARPE (kevinarpe@gmail.com)
+ */
+public class StdinSourceTest {
+    
+    /**
+     * Copies all bytes from STDIN to STDOUT.
+     */
+    public static class ChildProcessEcho {
+        
+        public static void main(String[] argArr)
+        throws IOException {
+            byte[] buffer = new byte[4096];
+            int readCount;
+            OutputStream out = System.out;
+            while (-1 != (readCount = System.in.read(buffer))) {
+                out.write(buffer, 0, readCount);
+            }
+            out.flush();
+        }
+    }
+    
+    private static byte[] _newByteArr(int length) {
+        byte[] x = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            x[i] = (byte) (i * 31);
+        }
+        return x;
+    }
+    
+    private static StdinSource.ChunkSupplier _newChunkSupplier(
+            final byte[] byteArr, final int chunkLength, final boolean isDirect) {
+        return new StdinSource.ChunkSupplier() {
+            
+            private int _offset = 0;
+            
+            @Override
+            public ByteBuffer nextChunk() {
+                if (_offset == byteArr.length) {
+                    return null;
+                }
+                int count = Math.min(chunkLength, byteArr.length - _offset);
+                ByteBuffer x =
+                    (isDirect ? ByteBuffer.allocateDirect(count) : ByteBuffer.allocate(count));
+                x.put(byteArr, _offset, count);
+                x.flip();
+                _offset += count;
+                return x;
+            }
+        };
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // StdinSource.writeTo(OutputStream, byte[])
+    //
+    
+    @DataProvider
+    public static Object[][] _writeTo_Pass_Data() {
+        byte[] byteArr = _newByteArr(100000);
+        return new Object[][] {
+                { StdinSource.fromInputStream(new ByteArrayInputStream(byteArr)), byteArr },
+                {
+                    StdinSource.fromChannel(
+                        Channels.newChannel(new ByteArrayInputStream(byteArr))),
+                    byteArr
+                },
+                { StdinSource.fromChunkSupplier(_newChunkSupplier(byteArr, 7777, false)), byteArr },
+                { StdinSource.fromChunkSupplier(_newChunkSupplier(byteArr, 7777, true)), byteArr },
+                { StdinSource.fromChunkSupplier(_newChunkSupplier(new byte[0], 1, false)), new byte[0] },
+        };
+    }
+    
+    @Test(dataProvider = "_writeTo_Pass_Data")
+    public void writeTo_Pass(StdinSource source, byte[] expected)
+    throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = source.writeTo(out, new byte[1000]);
+        Assert.assertEquals(count, expected.length);
+        Assert.assertEquals(out.toByteArray(), expected);
+    }
+    
+    @Test
+    public void writeTo_PassWithFileChannelAtPosition()
+    throws IOException {
+        FileInputStream fis = new FileInputStream(ProcessStream.STDIN.dataFilePath);
+        fis.getChannel().position(10);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long count = StdinSource.fromChannel(fis.getChannel()).writeTo(out, new byte[1000]);
+        byte[] expected = ProcessStream.STDIN.text.getBytes();
+        Assert.assertEquals(count, expected.length - 10);
+        Assert.assertEquals(out.toByteArray(), Arrays.copyOfRange(expected, 10, expected.length));
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void fromInputStream_FailWithNull() {
+        StdinSource.fromInputStream((InputStream) null);
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void fromChannel_FailWithNull() {
+        StdinSource.fromChannel(null);
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void fromFile_FailWithNull() {
+        StdinSource.fromFile(null);
+    }
+    
+    @Test(expectedExceptions = NullPointerException.class)
+    public void fromChunkSupplier_FailWithNull() {
+        StdinSource.fromChunkSupplier(null);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // ProcessBuilder2.stdinSource(StdinSource)
+    //
+    
+    @Test
+    public void stdinSource_Pass() {
+        StdinSource source = StdinSource.fromFile(ProcessStream.STDIN.dataFilePath);
+        ProcessBuilder2 builder = new ProcessBuilder2("java");
+        Assert.assertNull(builder.stdinSource());
+        builder.stdinText("abc");
+        Assert.assertSame(builder.stdinSource(source), builder);
+        Assert.assertSame(builder.stdinSource(), source);
+        Assert.assertNull(builder.stdinText());
+        Assert.assertNull(builder.stdinData());
+        ProcessBuilder2 builder2 = new ProcessBuilder2(builder);
+        Assert.assertSame(builder2.stdinSource(), source);
+        builder.stdinData(new byte[] { 1 });
+        Assert.assertNull(builder.stdinSource());
+        builder.stdinSource(source);
+        builder.stdinText("abc");
+        Assert.assertNull(builder.stdinSource());
+    }
+    
+    @Test
+    public void start_PassWithFile()
+    throws Exception {
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcessEcho.class.getName());
+        builder.stdinSource(StdinSource.fromFile(ProcessStream.STDIN.dataFilePath));
+        builder.stdoutSettings().isDataAccumulated(true);
+        // Reuse the same source for two child processes.
+        for (int i = 0; i < 2; ++i) {
+            Process2 proc = builder.start();
+            Assert.assertEquals(proc.onExit().get().intValue(), 0);
+            TestAssertUtils.assertHugeStringEquals(
+                proc.stdoutDataAsString(), ProcessStream.STDIN.text);
+        }
+    }
+    
+    @Test
+    public void start_PassWithChunkSupplier()
+    throws Exception {
+        String classpath = ProcessBuilder2_And_Process2_Test._getCurrentClasspath();
+        ProcessBuilder2 builder =
+            new ProcessBuilder2("java", "-classpath", classpath, ChildProcessEcho.class.getName());
+        byte[] byteArr = _newByteArr(1000000);
+        builder.stdinSource(StdinSource.fromChunkSupplier(_newChunkSupplier(byteArr, 5000, false)));
+        builder.stdoutSettings().isDataAccumulated(true);
+        Process2 proc = builder.start();
+        Assert.assertEquals(proc.onExit().get().intValue(), 0);
+        Assert.assertEquals(proc.stdoutDataAsByteArr(), byteArr);
+    }
+    
+    ///////////////////////////////////////////////////////////////////////////
+    // WriteOutputStreamThread.getWrittenByteCount()
+    //
+    
+    /**
+     * Accepts at most {@code maxByteCount} bytes, then throws {@link IOException}, like a child
+     * process that exits before it reads all of STDIN.
+     */
+    private static OutputStream _newFailingOutputStream(final int maxByteCount) {
+        return new OutputStream() {
+            
+            private int _byteCount = 0;
+            
+            @Override
+            public void write(int b)
+            throws IOException {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+            
+            @Override
+            public void write(byte[] byteArr, int offset, int length)
+            throws IOException {
+                if (_byteCount + length > maxByteCount) {
+                    throw new IOException("Broken pipe");
+                }
+                _byteCount += length;
+            }
+        };
+    }
+    
+    @Test
+    public void WriteOutputStreamThread_getWrittenByteCount_PassWhenByteArrWriteFails()
+    throws InterruptedException {
+        byte[] byteArr = _newByteArr(30000);
+        WriteOutputStreamThread x =
+            new WriteOutputStreamThread(_newFailingOutputStream(20000), byteArr);
+        x.start();
+        x.join();
+        Assert.assertTrue(x.getException() instanceof IOException);
+        // Two full chunks were written before the failure.
+        Assert.assertEquals(x.getWrittenByteCount(), 2 * 8192);
+    }
+    
+    @Test
+    public void WriteOutputStreamThread_getWrittenByteCount_PassWhenSourceWriteFails()
+    throws InterruptedException {
+        byte[] byteArr = _newByteArr(30000);
+        StdinSource source = StdinSource.fromInputStream(new ByteArrayInputStream(byteArr));
+        WriteOutputStreamThread x =
+            new WriteOutputStreamThread(_newFailingOutputStream(20000), source);
+        x.start();
+        x.join();
+        Assert.assertTrue(x.getException() instanceof IOException);
+        Assert.assertEquals(x.getWrittenByteCount(), 2 * 8192);
+    }
+    
+    @Test
+    public void WriteOutputStreamThread_getWrittenByteCount_Pass()
+    throws InterruptedException {
+        byte[] byteArr = _newByteArr(30000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        WriteOutputStreamThread x = new WriteOutputStreamThread(
+            out, StdinSource.fromChunkSupplier(_newChunkSupplier(byteArr, 7000, false)));
+        x.start();
+        x.join();
+        Assert.assertNull(x.getException());
+        Assert.assertEquals(x.getWrittenByteCount(), byteArr.length);
+        Assert.assertEquals(out.toByteArray(), byteArr);
+    }
+}
@@ -512,6 +512,84 @@ public class TestClassFinderImplTest {
         _assertLogger(SLF4JLogLevel.DEBUG, 1);
     }
 
+    @DataProvider
+    private static Object[][] _TestClassFinderPathFilter_accept_PassWithLiteralPatterns_Data() {
+        return new Object[][] {
+            { "\\.java$", null, true },
+            { "\\.kt$", null, false },
+            { "^/src/", null, true },
+            { "^/tmp/", null, false },
+            { "^/src/a/FooTest\\.java$", null, true },
+            { "^/src/a/FooTest\\.java$", "\\.java$", false },
+            { "^/src/a/Foo\\.java$", null, false },
+            { "Test", null, true },
+            { "Test", "/a/", false },
+            { "Test", "/b/", true },
+            { "\\Q.java\\E$", null, true },
+            { "\\Q.java\\E$", "\\QTest.java\\E", false },
+            // Regex patterns
+            { "Foo.*\\.java", null, true },
+            { "Bar.*\\.java", null, false },
+            { "\\.java$", "^/src/[a-z]/", false },
+            { "\\.java$", "\\d", true },
+            { "\\.java$", "(?i)footest", false },
+            { "\\.java$", "\\Q.java", false },
+        };
+    }
+
+    @Test(dataProvider = "_TestClassFinderPathFilter_accept_PassWithLiteralPatterns_Data")
+    public void TestClassFinderPathFilter_accept_PassWithLiteralPatterns(
+            String includeRegex, String optExcludeRegex, boolean expectedResult) {
+        File mockFile = Mockito.mock(File.class);
+        when(mockFile.isFile()).thenReturn(true);
+        when(mockFile.getAbsolutePath()).thenReturn("/src/a/FooTest.java");
+        // Always add a non-matching pattern to test more than one pattern per group.
+        classUnderTestWithMocks =
+            classUnderTestWithMocks.withIncludePatterns(
+                Pattern.compile(includeRegex), Pattern.compile("^/x/"), Pattern.compile("y+z"));
+        if (null != optExcludeRegex) {
+            classUnderTestWithMocks =
+                classUnderTestWithMocks.withExcludePatterns(
+                    Pattern.compile(optExcludeRegex), Pattern.compile("\\.x$"));
+        }
+        TestClassFinderImpl.IteratePathFilter pathFilter =
+            classUnderTestWithMocks.new IteratePathFilter();
+        boolean actualResult = pathFilter.accept(mockFile, 1);
+        assertEquals(actualResult, expectedResult);
+        _assertLogger(SLF4JLogLevel.DEBUG, 1);
+    }
+
+    @DataProvider
+    private static Object[][] _TestClassFinderPathFilter_accept_PassWithBackslashSeparator_Data() {
+        return new Object[][] {
+            { "\\.java$", null, true },
+            { "^C:\\\\src\\\\", null, true },
+            { "^C:/src/", null, false },
+            { "\\\\a\\\\", null, true },
+            { "Test", "\\\\a\\\\", false },
+            { "Test", "/a/", true },
+        };
+    }
+
+    @Test(dataProvider = "_TestClassFinderPathFilter_accept_PassWithBackslashSeparator_Data")
+    public void TestClassFinderPathFilter_accept_PassWithBackslashSeparator(
+            String includeRegex, String optExcludeRegex, boolean expectedResult) {
+        File mockFile = Mockito.mock(File.class);
+        when(mockFile.isFile()).thenReturn(true);
+        when(mockFile.getAbsolutePath()).thenReturn("C:\\src\\a\\FooTest.java");
+        classUnderTestWithMocks =
+            classUnderTestWithMocks.withIncludePatterns(Pattern.compile(includeRegex));
+        if (null != optExcludeRegex) {
+            classUnderTestWithMocks =
+                classUnderTestWithMocks.withExcludePatterns(Pattern.compile(optExcludeRegex));
+        }
+        TestClassFinderImpl.IteratePathFilter pathFilter =
+            classUnderTestWithMocks.new IteratePathFilter('\\');
+        boolean actualResult = pathFilter.accept(mockFile, 1);
+        assertEquals(actualResult, expectedResult);
+        _assertLogger(SLF4JLogLevel.DEBUG, 1);
+    }
+
     @Test(expectedExceptions = NullPointerException.class)
     public void TestClassFinderPathFilter_accept_FailWithNull() {
         classUnderTestWithoutMocks.new IteratePathFilter().accept((File) null, 1);